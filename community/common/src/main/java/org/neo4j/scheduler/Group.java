@@ -34,6 +34,10 @@ public enum Group
     PAGE_CACHE_EVICTION( "PageCacheEviction" ),
     /* Page cache background eviction. */
     PAGE_CACHE_PRE_FETCHER( "PageCachePreFetcher", ExecutorServiceFactory.cachedWithDiscard() ),
+    /** Page cache background writeback of pages that have been dirty for a while. */
+    PAGE_CACHE_WRITEBACK( "PageCacheWriteback" ),
+    /** Page cache profiling, and warmup of the page cache from profiles when databases start. */
+    PAGE_CACHE_WARMER( "PageCacheWarmer" ),
     /** Watch out for, and report, external manipulation of store files. */
     FILE_WATCHER( "FileWatcher", ExecutorServiceFactory.unschedulable() ),
     /** Monitor and report system-wide pauses, in case they lead to service interruption. */
@@ -44,6 +48,10 @@ public enum Group
     CHECKPOINT( "CheckPoint" ),
     /** Various little periodic tasks that need to be done on a regular basis to keep the store in good shape. */
     STORAGE_MAINTENANCE( "StorageMaintenance" ),
+    /** Writing the records of applied transactions to the store in parallel. */
+    STORAGE_PARALLEL_APPLY( "StorageParallelApply" ),
+    /** Writing the counts changes of large checkpoints to the counts store in parallel. */
+    COUNTS_STORE_CHECKPOINT( "CountsStoreCheckpoint" ),
     /** Index recovery cleanup. */
     INDEX_CLEANUP( "IndexCleanup" ),
     /** Index recovery cleanup work. */
@@ -56,10 +64,14 @@ public enum Group
     INDEX_POPULATION_WORK( "IndexPopulationWork", ExecutorServiceFactory.fixedWithBackPressure() ),
     /** Background index sampling */
     INDEX_SAMPLING( "IndexSampling" ),
+    /** Background maintenance of native indexes, like compaction of their trees and rebuilds of their bloom filters. */
+    INDEX_MAINTENANCE( "IndexMaintenance" ),
     /** Background index update applier, for eventually consistent indexes. */
     INDEX_UPDATING( "IndexUpdating", ExecutorServiceFactory.singleThread() ), // Single-threaded to serialise updates with opening/closing/flushing of indexes.
     /** Thread pool for anyone who want some help doing file IO in parallel. */
     FILE_IO_HELPER( "FileIOHelper" ),
+    /** Reading and deserializing transactions ahead of the recovery applier. */
+    RECOVERY_READ_AHEAD( "RecoveryReadAhead" ),
     NATIVE_SECURITY( "NativeSecurity" ),
     METRICS_EVENT( "MetricsEvent" ),
     /** Threads that perform database manager operations necessary to bring databases to their desired states. */
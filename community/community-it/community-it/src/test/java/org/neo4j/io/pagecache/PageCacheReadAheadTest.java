@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache;
+
+import org.eclipse.collections.api.set.ImmutableSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracer;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.EphemeralPageCacheExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.collections.api.factory.Sets.immutable;
+import static org.neo4j.io.pagecache.PageCacheOpenOptions.READ_AHEAD;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+@EphemeralPageCacheExtension
+class PageCacheReadAheadTest
+{
+    private static final int PAGES = 200;
+    // Read-ahead starts after a few pins in a row with the same stride, and the first pages of the stream are read ahead together with the pin
+    // that starts it.
+    private static final int STREAM_START_PINS = 4;
+
+    @Inject
+    TestDirectory dir;
+    @Inject
+    PageCache pageCache;
+    private Path file;
+    private DefaultPageCacheTracer cacheTracer;
+    private DefaultPageCursorTracer cursorTracer;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        file = dir.createFile( "file" );
+        cacheTracer = new DefaultPageCacheTracer();
+        cursorTracer = new DefaultPageCursorTracer( cacheTracer, "test" );
+        try ( PagedFile pagedFile = pageCache.map( file, PageCache.PAGE_SIZE, immutable.of( CREATE ) );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, cursorTracer ) )
+        {
+            for ( int i = 0; i < PAGES; i++ )
+            {
+                assertThat( cursor.next() ).isTrue();
+                cursor.putLong( i );
+            }
+        }
+        // Closing the mapping drops the pages from the cache, so the reads below start out cold.
+        cursorTracer.reportEvents();
+    }
+
+    @Test
+    void sequentialScanMustBeServedByReadAhead() throws IOException
+    {
+        try ( PagedFile pagedFile = pageCache.map( file, PageCache.PAGE_SIZE, immutable.of( READ_AHEAD ) );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, cursorTracer ) )
+        {
+            for ( long pageId = 0; pageId < PAGES; pageId++ )
+            {
+                assertPageContents( cursor, pageId );
+            }
+        }
+
+        // Pages that were read ahead can still be evicted by the background eviction before they are pinned, if the cache is under pressure.
+        assertThat( cursorTracer.prefetchHits() + cursorTracer.prefetchMisses() ).isGreaterThanOrEqualTo( PAGES - STREAM_START_PINS );
+        assertThat( cursorTracer.prefetchHits() ).isGreaterThan( cursorTracer.prefetchMisses() );
+    }
+
+    @Test
+    void backwardScanMustBeServedByReadAhead() throws IOException
+    {
+        try ( PagedFile pagedFile = pageCache.map( file, PageCache.PAGE_SIZE, immutable.of( READ_AHEAD ) );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, cursorTracer ) )
+        {
+            for ( long pageId = PAGES - 1; pageId >= 0; pageId-- )
+            {
+                assertPageContents( cursor, pageId );
+            }
+        }
+
+        assertThat( cursorTracer.prefetchHits() + cursorTracer.prefetchMisses() ).isGreaterThanOrEqualTo( PAGES - STREAM_START_PINS );
+        assertThat( cursorTracer.prefetchHits() ).isGreaterThan( cursorTracer.prefetchMisses() );
+    }
+
+    @Test
+    void stridedScanMustBeServedByReadAhead() throws IOException
+    {
+        int stride = 3;
+        try ( PagedFile pagedFile = pageCache.map( file, PageCache.PAGE_SIZE, immutable.of( READ_AHEAD ) );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, cursorTracer ) )
+        {
+            for ( long pageId = 0; pageId < PAGES; pageId += stride )
+            {
+                assertPageContents( cursor, pageId );
+            }
+        }
+
+        assertThat( cursorTracer.prefetchHits() + cursorTracer.prefetchMisses() ).isGreaterThanOrEqualTo( PAGES / stride - STREAM_START_PINS );
+    }
+
+    @Test
+    void randomAccessMustNotReadAhead() throws IOException
+    {
+        SplittableRandom rng = new SplittableRandom( 42 );
+        int pins = 100;
+        try ( PagedFile pagedFile = pageCache.map( file, PageCache.PAGE_SIZE, immutable.of( READ_AHEAD ) );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, cursorTracer ) )
+        {
+            for ( int i = 0; i < pins; i++ )
+            {
+                assertPageContents( cursor, rng.nextInt( PAGES ) );
+            }
+        }
+
+        assertThat( cursorTracer.prefetchHits() ).isZero();
+        assertThat( cursorTracer.pins() ).isEqualTo( pins );
+    }
+
+    @Test
+    void mustNotReadAheadWithoutOpenOption() throws IOException
+    {
+        scanAndReport( immutable.empty() );
+
+        assertThat( cacheTracer.prefetchHits() ).isZero();
+    }
+
+    @Test
+    void prefetchHitsMustBeReportedToPageCacheTracer() throws IOException
+    {
+        scanAndReport( immutable.of( READ_AHEAD ) );
+
+        assertThat( cacheTracer.prefetchHits() + cacheTracer.prefetchMisses() ).isGreaterThanOrEqualTo( PAGES - STREAM_START_PINS );
+    }
+
+    private void scanAndReport( ImmutableSet<OpenOption> openOptions ) throws IOException
+    {
+        try ( PagedFile pagedFile = pageCache.map( file, PageCache.PAGE_SIZE, openOptions );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, cursorTracer ) )
+        {
+            for ( long pageId = 0; pageId < PAGES; pageId++ )
+            {
+                assertPageContents( cursor, pageId );
+            }
+        }
+        cursorTracer.reportEvents();
+    }
+
+    private static void assertPageContents( PageCursor cursor, long pageId ) throws IOException
+    {
+        assertThat( cursor.next( pageId ) ).isTrue();
+        long value;
+        do
+        {
+            value = cursor.getLong();
+        }
+        while ( cursor.shouldRetry() );
+        assertThat( value ).isEqualTo( pageId );
+    }
+}
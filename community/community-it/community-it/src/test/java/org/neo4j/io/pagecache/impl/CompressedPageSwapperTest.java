@@ -0,0 +1,426 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+class CompressedPageSwapperTest
+{
+    private static final int PAGE_SIZE = 8192;
+    private static final PageEvictionCallback NO_CALLBACK = filePageId -> {};
+
+    private EphemeralFileSystemAbstraction fs;
+    private DefaultPageCacheTracer tracer;
+    private CompressedPageSwapperFactory factory;
+    private Path file;
+    private long page;
+
+    @BeforeEach
+    void setUp()
+    {
+        assumeTrue( PageCompression.isAvailable() );
+        fs = new EphemeralFileSystemAbstraction();
+        tracer = new DefaultPageCacheTracer();
+        factory = new CompressedPageSwapperFactory( fs, new SingleFilePageSwapperFactory( fs ), PageCompression.ZSTD, tracer );
+        file = Path.of( "compressed" ).toAbsolutePath();
+        page = UnsafeUtil.allocateMemory( PAGE_SIZE, INSTANCE );
+    }
+
+    @AfterEach
+    void tearDown() throws IOException
+    {
+        if ( fs != null )
+        {
+            UnsafeUtil.free( page, PAGE_SIZE, INSTANCE );
+            fs.close();
+        }
+    }
+
+    @Test
+    void mustReadBackWrittenPages() throws IOException
+    {
+        PageSwapper swapper = createSwapper();
+        try
+        {
+            assertThat( swapper ).isInstanceOf( CompressedPageSwapper.class );
+            for ( int pageId = 0; pageId < 10; pageId++ )
+            {
+                fillCompressible( pageId );
+                swapper.write( pageId, page, PAGE_SIZE );
+            }
+            assertThat( swapper.getLastPageId() ).isEqualTo( 9 );
+            for ( int pageId = 0; pageId < 10; pageId++ )
+            {
+                clear();
+                assertThat( swapper.read( pageId, page, PAGE_SIZE ) ).isEqualTo( PAGE_SIZE );
+                assertCompressible( pageId );
+            }
+        }
+        finally
+        {
+            swapper.close();
+        }
+    }
+
+    @Test
+    void mustStorePagesInLessSpaceThanTheirSize() throws IOException
+    {
+        PageSwapper swapper = createSwapper();
+        try
+        {
+            for ( int pageId = 0; pageId < 100; pageId++ )
+            {
+                fillCompressible( pageId );
+                swapper.write( pageId, page, PAGE_SIZE );
+            }
+            swapper.force();
+        }
+        finally
+        {
+            swapper.close();
+        }
+        assertThat( fs.getFileSize( file ) ).isLessThan( 100L * PAGE_SIZE / 4 );
+    }
+
+    @Test
+    void mustPersistPagesAcrossReopen() throws IOException
+    {
+        PageSwapper swapper = createSwapper();
+        try
+        {
+            for ( int pageId = 0; pageId < 20; pageId++ )
+            {
+                fillCompressible( pageId );
+                swapper.write( pageId, page, PAGE_SIZE );
+            }
+            // Overwrite some pages, so the reopened file must observe the latest version.
+            for ( int pageId = 0; pageId < 20; pageId += 3 )
+            {
+                fillCompressible( pageId + 1000 );
+                swapper.write( pageId, page, PAGE_SIZE );
+            }
+        }
+        finally
+        {
+            swapper.close();
+        }
+
+        PageSwapper reopened = createSwapper();
+        try
+        {
+            assertThat( reopened ).isInstanceOf( CompressedPageSwapper.class );
+            assertThat( reopened.getLastPageId() ).isEqualTo( 19 );
+            for ( int pageId = 0; pageId < 20; pageId++ )
+            {
+                clear();
+                reopened.read( pageId, page, PAGE_SIZE );
+                assertCompressible( pageId % 3 == 0 ? pageId + 1000 : pageId );
+            }
+        }
+        finally
+        {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void mustStoreIncompressiblePagesAsIs() throws IOException
+    {
+        byte[] data = new byte[PAGE_SIZE];
+        ThreadLocalRandom.current().nextBytes( data );
+        PageSwapper swapper = createSwapper();
+        try
+        {
+            putBytes( data );
+            swapper.write( 0, page, PAGE_SIZE );
+            swapper.force();
+            clear();
+            swapper.read( 0, page, PAGE_SIZE );
+            assertBytes( data );
+        }
+        finally
+        {
+            swapper.close();
+        }
+        PageSwapper reopened = createSwapper();
+        try
+        {
+            clear();
+            reopened.read( 0, page, PAGE_SIZE );
+            assertBytes( data );
+        }
+        finally
+        {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void mustPersistTranslationTableAcrossForcesThatOnlyWriteChangedChunks() throws IOException
+    {
+        // Sparse page ids grow the table past chunks that are never written, and every force writes only the chunks that changed to the spare copy.
+        int[] pageIds = {0, 1, 700, 64, 3000, 1, 701, 129, 0, 3000, 5000, 65};
+        int[] seeds = new int[5001];
+        PageSwapper swapper = createSwapper();
+        try
+        {
+            for ( int i = 0; i < pageIds.length; i++ )
+            {
+                fillCompressible( i + 1 );
+                swapper.write( pageIds[i], page, PAGE_SIZE );
+                seeds[pageIds[i]] = i + 1;
+                swapper.force();
+            }
+        }
+        finally
+        {
+            swapper.close();
+        }
+
+        for ( int round = 0; round < 3; round++ )
+        {
+            PageSwapper reopened = createSwapper();
+            try
+            {
+                assertThat( reopened.getLastPageId() ).isEqualTo( 5000 );
+                for ( int pageId : pageIds )
+                {
+                    clear();
+                    reopened.read( pageId, page, PAGE_SIZE );
+                    assertCompressible( seeds[pageId] );
+                }
+                // Change pages over two forces, so that both copies of the table are written after reopening.
+                for ( int pageId : new int[]{64, 5000} )
+                {
+                    fillCompressible( 100 + round );
+                    reopened.write( pageId, page, PAGE_SIZE );
+                    seeds[pageId] = 100 + round;
+                    reopened.force();
+                }
+            }
+            finally
+            {
+                reopened.close();
+            }
+        }
+    }
+
+    @Test
+    void mustReadPagesThatWereNeverWrittenAsZeros() throws IOException
+    {
+        PageSwapper swapper = createSwapper();
+        try
+        {
+            fillCompressible( 5 );
+            swapper.write( 5, page, PAGE_SIZE );
+            fillCompressible( 1 );
+            assertThat( swapper.read( 2, page, PAGE_SIZE ) ).isEqualTo( PAGE_SIZE );
+            for ( int i = 0; i < PAGE_SIZE; i++ )
+            {
+                assertThat( UnsafeUtil.getByte( page + i ) ).isEqualTo( (byte) 0 );
+            }
+            assertThat( swapper.read( 6, page, PAGE_SIZE ) ).isEqualTo( 0 );
+        }
+        finally
+        {
+            swapper.close();
+        }
+    }
+
+    @Test
+    void mustForgetAllPagesOnTruncate() throws IOException
+    {
+        PageSwapper swapper = createSwapper();
+        try
+        {
+            fillCompressible( 1 );
+            swapper.write( 3, page, PAGE_SIZE );
+            swapper.truncate();
+            assertThat( swapper.getLastPageId() ).isEqualTo( PageCursor.UNBOUND_PAGE_ID );
+        }
+        finally
+        {
+            swapper.close();
+        }
+        PageSwapper reopened = createSwapper();
+        try
+        {
+            assertThat( reopened.getLastPageId() ).isEqualTo( PageCursor.UNBOUND_PAGE_ID );
+        }
+        finally
+        {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void mustReportCompressionToTheTracer() throws IOException
+    {
+        PageSwapper swapper = createSwapper();
+        try
+        {
+            for ( int pageId = 0; pageId < 4; pageId++ )
+            {
+                fillCompressible( pageId );
+                swapper.write( pageId, page, PAGE_SIZE );
+            }
+            for ( int pageId = 0; pageId < 4; pageId++ )
+            {
+                swapper.read( pageId, page, PAGE_SIZE );
+            }
+        }
+        finally
+        {
+            swapper.close();
+        }
+        assertThat( tracer.bytesCompressed() ).isEqualTo( 4L * PAGE_SIZE );
+        assertThat( tracer.compressedBytesWritten() ).isPositive().isLessThan( 4L * PAGE_SIZE );
+        assertThat( tracer.compressionRatio() ).isGreaterThan( 1.0 );
+        assertThat( tracer.pagesDecompressed() ).isEqualTo( 4 );
+    }
+
+    @Test
+    void mustKeepExistingUncompressedFilesUncompressed() throws IOException
+    {
+        SingleFilePageSwapperFactory plainFactory = new SingleFilePageSwapperFactory( fs );
+        PageSwapper swapper = plainFactory.createPageSwapper( file, PAGE_SIZE, NO_CALLBACK, true, false );
+        try
+        {
+            fillCompressible( 7 );
+            swapper.write( 0, page, PAGE_SIZE );
+        }
+        finally
+        {
+            swapper.close();
+        }
+
+        PageSwapper reopened = createSwapper();
+        try
+        {
+            assertThat( reopened ).isNotInstanceOf( CompressedPageSwapper.class );
+            clear();
+            reopened.read( 0, page, PAGE_SIZE );
+            assertCompressible( 7 );
+        }
+        finally
+        {
+            reopened.close();
+        }
+        assertThat( CompressedPageSwapper.isCompressedFile( fs, file ) ).isFalse();
+    }
+
+    @Test
+    void mustMapExistingCompressedFilesCompressedWithoutCompressionEnabled() throws IOException
+    {
+        PageSwapper swapper = createSwapper();
+        try
+        {
+            fillCompressible( 3 );
+            swapper.write( 0, page, PAGE_SIZE );
+        }
+        finally
+        {
+            swapper.close();
+        }
+
+        var readingFactory = new CompressedPageSwapperFactory( fs, new SingleFilePageSwapperFactory( fs ), PageCompression.NONE, tracer );
+        PageSwapper reopened = readingFactory.createPageSwapper( file, PAGE_SIZE, NO_CALLBACK, false, false );
+        try
+        {
+            assertThat( reopened ).isInstanceOf( CompressedPageSwapper.class );
+            clear();
+            reopened.read( 0, page, PAGE_SIZE );
+            assertCompressible( 3 );
+        }
+        finally
+        {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void mustRefuseToMapCompressedFilesWithoutCompressionSupport() throws IOException
+    {
+        createSwapper().close();
+
+        assertThatThrownBy( () -> new SingleFilePageSwapperFactory( fs ).createPageSwapper( file, PAGE_SIZE, NO_CALLBACK, false, false ) )
+                .isInstanceOf( IOException.class ).hasMessageContaining( "is compressed" );
+    }
+
+    private PageSwapper createSwapper() throws IOException
+    {
+        return factory.createPageSwapper( file, PAGE_SIZE, NO_CALLBACK, true, false, true );
+    }
+
+    private void fillCompressible( int seed )
+    {
+        for ( int i = 0; i < PAGE_SIZE; i += Long.BYTES )
+        {
+            UnsafeUtil.putLong( page + i, seed * 31L + (i / 64) );
+        }
+    }
+
+    private void assertCompressible( int seed )
+    {
+        for ( int i = 0; i < PAGE_SIZE; i += Long.BYTES )
+        {
+            assertThat( UnsafeUtil.getLong( page + i ) ).as( "offset " + i ).isEqualTo( seed * 31L + (i / 64) );
+        }
+    }
+
+    private void putBytes( byte[] data )
+    {
+        for ( int i = 0; i < data.length; i++ )
+        {
+            UnsafeUtil.putByte( page + i, data[i] );
+        }
+    }
+
+    private void assertBytes( byte[] data )
+    {
+        for ( int i = 0; i < data.length; i++ )
+        {
+            assertThat( UnsafeUtil.getByte( page + i ) ).as( "offset " + i ).isEqualTo( data[i] );
+        }
+    }
+
+    private void clear()
+    {
+        UnsafeUtil.setMemory( page, PAGE_SIZE, (byte) 0 );
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+
+import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+/**
+ * Compares the throughput of the {@link IOUringPageSwapper} with the file channel based {@link SingleFilePageSwapper}, for random single page reads and
+ * writes, and for vectored reads and writes of runs of pages, as issued by page faults and flushing respectively.
+ * <p>
+ * This is not run as part of the test suite. Run it from the command line with the arguments:
+ * {@code <directory> [file size in MiB, default 1024] [threads, default 8] [seconds per workload, default 10]}
+ */
+public class IOUringPageSwapperBenchmark
+{
+    private static final int PAGES_PER_VECTOR = 32;
+
+    private enum Workload
+    {
+        RANDOM_READ, RANDOM_WRITE, VECTORED_READ, VECTORED_WRITE
+    }
+
+    public static void main( String[] args ) throws Exception
+    {
+        Path directory = Path.of( args[0] );
+        long fileSize = ByteUnit.mebiBytes( args.length > 1 ? Long.parseLong( args[1] ) : 1024 );
+        int threads = args.length > 2 ? Integer.parseInt( args[2] ) : 8;
+        int seconds = args.length > 3 ? Integer.parseInt( args[3] ) : 10;
+        long filePages = fileSize / PAGE_SIZE;
+
+        System.out.println( "io_uring available: " + IOUringPageSwapperFactory.isAvailable() );
+        try ( FileSystemAbstraction fs = new DefaultFileSystemAbstraction() )
+        {
+            Path file = Files.createTempFile( directory, "swapper", ".bench" );
+            try
+            {
+                List<PageSwapperFactory> factories = List.of( new SingleFilePageSwapperFactory( fs ), new IOUringPageSwapperFactory( fs ) );
+                for ( PageSwapperFactory factory : factories )
+                {
+                    try
+                    {
+                        PageSwapper swapper = factory.createPageSwapper( file, PAGE_SIZE, filePageId -> {}, true, false );
+                        try
+                        {
+                            fill( swapper, filePages );
+                            for ( Workload workload : Workload.values() )
+                            {
+                                long pages = run( swapper, workload, filePages, threads, seconds );
+                                double pagesPerSecond = pages / (double) seconds;
+                                System.out.printf( "%-28s %-15s %12.0f pages/s %10.1f MiB/s%n", factory.getClass().getSimpleName(), workload,
+                                        pagesPerSecond, pagesPerSecond * PAGE_SIZE / ByteUnit.mebiBytes( 1 ) );
+                            }
+                        }
+                        finally
+                        {
+                            swapper.close();
+                        }
+                    }
+                    finally
+                    {
+                        factory.close();
+                    }
+                }
+            }
+            finally
+            {
+                Files.deleteIfExists( file );
+            }
+        }
+    }
+
+    private static void fill( PageSwapper swapper, long filePages ) throws IOException
+    {
+        long[] addresses = allocatePages( PAGES_PER_VECTOR );
+        int[] lengths = new int[PAGES_PER_VECTOR];
+        Arrays.fill( lengths, PAGE_SIZE );
+        try
+        {
+            for ( long filePageId = 0; filePageId < filePages; filePageId += PAGES_PER_VECTOR )
+            {
+                swapper.write( filePageId, addresses, lengths, PAGES_PER_VECTOR, PAGES_PER_VECTOR );
+            }
+            swapper.force();
+        }
+        finally
+        {
+            freePages( addresses );
+        }
+    }
+
+    private static long run( PageSwapper swapper, Workload workload, long filePages, int threads, int seconds ) throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos( seconds );
+            List<Future<Long>> futures = new ArrayList<>();
+            for ( int i = 0; i < threads; i++ )
+            {
+                futures.add( executor.submit( () -> worker( swapper, workload, filePages, deadline ) ) );
+            }
+            long pages = 0;
+            for ( Future<Long> future : futures )
+            {
+                pages += future.get();
+            }
+            return pages;
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private static long worker( PageSwapper swapper, Workload workload, long filePages, long deadline ) throws IOException
+    {
+        ThreadLocalRandom rng = ThreadLocalRandom.current();
+        long[] addresses = allocatePages( PAGES_PER_VECTOR );
+        int[] lengths = new int[PAGES_PER_VECTOR];
+        Arrays.fill( lengths, PAGE_SIZE );
+        long pages = 0;
+        try
+        {
+            while ( System.nanoTime() < deadline )
+            {
+                switch ( workload )
+                {
+                case RANDOM_READ:
+                    swapper.read( rng.nextLong( filePages ), addresses[0] );
+                    pages++;
+                    break;
+                case RANDOM_WRITE:
+                    swapper.write( rng.nextLong( filePages ), addresses[0] );
+                    pages++;
+                    break;
+                case VECTORED_READ:
+                    swapper.read( rng.nextLong( filePages - PAGES_PER_VECTOR ), addresses, lengths, PAGES_PER_VECTOR );
+                    pages += PAGES_PER_VECTOR;
+                    break;
+                case VECTORED_WRITE:
+                    swapper.write( rng.nextLong( filePages - PAGES_PER_VECTOR ), addresses, lengths, PAGES_PER_VECTOR, PAGES_PER_VECTOR );
+                    pages += PAGES_PER_VECTOR;
+                    break;
+                default:
+                    throw new IllegalArgumentException( "Unknown workload: " + workload );
+                }
+            }
+        }
+        finally
+        {
+            freePages( addresses );
+        }
+        return pages;
+    }
+
+    private static long[] allocatePages( int count )
+    {
+        long[] addresses = new long[count];
+        for ( int i = 0; i < count; i++ )
+        {
+            addresses[i] = UnsafeUtil.allocateMemory( PAGE_SIZE, INSTANCE );
+        }
+        return addresses;
+    }
+
+    private static void freePages( long[] addresses )
+    {
+        for ( long address : addresses )
+        {
+            UnsafeUtil.free( address, PAGE_SIZE, INSTANCE );
+        }
+    }
+}
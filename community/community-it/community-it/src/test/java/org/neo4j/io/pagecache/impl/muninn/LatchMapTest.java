@@ -21,10 +21,14 @@ package org.neo4j.io.pagecache.impl.muninn;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.neo4j.test.ThreadTestUtils;
@@ -106,4 +110,95 @@ class LatchMapTest
         latches.takeOrAwaitLatch( 42 ).release();
         latches.takeOrAwaitLatch( 42 ).release();
     }
+
+    @Test
+    void unrelatedLatchesMustNeverConflict()
+    {
+        List<LatchMap.Latch> taken = new ArrayList<>();
+        for ( int identifier = 0; identifier < 10_000; identifier++ )
+        {
+            LatchMap.Latch latch = latches.tryTakeLatch( identifier );
+            assertThat( latch ).isNotNull();
+            taken.add( latch );
+        }
+        for ( int identifier = 0; identifier < 10_000; identifier++ )
+        {
+            assertThat( latches.tryTakeLatch( identifier ) ).isNull();
+        }
+        taken.forEach( LatchMap.Latch::release );
+        for ( int identifier = 0; identifier < 10_000; identifier++ )
+        {
+            latches.takeOrAwaitLatch( identifier ).release();
+        }
+    }
+
+    @Test
+    void mustGrowWhenManyLatchesAreTaken()
+    {
+        int initialStripes = latches.stripes();
+        List<LatchMap.Latch> taken = new ArrayList<>();
+        for ( int identifier = 0; identifier < initialStripes * 4; identifier++ )
+        {
+            taken.add( latches.takeOrAwaitLatch( identifier ) );
+        }
+        assertThat( latches.stripes() ).isGreaterThan( initialStripes );
+        taken.forEach( LatchMap.Latch::release );
+    }
+
+    @Test
+    void mustNeverInstallTwoLatchesForTheSameIdentifierConcurrently() throws Exception
+    {
+        int threads = 8;
+        int identifiers = 4096;
+        AtomicIntegerArray holders = new AtomicIntegerArray( identifiers );
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for ( int i = 0; i < threads; i++ )
+            {
+                futures.add( executor.submit( () ->
+                {
+                    ThreadLocalRandom rng = ThreadLocalRandom.current();
+                    List<LatchMap.Latch> held = new ArrayList<>();
+                    List<Integer> heldIdentifiers = new ArrayList<>();
+                    for ( int op = 0; op < 200_000; op++ )
+                    {
+                        if ( held.size() < 16 && rng.nextBoolean() )
+                        {
+                            int identifier = rng.nextInt( identifiers );
+                            LatchMap.Latch latch = latches.tryTakeLatch( identifier );
+                            if ( latch != null )
+                            {
+                                assertThat( holders.incrementAndGet( identifier ) ).isEqualTo( 1 );
+                                held.add( latch );
+                                heldIdentifiers.add( identifier );
+                            }
+                        }
+                        else if ( !held.isEmpty() )
+                        {
+                            int index = rng.nextInt( held.size() );
+                            int identifier = heldIdentifiers.remove( index );
+                            assertThat( holders.decrementAndGet( identifier ) ).isEqualTo( 0 );
+                            held.remove( index ).release();
+                        }
+                    }
+                    for ( int index = 0; index < held.size(); index++ )
+                    {
+                        holders.decrementAndGet( heldIdentifiers.get( index ) );
+                        held.get( index ).release();
+                    }
+                    return null;
+                } ) );
+            }
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
 }
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.eclipse.collections.api.factory.Sets.immutable;
+import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
+
+/**
+ * Measures the throughput of the {@link MuninnPageCache} on its pin, fault and eviction paths, with 1 to 64 threads:
+ * <ul>
+ *     <li>{@code PIN}: random reads of a file that fits in the page cache, so every pin finds its page in memory.</li>
+ *     <li>{@code FAULT}: random reads of a file that is four times larger than the page cache, so most pins fault in a page, and evict a clean
+ *     page to make room for it.</li>
+ *     <li>{@code EVICTION}: random writes to a file that is four times larger than the page cache, so most pins also have to flush a dirty page
+ *     before it can be evicted.</li>
+ * </ul>
+ * Each measurement is preceded by a warmup period of one second, and reports the pins per second, and the faults and evictions per pin.
+ * <p>
+ * This is not run as part of the test suite. Run it from the command line with the arguments:
+ * {@code <directory> [page cache size in MiB, default 256] [seconds per measurement, default 5] [max threads, default 64]}
+ */
+public class MuninnPageCacheBenchmark
+{
+    private static final long WARMUP_NANOS = TimeUnit.SECONDS.toNanos( 1 );
+
+    private enum Workload
+    {
+        PIN( PF_SHARED_READ_LOCK, 0.5 ),
+        FAULT( PF_SHARED_READ_LOCK, 4 ),
+        EVICTION( PF_SHARED_WRITE_LOCK, 4 );
+
+        private final int pfFlags;
+        private final double fileToCacheRatio;
+
+        Workload( int pfFlags, double fileToCacheRatio )
+        {
+            this.pfFlags = pfFlags;
+            this.fileToCacheRatio = fileToCacheRatio;
+        }
+    }
+
+    public static void main( String[] args ) throws Exception
+    {
+        Path directory = Path.of( args[0] );
+        long cacheSize = ByteUnit.mebiBytes( args.length > 1 ? Long.parseLong( args[1] ) : 256 );
+        int seconds = args.length > 2 ? Integer.parseInt( args[2] ) : 5;
+        int maxThreads = args.length > 3 ? Integer.parseInt( args[3] ) : 64;
+        int cachePages = (int) (cacheSize / PAGE_SIZE);
+
+        System.out.printf( "%-10s %8s %16s %12s %12s%n", "workload", "threads", "pins/s", "faults/pin", "evicts/pin" );
+        try ( FileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+              ThreadPoolJobScheduler jobScheduler = new ThreadPoolJobScheduler() )
+        {
+            for ( Workload workload : Workload.values() )
+            {
+                long filePages = (long) (cachePages * workload.fileToCacheRatio);
+                Path file = Files.createTempFile( directory, "pagecache", ".bench" );
+                DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+                try ( MuninnPageCache pageCache = new MuninnPageCache( new SingleFilePageSwapperFactory( fs ), cachePages, tracer, EMPTY, jobScheduler );
+                      PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, immutable.of( CREATE ) ) )
+                {
+                    fill( pagedFile, filePages );
+                    for ( int threads = 1; threads <= maxThreads; threads *= 2 )
+                    {
+                        long faultsBefore = tracer.faults();
+                        long evictionsBefore = tracer.evictions();
+                        long[] pins = run( pagedFile, tracer, workload, filePages, threads, seconds );
+                        long totalPins = pins[0];
+                        long measuredPins = pins[1];
+                        System.out.printf( "%-10s %8d %16.0f %12.3f %12.3f%n", workload, threads, measuredPins / (double) seconds,
+                                (tracer.faults() - faultsBefore) / (double) totalPins, (tracer.evictions() - evictionsBefore) / (double) totalPins );
+                    }
+                }
+                finally
+                {
+                    Files.deleteIfExists( file );
+                }
+            }
+        }
+    }
+
+    private static void fill( PagedFile pagedFile, long filePages ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, PageCursorTracer.NULL ) )
+        {
+            for ( long filePageId = 0; filePageId < filePages; filePageId++ )
+            {
+                if ( cursor.next( filePageId ) )
+                {
+                    cursor.putLong( 0, filePageId );
+                }
+            }
+        }
+        pagedFile.flushAndForce();
+    }
+
+    /**
+     * @return the total number of pins, including the warmup, followed by the number of pins in the measured period.
+     */
+    private static long[] run( PagedFile pagedFile, PageCacheTracer tracer, Workload workload, long filePages, int threads, int seconds ) throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            long measureStart = System.nanoTime() + WARMUP_NANOS;
+            long deadline = measureStart + TimeUnit.SECONDS.toNanos( seconds );
+            List<Future<long[]>> futures = new ArrayList<>();
+            for ( int i = 0; i < threads; i++ )
+            {
+                futures.add( executor.submit( () -> worker( pagedFile, tracer, workload, filePages, measureStart, deadline ) ) );
+            }
+            long[] pins = new long[2];
+            for ( Future<long[]> future : futures )
+            {
+                long[] workerPins = future.get();
+                pins[0] += workerPins[0];
+                pins[1] += workerPins[1];
+            }
+            return pins;
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private static long[] worker( PagedFile pagedFile, PageCacheTracer tracer, Workload workload, long filePages, long measureStart, long deadline )
+            throws IOException
+    {
+        ThreadLocalRandom rng = ThreadLocalRandom.current();
+        long totalPins = 0;
+        long measuredPins = 0;
+        try ( PageCursorTracer cursorTracer = tracer.createPageCursorTracer( "benchmark" );
+              PageCursor cursor = pagedFile.io( 0, workload.pfFlags, cursorTracer ) )
+        {
+            long now;
+            while ( (now = System.nanoTime()) < deadline )
+            {
+                long filePageId = rng.nextLong( filePages );
+                if ( cursor.next( filePageId ) )
+                {
+                    if ( workload == Workload.EVICTION )
+                    {
+                        cursor.putLong( 0, filePageId );
+                    }
+                    else
+                    {
+                        do
+                        {
+                            cursor.getLong( 0 );
+                        }
+                        while ( cursor.shouldRetry() );
+                    }
+                }
+                totalPins++;
+                if ( now >= measureStart )
+                {
+                    measuredPins++;
+                }
+            }
+        }
+        return new long[]{totalPins, measuredPins};
+    }
+}
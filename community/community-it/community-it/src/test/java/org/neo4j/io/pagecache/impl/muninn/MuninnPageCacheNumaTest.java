@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.neo4j.internal.nativeimpl.NumaTopology;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.time.Clocks;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.collections.api.factory.Sets.immutable;
+import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.buffer.IOBufferFactory.DISABLED_BUFFER_FACTORY;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+@EphemeralTestDirectoryExtension
+class MuninnPageCacheNumaTest
+{
+    private static final int MAX_PAGES = 200;
+
+    @Inject
+    private TestDirectory directory;
+    @Inject
+    private FileSystemAbstraction fs;
+
+    private final FakeTopology topology = new FakeTopology();
+    private ThreadPoolJobScheduler jobScheduler;
+    private MuninnPageCache pageCache;
+
+    @BeforeEach
+    void setUp()
+    {
+        jobScheduler = new ThreadPoolJobScheduler();
+        pageCache = createPageCache( topology );
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        pageCache.close();
+        jobScheduler.close();
+    }
+
+    @Test
+    void pagesMustBeSplitEvenlyOverNodes()
+    {
+        List<NumaNodeStatistics> statistics = pageCache.numaNodeStatistics();
+
+        assertThat( statistics ).hasSize( 2 );
+        assertThat( statistics.get( 0 ).node() ).isEqualTo( 0 );
+        assertThat( statistics.get( 1 ).node() ).isEqualTo( 1 );
+        assertThat( statistics.get( 0 ).pages() + statistics.get( 1 ).pages() ).isEqualTo( (int) pageCache.maxCachedPages() );
+        assertThat( statistics.get( 0 ).pages() - statistics.get( 1 ).pages() ).isBetween( 0, 1 );
+    }
+
+    @Test
+    void faultingThreadsMustGrabPagesFromTheirOwnNode() throws IOException
+    {
+        topology.currentNode = 1;
+        int firstPageIdOfNode1 = pageCache.numaNodeStatistics().get( 0 ).pages();
+
+        for ( int i = 0; i < 10; i++ )
+        {
+            long pageRef = pageCache.grabFreeAndExclusivelyLockedPage( new StubPageFaultEvent() );
+            assertThat( pageCache.pages.toId( pageRef ) ).isGreaterThanOrEqualTo( firstPageIdOfNode1 );
+        }
+
+        List<NumaNodeStatistics> statistics = pageCache.numaNodeStatistics();
+        assertThat( statistics.get( 0 ).faults() ).isZero();
+        assertThat( statistics.get( 1 ).faults() ).isEqualTo( 10 );
+        assertThat( statistics.get( 1 ).remoteFaults() ).isZero();
+    }
+
+    @Test
+    void faultingThreadsMustGrabPagesFromOtherNodesWhenTheirOwnNodeHasNoFreePages() throws IOException
+    {
+        topology.currentNode = 0;
+        int pagesOfNode0 = pageCache.numaNodeStatistics().get( 0 ).pages();
+
+        for ( int i = 0; i < pagesOfNode0; i++ )
+        {
+            long pageRef = pageCache.grabFreeAndExclusivelyLockedPage( new StubPageFaultEvent() );
+            assertThat( pageCache.pages.toId( pageRef ) ).isLessThan( pagesOfNode0 );
+        }
+        long remotePageRef = pageCache.grabFreeAndExclusivelyLockedPage( new StubPageFaultEvent() );
+        assertThat( pageCache.pages.toId( remotePageRef ) ).isGreaterThanOrEqualTo( pagesOfNode0 );
+
+        List<NumaNodeStatistics> statistics = pageCache.numaNodeStatistics();
+        assertThat( statistics.get( 0 ).faults() ).isEqualTo( pagesOfNode0 );
+        assertThat( statistics.get( 0 ).remoteFaults() ).isEqualTo( 1 );
+        assertThat( statistics.get( 1 ).faults() ).isEqualTo( 1 );
+    }
+
+    @Test
+    void freedPagesMustBeReturnedToTheFreelistOfTheirNode() throws IOException
+    {
+        topology.currentNode = 0;
+        int pagesOfNode0 = pageCache.numaNodeStatistics().get( 0 ).pages();
+        for ( int i = 0; i < pagesOfNode0; i++ )
+        {
+            pageCache.grabFreeAndExclusivelyLockedPage( new StubPageFaultEvent() );
+        }
+
+        long pageRefOfNode0 = pageCache.pages.deref( 3 );
+        pageCache.addFreePageToFreelist( pageRefOfNode0 );
+
+        assertThat( pageCache.grabFreeAndExclusivelyLockedPage( new StubPageFaultEvent() ) ).isEqualTo( pageRefOfNode0 );
+        assertThat( pageCache.numaNodeStatistics().get( 0 ).remoteFaults() ).isZero();
+    }
+
+    @Test
+    void pinsMustCountHitsOnTheNodeOfThePage() throws IOException
+    {
+        topology.currentNode = 1;
+        Path file = directory.createFile( "file" );
+        try ( PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, immutable.of( CREATE ) ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                for ( int i = 0; i < 5; i++ )
+                {
+                    assertThat( cursor.next() ).isTrue();
+                }
+            }
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+            {
+                for ( int i = 0; i < 5; i++ )
+                {
+                    assertThat( cursor.next() ).isTrue();
+                }
+            }
+        }
+
+        List<NumaNodeStatistics> statistics = pageCache.numaNodeStatistics();
+        assertThat( statistics.get( 0 ).hits() ).isZero();
+        assertThat( statistics.get( 1 ).hits() ).isEqualTo( 5 );
+        assertThat( statistics.get( 1 ).faults() ).isEqualTo( 5 );
+    }
+
+    @Test
+    void singleNodeTopologyMustUseOnePartition() throws Exception
+    {
+        try ( MuninnPageCache singleNodeCache = createPageCache( NumaTopology.singleNode() ) )
+        {
+            long pageRef = singleNodeCache.grabFreeAndExclusivelyLockedPage( new StubPageFaultEvent() );
+            assertThat( singleNodeCache.pages.toId( pageRef ) ).isZero();
+
+            List<NumaNodeStatistics> statistics = singleNodeCache.numaNodeStatistics();
+            assertThat( statistics ).hasSize( 1 );
+            assertThat( statistics.get( 0 ).pages() ).isEqualTo( (int) singleNodeCache.maxCachedPages() );
+            assertThat( statistics.get( 0 ).faults() ).isZero();
+        }
+    }
+
+    private MuninnPageCache createPageCache( NumaTopology numaTopology )
+    {
+        MemoryAllocator allocator = MemoryAllocator.createAllocator( MuninnPageCache.memoryRequiredForPages( MAX_PAGES ), INSTANCE );
+        return new MuninnPageCache( new SingleFilePageSwapperFactory( fs ), allocator, PageCacheTracer.NULL, EMPTY, jobScheduler, Clocks.nanoClock(),
+                INSTANCE, DISABLED_BUFFER_FACTORY, EvictionPolicy.CLOCK, numaTopology );
+    }
+
+    private static class FakeTopology extends NumaTopology
+    {
+        private volatile int currentNode;
+
+        FakeTopology()
+        {
+            super( new int[]{0, 1}, new int[]{0, 1} );
+        }
+
+        @Override
+        public int currentNode()
+        {
+            return currentNode;
+        }
+
+        @Override
+        public boolean preferNode( long address, long length, int node )
+        {
+            return false;
+        }
+    }
+}
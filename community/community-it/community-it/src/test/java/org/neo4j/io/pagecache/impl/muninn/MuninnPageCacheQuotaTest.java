@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.time.Clocks;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.time.Duration.ofMinutes;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.eclipse.collections.api.factory.Sets.immutable;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.buffer.IOBufferFactory.DISABLED_BUFFER_FACTORY;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+@EphemeralTestDirectoryExtension
+class MuninnPageCacheQuotaTest
+{
+    private static final int MAX_PAGES = 40;
+
+    @Inject
+    private TestDirectory directory;
+    @Inject
+    private FileSystemAbstraction fs;
+
+    private ThreadPoolJobScheduler jobScheduler;
+    private MuninnPageCache pageCache;
+
+    @BeforeEach
+    void setUp()
+    {
+        jobScheduler = new ThreadPoolJobScheduler();
+        MemoryAllocator allocator = MemoryAllocator.createAllocator( MuninnPageCache.memoryRequiredForPages( MAX_PAGES ), INSTANCE );
+        pageCache = new MuninnPageCache( new SingleFilePageSwapperFactory( fs ), allocator, PageCacheTracer.NULL, EMPTY, jobScheduler,
+                Clocks.nanoClock(), INSTANCE, DISABLED_BUFFER_FACTORY );
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        pageCache.close();
+        jobScheduler.close();
+    }
+
+    @Test
+    void parseQuotas()
+    {
+        PageCacheQuota both = PageCacheQuota.parse( "neostore.nodestore.db=10%..50%" );
+        assertThat( both.glob() ).isEqualTo( "neostore.nodestore.db" );
+        assertThat( both.minRatio() ).isEqualTo( 0.1 );
+        assertThat( both.maxRatio() ).isEqualTo( 0.5 );
+
+        PageCacheQuota reservation = PageCacheQuota.parse( "index-*=20%.." );
+        assertThat( reservation.minRatio() ).isEqualTo( 0.2 );
+        assertThat( reservation.maxRatio() ).isEqualTo( 1.0 );
+        assertThat( reservation.matches( Path.of( "schema", "index", "index-17" ) ) ).isTrue();
+        assertThat( reservation.matches( Path.of( "neostore.counts.db" ) ) ).isFalse();
+
+        PageCacheQuota limit = PageCacheQuota.parse( "neostore.counts.db=..5%" );
+        assertThat( limit.minRatio() ).isEqualTo( 0.0 );
+        assertThat( limit.maxRatio() ).isEqualTo( 0.05 );
+    }
+
+    @Test
+    void rejectMalformedQuotas()
+    {
+        assertThatThrownBy( () -> PageCacheQuota.parse( "neostore.nodestore.db" ) ).isInstanceOf( IllegalArgumentException.class );
+        assertThatThrownBy( () -> PageCacheQuota.parse( "neostore.nodestore.db=.." ) ).isInstanceOf( IllegalArgumentException.class );
+        assertThatThrownBy( () -> PageCacheQuota.parse( "neostore.nodestore.db=10..20" ) ).isInstanceOf( IllegalArgumentException.class );
+        assertThatThrownBy( () -> PageCacheQuota.parse( "neostore.nodestore.db=60%..20%" ) ).isInstanceOf( IllegalArgumentException.class );
+    }
+
+    @Test
+    void rejectReservationsOfTheEntireCache()
+    {
+        List<PageCacheQuota> quotas = List.of( PageCacheQuota.parse( "a=60%.." ), PageCacheQuota.parse( "b=40%.." ) );
+        assertThatThrownBy( () -> pageCache.setFileQuotas( quotas ) ).isInstanceOf( IllegalArgumentException.class );
+    }
+
+    @Test
+    void rejectQuotasAfterFilesHaveBeenMapped() throws IOException
+    {
+        try ( PagedFile ignored = map( "a" ) )
+        {
+            assertThatThrownBy( () -> pageCache.setFileQuotas( List.of( PageCacheQuota.parse( "a=..10%" ) ) ) )
+                    .isInstanceOf( IllegalStateException.class );
+        }
+    }
+
+    @Test
+    void reportResidencyFaultsAndEvictionsPerFile() throws IOException
+    {
+        try ( PagedFile a = map( "a" );
+              PagedFile b = map( "b" ) )
+        {
+            touchPages( a, 10 );
+            touchPages( b, 5 );
+
+            PagedFileStatistics statisticsA = statisticsOf( a );
+            assertThat( statisticsA.residentPages() ).isEqualTo( 10 );
+            assertThat( statisticsA.faults() ).isEqualTo( 10 );
+            assertThat( statisticsA.evictions() ).isZero();
+            assertThat( statisticsA.quota() ).isEmpty();
+            assertThat( statisticsOf( b ).residentPages() ).isEqualTo( 5 );
+
+            touchPages( b, MAX_PAGES * 2 );
+            PagedFileStatistics statisticsB = statisticsOf( b );
+            assertThat( statisticsB.faults() ).isGreaterThanOrEqualTo( MAX_PAGES * 2 );
+            assertThat( statisticsB.evictions() ).isGreaterThan( 0 );
+            assertThat( statisticsB.residentPages() ).isEqualTo( statisticsB.faults() - statisticsB.evictions() );
+        }
+    }
+
+    @Test
+    void keepPagesWithinReservation() throws IOException
+    {
+        PageCacheQuota quota = PageCacheQuota.parse( "a=25%.." );
+        pageCache.setFileQuotas( List.of( quota ) );
+        try ( PagedFile a = map( "a" );
+              PagedFile b = map( "b" ) )
+        {
+            touchPages( a, MAX_PAGES / 4 );
+            touchPages( b, MAX_PAGES * 4 );
+
+            PagedFileStatistics statisticsA = statisticsOf( a );
+            assertThat( statisticsA.quota() ).contains( quota );
+            assertThat( statisticsA.residentPages() ).isEqualTo( MAX_PAGES / 4 );
+            assertThat( statisticsA.evictions() ).isZero();
+        }
+    }
+
+    @Test
+    void evictPagesOverQuotaFirst() throws IOException
+    {
+        pageCache.setFileQuotas( List.of( PageCacheQuota.parse( "b=..25%" ) ) );
+        try ( PagedFile a = map( "a" );
+              PagedFile b = map( "b" ) )
+        {
+            // Together the two files fit within the pages the background evictor keeps in use.
+            touchPages( a, MAX_PAGES / 8 );
+            touchPages( b, MAX_PAGES * 4 );
+
+            assertThat( statisticsOf( a ).evictions() ).isZero();
+            assertThat( statisticsOf( b ).evictions() ).isGreaterThan( 0 );
+        }
+    }
+
+    @Test
+    void evictPagesWithoutQuotasWhenTheyProtectAllPages() throws IOException
+    {
+        pageCache.setFileQuotas( List.of( PageCacheQuota.parse( "*=95%.." ) ) );
+        try ( PagedFile a = map( "a" ) )
+        {
+            touchPages( a, MAX_PAGES / 4 );
+            assertThat( statisticsOf( a ).evictions() ).isZero();
+
+            assertTimeoutPreemptively( ofMinutes( 1 ), () -> pageCache.evictPages( 1, 0, EvictionRunEvent.NULL ) );
+
+            assertThat( statisticsOf( a ).evictions() ).isEqualTo( 1 );
+        }
+    }
+
+    private PagedFile map( String name ) throws IOException
+    {
+        return pageCache.map( directory.createFile( name ), PAGE_SIZE, immutable.of( CREATE ) );
+    }
+
+    private static void touchPages( PagedFile pagedFile, int pageCount ) throws IOException
+    {
+        try ( PageCursor writer = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+        {
+            for ( int i = 0; i < pageCount; i++ )
+            {
+                assertThat( writer.next() ).isTrue();
+                writer.putLong( i );
+            }
+        }
+        try ( PageCursor reader = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+        {
+            for ( int i = 0; i < pageCount; i++ )
+            {
+                assertThat( reader.next() ).isTrue();
+            }
+        }
+    }
+
+    private PagedFileStatistics statisticsOf( PagedFile pagedFile )
+    {
+        return pageCache.pagedFileStatistics().stream().filter( statistics -> statistics.path().equals( pagedFile.path() ) ).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.DelegatingPageSwapper;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.time.Clocks;
+import org.neo4j.time.FakeClock;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.eclipse.collections.api.factory.Sets.immutable;
+import static org.neo4j.io.pagecache.PageCache.PAGE_SIZE;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.buffer.IOBufferFactory.DISABLED_BUFFER_FACTORY;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+@EphemeralTestDirectoryExtension
+class MuninnPageCacheWritebackTest
+{
+    private static final int MAX_PAGES = 20;
+    private static final Duration MAX_DIRTY_AGE = Duration.ofMinutes( 5 );
+
+    @Inject
+    private TestDirectory directory;
+    @Inject
+    private FileSystemAbstraction fs;
+
+    private final FakeClock clock = Clocks.fakeClock();
+    private ThreadPoolJobScheduler jobScheduler;
+    private MuninnPageCache pageCache;
+
+    @BeforeEach
+    void setUp()
+    {
+        jobScheduler = new ThreadPoolJobScheduler();
+        pageCache = createPageCache( new SingleFilePageSwapperFactory( fs ), PageCacheTracer.NULL );
+    }
+
+    private MuninnPageCache createPageCache( PageSwapperFactory swapperFactory, PageCacheTracer tracer )
+    {
+        MemoryAllocator allocator = MemoryAllocator.createAllocator( MuninnPageCache.memoryRequiredForPages( MAX_PAGES ), INSTANCE );
+        return new MuninnPageCache( swapperFactory, allocator, tracer, EMPTY, jobScheduler, clock, INSTANCE, DISABLED_BUFFER_FACTORY );
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        pageCache.close();
+        jobScheduler.close();
+    }
+
+    @Test
+    void mustWriteBackPagesThatHaveBeenDirtyForLongerThanMaxDirtyAge() throws IOException
+    {
+        pageCache.startBackgroundWriteback( MAX_DIRTY_AGE, IOLimiter.UNLIMITED );
+        Path file = directory.createFile( "a" );
+        try ( PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, immutable.of( CREATE ) ) )
+        {
+            writeLong( pagedFile, 0, 42 );
+            writeLong( pagedFile, 1, 43 );
+
+            clock.forward( MAX_DIRTY_AGE.toMinutes() + 1, MINUTES );
+            pageCache.writeBackAgedPages();
+
+            assertThat( fs.getFileSize( file ) ).isEqualTo( 2L * PAGE_SIZE );
+            assertThat( isModified( pagedFile, 0 ) ).isFalse();
+            assertThat( isModified( pagedFile, 1 ) ).isFalse();
+        }
+    }
+
+    @Test
+    void mustNotWriteBackPagesThatWereDirtiedRecently() throws IOException
+    {
+        pageCache.startBackgroundWriteback( MAX_DIRTY_AGE, IOLimiter.UNLIMITED );
+        Path file = directory.createFile( "a" );
+        try ( PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, immutable.of( CREATE ) ) )
+        {
+            writeLong( pagedFile, 0, 42 );
+            clock.forward( MAX_DIRTY_AGE.toMinutes() + 1, MINUTES );
+            writeLong( pagedFile, 1, 43 );
+
+            pageCache.writeBackAgedPages();
+
+            assertThat( isModified( pagedFile, 0 ) ).isFalse();
+            assertThat( isModified( pagedFile, 1 ) ).isTrue();
+        }
+    }
+
+    @Test
+    void checkpointMustStillFlushPagesThatAreNotDueForWriteback() throws IOException
+    {
+        pageCache.startBackgroundWriteback( MAX_DIRTY_AGE, IOLimiter.UNLIMITED );
+        Path file = directory.createFile( "a" );
+        try ( PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, immutable.of( CREATE ) ) )
+        {
+            writeLong( pagedFile, 0, 42 );
+            pageCache.writeBackAgedPages();
+            assertThat( isModified( pagedFile, 0 ) ).isTrue();
+
+            pageCache.flushAndForce();
+            assertThat( isModified( pagedFile, 0 ) ).isFalse();
+            assertThat( fs.getFileSize( file ) ).isEqualTo( PAGE_SIZE );
+        }
+    }
+
+    @Test
+    void mustCountFailedWritebacksAndKeepThePagesDirty() throws IOException
+    {
+        AtomicBoolean failWrites = new AtomicBoolean();
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        pageCache.close();
+        pageCache = createPageCache( new SingleFilePageSwapperFactory( fs )
+        {
+            @Override
+            public PageSwapper createPageSwapper( Path file, int filePageSize, PageEvictionCallback onEviction, boolean createIfNotExist,
+                    boolean useDirectIO ) throws IOException
+            {
+                return new DelegatingPageSwapper( super.createPageSwapper( file, filePageSize, onEviction, createIfNotExist, useDirectIO ) )
+                {
+                    @Override
+                    public long write( long filePageId, long bufferAddress, int bufferLength ) throws IOException
+                    {
+                        failIfRequested();
+                        return super.write( filePageId, bufferAddress, bufferLength );
+                    }
+
+                    @Override
+                    public long write( long startFilePageId, long[] bufferAddresses, int[] bufferLengths, int length, int totalAffectedPages )
+                            throws IOException
+                    {
+                        failIfRequested();
+                        return super.write( startFilePageId, bufferAddresses, bufferLengths, length, totalAffectedPages );
+                    }
+
+                    private void failIfRequested() throws IOException
+                    {
+                        if ( failWrites.get() )
+                        {
+                            throw new IOException( "No space left on device" );
+                        }
+                    }
+                };
+            }
+        }, tracer );
+        pageCache.startBackgroundWriteback( MAX_DIRTY_AGE, IOLimiter.UNLIMITED );
+        Path file = directory.createFile( "a" );
+        try ( PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, immutable.of( CREATE ) ) )
+        {
+            writeLong( pagedFile, 0, 42 );
+            clock.forward( MAX_DIRTY_AGE.toMinutes() + 1, MINUTES );
+
+            failWrites.set( true );
+            pageCache.writeBackAgedPages();
+            assertThat( tracer.writebackExceptions() ).isEqualTo( 1 );
+            assertThat( isModified( pagedFile, 0 ) ).isTrue();
+
+            failWrites.set( false );
+            pageCache.writeBackAgedPages();
+            assertThat( tracer.writebackExceptions() ).isEqualTo( 1 );
+            assertThat( isModified( pagedFile, 0 ) ).isFalse();
+        }
+    }
+
+    @Test
+    void mustNotStartBackgroundWritebackTwice()
+    {
+        pageCache.startBackgroundWriteback( MAX_DIRTY_AGE, IOLimiter.UNLIMITED );
+        assertThatThrownBy( () -> pageCache.startBackgroundWriteback( MAX_DIRTY_AGE, IOLimiter.UNLIMITED ) )
+                .isInstanceOf( IllegalStateException.class );
+    }
+
+    @Test
+    void mustRejectNonPositiveMaxDirtyAge()
+    {
+        assertThatThrownBy( () -> pageCache.startBackgroundWriteback( Duration.ZERO, IOLimiter.UNLIMITED ) )
+                .isInstanceOf( IllegalArgumentException.class );
+        assertThatThrownBy( () -> pageCache.startBackgroundWriteback( Duration.ofSeconds( -1 ), IOLimiter.UNLIMITED ) )
+                .isInstanceOf( IllegalArgumentException.class );
+    }
+
+    private static void writeLong( PagedFile pagedFile, long pageId, long value ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_WRITE_LOCK, NULL ) )
+        {
+            assertThat( cursor.next() ).isTrue();
+            cursor.putLong( value );
+        }
+    }
+
+    private boolean isModified( PagedFile pagedFile, long pageId ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_READ_LOCK, NULL ) )
+        {
+            assertThat( cursor.next() ).isTrue();
+            return pageCache.pages.isModified( ((MuninnPageCursor) cursor).pinnedPageRef );
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.io.ByteUnit.MebiByte;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+class ScanResistantEvictionStrategyTest
+{
+    private static final int PAGE_COUNT = 16;
+    private static final int SWAPPER_ID = 1;
+
+    private MemoryAllocator mman;
+    private PageList pages;
+    private DefaultPageCacheTracer tracer;
+    private ScanResistantEvictionStrategy strategy;
+
+    @BeforeEach
+    void setUp()
+    {
+        mman = MemoryAllocator.createAllocator( MebiByte.toBytes( 1 ), INSTANCE );
+        int pageSize = UnsafeUtil.pageSize();
+        long victimPage = VictimPageReference.getVictimPage( pageSize, INSTANCE );
+        pages = new PageList( PAGE_COUNT, pageSize, mman, new SwapperSet(), victimPage, Long.BYTES );
+        tracer = new DefaultPageCacheTracer();
+        strategy = new ScanResistantEvictionStrategy( PAGE_COUNT, tracer );
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        mman.close();
+    }
+
+    @Test
+    void firstTimeFaultedPagesMustBeOnProbation()
+    {
+        long pageRef = pages.deref( 3 );
+        strategy.pageFaulted( pages, pageRef, SWAPPER_ID, 42 );
+
+        assertThat( strategy.isOnProbation( 3 ) ).isTrue();
+        assertThat( strategy.isOnProbation( 2 ) ).isFalse();
+        assertThat( strategy.isOnProbation( 4 ) ).isFalse();
+    }
+
+    @Test
+    void probationaryPagesPinnedOnlyOnceMustBeEvictionCandidates()
+    {
+        long pageRef = pages.deref( 5 );
+        strategy.pageFaulted( pages, pageRef, SWAPPER_ID, 42 );
+        pages.incrementUsage( pageRef );
+
+        assertThat( strategy.isEvictionCandidate( pages, pageRef ) ).isTrue();
+        assertThat( strategy.isOnProbation( 5 ) ).isTrue();
+    }
+
+    @Test
+    void probationaryPagesPinnedAgainMustLeaveProbation()
+    {
+        long pageRef = pages.deref( 5 );
+        strategy.pageFaulted( pages, pageRef, SWAPPER_ID, 42 );
+        for ( int i = 0; i < 2; i++ )
+        {
+            pages.incrementUsage( pageRef );
+        }
+
+        assertThat( strategy.isEvictionCandidate( pages, pageRef ) ).isFalse();
+        assertThat( strategy.isOnProbation( 5 ) ).isFalse();
+        // From now on the usage counter decides, like for any other page.
+        assertThat( strategy.isEvictionCandidate( pages, pageRef ) ).isTrue();
+    }
+
+    @Test
+    void refaultOfRecentlyEvictedPageMustBeAdmittedAsProtected()
+    {
+        long pageRef = pages.deref( 7 );
+        strategy.pageFaulted( pages, pageRef, SWAPPER_ID, 42 );
+        strategy.pageEvicted( SWAPPER_ID, 42 );
+
+        long otherPageRef = pages.deref( 8 );
+        strategy.pageFaulted( pages, otherPageRef, SWAPPER_ID, 42 );
+
+        assertThat( strategy.isOnProbation( 8 ) ).isFalse();
+        assertThat( tracer.refaults() ).isEqualTo( 1 );
+        // The usage counter was boosted, so it takes more than one sweep of the clock to evict the page.
+        assertThat( strategy.isEvictionCandidate( pages, otherPageRef ) ).isFalse();
+        assertThat( strategy.isEvictionCandidate( pages, otherPageRef ) ).isTrue();
+    }
+
+    @Test
+    void ghostEntryMustOnlyBeUsedOnce()
+    {
+        strategy.pageEvicted( SWAPPER_ID, 42 );
+        strategy.pageFaulted( pages, pages.deref( 1 ), SWAPPER_ID, 42 );
+        strategy.pageFaulted( pages, pages.deref( 2 ), SWAPPER_ID, 42 );
+
+        assertThat( strategy.isOnProbation( 1 ) ).isFalse();
+        assertThat( strategy.isOnProbation( 2 ) ).isTrue();
+        assertThat( tracer.refaults() ).isEqualTo( 1 );
+    }
+
+    @Test
+    void ghostEntriesMustBeSpecificToTheSwapper()
+    {
+        strategy.pageEvicted( SWAPPER_ID, 42 );
+        strategy.pageFaulted( pages, pages.deref( 1 ), SWAPPER_ID + 1, 42 );
+
+        assertThat( strategy.isOnProbation( 1 ) ).isTrue();
+        assertThat( tracer.refaults() ).isZero();
+    }
+}
@@ -190,6 +190,28 @@ public class DefaultPageCacheTracerTest
         assertThat( tracer.hitRatio() ).as( "hitRation" ).isCloseTo( 3.0 / 10, within( 0.0001 ) );
     }
 
+    @Test
+    void shouldCountHitsAndFaultsPerEvictionPolicy()
+    {
+        tracer.hits( 1 );
+        tracer.evictionPolicy( "CLOCK" );
+        tracer.hits( 3 );
+        tracer.faults( 7 );
+        tracer.evictionPolicy( "SCAN_RESISTANT" );
+        tracer.hits( 8 );
+        tracer.faults( 2 );
+
+        assertThat( tracer.evictionPolicyHits( "CLOCK" ) ).isEqualTo( 3 );
+        assertThat( tracer.evictionPolicyFaults( "CLOCK" ) ).isEqualTo( 7 );
+        assertThat( tracer.evictionPolicyHitRatio( "CLOCK" ) ).isCloseTo( 3.0 / 10, within( 0.0001 ) );
+        assertThat( tracer.evictionPolicyHits( "SCAN_RESISTANT" ) ).isEqualTo( 8 );
+        assertThat( tracer.evictionPolicyFaults( "SCAN_RESISTANT" ) ).isEqualTo( 2 );
+        assertThat( tracer.evictionPolicyHitRatio( "SCAN_RESISTANT" ) ).isCloseTo( 8.0 / 10, within( 0.0001 ) );
+        assertThat( tracer.evictionPolicyHits( "OTHER" ) ).isZero();
+        assertThat( tracer.evictionPolicyHitRatio( "OTHER" ) ).isCloseTo( 0d, within( 0.0001 ) );
+        assertThat( tracer.hits() ).isEqualTo( 12 );
+    }
+
     @Test
     void usageRatio()
     {
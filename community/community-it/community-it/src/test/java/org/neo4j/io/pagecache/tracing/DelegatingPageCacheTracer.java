@@ -116,12 +116,36 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         return delegate.evictionExceptions();
     }
 
+    @Override
+    public long writebackExceptions()
+    {
+        return delegate.writebackExceptions();
+    }
+
     @Override
     public double hitRatio()
     {
         return delegate.hitRatio();
     }
 
+    @Override
+    public long evictionPolicyHits( String evictionPolicy )
+    {
+        return delegate.evictionPolicyHits( evictionPolicy );
+    }
+
+    @Override
+    public long evictionPolicyFaults( String evictionPolicy )
+    {
+        return delegate.evictionPolicyFaults( evictionPolicy );
+    }
+
+    @Override
+    public double evictionPolicyHitRatio( String evictionPolicy )
+    {
+        return delegate.evictionPolicyHitRatio( evictionPolicy );
+    }
+
     @Override
     public double usageRatio()
     {
@@ -170,6 +194,12 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.evictionExceptions( evictionExceptions );
     }
 
+    @Override
+    public void writebackExceptions( long writebackExceptions )
+    {
+        delegate.writebackExceptions( writebackExceptions );
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -194,6 +224,12 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.maxPages( maxPages );
     }
 
+    @Override
+    public void evictionPolicy( String evictionPolicy )
+    {
+        delegate.evictionPolicy( evictionPolicy );
+    }
+
     @Override
     public long filesMapped()
     {
@@ -223,4 +259,94 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
     {
         return delegate.evictions();
     }
+
+    @Override
+    public long refaults()
+    {
+        return delegate.refaults();
+    }
+
+    @Override
+    public void refaults( long refaults )
+    {
+        delegate.refaults( refaults );
+    }
+
+    @Override
+    public long prefetchHits()
+    {
+        return delegate.prefetchHits();
+    }
+
+    @Override
+    public long prefetchMisses()
+    {
+        return delegate.prefetchMisses();
+    }
+
+    @Override
+    public void prefetchHits( long prefetchHits )
+    {
+        delegate.prefetchHits( prefetchHits );
+    }
+
+    @Override
+    public void prefetchMisses( long prefetchMisses )
+    {
+        delegate.prefetchMisses( prefetchMisses );
+    }
+
+    @Override
+    public long bytesCompressed()
+    {
+        return delegate.bytesCompressed();
+    }
+
+    @Override
+    public long compressedBytesWritten()
+    {
+        return delegate.compressedBytesWritten();
+    }
+
+    @Override
+    public long pagesDecompressed()
+    {
+        return delegate.pagesDecompressed();
+    }
+
+    @Override
+    public long decompressionNanos()
+    {
+        return delegate.decompressionNanos();
+    }
+
+    @Override
+    public double compressionRatio()
+    {
+        return delegate.compressionRatio();
+    }
+
+    @Override
+    public void bytesCompressed( long bytesCompressed )
+    {
+        delegate.bytesCompressed( bytesCompressed );
+    }
+
+    @Override
+    public void compressedBytesWritten( long compressedBytesWritten )
+    {
+        delegate.compressedBytesWritten( compressedBytesWritten );
+    }
+
+    @Override
+    public void pagesDecompressed( long pagesDecompressed )
+    {
+        delegate.pagesDecompressed( pagesDecompressed );
+    }
+
+    @Override
+    public void decompressionNanos( long decompressionNanos )
+    {
+        delegate.decompressionNanos( decompressionNanos );
+    }
 }
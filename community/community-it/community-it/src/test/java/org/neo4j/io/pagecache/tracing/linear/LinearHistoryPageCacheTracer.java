@@ -157,12 +157,36 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return 0;
     }
 
+    @Override
+    public long writebackExceptions()
+    {
+        return 0;
+    }
+
     @Override
     public double hitRatio()
     {
         return 0d;
     }
 
+    @Override
+    public long evictionPolicyHits( String evictionPolicy )
+    {
+        return 0;
+    }
+
+    @Override
+    public long evictionPolicyFaults( String evictionPolicy )
+    {
+        return 0;
+    }
+
+    @Override
+    public double evictionPolicyHitRatio( String evictionPolicy )
+    {
+        return 0d;
+    }
+
     @Override
     public double usageRatio()
     {
@@ -204,6 +228,11 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
     {
     }
 
+    @Override
+    public void writebackExceptions( long writebackExceptions )
+    {
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -223,4 +252,92 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
     public void maxPages( long maxPages )
     {
     }
+
+    @Override
+    public void evictionPolicy( String evictionPolicy )
+    {
+    }
+
+    @Override
+    public long refaults()
+    {
+        return 0;
+    }
+
+    @Override
+    public void refaults( long refaults )
+    {
+    }
+
+    @Override
+    public long prefetchHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long prefetchMisses()
+    {
+        return 0;
+    }
+
+    @Override
+    public void prefetchHits( long prefetchHits )
+    {
+    }
+
+    @Override
+    public void prefetchMisses( long prefetchMisses )
+    {
+    }
+
+    @Override
+    public long bytesCompressed()
+    {
+        return 0;
+    }
+
+    @Override
+    public long compressedBytesWritten()
+    {
+        return 0;
+    }
+
+    @Override
+    public long pagesDecompressed()
+    {
+        return 0;
+    }
+
+    @Override
+    public long decompressionNanos()
+    {
+        return 0;
+    }
+
+    @Override
+    public double compressionRatio()
+    {
+        return 0;
+    }
+
+    @Override
+    public void bytesCompressed( long bytesCompressed )
+    {
+    }
+
+    @Override
+    public void compressedBytesWritten( long compressedBytesWritten )
+    {
+    }
+
+    @Override
+    public void pagesDecompressed( long pagesDecompressed )
+    {
+    }
+
+    @Override
+    public void decompressionNanos( long decompressionNanos )
+    {
+    }
 }
@@ -108,6 +108,28 @@ public class LinearHistoryPageCursorTracer implements PageCursorTracer
         return 0d;
     }
 
+    @Override
+    public long prefetchHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long prefetchMisses()
+    {
+        return 0;
+    }
+
+    @Override
+    public void prefetchHit()
+    {
+    }
+
+    @Override
+    public void prefetchMiss()
+    {
+    }
+
     @Override
     public PinEvent beginPin( boolean writeLock, long filePageId, PageSwapper swapper )
     {
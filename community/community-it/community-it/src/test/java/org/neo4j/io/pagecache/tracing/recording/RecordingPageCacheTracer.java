@@ -162,12 +162,36 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         return 0;
     }
 
+    @Override
+    public long writebackExceptions()
+    {
+        return 0;
+    }
+
     @Override
     public double hitRatio()
     {
         return 0d;
     }
 
+    @Override
+    public long evictionPolicyHits( String evictionPolicy )
+    {
+        return 0;
+    }
+
+    @Override
+    public long evictionPolicyFaults( String evictionPolicy )
+    {
+        return 0;
+    }
+
+    @Override
+    public double evictionPolicyHitRatio( String evictionPolicy )
+    {
+        return 0d;
+    }
+
     @Override
     public double usageRatio()
     {
@@ -212,6 +236,11 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
     {
     }
 
+    @Override
+    public void writebackExceptions( long writebackExceptions )
+    {
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -232,6 +261,94 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
     {
     }
 
+    @Override
+    public void evictionPolicy( String evictionPolicy )
+    {
+    }
+
+    @Override
+    public void decompressionNanos( long decompressionNanos )
+    {
+    }
+
+    @Override
+    public void pagesDecompressed( long pagesDecompressed )
+    {
+    }
+
+    @Override
+    public void compressedBytesWritten( long compressedBytesWritten )
+    {
+    }
+
+    @Override
+    public void bytesCompressed( long bytesCompressed )
+    {
+    }
+
+    @Override
+    public double compressionRatio()
+    {
+        return 0;
+    }
+
+    @Override
+    public long decompressionNanos()
+    {
+        return 0;
+    }
+
+    @Override
+    public long pagesDecompressed()
+    {
+        return 0;
+    }
+
+    @Override
+    public long compressedBytesWritten()
+    {
+        return 0;
+    }
+
+    @Override
+    public long bytesCompressed()
+    {
+        return 0;
+    }
+
+    @Override
+    public void prefetchMisses( long prefetchMisses )
+    {
+    }
+
+    @Override
+    public void prefetchHits( long prefetchHits )
+    {
+    }
+
+    @Override
+    public long prefetchMisses()
+    {
+        return 0;
+    }
+
+    @Override
+    public long prefetchHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public void refaults( long refaults )
+    {
+    }
+
+    @Override
+    public long refaults()
+    {
+        return 0;
+    }
+
     private void evicted( long filePageId, PageSwapper swapper )
     {
         record( new Evict( swapper, filePageId ) );
@@ -122,6 +122,28 @@ public class RecordingPageCursorTracer extends RecordingTracer implements PageCu
         return 0d;
     }
 
+    @Override
+    public long prefetchHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long prefetchMisses()
+    {
+        return 0;
+    }
+
+    @Override
+    public void prefetchHit()
+    {
+    }
+
+    @Override
+    public void prefetchMiss()
+    {
+    }
+
     @Override
     public PinEvent beginPin( boolean writeLock, final long filePageId, final PageSwapper swapper )
     {
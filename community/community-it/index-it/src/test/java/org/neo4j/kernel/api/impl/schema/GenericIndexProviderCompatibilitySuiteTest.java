@@ -46,7 +46,7 @@ public class GenericIndexProviderCompatibilitySuiteTest extends IndexProviderCom
         Config config = Config.defaults( default_schema_provider, NATIVE_BTREE10.providerName() );
         OperationalMode mode = OperationalMode.SINGLE;
         RecoveryCleanupWorkCollector recoveryCleanupWorkCollector = RecoveryCleanupWorkCollector.immediate();
-        return GenericNativeIndexProviderFactory.create( pageCache, graphDbDir, fs, monitor, config, mode, recoveryCleanupWorkCollector );
+        return GenericNativeIndexProviderFactory.create( pageCache, graphDbDir, fs, monitor, config, mode, recoveryCleanupWorkCollector, null );
     }
 
     @Override
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import org.eclipse.collections.api.list.primitive.LongList;
+import org.eclipse.collections.api.set.primitive.LongSet;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.factory.primitive.LongSets;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.kernel.api.CursorFactory;
+import org.neo4j.internal.kernel.api.IndexReadSession;
+import org.neo4j.internal.kernel.api.NodeValueIndexCursor;
+import org.neo4j.internal.kernel.api.PartitionedScan;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.graphdb.Label.label;
+import static org.neo4j.internal.kernel.api.IndexQueryConstraints.constrained;
+import static org.neo4j.internal.kernel.api.IndexQueryConstraints.unconstrained;
+import static org.neo4j.internal.schema.IndexOrder.ASCENDING;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.kernel.impl.newapi.TestUtils.assertDistinct;
+import static org.neo4j.kernel.impl.newapi.TestUtils.concat;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+public abstract class ParallelNodeIndexScanTestBase<G extends KernelAPIReadTestSupport> extends KernelAPIReadTestBase<G>
+{
+    private static final int NUMBER_OF_NODES = 1000;
+    private static final String INDEX_NAME = "prop_index";
+    private static LongSet NODES;
+
+    @Override
+    public void createTestGraph( GraphDatabaseService graphDb )
+    {
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            tx.schema().indexFor( label( "Node" ) ).on( "prop" ).withName( INDEX_NAME ).create();
+            tx.commit();
+        }
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            tx.schema().awaitIndexesOnline( 5, MINUTES );
+            tx.commit();
+        }
+        MutableLongSet nodes = LongSets.mutable.empty();
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            for ( int i = 0; i < NUMBER_OF_NODES; i++ )
+            {
+                Node node = tx.createNode( label( "Node" ) );
+                node.setProperty( "prop", i % 2 == 0 ? i : "string" + i );
+                nodes.add( node.getId() );
+            }
+            tx.commit();
+        }
+        NODES = nodes;
+    }
+
+    @Test
+    void shouldScanAllNodesAcrossPartitions() throws Exception
+    {
+        // given
+        IndexReadSession index = read.indexReadSession( schemaRead.indexGetForName( INDEX_NAME ) );
+        PartitionedScan<NodeValueIndexCursor> scan = read.nodeIndexScan( index, 10, unconstrained() );
+        assertThat( scan.getNumberOfPartitions() ).isGreaterThanOrEqualTo( 1 ).isLessThanOrEqualTo( 10 );
+
+        // when
+        List<LongList> partitions = new ArrayList<>();
+        try ( NodeValueIndexCursor nodes = cursors.allocateNodeValueIndexCursor( NULL, INSTANCE ) )
+        {
+            while ( scan.reservePartition( nodes ) )
+            {
+                LongArrayList partition = new LongArrayList();
+                while ( nodes.next() )
+                {
+                    partition.add( nodes.nodeReference() );
+                }
+                partitions.add( partition );
+            }
+            assertFalse( scan.reservePartition( nodes ) );
+        }
+
+        // then
+        assertEquals( scan.getNumberOfPartitions(), partitions.size() );
+        assertDistinct( partitions );
+        assertEquals( NODES, LongSets.immutable.withAll( concat( partitions ) ) );
+    }
+
+    @Test
+    void shouldScanAllNodesFromMultipleThreads() throws Exception
+    {
+        // given
+        ExecutorService service = Executors.newFixedThreadPool( 4 );
+        IndexReadSession index = read.indexReadSession( schemaRead.indexGetForName( INDEX_NAME ) );
+        PartitionedScan<NodeValueIndexCursor> scan = read.nodeIndexScan( index, 4, unconstrained() );
+        CursorFactory cursors = testSupport.kernelToTest().cursors();
+
+        try
+        {
+            // when
+            List<Future<LongList>> futures = new ArrayList<>();
+            for ( int i = 0; i < 4; i++ )
+            {
+                futures.add( service.submit( partitionWorker( scan, cursors ) ) );
+            }
+
+            // then
+            List<LongList> lists = futures.stream().map( TestUtils::unsafeGet ).collect( Collectors.toList() );
+            assertDistinct( lists );
+            assertEquals( NODES, LongSets.immutable.withAll( concat( lists ) ) );
+        }
+        finally
+        {
+            service.shutdown();
+            service.awaitTermination( 1, TimeUnit.MINUTES );
+        }
+    }
+
+    @Test
+    void shouldNotAllowOrderedPartitionedScan() throws Exception
+    {
+        IndexReadSession index = read.indexReadSession( schemaRead.indexGetForName( INDEX_NAME ) );
+        assertThrows( IllegalArgumentException.class, () -> read.nodeIndexScan( index, 4, constrained( ASCENDING, false ) ) );
+    }
+
+    @Test
+    void shouldNotAllowNonPositiveNumberOfPartitions() throws Exception
+    {
+        IndexReadSession index = read.indexReadSession( schemaRead.indexGetForName( INDEX_NAME ) );
+        assertThrows( IllegalArgumentException.class, () -> read.nodeIndexScan( index, 0, unconstrained() ) );
+    }
+
+    private static Callable<LongList> partitionWorker( PartitionedScan<NodeValueIndexCursor> scan, CursorFactory cursors )
+    {
+        return () -> {
+            try ( NodeValueIndexCursor nodes = cursors.allocateNodeValueIndexCursor( NULL, INSTANCE ) )
+            {
+                LongArrayList batch = new LongArrayList();
+                while ( scan.reservePartition( nodes ) )
+                {
+                    while ( nodes.next() )
+                    {
+                        batch.add( nodes.nodeReference() );
+                    }
+                }
+                return batch;
+            }
+        };
+    }
+}
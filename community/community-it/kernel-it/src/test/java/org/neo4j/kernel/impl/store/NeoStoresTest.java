@@ -34,6 +34,7 @@ import java.util.function.LongSupplier;
 
 import org.neo4j.collection.Dependencies;
 import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
 import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.dbms.api.DatabaseManagementService;
 import org.neo4j.exceptions.KernelException;
@@ -55,6 +56,10 @@ import org.neo4j.io.fs.UncloseableDelegatingFileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.impl.CompressedPageSwapperFactory;
+import org.neo4j.io.pagecache.impl.PageCompression;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
@@ -70,8 +75,10 @@ import org.neo4j.kernel.impl.store.record.PropertyBlock;
 import org.neo4j.kernel.impl.store.record.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.store.record.PropertyRecord;
 import org.neo4j.kernel.impl.store.record.Record;
+import org.neo4j.kernel.impl.scheduler.JobSchedulerFactory;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.NullLogProvider;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.PropertyKeyValue;
 import org.neo4j.storageengine.api.RelationshipVisitor;
 import org.neo4j.storageengine.api.StorageEngine;
@@ -94,6 +101,8 @@ import org.neo4j.token.api.TokenHolder;
 import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.Values;
 
+import static org.apache.commons.lang3.exception.ExceptionUtils.getRootCause;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.eclipse.collections.api.factory.Sets.immutable;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -102,9 +111,11 @@ import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.neo4j.configuration.GraphDatabaseInternalSettings.counts_store_rotation_timeout;
 import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
 import static org.neo4j.internal.kernel.api.security.LoginContext.AUTH_DISABLED;
+import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
 import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
 import static org.neo4j.kernel.impl.store.format.standard.MetaDataRecordFormat.FIELD_NOT_PRESENT;
 import static org.neo4j.kernel.impl.store.record.RecordLoad.NORMAL;
@@ -191,6 +202,74 @@ public class NeoStoresTest
         assertEquals( "Block size of dynamic array store should be positive integer.", e.getMessage() );
     }
 
+    @Test
+    void shouldMapOnlyPropertyStoresCompressedWhenCompressionIsEnabled() throws Exception
+    {
+        assumeTrue( PageCompression.isAvailable() );
+        Config config = Config.defaults( GraphDatabaseInternalSettings.pagecache_compression, PageCompression.ZSTD );
+        DatabaseLayout compressedLayout = DatabaseLayout.ofFlat( dir.directory( "compressed" ) );
+        var swapperFactory = new CompressedPageSwapperFactory( fs, new SingleFilePageSwapperFactory( fs ), PageCompression.ZSTD, PageCacheTracer.NULL );
+        try ( JobScheduler scheduler = JobSchedulerFactory.createInitialisedScheduler();
+              PageCache compressedPageCache = new MuninnPageCache( swapperFactory, 1_000, PageCacheTracer.NULL, EMPTY, scheduler ) )
+        {
+            StoreFactory sf = new StoreFactory( compressedLayout, config, new DefaultIdGeneratorFactory( fs, immediate() ), compressedPageCache, fs,
+                    LOG_PROVIDER, PageCacheTracer.NULL );
+            sf.openAllNeoStores( true ).close();
+        }
+
+        assertTrue( CompressedPageSwapperFactory.isCompressedFile( fs, compressedLayout.propertyStore() ) );
+        assertTrue( CompressedPageSwapperFactory.isCompressedFile( fs, compressedLayout.propertyStringStore() ) );
+        assertTrue( CompressedPageSwapperFactory.isCompressedFile( fs, compressedLayout.propertyArrayStore() ) );
+        assertFalse( CompressedPageSwapperFactory.isCompressedFile( fs, compressedLayout.nodeStore() ) );
+        assertFalse( CompressedPageSwapperFactory.isCompressedFile( fs, compressedLayout.metadataStore() ) );
+    }
+
+    @Test
+    void shouldReopenCompressedPropertyStoresWithCompressionDisabled() throws Exception
+    {
+        assumeTrue( PageCompression.isAvailable() );
+        DatabaseLayout compressedLayout = DatabaseLayout.ofFlat( dir.directory( "compressed" ) );
+        Config compressingConfig = Config.defaults( GraphDatabaseInternalSettings.pagecache_compression, PageCompression.ZSTD );
+        var compressingFactory = new CompressedPageSwapperFactory( fs, new SingleFilePageSwapperFactory( fs ), PageCompression.ZSTD, PageCacheTracer.NULL );
+        long propertyId;
+        try ( JobScheduler scheduler = JobSchedulerFactory.createInitialisedScheduler();
+              PageCache compressedPageCache = new MuninnPageCache( compressingFactory, 1_000, PageCacheTracer.NULL, EMPTY, scheduler );
+              NeoStores neoStores = storeFactory( compressedLayout, compressingConfig, compressedPageCache ).openAllNeoStores( true ) )
+        {
+            PropertyStore propertyStore = neoStores.getPropertyStore();
+            PropertyRecord record = propertyStore.newRecord();
+            propertyId = propertyStore.nextId( NULL );
+            record.setId( propertyId );
+            record.setInUse( true );
+            propertyStore.updateRecord( record, NULL );
+        }
+
+        // With compression disabled, the page cache is still able to read compressed files, as it is set up by the ConfiguringPageCacheFactory.
+        var readingFactory = new CompressedPageSwapperFactory( fs, new SingleFilePageSwapperFactory( fs ), PageCompression.NONE, PageCacheTracer.NULL );
+        try ( JobScheduler scheduler = JobSchedulerFactory.createInitialisedScheduler();
+              PageCache readingPageCache = new MuninnPageCache( readingFactory, 1_000, PageCacheTracer.NULL, EMPTY, scheduler );
+              NeoStores neoStores = storeFactory( compressedLayout, Config.defaults(), readingPageCache ).openAllNeoStores( false ) )
+        {
+            PropertyStore propertyStore = neoStores.getPropertyStore();
+            assertTrue( propertyStore.getRecord( propertyId, propertyStore.newRecord(), NORMAL, NULL ).inUse() );
+        }
+        assertTrue( CompressedPageSwapperFactory.isCompressedFile( fs, compressedLayout.propertyStore() ) );
+
+        // A page cache without compression support must refuse to map the compressed files, rather than read their blocks as pages.
+        try ( JobScheduler scheduler = JobSchedulerFactory.createInitialisedScheduler();
+              PageCache plainPageCache = new MuninnPageCache( new SingleFilePageSwapperFactory( fs ), 1_000, PageCacheTracer.NULL, EMPTY, scheduler ) )
+        {
+            StoreFactory sf = storeFactory( compressedLayout, Config.defaults(), plainPageCache );
+            var e = assertThrows( RuntimeException.class, () -> sf.openAllNeoStores( false ).close() );
+            assertThat( getRootCause( e ).getMessage() ).contains( "is compressed" );
+        }
+    }
+
+    private StoreFactory storeFactory( DatabaseLayout layout, Config config, PageCache storePageCache )
+    {
+        return new StoreFactory( layout, config, new DefaultIdGeneratorFactory( fs, immediate() ), storePageCache, fs, LOG_PROVIDER, PageCacheTracer.NULL );
+    }
+
     @Test
     void impossibleToGetNotRequestedStore()
     {
@@ -21,14 +21,19 @@ package org.neo4j.configuration;
 
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.List;
 
 import org.neo4j.annotations.service.ServiceProvider;
 import org.neo4j.graphdb.config.Setting;
+import org.neo4j.io.mem.HugePageMode;
+import org.neo4j.io.pagecache.impl.PageCompression;
+import org.neo4j.io.pagecache.impl.muninn.EvictionPolicy;
 import org.neo4j.logging.FormattedLogFormat;
 
 import static java.time.Duration.ofMillis;
 import static java.time.Duration.ofMinutes;
 import static java.time.Duration.ofSeconds;
+import static java.util.Collections.emptyList;
 import static org.neo4j.configuration.SettingConstraints.any;
 import static org.neo4j.configuration.SettingConstraints.is;
 import static org.neo4j.configuration.SettingConstraints.min;
@@ -42,6 +47,7 @@ import static org.neo4j.configuration.SettingValueParsers.INT;
 import static org.neo4j.configuration.SettingValueParsers.LONG;
 import static org.neo4j.configuration.SettingValueParsers.PATH;
 import static org.neo4j.configuration.SettingValueParsers.STRING;
+import static org.neo4j.configuration.SettingValueParsers.listOf;
 import static org.neo4j.configuration.SettingValueParsers.ofEnum;
 import static org.neo4j.io.ByteUnit.kibiBytes;
 import static org.neo4j.io.ByteUnit.mebiBytes;
@@ -337,6 +343,40 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
     public static final Setting<Boolean> fail_on_corrupted_log_files =
             newBuilder("unsupported.dbms.tx_log.fail_on_corrupted_log_files", BOOL, true ).build();
 
+    @Internal
+    @Description( "If `true`, the commands of each transaction are compressed with Zstandard when written to the transaction log. " +
+            "Only applies when the transaction log is written in the 4.2 format, and requires the native compression library " +
+            "to be available on this platform. Compressed transaction logs can not be read by versions that don't support compression." )
+    public static final Setting<Boolean> compress_transaction_log_commands =
+            newBuilder( "unsupported.dbms.tx_log.compress_commands", BOOL, false ).build();
+
+    @Internal
+    @Description( "Number of transactions recovery reads and deserializes from the transaction log ahead of applying them, " +
+            "on a separate thread. A value of 0 reads each transaction on the applying thread." )
+    public static final Setting<Integer> recovery_read_ahead_transactions =
+            newBuilder( "unsupported.dbms.recovery.read_ahead_transactions", INT, 0 ).addConstraint( min( 0 ) ).build();
+
+    @Internal
+    @Description( "Number of threads recovery writes the node, relationship, property and relationship group records of recovered transactions " +
+            "to the record store with, partitioned by the store page they're on. Only transactions updating at least " +
+            "'unsupported.dbms.storage.parallel_apply.min_updates' records are written in parallel. The threads are shared with " +
+            "'unsupported.dbms.storage.parallel_apply.threads', which limits their number if set. A value of 0 writes them on the recovering thread." )
+    public static final Setting<Integer> recovery_parallel_apply_threads =
+            newBuilder( "unsupported.dbms.recovery.parallel_apply.threads", INT, 0 ).addConstraint( min( 0 ) ).build();
+
+    @Internal
+    @Description( "Maximum time a committing transaction that is about to force the transaction log waits for concurrently " +
+            "committing transactions to join the same force. Waiting lets one force cover more transactions at the cost of commit latency. " +
+            "A value of 0 disables waiting." )
+    public static final Setting<Duration> group_commit_max_delay =
+            newBuilder( "unsupported.dbms.tx_log.group_commit.max_delay", DURATION, Duration.ZERO ).build();
+
+    @Internal
+    @Description( "Number of committing transactions waiting for the transaction log to be forced at which a transaction " +
+            "waiting for others to join its force, as configured by 'unsupported.dbms.tx_log.group_commit.max_delay', forces right away." )
+    public static final Setting<Integer> group_commit_max_batch_size =
+            newBuilder( "unsupported.dbms.tx_log.group_commit.max_batch_size", INT, 32 ).addConstraint( min( 1 ) ).build();
+
     @Internal
     @Description( "Specifies if engine should run cypher query based on a snapshot of accessed data. " +
             "Query will be restarted in case if concurrent modification of data will be detected." )
@@ -467,6 +507,33 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
                     .addConstraint( range( 1, Integer.MAX_VALUE ) )
                     .build();
 
+    @Internal
+    @Description( "Keep a bloom filter of the values in each online native unique index, sized to this many bits per entry, so that exact " +
+            "lookups of values that are not in the index, e.g. by MERGE, can be answered without seeking the index. 10 bits per entry gives " +
+            "a false positive rate of about 1%. The filters are built when the indexes are opened, and are kept in heap. Zero disables them." )
+    public static final Setting<Integer> index_unique_bloom_filter_bits_per_key =
+            newBuilder( "unsupported.dbms.index.unique_bloom_filter.bits_per_key", INT, 0 ).addConstraint( range( 0, 64 ) ).build();
+
+    @Internal
+    @Description( "Cache the results of exact lookups in each online native unique index, keeping at most this many of the most recently used " +
+            "results per index. Cached results are invalidated by the index updates of committed transactions. Individual indexes can override " +
+            "this with the 'seek_cache.max_entries' index config. Zero disables the caches." )
+    public static final Setting<Integer> index_unique_seek_cache_max_entries =
+            newBuilder( "unsupported.dbms.index.unique_seek_cache.max_entries", INT, 0 ).addConstraint( min( 0 ) ).build();
+
+    @Internal
+    @Description( "Let each native index hand out multiple updaters at the same time, each writing to the index tree through its own concurrent " +
+            "writer. Changes that only touch a single leaf of the tree are then made in parallel. Disabled means one updater at a time per index." )
+    public static final Setting<Boolean> index_concurrent_updaters =
+            newBuilder( "unsupported.dbms.index.concurrent_updaters", BOOL, false ).build();
+
+    @Internal
+    @Description( "Compact native indexes in the background after checkpoints, when a large share of their pages is free. Compaction merges " +
+            "sparse leaves and moves tree nodes away from the end of the file, so free pages at the end are no longer used. The index files " +
+            "are not truncated, so this does not reduce their size on disk." )
+    public static final Setting<Boolean> index_compaction =
+            newBuilder( "unsupported.dbms.index.compaction", BOOL, false ).build();
+
     @Internal
     @Description( "Create an archive of an index before re-creating it if failing to load on startup." )
     public static final Setting<Boolean> archive_failed_index =
@@ -480,6 +547,18 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
     public static final Setting<Boolean> consistency_check_on_apply =
             newBuilder( "unsupported.dbms.storage.consistency_check_on_apply", BOOL, Boolean.FALSE ).build();
 
+    @Internal
+    @Description( "Number of threads writing the node, relationship, property and relationship group records of committed transactions " +
+            "to the record store in parallel, partitioned by the store page they're on. A value of 0 writes them on the applying thread." )
+    public static final Setting<Integer> parallel_apply_threads =
+            newBuilder( "unsupported.dbms.storage.parallel_apply.threads", INT, 0 ).addConstraint( min( 0 ) ).build();
+
+    @Internal
+    @Description( "Minimum number of records a transaction needs to update for them to be written to the record store in parallel, " +
+            "if enabled by 'unsupported.dbms.storage.parallel_apply.threads'. Smaller transactions are written by the applying thread." )
+    public static final Setting<Integer> parallel_apply_min_updates =
+            newBuilder( "unsupported.dbms.storage.parallel_apply.min_updates", INT, 1024 ).addConstraint( min( 1 ) ).build();
+
     @Internal
     @Description( "Time interval of inactivity after which a driver will be closed." )
     public static final Setting<Duration> routing_driver_idle_timeout =
@@ -523,6 +602,71 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
     public static final Setting<String> upgrade_username =
             newBuilder( "unsupported.dbms.upgrade_procedure_username", STRING, "upgrade_user" ).build();
 
+    @Internal
+    @Description( "The policy the page cache uses to decide which pages to evict. `CLOCK` evicts the pages that have been used the least " +
+            "recently, according to a clock sweep over the page usage counters. `SCAN_RESISTANT` additionally keeps pages that have only " +
+            "been touched once, such as pages brought in by large scans, on probation, so that they cannot push the frequently used pages " +
+            "out of the cache." )
+    public static final Setting<EvictionPolicy> pagecache_eviction_policy =
+            newBuilder( "unsupported.dbms.memory.pagecache.eviction_policy", ofEnum( EvictionPolicy.class ), EvictionPolicy.CLOCK ).build();
+
+    @Internal
+    @Description( "Perform page cache file I/O through Linux io_uring, which submits reads and writes in batches and lets the storage device work on " +
+            "many of them concurrently. The page cache falls back to regular file channel I/O if io_uring is not available." )
+    public static final Setting<Boolean> pagecache_io_uring = newBuilder( "unsupported.dbms.memory.pagecache.io_uring", BOOL, false ).build();
+
+    @Internal
+    @Description( "Let the page cache detect sequential and strided reads of the record store files, and read ahead of them with vectored reads. " +
+            "This mainly speeds up scans of stores that are not already in memory." )
+    public static final Setting<Boolean> pagecache_read_ahead = newBuilder( "unsupported.dbms.memory.pagecache.read_ahead", BOOL, false ).build();
+
+    @Internal
+    @Description( "Let every database keep profiles of its pages in the page cache, in the 'profiles' directory of the database, and warm up " +
+            "the page cache from them when it starts, as configured by the 'dbms.memory.pagecache.warmup.*' settings. " +
+            "This is meant for editions that have no page cache warmer of their own, such as Neo4j Community Edition." )
+    public static final Setting<Boolean> pagecache_warmup_from_profiles =
+            newBuilder( "unsupported.dbms.memory.pagecache.warmup.from_profiles", BOOL, false ).build();
+
+    @Internal
+    @Description( "The maximum number of files that the page cache warmup loads in parallel, when a database starts." )
+    public static final Setting<Integer> pagecache_warmup_parallelism =
+            newBuilder( "unsupported.dbms.memory.pagecache.warmup.parallelism", INT, 4 ).addConstraint( min( 1 ) ).build();
+
+    @Internal
+    @Description( "Partition the page cache memory by NUMA node, and let page faulting threads prefer the pages on the node they run on. " +
+            "Has no effect on machines with a single NUMA node." )
+    public static final Setting<Boolean> pagecache_numa = newBuilder( "unsupported.dbms.memory.pagecache.numa", BOOL, false ).build();
+
+    @Internal
+    @Description( "Compress the pages of the property, string and array stores on disk, when they are created. The pages stay uncompressed in the " +
+            "page cache. `ZSTD_FAST` favours speed, and `ZSTD` favours the compression ratio. Existing uncompressed store files stay uncompressed, and " +
+            "existing compressed store files stay compressed, also when this is `NONE`." )
+    public static final Setting<PageCompression> pagecache_compression =
+            newBuilder( "unsupported.dbms.memory.pagecache.compression", ofEnum( PageCompression.class ), PageCompression.NONE ).build();
+
+    @Internal
+    @Description( "Back the page cache memory with 2 MiB huge pages, to reduce TLB misses when pinning pages in large caches. `HUGETLB` maps the " +
+            "memory from the huge page pool, which must be reserved up front, e.g. with `vm.nr_hugepages`. `TRANSPARENT` asks the kernel for " +
+            "transparent huge pages. If the memory cannot be mapped as asked, the page cache falls back to transparent huge pages, and then to " +
+            "regular memory." )
+    public static final Setting<HugePageMode> pagecache_huge_pages =
+            newBuilder( "unsupported.dbms.memory.pagecache.huge_pages", ofEnum( HugePageMode.class ), HugePageMode.DISABLED ).build();
+
+    @Internal
+    @Description( "Reserve a minimum share of the page cache, and limit the maximum share of the page cache, for classes of files. Each quota " +
+            "is on the form `<glob>=<minimum>%..<maximum>%`, where the glob is matched against the file names, and either limit can be left " +
+            "out, e.g. `neostore.relationshipstore.db=20%..,index-*=..40%`. A file gets the first quota that matches it, and the files of a " +
+            "quota share its limits. Pages of files within their reservation are not evicted, and pages of files over their quota are " +
+            "evicted first." )
+    public static final Setting<List<String>> pagecache_quotas =
+            newBuilder( "unsupported.dbms.memory.pagecache.quotas", listOf( STRING ), emptyList() ).build();
+
+    @Internal
+    @Description( "Write back dirty pages in the background, once they have been dirty for longer than this. The writes are paced by the same IO " +
+            "limiter as checkpoints, and leave checkpoints with only the recently dirtied pages to flush. Zero disables background writeback." )
+    public static final Setting<Duration> pagecache_writeback_max_dirty_age =
+            newBuilder( "unsupported.dbms.memory.pagecache.writeback.max_dirty_age", DURATION, Duration.ZERO ).addConstraint( min( Duration.ZERO ) ).build();
+
     @Internal
     @Description( "Whether or not to dump system and database diagnostics. This takes a non-negligible amount of time to do and therefore " +
             "test databases can disable this to reduce startup times" )
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.Closeable;
+import java.io.UncheckedIOException;
+
+/**
+ * Able to {@link #add(Object, Object) add} key/value pairs, in strictly ascending key order, into an empty {@link GBPTree}.
+ * Nodes are written bottom up as keys are added, leaves first and then the internal nodes above them, each filled up to
+ * the fill factor given when the bulk loader was acquired. The added keys become visible to readers first when the bulk loader
+ * is {@link #close() closed}, typically using try-with-resource clause, after having been {@link #finish() finished}.
+ * A bulk loader closed without being finished, e.g. because adding keys failed, leaves the tree as it was before.
+ *
+ * @param <KEY> type of keys
+ * @param <VALUE> type of values
+ */
+public interface BulkLoader<KEY,VALUE> extends Closeable
+{
+    /**
+     * Add given {@code key} associated with given {@code value}. The key must be greater than all keys added before it.
+     *
+     * @param key key to associate with value
+     * @param value value to associate with key
+     * @throws IllegalArgumentException if {@code key} is not greater than the previously added key.
+     * @throws UncheckedIOException on index access error.
+     */
+    void add( KEY key, VALUE value );
+
+    /**
+     * Marks all keys as added, so that they become visible to readers when this bulk loader is {@link #close() closed}.
+     * No more keys can be added after this call.
+     */
+    void finish();
+}
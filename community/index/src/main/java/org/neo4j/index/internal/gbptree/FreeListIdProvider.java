@@ -19,6 +19,8 @@
  */
 package org.neo4j.index.internal.gbptree;
 
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+
 import java.io.IOException;
 
 import org.neo4j.io.pagecache.PageCursor;
@@ -56,6 +58,11 @@ class FreeListIdProvider implements IdProvider
     {   // Empty
     };
 
+    /**
+     * Returned by {@link #freeIdCount()} until the ids in the free-list have been counted.
+     */
+    static final long UNKNOWN_FREE_ID_COUNT = -1;
+
     private final PagedFile pagedFile;
 
     /**
@@ -96,6 +103,13 @@ class FreeListIdProvider implements IdProvider
      */
     private volatile long lastId;
 
+    /**
+     * Number of ids in the free-list, both reusable ones and ones released in unstable generation, kept up to date as ids are released
+     * and acquired. It's {@link #UNKNOWN_FREE_ID_COUNT} after opening an existing free-list, until a {@link #compact(long, long, boolean,
+     * PageCursorTracer) compaction} has counted them.
+     */
+    private volatile long freeIdCount;
+
     /**
      * For monitoring internal free-list activity.
      */
@@ -117,6 +131,7 @@ class FreeListIdProvider implements IdProvider
     void initialize( long lastId, long writePageId, long readPageId, int writePos, int readPos )
     {
         this.lastId = lastId;
+        this.freeIdCount = UNKNOWN_FREE_ID_COUNT;
         this.writePageId = writePageId;
         this.readPageId = readPageId;
         this.writePos = writePos;
@@ -177,6 +192,7 @@ class FreeListIdProvider implements IdProvider
                 // FreelistNode compares generation and so this means that we have an available
                 // id in the free list which we can acquire from a stable generation. Increment readPos
                 readPos++;
+                adjustFreeIdCount( -1 );
                 if ( readPos >= freelistNode.maxEntries() )
                 {
                     // The current reader page is exhausted, go to the next free-list page.
@@ -209,6 +225,7 @@ class FreeListIdProvider implements IdProvider
             PageCursorUtil.goTo( cursor, "free-list write page", writePageId );
             freelistNode.write( cursor, unstableGeneration, id, writePos );
             writePos++;
+            adjustFreeIdCount( 1 );
 
             if ( writePos >= freelistNode.maxEntries() )
             {
@@ -225,6 +242,150 @@ class FreeListIdProvider implements IdProvider
         }
     }
 
+    /**
+     * Returns the id which the next call to {@link #acquireNewId(long, long, PageCursorTracer)} would take from the free-list,
+     * without acquiring it.
+     *
+     * @param stableGeneration current stable generation.
+     * @param cursorTracer underlying page cache cursor access tracer
+     * @return the next id in the free-list or {@link FreelistNode#NO_PAGE_ID} if the next id would be allocated at the end of the file.
+     * @throws IOException on {@link PageCursor} error.
+     */
+    long peekNextFreeId( long stableGeneration, PageCursorTracer cursorTracer ) throws IOException
+    {
+        if ( readPageId == writePageId && readPos >= writePos )
+        {
+            return FreelistNode.NO_PAGE_ID;
+        }
+        try ( PageCursor cursor = pagedFile.io( readPageId, PagedFile.PF_SHARED_WRITE_LOCK, cursorTracer ) )
+        {
+            goTo( cursor, "Free-list read page ", readPageId );
+            return freelistNode.read( cursor, stableGeneration, readPos );
+        }
+    }
+
+    /**
+     * Rewrites the free-list so that its reusable ids, i.e. ids released in stable generation, come first and in ascending order,
+     * which makes new tree nodes end up as close to the start of the file as possible. Reusable ids at the very end of the file are
+     * cut off by lowering {@link #lastId()}, those pages are no longer part of the tree until the file grows again.
+     * <p>
+     * Ids released in unstable generation may still be in use by the state of the last checkpoint. They are kept, with their
+     * generation, after the reusable ids and are never cut off. For the same reason the new free-list is only written on reusable ids,
+     * or at the end of the file, and the pages of the current free-list are released in unstable generation.
+     * <p>
+     * The free-list is only rewritten if ids can be cut off, or if {@code reorder} and the reusable ids are out of order.
+     *
+     * @param stableGeneration current stable generation.
+     * @param unstableGeneration current unstable generation.
+     * @param reorder whether or not to rewrite the free-list only to put reusable ids in ascending order.
+     * @param cursorTracer underlying page cache cursor access tracer
+     * @return number of reusable ids in the free-list, not counting the ones cut off from the end of the file.
+     * @throws IOException on {@link PageCursor} error.
+     */
+    long compact( long stableGeneration, long unstableGeneration, boolean reorder, PageCursorTracer cursorTracer ) throws IOException
+    {
+        LongArrayList reusableIds = new LongArrayList();
+        LongArrayList unstableIds = new LongArrayList();
+        LongArrayList unstableIdGenerations = new LongArrayList();
+        LongArrayList freelistPageIds = new LongArrayList();
+        visitFreelist( new IdProviderVisitor.Adaptor()
+        {
+            @Override
+            public void beginFreelistPage( long pageId )
+            {
+                freelistPageIds.add( pageId );
+            }
+
+            @Override
+            public void freelistEntry( long pageId, long generation, int pos )
+            {
+                if ( generation <= stableGeneration )
+                {
+                    reusableIds.add( pageId );
+                }
+                else
+                {
+                    unstableIds.add( pageId );
+                    unstableIdGenerations.add( generation );
+                }
+            }
+        }, cursorTracer );
+        if ( freelistPageIds.isEmpty() )
+        {
+            return 0;
+        }
+        freeIdCount = reusableIds.size() + unstableIds.size();
+
+        boolean ordered = isAscending( reusableIds );
+        reusableIds.sortThis();
+        int numberOfKeptIds = reusableIds.size();
+        long newLastId = lastId;
+        while ( numberOfKeptIds > 0 && reusableIds.get( numberOfKeptIds - 1 ) == newLastId )
+        {
+            numberOfKeptIds--;
+            newLastId--;
+        }
+        if ( newLastId == lastId && (ordered || !reorder) )
+        {
+            return numberOfKeptIds;
+        }
+
+        // Start a new free-list on the lowest reusable id, or at the end of the file if there are none
+        lastId = newLastId;
+        int pos = 0;
+        long newFreelistPageId = numberOfKeptIds > 0 ? reusableIds.get( pos++ ) : nextLastId();
+        try ( PageCursor cursor = pagedFile.io( newFreelistPageId, PagedFile.PF_SHARED_WRITE_LOCK, cursorTracer ) )
+        {
+            goTo( cursor, "new free-list page", newFreelistPageId );
+            cursor.zapPage();
+            FreelistNode.initialize( cursor );
+            checkOutOfBounds( cursor );
+        }
+        writePageId = newFreelistPageId;
+        readPageId = newFreelistPageId;
+        writePos = 0;
+        readPos = 0;
+        freeIdCount = 0;
+        monitor.acquiredFreelistPageId( newFreelistPageId );
+
+        for ( ; pos < numberOfKeptIds; pos++ )
+        {
+            releaseId( stableGeneration, stableGeneration, reusableIds.get( pos ), cursorTracer );
+        }
+        for ( int i = 0; i < unstableIds.size(); i++ )
+        {
+            releaseId( stableGeneration, unstableIdGenerations.get( i ), unstableIds.get( i ), cursorTracer );
+        }
+        for ( int i = 0; i < freelistPageIds.size(); i++ )
+        {
+            long freelistPageId = freelistPageIds.get( i );
+            releaseId( stableGeneration, unstableGeneration, freelistPageId, cursorTracer );
+            monitor.releasedFreelistPageId( freelistPageId );
+        }
+        // Not counting the reusable id which the new free-list was started on
+        return numberOfKeptIds > 0 ? numberOfKeptIds - 1 : 0;
+    }
+
+    private void adjustFreeIdCount( int delta )
+    {
+        if ( freeIdCount != UNKNOWN_FREE_ID_COUNT )
+        {
+            freeIdCount += delta;
+        }
+    }
+
+    private static boolean isAscending( LongArrayList ids )
+    {
+        for ( int i = 1; i < ids.size(); i++ )
+        {
+            if ( ids.get( i - 1 ) > ids.get( i ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public void visitFreelist( IdProviderVisitor visitor, PageCursorTracer cursorTracer ) throws IOException
     {
@@ -276,6 +437,16 @@ class FreeListIdProvider implements IdProvider
         return lastId;
     }
 
+    /**
+     * Cheap to call, since no free-list pages are read.
+     *
+     * @return number of ids in the free-list, including ids which are not yet reusable, or {@link #UNKNOWN_FREE_ID_COUNT}.
+     */
+    long freeIdCount()
+    {
+        return freeIdCount;
+    }
+
     long writePageId()
     {
         return writePageId;
@@ -22,6 +22,7 @@ package org.neo4j.index.internal.gbptree;
 import org.apache.commons.lang3.mutable.MutableBoolean;
 import org.apache.commons.lang3.tuple.Pair;
 import org.eclipse.collections.api.set.ImmutableSet;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
 
 import java.io.Closeable;
 import java.io.IOException;
@@ -34,13 +35,19 @@ import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
+import org.neo4j.index.internal.gbptree.InternalTreeLogic.LeafChange;
 import org.neo4j.internal.helpers.Exceptions;
 import org.neo4j.io.IOUtils;
 import org.neo4j.io.pagecache.CursorException;
@@ -93,6 +100,10 @@ import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
  * <p>
  * A single writer w/ multiple concurrent readers is supported. Assuming usage adheres to this
  * constraint neither writer nor readers are blocking. Readers are virtually garbage-free.
+ * Alternatively multiple {@link #concurrentWriter(PageCursorTracer) concurrent writers} can change different leaves
+ * at the same time, falling back to one at a time for changes to the structure of the tree.
+ * An empty tree can also be filled from sorted input by a {@link #bulkLoader(double, PageCursorTracer) bulk loader},
+ * which writes the tree nodes bottom up instead of inserting one key at a time.
  * <p>
  * An reader of GB+Tree is a {@link SeekCursor} that returns result as it finds them.
  * As the cursor move over keys/values, returned results are considered "behind" it
@@ -140,6 +151,17 @@ import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
 {
     private static final String INDEX_INTERNAL_TAG = "indexInternal";
+    private static final int LEAF_LATCH_STRIPES = 128;
+
+    /**
+     * Share of the pages in the file which must be free for {@link #compact(IOLimiter, PageCursorTracer)} to merge and move tree nodes.
+     */
+    private static final double COMPACTION_MIN_FREE_RATIO = 0.2;
+    private static final int COMPACTION_MIN_FREE_PAGES = 16;
+    /**
+     * Number of tree nodes {@link #compact(IOLimiter, PageCursorTracer)} visits while holding the writer lock.
+     */
+    private static final int COMPACTION_BATCH_SIZE = 128;
 
     /**
      * For monitoring {@link GBPTree}.
@@ -200,6 +222,16 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
             public void treeShrink()
             {   // no-op
             }
+
+            @Override
+            public void compactionProgress( long mergedLeaves, long movedTreeNodes )
+            {   // no-op
+            }
+
+            @Override
+            public void compactionCompleted( long mergedLeaves, long movedTreeNodes, long reclaimedBytes )
+            {   // no-op
+            }
         }
 
         class Delegate implements Monitor
@@ -270,6 +302,18 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
             {
                 delegate.treeShrink();
             }
+
+            @Override
+            public void compactionProgress( long mergedLeaves, long movedTreeNodes )
+            {
+                delegate.compactionProgress( mergedLeaves, movedTreeNodes );
+            }
+
+            @Override
+            public void compactionCompleted( long mergedLeaves, long movedTreeNodes, long reclaimedBytes )
+            {
+                delegate.compactionCompleted( mergedLeaves, movedTreeNodes, reclaimedBytes );
+            }
         }
 
         /**
@@ -329,6 +373,23 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
          * Report tree shrink, when root becomes empty.
          */
         void treeShrink();
+
+        /**
+         * Report progress of a {@link GBPTree#compact(IOLimiter, PageCursorTracer) compaction}, called after each batch of changes.
+         *
+         * @param mergedLeaves number of sparse leaves merged into their right sibling so far.
+         * @param movedTreeNodes number of tree nodes moved closer to the start of the file so far.
+         */
+        void compactionProgress( long mergedLeaves, long movedTreeNodes );
+
+        /**
+         * Report a completed {@link GBPTree#compact(IOLimiter, PageCursorTracer) compaction}.
+         *
+         * @param mergedLeaves number of sparse leaves merged into their right sibling.
+         * @param movedTreeNodes number of tree nodes moved closer to the start of the file.
+         * @param reclaimedBytes number of bytes at the end of the file which are no longer part of the tree.
+         */
+        void compactionCompleted( long mergedLeaves, long movedTreeNodes, long reclaimedBytes );
     }
 
     /**
@@ -384,6 +445,35 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
      */
     private final SingleWriter writer;
 
+    /**
+     * Creates the {@link TreeNode} of each {@link ConcurrentWriter}, since tree nodes keep scratch state when changing pages.
+     */
+    private final Supplier<TreeNode<KEY,VALUE>> treeNodeFactory;
+
+    /**
+     * Closed {@link ConcurrentWriter concurrent writers}, ready to be handed out again.
+     */
+    private final Queue<ConcurrentWriter> concurrentWriters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Serializes changes to the structure of the tree, i.e. splits, merges, rebalancing and new successors, made by
+     * {@link ConcurrentWriter concurrent writers}. Changes that only touch a single leaf never take this lock.
+     */
+    private final Lock structureChangeLock = new ReentrantLock();
+
+    /**
+     * Latches of leaves changed by {@link ConcurrentWriter concurrent writers}, striped by tree node id. A change to the structure of
+     * the tree holds all of them, so that no leaf is changed while the structure changes.
+     */
+    private final Lock[] leafLatches = newLeafLatches();
+
+    /**
+     * Odd while a {@link ConcurrentWriter} changes the structure of the tree, and bumped both before and after every such change.
+     * Concurrent writers find their leaf without any lock and only change it if the version is the same after latching the leaf
+     * as before finding it, otherwise the path they took down the tree may no longer be valid.
+     */
+    private volatile long structureVersion;
+
     /**
      * Tells whether or not there have been made changes (using {@link #writer(PageCursorTracer)}) to this tree
      * since last call to {@link #checkpoint(IOLimiter, PageCursorTracer)}. This variable is set when calling {@link #writer(PageCursorTracer)}
@@ -391,6 +481,17 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
      */
     private volatile boolean changesSinceLastCheckpoint;
 
+    /**
+     * Whether or not the last {@link #compact(IOLimiter, BooleanSupplier, PageCursorTracer) compaction} merged or moved tree nodes,
+     * leaving pages behind which the next compaction may cut off.
+     */
+    private volatile boolean compactionLeftPagesBehind;
+
+    /**
+     * Number of ids in the free-list after the last {@link #compact(IOLimiter, BooleanSupplier, PageCursorTracer) compaction}.
+     */
+    private volatile long freeIdsAfterLastCompaction;
+
     /**
      * Lock with two individual parts. Writer lock and cleaner lock.
      * <p>
@@ -400,7 +501,8 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
      *     <li>Checkpoint and close</li>
      *     <li>Write and checkpoint</li>
      * </ul>
-     * For those scenarios, writer lock is taken.
+     * For those scenarios, writer lock is taken. {@link ConcurrentWriter Concurrent writers} instead share a
+     * concurrent writer lock with each other, which the writer lock waits for.
      * <p>
      * If cleaning of crash pointers is needed the tree can not be allowed to perform a checkpoint until that job
      * has finished. For this scenario, cleaner lock is taken.
@@ -606,6 +708,8 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
                 this.freeList = new FreeListIdProvider( pagedFile, rootId );
                 OffloadStoreImpl<KEY,VALUE> offloadStore = buildOffload( layout, freeList, pagedFile, pageSize );
                 this.bTreeNode = format.create( pageSize, layout, offloadStore );
+                TreeNodeSelector.Factory treeNodeFormat = format;
+                this.treeNodeFactory = () -> treeNodeFormat.create( pageSize, layout, offloadStore );
                 this.writer = new SingleWriter( new InternalTreeLogic<>( freeList, bTreeNode, layout, monitor ) );
 
                 // Create or load state
@@ -1024,11 +1128,44 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
                 exceptionDecorator, readAheadLength, searchLevel, monitor, cursorTracer );
     }
 
+    /**
+     * Seeks hits for a batch of key ranges in one pass over the tree, instead of one seek per range each traversing down from the root.
+     * The ranges must be sorted in ascending order and must not overlap. Hits from all ranges are returned by the single returned
+     * {@link Seeker}, in ascending order. A range where {@code fromInclusive[i]} equals {@code toExclusive[i]} is an exact match,
+     * just like for {@link #seek(Object, Object, PageCursorTracer)}.
+     * <p>
+     * When moving from one range to the next the seeker continues in the leaf it is currently on if the next range starts in it,
+     * which typically is the case for lookups of keys close to each other, e.g. sorted lookups of many keys. Otherwise it traverses
+     * down from the root to the next range.
+     *
+     * @param fromInclusive lower bounds of the ranges to seek (inclusive).
+     * @param toExclusive higher bounds of the ranges to seek (exclusive).
+     * @param cursorTracer underlying page cursor tracer
+     * @return a {@link Seeker} used to iterate over the hits within all the specified key ranges.
+     * @throws IOException on error reading from index.
+     * @throws IllegalArgumentException if there are no ranges or if they are not ascending and non-overlapping.
+     */
+    public Seeker<KEY,VALUE> batchedSeek( KEY[] fromInclusive, KEY[] toExclusive, PageCursorTracer cursorTracer ) throws IOException
+    {
+        SeekCursor.verifyBatchedRanges( layout, fromInclusive, toExclusive );
+
+        long generation = this.generation;
+        long stableGeneration = stableGeneration( generation );
+        long unstableGeneration = unstableGeneration( generation );
+
+        PageCursor cursor = pagedFile.io( 0L /*ignored*/, PF_SHARED_READ_LOCK, cursorTracer );
+        long rootGeneration = root.goTo( cursor );
+
+        return new SeekCursor<>( cursor, bTreeNode, fromInclusive, toExclusive, layout,
+                stableGeneration, unstableGeneration, generationSupplier, rootCatchupSupplier.get(), rootGeneration,
+                exceptionDecorator, DEFAULT_MAX_READ_AHEAD, SeekCursor.NO_MONITOR, cursorTracer );
+    }
+
     /**
      * Partitions the provided key range into {@code numberOfPartitions} partitions and instantiates a {@link Seeker} for each.
      * Caller can seek through the partitions in parallel. Caller is responsible for closing the returned {@link Seeker seekers}.
      *
-     * See {@link #partitionedSeekInternal(Object, Object, int, Seeker.Factory, PageCursorTracer)} for details on implementation.
+     * See {@link #partitionRange(Object, Object, int, PageCursorTracer)} for details on implementation.
      *
      * @param fromInclusive lower bound of the target range to seek (inclusive).
      * @param toExclusive higher bound of the target range to seek (exclusive).
@@ -1041,13 +1178,42 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
     public Collection<Seeker<KEY,VALUE>> partitionedSeek( KEY fromInclusive, KEY toExclusive, int numberOfPartitions,
             PageCursorTracer cursorTracer ) throws IOException
     {
-        return partitionedSeekInternal( fromInclusive, toExclusive, numberOfPartitions, this, cursorTracer );
+        return partitionedSeekInternal( fromInclusive, toExclusive, numberOfPartitions, true, this, cursorTracer );
+    }
+
+    private Collection<Seeker<KEY,VALUE>> partitionedSeekInternal( KEY fromInclusive, KEY toExclusive, int numberOfPartitions,
+            boolean estimateSubtreeSizes, Seeker.Factory<KEY,VALUE> seekerFactory, PageCursorTracer cursorTracer ) throws IOException
+    {
+        List<Seeker<KEY,VALUE>> seekers = new ArrayList<>();
+        boolean success = false;
+        try
+        {
+            for ( Pair<KEY,KEY> partition : partitionRangeInternal( fromInclusive, toExclusive, numberOfPartitions, estimateSubtreeSizes,
+                    cursorTracer ) )
+            {
+                seekers.add( seekerFactory.seek( partition.getLeft(), partition.getRight(), cursorTracer ) );
+            }
+            success = true;
+        }
+        finally
+        {
+            if ( !success )
+            {
+                IOUtils.closeAll( seekers );
+            }
+        }
+
+        return seekers;
     }
 
     /**
+     * Partitions the provided key range into at most {@code numberOfPartitions} partitions without instantiating any {@link Seeker}.
+     * This is useful for callers that want to seek the partitions lazily, e.g. having each thread seek the partitions it picks
+     * using {@link #seek(Object, Object, PageCursorTracer)}.
+     * <p>
      * We want to create a given number of partitions of the range given by <code>fromInclusive</code> and <code>toExclusive</code>.
      * We want the number of entries in each partition to be as equal as possible. We let the number of subtrees in each partition
-     * be an estimate for the number of entries, assuming that one subtree will contain a comparable number of entries as another.
+     * be an estimate for the number of entries, weighting each subtree by the size of its root node as described further down.
      * Each subtree on level X is divided by splitter keys on the same level or on any of the levels above. Example:
      * <pre>
      * Level 0:                  [10,                           50]
@@ -1072,6 +1238,11 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
      * have enough splitter keys in our range we continue down the tree until we either have enough keys or we reach the leaf level.
      * If we reach the leaf level it means that each partition will be only a single leaf node and we do not partition any further.
      * <p>
+     * Subtrees are not necessarily of equal size though, since tree nodes can be anywhere from half full to full. So, unless the subtrees
+     * are single leaves, the keys of the level below the splitter keys are read too. The number of such keys between two splitter keys,
+     * plus one, is the number of children of the root of the subtree between them and is used as the estimated size of that subtree.
+     * Partitions are then formed so that the estimated number of entries in each is as equal as possible.
+     * <p>
      * If concurrent updates causes changes higher up in the tree while searching in lower levels, some splitter keys can be missed or
      * extra splitter keys may be included. This can lead to partitions being more unevenly sized but it will not affect correctness.
      *
@@ -1080,15 +1251,23 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
      * @param numberOfPartitions number of partitions desired by the caller. If the tree is small or the target range is narrow a lower
      *                           number of partitions may be returned. The number of partitions will never be higher than the provided
      *                           {@code numberOfPartitions}.
-     * @param seekerFactory {@link Seeker.Factory} factory method that create the seekers for each partition.
      * @param cursorTracer underlying page cursor tracer
-     * @return {@link Collection} of {@link Seeker seekers} placed on each partition. The number of partitions is given by the size of
-     *         the collection.
+     * @return {@link List} of partitions, each a pair of its lower (inclusive) and higher (exclusive) bound, in ascending order.
+     * Collectively they cover the whole provided range.
      * @throws IOException on error accessing the index.
      */
-    private Collection<Seeker<KEY,VALUE>> partitionedSeekInternal( KEY fromInclusive, KEY toExclusive, int numberOfPartitions,
-            Seeker.Factory<KEY,VALUE> seekerFactory, PageCursorTracer cursorTracer )
+    public List<Pair<KEY,KEY>> partitionRange( KEY fromInclusive, KEY toExclusive, int numberOfPartitions, PageCursorTracer cursorTracer )
             throws IOException
+    {
+        return partitionRangeInternal( fromInclusive, toExclusive, numberOfPartitions, true, cursorTracer );
+    }
+
+    /**
+     * @param estimateSubtreeSizes whether or not to weight subtrees by estimated size, or to regard all subtrees as equally sized.
+     * The latter is used by {@link #estimateNumberOfEntriesInTree(PageCursorTracer)}, which needs subtrees to be sampled uniformly.
+     */
+    private List<Pair<KEY,KEY>> partitionRangeInternal( KEY fromInclusive, KEY toExclusive, int numberOfPartitions, boolean estimateSubtreeSizes,
+            PageCursorTracer cursorTracer ) throws IOException
     {
         Preconditions.checkArgument( layout.compare( fromInclusive, toExclusive ) <= 0, "Partitioned seek only supports forward seeking for the time being" );
 
@@ -1096,53 +1275,65 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         Set<KEY> splitterKeysInRange = new TreeSet<>( layout );
         int numberOfSubtrees;
         int searchLevel = 0;
+        boolean reachedLeafLevel;
         do
         {
-            SeekDepthMonitor depthMonitor = new SeekDepthMonitor();
-            KEY localFrom = layout.copyKey( fromInclusive, layout.newKey() );
-            KEY localTo = layout.copyKey( toExclusive, layout.newKey() );
-            try ( Seeker<KEY,VALUE> seek = seekInternal( localFrom, localTo, cursorTracer, DEFAULT_MAX_READ_AHEAD, depthMonitor, searchLevel ) )
+            reachedLeafLevel = !collectInternalKeysInRange( fromInclusive, toExclusive, searchLevel, splitterKeysInRange, cursorTracer );
+            if ( reachedLeafLevel )
             {
-                if ( depthMonitor.reachedLeafLevel )
-                {
-                    // Don't partition any further if we've reached leaf level.
-                    break;
-                }
-                while ( seek.next() )
-                {
-                    KEY key = seek.key();
-                    if ( layout.compare( key, fromInclusive ) > 0 && layout.compare( key, toExclusive ) < 0 )
-                    {
-                        splitterKeysInRange.add( layout.copyKey( key, layout.newKey() ) );
-                    }
-                }
+                // Don't partition any further if we've reached leaf level.
+                break;
             }
             searchLevel++;
             numberOfSubtrees = splitterKeysInRange.size() + 1;
         }
         while ( numberOfSubtrees < numberOfPartitions );
 
-        // From the set of splitter keys, create partitions
         KeyPartitioning<KEY> partitioning = new KeyPartitioning<>( layout );
-        List<Seeker<KEY,VALUE>> seekers = new ArrayList<>();
-        boolean success = false;
-        try
+        if ( !estimateSubtreeSizes )
         {
-            for ( Pair<KEY,KEY> partition : partitioning.partition( splitterKeysInRange, fromInclusive, toExclusive, numberOfPartitions ) )
-            {
-                seekers.add( seekerFactory.seek( partition.getLeft(), partition.getRight(), cursorTracer ) );
-            }
-            success = true;
+            return partitioning.partition( splitterKeysInRange, fromInclusive, toExclusive, numberOfPartitions );
         }
-        finally
+
+        // Read the keys on the level below the splitter keys to be able to estimate the size of each subtree.
+        // If the subtrees are leaves then they are all regarded as being of equal size.
+        List<KEY> subtreeKeysInRange = new ArrayList<>();
+        if ( !reachedLeafLevel && numberOfPartitions > 1 )
         {
-            if ( !success )
+            collectInternalKeysInRange( fromInclusive, toExclusive, searchLevel, subtreeKeysInRange, cursorTracer );
+        }
+
+        // From the set of splitter keys, create partitions
+        return partitioning.partition( splitterKeysInRange, subtreeKeysInRange, fromInclusive, toExclusive, numberOfPartitions );
+    }
+
+    /**
+     * Adds copies of the keys on the given level of the tree that are within the range, both ends exclusive, to {@code into}, in ascending order.
+     *
+     * @return {@code true} if keys were read, or {@code false} if {@code searchLevel} is the leaf level, in which case nothing is added.
+     */
+    private boolean collectInternalKeysInRange( KEY fromInclusive, KEY toExclusive, int searchLevel, Collection<KEY> into,
+            PageCursorTracer cursorTracer ) throws IOException
+    {
+        SeekDepthMonitor depthMonitor = new SeekDepthMonitor();
+        KEY localFrom = layout.copyKey( fromInclusive, layout.newKey() );
+        KEY localTo = layout.copyKey( toExclusive, layout.newKey() );
+        try ( Seeker<KEY,VALUE> seek = seekInternal( localFrom, localTo, cursorTracer, DEFAULT_MAX_READ_AHEAD, depthMonitor, searchLevel ) )
+        {
+            if ( depthMonitor.reachedLeafLevel )
             {
-                IOUtils.closeAll( seekers );
+                return false;
+            }
+            while ( seek.next() )
+            {
+                KEY key = seek.key();
+                if ( layout.compare( key, fromInclusive ) > 0 && layout.compare( key, toExclusive ) < 0 )
+                {
+                    into.add( layout.copyKey( key, layout.newKey() ) );
+                }
             }
         }
-
-        return seekers;
+        return true;
     }
 
     /**
@@ -1165,7 +1356,7 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
             monitor.clear();
             Seeker.Factory<KEY,VALUE> monitoredSeeks =
                     ( fromInclusive, toExclusive, tracer ) -> seekInternal( fromInclusive, toExclusive, tracer, 1, monitor, LEAF_LEVEL );
-            Collection<Seeker<KEY,VALUE>> seekers = partitionedSeekInternal( low, high, sampleSize, monitoredSeeks, cursorTracer );
+            Collection<Seeker<KEY,VALUE>> seekers = partitionedSeekInternal( low, high, sampleSize, false, monitoredSeeks, cursorTracer );
             try
             {
                 for ( Seeker<KEY,VALUE> partition : seekers )
@@ -1274,99 +1465,453 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         }
     }
 
-    private void assertRecoveryCleanSuccessful() throws IOException
+    /**
+     * Compacts this tree, typically after many removals, so that it occupies fewer pages and is kept at the start of its file:
+     * <ul>
+     * <li>Free pages at the end of the file are cut off from the tree, i.e. they are no longer part of the tree
+     * and the tree doesn't grow into them again until all other free pages have been reused.</li>
+     * <li>If a considerable share of the pages in the file is free, sparse sibling leaves are merged and tree nodes are moved from
+     * the end of the file to the free pages closest to its start.</li>
+     * </ul>
+     * Tree nodes are merged and moved by creating new versions of them, just like any other change, so readers are never blocked.
+     * The pages they leave behind can only be reused, or cut off, after the next checkpoint. Compaction is therefore meant to be driven
+     * by the checkpoint cycle, i.e. started in the background after a {@link #checkpoint(IOLimiter, PageCursorTracer) checkpoint} when
+     * {@link #needsCompaction()}, where each round cuts off what the previous round moved away from the end of the file. The file itself
+     * keeps its size since the page cache can't shrink a mapped file, but the cut off pages are not read or written anymore.
+     * <p>
+     * Writers are blocked for one batch of changes at a time and {@code ioLimiter} is consulted between batches.
+     * Progress and reclaimed space is reported to the {@link Monitor}.
+     *
+     * @param ioLimiter for controlling I/O usage.
+     * @param cursorTracer underlying page cursor tracer
+     * @throws UncheckedIOException on error accessing the index.
+     */
+    public void compact( IOLimiter ioLimiter, PageCursorTracer cursorTracer )
     {
-        if ( cleaning != null && cleaning.hasFailed() )
-        {
-            throw new IOException( "Pointer cleaning during recovery failed", cleaning.getCause() );
-        }
+        compact( ioLimiter, () -> false, cursorTracer );
     }
 
-    private void assertNotReadOnly( String operationDescription )
+    /**
+     * Like {@link #compact(IOLimiter, PageCursorTracer)}, but stops between two batches of changes when {@code stop} says so,
+     * e.g. because the tree is about to be closed.
+     *
+     * @param ioLimiter for controlling I/O usage.
+     * @param stop checked between batches, compaction stops when it returns {@code true}.
+     * @param cursorTracer underlying page cursor tracer
+     * @throws UncheckedIOException on error accessing the index.
+     */
+    public void compact( IOLimiter ioLimiter, BooleanSupplier stop, PageCursorTracer cursorTracer )
     {
         if ( readOnly )
         {
-            throw new UnsupportedOperationException( "GBPTree was opened in read only mode and can not finish operation: " + operationDescription );
+            return;
+        }
+        try
+        {
+            doCompact( ioLimiter, stop, cursorTracer );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
         }
     }
 
     /**
-     * Closes this tree and its associated resources.
-     * <p>
-     * NOTE: No {@link #checkpoint(IOLimiter, PageCursorTracer)} checkpoint} is performed.
-     * @throws IOException on error closing resources.
+     * Tells whether or not a {@link #compact(IOLimiter, BooleanSupplier, PageCursorTracer) compaction} may have anything to do, without
+     * reading any pages, so that it's cheap enough to check after every checkpoint. It compares the number of ids in the free-list, which is
+     * kept up to date as ids are released and acquired, with the size of the tree. A compaction which couldn't merge or move any tree nodes
+     * isn't repeated until more pages have been freed.
+     *
+     * @return whether or not this tree should be compacted.
      */
-    @Override
-    public void close() throws IOException
+    public boolean needsCompaction()
     {
-        try ( var cursorTracer = pageCacheTracer.createPageCursorTracer( INDEX_INTERNAL_TAG ) )
+        if ( readOnly )
         {
-            if ( readOnly )
+            return false;
+        }
+        long freeIds = freeList.freeIdCount();
+        if ( compactionLeftPagesBehind || freeIds == FreeListIdProvider.UNKNOWN_FREE_ID_COUNT )
+        {
+            return true;
+        }
+        return freeIds >= COMPACTION_MIN_FREE_PAGES && freeIds >= freeList.lastId() * COMPACTION_MIN_FREE_RATIO &&
+                freeIds >= freeIdsAfterLastCompaction + COMPACTION_MIN_FREE_PAGES;
+    }
+
+    private void doCompact( IOLimiter ioLimiter, BooleanSupplier stop, PageCursorTracer cursorTracer ) throws IOException
+    {
+        TreeNode<KEY,VALUE> node = treeNodeFactory.get();
+        SingleWriter compactor = new SingleWriter( new InternalTreeLogic<>( freeList, node, layout, monitor ) );
+        long lastIdBefore = freeList.lastId();
+        long freeIds;
+        boolean compactStructure;
+        compactor.initialize( InternalTreeLogic.DEFAULT_SPLIT_RATIO, cursorTracer );
+        try
+        {
+            freeIds = freeList.compact( compactor.stableGeneration, compactor.unstableGeneration, false, cursorTracer );
+            compactStructure = freeIds >= COMPACTION_MIN_FREE_PAGES && freeIds >= freeList.lastId() * COMPACTION_MIN_FREE_RATIO;
+            if ( compactStructure )
             {
-                // Close without forcing state
-                doClose();
-                return;
+                // Hand out the free ids closest to the start of the file first
+                freeList.compact( compactor.stableGeneration, compactor.unstableGeneration, true, cursorTracer );
             }
-            lock.writerLock();
+            if ( compactStructure || freeList.lastId() != lastIdBefore )
+            {
+                changesSinceLastCheckpoint = true;
+            }
+        }
+        finally
+        {
+            compactor.close();
+        }
+
+        long mergedLeaves = 0;
+        long movedTreeNodes = 0;
+        if ( compactStructure )
+        {
+            mergedLeaves = mergeSparseLeaves( compactor, node, ioLimiter, stop, cursorTracer );
+            movedTreeNodes = moveTreeNodesTowardsStart( compactor, node, freeList.lastId() - freeIds, mergedLeaves, ioLimiter, stop, cursorTracer );
+        }
+        compactionLeftPagesBehind = mergedLeaves > 0 || movedTreeNodes > 0;
+        freeIdsAfterLastCompaction = freeList.freeIdCount();
+        long reclaimedPages = Math.max( 0, lastIdBefore - freeList.lastId() );
+        monitor.compactionCompleted( mergedLeaves, movedTreeNodes, reclaimedPages * pageSize );
+    }
+
+    /**
+     * Goes through all leaves from left to right and merges sparse leaves with their left sibling,
+     * see {@link InternalTreeLogic#mergeLeftSiblingIntoLeaf(PageCursor, StructurePropagation, long, long, PageCursorTracer)}.
+     */
+    private long mergeSparseLeaves( SingleWriter compactor, TreeNode<KEY,VALUE> node, IOLimiter ioLimiter, BooleanSupplier stop,
+            PageCursorTracer cursorTracer ) throws IOException
+    {
+        KEY nextKey = layout.newKey();
+        boolean first = true;
+        boolean hasNext = true;
+        long mergedLeaves = 0;
+        long stamp = IOLimiter.INITIAL_STAMP;
+        while ( hasNext && !stop.getAsBoolean() )
+        {
+            int merged = 0;
+            compactor.initialize( InternalTreeLogic.DEFAULT_SPLIT_RATIO, cursorTracer );
             try
             {
-                if ( closed )
+                if ( first )
                 {
-                    return;
+                    hasNext = firstKeyOfLeftmostLeaf( compactor, node, nextKey, cursorTracer );
+                    first = false;
                 }
-
-                maybeForceCleanState( cursorTracer );
-                doClose();
-            }
-            catch ( IOException ioe )
-            {
-                try
+                for ( int i = 0; i < COMPACTION_BATCH_SIZE && hasNext; i++ )
                 {
-                    if ( !pagedFile.isDeleteOnClose() )
+                    compactor.treeLogic.moveToLeaf( compactor.cursor, nextKey, compactor.stableGeneration, compactor.unstableGeneration, cursorTracer );
+                    if ( compactor.treeLogic.mergeLeftSiblingIntoLeaf( compactor.cursor, compactor.structurePropagation,
+                            compactor.stableGeneration, compactor.unstableGeneration, cursorTracer ) )
                     {
-                        pagedFile.flushAndForce();
+                        compactor.handleStructureChanges( cursorTracer );
+                        merged++;
+                        // Back to the merged leaf, which still holds the key
+                        compactor.treeLogic.moveToLeaf( compactor.cursor, nextKey, compactor.stableGeneration, compactor.unstableGeneration,
+                                cursorTracer );
                     }
-                    maybeForceCleanState( cursorTracer );
-                    doClose();
-                }
-                catch ( IOException e )
-                {
-                    ioe.addSuppressed( e );
-                    throw ioe;
+                    hasNext = firstKeyOfRightSibling( compactor, node, nextKey, cursorTracer );
                 }
             }
             finally
             {
-                lock.writerUnlock();
+                compactor.close();
             }
+            mergedLeaves += merged;
+            monitor.compactionProgress( mergedLeaves, 0 );
+            stamp = ioLimiter.maybeLimitIO( stamp, merged, pagedFile::flushAndForce );
         }
+        return mergedLeaves;
     }
 
-    public void setDeleteOnClose( boolean deleteOnClose )
+    /**
+     * Moves tree nodes with ids above {@code lowestIdToMove}, starting with the highest id, for as long as there are free ids lower than
+     * theirs, see {@link InternalTreeLogic#moveTreeNode(PageCursor, StructurePropagation, Object, int, long, long, long, PageCursorTracer)}.
+     */
+    private long moveTreeNodesTowardsStart( SingleWriter compactor, TreeNode<KEY,VALUE> node, long lowestIdToMove, long mergedLeaves,
+            IOLimiter ioLimiter, BooleanSupplier stop, PageCursorTracer cursorTracer ) throws IOException
     {
-        pagedFile.setDeleteOnClose( deleteOnClose );
-    }
+        if ( stop.getAsBoolean() )
+        {
+            return 0;
+        }
+        LongArrayList treeNodes;
+        compactor.initialize( InternalTreeLogic.DEFAULT_SPLIT_RATIO, cursorTracer );
+        try
+        {
+            treeNodes = treeNodesAbove( compactor, node, lowestIdToMove );
+        }
+        finally
+        {
+            compactor.close();
+        }
+        treeNodes.sortThis();
 
-    private void maybeForceCleanState( PageCursorTracer cursorTracer ) throws IOException
-    {
-        if ( cleaning != null && !changesSinceLastCheckpoint && !cleaning.needed() )
+        KEY key = layout.newKey();
+        int index = treeNodes.size() - 1;
+        long movedTreeNodes = 0;
+        long stamp = IOLimiter.INITIAL_STAMP;
+        while ( index >= 0 && !stop.getAsBoolean() )
         {
-            clean = true;
-            if ( !pagedFile.isDeleteOnClose() )
+            int moved = 0;
+            compactor.initialize( InternalTreeLogic.DEFAULT_SPLIT_RATIO, cursorTracer );
+            try
             {
-                forceState( cursorTracer );
+                for ( int i = 0; i < COMPACTION_BATCH_SIZE && index >= 0; i++ )
+                {
+                    long nodeId = treeNodes.get( index ) >>> Byte.SIZE;
+                    int depth = (int) (treeNodes.get( index ) & 0xFF);
+                    index--;
+                    long nextFreeId = freeList.peekNextFreeId( compactor.stableGeneration, cursorTracer );
+                    if ( nextFreeId == FreelistNode.NO_PAGE_ID || nextFreeId >= nodeId )
+                    {
+                        // The tree node would not end up closer to the start of the file, and neither would the rest of them
+                        index = -1;
+                        break;
+                    }
+                    if ( firstKeyOfTreeNode( compactor, node, nodeId, key, cursorTracer ) &&
+                            compactor.treeLogic.moveTreeNode( compactor.cursor, compactor.structurePropagation, key, depth, nodeId,
+                                    compactor.stableGeneration, compactor.unstableGeneration, cursorTracer ) )
+                    {
+                        compactor.handleStructureChanges( cursorTracer );
+                        moved++;
+                    }
+                }
+            }
+            finally
+            {
+                compactor.close();
             }
+            movedTreeNodes += moved;
+            monitor.compactionProgress( mergedLeaves, movedTreeNodes );
+            stamp = ioLimiter.maybeLimitIO( stamp, moved, pagedFile::flushAndForce );
         }
+        return movedTreeNodes;
     }
 
-    private void doClose()
+    /**
+     * Collects all tree nodes with ids above {@code lowestId}, going through the internal levels of the tree. Each tree node is
+     * encoded as its id shifted up one byte, with its depth in the lowest byte, so that they sort by id.
+     */
+    private LongArrayList treeNodesAbove( SingleWriter compactor, TreeNode<KEY,VALUE> node, long lowestId ) throws IOException
     {
-        if ( pagedFile != null )
+        LongArrayList treeNodes = new LongArrayList();
+        long leftmostId = root.id();
+        int depth = 0;
+        if ( leftmostId > lowestId )
         {
-            // Will be null if exception while mapping file
-            pagedFile.close();
+            treeNodes.add( leftmostId << Byte.SIZE );
+        }
+        try ( PageCursor cursor = compactor.cursor.openLinkedCursor( leftmostId ) )
+        {
+            TreeNode.goTo( cursor, "root", leftmostId );
+            while ( TreeNode.isInternal( cursor ) )
+            {
+                long nextLeftmostId = childAt( node, cursor, 0, compactor );
+                long nodeId = leftmostId;
+                while ( true )
+                {
+                    TreeNode.goTo( cursor, "internal node", nodeId );
+                    int keyCount = TreeNode.keyCount( cursor );
+                    for ( int pos = 0; pos <= keyCount; pos++ )
+                    {
+                        long childId = childAt( node, cursor, pos, compactor );
+                        if ( childId > lowestId )
+                        {
+                            treeNodes.add( childId << Byte.SIZE | (depth + 1) );
+                        }
+                    }
+                    long rightSibling = TreeNode.rightSibling( cursor, compactor.stableGeneration, compactor.unstableGeneration );
+                    PointerChecking.checkPointer( rightSibling, true );
+                    if ( !TreeNode.isNode( rightSibling ) )
+                    {
+                        break;
+                    }
+                    nodeId = GenerationSafePointerPair.pointer( rightSibling );
+                }
+                leftmostId = nextLeftmostId;
+                depth++;
+                TreeNode.goTo( cursor, "leftmost child", leftmostId );
+            }
+        }
+        return treeNodes;
+    }
+
+    private long childAt( TreeNode<KEY,VALUE> node, PageCursor cursor, int pos, SingleWriter compactor )
+    {
+        long childId = node.childAt( cursor, pos, compactor.stableGeneration, compactor.unstableGeneration );
+        PointerChecking.checkPointer( childId, false );
+        return GenerationSafePointerPair.pointer( childId );
+    }
+
+    private boolean firstKeyOfLeftmostLeaf( SingleWriter compactor, TreeNode<KEY,VALUE> node, KEY into, PageCursorTracer cursorTracer )
+            throws IOException
+    {
+        try ( PageCursor cursor = compactor.cursor.openLinkedCursor( root.id() ) )
+        {
+            TreeNode.goTo( cursor, "root", root.id() );
+            while ( TreeNode.isInternal( cursor ) )
+            {
+                TreeNode.goTo( cursor, "leftmost child", childAt( node, cursor, 0, compactor ) );
+            }
+            return firstKey( node, cursor, into, TreeNode.Type.LEAF, cursorTracer );
+        }
+    }
+
+    /**
+     * Reads the first key of the right sibling of the leaf {@code compactor} is at.
+     *
+     * @return {@code false} if there's no right sibling, or if it's empty, otherwise {@code true}.
+     */
+    private boolean firstKeyOfRightSibling( SingleWriter compactor, TreeNode<KEY,VALUE> node, KEY into, PageCursorTracer cursorTracer )
+            throws IOException
+    {
+        long rightSibling = TreeNode.rightSibling( compactor.cursor, compactor.stableGeneration, compactor.unstableGeneration );
+        PointerChecking.checkPointer( rightSibling, true );
+        if ( !TreeNode.isNode( rightSibling ) )
+        {
+            return false;
+        }
+        try ( PageCursor cursor = compactor.cursor.openLinkedCursor( GenerationSafePointerPair.pointer( rightSibling ) ) )
+        {
+            TreeNode.goTo( cursor, "right sibling", rightSibling );
+            return firstKey( node, cursor, into, TreeNode.Type.LEAF, cursorTracer );
+        }
+    }
+
+    /**
+     * Reads the first key in the subtree of the tree node with the given id, which is a key that leads to that tree node when searched for.
+     * The page may have been freed, or even reused as something else, since the id was collected.
+     *
+     * @return {@code false} if the page isn't a tree node, or if its subtree is empty and it isn't the root, otherwise {@code true}.
+     */
+    private boolean firstKeyOfTreeNode( SingleWriter compactor, TreeNode<KEY,VALUE> node, long nodeId, KEY into, PageCursorTracer cursorTracer )
+            throws IOException
+    {
+        try ( PageCursor cursor = compactor.cursor.openLinkedCursor( nodeId ) )
+        {
+            TreeNode.goTo( cursor, "tree node", nodeId );
+            if ( TreeNode.nodeType( cursor ) != TreeNode.NODE_TYPE_TREE_NODE )
+            {
+                return false;
+            }
+            while ( TreeNode.isInternal( cursor ) )
+            {
+                // Internal nodes may be left with a single child and no keys, so go by the leftmost leaf below it instead
+                TreeNode.goTo( cursor, "leftmost child", childAt( node, cursor, 0, compactor ) );
+            }
+            // Only the root can be routed to without a key
+            return firstKey( node, cursor, into, TreeNode.Type.LEAF, cursorTracer ) || nodeId == root.id();
+        }
+    }
+
+    private static <KEY> boolean firstKey( TreeNode<KEY,?> node, PageCursor cursor, KEY into, TreeNode.Type type, PageCursorTracer cursorTracer )
+    {
+        if ( TreeNode.keyCount( cursor ) == 0 )
+        {
+            return false;
+        }
+        node.keyAt( cursor, into, 0, type, cursorTracer );
+        return true;
+    }
+
+    private void assertRecoveryCleanSuccessful() throws IOException
+    {
+        if ( cleaning != null && cleaning.hasFailed() )
+        {
+            throw new IOException( "Pointer cleaning during recovery failed", cleaning.getCause() );
+        }
+    }
+
+    private void assertNotReadOnly( String operationDescription )
+    {
+        if ( readOnly )
+        {
+            throw new UnsupportedOperationException( "GBPTree was opened in read only mode and can not finish operation: " + operationDescription );
         }
-        closed = true;
+    }
+
+    /**
+     * Closes this tree and its associated resources.
+     * <p>
+     * NOTE: No {@link #checkpoint(IOLimiter, PageCursorTracer)} checkpoint} is performed.
+     * @throws IOException on error closing resources.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try ( var cursorTracer = pageCacheTracer.createPageCursorTracer( INDEX_INTERNAL_TAG ) )
+        {
+            if ( readOnly )
+            {
+                // Close without forcing state
+                doClose();
+                return;
+            }
+            lock.writerLock();
+            try
+            {
+                if ( closed )
+                {
+                    return;
+                }
+
+                maybeForceCleanState( cursorTracer );
+                doClose();
+            }
+            catch ( IOException ioe )
+            {
+                try
+                {
+                    if ( !pagedFile.isDeleteOnClose() )
+                    {
+                        pagedFile.flushAndForce();
+                    }
+                    maybeForceCleanState( cursorTracer );
+                    doClose();
+                }
+                catch ( IOException e )
+                {
+                    ioe.addSuppressed( e );
+                    throw ioe;
+                }
+            }
+            finally
+            {
+                lock.writerUnlock();
+            }
+        }
+    }
+
+    public void setDeleteOnClose( boolean deleteOnClose )
+    {
+        pagedFile.setDeleteOnClose( deleteOnClose );
+    }
+
+    private void maybeForceCleanState( PageCursorTracer cursorTracer ) throws IOException
+    {
+        if ( cleaning != null && !changesSinceLastCheckpoint && !cleaning.needed() )
+        {
+            clean = true;
+            if ( !pagedFile.isDeleteOnClose() )
+            {
+                forceState( cursorTracer );
+            }
+        }
+    }
+
+    private void doClose()
+    {
+        if ( pagedFile != null )
+        {
+            // Will be null if exception while mapping file
+            pagedFile.close();
+        }
+        closed = true;
     }
 
     /**
@@ -1399,6 +1944,99 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         return writer;
     }
 
+    /**
+     * Use default value for ratioToKeepInLeftOnSplit
+     * @param cursorTracer underlying page cursor tracer
+     * @see GBPTree#concurrentWriter(double, PageCursorTracer)
+     */
+    public Writer<KEY,VALUE> concurrentWriter( PageCursorTracer cursorTracer ) throws IOException
+    {
+        return concurrentWriter( InternalTreeLogic.DEFAULT_SPLIT_RATIO, cursorTracer );
+    }
+
+    /**
+     * Returns a {@link Writer} able to modify the index at the same time as other concurrent writers, typically one per thread.
+     * After usage the returned writer must be closed, typically by using try-with-resource clause.
+     * <p>
+     * Changes that only touch a single leaf are made in parallel with changes in other leaves. Changes that touch the structure of the
+     * tree, i.e. splits, merges and new successors of tree nodes, are made by one writer at a time. Concurrent writers can not be used
+     * at the same time as the {@link #writer(PageCursorTracer) single writer}, and {@link #checkpoint(IOLimiter, PageCursorTracer) checkpoints}
+     * wait for all of them to be closed, just like for the single writer.
+     * <p>
+     * Concurrent writers may change the same key at the same time, their changes will be made one after the other. A {@link ValueMerger}
+     * may however be asked to merge more than once for the same change, if the first attempt turned out to need a structural change.
+     *
+     * @param ratioToKeepInLeftOnSplit Decide how much to keep in left node on split, 0=keep nothing, 0.5=split 50-50, 1=keep everything.
+     * @param cursorTracer underlying page cursor tracer
+     * @return a {@link Writer} for this index, which must be {@link Writer#close() closed} by the thread that got it.
+     * @throws IOException on error accessing the index.
+     */
+    public Writer<KEY,VALUE> concurrentWriter( double ratioToKeepInLeftOnSplit, PageCursorTracer cursorTracer ) throws IOException
+    {
+        assertNotReadOnly( "Open concurrent tree writer." );
+        ConcurrentWriter concurrentWriter = concurrentWriters.poll();
+        if ( concurrentWriter == null )
+        {
+            concurrentWriter = new ConcurrentWriter();
+        }
+        concurrentWriter.initialize( ratioToKeepInLeftOnSplit, cursorTracer );
+        changesSinceLastCheckpoint = true;
+        return concurrentWriter;
+    }
+
+    /**
+     * Returns a {@link BulkLoader} able to fill this empty index with keys added in strictly ascending order. Instead of inserting
+     * one key at a time from the root, like a {@link Writer} does, nodes are written bottom up and each node is written only once.
+     * The bulk loaded tree becomes visible to readers when the bulk loader is closed, if it was {@link BulkLoader#finish() finished}
+     * before that. Otherwise the tree nodes it wrote are released and the tree remains empty.
+     * <p>
+     * The bulk loader holds the same lock as the {@link #writer(PageCursorTracer) single writer}, i.e. no other writer can be used
+     * and no checkpoint can happen while it is open.
+     *
+     * @param fillFactor how full to make each tree node, 0=empty (exclusive), 1=full. A tree node always gets at least one key.
+     * @param cursorTracer underlying page cursor tracer
+     * @return the {@link BulkLoader} for this index. The returned bulk loader must be {@link BulkLoader#close() closed} before
+     * another caller can acquire a writer or a bulk loader.
+     * @throws IOException on error accessing the index.
+     * @throws IllegalStateException if the index is not empty, or for calls made between a successful call to this method, or to
+     * {@link #writer(double, PageCursorTracer)}, and closing the returned bulk loader or writer.
+     */
+    public BulkLoader<KEY,VALUE> bulkLoader( double fillFactor, PageCursorTracer cursorTracer ) throws IOException
+    {
+        Preconditions.checkArgument( fillFactor > 0 && fillFactor <= 1, "Fill factor must be in range (0,1], but was %f", fillFactor );
+        assertNotReadOnly( "Open tree bulk loader." );
+        writer.initialize( 1, cursorTracer );
+        boolean success = false;
+        try
+        {
+            if ( !TreeNode.isLeaf( writer.cursor ) || TreeNode.keyCount( writer.cursor ) != 0 )
+            {
+                throw new IllegalStateException( "Can only bulk load into an empty tree" );
+            }
+            TreeBulkLoader bulkLoader = new TreeBulkLoader( fillFactor );
+            changesSinceLastCheckpoint = true;
+            success = true;
+            return bulkLoader;
+        }
+        finally
+        {
+            if ( !success )
+            {
+                writer.close();
+            }
+        }
+    }
+
+    private static Lock[] newLeafLatches()
+    {
+        Lock[] latches = new Lock[LEAF_LATCH_STRIPES];
+        for ( int i = 0; i < latches.length; i++ )
+        {
+            latches[i] = new ReentrantLock();
+        }
+        return latches;
+    }
+
     private void setRoot( long rootId, long rootGeneration )
     {
         this.root = new Root( rootId, rootGeneration );
@@ -1604,16 +2242,16 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
          * guard so that only one writer ever exist.
          */
         private final AtomicBoolean writerTaken = new AtomicBoolean();
-        private final InternalTreeLogic<KEY,VALUE> treeLogic;
+        final InternalTreeLogic<KEY,VALUE> treeLogic;
         private final StructurePropagation<KEY> structurePropagation;
-        private PageCursor cursor;
-        private PageCursorTracer cursorTracer;
+        PageCursor cursor;
+        PageCursorTracer cursorTracer;
 
         // Writer can't live past a checkpoint because of the mutex with checkpoint,
         // therefore safe to locally cache these generation fields from the volatile generation in the tree
-        private long stableGeneration;
-        private long unstableGeneration;
-        private double ratioToKeepInLeftOnSplit;
+        long stableGeneration;
+        long unstableGeneration;
+        double ratioToKeepInLeftOnSplit;
 
         SingleWriter( InternalTreeLogic<KEY,VALUE> treeLogic )
         {
@@ -1789,7 +2427,7 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
             lock.writerAndCleanerUnlock();
         }
 
-        private void closeCursor()
+        void closeCursor()
         {
             if ( cursor != null )
             {
@@ -1799,6 +2437,528 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         }
     }
 
+    /**
+     * A {@link Writer} which can be used at the same time as other concurrent writers, see {@link #concurrentWriter(double, PageCursorTracer)}.
+     * <p>
+     * Changes are first tried optimistically: the writer finds the leaf through a read cursor without any lock, validating every node
+     * it reads like a {@link SeekCursor} would, latches the leaf and makes the change if the {@link #structureVersion} shows that the
+     * structure of the tree did not change in the meantime, and the change only touches that leaf. If it would touch more than that,
+     * nothing is changed and the change is instead made pessimistically, by the {@link SingleWriter} logic while holding the
+     * {@link #structureChangeLock} and all {@link #leafLatches}.
+     */
+    private class ConcurrentWriter extends SingleWriter
+    {
+        // No tree can be this high, so a descent going further than this has followed a cycle of broken child pointers
+        private static final int MAX_DEPTH = 64;
+        private static final long STRUCTURE_CHANGED = -1;
+
+        private final TreeNode<KEY,VALUE> bTreeNode;
+        private final KEY readKey;
+        private boolean open;
+        // Used for finding the leaf to change, without taking any write lock on the internal nodes on the way there
+        private PageCursor readCursor;
+
+        ConcurrentWriter()
+        {
+            this( treeNodeFactory.get() );
+        }
+
+        private ConcurrentWriter( TreeNode<KEY,VALUE> bTreeNode )
+        {
+            super( new InternalTreeLogic<>( freeList, bTreeNode, layout, monitor ) );
+            this.bTreeNode = bTreeNode;
+            this.readKey = layout.newKey();
+        }
+
+        @Override
+        void initialize( double ratioToKeepInLeftOnSplit, PageCursorTracer cursorTracer ) throws IOException
+        {
+            // Block here until cleaning has completed, if cleaning was required, and until the single writer or a checkpoint is done
+            lock.concurrentWriterLock();
+            open = true;
+            boolean success = false;
+            try
+            {
+                assertRecoveryCleanSuccessful();
+                readCursor = pagedFile.io( 0L /*Ignored*/, PF_SHARED_READ_LOCK, cursorTracer );
+                this.cursorTracer = cursorTracer;
+                stableGeneration = stableGeneration( generation );
+                unstableGeneration = unstableGeneration( generation );
+                this.ratioToKeepInLeftOnSplit = ratioToKeepInLeftOnSplit;
+                success = true;
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    close();
+                }
+            }
+        }
+
+        @Override
+        public void merge( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger )
+        {
+            if ( changeLeaf( key, () -> treeLogic.tryInsertInLeaf( cursor, key, value, valueMerger, true, stableGeneration, unstableGeneration,
+                    cursorTracer ) ) == LeafChange.NEEDS_STRUCTURE_CHANGE )
+            {
+                beginStructureChange();
+                try
+                {
+                    super.merge( key, value, valueMerger );
+                }
+                finally
+                {
+                    endStructureChange();
+                }
+            }
+        }
+
+        @Override
+        public void mergeIfExists( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger )
+        {
+            if ( changeLeaf( key, () -> treeLogic.tryInsertInLeaf( cursor, key, value, valueMerger, false, stableGeneration, unstableGeneration,
+                    cursorTracer ) ) == LeafChange.NEEDS_STRUCTURE_CHANGE )
+            {
+                beginStructureChange();
+                try
+                {
+                    super.mergeIfExists( key, value, valueMerger );
+                }
+                finally
+                {
+                    endStructureChange();
+                }
+            }
+        }
+
+        @Override
+        public VALUE remove( KEY key )
+        {
+            VALUE into = layout.newValue();
+            LeafChange change = changeLeaf( key, () -> treeLogic.tryRemoveFromLeaf( cursor, key, into, stableGeneration, unstableGeneration,
+                    cursorTracer ) );
+            if ( change == LeafChange.DONE )
+            {
+                return into;
+            }
+            if ( change == LeafChange.NO_CHANGE )
+            {
+                return null;
+            }
+            beginStructureChange();
+            try
+            {
+                return super.remove( key );
+            }
+            finally
+            {
+                endStructureChange();
+            }
+        }
+
+        private LeafChange changeLeaf( KEY key, LeafChangeAttempt attempt )
+        {
+            try
+            {
+                for ( ;; )
+                {
+                    long version = structureVersion;
+                    if ( (version & 1) != 0 )
+                    {
+                        // Another writer is changing the structure, wait for it to finish
+                        structureChangeLock.lock();
+                        structureChangeLock.unlock();
+                        continue;
+                    }
+                    long leafId = findLeaf( key, version );
+                    if ( leafId == STRUCTURE_CHANGED )
+                    {
+                        continue;
+                    }
+
+                    Lock leafLatch = leafLatches[(int) (leafId & (leafLatches.length - 1))];
+                    leafLatch.lock();
+                    try
+                    {
+                        if ( structureVersion != version )
+                        {
+                            // The structure changed after this writer found the leaf, so it may no longer be the right one
+                            continue;
+                        }
+                        // The write cursor is only kept for the duration of the change, a leaf left write locked would have
+                        // readers of it, including other concurrent writers finding their leaves, retry until this writer moves on
+                        cursor = pagedFile.io( leafId, PagedFile.PF_SHARED_WRITE_LOCK, cursorTracer );
+                        PageCursorUtil.goTo( cursor, "leaf", leafId );
+                        LeafChange change = attempt.change();
+                        checkOutOfBounds( cursor );
+                        return change;
+                    }
+                    finally
+                    {
+                        closeCursor();
+                        leafLatch.unlock();
+                    }
+                }
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable t )
+            {
+                appendTreeInformation( t );
+                throw t;
+            }
+        }
+
+        /**
+         * Finds the leaf which {@code key} belongs in, starting from the root. The internal nodes are read without any lock, so every
+         * node is read in a {@link PageCursor#shouldRetry()} loop, and only trusted if the structure of the tree is still at
+         * {@code version} after reading it. Inconsistencies in nodes read while the structure is unchanged are real and fail the change.
+         *
+         * @param key key to find the leaf for.
+         * @param version the {@link #structureVersion} when the change started.
+         * @return id of the leaf, or {@link #STRUCTURE_CHANGED} if the structure changed during the descent and it must be started over.
+         * @throws IOException on {@link PageCursor} error.
+         */
+        private long findLeaf( KEY key, long version ) throws IOException
+        {
+            long nodeId = root.id();
+            for ( int depth = 0; depth < MAX_DEPTH; depth++ )
+            {
+                if ( !readCursor.next( nodeId ) )
+                {
+                    if ( structureVersion != version )
+                    {
+                        // E.g. a new root, not yet written by the structure change that is still going on
+                        return STRUCTURE_CHANGED;
+                    }
+                    throw new IllegalStateException( "Could not go to page:" + nodeId + " [node]" );
+                }
+                boolean sane;
+                boolean isInternal;
+                long childId;
+                do
+                {
+                    sane = TreeNode.nodeType( readCursor ) == TreeNode.NODE_TYPE_TREE_NODE;
+                    isInternal = TreeNode.isInternal( readCursor );
+                    int keyCount = TreeNode.keyCount( readCursor );
+                    sane &= bTreeNode.reasonableKeyCount( keyCount );
+                    childId = TreeNode.NO_NODE_FLAG;
+                    if ( sane && isInternal )
+                    {
+                        int searchResult = KeySearch.search( readCursor, bTreeNode, TreeNode.Type.INTERNAL, key, readKey, keyCount, cursorTracer );
+                        sane = KeySearch.isSuccess( searchResult );
+                        childId = bTreeNode.childAt( readCursor, KeySearch.childPositionOf( searchResult ), stableGeneration, unstableGeneration );
+                    }
+                }
+                while ( readCursor.shouldRetry() );
+
+                if ( structureVersion != version )
+                {
+                    // Whatever was read may be part of a structure change, don't trust any of it
+                    readCursor.checkAndClearBoundsFlag();
+                    readCursor.clearCursorException();
+                    return STRUCTURE_CHANGED;
+                }
+                checkOutOfBounds( readCursor );
+                readCursor.checkAndClearCursorException();
+                if ( !sane )
+                {
+                    throw new TreeInconsistencyException( "Read inconsistent tree node %d while finding leaf for key %s", nodeId, key );
+                }
+                if ( !isInternal )
+                {
+                    return nodeId;
+                }
+                PointerChecking.checkPointer( childId, false );
+                nodeId = GenerationSafePointerPair.pointer( childId );
+            }
+            throw new TreeInconsistencyException( "Found no leaf for key %s within %d levels from root %d", key, MAX_DEPTH, root.id() );
+        }
+
+        private void beginStructureChange()
+        {
+            structureChangeLock.lock();
+            // Make the version odd before latching the leaves, so that writers latching a leaf after us see that their path may be stale
+            structureVersion++;
+            for ( Lock leafLatch : leafLatches )
+            {
+                leafLatch.lock();
+            }
+            boolean success = false;
+            try
+            {
+                // Other writers may have changed the structure since this writer last was here, so start over from the root
+                cursor = openRootCursor( PagedFile.PF_SHARED_WRITE_LOCK, cursorTracer );
+                treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
+                success = true;
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    endStructureChange();
+                }
+            }
+        }
+
+        private void endStructureChange()
+        {
+            closeCursor();
+            structureVersion++;
+            for ( Lock leafLatch : leafLatches )
+            {
+                leafLatch.unlock();
+            }
+            structureChangeLock.unlock();
+        }
+
+        @Override
+        public void close()
+        {
+            if ( !open )
+            {
+                throw new IllegalStateException( "Tried to close concurrent writer of " + GBPTree.this + ", but writer is already closed." );
+            }
+            open = false;
+            if ( readCursor != null )
+            {
+                readCursor.close();
+                readCursor = null;
+            }
+            closeCursor();
+            lock.concurrentWriterUnlock();
+            concurrentWriters.offer( this );
+        }
+    }
+
+    @FunctionalInterface
+    private interface LeafChangeAttempt
+    {
+        LeafChange change() throws IOException;
+    }
+
+    /**
+     * A {@link BulkLoader} writing tree nodes bottom up, see {@link #bulkLoader(double, PageCursorTracer)}.
+     * <p>
+     * Every level of the tree has one open node, the rightmost node on that level. When the open node is filled up to the fill factor
+     * it gets a new right sibling and the splitter between the two is appended to the open node on the level above, which in turn
+     * may get a new right sibling. All nodes are written in the unstable generation. The open node on the top level becomes
+     * the new root when the bulk loader is closed after having been finished. If it's closed without that all written nodes are
+     * released again, so that the old root stays in place.
+     */
+    private class TreeBulkLoader implements BulkLoader<KEY,VALUE>
+    {
+        private final double fillFactor;
+        private final long stableGeneration;
+        private final long unstableGeneration;
+        private final PageCursorTracer cursorTracer;
+        private final List<BulkLoadLevel> levels = new ArrayList<>();
+        private final KEY previousKey = layout.newKey();
+        private final KEY splitter = layout.newKey();
+        private final LongArrayList acquiredIds = new LongArrayList();
+        private boolean open = true;
+        private boolean finished;
+
+        TreeBulkLoader( double fillFactor )
+        {
+            this.fillFactor = fillFactor;
+            this.stableGeneration = writer.stableGeneration;
+            this.unstableGeneration = writer.unstableGeneration;
+            this.cursorTracer = writer.cursorTracer;
+        }
+
+        @Override
+        public void add( KEY key, VALUE value )
+        {
+            if ( finished )
+            {
+                throw new IllegalStateException( "Tried to add to bulk loader of " + GBPTree.this + ", but bulk loader is already finished." );
+            }
+            bTreeNode.validateKeyValueSize( key, value );
+            try
+            {
+                if ( levels.isEmpty() )
+                {
+                    newLevel( true );
+                }
+                else
+                {
+                    if ( layout.compare( previousKey, key ) >= 0 )
+                    {
+                        throw new IllegalArgumentException( "Keys must be added in strictly ascending order, but " + key + " was added after " +
+                                previousKey );
+                    }
+                    // A full leaf may have room left after compressing its key prefix, if the format does that
+                    BulkLoadLevel leaves = levels.get( 0 );
+                    if ( bTreeNode.leafOverflowsFillFactor( leaves.cursor, leaves.keyCount, key, value, fillFactor ) &&
+                         !(bTreeNode.compressKeyPrefix( leaves.cursor, leaves.keyCount ) &&
+                           !bTreeNode.leafOverflowsFillFactor( leaves.cursor, leaves.keyCount, key, value, fillFactor )) )
+                    {
+                        layout.minimalSplitter( previousKey, key, splitter );
+                        long leftLeaf = leaves.nodeId;
+                        startRightSibling( leaves, true );
+                        addToParent( 1, splitter, leftLeaf, leaves.nodeId );
+                    }
+                }
+
+                BulkLoadLevel leaves = levels.get( 0 );
+                bTreeNode.insertKeyValueAt( leaves.cursor, key, value, leaves.keyCount, leaves.keyCount, stableGeneration, unstableGeneration,
+                        cursorTracer );
+                TreeNode.setKeyCount( leaves.cursor, ++leaves.keyCount );
+                checkOutOfBounds( leaves.cursor );
+                layout.copyKey( key, previousKey );
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+        }
+
+        /**
+         * Append splitter and right child to the open node on the given level. If the node is full the splitter instead moves up to
+         * the level above, as the splitter between the full node and its new right sibling, which gets the right child as its first child.
+         */
+        private void addToParent( int level, KEY key, long leftChild, long rightChild ) throws IOException
+        {
+            if ( level == levels.size() )
+            {
+                // The level below just got its second node, so it needs a parent
+                BulkLoadLevel parent = newLevel( false );
+                bTreeNode.setChildAt( parent.cursor, leftChild, 0, stableGeneration, unstableGeneration );
+            }
+
+            BulkLoadLevel parent = levels.get( level );
+            if ( parent.keyCount > 0 && bTreeNode.internalOverflowsFillFactor( parent.cursor, parent.keyCount, key, fillFactor ) )
+            {
+                long leftInternal = parent.nodeId;
+                startRightSibling( parent, false );
+                bTreeNode.setChildAt( parent.cursor, rightChild, 0, stableGeneration, unstableGeneration );
+                addToParent( level + 1, key, leftInternal, parent.nodeId );
+            }
+            else
+            {
+                bTreeNode.insertKeyAndRightChildAt( parent.cursor, key, rightChild, parent.keyCount, parent.keyCount, stableGeneration,
+                        unstableGeneration, cursorTracer );
+                TreeNode.setKeyCount( parent.cursor, ++parent.keyCount );
+            }
+            checkOutOfBounds( parent.cursor );
+        }
+
+        /**
+         * Adds a level on top of the existing ones, with a new empty node.
+         */
+        private BulkLoadLevel newLevel( boolean leaf ) throws IOException
+        {
+            BulkLoadLevel level = new BulkLoadLevel( pagedFile.io( 0, PagedFile.PF_SHARED_WRITE_LOCK, cursorTracer ) );
+            levels.add( level );
+            level.nodeId = acquireNewId();
+            initializeNode( level, leaf );
+            return level;
+        }
+
+        private void startRightSibling( BulkLoadLevel level, boolean leaf ) throws IOException
+        {
+            long leftSibling = level.nodeId;
+            level.nodeId = acquireNewId();
+            TreeNode.setRightSibling( level.cursor, level.nodeId, stableGeneration, unstableGeneration );
+            initializeNode( level, leaf );
+            TreeNode.setLeftSibling( level.cursor, leftSibling, stableGeneration, unstableGeneration );
+        }
+
+        private long acquireNewId() throws IOException
+        {
+            long id = freeList.acquireNewId( stableGeneration, unstableGeneration, cursorTracer );
+            acquiredIds.add( id );
+            return id;
+        }
+
+        private void initializeNode( BulkLoadLevel level, boolean leaf ) throws IOException
+        {
+            PageCursorUtil.goTo( level.cursor, "bulk load", level.nodeId );
+            if ( leaf )
+            {
+                bTreeNode.initializeLeaf( level.cursor, stableGeneration, unstableGeneration );
+            }
+            else
+            {
+                bTreeNode.initializeInternal( level.cursor, stableGeneration, unstableGeneration );
+            }
+            level.keyCount = 0;
+        }
+
+        @Override
+        public void finish()
+        {
+            finished = true;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if ( !open )
+            {
+                throw new IllegalStateException( "Tried to close bulk loader of " + GBPTree.this + ", but bulk loader is already closed." );
+            }
+            open = false;
+            try
+            {
+                if ( levels.isEmpty() )
+                {
+                    return;
+                }
+                if ( finished )
+                {
+                    long previousRootId = root.id();
+                    setRoot( levels.get( levels.size() - 1 ).nodeId, unstableGeneration );
+                    freeList.releaseId( stableGeneration, unstableGeneration, previousRootId, cursorTracer );
+                }
+                else
+                {
+                    // Nothing refers to the written nodes yet, so they can simply be released again
+                    for ( int i = 0; i < acquiredIds.size(); i++ )
+                    {
+                        freeList.releaseId( stableGeneration, unstableGeneration, acquiredIds.get( i ), cursorTracer );
+                    }
+                }
+            }
+            finally
+            {
+                for ( BulkLoadLevel level : levels )
+                {
+                    level.cursor.close();
+                }
+                writer.close();
+            }
+        }
+    }
+
+    private static class BulkLoadLevel
+    {
+        private final PageCursor cursor;
+        private long nodeId;
+        private int keyCount;
+
+        BulkLoadLevel( PageCursor cursor )
+        {
+            this.cursor = cursor;
+        }
+    }
+
     /**
      * Total size limit for key and value.
      * This limit includes storage overhead that is specific to key implementation for example entity id or meta data about type.
@@ -30,6 +30,9 @@ class GBPTreeLock
     private static final long stateOffset = UnsafeUtil.getFieldOffset( GBPTreeLock.class, "state" );
     private static final long writerLockBit = 0x00000000_00000001L;
     private static final long cleanerLockBit = 0x00000000_00000002L;
+    // The remaining bits count the concurrent writers, which share the tree with each other, but not with the writer or the cleaner
+    private static final long concurrentWriterUnit = 0x00000000_00000004L;
+    private static final long concurrentWritersMask = ~(writerLockBit | cleanerLockBit);
     private volatile long state;
 
     // Used for testing
@@ -70,6 +73,35 @@ class GBPTreeLock
         doUnlock( writerLockBit | cleanerLockBit );
     }
 
+    void concurrentWriterLock()
+    {
+        long currentState;
+        do
+        {
+            currentState = state;
+            while ( (currentState & (writerLockBit | cleanerLockBit)) != 0 )
+            {
+                sleep();
+                currentState = state;
+            }
+        }
+        while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, currentState + concurrentWriterUnit ) );
+    }
+
+    void concurrentWriterUnlock()
+    {
+        long currentState;
+        do
+        {
+            currentState = state;
+            if ( (currentState & concurrentWritersMask) == 0 )
+            {
+                throw new IllegalStateException( "Can not unlock concurrent writer lock that is not locked" );
+            }
+        }
+        while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, currentState - concurrentWriterUnit ) );
+    }
+
     private void doLock( long targetLockBit )
     {
         long currentState;
@@ -85,6 +117,12 @@ class GBPTreeLock
             }
             newState = currentState | targetLockBit;
         } while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, newState ) );
+
+        // Taking the bit keeps new concurrent writers out, now wait for the ones already in to finish
+        while ( (state & concurrentWritersMask) != 0 )
+        {
+            sleep();
+        }
     }
 
     private void doUnlock( long targetLockBit )
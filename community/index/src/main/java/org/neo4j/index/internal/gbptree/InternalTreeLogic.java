@@ -88,6 +88,26 @@ class InternalTreeLogic<KEY,VALUE>
 {
     static final double DEFAULT_SPLIT_RATIO = 0.5;
 
+    /**
+     * Outcome of changing a leaf in place, see {@link #tryInsertInLeaf(PageCursor, Object, Object, ValueMerger, boolean, long, long, PageCursorTracer)}
+     * and {@link #tryRemoveFromLeaf(PageCursor, Object, Object, long, long, PageCursorTracer)}.
+     */
+    enum LeafChange
+    {
+        /**
+         * The change was made, only touching the leaf.
+         */
+        DONE,
+        /**
+         * There was nothing to change.
+         */
+        NO_CHANGE,
+        /**
+         * The change would touch more than the leaf, e.g. by creating a successor, splitting or underflowing it. Nothing was changed.
+         */
+        NEEDS_STRUCTURE_CHANGE
+    }
+
     private final IdProvider idProvider;
     private final TreeNode<KEY,VALUE> bTreeNode;
     private final Layout<KEY,VALUE> layout;
@@ -760,6 +780,227 @@ class InternalTreeLogic<KEY,VALUE>
         return into;
     }
 
+    /**
+     * Moves the cursor to the leaf where {@code key} belongs, without changing anything on the way. Same as the first step of
+     * {@link #insert(PageCursor, StructurePropagation, Object, Object, ValueMerger, boolean, long, long, PageCursorTracer)} and
+     * {@link #remove(PageCursor, StructurePropagation, Object, Object, long, long, PageCursorTracer)}.
+     * <p>
+     * The path remembered from previous changes must still be valid, i.e. there must not have been any structural changes
+     * made by someone else since then. Otherwise call {@link #initialize(PageCursor, double)} first.
+     *
+     * @param cursor {@link PageCursor} pinned to root of tree or at where last change left it.
+     * @param key key to find the leaf for.
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @param cursorTracer underlying page cursor tracer
+     * @throws IOException on cursor failure
+     */
+    void moveToLeaf( PageCursor cursor, KEY key, long stableGeneration, long unstableGeneration, PageCursorTracer cursorTracer ) throws IOException
+    {
+        assert cursorIsAtExpectedLocation( cursor );
+        moveToCorrectLeaf( cursor, key, stableGeneration, unstableGeneration, cursorTracer );
+    }
+
+    /**
+     * Merges the left sibling of the leaf that the cursor is at into that leaf, if they fit in one leaf. This is the same merge as
+     * a removal leaving the leaf underflowing would do, but also for leaves which are sparse without underflowing, e.g. two leaves
+     * which are about half full. Used when compacting the tree.
+     * <p>
+     * Structure changes are propagated up the path, like for a removal. A new version of root is left in {@code structurePropagation}
+     * for the caller to handle.
+     *
+     * @param cursor {@link PageCursor} pinned to a leaf, see {@link #moveToLeaf(PageCursor, Object, long, long, PageCursorTracer)}.
+     * @param structurePropagation {@link StructurePropagation} used to report structure changes between tree levels.
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @param cursorTracer underlying page cursor tracer
+     * @return {@code true} if the left sibling was merged into the leaf, otherwise {@code false}.
+     * @throws IOException on cursor failure
+     */
+    boolean mergeLeftSiblingIntoLeaf( PageCursor cursor, StructurePropagation<KEY> structurePropagation, long stableGeneration,
+            long unstableGeneration, PageCursorTracer cursorTracer ) throws IOException
+    {
+        long leftSibling = TreeNode.leftSibling( cursor, stableGeneration, unstableGeneration );
+        PointerChecking.checkPointer( leftSibling, true );
+        if ( !TreeNode.isNode( leftSibling ) )
+        {
+            return false;
+        }
+
+        int keyCount = TreeNode.keyCount( cursor );
+        try ( PageCursor leftSiblingCursor = cursor.openLinkedCursor( GenerationSafePointerPair.pointer( leftSibling ) ) )
+        {
+            leftSiblingCursor.next();
+            if ( !bTreeNode.canMergeLeaves( leftSiblingCursor, TreeNode.keyCount( leftSiblingCursor ), cursor, keyCount ) )
+            {
+                return false;
+            }
+        }
+
+        // Creating the successor uses the linked cursor, so open the left sibling again afterwards
+        createSuccessorIfNeeded( cursor, structurePropagation, UPDATE_MID_CHILD, stableGeneration, unstableGeneration, cursorTracer );
+        try ( PageCursor leftSiblingCursor = cursor.openLinkedCursor( GenerationSafePointerPair.pointer( leftSibling ) ) )
+        {
+            leftSiblingCursor.next();
+            mergeFromLeftSiblingLeaf( cursor, leftSiblingCursor, structurePropagation, keyCount, TreeNode.keyCount( leftSiblingCursor ),
+                    stableGeneration, unstableGeneration, cursorTracer );
+        }
+
+        handleStructureChanges( cursor, structurePropagation, stableGeneration, unstableGeneration, cursorTracer );
+        if ( currentLevel <= 0 )
+        {
+            tryShrinkTree( cursor, structurePropagation, stableGeneration, unstableGeneration, cursorTracer );
+        }
+        return true;
+    }
+
+    /**
+     * Moves the tree node {@code nodeId}, which is at {@code depth} (root being 0) on the path towards {@code key}, to a new id by
+     * creating a successor of it, just like the first change to it since the last checkpoint would. The new id is acquired from
+     * the {@link IdProvider} as usual. Used when compacting the tree, to move tree nodes away from the end of the file.
+     * <p>
+     * A new version of root is left in {@code structurePropagation} for the caller to handle.
+     *
+     * @param cursor {@link PageCursor} pinned to root of tree or at where last change left it.
+     * @param structurePropagation {@link StructurePropagation} used to report structure changes between tree levels.
+     * @param key key on the path to the tree node, e.g. its first key.
+     * @param depth depth of the tree node in the tree.
+     * @param nodeId id of the tree node to move.
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @param cursorTracer underlying page cursor tracer
+     * @return {@code true} if the tree node was moved, or {@code false} if it wasn't on the path or already was of unstable generation.
+     * @throws IOException on cursor failure
+     */
+    boolean moveTreeNode( PageCursor cursor, StructurePropagation<KEY> structurePropagation, KEY key, int depth, long nodeId,
+            long stableGeneration, long unstableGeneration, PageCursorTracer cursorTracer ) throws IOException
+    {
+        assert cursorIsAtExpectedLocation( cursor );
+        moveToCorrectLeaf( cursor, key, stableGeneration, unstableGeneration, cursorTracer );
+        if ( currentLevel < depth )
+        {
+            return false;
+        }
+        while ( currentLevel > depth )
+        {
+            popLevel( cursor );
+        }
+        if ( cursor.getCurrentPageId() != nodeId || TreeNode.generation( cursor ) == unstableGeneration )
+        {
+            return false;
+        }
+
+        createSuccessorIfNeeded( cursor, structurePropagation, UPDATE_MID_CHILD, stableGeneration, unstableGeneration, cursorTracer );
+        handleStructureChanges( cursor, structurePropagation, stableGeneration, unstableGeneration, cursorTracer );
+        return true;
+    }
+
+    /**
+     * Insert {@code key} and {@code value}, or merge {@code value} with the existing value, in the leaf that the cursor is at, the same way
+     * as {@link #insert(PageCursor, StructurePropagation, Object, Object, ValueMerger, boolean, long, long, PageCursorTracer)} would,
+     * but only if no other page than this leaf needs to change. This lets concurrent writers change different leaves at the same time,
+     * as long as they only hold a latch on their leaf.
+     * <p>
+     * If {@link LeafChange#NEEDS_STRUCTURE_CHANGE} is returned the {@code valueMerger} may already have been asked to merge,
+     * and will be asked again when the insert is retried.
+     *
+     * @param cursor {@link PageCursor} pinned to the leaf where {@code key} belongs, see {@link #moveToLeaf(PageCursor, Object, long, long, PageCursorTracer)}.
+     * @param key key to be inserted
+     * @param value value to be associated with key
+     * @param valueMerger {@link ValueMerger} for deciding what to do with existing keys
+     * @param createIfNotExists create this key if it doesn't exist
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @param cursorTracer underlying page cursor tracer
+     * @return the {@link LeafChange outcome} of the insert.
+     * @throws IOException on cursor failure
+     */
+    LeafChange tryInsertInLeaf( PageCursor cursor, KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger, boolean createIfNotExists,
+            long stableGeneration, long unstableGeneration, PageCursorTracer cursorTracer ) throws IOException
+    {
+        bTreeNode.validateKeyValueSize( key, value );
+        int keyCount = TreeNode.keyCount( cursor );
+        int search = search( cursor, LEAF, key, readKey, keyCount, cursorTracer );
+        int pos = positionOf( search );
+        if ( isHit( search ) )
+        {
+            bTreeNode.valueAt( cursor, readValue, pos, cursorTracer );
+            ValueMerger.MergeResult mergeResult = valueMerger.merge( readKey, key, readValue, value );
+            if ( mergeResult == ValueMerger.MergeResult.UNCHANGED )
+            {
+                return LeafChange.NO_CHANGE;
+            }
+            if ( TreeNode.generation( cursor ) != unstableGeneration )
+            {
+                return LeafChange.NEEDS_STRUCTURE_CHANGE;
+            }
+            if ( mergeResult == ValueMerger.MergeResult.REPLACED || mergeResult == ValueMerger.MergeResult.MERGED )
+            {
+                VALUE mergedValue = mergeResult == ValueMerger.MergeResult.REPLACED ? value : readValue;
+                return bTreeNode.setValueAt( cursor, mergedValue, pos ) ? LeafChange.DONE : LeafChange.NEEDS_STRUCTURE_CHANGE;
+            }
+            if ( mergeResult == ValueMerger.MergeResult.REMOVED )
+            {
+                if ( !bTreeNode.canRemoveFromLeafInPlace( cursor, keyCount, pos ) )
+                {
+                    return LeafChange.NEEDS_STRUCTURE_CHANGE;
+                }
+                bTreeNode.removeKeyValueAt( cursor, pos, keyCount, stableGeneration, unstableGeneration, cursorTracer );
+                TreeNode.setKeyCount( cursor, keyCount - 1 );
+                return LeafChange.DONE;
+            }
+            throw new UnsupportedOperationException( "Unexpected merge result " + mergeResult );
+        }
+
+        if ( !createIfNotExists )
+        {
+            return LeafChange.NO_CHANGE;
+        }
+        if ( TreeNode.generation( cursor ) != unstableGeneration || !bTreeNode.canInsertInLeafInPlace( cursor, keyCount, key, value ) )
+        {
+            return LeafChange.NEEDS_STRUCTURE_CHANGE;
+        }
+        if ( bTreeNode.leafOverflow( cursor, keyCount, key, value ) == NO_NEED_DEFRAG )
+        {
+            bTreeNode.defragmentLeaf( cursor );
+        }
+        bTreeNode.insertKeyValueAt( cursor, key, value, pos, keyCount, stableGeneration, unstableGeneration, cursorTracer );
+        TreeNode.setKeyCount( cursor, keyCount + 1 );
+        return LeafChange.DONE;
+    }
+
+    /**
+     * Remove {@code key} from the leaf that the cursor is at, the same way as
+     * {@link #remove(PageCursor, StructurePropagation, Object, Object, long, long, PageCursorTracer)} would, but only if no other page
+     * than this leaf needs to change, see {@link #tryInsertInLeaf(PageCursor, Object, Object, ValueMerger, boolean, long, long, PageCursorTracer)}.
+     *
+     * @param cursor {@link PageCursor} pinned to the leaf where {@code key} belongs, see {@link #moveToLeaf(PageCursor, Object, long, long, PageCursorTracer)}.
+     * @param key key to be removed
+     * @param into {@code VALUE} instance to write removed value to
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @param cursorTracer underlying page cursor tracer
+     * @return the {@link LeafChange outcome} of the removal, where {@link LeafChange#NO_CHANGE} means that {@code key} did not exist.
+     * @throws IOException on cursor failure
+     */
+    LeafChange tryRemoveFromLeaf( PageCursor cursor, KEY key, VALUE into, long stableGeneration, long unstableGeneration,
+            PageCursorTracer cursorTracer ) throws IOException
+    {
+        int keyCount = TreeNode.keyCount( cursor );
+        int search = search( cursor, LEAF, key, readKey, keyCount, cursorTracer );
+        if ( !isHit( search ) )
+        {
+            return LeafChange.NO_CHANGE;
+        }
+        int pos = positionOf( search );
+        if ( TreeNode.generation( cursor ) != unstableGeneration || !bTreeNode.canRemoveFromLeafInPlace( cursor, keyCount, pos ) )
+        {
+            return LeafChange.NEEDS_STRUCTURE_CHANGE;
+        }
+        simplyRemoveFromLeaf( cursor, into, keyCount, pos, stableGeneration, unstableGeneration, cursorTracer );
+        return LeafChange.DONE;
+    }
+
     private void handleStructureChanges( PageCursor cursor, StructurePropagation<KEY> structurePropagation,
             long stableGeneration, long unstableGeneration, PageCursorTracer cursorTracer ) throws IOException
     {
@@ -55,4 +55,65 @@ class KeyPartitioning<KEY>
         partitions.add( Pair.of( prev, toExclusive ) );
         return partitions;
     }
+
+    /**
+     * Like {@link #partition(Collection, Object, Object, int)}, but balances partitions by estimated size of the subtrees between
+     * the key candidates rather than by number of subtrees. The estimated size of a subtree is the number of keys in {@code subtreeKeys}
+     * between the two key candidates surrounding it, plus one, i.e. the number of children of the root of the subtree.
+     *
+     * @param keyCandidates splitter keys, in ascending order, to choose partition boundaries from.
+     * @param subtreeKeys keys, in ascending order, from the level below the key candidates. If empty all subtrees are regarded as equally sized.
+     * @param fromInclusive lower bound of the range to partition.
+     * @param toExclusive higher bound of the range to partition.
+     * @param numberOfPartitions desired number of partitions.
+     * @return partitions, each a pair of its lower (inclusive) and higher (exclusive) bound.
+     */
+    public List<Pair<KEY,KEY>> partition( Collection<KEY> keyCandidates, List<KEY> subtreeKeys, KEY fromInclusive, KEY toExclusive,
+            int numberOfPartitions )
+    {
+        List<KEY> keys = keyCandidates.stream()
+                .filter( key -> layout.compare( key, fromInclusive ) > 0 && layout.compare( key, toExclusive ) < 0 )
+                .collect( Collectors.toList() );
+
+        // subtreeSizes[i] is the estimated size of the subtree right before keys[i], the last one being the one after the last key
+        long[] subtreeSizes = new long[keys.size() + 1];
+        int subtree = 0;
+        for ( KEY subtreeKey : subtreeKeys )
+        {
+            if ( layout.compare( subtreeKey, fromInclusive ) <= 0 || layout.compare( subtreeKey, toExclusive ) >= 0 )
+            {
+                continue;
+            }
+            while ( subtree < keys.size() && layout.compare( subtreeKey, keys.get( subtree ) ) >= 0 )
+            {
+                subtree++;
+            }
+            subtreeSizes[subtree]++;
+        }
+        long totalSize = 0;
+        for ( int i = 0; i < subtreeSizes.length; i++ )
+        {
+            subtreeSizes[i]++;
+            totalSize += subtreeSizes[i];
+        }
+
+        List<Pair<KEY,KEY>> partitions = new ArrayList<>();
+        KEY prev = fromInclusive;
+        long accumulatedSize = 0;
+        for ( int i = 0; i < keys.size() && partitions.size() < numberOfPartitions - 1; i++ )
+        {
+            accumulatedSize += subtreeSizes[i];
+            double target = (double) totalSize * (partitions.size() + 1) / numberOfPartitions;
+            // End the partition at this key if that is closer to the target size than also including the next subtree would be
+            if ( accumulatedSize >= target || target - accumulatedSize < accumulatedSize + subtreeSizes[i + 1] - target )
+            {
+                KEY split = keys.get( i );
+                partitions.add( Pair.of( prev, split ) );
+                prev = layout.newKey();
+                layout.copyKey( split, prev );
+            }
+        }
+        partitions.add( Pair.of( prev, toExclusive ) );
+        return partitions;
+    }
 }
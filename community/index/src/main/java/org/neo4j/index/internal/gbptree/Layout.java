@@ -122,6 +122,31 @@ public interface Layout<KEY, VALUE> extends Comparator<KEY>
         copyKey( right, into );
     }
 
+    /**
+     * Whether or not trees created with this layout should store keys in leaves prefix compressed, i.e. store the bytes that
+     * neighbouring keys have in common only once per tree node. Only applies to dynamic size layouts and pays off when the serialized
+     * form of keys close in sort order share leading bytes. Trees keep the format they were created with, regardless of this setting.
+     *
+     * @return true if keys should be prefix compressed, otherwise false.
+     */
+    default boolean compressKeyPrefixes()
+    {
+        return false;
+    }
+
+    /**
+     * Number of leading bytes of serialized keys to leave out of key prefix compression, if {@link #compressKeyPrefixes() compressed}.
+     * Useful when keys start with something that differs between neighbouring keys, like an entity id, followed by what they
+     * are actually sorted by. Those bytes are then stored as is in each entry and the prefix is taken from the bytes after them.
+     * Changing this changes how compressed trees are stored, so it must be covered by the layout version.
+     *
+     * @return number of leading key bytes which are not prefix compressed.
+     */
+    default int keyPrefixCompressionOffset()
+    {
+        return 0;
+    }
+
     /**
      * Used as verification when loading an index after creation, to verify that the same layout is used,
      * as the one it was initially created with.
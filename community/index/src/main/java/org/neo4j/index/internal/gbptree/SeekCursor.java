@@ -138,6 +138,13 @@ import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
  * in this case. By using a linked cursor to 'scout' we create a consistent read over the node gap. If there us
  * suddenly another key when he goes there he knows that he could have missed some keys and he needs to go back until
  * he find the place where he left off, K4.
+ * <p>
+ * <strong>Note on batched seek</strong>
+ * <p>
+ * A seek cursor can also be given a batch of sorted, forward and non-overlapping key ranges, returning the hits of all of them
+ * in one ascending sequence. When one range is exhausted the cursor moves on to the next one. If the next range starts
+ * within the leaf that the cursor is currently on, the start position is searched for in that leaf directly,
+ * otherwise the cursor traverses down from the root again, like it would for a new seek.
  */
 class SeekCursor<KEY,VALUE> implements Seeker<KEY,VALUE>
 {
@@ -214,19 +221,21 @@ class SeekCursor<KEY,VALUE> implements Seeker<KEY,VALUE>
     /**
      * Provided when constructing the {@link SeekCursor}, marks the start (inclusive) of the key range to seek.
      * Comparison with {@link #toExclusive} decide if seeking forwards or backwards.
+     * For a batched seek this is overwritten with the start of the range currently being seeked.
      */
     private final KEY fromInclusive;
 
     /**
      * Provided when constructing the {@link SeekCursor}, marks the end (exclusive) of the key range to seek.
      * Comparison with {@link #fromInclusive} decide if seeking forwards or backwards.
+     * For a batched seek this is overwritten with the end of the range currently being seeked.
      */
     private final KEY toExclusive;
 
     /**
      * True if seeker is performing an exact match lookup, {@link #toExclusive} will then be treated as inclusive.
      */
-    private final boolean exactMatch;
+    private boolean exactMatch;
 
     /**
      * {@link Layout} instance used to perform some functions around keys, like copying and comparing.
@@ -412,6 +421,26 @@ class SeekCursor<KEY,VALUE> implements Seeker<KEY,VALUE>
      */
     private boolean verifyExpectedFirstAfterGoToNext;
 
+    /**
+     * Start keys (inclusive) of the ranges of a batched seek, or {@code null} if this is a seek of a single range.
+     */
+    private KEY[] batchFromInclusive;
+
+    /**
+     * End keys (exclusive) of the ranges of a batched seek, or {@code null} if this is a seek of a single range.
+     */
+    private KEY[] batchToExclusive;
+
+    /**
+     * Index into {@link #batchFromInclusive}/{@link #batchToExclusive} of the range currently being seeked.
+     */
+    private int batchIndex;
+
+    /**
+     * Last key in the current leaf, read when deciding whether or not the next range in a batched seek starts in the current leaf.
+     */
+    private KEY lastKeyInNode;
+
     /**
      * Whether or not this seeker has been closed.
      */
@@ -482,6 +511,61 @@ class SeekCursor<KEY,VALUE> implements Seeker<KEY,VALUE>
         }
     }
 
+    /**
+     * Creates a seek cursor for a batch of key ranges. The ranges must be sorted, forward and non-overlapping,
+     * as verified by {@link #verifyBatchedRanges(Layout, Object[], Object[])}. The cursor is initialized on the first range.
+     */
+    SeekCursor( PageCursor cursor, TreeNode<KEY,VALUE> bTreeNode, KEY[] fromInclusive, KEY[] toExclusive,
+            Layout<KEY,VALUE> layout, long stableGeneration, long unstableGeneration, LongSupplier generationSupplier,
+            RootCatchup rootCatchup, long lastFollowedPointerGeneration, Consumer<Throwable> exceptionDecorator, int maxReadAhead,
+            Monitor monitor, PageCursorTracer cursorTracer ) throws IOException
+    {
+        this( cursor, bTreeNode, layout.copyKey( fromInclusive[0], layout.newKey() ), layout.copyKey( toExclusive[0], layout.newKey() ), layout,
+                stableGeneration, unstableGeneration, generationSupplier, rootCatchup, lastFollowedPointerGeneration, exceptionDecorator,
+                maxReadAhead, LEAF_LEVEL, monitor, cursorTracer );
+        this.batchFromInclusive = fromInclusive;
+        this.batchToExclusive = toExclusive;
+    }
+
+    /**
+     * Verifies that the ranges of a batched seek are ascending and don't overlap, i.e. that {@code fromInclusive[i] <= toExclusive[i]}
+     * and that each range starts at or after where the previous range ended.
+     *
+     * @param layout {@link Layout} to compare keys with.
+     * @param fromInclusive start keys (inclusive) of the ranges.
+     * @param toExclusive end keys (exclusive) of the ranges, or inclusive for ranges where start and end keys are equal.
+     * @param <KEY> type of key.
+     * @throws IllegalArgumentException if the ranges are empty, of different length, descending or overlapping.
+     */
+    static <KEY> void verifyBatchedRanges( Layout<KEY,?> layout, KEY[] fromInclusive, KEY[] toExclusive )
+    {
+        if ( fromInclusive.length == 0 || fromInclusive.length != toExclusive.length )
+        {
+            throw new IllegalArgumentException( "Expected at least one range and the same number of from and to keys, but got " +
+                    fromInclusive.length + " from keys and " + toExclusive.length + " to keys" );
+        }
+        for ( int i = 0; i < fromInclusive.length; i++ )
+        {
+            int rangeCompare = layout.compare( fromInclusive[i], toExclusive[i] );
+            if ( rangeCompare > 0 )
+            {
+                throw new IllegalArgumentException( "Batched seek only supports forward ranges, but range " + i + " is " +
+                        fromInclusive[i] + " - " + toExclusive[i] );
+            }
+            if ( i > 0 )
+            {
+                // An exact match range includes its end key, so the next range must then start strictly after it
+                boolean previousExactMatch = layout.compare( fromInclusive[i - 1], toExclusive[i - 1] ) == 0;
+                int compare = layout.compare( fromInclusive[i], toExclusive[i - 1] );
+                if ( compare < 0 || (compare == 0 && previousExactMatch) )
+                {
+                    throw new IllegalArgumentException( "Batched seek ranges must be sorted and non-overlapping, but range " + i + " starting at " +
+                            fromInclusive[i] + " overlaps previous range ending at " + toExclusive[i - 1] );
+                }
+            }
+        }
+    }
+
     /**
      * Traverses from the root down to the node on target level (usually leaf) containing the next key that we're looking for,
      * or the first one provided in the constructor if no result have yet been returned.
@@ -659,7 +743,11 @@ class SeekCursor<KEY,VALUE> implements Seeker<KEY,VALUE>
                     }
                 }
 
-                // We've come too far and so this means the end of the result set
+                // We've come too far and so this means the end of the result set, or of the current range in a batched seek
+                if ( goToNextRangeInBatch() )
+                {
+                    continue;
+                }
                 close();
                 return false;
             }
@@ -788,6 +876,73 @@ class SeekCursor<KEY,VALUE> implements Seeker<KEY,VALUE>
         return true;
     }
 
+    /**
+     * Moves on to the next range of a batched seek, if there is one. The next range starts at or after the end of the current range
+     * and so if it starts within the current leaf the new start position is searched for in this leaf, like after a concurrent write,
+     * otherwise the cursor traverses down from the root to the leaf where the next range starts.
+     *
+     * @return {@code true} if there was another range to go to, otherwise {@code false} meaning that the seek is exhausted.
+     * @throws IOException on {@link PageCursor} error.
+     */
+    private boolean goToNextRangeInBatch() throws IOException
+    {
+        if ( batchFromInclusive == null || batchIndex + 1 >= batchFromInclusive.length )
+        {
+            return false;
+        }
+
+        batchIndex++;
+        layout.copyKey( batchFromInclusive[batchIndex], fromInclusive );
+        layout.copyKey( batchToExclusive[batchIndex], toExclusive );
+        exactMatch = layout.compare( fromInclusive, toExclusive ) == 0;
+        first = true;
+        cachedIndex = 0;
+        cachedLength = 0;
+        resultOnTrack = false;
+
+        if ( nextRangeStartsInCurrentLeaf() )
+        {
+            // Have next batch read search for the start of the new range in this leaf
+            concurrentWriteHappened = true;
+        }
+        else
+        {
+            prepareToStartFromRoot();
+            traverseDownToCorrectLevel();
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code true} if the cursor is on a leaf where {@link #fromInclusive} is within the first and last key, both inclusive.
+     * Keys are only moved to the right in the tree and so there can then be no key in the range which can be found in a leaf
+     * to the left of the current leaf.
+     */
+    private boolean nextRangeStartsInCurrentLeaf() throws IOException
+    {
+        if ( lastKeyInNode == null )
+        {
+            lastKeyInNode = layout.newKey();
+        }
+        boolean startsInCurrentLeaf;
+        do
+        {
+            startsInCurrentLeaf = false;
+            if ( readHeader() && !isInternal && keyCount > 0 )
+            {
+                bTreeNode.keyAt( cursor, firstKeyInNode, 0, LEAF, cursorTracer );
+                bTreeNode.keyAt( cursor, lastKeyInNode, keyCount - 1, LEAF, cursorTracer );
+                startsInCurrentLeaf = true;
+            }
+        }
+        while ( cursor.shouldRetry() );
+        checkOutOfBoundsAndClosed();
+        cursor.checkAndClearCursorException();
+
+        return startsInCurrentLeaf && endedUpOnExpectedNode() && !TreeNode.isNode( successor ) &&
+                layout.compare( fromInclusive, firstKeyInNode ) >= 0 && layout.compare( fromInclusive, lastKeyInNode ) <= 0;
+    }
+
     /**
      * Check out of bounds for cursor. If out of bounds, check if seeker has been closed and throw exception accordingly
      */
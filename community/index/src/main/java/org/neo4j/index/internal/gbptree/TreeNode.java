@@ -357,6 +357,39 @@ abstract class TreeNode<KEY,VALUE>
 
     abstract boolean leafUnderflow( PageCursor cursor, int keyCount );
 
+    /**
+     * Can new key and value be inserted into this leaf, without splitting it and without touching any other page?
+     * @return true if the insert only changes this leaf, else false.
+     */
+    abstract boolean canInsertInLeafInPlace( PageCursor cursor, int keyCount, KEY newKey, VALUE newValue );
+
+    /**
+     * Can key and value at position be removed from this leaf, without it underflowing and without touching any other page?
+     * @return true if the removal only changes this leaf, else false.
+     */
+    abstract boolean canRemoveFromLeafInPlace( PageCursor cursor, int keyCount, int pos );
+
+    /**
+     * Will leaf be filled beyond given fill factor if appending new key and value? Only used for nodes written by a {@link BulkLoader},
+     * which have no dead space.
+     * @return true if leaf will be filled beyond {@code fillFactor}, else false.
+     */
+    abstract boolean leafOverflowsFillFactor( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue, double fillFactor );
+
+    /**
+     * Will internal be filled beyond given fill factor if appending new key? Only used for nodes written by a {@link BulkLoader},
+     * which have no dead space.
+     * @return true if internal will be filled beyond {@code fillFactor}, else false.
+     */
+    abstract boolean internalOverflowsFillFactor( PageCursor cursor, int currentKeyCount, KEY newKey, double fillFactor );
+
+    /**
+     * Re-encode keys in leaf against the longest prefix they have in common, if this format compresses key prefixes.
+     * The leaf will have no dead space afterwards.
+     * @return true if leaf was rewritten and now occupies less space, else false.
+     */
+    abstract boolean compressKeyPrefix( PageCursor cursor, int keyCount );
+
     /**
      * How do we best rebalance left and right leaf?
      * Can we move keys from underflowing left to right so that none of them underflow?
@@ -24,9 +24,12 @@ import org.eclipse.collections.api.stack.primitive.MutableIntStack;
 import org.eclipse.collections.impl.stack.mutable.primitive.IntArrayStack;
 
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
 import java.util.Arrays;
 import java.util.StringJoiner;
 
+import org.neo4j.io.pagecache.ByteArrayPageCursor;
+import org.neo4j.io.pagecache.CursorException;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.util.VisibleForTesting;
@@ -81,12 +84,34 @@ import static org.neo4j.io.ByteUnit.kibiBytes;
  *
  * ---
  *
+ * KEY PREFIX COMPRESSION (format version {@value #FORMAT_VERSION_KEY_PREFIX})
+ * The header is extended with a key prefix, common to the node. Each inlined key in a leaf starts with one byte telling how many
+ * bytes of the node prefix it shares, followed by the remaining suffix of the key. Key size in key_value entries include that byte.
+ * Offloaded entries and keys in internal nodes are stored as is.
+ *
+ * [                    HEADER   86B + 1B + max prefix length                    ]|[KEY_OFFSETS]##########[KEYS_VALUES]
+ * [NODETYPE][TYPE][GENERATION]...[ALLOCOFFSET][DEADSPACE][PREFIXLENGTH][PREFIX...]|[K0*,K1*,K2*]->      <-[KV0,KV2,KV1]
+ *  0         1     2              82           84         86            87
+ *
+ * LEAF KEY_VALUE
+ * [keyValueSize][sharedPrefixLength|keySuffix][value], full key = node prefix[0, sharedPrefixLength) + keySuffix
+ *
+ * Layouts can have the first bytes of each key left out of the prefix, see {@link Layout#keyPrefixCompressionOffset()},
+ * e.g. an entity id that differs between all neighbouring keys. Those bytes are then stored first in each entry instead:
+ * [keyValueSize][sharedPrefixLength|keyHead|keySuffix][value], full key = keyHead + node prefix[0, sharedPrefixLength) + keySuffix
+ *
+ * The node prefix is (re)computed when leaves are split or written by {@link BulkLoader}. In between, new keys just share as much
+ * of the current prefix as they can.
+ *
+ * ---
+ *
  * See {@link DynamicSizeUtil} for more detailed layout for individual offset array entries and key / key_value entries.
  */
 public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
 {
     static final byte FORMAT_IDENTIFIER = 3;
     static final byte FORMAT_VERSION = 0;
+    static final byte FORMAT_VERSION_KEY_PREFIX = 1;
 
     /**
      * This is the fixed key value size cap in 4.0 and it is based on
@@ -100,6 +125,8 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     static final int USE_2B_OFFSET_PAGE_SIZE_LIMIT = (int) kibiBytes( 64 );
     private static final int LEAST_NUMBER_OF_ENTRIES_PER_PAGE = 2;
     private static final int MINIMUM_ENTRY_SIZE_CAP = Long.SIZE;
+    private static final int MAX_KEY_PREFIX_LENGTH = 64;
+    private static final int SIZE_KEY_PREFIX_LENGTH = Byte.BYTES;
 
     private final DynamicSizeOffsetFormat offsetFormat;
     private final int inlineKeyValueSizeCap;
@@ -114,8 +141,20 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     private final KEY tmpKeyLeft;
     private final KEY tmpKeyRight;
     private final OffloadStore<KEY,VALUE> offloadStore;
+    private final boolean keyPrefixes;
+    private final int bytePosKeyPrefix;
+    private final int maxKeyPrefixLength;
+    private final int keyPrefixOffset;
+    private final int headerLength;
+    // Instances are shared between readers, so decoding prefix compressed keys needs a buffer per thread
+    private final ThreadLocal<KeyPrefixScratch> keyPrefixScratch;
 
     TreeNodeDynamicSize( int pageSize, Layout<KEY,VALUE> layout, OffloadStore<KEY,VALUE> offloadStore )
+    {
+        this( pageSize, layout, offloadStore, false );
+    }
+
+    TreeNodeDynamicSize( int pageSize, Layout<KEY,VALUE> layout, OffloadStore<KEY,VALUE> offloadStore, boolean keyPrefixes )
     {
         super( pageSize, layout );
 
@@ -125,7 +164,13 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         this.newOffset = new int[maxKeyCount];
 
         this.offloadStore = offloadStore;
-        totalSpace = pageSize - offsetFormat.getHeaderLength();
+        this.keyPrefixes = keyPrefixes;
+        this.bytePosKeyPrefix = offsetFormat.getHeaderLength();
+        this.maxKeyPrefixLength = keyPrefixes ? Math.min( MAX_KEY_PREFIX_LENGTH, pageSize >> 6 ) : 0;
+        this.keyPrefixOffset = keyPrefixes ? layout.keyPrefixCompressionOffset() : 0;
+        this.headerLength = keyPrefixes ? bytePosKeyPrefix + SIZE_KEY_PREFIX_LENGTH + maxKeyPrefixLength : offsetFormat.getHeaderLength();
+        this.keyPrefixScratch = keyPrefixes ? ThreadLocal.withInitial( KeyPrefixScratch::new ) : null;
+        totalSpace = pageSize - headerLength;
         halfSpace = totalSpace >> 1;
 
         /*
@@ -187,8 +232,11 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         inlineKeyValueSizeCap - How large entries can be inlined?
          */
         msbIsOffload = useOffloadStore( pageSize );
-        inlineKeyValueSizeCap = inlineKeyValueSizeCap( pageSize );
-        keyValueSizeCap = keyValueSizeCapFromPageSize( pageSize );
+        // With key prefixes, inlined keys in leaves may need one more byte, to tell how much of the node prefix they share
+        inlineKeyValueSizeCap = inlineKeyValueSizeCap( offsetFormat, totalSpace ) - (keyPrefixes ? SIZE_KEY_PREFIX_LENGTH : 0);
+        keyValueSizeCap = msbIsOffload ?
+                          Math.min( FIXED_MAX_KEY_VALUE_SIZE_CAP, OffloadStoreImpl.keyValueSizeCapFromPageSize( pageSize ) ) :
+                          Math.min( FIXED_MAX_KEY_VALUE_SIZE_CAP, inlineKeyValueSizeCap );
 
         if ( inlineKeyValueSizeCap < MINIMUM_ENTRY_SIZE_CAP )
         {
@@ -224,8 +272,13 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     public static int inlineKeyValueSizeCap( int pageSize )
     {
         DynamicSizeOffsetFormat offsetFormat = selectOffsetFormat( pageSize );
+        return inlineKeyValueSizeCap( offsetFormat, pageSize - offsetFormat.getHeaderLength() );
+    }
+
+    private static int inlineKeyValueSizeCap( DynamicSizeOffsetFormat offsetFormat, int totalSpace )
+    {
         int totalOverhead = getTotalOverhead( offsetFormat );
-        int capToFitNumberOfEntriesPerPage = (pageSize - offsetFormat.getHeaderLength()) / LEAST_NUMBER_OF_ENTRIES_PER_PAGE - totalOverhead;
+        int capToFitNumberOfEntriesPerPage = totalSpace / LEAST_NUMBER_OF_ENTRIES_PER_PAGE - totalOverhead;
         return Math.min( FIXED_MAX_KEY_VALUE_SIZE_CAP, capToFitNumberOfEntriesPerPage );
     }
 
@@ -239,6 +292,10 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     {
         setAllocOffset( cursor, pageSize );
         setDeadSpace( cursor, 0 );
+        if ( keyPrefixes )
+        {
+            setKeyPrefixLength( cursor, 0 );
+        }
     }
 
     @Override
@@ -286,7 +343,14 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
                 readUnreliableKeyValueSize( cursor, keySize, valueSize, keyValueSize, pos );
                 return into;
             }
-            layout.readKey( cursor, into, keySize );
+            if ( type == LEAF )
+            {
+                readLeafKey( cursor, into, keySize );
+            }
+            else
+            {
+                layout.readKey( cursor, into, keySize );
+            }
         }
         return into;
     }
@@ -319,7 +383,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
                 readUnreliableKeyValueSize( cursor, keySize, valueSize, keyValueSize, pos );
                 return;
             }
-            layout.readKey( cursor, intoKey, keySize );
+            readLeafKey( cursor, intoKey, keySize );
             layout.readValue( cursor, intoValue, valueSize );
         }
     }
@@ -372,12 +436,20 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         int newKeyValueOffset;
         if ( canInline( keySize + valueSize ) )
         {
-            newKeyValueOffset = currentKeyValueOffset - keySize - valueSize - getOverhead( keySize, valueSize, false );
+            int storedKeySize = keyPrefixes ? encodeLeafKey( cursor, key, keySize ) : keySize;
+            newKeyValueOffset = currentKeyValueOffset - storedKeySize - valueSize - getOverhead( storedKeySize, valueSize, false );
 
             // Write key and value
             cursor.setOffset( newKeyValueOffset );
-            putKeyValueSize( cursor, keySize, valueSize, false );
-            layout.writeKey( cursor, key );
+            putKeyValueSize( cursor, storedKeySize, valueSize, false );
+            if ( keyPrefixes )
+            {
+                writeEncodedLeafKey( cursor );
+            }
+            else
+            {
+                layout.writeKey( cursor, key );
+            }
             layout.writeValue( cursor, value );
         }
         else
@@ -603,7 +675,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     {
         int keySize = layout.keySize( key );
         int valueSize = layout.valueSize( value );
-        if ( keyValueSizeTooLarge( keySize, valueSize ) )
+        if ( keySize + valueSize > keyValueSizeCap )
         {
             throw new IllegalArgumentException( "Index key-value size it too large. Please see index documentation for limitations." );
         }
@@ -651,7 +723,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         int allocSpace = getAllocSpace( cursor, currentKeyCount, LEAF );
 
         // How much space do we need?
-        int neededSpace = totalSpaceOfKeyValue( newKey, newValue );
+        int neededSpace = totalSpaceOfKeyValue( cursor, newKey, newValue );
 
         // There is your answer!
         return neededSpace <= allocSpace ? Overflow.NO :
@@ -829,13 +901,51 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return availableSpace > halfSpace;
     }
 
+    @Override
+    boolean canInsertInLeafInPlace( PageCursor cursor, int keyCount, KEY newKey, VALUE newValue )
+    {
+        // Offloaded entries allocate pages from the free-list
+        return canInline( layout.keySize( newKey ) + layout.valueSize( newValue ) ) &&
+                leafOverflow( cursor, keyCount, newKey, newValue ) != Overflow.YES;
+    }
+
+    @Override
+    boolean canRemoveFromLeafInPlace( PageCursor cursor, int keyCount, int pos )
+    {
+        placeCursorAtActualKey( cursor, pos, LEAF );
+        if ( extractOffload( readKeyValueSize( cursor, msbIsOffload ) ) )
+        {
+            // Offloaded entries release pages to the free-list
+            return false;
+        }
+        // The removed entry becomes dead space and its slot in the offset array becomes alloc space
+        int availableSpace = getAllocSpace( cursor, keyCount, LEAF ) + getDeadSpace( cursor ) + totalSpaceOfKeyValue( cursor, pos );
+        return availableSpace <= halfSpace;
+    }
+
+    @Override
+    boolean leafOverflowsFillFactor( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue, double fillFactor )
+    {
+        int usedSpace = totalSpace - getAllocSpace( cursor, currentKeyCount, LEAF );
+        return usedSpace + totalSpaceOfKeyValue( cursor, newKey, newValue ) > totalSpace * fillFactor;
+    }
+
+    @Override
+    boolean internalOverflowsFillFactor( PageCursor cursor, int currentKeyCount, KEY newKey, double fillFactor )
+    {
+        int usedSpace = totalSpace - getAllocSpace( cursor, currentKeyCount, INTERNAL );
+        return usedSpace + totalSpaceOfKeyChild( newKey ) > totalSpace * fillFactor;
+    }
+
     @Override
     int canRebalanceLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
     {
         int leftActiveSpace = totalActiveSpace( leftCursor, leftKeyCount, LEAF );
         int rightActiveSpace = totalActiveSpace( rightCursor, rightKeyCount, LEAF );
+        // Entries moved between leaves with different key prefixes change size
+        boolean transcode = transcodeKeys( leftCursor, rightCursor );
 
-        if ( leftActiveSpace + rightActiveSpace < totalSpace )
+        if ( totalActiveSpaceIn( leftCursor, leftKeyCount, rightCursor, transcode ) + rightActiveSpace < totalSpace )
         {
             // We can merge
             return -1;
@@ -850,12 +960,15 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         int currentDelta = Math.abs( leftActiveSpace - rightActiveSpace );
         int keysToMove = 0;
         int lastChunkSize;
+        int lastChunkSizeInRight;
         do
         {
             keysToMove++;
-            lastChunkSize = totalSpaceOfKeyValue( leftCursor, leftKeyCount - keysToMove );
+            int pos = leftKeyCount - keysToMove;
+            lastChunkSize = totalSpaceOfKeyValue( leftCursor, pos );
+            lastChunkSizeInRight = transcode ? totalSpaceOfKeyValueIn( leftCursor, pos, rightCursor ) : lastChunkSize;
             leftActiveSpace -= lastChunkSize;
-            rightActiveSpace += lastChunkSize;
+            rightActiveSpace += lastChunkSizeInRight;
 
             prevDelta = currentDelta;
             currentDelta = Math.abs( leftActiveSpace - rightActiveSpace );
@@ -863,22 +976,155 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         while ( currentDelta < prevDelta );
         keysToMove--; // Move back to optimal split
         leftActiveSpace += lastChunkSize;
-        rightActiveSpace -= lastChunkSize;
+        rightActiveSpace -= lastChunkSizeInRight;
 
         int halfSpace = this.halfSpace;
-        boolean canRebalance = leftActiveSpace > halfSpace && rightActiveSpace > halfSpace;
+        boolean canRebalance = leftActiveSpace > halfSpace && rightActiveSpace > halfSpace && rightActiveSpace <= totalSpace;
         return canRebalance ? keysToMove : 0;
     }
 
     @Override
     boolean canMergeLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
     {
-        int leftActiveSpace = totalActiveSpace( leftCursor, leftKeyCount, LEAF );
+        int leftActiveSpace = totalActiveSpaceIn( leftCursor, leftKeyCount, rightCursor, transcodeKeys( leftCursor, rightCursor ) );
         int rightActiveSpace = totalActiveSpace( rightCursor, rightKeyCount, LEAF );
         int totalSpace = this.totalSpace;
         return totalSpace >= leftActiveSpace + rightActiveSpace;
     }
 
+    @Override
+    boolean compressKeyPrefix( PageCursor cursor, int keyCount )
+    {
+        if ( !keyPrefixes || keyCount == 0 )
+        {
+            return false;
+        }
+
+        // Read all entries, inlined keys in full
+        byte[][] keys = new byte[keyCount][];
+        byte[][] valuesOrOffloadEntries = new byte[keyCount][];
+        byte[] prefix = null;
+        int prefixStart = 0;
+        int prefixLength = maxKeyPrefixLength;
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            placeCursorAtActualKey( cursor, pos, LEAF );
+            int keyOffset = cursor.getOffset();
+            long keyValueSize = readKeyValueSize( cursor, msbIsOffload );
+            int keySize = extractKeySize( keyValueSize );
+            int valueSize = extractValueSize( keyValueSize );
+            if ( extractOffload( keyValueSize ) )
+            {
+                byte[] offloadEntry = new byte[getOverhead( keySize, valueSize, true )];
+                cursor.setOffset( keyOffset );
+                cursor.getBytes( offloadEntry );
+                valuesOrOffloadEntries[pos] = offloadEntry;
+                continue;
+            }
+            int shared = cursor.getByte() & 0xFF;
+            byte[] key = new byte[shared + keySize - SIZE_KEY_PREFIX_LENGTH];
+            readPrefixedKey( cursor, shared, keySize - SIZE_KEY_PREFIX_LENGTH, key );
+            byte[] value = new byte[valueSize];
+            cursor.getBytes( value );
+            keys[pos] = key;
+            valuesOrOffloadEntries[pos] = value;
+
+            int keyPrefixStart = keyPrefixStart( key.length );
+            prefixLength = prefix == null ? Math.min( prefixLength, key.length - keyPrefixStart )
+                                          : commonPrefixLength( prefix, prefixStart, prefixLength, key, keyPrefixStart, key.length - keyPrefixStart );
+            prefix = key;
+            prefixStart = keyPrefixStart;
+        }
+        if ( prefix == null )
+        {
+            // Only offloaded entries
+            return false;
+        }
+
+        // Would it save space?
+        int newActiveSpace = keyCount * bytesKeyOffset();
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            byte[] key = keys[pos];
+            int valueSize = valuesOrOffloadEntries[pos].length;
+            if ( key == null )
+            {
+                newActiveSpace += valueSize;
+            }
+            else
+            {
+                int storedKeySize = SIZE_KEY_PREFIX_LENGTH + key.length - prefixLength;
+                newActiveSpace += getOverhead( storedKeySize, valueSize, false ) + storedKeySize + valueSize;
+            }
+        }
+        if ( newActiveSpace >= totalActiveSpace( cursor, keyCount, LEAF ) )
+        {
+            return false;
+        }
+
+        // Rewrite node with new prefix
+        int prevAllocOffset = getAllocOffset( cursor );
+        setKeyPrefixLength( cursor, prefixLength );
+        cursor.putBytes( prefix, prefixStart, prefixLength );
+        int allocOffset = pageSize;
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            byte[] key = keys[pos];
+            byte[] valueOrOffloadEntry = valuesOrOffloadEntries[pos];
+            if ( key == null )
+            {
+                allocOffset -= valueOrOffloadEntry.length;
+                cursor.setOffset( allocOffset );
+                cursor.putBytes( valueOrOffloadEntry );
+            }
+            else
+            {
+                int storedKeySize = SIZE_KEY_PREFIX_LENGTH + key.length - prefixLength;
+                int valueSize = valueOrOffloadEntry.length;
+                allocOffset -= getOverhead( storedKeySize, valueSize, false ) + storedKeySize + valueSize;
+                cursor.setOffset( allocOffset );
+                putKeyValueSize( cursor, storedKeySize, valueSize, false );
+                putPrefixedKey( cursor, key, key.length, prefixLength );
+                cursor.putBytes( valueOrOffloadEntry );
+            }
+            cursor.setOffset( keyPosOffsetLeaf( pos ) );
+            offsetFormat.putOffset( cursor, allocOffset );
+        }
+        setAllocOffset( cursor, allocOffset );
+        setDeadSpace( cursor, 0 );
+
+        // Readers which read keyCount before a split may read offsets beyond it before they retry,
+        // so let those that were in use point to a complete entry rather than into reclaimed space
+        int endOfOffsetArray = keyPosOffsetLeaf( keyCount );
+        while ( keyPosOffsetLeaf( keyCount + 1 ) <= prevAllocOffset )
+        {
+            cursor.setOffset( endOfOffsetArray );
+            if ( offsetFormat.getOffset( cursor ) == 0 )
+            {
+                break;
+            }
+            cursor.setOffset( endOfOffsetArray );
+            offsetFormat.putOffset( cursor, allocOffset );
+            keyCount++;
+            endOfOffsetArray = keyPosOffsetLeaf( keyCount );
+        }
+
+        // Zero pad reclaimed area
+        zeroPad( cursor, endOfOffsetArray, allocOffset - endOfOffsetArray );
+        return true;
+    }
+
+    private static int commonPrefixLength( byte[] left, int leftOffset, int leftLength, byte[] right, int rightOffset, int rightLength )
+    {
+        int length = Math.min( leftLength, rightLength );
+        int common = 0;
+        while ( common < length && left[leftOffset + common] == right[rightOffset + common] )
+        {
+            common++;
+        }
+        return common;
+    }
+
     @Override
     void doSplitLeaf( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int insertPos, KEY newKey,
             VALUE newValue, KEY newSplitter, double ratioToKeepInLeftOnSplit, long stableGeneration, long unstableGeneration,
@@ -914,6 +1160,11 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         layout.minimalSplitter( leftInSplit, rightInSplit, newSplitter );
 
         int rightKeyCount = keyCountAfterInsert - splitPos;
+        if ( keyPrefixes )
+        {
+            // Let right inherit prefix from left so that entries can be moved as is and will fit where splitPos say
+            copyKeyPrefix( leftCursor, rightCursor );
+        }
 
         if ( insertPos < splitPos )
         {
@@ -942,6 +1193,12 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         }
         TreeNode.setKeyCount( leftCursor, splitPos );
         TreeNode.setKeyCount( rightCursor, rightKeyCount );
+        if ( keyPrefixes )
+        {
+            // Keys in each half have more in common than keys in the node before split
+            compressKeyPrefix( leftCursor, splitPos );
+            compressKeyPrefix( rightCursor, rightKeyCount );
+        }
     }
 
     @Override
@@ -1042,11 +1299,23 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     // NOTE: Does update keyCount
     private void moveKeysAndValues( PageCursor fromCursor, int fromPos, PageCursor toCursor, int toPos, int count )
     {
+        boolean transcode = transcodeKeys( fromCursor, toCursor );
         int firstAllocOffset = getAllocOffset( toCursor );
         int toAllocOffset = firstAllocOffset;
+        int totalMovedBytes = 0;
         for ( int i = 0; i < count; i++, toPos++ )
         {
-            toAllocOffset = moveRawKeyValue( fromCursor, fromPos + i, toCursor, toAllocOffset );
+            if ( transcode )
+            {
+                totalMovedBytes += totalSpaceOfKeyValue( fromCursor, fromPos + i ) - bytesKeyOffset();
+                toAllocOffset = transcodeKeyValue( fromCursor, fromPos + i, toCursor, toAllocOffset );
+                placeCursorAtActualKey( fromCursor, fromPos + i, LEAF );
+                putTombstone( fromCursor );
+            }
+            else
+            {
+                toAllocOffset = moveRawKeyValue( fromCursor, fromPos + i, toCursor, toAllocOffset );
+            }
             toCursor.setOffset( keyPosOffsetLeaf( toPos ) );
             offsetFormat.putOffset( toCursor, toAllocOffset );
         }
@@ -1054,7 +1323,10 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
 
         // Update deadSpace
         int deadSpace = getDeadSpace( fromCursor );
-        int totalMovedBytes = firstAllocOffset - toAllocOffset;
+        if ( !transcode )
+        {
+            totalMovedBytes = firstAllocOffset - toAllocOffset;
+        }
         setDeadSpace( fromCursor, deadSpace + totalMovedBytes );
 
         // Key count
@@ -1104,10 +1376,12 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
 
     private void copyKeysAndValues( PageCursor fromCursor, int fromPos, PageCursor toCursor, int toPos, int count )
     {
+        boolean transcode = transcodeKeys( fromCursor, toCursor );
         int toAllocOffset = getAllocOffset( toCursor );
         for ( int i = 0; i < count; i++, toPos++ )
         {
-            toAllocOffset = copyRawKeyValue( fromCursor, fromPos + i, toCursor, toAllocOffset );
+            toAllocOffset = transcode ? transcodeKeyValue( fromCursor, fromPos + i, toCursor, toAllocOffset )
+                                      : copyRawKeyValue( fromCursor, fromPos + i, toCursor, toAllocOffset );
             toCursor.setOffset( keyPosOffsetLeaf( toPos ) );
             offsetFormat.putOffset( toCursor, toAllocOffset );
         }
@@ -1136,6 +1410,43 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return newRightAllocSpace;
     }
 
+    /**
+     * Copy key and value from logical position in 'from' to physical position next to current alloc offset in 'to',
+     * re-encoding an inlined key against the key prefix of 'to'.
+     * Does NOT mark transferred key as dead.
+     * @return new alloc offset in 'to'
+     */
+    private int transcodeKeyValue( PageCursor fromCursor, int fromPos, PageCursor toCursor, int toAllocOffset )
+    {
+        placeCursorAtActualKey( fromCursor, fromPos, LEAF );
+        int fromKeyOffset = fromCursor.getOffset();
+        long keyValueSize = readKeyValueSize( fromCursor, msbIsOffload );
+        int keySize = extractKeySize( keyValueSize );
+        int valueSize = extractValueSize( keyValueSize );
+        if ( extractOffload( keyValueSize ) )
+        {
+            int toCopy = getOverhead( keySize, valueSize, true );
+            int newAllocOffset = toAllocOffset - toCopy;
+            fromCursor.copyTo( fromKeyOffset, toCursor, newAllocOffset, toCopy );
+            return newAllocOffset;
+        }
+
+        KeyPrefixScratch scratch = keyPrefixScratch.get();
+        int fullKeySize = readFullLeafKey( fromCursor, keySize, scratch );
+        int fromValueOffset = fromCursor.getOffset();
+        int shared = sharedKeyPrefixLength( toCursor, scratch.bytes, fullKeySize );
+        int storedKeySize = SIZE_KEY_PREFIX_LENGTH + fullKeySize - shared;
+        int newAllocOffset = toAllocOffset - getOverhead( storedKeySize, valueSize, false ) - storedKeySize - valueSize;
+        toCursor.setOffset( newAllocOffset );
+        putKeyValueSize( toCursor, storedKeySize, valueSize, false );
+        putPrefixedKey( toCursor, scratch.bytes, fullKeySize, shared );
+        if ( valueSize > 0 )
+        {
+            fromCursor.copyTo( fromValueOffset, toCursor, toCursor.getOffset(), valueSize );
+        }
+        return newAllocOffset;
+    }
+
     private int getAllocSpace( PageCursor cursor, int keyCount, Type type )
     {
         int allocOffset = getAllocOffset( cursor );
@@ -1339,7 +1650,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         int accumulatedLeftSpace = 0;
         int currentDelta = targetLeftSpace;
         int prevDelta;
-        int spaceOfNewKey = totalSpaceOfKeyValue( newKey, newValue );
+        int spaceOfNewKey = totalSpaceOfKeyValue( cursor, newKey, newValue );
         int totalSpaceIncludingNewKey = totalActiveSpace( cursor, keyCountAfterInsert - 1, LEAF ) + spaceOfNewKey;
         boolean includedNew = false;
         boolean prevPosPossible;
@@ -1391,14 +1702,18 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return totalSpace - deadSpace - allocSpace;
     }
 
-    private int totalSpaceOfKeyValue( KEY key, VALUE value )
+    /**
+     * Space needed for key and value if inserted in leaf of given cursor, which dictates key prefix if key prefixes are used.
+     */
+    private int totalSpaceOfKeyValue( PageCursor cursor, KEY key, VALUE value )
     {
         int keySize = layout.keySize( key );
         int valueSize = layout.valueSize( value );
         boolean canInline = canInline( keySize + valueSize );
         if ( canInline )
         {
-            return bytesKeyOffset() + getOverhead( keySize, valueSize, false ) + keySize + valueSize;
+            int storedKeySize = keyPrefixes ? encodeLeafKey( cursor, key, keySize ) : keySize;
+            return bytesKeyOffset() + getOverhead( storedKeySize, valueSize, false ) + storedKeySize + valueSize;
         }
         else
         {
@@ -1430,6 +1745,39 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return bytesKeyOffset() + getOverhead( keySize, valueSize, offload ) + keySize + valueSize;
     }
 
+    /**
+     * Space needed for key and value at pos in 'from' if moved to leaf of 'to'.
+     */
+    private int totalSpaceOfKeyValueIn( PageCursor fromCursor, int pos, PageCursor toCursor )
+    {
+        placeCursorAtActualKey( fromCursor, pos, LEAF );
+        long keyValueSize = readKeyValueSize( fromCursor, msbIsOffload );
+        int keySize = extractKeySize( keyValueSize );
+        int valueSize = extractValueSize( keyValueSize );
+        if ( extractOffload( keyValueSize ) )
+        {
+            return bytesKeyOffset() + getOverhead( keySize, valueSize, true );
+        }
+        KeyPrefixScratch scratch = keyPrefixScratch.get();
+        int fullKeySize = readFullLeafKey( fromCursor, keySize, scratch );
+        int storedKeySize = SIZE_KEY_PREFIX_LENGTH + fullKeySize - sharedKeyPrefixLength( toCursor, scratch.bytes, fullKeySize );
+        return bytesKeyOffset() + getOverhead( storedKeySize, valueSize, false ) + storedKeySize + valueSize;
+    }
+
+    private int totalActiveSpaceIn( PageCursor fromCursor, int keyCount, PageCursor toCursor, boolean transcode )
+    {
+        if ( !transcode )
+        {
+            return totalActiveSpace( fromCursor, keyCount, LEAF );
+        }
+        int activeSpace = 0;
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            activeSpace += totalSpaceOfKeyValueIn( fromCursor, pos, toCursor );
+        }
+        return activeSpace;
+    }
+
     private int totalSpaceOfKeyChild( PageCursor cursor, int pos )
     {
         placeCursorAtActualKey( cursor, pos, INTERNAL );
@@ -1462,6 +1810,180 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return offsetFormat.getOffset( cursor, offsetFormat.getBytePosDeadSpace() );
     }
 
+    /**
+     * Read key of a leaf entry, cursor placed after key value size and left after key.
+     * @param keySize key size as stored in key value size, with key prefixes this includes the shared prefix length.
+     */
+    private void readLeafKey( PageCursor cursor, KEY into, int keySize )
+    {
+        if ( !keyPrefixes )
+        {
+            layout.readKey( cursor, into, keySize );
+            return;
+        }
+
+        int shared = cursor.getByte() & 0xFF;
+        int suffixSize = keySize - SIZE_KEY_PREFIX_LENGTH;
+        if ( shared > maxKeyPrefixLength || suffixSize < 0 || (shared > 0 && suffixSize < keyPrefixOffset) )
+        {
+            cursor.setCursorException( format( "Read unreliable prefix compressed key, id=%d, sharedPrefixLength=%d, keySize=%d",
+                    cursor.getCurrentPageId(), shared, keySize ) );
+            return;
+        }
+        if ( shared == 0 )
+        {
+            // Nothing in common with node prefix, read straight from page
+            layout.readKey( cursor, into, suffixSize );
+            return;
+        }
+
+        KeyPrefixScratch scratch = keyPrefixScratch.get();
+        int fullKeySize = shared + suffixSize;
+        readPrefixedKey( cursor, shared, suffixSize, scratch.ensureCapacity( fullKeySize ) );
+        scratch.cursor.setOffset( 0 );
+        try
+        {
+            layout.readKey( scratch.cursor, into, fullKeySize );
+            scratch.cursor.checkAndClearCursorException();
+        }
+        catch ( CursorException | BufferUnderflowException | IndexOutOfBoundsException e )
+        {
+            // Key bytes read from page may be inconsistent if page is concurrently modified
+            cursor.setCursorException( "Failed to read prefix compressed key, cause: " + e.getMessage() );
+        }
+    }
+
+    /**
+     * Read shared prefix length and key suffix of a leaf entry into scratch, as full key.
+     * Cursor placed after key value size and left after key.
+     * @return size of full key.
+     */
+    private int readFullLeafKey( PageCursor cursor, int keySize, KeyPrefixScratch scratch )
+    {
+        int shared = cursor.getByte() & 0xFF;
+        int suffixSize = keySize - SIZE_KEY_PREFIX_LENGTH;
+        int fullKeySize = shared + suffixSize;
+        readPrefixedKey( cursor, shared, suffixSize, scratch.ensureCapacity( fullKeySize ) );
+        return fullKeySize;
+    }
+
+    /**
+     * Read key head, shared part of node key prefix and key suffix at cursor offset into given array, as full key.
+     * Cursor is left after key suffix.
+     * @param suffixSize size of key head and key suffix together.
+     */
+    private void readPrefixedKey( PageCursor cursor, int shared, int suffixSize, byte[] into )
+    {
+        int headSize = keyPrefixStart( shared + suffixSize );
+        cursor.getBytes( into, 0, headSize );
+        int suffixOffset = cursor.getOffset();
+        cursor.setOffset( bytePosKeyPrefix + SIZE_KEY_PREFIX_LENGTH );
+        cursor.getBytes( into, headSize, shared );
+        cursor.setOffset( suffixOffset );
+        cursor.getBytes( into, headSize + shared, suffixSize - headSize );
+    }
+
+    /**
+     * Write shared prefix length, key head and key suffix of given full key at cursor offset.
+     */
+    private void putPrefixedKey( PageCursor cursor, byte[] key, int keySize, int shared )
+    {
+        int headSize = keyPrefixStart( keySize );
+        cursor.putByte( (byte) shared );
+        cursor.putBytes( key, 0, headSize );
+        cursor.putBytes( key, headSize + shared, keySize - headSize - shared );
+    }
+
+    /**
+     * @return where in a full key of the given size the part that can share the node key prefix starts.
+     */
+    private int keyPrefixStart( int keySize )
+    {
+        return Math.min( keyPrefixOffset, keySize );
+    }
+
+    /**
+     * Serialize key into scratch and figure out how much it shares with prefix of node.
+     * Use {@link #writeEncodedLeafKey(PageCursor)} to write it.
+     * @return key size as it will be stored, including shared prefix length.
+     */
+    private int encodeLeafKey( PageCursor cursor, KEY key, int keySize )
+    {
+        KeyPrefixScratch scratch = keyPrefixScratch.get();
+        scratch.ensureCapacity( keySize );
+        scratch.cursor.setOffset( 0 );
+        layout.writeKey( scratch.cursor, key );
+        scratch.keySize = keySize;
+        scratch.shared = sharedKeyPrefixLength( cursor, scratch.bytes, keySize );
+        return SIZE_KEY_PREFIX_LENGTH + keySize - scratch.shared;
+    }
+
+    /**
+     * Write key last encoded by {@link #encodeLeafKey(PageCursor, Object, int)} at cursor offset.
+     */
+    private void writeEncodedLeafKey( PageCursor cursor )
+    {
+        KeyPrefixScratch scratch = keyPrefixScratch.get();
+        putPrefixedKey( cursor, scratch.bytes, scratch.keySize, scratch.shared );
+    }
+
+    private int sharedKeyPrefixLength( PageCursor cursor, byte[] key, int keySize )
+    {
+        int start = keyPrefixStart( keySize );
+        int length = Math.min( keyPrefixLength( cursor ), keySize - start );
+        int offset = bytePosKeyPrefix + SIZE_KEY_PREFIX_LENGTH;
+        int shared = 0;
+        while ( shared < length && cursor.getByte( offset + shared ) == key[start + shared] )
+        {
+            shared++;
+        }
+        return shared;
+    }
+
+    private int keyPrefixLength( PageCursor cursor )
+    {
+        return cursor.getByte( bytePosKeyPrefix ) & 0xFF;
+    }
+
+    /**
+     * Set key prefix length, cursor is left at start of prefix.
+     */
+    private void setKeyPrefixLength( PageCursor cursor, int prefixLength )
+    {
+        cursor.setOffset( bytePosKeyPrefix );
+        cursor.putByte( (byte) prefixLength );
+    }
+
+    private void copyKeyPrefix( PageCursor fromCursor, PageCursor toCursor )
+    {
+        fromCursor.copyTo( bytePosKeyPrefix, toCursor, bytePosKeyPrefix, SIZE_KEY_PREFIX_LENGTH + maxKeyPrefixLength );
+    }
+
+    /**
+     * @return true if keys moved between given leaves need to be re-encoded, because the leaves have different key prefixes.
+     */
+    private boolean transcodeKeys( PageCursor fromCursor, PageCursor toCursor )
+    {
+        if ( !keyPrefixes )
+        {
+            return false;
+        }
+        int length = keyPrefixLength( fromCursor );
+        if ( length != keyPrefixLength( toCursor ) )
+        {
+            return true;
+        }
+        int offset = bytePosKeyPrefix + SIZE_KEY_PREFIX_LENGTH;
+        for ( int i = 0; i < length; i++ )
+        {
+            if ( fromCursor.getByte( offset + i ) != toCursor.getByte( offset + i ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void placeCursorAtActualKey( PageCursor cursor, int pos, Type type )
     {
         // Set cursor to correct place in offset array
@@ -1472,10 +1994,10 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         int keyOffset = offsetFormat.getOffset( cursor );
 
         // Verify offset is reasonable
-        if ( keyOffset >= pageSize || keyOffset < offsetFormat.getHeaderLength() )
+        if ( keyOffset >= pageSize || keyOffset < headerLength )
         {
             cursor.setCursorException( format( "Tried to read key on offset=%d, headerLength=%d, pageSize=%d, pos=%d",
-                    keyOffset, offsetFormat.getHeaderLength(), pageSize, pos ) );
+                    keyOffset, headerLength, pageSize, pos ) );
             return;
         }
 
@@ -1491,7 +2013,8 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
 
     private boolean keyValueSizeTooLarge( int keySize, int valueSize )
     {
-        return keySize + valueSize > keyValueSizeCap();
+        // Stored key size of a prefix compressed key include the shared prefix length
+        return keySize + valueSize > keyValueSizeCap() + (keyPrefixes ? SIZE_KEY_PREFIX_LENGTH : 0);
     }
 
     private int keyPosOffset( int pos, Type type )
@@ -1508,13 +2031,13 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
 
     private int keyPosOffsetLeaf( int pos )
     {
-        return offsetFormat.getHeaderLength() + pos * bytesKeyOffset();
+        return headerLength + pos * bytesKeyOffset();
     }
 
     private int keyPosOffsetInternal( int pos )
     {
         // header + childPointer + pos * (keyPosOffsetSize + childPointer)
-        return offsetFormat.getHeaderLength() + childSize() + pos * keyChildSize();
+        return headerLength + childSize() + pos * keyChildSize();
     }
 
     private int keyChildSize()
@@ -1535,7 +2058,8 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     @Override
     public String toString()
     {
-        return "TreeNodeDynamicSize[pageSize:" + pageSize + ", keyValueSizeCap:" + keyValueSizeCap() + ", inlineKeyValueSizeCap:" + inlineKeyValueSizeCap + "]";
+        return "TreeNodeDynamicSize[pageSize:" + pageSize + ", keyValueSizeCap:" + keyValueSizeCap() + ", inlineKeyValueSizeCap:" + inlineKeyValueSizeCap +
+                ", keyPrefixes:" + keyPrefixes + ", keyPrefixOffset:" + keyPrefixOffset + "]";
     }
 
     private String asString( PageCursor cursor, boolean includeValue, boolean includeAllocSpace,
@@ -1551,7 +2075,8 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         // HEADER
         int allocOffset = getAllocOffset( cursor );
         int deadSpace = getDeadSpace( cursor );
-        String additionalHeader = "{" + cursor.getCurrentPageId() + "} [allocOffset=" + allocOffset + " deadSpace=" + deadSpace + "] ";
+        String keyPrefix = keyPrefixes ? " keyPrefixLength=" + keyPrefixLength( cursor ) : "";
+        String additionalHeader = "{" + cursor.getCurrentPageId() + "} [allocOffset=" + allocOffset + " deadSpace=" + deadSpace + keyPrefix + "] ";
 
         // OFFSET ARRAY
         String offsetArray = readOffsetArray( cursor, stableGeneration, unstableGeneration, type );
@@ -1603,11 +2128,15 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
             }
             else
             {
-                layout.readKey( cursor, readKey, keySize );
                 if ( type == LEAF )
                 {
+                    readLeafKey( cursor, readKey, keySize );
                     layout.readValue( cursor, readValue, valueSize );
                 }
+                else
+                {
+                    layout.readKey( cursor, readKey, keySize );
+                }
                 singleKey.add( Integer.toString( keySize ) );
                 if ( type == LEAF && includeValue )
                 {
@@ -1722,7 +2251,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     private int totalActiveSpaceRaw( PageCursor cursor, int keyCount, Type type )
     {
         // Offset array
-        int offsetArrayStart = offsetFormat.getHeaderLength();
+        int offsetArrayStart = headerLength;
         int offsetArrayEnd = keyPosOffset( keyCount, type );
         int offsetArraySize = offsetArrayEnd - offsetArrayStart;
 
@@ -1794,6 +2323,27 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     @VisibleForTesting
     public int getHeaderLength()
     {
-        return offsetFormat.getHeaderLength();
+        return headerLength;
+    }
+
+    /**
+     * Buffer for keys in their full form, when encoding or decoding prefix compressed keys.
+     */
+    private static class KeyPrefixScratch
+    {
+        private byte[] bytes = new byte[0];
+        private PageCursor cursor = ByteArrayPageCursor.wrap( bytes );
+        private int keySize;
+        private int shared;
+
+        byte[] ensureCapacity( int size )
+        {
+            if ( bytes.length < size )
+            {
+                bytes = new byte[Integer.highestOneBit( size ) << 1];
+                cursor = ByteArrayPageCursor.wrap( bytes );
+            }
+            return bytes;
+        }
     }
 }
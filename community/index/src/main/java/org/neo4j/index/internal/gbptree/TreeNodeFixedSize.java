@@ -350,6 +350,37 @@ class TreeNodeFixedSize<KEY,VALUE> extends TreeNode<KEY,VALUE>
         return keyCount < (leafMaxKeyCount() + 1) / 2;
     }
 
+    @Override
+    boolean canInsertInLeafInPlace( PageCursor cursor, int keyCount, KEY newKey, VALUE newValue )
+    {
+        return leafOverflow( cursor, keyCount, newKey, newValue ) != Overflow.YES;
+    }
+
+    @Override
+    boolean canRemoveFromLeafInPlace( PageCursor cursor, int keyCount, int pos )
+    {
+        return !leafUnderflow( cursor, keyCount - 1 );
+    }
+
+    @Override
+    boolean leafOverflowsFillFactor( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue, double fillFactor )
+    {
+        return currentKeyCount + 1 > leafMaxKeyCount() * fillFactor;
+    }
+
+    @Override
+    boolean internalOverflowsFillFactor( PageCursor cursor, int currentKeyCount, KEY newKey, double fillFactor )
+    {
+        return currentKeyCount + 1 > internalMaxKeyCount() * fillFactor;
+    }
+
+    @Override
+    boolean compressKeyPrefix( PageCursor cursor, int keyCount )
+    {
+        // Fixed size keys are not prefix compressed
+        return false;
+    }
+
     @Override
     int canRebalanceLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
     {
@@ -75,6 +75,30 @@ class TreeNodeSelector
         }
     };
 
+    /**
+     * Creates {@link TreeNodeDynamicSize} instances which compress key prefixes in leaves.
+     */
+    private static final Factory DYNAMIC_KEY_PREFIX = new Factory()
+    {
+        @Override
+        public <KEY,VALUE> TreeNode<KEY,VALUE> create( int pageSize, Layout<KEY,VALUE> layout, OffloadStore<KEY,VALUE> offloadStore )
+        {
+            return new TreeNodeDynamicSize<>( pageSize, layout, offloadStore, true );
+        }
+
+        @Override
+        public byte formatIdentifier()
+        {
+            return TreeNodeDynamicSize.FORMAT_IDENTIFIER;
+        }
+
+        @Override
+        public byte formatVersion()
+        {
+            return TreeNodeDynamicSize.FORMAT_VERSION_KEY_PREFIX;
+        }
+    };
+
     /**
      * Selects a format based on the given {@link Layout}.
      *
@@ -83,8 +107,12 @@ class TreeNodeSelector
      */
     static Factory selectByLayout( Layout<?,?> layout )
     {
-        // For now the selection is done in a simple fashion, by looking at layout.fixedSize().
-        return layout.fixedSize() ? FIXED : DYNAMIC;
+        // For now the selection is done in a simple fashion, by looking at layout.fixedSize() and layout.compressKeyPrefixes().
+        if ( layout.fixedSize() )
+        {
+            return FIXED;
+        }
+        return layout.compressKeyPrefixes() ? DYNAMIC_KEY_PREFIX : DYNAMIC;
     }
 
     /**
@@ -96,7 +124,7 @@ class TreeNodeSelector
      */
     static Factory selectByFormat( byte formatIdentifier, byte formatVersion )
     {
-        // For now do a simple selection of the two formats we know. Moving forward this can contain
+        // For now do a simple selection of the formats we know. Moving forward this can contain
         // many more identifiers and different versions of each.
         if ( formatIdentifier == TreeNodeFixedSize.FORMAT_IDENTIFIER && formatVersion == TreeNodeFixedSize.FORMAT_VERSION )
         {
@@ -106,10 +134,32 @@ class TreeNodeSelector
         {
             return DYNAMIC;
         }
+        else if ( formatIdentifier == TreeNodeDynamicSize.FORMAT_IDENTIFIER && formatVersion == TreeNodeDynamicSize.FORMAT_VERSION_KEY_PREFIX )
+        {
+            return DYNAMIC_KEY_PREFIX;
+        }
         throw new IllegalArgumentException(
                 format( "Unknown format identifier:%d and version:%d combination", formatIdentifier, formatVersion ) );
     }
 
+    /**
+     * Trees keep the format they were created with. A layout can open a tree created with the format it selects, or a tree created
+     * without key prefix compression if it has since {@link Layout#compressKeyPrefixes() opted in} to that.
+     *
+     * @param formatByLayout format {@link #selectByLayout(Layout) selected} by the layout opening the tree.
+     * @param formatIdentifier format identifier the tree was created with, see {@link Meta#getFormatIdentifier()}
+     * @param formatVersion format version the tree was created with, see {@link Meta#getFormatVersion()}.
+     * @return whether or not a tree created with the given format specification can be opened with the given layout format.
+     */
+    static boolean canOpen( Factory formatByLayout, byte formatIdentifier, byte formatVersion )
+    {
+        if ( formatByLayout.formatIdentifier() == formatIdentifier && formatByLayout.formatVersion() == formatVersion )
+        {
+            return true;
+        }
+        return formatByLayout == DYNAMIC_KEY_PREFIX && formatIdentifier == DYNAMIC.formatIdentifier() && formatVersion == DYNAMIC.formatVersion();
+    }
+
     /**
      * Able to instantiate {@link TreeNode} of a specific format and version.
      */
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.test.Race;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.RandomExtension;
+import org.neo4j.test.extension.pagecache.PageCacheSupportExtension;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.PageCacheConfig;
+import org.neo4j.test.rule.RandomRule;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.test.Race.throwing;
+
+@EphemeralTestDirectoryExtension
+@ExtendWith( RandomExtension.class )
+class BatchedSeekTest
+{
+    private static final int PAGE_SIZE = 512;
+
+    @RegisterExtension
+    static PageCacheSupportExtension pageCacheSupportExtension = new PageCacheSupportExtension( PageCacheConfig.config().withPageSize( PAGE_SIZE ) );
+    @Inject
+    private TestDirectory testDirectory;
+    @Inject
+    private RandomRule random;
+    @Inject
+    private PageCache pageCache;
+    private SimpleLongLayout layout;
+
+    @BeforeEach
+    void setup()
+    {
+        layout = SimpleLongLayout.longLayout().build();
+    }
+
+    @Test
+    void shouldFindExactMatchesOfSortedKeys() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = instantiateTree() )
+        {
+            // given
+            TreeSet<Long> expected = new TreeSet<>();
+            insertEntries( tree, 0, 1_000, 2 );
+            List<Long> lookups = new ArrayList<>();
+            for ( long key = random.nextInt( 10 ); key < 2_100; key += random.nextInt( 1, 20 ) )
+            {
+                lookups.add( key );
+                if ( key % 2 == 0 && key < 2_000 )
+                {
+                    expected.add( key );
+                }
+            }
+
+            // when
+            MutableLong[] from = keys( lookups );
+            MutableLong[] to = keys( lookups );
+            try ( Seeker<MutableLong,MutableLong> seeker = tree.batchedSeek( from, to, NULL ) )
+            {
+                // then
+                assertHits( seeker, expected );
+            }
+        }
+    }
+
+    @Test
+    void shouldFindEntriesInSortedRanges() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = instantiateTree() )
+        {
+            // given
+            insertEntries( tree, 0, 2_000, 1 );
+            List<Long> fromKeys = new ArrayList<>();
+            List<Long> toKeys = new ArrayList<>();
+            TreeSet<Long> expected = new TreeSet<>();
+            long from = random.nextInt( 10 );
+            while ( from < 2_100 )
+            {
+                long to = from + random.nextInt( 1, 50 );
+                fromKeys.add( from );
+                toKeys.add( to );
+                for ( long key = from; key < Math.min( to, 2_000 ); key++ )
+                {
+                    expected.add( key );
+                }
+                from = to + random.nextInt( 0, 200 );
+            }
+
+            // when
+            try ( Seeker<MutableLong,MutableLong> seeker = tree.batchedSeek( keys( fromKeys ), keys( toKeys ), NULL ) )
+            {
+                // then
+                assertHits( seeker, expected );
+            }
+        }
+    }
+
+    @Test
+    void shouldPinFewerPagesThanSeekingEachKeySeparately() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = instantiateTree() )
+        {
+            // given
+            insertEntries( tree, 0, 5_000, 1 );
+            List<Long> lookups = new ArrayList<>();
+            for ( long key = 0; key < 5_000; key += 3 )
+            {
+                lookups.add( key );
+            }
+
+            // when
+            DefaultPageCacheTracer cacheTracer = new DefaultPageCacheTracer();
+            PageCursorTracer separateTracer = cacheTracer.createPageCursorTracer( "separate" );
+            for ( long key : lookups )
+            {
+                try ( Seeker<MutableLong,MutableLong> seeker = tree.seek( layout.key( key ), layout.key( key ), separateTracer ) )
+                {
+                    assertThat( seeker.next() ).isTrue();
+                }
+            }
+            PageCursorTracer batchedTracer = cacheTracer.createPageCursorTracer( "batched" );
+            try ( Seeker<MutableLong,MutableLong> seeker = tree.batchedSeek( keys( lookups ), keys( lookups ), batchedTracer ) )
+            {
+                assertHits( seeker, new TreeSet<>( lookups ) );
+            }
+
+            // then
+            assertThat( batchedTracer.pins() ).isLessThan( separateTracer.pins() / 2 );
+        }
+    }
+
+    @Test
+    void shouldFindAllExistingKeysDuringConcurrentInserts() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = instantiateTree() )
+        {
+            // given
+            insertEntries( tree, 0, 2_000, 2 );
+            List<Long> lookups = new ArrayList<>();
+            for ( long key = 0; key < 4_000; key += 2 * random.nextInt( 1, 5 ) )
+            {
+                lookups.add( key );
+            }
+
+            for ( int round = 0; round < 10; round++ )
+            {
+                // when
+                int offset = round * 2_000 + 1;
+                AtomicReference<TreeSet<Long>> hits = new AtomicReference<>();
+                Race race = new Race();
+                race.addContestant( throwing( () -> insertEntries( tree, offset % 4_000, 1_000, 2 ) ) );
+                race.addContestant( throwing( () -> hits.set( readHits( tree.batchedSeek( keys( lookups ), keys( lookups ), NULL ) ) ) ) );
+                race.goUnchecked();
+
+                // then
+                TreeSet<Long> expected = new TreeSet<>();
+                for ( long key : lookups )
+                {
+                    if ( key < 4_000 )
+                    {
+                        expected.add( key );
+                    }
+                }
+                assertThat( hits.get() ).containsExactlyElementsOf( expected );
+                removeEntries( tree, offset % 4_000, 1_000, 2 );
+            }
+        }
+    }
+
+    @Test
+    void shouldNotAcceptUnsortedOrOverlappingRanges() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = instantiateTree() )
+        {
+            assertThrows( IllegalArgumentException.class, () -> tree.batchedSeek( new MutableLong[0], new MutableLong[0], NULL ) );
+            assertThrows( IllegalArgumentException.class, () -> tree.batchedSeek( keys( List.of( 1L ) ), keys( List.of( 1L, 2L ) ), NULL ) );
+            assertThrows( IllegalArgumentException.class, () -> tree.batchedSeek( keys( List.of( 5L ) ), keys( List.of( 1L ) ), NULL ) );
+            assertThrows( IllegalArgumentException.class, () -> tree.batchedSeek( keys( List.of( 1L, 3L ) ), keys( List.of( 5L, 7L ) ), NULL ) );
+            assertThrows( IllegalArgumentException.class, () -> tree.batchedSeek( keys( List.of( 2L, 1L ) ), keys( List.of( 2L, 1L ) ), NULL ) );
+            assertThrows( IllegalArgumentException.class, () -> tree.batchedSeek( keys( List.of( 2L, 2L ) ), keys( List.of( 2L, 2L ) ), NULL ) );
+
+            // Adjacent ranges are fine
+            tree.batchedSeek( keys( List.of( 1L, 3L ) ), keys( List.of( 3L, 5L ) ), NULL ).close();
+        }
+    }
+
+    private GBPTree<MutableLong,MutableLong> instantiateTree()
+    {
+        return new GBPTreeBuilder<>( pageCache, testDirectory.file( "tree" ), layout ).build();
+    }
+
+    private MutableLong[] keys( List<Long> keys )
+    {
+        MutableLong[] result = new MutableLong[keys.size()];
+        for ( int i = 0; i < result.length; i++ )
+        {
+            result[i] = layout.key( keys.get( i ) );
+        }
+        return result;
+    }
+
+    private static void assertHits( Seeker<MutableLong,MutableLong> seeker, TreeSet<Long> expected ) throws IOException
+    {
+        assertThat( readHits( seeker ) ).containsExactlyElementsOf( expected );
+    }
+
+    private static TreeSet<Long> readHits( Seeker<MutableLong,MutableLong> seeker ) throws IOException
+    {
+        TreeSet<Long> hits = new TreeSet<>();
+        try ( seeker )
+        {
+            Long prev = null;
+            while ( seeker.next() )
+            {
+                long key = seeker.key().longValue();
+                assertThat( prev == null || prev < key ).isTrue();
+                hits.add( key );
+                prev = key;
+            }
+        }
+        return hits;
+    }
+
+    private void insertEntries( GBPTree<MutableLong,MutableLong> tree, int startId, int count, int stride ) throws IOException
+    {
+        try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+        {
+            MutableLong value = layout.value( 0 );
+            for ( int i = 0, id = startId; i < count; i++, id += stride )
+            {
+                writer.put( layout.key( id ), value );
+            }
+        }
+    }
+
+    private void removeEntries( GBPTree<MutableLong,MutableLong> tree, int startId, int count, int stride ) throws IOException
+    {
+        try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+        {
+            for ( int i = 0, id = startId; i < count; i++, id += stride )
+            {
+                writer.remove( layout.key( id ) );
+            }
+        }
+    }
+}
@@ -270,6 +270,99 @@ class FreeListIdProviderTest
         assertTrue( expected.isEmpty() );
     }
 
+    @Test
+    void shouldCutOffReusableIdsAtEndOfFileOnCompact() throws Exception
+    {
+        // GIVEN
+        acquireIds( 10 );
+        long lastId = freelist.lastId();
+        release( GENERATION_ONE, GENERATION_TWO, lastId - 8, lastId - 4, lastId - 3, lastId - 2, lastId - 1, lastId );
+
+        // WHEN
+        long reusableIds = freelist.compact( GENERATION_TWO, GENERATION_THREE, false, NULL );
+
+        // THEN the new free-list page is started on the only reusable id that was kept
+        assertEquals( 0, reusableIds );
+        assertEquals( lastId - 5, freelist.lastId() );
+        // and the cut off ids are handed out again, before the file grows
+        assertEquals( lastId - 4, freelist.acquireNewId( GENERATION_TWO, GENERATION_THREE, NULL ) );
+    }
+
+    @Test
+    void shouldNotCutOffUnstableIdsOnCompact() throws Exception
+    {
+        // GIVEN
+        acquireIds( 10 );
+        long lastId = freelist.lastId();
+        release( GENERATION_TWO, GENERATION_THREE, lastId - 1, lastId );
+
+        // WHEN
+        freelist.compact( GENERATION_TWO, GENERATION_THREE, false, NULL );
+
+        // THEN
+        assertEquals( lastId, freelist.lastId() );
+    }
+
+    @Test
+    void shouldPutReusableIdsInAscendingOrderOnCompact() throws Exception
+    {
+        // GIVEN
+        acquireIds( 10 );
+        long lastId = freelist.lastId();
+        release( GENERATION_ONE, GENERATION_TWO, lastId - 3, lastId - 9, lastId - 6, lastId - 7 );
+        release( GENERATION_TWO, GENERATION_THREE, lastId - 8 );
+
+        // WHEN
+        long reusableIds = freelist.compact( GENERATION_TWO, GENERATION_THREE, true, NULL );
+
+        // THEN the new free-list page is started on the lowest reusable id and the rest of them come in ascending order
+        assertEquals( 3, reusableIds );
+        assertEquals( lastId - 7, freelist.peekNextFreeId( GENERATION_TWO, NULL ) );
+        assertEquals( lastId - 7, freelist.acquireNewId( GENERATION_TWO, GENERATION_THREE, NULL ) );
+        assertEquals( lastId - 6, freelist.acquireNewId( GENERATION_TWO, GENERATION_THREE, NULL ) );
+        assertEquals( lastId - 3, freelist.acquireNewId( GENERATION_TWO, GENERATION_THREE, NULL ) );
+        // and the unstable id is still there, but not yet reusable
+        assertEquals( FreelistNode.NO_PAGE_ID, freelist.peekNextFreeId( GENERATION_TWO, NULL ) );
+        assertEquals( lastId - 8, freelist.acquireNewId( GENERATION_THREE, GENERATION_FOUR, NULL ) );
+    }
+
+    @Test
+    void shouldKeepCountOfFreeIdsOnceCountedByCompact() throws Exception
+    {
+        // GIVEN a free-list which was opened, i.e. whose ids have not been counted
+        acquireIds( 10 );
+        long lastId = freelist.lastId();
+        release( GENERATION_ONE, GENERATION_TWO, lastId - 9, lastId - 8, lastId - 7 );
+        assertEquals( FreeListIdProvider.UNKNOWN_FREE_ID_COUNT, freelist.freeIdCount() );
+
+        // WHEN
+        freelist.compact( GENERATION_TWO, GENERATION_THREE, false, NULL );
+
+        // THEN
+        assertEquals( 3, freelist.freeIdCount() );
+        // and the count is kept up to date as ids are released and acquired
+        release( GENERATION_TWO, GENERATION_THREE, lastId - 6 );
+        assertEquals( 4, freelist.freeIdCount() );
+        assertEquals( lastId - 9, freelist.acquireNewId( GENERATION_TWO, GENERATION_THREE, NULL ) );
+        assertEquals( 3, freelist.freeIdCount() );
+    }
+
+    private void acquireIds( int count ) throws IOException
+    {
+        for ( int i = 0; i < count; i++ )
+        {
+            freelist.acquireNewId( GENERATION_ONE, GENERATION_TWO, NULL );
+        }
+    }
+
+    private void release( long stableGeneration, long unstableGeneration, long... ids ) throws IOException
+    {
+        for ( long id : ids )
+        {
+            freelist.releaseId( stableGeneration, unstableGeneration, id, NULL );
+        }
+    }
+
     private void fillPageWithRandomBytes( long releasedId )
     {
         cursor.next( releasedId );
@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableInt;
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.PageCacheSupportExtension;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.PageCacheConfig;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+@EphemeralTestDirectoryExtension
+class GBPTreeBulkLoaderTest
+{
+    private static final int COUNT = 5_000;
+
+    @RegisterExtension
+    static PageCacheSupportExtension pageCacheExtension = new PageCacheSupportExtension( PageCacheConfig.config().withPageSize( 512 ) );
+    @Inject
+    private TestDirectory directory;
+    @Inject
+    private PageCache pageCache;
+
+    private static Stream<Arguments> layouts()
+    {
+        return Stream.of(
+                Arguments.of( SimpleLongLayout.longLayout().withFixedSize( true ).build(), 1.0 ),
+                Arguments.of( SimpleLongLayout.longLayout().withFixedSize( true ).build(), 0.5 ),
+                Arguments.of( SimpleLongLayout.longLayout().withFixedSize( true ).build(), 0.01 ),
+                Arguments.of( SimpleLongLayout.longLayout().withFixedSize( false ).build(), 1.0 ),
+                Arguments.of( SimpleLongLayout.longLayout().withFixedSize( false ).build(), 0.7 ),
+                Arguments.of( SimpleLongLayout.longLayout().withFixedSize( false ).withKeyPadding( 300 ).build(), 1.0 ),
+                Arguments.of( SimpleLongLayout.longLayout().withFixedSize( false ).withKeyPrefixCompression( true ).build(), 1.0 ),
+                Arguments.of( SimpleLongLayout.longLayout().withFixedSize( false ).withKeyPrefixCompression( true ).build(), 0.7 ) );
+    }
+
+    @ParameterizedTest
+    @MethodSource( "layouts" )
+    void shouldBulkLoadSortedKeys( SimpleLongLayout layout, double fillFactor ) throws IOException
+    {
+        Path file = directory.file( "index" );
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build() )
+        {
+            try ( BulkLoader<MutableLong,MutableLong> bulkLoader = tree.bulkLoader( fillFactor, NULL ) )
+            {
+                for ( long i = 0; i < COUNT; i++ )
+                {
+                    bulkLoader.add( new MutableLong( i * 2 ), new MutableLong( i * 20 ) );
+                }
+                bulkLoader.finish();
+            }
+
+            assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+            assertContents( tree, 0, 2, COUNT );
+            for ( long i = 0; i < COUNT; i += 97 )
+            {
+                try ( Seeker<MutableLong,MutableLong> seek = tree.seek( new MutableLong( i * 2 ), new MutableLong( i * 2 ), NULL ) )
+                {
+                    assertThat( seek.next() ).isTrue();
+                    assertThat( seek.value().longValue() ).isEqualTo( i * 20 );
+                    assertThat( seek.next() ).isFalse();
+                }
+            }
+
+            // The bulk loaded tree should accept further changes like any other tree
+            try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+            {
+                for ( long i = 0; i < COUNT; i++ )
+                {
+                    writer.put( new MutableLong( i * 2 + 1 ), new MutableLong( (i * 2 + 1) * 10 ) );
+                }
+            }
+            assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+            tree.checkpoint( IOLimiter.UNLIMITED, NULL );
+        }
+
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build() )
+        {
+            assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+            assertContents( tree, 0, 1, COUNT * 2 );
+        }
+    }
+
+    @Test
+    void shouldFillLeavesAccordingToFillFactor() throws IOException
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().withFixedSize( true ).build();
+        int fullLeaves = bulkLoadAndCountLeaves( layout, 1.0, "full" );
+        int halfFullLeaves = bulkLoadAndCountLeaves( layout, 0.5, "half" );
+
+        assertThat( halfFullLeaves ).isBetween( fullLeaves * 2 - 1, fullLeaves * 2 + 1 );
+    }
+
+    @Test
+    void shouldNotAcceptUnsortedKeys() throws IOException
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().withFixedSize( true ).build();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            try ( BulkLoader<MutableLong,MutableLong> bulkLoader = tree.bulkLoader( 1.0, NULL ) )
+            {
+                bulkLoader.add( new MutableLong( 10 ), new MutableLong( 100 ) );
+                assertThatThrownBy( () -> bulkLoader.add( new MutableLong( 10 ), new MutableLong( 10 ) ) ).isInstanceOf( IllegalArgumentException.class );
+                assertThatThrownBy( () -> bulkLoader.add( new MutableLong( 5 ), new MutableLong( 5 ) ) ).isInstanceOf( IllegalArgumentException.class );
+                bulkLoader.add( new MutableLong( 11 ), new MutableLong( 110 ) );
+                bulkLoader.finish();
+            }
+
+            assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+            assertContents( tree, 10, 1, 2 );
+        }
+    }
+
+    @Test
+    void shouldOnlyBulkLoadIntoEmptyTree() throws IOException
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().withFixedSize( true ).build();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+            {
+                writer.put( new MutableLong( 1 ), new MutableLong( 1 ) );
+            }
+
+            assertThatThrownBy( () -> tree.bulkLoader( 1.0, NULL ) ).isInstanceOf( IllegalStateException.class );
+
+            // The failed attempt must not keep the writer taken
+            tree.writer( NULL ).close();
+        }
+    }
+
+    @Test
+    void shouldNotLetWriterInWhileBulkLoaderIsOpen() throws IOException
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().withFixedSize( true ).build();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            try ( BulkLoader<MutableLong,MutableLong> bulkLoader = tree.bulkLoader( 1.0, NULL ) )
+            {
+                bulkLoader.add( new MutableLong( 1 ), new MutableLong( 1 ) );
+                assertThatThrownBy( () -> tree.writer( NULL ) ).isInstanceOf( IllegalStateException.class );
+            }
+        }
+    }
+
+    @Test
+    void shouldLeaveTreeEmptyWhenNothingAdded() throws IOException
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().withFixedSize( true ).build();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            tree.bulkLoader( 1.0, NULL ).close();
+
+            assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+            try ( Seeker<MutableLong,MutableLong> seek = tree.seek( new MutableLong( 0 ), new MutableLong( Long.MAX_VALUE ), NULL ) )
+            {
+                assertThat( seek.next() ).isFalse();
+            }
+        }
+    }
+
+    @Test
+    void shouldKeepTreeEmptyWhenClosedWithoutFinishing() throws IOException
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().withFixedSize( true ).build();
+        Path file = directory.file( "index" );
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build() )
+        {
+            try ( BulkLoader<MutableLong,MutableLong> bulkLoader = tree.bulkLoader( 1.0, NULL ) )
+            {
+                for ( long i = 0; i < COUNT; i++ )
+                {
+                    bulkLoader.add( new MutableLong( i ), new MutableLong( i * 10 ) );
+                }
+            }
+
+            assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+            assertContents( tree, 0, 1, 0 );
+
+            // The tree should still be usable, also for another bulk load
+            try ( BulkLoader<MutableLong,MutableLong> bulkLoader = tree.bulkLoader( 1.0, NULL ) )
+            {
+                for ( long i = 0; i < COUNT; i++ )
+                {
+                    bulkLoader.add( new MutableLong( i ), new MutableLong( i * 10 ) );
+                }
+                bulkLoader.finish();
+            }
+            assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+            tree.checkpoint( IOLimiter.UNLIMITED, NULL );
+        }
+
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build() )
+        {
+            assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+            assertContents( tree, 0, 1, COUNT );
+        }
+    }
+
+    @Test
+    void shouldNotAcceptKeysAfterFinish() throws IOException
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().withFixedSize( true ).build();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            try ( BulkLoader<MutableLong,MutableLong> bulkLoader = tree.bulkLoader( 1.0, NULL ) )
+            {
+                bulkLoader.add( new MutableLong( 1 ), new MutableLong( 10 ) );
+                bulkLoader.finish();
+                assertThatThrownBy( () -> bulkLoader.add( new MutableLong( 2 ), new MutableLong( 20 ) ) ).isInstanceOf( IllegalStateException.class );
+            }
+
+            assertContents( tree, 1, 1, 1 );
+        }
+    }
+
+    @Test
+    void shouldNotAcceptFillFactorOutsideRange() throws IOException
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().withFixedSize( true ).build();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            assertThatThrownBy( () -> tree.bulkLoader( 0, NULL ) ).isInstanceOf( IllegalArgumentException.class );
+            assertThatThrownBy( () -> tree.bulkLoader( 1.1, NULL ) ).isInstanceOf( IllegalArgumentException.class );
+        }
+    }
+
+    private int bulkLoadAndCountLeaves( SimpleLongLayout layout, double fillFactor, String name ) throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( name ), layout ).build() )
+        {
+            try ( BulkLoader<MutableLong,MutableLong> bulkLoader = tree.bulkLoader( fillFactor, NULL ) )
+            {
+                for ( long i = 0; i < COUNT; i++ )
+                {
+                    bulkLoader.add( new MutableLong( i ), new MutableLong( i ) );
+                }
+                bulkLoader.finish();
+            }
+            MutableInt leaves = new MutableInt();
+            tree.visit( new GBPTreeVisitor.Adaptor<>()
+            {
+                @Override
+                public void beginNode( long pageId, boolean isLeaf, long generation, int keyCount )
+                {
+                    if ( isLeaf )
+                    {
+                        leaves.increment();
+                    }
+                }
+            }, NULL );
+            return leaves.intValue();
+        }
+    }
+
+    private static void assertContents( GBPTree<MutableLong,MutableLong> tree, long first, long step, int count ) throws IOException
+    {
+        long expected = first;
+        int seen = 0;
+        try ( Seeker<MutableLong,MutableLong> seek = tree.seek( new MutableLong( 0 ), new MutableLong( Long.MAX_VALUE ), NULL ) )
+        {
+            while ( seek.next() )
+            {
+                assertThat( seek.key().longValue() ).isEqualTo( expected );
+                assertThat( seek.value().longValue() ).isEqualTo( expected * 10 );
+                expected += step;
+                seen++;
+            }
+        }
+        assertThat( seen ).isEqualTo( count );
+    }
+}
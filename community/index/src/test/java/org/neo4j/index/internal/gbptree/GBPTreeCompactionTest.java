@@ -0,0 +1,440 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.test.Race;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.RandomExtension;
+import org.neo4j.test.extension.pagecache.PageCacheSupportExtension;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.PageCacheConfig;
+import org.neo4j.test.rule.RandomRule;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.io.pagecache.IOLimiter.UNLIMITED;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.test.Race.throwing;
+
+@EphemeralTestDirectoryExtension
+@ExtendWith( RandomExtension.class )
+class GBPTreeCompactionTest
+{
+    private static final int PAGE_SIZE = 512;
+
+    @RegisterExtension
+    static PageCacheSupportExtension pageCacheSupportExtension = new PageCacheSupportExtension( PageCacheConfig.config().withPageSize( PAGE_SIZE ) );
+    @Inject
+    private TestDirectory testDirectory;
+    @Inject
+    private RandomRule random;
+    @Inject
+    private PageCache pageCache;
+    private SimpleLongLayout layout;
+    private Path file;
+    private final CompactionMonitor monitor = new CompactionMonitor();
+
+    @BeforeEach
+    void setup()
+    {
+        layout = SimpleLongLayout.longLayout().build();
+        file = testDirectory.file( "index" );
+    }
+
+    @Test
+    void shouldReclaimSpaceAfterRemovingMostKeys() throws IOException
+    {
+        List<Long> remaining = new ArrayList<>();
+        try ( GBPTree<MutableLong,MutableLong> tree = instantiateTree() )
+        {
+            // given
+            insert( tree, 0, 10_000 );
+            tree.checkpoint( UNLIMITED, NULL );
+            long highestIdBefore = highestTreeNodeId( tree );
+            removeAllBut( tree, 10_000, 20, remaining );
+
+            // when
+            compactUntilNothingReclaimed( tree );
+
+            // then
+            assertThat( monitor.reclaimedBytes.get() ).isGreaterThan( 0 );
+            assertThat( monitor.movedTreeNodes.get() ).isGreaterThan( 0 );
+            assertThat( highestTreeNodeId( tree ) ).isLessThan( highestIdBefore / 2 );
+            assertKeys( tree, remaining );
+            assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+            tree.checkpoint( UNLIMITED, NULL );
+        }
+
+        // and when
+        try ( GBPTree<MutableLong,MutableLong> tree = instantiateTree() )
+        {
+            // then
+            assertKeys( tree, remaining );
+            assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+        }
+    }
+
+    @Test
+    void shouldMergeSparseLeaves() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = instantiateTree() )
+        {
+            // given
+            insert( tree, 0, 5_000 );
+            // Leaves which are only kept sparse, not underflowing, are not merged by removals
+            List<Long> remaining = new ArrayList<>();
+            try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+            {
+                for ( long key = 0; key < 5_000; key++ )
+                {
+                    if ( key % 3 == 0 )
+                    {
+                        remaining.add( key );
+                    }
+                    else
+                    {
+                        writer.remove( new MutableLong( key ) );
+                    }
+                }
+            }
+            tree.checkpoint( UNLIMITED, NULL );
+            int leavesBefore = numberOfLeaves( tree );
+
+            // when
+            tree.compact( UNLIMITED, NULL );
+
+            // then
+            assertThat( monitor.mergedLeaves.get() ).isGreaterThan( 0 );
+            assertThat( numberOfLeaves( tree ) ).isEqualTo( leavesBefore - monitor.mergedLeaves.get() );
+            assertKeys( tree, remaining );
+            assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+        }
+    }
+
+    @Test
+    void shouldNotCompactEmptyFreeList() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = instantiateTree() )
+        {
+            // given
+            insert( tree, 0, 1_000 );
+            tree.checkpoint( UNLIMITED, NULL );
+            long highestIdBefore = highestTreeNodeId( tree );
+
+            // when
+            tree.compact( UNLIMITED, NULL );
+
+            // then
+            assertThat( highestTreeNodeId( tree ) ).isEqualTo( highestIdBefore );
+            assertThat( monitor.reclaimedBytes.get() ).isZero();
+            assertThat( monitor.mergedLeaves.get() ).isZero();
+            assertThat( monitor.movedTreeNodes.get() ).isZero();
+        }
+    }
+
+    @Test
+    void shouldBeConsistentAfterCompactingWithoutCheckpoint() throws IOException
+    {
+        List<Long> remaining = new ArrayList<>();
+        try ( GBPTree<MutableLong,MutableLong> tree = instantiateTree() )
+        {
+            // given
+            insert( tree, 0, 5_000 );
+            tree.checkpoint( UNLIMITED, NULL );
+            removeAllBut( tree, 5_000, 10, remaining );
+            tree.checkpoint( UNLIMITED, NULL );
+
+            // when
+            tree.compact( UNLIMITED, NULL );
+            assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+            // and closing without checkpoint, as in a crash
+        }
+
+        // then
+        try ( GBPTree<MutableLong,MutableLong> tree = instantiateTree() )
+        {
+            assertKeys( tree, remaining );
+            assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+        }
+    }
+
+    @Test
+    void shouldConsultIOLimiterBetweenBatches() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = instantiateTree() )
+        {
+            // given
+            insert( tree, 0, 10_000 );
+            tree.checkpoint( UNLIMITED, NULL );
+            removeAllBut( tree, 10_000, 50, new ArrayList<>() );
+            tree.checkpoint( UNLIMITED, NULL );
+
+            // when
+            AtomicInteger calls = new AtomicInteger();
+            IOLimiter limiter = ( previousStamp, recentlyCompletedIOs, flushable ) ->
+            {
+                calls.incrementAndGet();
+                return previousStamp;
+            };
+            tree.compact( limiter, NULL );
+
+            // then
+            assertThat( calls.get() ).isGreaterThan( 0 );
+            assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+        }
+    }
+
+    @Test
+    void shouldCompactWhileReadersAndWriterAreActive() throws Throwable
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = instantiateTree() )
+        {
+            // given
+            insert( tree, 0, 10_000 );
+            tree.checkpoint( UNLIMITED, NULL );
+            List<Long> remaining = new ArrayList<>();
+            removeAllBut( tree, 10_000, 10, remaining );
+            tree.checkpoint( UNLIMITED, NULL );
+
+            // when
+            Race race = new Race();
+            race.addContestants( 2, throwing( () -> assertKeys( tree, remaining ) ) );
+            race.addContestant( throwing( () ->
+            {
+                try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+                {
+                    for ( int i = 0; i < 100; i++ )
+                    {
+                        long key = 20_000 + random.nextInt( 10_000 );
+                        writer.put( new MutableLong( key ), new MutableLong( key ) );
+                    }
+                }
+            } ) );
+            race.addContestant( throwing( () -> tree.compact( UNLIMITED, NULL ) ) );
+            race.go();
+
+            // then
+            assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+        }
+    }
+
+    @Test
+    void shouldOnlyNeedCompactionWhenManyPagesAreFree() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = instantiateTree() )
+        {
+            // given
+            insert( tree, 0, 10_000 );
+            tree.checkpoint( UNLIMITED, NULL );
+            assertThat( tree.needsCompaction() ).isFalse();
+
+            // when
+            removeAllBut( tree, 10_000, 20, new ArrayList<>() );
+            tree.checkpoint( UNLIMITED, NULL );
+
+            // then
+            assertThat( tree.needsCompaction() ).isTrue();
+
+            // and when compacting for as long as it's needed, like a background job scheduled after each checkpoint would
+            int rounds = 0;
+            while ( tree.needsCompaction() && rounds < 10 )
+            {
+                tree.compact( UNLIMITED, NULL );
+                tree.checkpoint( UNLIMITED, NULL );
+                rounds++;
+            }
+
+            // then it stops being needed once the freed pages have been reclaimed
+            assertThat( tree.needsCompaction() ).isFalse();
+            assertThat( rounds ).isLessThan( 10 );
+            assertThat( monitor.reclaimedBytes.get() ).isGreaterThan( 0 );
+            assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+        }
+    }
+
+    @Test
+    void shouldNeedCompactionAfterOpeningUntilFreeIdsHaveBeenCounted() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = instantiateTree() )
+        {
+            insert( tree, 0, 1_000 );
+            tree.checkpoint( UNLIMITED, NULL );
+        }
+
+        try ( GBPTree<MutableLong,MutableLong> tree = instantiateTree() )
+        {
+            // given
+            assertThat( tree.needsCompaction() ).isTrue();
+
+            // when
+            tree.compact( UNLIMITED, NULL );
+
+            // then
+            assertThat( tree.needsCompaction() ).isFalse();
+        }
+    }
+
+    @Test
+    void shouldStopCompactionWhenAskedTo() throws IOException
+    {
+        List<Long> remaining = new ArrayList<>();
+        try ( GBPTree<MutableLong,MutableLong> tree = instantiateTree() )
+        {
+            // given
+            insert( tree, 0, 10_000 );
+            tree.checkpoint( UNLIMITED, NULL );
+            removeAllBut( tree, 10_000, 20, remaining );
+            tree.checkpoint( UNLIMITED, NULL );
+
+            // when
+            tree.compact( UNLIMITED, () -> true, NULL );
+
+            // then
+            assertThat( monitor.mergedLeaves.get() ).isZero();
+            assertThat( monitor.movedTreeNodes.get() ).isZero();
+            assertKeys( tree, remaining );
+            assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+        }
+    }
+
+    private void compactUntilNothingReclaimed( GBPTree<MutableLong,MutableLong> tree )
+    {
+        long reclaimedBytes;
+        int rounds = 0;
+        do
+        {
+            reclaimedBytes = monitor.reclaimedBytes.get();
+            tree.checkpoint( UNLIMITED, NULL );
+            tree.compact( UNLIMITED, NULL );
+            rounds++;
+        }
+        while ( monitor.reclaimedBytes.get() > reclaimedBytes || rounds < 2 );
+    }
+
+    private static void insert( GBPTree<MutableLong,MutableLong> tree, long from, long to ) throws IOException
+    {
+        try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+        {
+            for ( long key = from; key < to; key++ )
+            {
+                writer.put( new MutableLong( key ), new MutableLong( key ) );
+            }
+        }
+    }
+
+    private static void removeAllBut( GBPTree<MutableLong,MutableLong> tree, long count, int every, List<Long> remaining ) throws IOException
+    {
+        try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+        {
+            for ( long key = 0; key < count; key++ )
+            {
+                if ( key % every == 0 )
+                {
+                    remaining.add( key );
+                }
+                else
+                {
+                    writer.remove( new MutableLong( key ) );
+                }
+            }
+        }
+    }
+
+    private static void assertKeys( GBPTree<MutableLong,MutableLong> tree, List<Long> expected ) throws IOException
+    {
+        try ( Seeker<MutableLong,MutableLong> seeker = tree.seek( new MutableLong( 0 ), new MutableLong( 10_000 ), NULL ) )
+        {
+            int i = 0;
+            while ( seeker.next() )
+            {
+                assertThat( seeker.key().longValue() ).isEqualTo( expected.get( i ) );
+                assertThat( seeker.value().longValue() ).isEqualTo( expected.get( i ) );
+                i++;
+            }
+            assertThat( i ).isEqualTo( expected.size() );
+        }
+    }
+
+    private static int numberOfLeaves( GBPTree<MutableLong,MutableLong> tree ) throws IOException
+    {
+        AtomicInteger leaves = new AtomicInteger();
+        tree.visit( new GBPTreeVisitor.Adaptor<>()
+        {
+            @Override
+            public void beginNode( long pageId, boolean isLeaf, long generation, int keyCount )
+            {
+                if ( isLeaf )
+                {
+                    leaves.incrementAndGet();
+                }
+            }
+        }, NULL );
+        return leaves.get();
+    }
+
+    private static long highestTreeNodeId( GBPTree<MutableLong,MutableLong> tree ) throws IOException
+    {
+        AtomicLong highest = new AtomicLong();
+        tree.visit( new GBPTreeVisitor.Adaptor<>()
+        {
+            @Override
+            public void beginNode( long pageId, boolean isLeaf, long generation, int keyCount )
+            {
+                highest.accumulateAndGet( pageId, Math::max );
+            }
+        }, NULL );
+        return highest.get();
+    }
+
+    private GBPTree<MutableLong,MutableLong> instantiateTree()
+    {
+        return new GBPTreeBuilder<>( pageCache, file, layout ).with( monitor ).build();
+    }
+
+    private static class CompactionMonitor extends GBPTree.Monitor.Adaptor
+    {
+        private final AtomicLong mergedLeaves = new AtomicLong();
+        private final AtomicLong movedTreeNodes = new AtomicLong();
+        private final AtomicLong reclaimedBytes = new AtomicLong();
+
+        @Override
+        public void compactionCompleted( long mergedLeaves, long movedTreeNodes, long reclaimedBytes )
+        {
+            this.mergedLeaves.addAndGet( mergedLeaves );
+            this.movedTreeNodes.addAndGet( movedTreeNodes );
+            this.reclaimedBytes.addAndGet( reclaimedBytes );
+        }
+    }
+}
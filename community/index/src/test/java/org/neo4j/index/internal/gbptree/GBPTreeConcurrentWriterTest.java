@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.PageCacheSupportExtension;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.PageCacheConfig;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+@EphemeralTestDirectoryExtension
+class GBPTreeConcurrentWriterTest
+{
+    private static final int THREADS = 8;
+    private static final int KEYS_PER_THREAD = 5_000;
+    private static final int BATCH_SIZE = 100;
+    private static final long COUNTER_KEY = Long.MAX_VALUE - 1;
+    private static final ValueMerger<MutableLong,MutableLong> ADDING_MERGER = ( existingKey, newKey, existingValue, newValue ) ->
+    {
+        existingValue.add( newValue.longValue() );
+        return ValueMerger.MergeResult.MERGED;
+    };
+
+    @RegisterExtension
+    static PageCacheSupportExtension pageCacheExtension = new PageCacheSupportExtension( PageCacheConfig.config().withPageSize( 512 ) );
+    @Inject
+    private TestDirectory directory;
+    @Inject
+    private PageCache pageCache;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool( THREADS + 1 );
+
+    @AfterEach
+    void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @ParameterizedTest
+    @ValueSource( booleans = {true, false} )
+    void shouldApplyChangesFromConcurrentWriters( boolean fixedSize ) throws Exception
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().withFixedSize( fixedSize ).build();
+        Path file = directory.file( "index" );
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build() )
+        {
+            AtomicBoolean writing = new AtomicBoolean( true );
+            Future<?> checkpointer = executor.submit( () ->
+            {
+                while ( writing.get() )
+                {
+                    tree.checkpoint( IOLimiter.UNLIMITED, NULL );
+                    Thread.sleep( 10 );
+                }
+                return null;
+            } );
+
+            List<Future<?>> writers = new ArrayList<>();
+            for ( int i = 0; i < THREADS; i++ )
+            {
+                int thread = i;
+                writers.add( executor.submit( () ->
+                {
+                    writeInBatches( tree, layout, thread );
+                    return null;
+                } ) );
+            }
+            for ( Future<?> writer : writers )
+            {
+                writer.get();
+            }
+            writing.set( false );
+            checkpointer.get();
+
+            assertContents( tree );
+            assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+            tree.checkpoint( IOLimiter.UNLIMITED, NULL );
+        }
+
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build() )
+        {
+            assertContents( tree );
+        }
+    }
+
+    @Test
+    void shouldNotLetSingleWriterInWhileConcurrentWriterIsOpen() throws Exception
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().withFixedSize( true ).build();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            Future<?> singleWriter;
+            try ( Writer<MutableLong,MutableLong> concurrentWriter = tree.concurrentWriter( NULL ) )
+            {
+                concurrentWriter.put( new MutableLong( 1 ), new MutableLong( 1 ) );
+                singleWriter = executor.submit( () ->
+                {
+                    try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+                    {
+                        writer.put( new MutableLong( 2 ), new MutableLong( 2 ) );
+                    }
+                    return null;
+                } );
+                assertThatThrownBy( () -> singleWriter.get( 100, TimeUnit.MILLISECONDS ) ).isInstanceOf( TimeoutException.class );
+            }
+            singleWriter.get();
+
+            try ( Seeker<MutableLong,MutableLong> seek = tree.seek( new MutableLong( 0 ), new MutableLong( 10 ), NULL ) )
+            {
+                assertThat( seek.next() ).isTrue();
+                assertThat( seek.key().longValue() ).isEqualTo( 1 );
+                assertThat( seek.next() ).isTrue();
+                assertThat( seek.key().longValue() ).isEqualTo( 2 );
+                assertThat( seek.next() ).isFalse();
+            }
+        }
+    }
+
+    @Test
+    void shouldNotCloseConcurrentWriterTwice() throws IOException
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().withFixedSize( true ).build();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            Writer<MutableLong,MutableLong> writer = tree.concurrentWriter( NULL );
+            writer.close();
+            assertThatThrownBy( writer::close ).isInstanceOf( IllegalStateException.class );
+        }
+    }
+
+    /**
+     * Each thread inserts its own keys interleaved with the keys of the other threads, so that they keep changing the same leaves,
+     * then removes every other one of them. All threads also add to a shared counter key.
+     */
+    private static void writeInBatches( GBPTree<MutableLong,MutableLong> tree, SimpleLongLayout layout, int thread ) throws IOException
+    {
+        MutableLong one = new MutableLong( 1 );
+        for ( int batch = 0; batch < KEYS_PER_THREAD; batch += BATCH_SIZE )
+        {
+            try ( Writer<MutableLong,MutableLong> writer = tree.concurrentWriter( NULL ) )
+            {
+                for ( int i = batch; i < batch + BATCH_SIZE; i++ )
+                {
+                    long key = keyOf( thread, i );
+                    writer.put( layout.key( key ), layout.value( key ) );
+                    writer.merge( new MutableLong( COUNTER_KEY ), one, ADDING_MERGER );
+                }
+            }
+        }
+        for ( int batch = 0; batch < KEYS_PER_THREAD; batch += BATCH_SIZE )
+        {
+            try ( Writer<MutableLong,MutableLong> writer = tree.concurrentWriter( NULL ) )
+            {
+                for ( int i = batch; i < batch + BATCH_SIZE; i += 2 )
+                {
+                    long key = keyOf( thread, i );
+                    MutableLong removed = writer.remove( layout.key( key ) );
+                    assertThat( removed ).isNotNull();
+                    assertThat( removed.longValue() ).isEqualTo( key );
+                }
+            }
+        }
+    }
+
+    private static long keyOf( int thread, int i )
+    {
+        return (long) i * THREADS + thread;
+    }
+
+    private static void assertContents( GBPTree<MutableLong,MutableLong> tree ) throws IOException
+    {
+        long expectedKey = 0;
+        try ( Seeker<MutableLong,MutableLong> seek = tree.seek( new MutableLong( 0 ), new MutableLong( COUNTER_KEY ), NULL ) )
+        {
+            while ( seek.next() )
+            {
+                // Every other key of every thread, i.e. every other run of THREADS keys, was removed
+                if ( (expectedKey / THREADS) % 2 == 0 )
+                {
+                    expectedKey += THREADS;
+                }
+                assertThat( seek.key().longValue() ).isEqualTo( expectedKey );
+                assertThat( seek.value().longValue() ).isEqualTo( expectedKey );
+                expectedKey++;
+            }
+        }
+        assertThat( expectedKey ).isEqualTo( (long) KEYS_PER_THREAD * THREADS );
+
+        try ( Seeker<MutableLong,MutableLong> seek = tree.seek( new MutableLong( COUNTER_KEY ), new MutableLong( COUNTER_KEY ), NULL ) )
+        {
+            assertThat( seek.next() ).isTrue();
+            assertThat( seek.value().longValue() ).isEqualTo( (long) KEYS_PER_THREAD * THREADS );
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.RandomExtension;
+import org.neo4j.test.extension.pagecache.PageCacheSupportExtension;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.PageCacheConfig;
+import org.neo4j.test.rule.RandomRule;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+@EphemeralTestDirectoryExtension
+@ExtendWith( RandomExtension.class )
+class GBPTreeKeyPrefixCompressionTest
+{
+    private static final int COUNT = 10_000;
+
+    @RegisterExtension
+    static PageCacheSupportExtension pageCacheExtension = new PageCacheSupportExtension( PageCacheConfig.config().withPageSize( 512 ) );
+    @Inject
+    private TestDirectory directory;
+    @Inject
+    private PageCache pageCache;
+    @Inject
+    private RandomRule random;
+
+    private final SimpleLongLayout plainLayout = SimpleLongLayout.longLayout().withFixedSize( false ).build();
+    private final SimpleLongLayout prefixLayout = SimpleLongLayout.longLayout().withFixedSize( false ).withKeyPrefixCompression( true ).build();
+    private final SimpleLongLayout offsetPrefixLayout =
+            SimpleLongLayout.longLayout().withFixedSize( false ).withKeyPrefixCompression( true ).withKeyPrefixCompressionOffset( 3 ).build();
+
+    @Test
+    void shouldUseLessSpaceWhenCompressingKeyPrefixes() throws IOException
+    {
+        long plainSize = insertSequentialKeys( directory.file( "plain" ), plainLayout );
+        long compressedSize = insertSequentialKeys( directory.file( "compressed" ), prefixLayout );
+
+        assertThat( compressedSize ).isLessThan( plainSize );
+    }
+
+    @Test
+    void shouldUseLessSpaceWhenBulkLoadingWithKeyPrefixCompression() throws IOException
+    {
+        long plainSize = bulkLoadSequentialKeys( directory.file( "plain" ), plainLayout );
+        long compressedSize = bulkLoadSequentialKeys( directory.file( "compressed" ), prefixLayout );
+
+        assertThat( compressedSize ).isLessThan( plainSize );
+    }
+
+    @Test
+    void shouldOnlyCompressKeyPrefixesAfterOffset() throws IOException
+    {
+        // Keys which only have their padding in common after the offset
+        SimpleLongLayout paddedLayout = SimpleLongLayout.longLayout().withFixedSize( false ).withKeyPadding( 8 ).build();
+        SimpleLongLayout paddedOffsetPrefixLayout = SimpleLongLayout.longLayout().withFixedSize( false ).withKeyPadding( 8 )
+                .withKeyPrefixCompression( true ).withKeyPrefixCompressionOffset( Long.BYTES ).build();
+        long plainSize = insertSequentialKeys( directory.file( "plain" ), paddedLayout );
+        long compressedSize = insertSequentialKeys( directory.file( "compressed" ), paddedOffsetPrefixLayout );
+
+        assertThat( compressedSize ).isLessThan( plainSize );
+    }
+
+    @Test
+    void shouldStayConsistentThroughRandomInsertsAndRemovals() throws IOException
+    {
+        shouldStayConsistentThroughRandomInsertsAndRemovals( prefixLayout );
+    }
+
+    @Test
+    void shouldStayConsistentThroughRandomInsertsAndRemovalsWithKeyPrefixCompressionOffset() throws IOException
+    {
+        shouldStayConsistentThroughRandomInsertsAndRemovals( offsetPrefixLayout );
+    }
+
+    private void shouldStayConsistentThroughRandomInsertsAndRemovals( SimpleLongLayout layout ) throws IOException
+    {
+        Map<Long,Long> expected = new TreeMap<>();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            for ( int round = 0; round < 10; round++ )
+            {
+                try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+                {
+                    for ( int i = 0; i < 1_000; i++ )
+                    {
+                        // Mix of keys sharing and not sharing leading bytes
+                        long key = random.nextBoolean() ? random.nextLong( COUNT ) : random.nextLong();
+                        if ( random.nextInt( 3 ) == 0 && !expected.isEmpty() )
+                        {
+                            writer.remove( new MutableLong( key ) );
+                            expected.remove( key );
+                        }
+                        else
+                        {
+                            writer.put( new MutableLong( key ), new MutableLong( key * 3 ) );
+                            expected.put( key, key * 3 );
+                        }
+                    }
+                }
+
+                assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+                assertContents( tree, expected );
+            }
+        }
+    }
+
+    @Test
+    void shouldOpenTreeCreatedWithoutKeyPrefixCompressionUsingLayoutWhichCompresses() throws IOException
+    {
+        shouldOpenTreeWithOtherKeyPrefixCompressionSetting( plainLayout, prefixLayout );
+    }
+
+    @Test
+    void shouldNotOpenTreeCreatedWithKeyPrefixCompressionUsingLayoutWhichDoesNotCompress() throws IOException
+    {
+        Path file = directory.file( "index" );
+        new GBPTreeBuilder<>( pageCache, file, prefixLayout ).build().close();
+
+        assertThatThrownBy( () -> new GBPTreeBuilder<>( pageCache, file, plainLayout ).build() ).isInstanceOf( MetadataMismatchException.class );
+    }
+
+    private void shouldOpenTreeWithOtherKeyPrefixCompressionSetting( SimpleLongLayout createLayout, SimpleLongLayout openLayout ) throws IOException
+    {
+        // given
+        Path file = directory.file( "index" );
+        Map<Long,Long> expected = new TreeMap<>();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, file, createLayout ).build() )
+        {
+            try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+            {
+                for ( long i = 0; i < COUNT; i += 2 )
+                {
+                    writer.put( new MutableLong( i ), new MutableLong( i * 3 ) );
+                    expected.put( i, i * 3 );
+                }
+            }
+            tree.checkpoint( IOLimiter.UNLIMITED, NULL );
+        }
+
+        // when
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, file, openLayout ).build() )
+        {
+            try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+            {
+                for ( long i = 1; i < COUNT; i += 2 )
+                {
+                    writer.put( new MutableLong( i ), new MutableLong( i * 3 ) );
+                    expected.put( i, i * 3 );
+                }
+            }
+
+            // then
+            assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+            assertContents( tree, expected );
+        }
+    }
+
+    private long insertSequentialKeys( Path file, SimpleLongLayout layout ) throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build() )
+        {
+            try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+            {
+                for ( long i = 0; i < COUNT; i++ )
+                {
+                    writer.put( new MutableLong( i ), new MutableLong( i ) );
+                }
+            }
+            assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+            tree.checkpoint( IOLimiter.UNLIMITED, NULL );
+        }
+        return directory.getFileSystem().getFileSize( file );
+    }
+
+    private long bulkLoadSequentialKeys( Path file, SimpleLongLayout layout ) throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build() )
+        {
+            try ( BulkLoader<MutableLong,MutableLong> bulkLoader = tree.bulkLoader( 1, NULL ) )
+            {
+                for ( long i = 0; i < COUNT; i++ )
+                {
+                    bulkLoader.add( new MutableLong( i ), new MutableLong( i ) );
+                }
+                bulkLoader.finish();
+            }
+            assertThat( tree.consistencyCheck( NULL ) ).isTrue();
+            tree.checkpoint( IOLimiter.UNLIMITED, NULL );
+        }
+        return directory.getFileSystem().getFileSize( file );
+    }
+
+    private static void assertContents( GBPTree<MutableLong,MutableLong> tree, Map<Long,Long> expected ) throws IOException
+    {
+        try ( Seeker<MutableLong,MutableLong> seek = tree.seek( new MutableLong( Long.MIN_VALUE ), new MutableLong( Long.MAX_VALUE ), NULL ) )
+        {
+            for ( Map.Entry<Long,Long> entry : expected.entrySet() )
+            {
+                assertThat( seek.next() ).isTrue();
+                assertThat( seek.key().longValue() ).isEqualTo( entry.getKey() );
+                assertThat( seek.value().longValue() ).isEqualTo( entry.getValue() );
+            }
+            assertThat( seek.next() ).isFalse();
+        }
+    }
+}
@@ -163,6 +163,45 @@ class GBPTreeLockTest
         assertOnlyOneSucceeds( lock::writerAndCleanerLock, lock::writerAndCleanerLock );
     }
 
+    @Test
+    void test_race_concurrentWriterVsConcurrentWriter() throws Throwable
+    {
+        assertBothSucceeds( lock::concurrentWriterLock, lock::concurrentWriterLock );
+    }
+
+    @Test
+    void test_race_concurrentWriterVsLU() throws Throwable
+    {
+        assertOnlyOneSucceeds( lock::concurrentWriterLock, lock::writerLock );
+    }
+
+    @Test
+    void test_race_concurrentWriterVsUL() throws Throwable
+    {
+        assertOnlyOneSucceeds( lock::concurrentWriterLock, lock::cleanerLock );
+    }
+
+    @Test
+    void writerShouldWaitForConcurrentWriters() throws Exception
+    {
+        lock.concurrentWriterLock();
+        lock.concurrentWriterLock();
+        lock.concurrentWriterUnlock();
+        assertBlock( lock::writerLock, lock::concurrentWriterUnlock );
+        assertThrows( IllegalStateException.class, lock::concurrentWriterUnlock );
+
+        Future<Object> concurrentWriter = executor.submit( () ->
+        {
+            lock.concurrentWriterLock();
+            return null;
+        } );
+        executor.untilWaitingIn( GBPTreeLock.class.getDeclaredMethod( "concurrentWriterLock" ) );
+        lock.writerUnlock();
+        concurrentWriter.get();
+        lock.concurrentWriterUnlock();
+        assertUU();
+    }
+
     private void assertOnlyOneSucceeds( Runnable lockAction1, Runnable lockAction2 ) throws Throwable
     {
         assertUU();
@@ -1371,7 +1371,7 @@ abstract class InternalTreeLogicTestBase<KEY, VALUE>
         long middle = i / 2;
         KEY middleKey = key( middle ); // Should be located in middle leaf
         VALUE oldValue = value( middle );
-        VALUE newValue = value( middle * 11 );
+        VALUE newValue = replacementValue( oldValue, middle * 11 );
         insert( middleKey, newValue );
 
         // THEN
@@ -1876,6 +1876,14 @@ abstract class InternalTreeLogicTestBase<KEY, VALUE>
         return layout.value( seed );
     }
 
+    /**
+     * Value which replaces the given value of an existing key in tests that expect the leaf to not underflow from it.
+     */
+    VALUE replacementValue( VALUE oldValue, long seed )
+    {
+        return value( seed );
+    }
+
     private long getSeed( KEY key )
     {
         return layout.keySeed( key );
@@ -1994,7 +2002,7 @@ abstract class InternalTreeLogicTestBase<KEY, VALUE>
         return result;
     }
 
-    private interface GenerationManager
+    interface GenerationManager
     {
         void checkpoint();
 
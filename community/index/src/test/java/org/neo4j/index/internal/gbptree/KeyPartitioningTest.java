@@ -73,6 +73,68 @@ class KeyPartitioningTest
         }
     }
 
+    @Test
+    void shouldPartitionEvenlyWhenSubtreesHaveEqualSize()
+    {
+        // given
+        Layout<PartitionKey,?> layout = layout();
+        int numberOfKeys = random.nextInt( 50, 200 );
+        List<PartitionKey> allKeys = keys( numberOfKeys );
+        KeyPartitioning<PartitionKey> partitioning = new KeyPartitioning<>( layout );
+
+        // when
+        int from = random.nextInt( numberOfKeys - 1 );
+        int to = random.nextInt( from, numberOfKeys );
+        int numberOfPartitions = from == to ? 1 : random.nextInt( 1, to - from );
+        List<Pair<PartitionKey,PartitionKey>> partitions =
+                partitioning.partition( allKeys, new ArrayList<>(), new PartitionKey( from ), new PartitionKey( to ), numberOfPartitions );
+
+        // then
+        assertEquals( numberOfPartitions, partitions.size() );
+        assertEquals( from, partitions.get( 0 ).getLeft().value );
+        assertEquals( to, partitions.get( partitions.size() - 1 ).getRight().value );
+        int diff = diff( partitions.get( 0 ) );
+        for ( int i = 1; i < partitions.size(); i++ )
+        {
+            Pair<PartitionKey,PartitionKey> prev = partitions.get( i - 1 );
+            Pair<PartitionKey,PartitionKey> current = partitions.get( i );
+            assertEquals( prev.getRight().value, current.getLeft().value );
+            assertTrue( abs( diff - diff( current ) ) <= 1 );
+        }
+    }
+
+    @Test
+    void shouldPartitionByEstimatedSubtreeSizes()
+    {
+        // given splitter keys 10, 20, ..., 90 where the subtrees below 50 are much larger than the ones above
+        Layout<PartitionKey,?> layout = layout();
+        List<PartitionKey> splitterKeys = new ArrayList<>();
+        for ( int i = 10; i < 100; i += 10 )
+        {
+            splitterKeys.add( new PartitionKey( i ) );
+        }
+        List<PartitionKey> subtreeKeys = new ArrayList<>();
+        for ( int i = 1; i < 50; i++ )
+        {
+            if ( i % 10 != 0 )
+            {
+                subtreeKeys.add( new PartitionKey( i ) );
+            }
+        }
+        KeyPartitioning<PartitionKey> partitioning = new KeyPartitioning<>( layout );
+
+        // when
+        List<Pair<PartitionKey,PartitionKey>> partitions =
+                partitioning.partition( splitterKeys, subtreeKeys, new PartitionKey( 0 ), new PartitionKey( 100 ), 2 );
+
+        // then the larger subtrees are spread over fewer partitions
+        assertEquals( 2, partitions.size() );
+        assertEquals( 0, partitions.get( 0 ).getLeft().value );
+        assertEquals( 30, partitions.get( 0 ).getRight().value );
+        assertEquals( 30, partitions.get( 1 ).getLeft().value );
+        assertEquals( 100, partitions.get( 1 ).getRight().value );
+    }
+
     private static int diff( Pair<PartitionKey,PartitionKey> partition )
     {
         return partition.getRight().value - partition.getLeft().value;
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.test.rule.RandomRule;
+
+class SeekCursorDynamicSizeKeyPrefixTest extends SeekCursorDynamicSizeTest
+{
+    @Override
+    TreeNode<RawBytes,RawBytes> getTreeNode( int pageSize, TestLayout<RawBytes,RawBytes> layout,
+            OffloadStore<RawBytes,RawBytes> offloadStore )
+    {
+        return new TreeNodeDynamicSize<>( pageSize, layout, offloadStore, true );
+    }
+
+    /**
+     * With this seed the seeker reads ahead from a position beyond the key count of the left leaf after it has been split and its keys
+     * have been re-compressed, before it notices the split and retries. Those offsets used to be zeroed by the re-compression.
+     */
+    @Test
+    @RandomRule.Seed( 1792365794880L )
+    void mustReadCompleteEntriesBeyondKeyCountOfRecompressedLeftLeafAfterSplit() throws Exception
+    {
+        mustContinueToNextLeafWhenRangeIsSplitIntoRightLeafAndPosToRight();
+    }
+}
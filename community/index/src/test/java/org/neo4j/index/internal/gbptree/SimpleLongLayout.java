@@ -28,6 +28,8 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 public class SimpleLongLayout extends TestLayout<MutableLong,MutableLong>
 {
     private final int keyPadding;
+    private final boolean compressKeyPrefixes;
+    private final int keyPrefixCompressionOffset;
     private String customNameAsMetaData;
 
     public static class Builder
@@ -38,6 +40,8 @@ public class SimpleLongLayout extends TestLayout<MutableLong,MutableLong>
         private int minorVersion;
         private String customNameAsMetaData = "test";
         private boolean fixedSize = true;
+        private boolean compressKeyPrefixes;
+        private int keyPrefixCompressionOffset;
 
         public Builder withKeyPadding( int keyPadding )
         {
@@ -75,9 +79,22 @@ public class SimpleLongLayout extends TestLayout<MutableLong,MutableLong>
             return this;
         }
 
+        public Builder withKeyPrefixCompression( boolean compressKeyPrefixes )
+        {
+            this.compressKeyPrefixes = compressKeyPrefixes;
+            return this;
+        }
+
+        public Builder withKeyPrefixCompressionOffset( int keyPrefixCompressionOffset )
+        {
+            this.keyPrefixCompressionOffset = keyPrefixCompressionOffset;
+            return this;
+        }
+
         public SimpleLongLayout build()
         {
-            return new SimpleLongLayout( keyPadding, customNameAsMetaData, fixedSize, identifier, majorVersion, minorVersion );
+            return new SimpleLongLayout( keyPadding, customNameAsMetaData, fixedSize, compressKeyPrefixes, keyPrefixCompressionOffset, identifier,
+                    majorVersion, minorVersion );
         }
     }
 
@@ -86,13 +103,28 @@ public class SimpleLongLayout extends TestLayout<MutableLong,MutableLong>
         return new Builder();
     }
 
-    private SimpleLongLayout( int keyPadding, String customNameAsMetaData, boolean fixedSize, int identifier, int majorVersion, int minorVersion )
+    private SimpleLongLayout( int keyPadding, String customNameAsMetaData, boolean fixedSize, boolean compressKeyPrefixes,
+            int keyPrefixCompressionOffset, int identifier, int majorVersion, int minorVersion )
     {
         super( fixedSize, identifier, majorVersion, minorVersion );
         this.keyPadding = keyPadding;
+        this.compressKeyPrefixes = compressKeyPrefixes;
+        this.keyPrefixCompressionOffset = keyPrefixCompressionOffset;
         this.customNameAsMetaData = customNameAsMetaData;
     }
 
+    @Override
+    public boolean compressKeyPrefixes()
+    {
+        return compressKeyPrefixes;
+    }
+
+    @Override
+    public int keyPrefixCompressionOffset()
+    {
+        return keyPrefixCompressionOffset;
+    }
+
     @Override
     public int compare( MutableLong o1, MutableLong o2 )
     {
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import org.neo4j.io.pagecache.PageCursor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+class TreeNodeDynamicSizeKeyPrefixTest extends TreeNodeTestBase<RawBytes,RawBytes>
+{
+    private final SimpleByteArrayLayout layout = new SimpleByteArrayLayout();
+
+    @Override
+    protected TestLayout<RawBytes,RawBytes> getLayout()
+    {
+        return layout;
+    }
+
+    @Override
+    protected TreeNodeDynamicSize<RawBytes,RawBytes> getNode( int pageSize, Layout<RawBytes,RawBytes> layout,
+            OffloadStore<RawBytes,RawBytes> offloadStore )
+    {
+        return new TreeNodeDynamicSize<>( pageSize, layout, offloadStore, true );
+    }
+
+    @Override
+    void assertAdditionalHeader( PageCursor cursor, TreeNode<RawBytes,RawBytes> node, int pageSize )
+    {
+        // When
+        int currentAllocSpace = ((TreeNodeDynamicSize) node).getAllocOffset( cursor );
+
+        // Then
+        assertEquals( pageSize, currentAllocSpace, "allocSpace point to end of page" );
+    }
+
+    @Test
+    void shouldCompressKeyPrefixOfLeaf() throws IOException
+    {
+        // given
+        TreeNodeDynamicSize<RawBytes,RawBytes> node = (TreeNodeDynamicSize<RawBytes,RawBytes>) this.node;
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        int keyCount = appendKeys( node, cursor, 1000, 10 );
+        int allocOffsetBefore = node.getAllocOffset( cursor );
+
+        // when
+        boolean compressed = node.compressKeyPrefix( cursor, keyCount );
+
+        // then
+        assertTrue( compressed );
+        assertTrue( node.getAllocOffset( cursor ) > allocOffsetBefore );
+        assertKeys( node, cursor, 1000, keyCount );
+        assertFalse( node.compressKeyPrefix( cursor, keyCount ), "Nothing more to gain from compressing again" );
+    }
+
+    @Test
+    void shouldInsertKeysWithAndWithoutCommonPrefixInCompressedLeaf() throws IOException
+    {
+        // given
+        TreeNodeDynamicSize<RawBytes,RawBytes> node = (TreeNodeDynamicSize<RawBytes,RawBytes>) this.node;
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        int keyCount = appendKeys( node, cursor, 1000, 10 );
+        node.compressKeyPrefix( cursor, keyCount );
+
+        // when
+        RawBytes sharingKey = layout.key( 1010 );
+        RawBytes otherKey = layout.key( Long.MAX_VALUE );
+        node.insertKeyValueAt( cursor, sharingKey, layout.value( 1010 ), keyCount, keyCount, STABLE_GENERATION, UNSTABLE_GENERATION, NULL );
+        node.insertKeyValueAt( cursor, otherKey, layout.value( 1 ), keyCount + 1, keyCount + 1, STABLE_GENERATION, UNSTABLE_GENERATION, NULL );
+        TreeNode.setKeyCount( cursor, keyCount + 2 );
+
+        // then
+        assertKeys( node, cursor, 1000, keyCount + 1 );
+        RawBytes readKey = layout.newKey();
+        RawBytes readValue = layout.newValue();
+        node.keyValueAt( cursor, readKey, readValue, keyCount + 1, NULL );
+        assertEquals( 0, layout.compare( otherKey, readKey ) );
+        assertEquals( 0, layout.compare( layout.value( 1 ), readValue ) );
+        assertEquals( "", node.checkMetaConsistency( cursor, keyCount + 2, LEAF, null ) );
+    }
+
+    @Test
+    void shouldMergeLeavesWithDifferentKeyPrefixes() throws IOException
+    {
+        // given
+        TreeNodeDynamicSize<RawBytes,RawBytes> node = (TreeNodeDynamicSize<RawBytes,RawBytes>) this.node;
+        PageCursor left = cursor;
+        PageCursor right = cursor.duplicate( 1 );
+        right.next();
+        long rightFirstSeed = 1L << 40;
+        node.initializeLeaf( left, STABLE_GENERATION, UNSTABLE_GENERATION );
+        node.initializeLeaf( right, STABLE_GENERATION, UNSTABLE_GENERATION );
+        int leftKeyCount = appendKeys( node, left, 1000, 5 );
+        int rightKeyCount = appendKeys( node, right, rightFirstSeed, 5 );
+        node.compressKeyPrefix( left, leftKeyCount );
+        node.compressKeyPrefix( right, rightKeyCount );
+
+        // when
+        assertTrue( node.canMergeLeaves( left, leftKeyCount, right, rightKeyCount ) );
+        node.copyKeyValuesFromLeftToRight( left, leftKeyCount, right, rightKeyCount );
+
+        // then
+        assertEquals( leftKeyCount + rightKeyCount, TreeNode.keyCount( right ) );
+        assertKeys( node, right, 1000, leftKeyCount );
+        RawBytes readKey = layout.newKey();
+        for ( int i = 0; i < rightKeyCount; i++ )
+        {
+            node.keyAt( right, readKey, leftKeyCount + i, LEAF, NULL );
+            assertEquals( rightFirstSeed + i, layout.keySeed( readKey ) );
+        }
+        assertEquals( "", node.checkMetaConsistency( right, leftKeyCount + rightKeyCount, LEAF, null ) );
+    }
+
+    @Test
+    void shouldMoveKeysBetweenLeavesWithDifferentKeyPrefixes() throws IOException
+    {
+        // given
+        TreeNodeDynamicSize<RawBytes,RawBytes> node = (TreeNodeDynamicSize<RawBytes,RawBytes>) this.node;
+        PageCursor left = cursor;
+        PageCursor right = cursor.duplicate( 1 );
+        right.next();
+        node.initializeLeaf( left, STABLE_GENERATION, UNSTABLE_GENERATION );
+        node.initializeLeaf( right, STABLE_GENERATION, UNSTABLE_GENERATION );
+        int leftKeyCount = appendKeys( node, left, 1000, 8 );
+        int rightKeyCount = appendKeys( node, right, 1L << 40, 2 );
+        node.compressKeyPrefix( left, leftKeyCount );
+        node.compressKeyPrefix( right, rightKeyCount );
+
+        // when
+        int keysToMove = 3;
+        node.moveKeyValuesFromLeftToRight( left, leftKeyCount, right, rightKeyCount, leftKeyCount - keysToMove );
+
+        // then
+        assertEquals( leftKeyCount - keysToMove, TreeNode.keyCount( left ) );
+        assertEquals( rightKeyCount + keysToMove, TreeNode.keyCount( right ) );
+        assertKeys( node, left, 1000, leftKeyCount - keysToMove );
+        RawBytes readKey = layout.newKey();
+        for ( int i = 0; i < keysToMove; i++ )
+        {
+            node.keyAt( right, readKey, i, LEAF, NULL );
+            assertEquals( 1000 + leftKeyCount - keysToMove + i, layout.keySeed( readKey ) );
+        }
+        assertEquals( "", node.checkMetaConsistency( left, leftKeyCount - keysToMove, LEAF, null ) );
+        assertEquals( "", node.checkMetaConsistency( right, rightKeyCount + keysToMove, LEAF, null ) );
+    }
+
+    private int appendKeys( TreeNode<RawBytes,RawBytes> node, PageCursor cursor, long firstSeed, int count ) throws IOException
+    {
+        for ( int i = 0; i < count; i++ )
+        {
+            node.insertKeyValueAt( cursor, layout.key( firstSeed + i ), layout.value( firstSeed + i ), i, i, STABLE_GENERATION, UNSTABLE_GENERATION,
+                    NULL );
+        }
+        TreeNode.setKeyCount( cursor, count );
+        return count;
+    }
+
+    private void assertKeys( TreeNode<RawBytes,RawBytes> node, PageCursor cursor, long firstSeed, int count )
+    {
+        RawBytes readKey = layout.newKey();
+        RawBytes readValue = layout.newValue();
+        for ( int i = 0; i < count; i++ )
+        {
+            node.keyValueAt( cursor, readKey, readValue, i, NULL );
+            assertEquals( 0, layout.compare( layout.key( firstSeed + i ), readKey ) );
+            assertEquals( 0, layout.compare( layout.value( firstSeed + i ), readValue ) );
+        }
+    }
+}
@@ -19,17 +19,22 @@
  */
 package org.neo4j.io.mem;
 
+import org.neo4j.internal.nativeimpl.HugePages;
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.memory.MemoryTracker;
 
 import java.lang.ref.Cleaner;
 
 import static org.neo4j.io.ByteUnit.kibiBytes;
+import static org.neo4j.io.ByteUnit.mebiBytes;
 import static org.neo4j.util.FeatureToggles.getInteger;
 
 /**
  * This memory allocator is allocating memory in large segments, called "grabs", and the memory returned by the memory
  * manager is page aligned, and plays well with transparent huge pages and other operating system optimisations.
+ * <p>
+ * The grabs can also be mapped directly as huge pages, according to a {@link HugePageMode}. Such grabs are larger, and aligned to huge page
+ * boundaries. If a grab cannot be mapped with the requested mode, the allocator falls back to the next mode for this and all following grabs.
  */
 public final class GrabAllocator implements MemoryAllocator
 {
@@ -48,7 +53,19 @@ public final class GrabAllocator implements MemoryAllocator
      */
     GrabAllocator( long expectedMaxMemory, MemoryTracker memoryTracker )
     {
-        this.grabs = new Grabs( expectedMaxMemory, memoryTracker );
+        this( expectedMaxMemory, memoryTracker, HugePageMode.DISABLED );
+    }
+
+    /**
+     * Create a new GrabAllocator that will try to back its memory with huge pages.
+     *
+     * @param expectedMaxMemory The maximum amount of memory that this memory manager is expected to allocate.
+     * @param memoryTracker memory usage tracker
+     * @param hugePageMode how to try to back the memory with huge pages.
+     */
+    GrabAllocator( long expectedMaxMemory, MemoryTracker memoryTracker, HugePageMode hugePageMode )
+    {
+        this.grabs = new Grabs( expectedMaxMemory, memoryTracker, hugePageMode );
         this.cleanable = globalCleaner.register( this, new GrabsDeallocator( grabs ) );
     }
 
@@ -64,6 +81,20 @@ public final class GrabAllocator implements MemoryAllocator
         return grabs.availableMemory();
     }
 
+    @Override
+    public synchronized long hugePageBackedMemory()
+    {
+        return grabs.hugePageBackedMemory();
+    }
+
+    /**
+     * @return the huge page mode that new grabs are currently mapped with. This is lower than the requested mode, if we had to fall back.
+     */
+    synchronized HugePageMode hugePageMode()
+    {
+        return grabs.hugePageMode;
+    }
+
     @Override
     public synchronized long allocateAligned( long bytes, long alignment )
     {
@@ -82,24 +113,30 @@ public final class GrabAllocator implements MemoryAllocator
         private final long address;
         private final long limit;
         private final MemoryTracker memoryTracker;
+        private final HugePageMode backing;
         private long nextPointer;
 
         Grab( Grab next, long size, MemoryTracker memoryTracker )
         {
-            this.next = next;
-            this.address = UnsafeUtil.allocateMemory( size, memoryTracker );
-            this.limit = address + size;
-            this.memoryTracker = memoryTracker;
-            nextPointer = address;
+            this( next, UnsafeUtil.allocateMemory( size, memoryTracker ), size, memoryTracker, HugePageMode.DISABLED );
+        }
+
+        /**
+         * Create a grab of memory that has been mapped as huge pages, and registered with {@link UnsafeUtil#registerExternalMemory}.
+         */
+        Grab( Grab next, long address, long size, MemoryTracker memoryTracker, HugePageMode backing )
+        {
+            this( next, address, address + size, address, memoryTracker, backing );
         }
 
-        Grab( Grab next, long address, long limit, long nextPointer, MemoryTracker memoryTracker )
+        Grab( Grab next, long address, long limit, long nextPointer, MemoryTracker memoryTracker, HugePageMode backing )
         {
             this.next = next;
             this.address = address;
             this.limit = limit;
             this.nextPointer = nextPointer;
             this.memoryTracker = memoryTracker;
+            this.backing = backing;
         }
 
         private static long nextAligned( long pointer, long alignment )
@@ -125,7 +162,15 @@ public final class GrabAllocator implements MemoryAllocator
 
         void free()
         {
-            UnsafeUtil.free( address, limit - address, memoryTracker );
+            if ( backing == HugePageMode.DISABLED )
+            {
+                UnsafeUtil.free( address, limit - address, memoryTracker );
+            }
+            else
+            {
+                UnsafeUtil.unregisterExternalMemory( address, limit - address, memoryTracker );
+                HugePages.unmap( address, limit - address );
+            }
         }
 
         boolean canAllocate( long bytes, long alignment )
@@ -133,9 +178,17 @@ public final class GrabAllocator implements MemoryAllocator
             return nextAligned( nextPointer, alignment ) + bytes <= limit;
         }
 
+        /**
+         * @return the size of the memory this grab holds, which is more than was asked for, when it has been rounded up to whole huge pages.
+         */
+        long size()
+        {
+            return limit - address;
+        }
+
         Grab setNext( Grab grab )
         {
-            return new Grab( grab, address, limit, nextPointer, memoryTracker );
+            return new Grab( grab, address, limit, nextPointer, memoryTracker, backing );
         }
 
         @Override
@@ -144,7 +197,7 @@ public final class GrabAllocator implements MemoryAllocator
             long size = limit - address;
             long reserve = nextPointer > limit ? 0 : limit - nextPointer;
             double use = (1.0 - reserve / ((double) size)) * 100.0;
-            return String.format( "Grab[size = %d bytes, reserve = %d bytes, use = %5.2f %%]", size, reserve, use );
+            return String.format( "Grab[size = %d bytes, reserve = %d bytes, use = %5.2f %%, huge pages = %s]", size, reserve, use, backing );
         }
     }
 
@@ -155,14 +208,79 @@ public final class GrabAllocator implements MemoryAllocator
          */
         private static final long GRAB_SIZE = getInteger( GrabAllocator.class, "GRAB_SIZE", (int) kibiBytes( 512 ) );
 
+        /**
+         * The amount of memory, in bytes, to grab in each Grab, when the grabs are mapped as huge pages. This is rounded up to a multiple of the
+         * huge page size.
+         */
+        private static final long HUGE_PAGE_GRAB_SIZE =
+                HugePages.roundUpToHugePageSize( getInteger( GrabAllocator.class, "HUGE_PAGE_GRAB_SIZE", (int) mebiBytes( 32 ) ) );
+
         private final MemoryTracker memoryTracker;
         private long expectedMaxMemory;
         private Grab head;
+        private HugePageMode hugePageMode;
+        private long grabSize;
 
-        Grabs( long expectedMaxMemory, MemoryTracker memoryTracker )
+        Grabs( long expectedMaxMemory, MemoryTracker memoryTracker, HugePageMode hugePageMode )
         {
             this.expectedMaxMemory = expectedMaxMemory;
             this.memoryTracker = memoryTracker;
+            setHugePageMode( HugePages.isAvailable() ? hugePageMode : HugePageMode.DISABLED );
+        }
+
+        private void setHugePageMode( HugePageMode hugePageMode )
+        {
+            this.hugePageMode = hugePageMode;
+            this.grabSize = hugePageMode == HugePageMode.DISABLED ? GRAB_SIZE : HUGE_PAGE_GRAB_SIZE;
+        }
+
+        /**
+         * Grab a new piece of memory, trying the current huge page mode first, and falling back to the next mode until the memory can be mapped.
+         */
+        private Grab newGrab( Grab next, long size )
+        {
+            while ( hugePageMode != HugePageMode.DISABLED )
+            {
+                long mappedSize = HugePages.roundUpToHugePageSize( size );
+                long address = hugePageMode == HugePageMode.HUGETLB ? HugePages.mapHugeTlb( mappedSize ) : HugePages.mapTransparent( mappedSize );
+                if ( address != 0 )
+                {
+                    UnsafeUtil.registerExternalMemory( address, mappedSize, memoryTracker );
+                    return new Grab( next, address, mappedSize, memoryTracker, hugePageMode );
+                }
+                setHugePageMode( HugePageMode.values()[hugePageMode.ordinal() + 1] );
+            }
+            return new Grab( next, size, memoryTracker );
+        }
+
+        long hugePageBackedMemory()
+        {
+            long hugeTlbBytes = 0;
+            int transparentGrabs = 0;
+            for ( Grab grab = head; grab != null; grab = grab.next )
+            {
+                if ( grab.backing == HugePageMode.HUGETLB )
+                {
+                    hugeTlbBytes += grab.limit - grab.address;
+                }
+                else if ( grab.backing == HugePageMode.TRANSPARENT )
+                {
+                    transparentGrabs++;
+                }
+            }
+            long[] addresses = new long[transparentGrabs];
+            long[] lengths = new long[transparentGrabs];
+            int i = 0;
+            for ( Grab grab = head; grab != null; grab = grab.next )
+            {
+                if ( grab.backing == HugePageMode.TRANSPARENT )
+                {
+                    addresses[i] = grab.address;
+                    lengths[i] = grab.limit - grab.address;
+                    i++;
+                }
+            }
+            return hugeTlbBytes + HugePages.transparentHugePageBytes( addresses, lengths );
         }
 
         long usedMemory()
@@ -206,23 +324,23 @@ public final class GrabAllocator implements MemoryAllocator
             {
                 throw new IllegalArgumentException( "Invalid alignment: " + alignment + ". Alignment must be positive." );
             }
-            long grabSize = Math.min( GRAB_SIZE, expectedMaxMemory );
+            long grabSize = Math.min( this.grabSize, expectedMaxMemory );
             long maxAllocationSize = bytes + alignment - 1;
-            if ( maxAllocationSize > GRAB_SIZE )
+            if ( maxAllocationSize > this.grabSize )
             {
                 // This is a huge allocation. Put it in its own grab and keep any existing grab at the head.
                 grabSize = bytes;
                 Grab nextGrab = head == null ? null : head.next;
-                Grab allocationGrab = new Grab( nextGrab, grabSize, memoryTracker );
+                Grab allocationGrab = newGrab( nextGrab, grabSize );
                 if ( !allocationGrab.canAllocate( bytes, alignment ) )
                 {
                     allocationGrab.free();
                     grabSize = maxAllocationSize;
-                    allocationGrab = new Grab( nextGrab, grabSize, memoryTracker );
+                    allocationGrab = newGrab( nextGrab, grabSize );
                 }
                 long allocation = allocationGrab.allocate( bytes, alignment );
                 head = head == null ? allocationGrab : head.setNext( allocationGrab );
-                expectedMaxMemory -= bytes;
+                expectedMaxMemory -= allocationGrab.size();
                 return allocation;
             }
 
@@ -231,18 +349,18 @@ public final class GrabAllocator implements MemoryAllocator
                 if ( grabSize < maxAllocationSize )
                 {
                     grabSize = bytes;
-                    Grab grab = new Grab( head, grabSize, memoryTracker );
+                    Grab grab = newGrab( head, grabSize );
                     if ( grab.canAllocate( bytes, alignment ) )
                     {
-                        expectedMaxMemory -= grabSize;
+                        expectedMaxMemory -= grab.size();
                         head = grab;
                         return head.allocate( bytes, alignment );
                     }
                     grab.free();
                     grabSize = maxAllocationSize;
                 }
-                head = new Grab( head, grabSize, memoryTracker );
-                expectedMaxMemory -= grabSize;
+                head = newGrab( head, grabSize );
+                expectedMaxMemory -= head.size();
             }
             return head.allocate( bytes, alignment );
         }
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.mem;
+
+/**
+ * How a {@link MemoryAllocator} should try to back its memory with 2 MiB huge pages, to reduce the number of TLB misses when accessing it.
+ * If the memory cannot be mapped as asked, the allocator falls back to the next mode in this list, and ultimately to regular memory.
+ */
+public enum HugePageMode
+{
+    /**
+     * Map memory from the huge page pool of the kernel, which has to be reserved up front, e.g. through {@code vm.nr_hugepages}.
+     */
+    HUGETLB,
+    /**
+     * Map memory aligned to huge page boundaries, and advise the kernel to back it with transparent huge pages.
+     */
+    TRANSPARENT,
+    /**
+     * Allocate regular memory.
+     */
+    DISABLED
+}
@@ -31,6 +31,11 @@ public interface MemoryAllocator
         return new GrabAllocator( expectedMemory, memoryTracker );
     }
 
+    static MemoryAllocator createAllocator( long expectedMemory, MemoryTracker memoryTracker, HugePageMode hugePageMode )
+    {
+        return new GrabAllocator( expectedMemory, memoryTracker, hugePageMode );
+    }
+
     /**
      * @return The sum, in bytes, of all the memory currently allocating through this allocator.
      */
@@ -41,6 +46,11 @@ public interface MemoryAllocator
      */
     long availableMemory();
 
+    /**
+     * @return The amount of the allocated memory, in bytes, that is currently backed by huge pages.
+     */
+    long hugePageBackedMemory();
+
     /**
      * Allocate a contiguous, aligned region of memory of the given size in bytes.
      * @param bytes the number of bytes to allocate.
@@ -44,5 +44,20 @@ public enum PageCacheOpenOptions implements OpenOption
      * Please check that your platform is supported before providing this option.
      * @see ExtendedOpenOption for details.
      */
-    DIRECT
+    DIRECT,
+
+    /**
+     * Map the file with adaptive read-ahead.
+     * Read cursors of the mapped file will detect sequential and strided access, and fault in the pages ahead of them with vectored reads.
+     * Like the other options, this only has an effect when the file is not already mapped.
+     */
+    READ_AHEAD,
+
+    /**
+     * Map the file with its pages compressed on disk, if the page swapper factory of the page cache supports compression.
+     * The pages stay uncompressed in the page cache. Existing files that were created without this option stay uncompressed, and existing files that
+     * were created with it are mapped compressed also without it.
+     * Like the other options, this only has an effect when the file is not already mapped.
+     */
+    COMPRESSED
 }
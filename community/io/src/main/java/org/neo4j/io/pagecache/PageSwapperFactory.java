@@ -63,6 +63,27 @@ public interface PageSwapperFactory
             boolean createIfNotExist,
             boolean useDirectIO ) throws IOException;
 
+    /**
+     * Create a PageSwapper for the given file, that may store the pages of the file compressed.
+     * <p>
+     * Factories that do not support compression create a regular PageSwapper, and so do factories that support it, for existing files that were
+     * not created compressed. Whether an existing file is compressed depends on the file alone, so factories that support compression map existing
+     * compressed files compressed regardless of this flag, and factories that do not support it fail to map them.
+     *
+     * @param compressed When true, the PageSwapper should store the pages compressed, if the factory supports it.
+     * @see #createPageSwapper(Path, int, PageEvictionCallback, boolean, boolean)
+     */
+    default PageSwapper createPageSwapper(
+            Path path,
+            int filePageSize,
+            PageEvictionCallback onEviction,
+            boolean createIfNotExist,
+            boolean useDirectIO,
+            boolean compressed ) throws IOException
+    {
+        return createPageSwapper( path, filePageSize, onEviction, createIfNotExist, useDirectIO );
+    }
+
     /**
      * Close and release any resources associated with this PageSwapperFactory, that it may have opened or acquired
      * during its construction or use.
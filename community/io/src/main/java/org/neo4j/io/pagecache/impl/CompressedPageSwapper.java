@@ -0,0 +1,839 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.zip.CRC32;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.memory.ByteBuffers;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+/**
+ * A page swapper that stores the pages of its file compressed, while they stay uncompressed in the page cache.
+ * <p>
+ * The file is divided into blocks of {@link #BLOCK_SIZE} bytes. The first two blocks hold two copies of the header, which are written alternately, and
+ * the copy with a valid checksum and the highest sequence number is the current one. The header points to the page offset translation table, which
+ * holds the block offset and stored length of every page in the file. Pages that do not compress to less than the file page size are stored as they are.
+ * <p>
+ * Pages are written copy-on-write, to free blocks. The file holds two copies of the translation table, and the header refers to the active one. When the
+ * swapper is forced, the chunks of the table that changed since the spare copy was last written are written to the spare copy, which then becomes the
+ * active one with the next header. The table is checksummed per chunk, so a force only writes and checksums the chunks that changed. The blocks that a
+ * page write replaces only become free once a header that no longer refers to them has been forced, so the file is always consistent as of its last
+ * force, just like recovery expects the store files to be as of the last checkpoint.
+ */
+class CompressedPageSwapper extends SingleFilePageSwapper
+{
+    static final int BLOCK_SIZE = 512;
+    static final long MAGIC = 0x50434D505253534EL;
+    private static final int VERSION = 1;
+    private static final int HEADER_BLOCKS = 2;
+    private static final int SCRATCH_SIZE = 64 * 1024;
+
+    // Layout of a header.
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 8;
+    private static final int HEADER_PAGE_SIZE = 12;
+    private static final int HEADER_SEQUENCE = 16;
+    private static final int HEADER_TABLE_BLOCK = 24;
+    private static final int HEADER_SPARE_TABLE_BLOCK = 32;
+    private static final int HEADER_TABLE_CAPACITY = 40;
+    private static final int HEADER_PAGE_COUNT = 48;
+    private static final int HEADER_TABLE_CHECKSUM = 56;
+    private static final int HEADER_CHECKSUM = 64;
+
+    // The translation table is written, and checksummed, in chunks of one block.
+    private static final int ENTRIES_PER_CHUNK = BLOCK_SIZE / Long.BYTES;
+    private static final long CHUNK_CHECKSUM_MIX = 0x9E3779B97F4A7C15L;
+
+    // A translation table entry holds the block offset of a page in the high bits, and its stored length in the low bits. Zero means the page
+    // has not been written, since no page is ever stored in the header blocks.
+    private static final int LENGTH_BITS = 20;
+    private static final long LENGTH_MASK = (1L << LENGTH_BITS) - 1;
+    static final int MAX_FILE_PAGE_SIZE = (int) LENGTH_MASK;
+
+    private final int filePageSize;
+    private final PageCompression compression;
+    private final PageCacheTracer pageCacheTracer;
+    private final int scratchSize;
+    private final ConcurrentLinkedQueue<ByteBuffer> scratchBuffers = new ConcurrentLinkedQueue<>();
+    // Only one force, or truncate, at a time.
+    private final Object forceLock = new Object();
+    // Guards the allocation of blocks, and the updates to the translation table.
+    private final Object lock = new Object();
+    // Free extents, by their length in blocks.
+    private final TreeMap<Long,LongArrayList> freeExtents = new TreeMap<>();
+    // Pairs of block offset and length of the extents that are released, but still referenced by the last forced header.
+    private LongArrayList releasedExtents = new LongArrayList();
+    private volatile AtomicLongArray table;
+    private volatile long lastPageId;
+    private long endBlock;
+    private long sequence;
+    private boolean dirty;
+    // The chunks of the table that changed since the last force.
+    private BitSet dirtyChunks = new BitSet();
+    // The chunks of the table that the spare copy is missing, because they changed before the last force, which only wrote them to the active copy.
+    private BitSet staleSpareChunks = new BitSet();
+    // The following are only accessed while holding the force lock. The table capacity is in entries, and both copies have room for that many.
+    private long activeTableBlock;
+    private long spareTableBlock;
+    private long tableCapacity;
+    private long[] chunkChecksums = new long[0];
+    private long tableChecksum;
+
+    CompressedPageSwapper( Path path, FileSystemAbstraction fs, int filePageSize, PageEvictionCallback onEviction, PageCompression compression,
+            PageCacheTracer pageCacheTracer ) throws IOException
+    {
+        super( path, fs, filePageSize, onEviction, false );
+        this.filePageSize = filePageSize;
+        this.compression = compression;
+        this.pageCacheTracer = pageCacheTracer;
+        this.scratchSize = Math.max( SCRATCH_SIZE, (int) (blocksFor( filePageSize ) * BLOCK_SIZE) );
+        try
+        {
+            if ( getCurrentFileSize() == 0 )
+            {
+                initialise();
+            }
+            else
+            {
+                load();
+            }
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            try
+            {
+                super.close();
+            }
+            catch ( IOException ioe )
+            {
+                e.addSuppressed( ioe );
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return {@code true} if the given file starts with the header of a compressed page file.
+     */
+    static boolean isCompressedFile( FileSystemAbstraction fs, Path path ) throws IOException
+    {
+        ByteBuffer headers = ByteBuffer.allocate( HEADER_BLOCKS * BLOCK_SIZE );
+        try ( StoreChannel channel = fs.read( path ) )
+        {
+            channel.read( headers, 0 );
+        }
+        return headers.getLong( HEADER_MAGIC ) == MAGIC || headers.getLong( BLOCK_SIZE + HEADER_MAGIC ) == MAGIC;
+    }
+
+    private void initialise() throws IOException
+    {
+        synchronized ( lock )
+        {
+            table = new AtomicLongArray( 16 );
+            lastPageId = PageCursor.UNBOUND_PAGE_ID;
+            endBlock = HEADER_BLOCKS;
+            dirty = true;
+        }
+        force();
+    }
+
+    private void load() throws IOException
+    {
+        ByteBuffer scratch = acquireScratch();
+        try
+        {
+            readAt( 0, UnsafeUtil.getDirectByteBufferAddress( scratch ), HEADER_BLOCKS * BLOCK_SIZE );
+            int current = -1;
+            for ( int slot = 0; slot < HEADER_BLOCKS; slot++ )
+            {
+                int header = slot * BLOCK_SIZE;
+                if ( isValidHeader( scratch, header ) && (current == -1 || scratch.getLong( header + HEADER_SEQUENCE ) > sequence) )
+                {
+                    current = header;
+                    sequence = scratch.getLong( header + HEADER_SEQUENCE );
+                }
+            }
+            if ( current == -1 )
+            {
+                throw new IOException( "File " + path() + " does not have a valid compressed page file header." );
+            }
+            int storedPageSize = scratch.getInt( current + HEADER_PAGE_SIZE );
+            if ( storedPageSize != filePageSize )
+            {
+                throw new IOException( "File " + path() + " is compressed with a file page size of " + storedPageSize + " bytes, but was mapped with a " +
+                        "file page size of " + filePageSize + " bytes." );
+            }
+            long pageCount = scratch.getLong( current + HEADER_PAGE_COUNT );
+            long capacity = scratch.getLong( current + HEADER_TABLE_CAPACITY );
+            long storedTableChecksum = scratch.getLong( current + HEADER_TABLE_CHECKSUM );
+            if ( pageCount > capacity || capacity % ENTRIES_PER_CHUNK != 0 || capacity > Integer.MAX_VALUE )
+            {
+                throw new IOException( "The page translation table of file " + path() + " is corrupt." );
+            }
+            activeTableBlock = scratch.getLong( current + HEADER_TABLE_BLOCK );
+            spareTableBlock = scratch.getLong( current + HEADER_SPARE_TABLE_BLOCK );
+            tableCapacity = capacity;
+
+            AtomicLongArray loaded = new AtomicLongArray( (int) Math.max( capacity, 16 ) );
+            chunkChecksums = new long[chunksFor( capacity )];
+            tableChecksum = readTable( scratch, loaded, chunksFor( pageCount ) );
+            if ( tableChecksum != storedTableChecksum )
+            {
+                throw new IOException( "The page translation table of file " + path() + " is corrupt." );
+            }
+            synchronized ( lock )
+            {
+                table = loaded;
+                lastPageId = pageCount - 1;
+                // Which chunks of the spare copy are behind the active one is not persisted, and the spare copy may never have been written at
+                // all, so the first force writes all of it.
+                staleSpareChunks.set( 0, chunksFor( capacity ) );
+                rebuildFreeExtents( loaded, pageCount );
+            }
+        }
+        finally
+        {
+            releaseScratch( scratch );
+        }
+    }
+
+    private static boolean isValidHeader( ByteBuffer buffer, int header )
+    {
+        if ( buffer.getLong( header + HEADER_MAGIC ) != MAGIC || buffer.getInt( header + HEADER_VERSION ) != VERSION )
+        {
+            return false;
+        }
+        return buffer.getLong( header + HEADER_CHECKSUM ) == checksum( buffer, header, HEADER_CHECKSUM );
+    }
+
+    private static long checksum( ByteBuffer buffer, int offset, int length )
+    {
+        CRC32 crc = new CRC32();
+        crc.update( buffer.duplicate().clear().position( offset ).limit( offset + length ) );
+        return crc.getValue();
+    }
+
+    private long readTable( ByteBuffer scratch, AtomicLongArray loaded, int chunks ) throws IOException
+    {
+        long checksum = 0;
+        int chunksPerRead = scratchSize / BLOCK_SIZE;
+        for ( int first = 0; first < chunks; first += chunksPerRead )
+        {
+            int count = Math.min( chunksPerRead, chunks - first );
+            int bytes = count * BLOCK_SIZE;
+            if ( readAt( (activeTableBlock + first) * BLOCK_SIZE, UnsafeUtil.getDirectByteBufferAddress( scratch ), bytes ) != bytes )
+            {
+                throw new IOException( "The page translation table of file " + path() + " is truncated." );
+            }
+            for ( int i = 0; i < count; i++ )
+            {
+                int chunk = first + i;
+                for ( int entry = 0; entry < ENTRIES_PER_CHUNK; entry++ )
+                {
+                    loaded.set( chunk * ENTRIES_PER_CHUNK + entry, scratch.getLong( i * BLOCK_SIZE + entry * Long.BYTES ) );
+                }
+                chunkChecksums[chunk] = chunkChecksum( scratch, i * BLOCK_SIZE, chunk );
+                checksum ^= chunkChecksums[chunk];
+            }
+        }
+        return checksum;
+    }
+
+    /**
+     * The checksum of the table is the combination of the checksums of its chunks, so it can be updated for the chunks that changed alone. Chunks that
+     * are all zeros, like the ones that were never written, do not contribute to it, and the position of each chunk is mixed into its checksum.
+     */
+    private static long chunkChecksum( ByteBuffer buffer, int offset, int chunk )
+    {
+        boolean empty = true;
+        for ( int i = 0; i < BLOCK_SIZE && empty; i += Long.BYTES )
+        {
+            empty = buffer.getLong( offset + i ) == 0;
+        }
+        if ( empty )
+        {
+            return 0;
+        }
+        CRC32 crc = new CRC32();
+        crc.update( buffer.duplicate().clear().position( offset ).limit( offset + BLOCK_SIZE ) );
+        return (crc.getValue() + 1) * CHUNK_CHECKSUM_MIX + chunk;
+    }
+
+    private void rebuildFreeExtents( AtomicLongArray loaded, long pageCount )
+    {
+        // Everything that is not referenced by the translation table, or is one of the copies of the table itself, is free.
+        long[] used = new long[(int) pageCount];
+        int count = 0;
+        for ( int i = 0; i < pageCount; i++ )
+        {
+            long entry = loaded.get( i );
+            if ( entry != 0 )
+            {
+                used[count++] = entry;
+            }
+        }
+        // The entries sort by their block offset.
+        Arrays.sort( used, 0, count );
+        long tableBlocks = tableCapacity / ENTRIES_PER_CHUNK;
+        long[] tables = tableBlocks == 0 ? new long[0]
+                                         : new long[]{Math.min( activeTableBlock, spareTableBlock ), Math.max( activeTableBlock, spareTableBlock )};
+        long nextBlock = HEADER_BLOCKS;
+        int i = 0;
+        int t = 0;
+        while ( i < count || t < tables.length )
+        {
+            long start;
+            long blocks;
+            if ( t < tables.length && (i == count || tables[t] < blockOf( used[i] )) )
+            {
+                start = tables[t++];
+                blocks = tableBlocks;
+            }
+            else
+            {
+                start = blockOf( used[i] );
+                blocks = blocksFor( lengthOf( used[i] ) );
+                i++;
+            }
+            if ( start > nextBlock )
+            {
+                addFreeExtent( nextBlock, start - nextBlock );
+            }
+            nextBlock = Math.max( nextBlock, start + blocks );
+        }
+        endBlock = nextBlock;
+    }
+
+    @Override
+    public long read( long filePageId, long bufferAddress, int bufferLength ) throws IOException
+    {
+        long bytes = 0;
+        int pages = Math.max( bufferLength / filePageSize, 1 );
+        for ( int i = 0; i < pages; i++ )
+        {
+            bytes += readPage( filePageId + i, bufferAddress + (long) i * filePageSize );
+        }
+        int rest = bufferLength - pages * filePageSize;
+        if ( rest > 0 )
+        {
+            UnsafeUtil.setMemory( bufferAddress + (long) pages * filePageSize, rest, (byte) 0 );
+        }
+        return bytes;
+    }
+
+    @Override
+    long readVectored( long startFilePageId, long[] bufferAddresses, int[] bufferLengths, int length ) throws IOException
+    {
+        long bytes = 0;
+        long filePageId = startFilePageId;
+        for ( int i = 0; i < length; i++ )
+        {
+            bytes += read( filePageId, bufferAddresses[i], bufferLengths[i] );
+            filePageId += Math.max( bufferLengths[i] / filePageSize, 1 );
+        }
+        return bytes;
+    }
+
+    private int readPage( long filePageId, long bufferAddress ) throws IOException
+    {
+        AtomicLongArray entries = table;
+        long entry = filePageId < entries.length() ? entries.get( (int) filePageId ) : 0;
+        if ( entry == 0 )
+        {
+            // Pages that were never written read as zeros, just like the holes in a sparse file, and pages beyond the end of the file read nothing.
+            UnsafeUtil.setMemory( bufferAddress, filePageSize, (byte) 0 );
+            return filePageId <= lastPageId ? filePageSize : 0;
+        }
+        long fileOffset = blockOf( entry ) * BLOCK_SIZE;
+        int storedLength = lengthOf( entry );
+        if ( storedLength == filePageSize )
+        {
+            // The page did not compress, and was stored as it is.
+            return readFully( fileOffset, bufferAddress, filePageSize );
+        }
+        ByteBuffer scratch = acquireScratch();
+        try
+        {
+            long scratchAddress = UnsafeUtil.getDirectByteBufferAddress( scratch );
+            readFully( fileOffset, scratchAddress, storedLength );
+            long startNanos = System.nanoTime();
+            compression.decompress( scratchAddress, storedLength, bufferAddress, filePageSize );
+            pageCacheTracer.decompressionNanos( System.nanoTime() - startNanos );
+            pageCacheTracer.pagesDecompressed( 1 );
+            return filePageSize;
+        }
+        finally
+        {
+            releaseScratch( scratch );
+        }
+    }
+
+    private int readFully( long fileOffset, long bufferAddress, int length ) throws IOException
+    {
+        int read = readAt( fileOffset, bufferAddress, length );
+        if ( read != length )
+        {
+            throw new IOException( "Read " + read + " of " + length + " bytes of a compressed page from fileOffset " + fileOffset + " in " + path() + "." );
+        }
+        return read;
+    }
+
+    @Override
+    public long write( long filePageId, long bufferAddress, int bufferLength ) throws IOException
+    {
+        int pages = Math.max( bufferLength / filePageSize, 1 );
+        for ( int i = 0; i < pages; i++ )
+        {
+            writePage( filePageId + i, bufferAddress + (long) i * filePageSize );
+        }
+        return bufferLength;
+    }
+
+    @Override
+    long writeVectored( long startFilePageId, long[] bufferAddresses, int[] bufferLengths, int length ) throws IOException
+    {
+        long bytes = 0;
+        long filePageId = startFilePageId;
+        for ( int i = 0; i < length; i++ )
+        {
+            bytes += write( filePageId, bufferAddresses[i], bufferLengths[i] );
+            filePageId += Math.max( bufferLengths[i] / filePageSize, 1 );
+        }
+        return bytes;
+    }
+
+    private void writePage( long filePageId, long bufferAddress ) throws IOException
+    {
+        ByteBuffer scratch = acquireScratch();
+        try
+        {
+            long scratchAddress = UnsafeUtil.getDirectByteBufferAddress( scratch );
+            long compressedLength = compression.compress( bufferAddress, filePageSize, scratchAddress, filePageSize - 1 );
+            int storedLength = compressedLength < 0 ? filePageSize : (int) compressedLength;
+            long source = compressedLength < 0 ? bufferAddress : scratchAddress;
+
+            long block;
+            synchronized ( lock )
+            {
+                block = allocateBlocks( blocksFor( storedLength ) );
+            }
+            writeAt( block * BLOCK_SIZE, source, storedLength );
+            synchronized ( lock )
+            {
+                long previous = setEntry( filePageId, (block << LENGTH_BITS) | storedLength );
+                if ( previous != 0 )
+                {
+                    releasedExtents.add( blockOf( previous ) );
+                    releasedExtents.add( blocksFor( lengthOf( previous ) ) );
+                }
+                dirty = true;
+            }
+            pageCacheTracer.bytesCompressed( filePageSize );
+            pageCacheTracer.compressedBytesWritten( storedLength );
+        }
+        finally
+        {
+            releaseScratch( scratch );
+        }
+    }
+
+    // Must be called while holding the lock.
+    private long setEntry( long filePageId, long entry )
+    {
+        if ( filePageId >= Integer.MAX_VALUE )
+        {
+            throw new IllegalArgumentException( "Compressed files cannot have more than " + Integer.MAX_VALUE + " pages." );
+        }
+        AtomicLongArray entries = table;
+        if ( filePageId >= entries.length() )
+        {
+            int newLength = (int) Math.min( Math.max( (long) entries.length() * 2, filePageId + 1 ), Integer.MAX_VALUE );
+            AtomicLongArray grown = new AtomicLongArray( newLength );
+            for ( int i = 0; i < entries.length(); i++ )
+            {
+                grown.set( i, entries.get( i ) );
+            }
+            table = grown;
+            entries = grown;
+        }
+        if ( filePageId > lastPageId )
+        {
+            lastPageId = filePageId;
+        }
+        dirtyChunks.set( (int) (filePageId / ENTRIES_PER_CHUNK) );
+        return entries.getAndSet( (int) filePageId, entry );
+    }
+
+    // Must be called while holding the lock.
+    private long allocateBlocks( long blocks )
+    {
+        Map.Entry<Long,LongArrayList> free = freeExtents.ceilingEntry( blocks );
+        if ( free == null )
+        {
+            long block = endBlock;
+            endBlock += blocks;
+            return block;
+        }
+        LongArrayList blockOffsets = free.getValue();
+        long block = blockOffsets.removeAtIndex( blockOffsets.size() - 1 );
+        if ( blockOffsets.isEmpty() )
+        {
+            freeExtents.remove( free.getKey() );
+        }
+        long rest = free.getKey() - blocks;
+        if ( rest > 0 )
+        {
+            addFreeExtent( block + blocks, rest );
+        }
+        return block;
+    }
+
+    // Must be called while holding the lock.
+    private void addFreeExtent( long block, long blocks )
+    {
+        freeExtents.computeIfAbsent( blocks, length -> new LongArrayList() ).add( block );
+    }
+
+    @Override
+    public void force() throws IOException
+    {
+        synchronized ( forceLock )
+        {
+            long pageCount;
+            long newCapacity = tableCapacity;
+            long newActiveTableBlock = spareTableBlock;
+            long newSpareTableBlock = activeTableBlock;
+            boolean grown = false;
+            BitSet changed;
+            int[] chunks;
+            long[] entries;
+            LongArrayList committing;
+            synchronized ( lock )
+            {
+                if ( !dirty )
+                {
+                    super.force();
+                    return;
+                }
+                pageCount = lastPageId + 1;
+                changed = dirtyChunks;
+                dirtyChunks = new BitSet();
+                BitSet writing = (BitSet) changed.clone();
+                writing.or( staleSpareChunks );
+                if ( pageCount > tableCapacity )
+                {
+                    // Both copies of the table are moved to larger extents, which may hold stale data, so they are written in full, the new active copy
+                    // by this force, and the spare copy by the next one. This doubles the capacity, so it happens a logarithmic number of times.
+                    newCapacity = Math.max( tableCapacity * 2, ENTRIES_PER_CHUNK );
+                    while ( newCapacity < pageCount )
+                    {
+                        newCapacity *= 2;
+                    }
+                    newActiveTableBlock = allocateBlocks( newCapacity / ENTRIES_PER_CHUNK );
+                    newSpareTableBlock = allocateBlocks( newCapacity / ENTRIES_PER_CHUNK );
+                    writing.set( 0, chunksFor( newCapacity ) );
+                    grown = true;
+                }
+                chunks = writing.stream().toArray();
+                entries = new long[chunks.length * ENTRIES_PER_CHUNK];
+                AtomicLongArray current = table;
+                for ( int i = 0; i < chunks.length; i++ )
+                {
+                    int first = chunks[i] * ENTRIES_PER_CHUNK;
+                    int last = Math.min( first + ENTRIES_PER_CHUNK, current.length() );
+                    for ( int pageId = first; pageId < last; pageId++ )
+                    {
+                        entries[i * ENTRIES_PER_CHUNK + pageId - first] = current.get( pageId );
+                    }
+                }
+                // The extents released so far are no longer referenced once the new header is durable.
+                committing = releasedExtents;
+                releasedExtents = new LongArrayList();
+                dirty = false;
+            }
+
+            long[] newChunkChecksums = grown ? Arrays.copyOf( chunkChecksums, chunksFor( newCapacity ) ) : chunkChecksums;
+            long[] writtenChecksums = new long[chunks.length];
+            try
+            {
+                long newTableChecksum = writeTable( newActiveTableBlock, chunks, entries, writtenChecksums, newChunkChecksums, tableChecksum );
+                super.force();
+                writeHeader( sequence + 1, newActiveTableBlock, newSpareTableBlock, newCapacity, pageCount, newTableChecksum );
+                super.force();
+                tableChecksum = newTableChecksum;
+            }
+            catch ( IOException | RuntimeException e )
+            {
+                synchronized ( lock )
+                {
+                    // The previous header may still be the current one, so nothing can be freed before the next successful force, and the chunks that
+                    // changed must be written again.
+                    releasedExtents.addAll( committing );
+                    if ( grown )
+                    {
+                        releasedExtents.add( newActiveTableBlock );
+                        releasedExtents.add( newCapacity / ENTRIES_PER_CHUNK );
+                        releasedExtents.add( newSpareTableBlock );
+                        releasedExtents.add( newCapacity / ENTRIES_PER_CHUNK );
+                    }
+                    dirtyChunks.or( changed );
+                    dirty = true;
+                }
+                throw e;
+            }
+
+            for ( int i = 0; i < chunks.length; i++ )
+            {
+                newChunkChecksums[chunks[i]] = writtenChecksums[i];
+            }
+            chunkChecksums = newChunkChecksums;
+            synchronized ( lock )
+            {
+                if ( grown && tableCapacity != 0 )
+                {
+                    committing.add( activeTableBlock );
+                    committing.add( tableCapacity / ENTRIES_PER_CHUNK );
+                    committing.add( spareTableBlock );
+                    committing.add( tableCapacity / ENTRIES_PER_CHUNK );
+                }
+                sequence++;
+                activeTableBlock = newActiveTableBlock;
+                spareTableBlock = newSpareTableBlock;
+                tableCapacity = newCapacity;
+                // The spare copy is now the previously active one, which is missing the chunks that changed since the last force, or everything if
+                // the table was moved.
+                if ( grown )
+                {
+                    staleSpareChunks = new BitSet();
+                    staleSpareChunks.set( 0, chunksFor( newCapacity ) );
+                }
+                else
+                {
+                    staleSpareChunks = changed;
+                }
+                for ( int i = 0; i < committing.size(); i += 2 )
+                {
+                    addFreeExtent( committing.get( i ), committing.get( i + 1 ) );
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the given chunks of the table to the table copy at the given block, coalescing consecutive chunks into single writes.
+     *
+     * @return the checksum of the table copy, once the chunks are written.
+     */
+    private long writeTable( long block, int[] chunks, long[] entries, long[] writtenChecksums, long[] currentChecksums, long checksum ) throws IOException
+    {
+        ByteBuffer scratch = acquireScratch();
+        try
+        {
+            int chunksPerWrite = scratchSize / BLOCK_SIZE;
+            int first = 0;
+            while ( first < chunks.length )
+            {
+                int count = 1;
+                while ( first + count < chunks.length && count < chunksPerWrite && chunks[first + count] == chunks[first] + count )
+                {
+                    count++;
+                }
+                for ( int i = 0; i < count; i++ )
+                {
+                    int chunkOffset = i * BLOCK_SIZE;
+                    for ( int entry = 0; entry < ENTRIES_PER_CHUNK; entry++ )
+                    {
+                        scratch.putLong( chunkOffset + entry * Long.BYTES, entries[(first + i) * ENTRIES_PER_CHUNK + entry] );
+                    }
+                    int chunk = chunks[first + i];
+                    writtenChecksums[first + i] = chunkChecksum( scratch, chunkOffset, chunk );
+                    checksum ^= currentChecksums[chunk] ^ writtenChecksums[first + i];
+                }
+                writeAt( (block + chunks[first]) * BLOCK_SIZE, UnsafeUtil.getDirectByteBufferAddress( scratch ), count * BLOCK_SIZE );
+                first += count;
+            }
+        }
+        finally
+        {
+            releaseScratch( scratch );
+        }
+        return checksum;
+    }
+
+    private void writeHeader( long newSequence, long newTableBlock, long newSpareTableBlock, long newCapacity, long pageCount, long newTableChecksum )
+            throws IOException
+    {
+        ByteBuffer scratch = acquireScratch();
+        try
+        {
+            scratch.clear();
+            for ( int i = 0; i < BLOCK_SIZE; i += Long.BYTES )
+            {
+                scratch.putLong( i, 0 );
+            }
+            scratch.putLong( HEADER_MAGIC, MAGIC );
+            scratch.putInt( HEADER_VERSION, VERSION );
+            scratch.putInt( HEADER_PAGE_SIZE, filePageSize );
+            scratch.putLong( HEADER_SEQUENCE, newSequence );
+            scratch.putLong( HEADER_TABLE_BLOCK, newTableBlock );
+            scratch.putLong( HEADER_SPARE_TABLE_BLOCK, newSpareTableBlock );
+            scratch.putLong( HEADER_TABLE_CAPACITY, newCapacity );
+            scratch.putLong( HEADER_PAGE_COUNT, pageCount );
+            scratch.putLong( HEADER_TABLE_CHECKSUM, newTableChecksum );
+            scratch.putLong( HEADER_CHECKSUM, checksum( scratch, 0, HEADER_CHECKSUM ) );
+            // Alternate between the two header slots, so a torn header write leaves the previous header intact.
+            long slot = newSequence % HEADER_BLOCKS;
+            writeAt( slot * BLOCK_SIZE, UnsafeUtil.getDirectByteBufferAddress( scratch ), BLOCK_SIZE );
+        }
+        finally
+        {
+            releaseScratch( scratch );
+        }
+    }
+
+    @Override
+    public long getLastPageId()
+    {
+        return lastPageId;
+    }
+
+    @Override
+    public void truncate() throws IOException
+    {
+        synchronized ( forceLock )
+        {
+            synchronized ( lock )
+            {
+                table = new AtomicLongArray( 16 );
+                lastPageId = PageCursor.UNBOUND_PAGE_ID;
+                freeExtents.clear();
+                releasedExtents = new LongArrayList();
+                endBlock = HEADER_BLOCKS;
+                dirtyChunks = new BitSet();
+                staleSpareChunks = new BitSet();
+                dirty = true;
+            }
+            activeTableBlock = 0;
+            spareTableBlock = 0;
+            tableCapacity = 0;
+            chunkChecksums = new long[0];
+            tableChecksum = 0;
+            super.truncate();
+            force();
+        }
+    }
+
+    @Override
+    public boolean canAllocate()
+    {
+        return false;
+    }
+
+    @Override
+    public void allocate( long newFileSize )
+    {
+        // The size of a compressed file does not follow from its number of pages, so there is nothing to preallocate.
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            boolean uncommitted;
+            synchronized ( lock )
+            {
+                uncommitted = dirty;
+            }
+            if ( uncommitted )
+            {
+                force();
+            }
+        }
+        finally
+        {
+            super.close();
+            ByteBuffer scratch;
+            while ( (scratch = scratchBuffers.poll()) != null )
+            {
+                ByteBuffers.releaseBuffer( scratch, INSTANCE );
+            }
+        }
+    }
+
+    private ByteBuffer acquireScratch()
+    {
+        ByteBuffer scratch = scratchBuffers.poll();
+        return scratch != null ? scratch : ByteBuffers.allocateDirect( scratchSize, INSTANCE );
+    }
+
+    private void releaseScratch( ByteBuffer scratch )
+    {
+        scratchBuffers.offer( scratch );
+    }
+
+    private static long blockOf( long entry )
+    {
+        return entry >>> LENGTH_BITS;
+    }
+
+    private static int lengthOf( long entry )
+    {
+        return (int) (entry & LENGTH_MASK);
+    }
+
+    private static long blocksFor( long bytes )
+    {
+        return (bytes + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    }
+
+    private static int chunksFor( long entries )
+    {
+        return (int) ((entries + ENTRIES_PER_CHUNK - 1) / ENTRIES_PER_CHUNK);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CompressedPageSwapper{" +
+                "filePageSize=" + filePageSize +
+                ", compression=" + compression +
+                ", file=" + path() +
+                '}';
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+
+/**
+ * A factory that creates {@link CompressedPageSwapper} instances for the files that are mapped with compression, and leaves all other files to the
+ * given factory.
+ * <p>
+ * Whether an existing file is compressed is decided by the file itself, not by how it is mapped: existing compressed files are always mapped by a
+ * {@link CompressedPageSwapper}, also when compression is not requested or is {@link PageCompression#NONE}, in which case their pages are written with
+ * {@link PageCompression#ZSTD_FAST}. Files that already exist without being compressed keep being mapped by the given factory, so compression can be
+ * enabled for existing stores. New files mapped with direct I/O, or with file pages too large to track in the page offset translation table, are never
+ * compressed.
+ */
+public class CompressedPageSwapperFactory implements PageSwapperFactory
+{
+    private final FileSystemAbstraction fs;
+    private final PageSwapperFactory delegate;
+    private final PageCompression compression;
+    private final PageCacheTracer pageCacheTracer;
+
+    public CompressedPageSwapperFactory( FileSystemAbstraction fs, PageSwapperFactory delegate, PageCompression compression,
+            PageCacheTracer pageCacheTracer )
+    {
+        this.fs = fs;
+        this.delegate = delegate;
+        this.compression = compression;
+        this.pageCacheTracer = pageCacheTracer;
+    }
+
+    /**
+     * Wrap the given factory so that the page caches it is used by can map the compressed files of an existing store, without creating any new compressed
+     * files. This is for the page caches of tools, that must be able to open any store.
+     *
+     * @return a factory that reads compressed files, or the given factory if compression is not available on this platform, in which case mapping a
+     * compressed file fails.
+     */
+    public static PageSwapperFactory readingCompressedFiles( FileSystemAbstraction fs, PageSwapperFactory delegate, PageCacheTracer pageCacheTracer )
+    {
+        return PageCompression.isAvailable() ? new CompressedPageSwapperFactory( fs, delegate, PageCompression.NONE, pageCacheTracer ) : delegate;
+    }
+
+    @Override
+    public PageSwapper createPageSwapper(
+            Path file,
+            int filePageSize,
+            PageEvictionCallback onEviction,
+            boolean createIfNotExist,
+            boolean useDirectIO ) throws IOException
+    {
+        return createPageSwapper( file, filePageSize, onEviction, createIfNotExist, useDirectIO, false );
+    }
+
+    @Override
+    public PageSwapper createPageSwapper(
+            Path file,
+            int filePageSize,
+            PageEvictionCallback onEviction,
+            boolean createIfNotExist,
+            boolean useDirectIO,
+            boolean compressed ) throws IOException
+    {
+        boolean exists = fs.fileExists( file );
+        if ( !createIfNotExist && !exists )
+        {
+            throw new NoSuchFileException( file.toString(), null, "Cannot map non-existing file" );
+        }
+        if ( exists && fs.getFileSize( file ) > 0 )
+        {
+            if ( !CompressedPageSwapper.isCompressedFile( fs, file ) )
+            {
+                return delegate.createPageSwapper( file, filePageSize, onEviction, createIfNotExist, useDirectIO );
+            }
+            if ( useDirectIO )
+            {
+                throw new IOException( "File " + file + " is compressed, and cannot be mapped with direct I/O." );
+            }
+            return newCompressedPageSwapper( file, filePageSize, onEviction );
+        }
+        if ( !compressed || useDirectIO || compression == PageCompression.NONE || filePageSize > CompressedPageSwapper.MAX_FILE_PAGE_SIZE )
+        {
+            return delegate.createPageSwapper( file, filePageSize, onEviction, createIfNotExist, useDirectIO );
+        }
+        return newCompressedPageSwapper( file, filePageSize, onEviction );
+    }
+
+    private PageSwapper newCompressedPageSwapper( Path file, int filePageSize, PageEvictionCallback onEviction ) throws IOException
+    {
+        PageCompression writeCompression = compression == PageCompression.NONE ? PageCompression.ZSTD_FAST : compression;
+        return new CompressedPageSwapper( file, fs, filePageSize, onEviction, writeCompression, pageCacheTracer );
+    }
+
+    /**
+     * @return {@code true} if the given file is a compressed page file, that is read through a page offset translation table.
+     */
+    public static boolean isCompressedFile( FileSystemAbstraction fs, Path file ) throws IOException
+    {
+        return fs.fileExists( file ) && fs.getFileSize( file ) > 0 && CompressedPageSwapper.isCompressedFile( fs, file );
+    }
+
+    /**
+     * Fail the mapping of a compressed file by a factory that cannot read compressed files, rather than reading the compressed blocks as pages.
+     */
+    static void checkNotCompressed( FileSystemAbstraction fs, Path file ) throws IOException
+    {
+        if ( isCompressedFile( fs, file ) )
+        {
+            throw new IOException( "File " + file + " is compressed, but the page cache is not configured to read compressed files. Compressed files " +
+                    "can only be mapped by a page cache with page compression support, which requires the native compression library to be available." );
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        delegate.close();
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.neo4j.internal.nativeimpl.IOUring;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.util.FeatureToggles;
+
+import static org.neo4j.io.fs.FileSystemAbstraction.INVALID_FILE_DESCRIPTOR;
+
+/**
+ * A page swapper that submits its reads and writes through Linux io_uring, using rings borrowed from its {@link IOUringPageSwapperFactory}.
+ * <p>
+ * Vectored reads and writes, as issued by flushing and by multi-page faults, are split into several operations that are submitted as a single batch, so the
+ * kernel can keep all of them in flight at the same time, instead of working through one long request. A batch is awaited before the call returns, so
+ * callers observe the same synchronous semantics as with the {@link SingleFilePageSwapper}.
+ * <p>
+ * Any operation that fails, or transfers fewer bytes than requested, is redone through the file channel. This keeps the established handling of short
+ * transfers, end of file, interruption and error reporting in one place. The channel is pinned while its file descriptor is used by the ring, and the
+ * operations are also redone through the channel if it was closed in the meantime, since the descriptor may then refer to some other file.
+ */
+class IOUringPageSwapper extends SingleFilePageSwapper
+{
+    /**
+     * The smallest number of buffers that are worth a separate operation, when splitting up a vectored read or write.
+     */
+    private static final int MIN_BUFFERS_PER_OPERATION = FeatureToggles.getInteger( IOUringPageSwapper.class, "MIN_BUFFERS_PER_OPERATION", 4 );
+
+    private final IOUringPageSwapperFactory factory;
+
+    IOUringPageSwapper( Path path, FileSystemAbstraction fs, int filePageSize, PageEvictionCallback onEviction, boolean useDirectIO,
+            IOUringPageSwapperFactory factory ) throws IOException
+    {
+        super( path, fs, filePageSize, onEviction, useDirectIO );
+        this.factory = factory;
+    }
+
+    @Override
+    int swapIn( long bufferAddress, long fileOffset, int bufferSize ) throws IOException
+    {
+        if ( transferSingle( false, bufferAddress, fileOffset, bufferSize ) )
+        {
+            return bufferSize;
+        }
+        return super.swapIn( bufferAddress, fileOffset, bufferSize );
+    }
+
+    @Override
+    int swapOut( long bufferAddress, long fileOffset, int bufferLength ) throws IOException
+    {
+        if ( transferSingle( true, bufferAddress, fileOffset, bufferLength ) )
+        {
+            return bufferLength;
+        }
+        return super.swapOut( bufferAddress, fileOffset, bufferLength );
+    }
+
+    @Override
+    long readVectored( long startFilePageId, long[] bufferAddresses, int[] bufferLengths, int length ) throws IOException
+    {
+        long fileOffset = pageIdToPosition( startFilePageId );
+        if ( transferVectored( false, fileOffset, bufferAddresses, bufferLengths, length ) )
+        {
+            return countBuffersLengths( bufferLengths, length );
+        }
+        return super.readVectored( startFilePageId, bufferAddresses, bufferLengths, length );
+    }
+
+    @Override
+    long writeVectored( long startFilePageId, long[] bufferAddresses, int[] bufferLengths, int length ) throws IOException
+    {
+        long fileOffset = pageIdToPosition( startFilePageId );
+        long bytesToWrite = countBuffersLengths( bufferLengths, length );
+        increaseFileSizeTo( fileOffset + bytesToWrite );
+        if ( transferVectored( true, fileOffset, bufferAddresses, bufferLengths, length ) )
+        {
+            return bytesToWrite;
+        }
+        return super.writeVectored( startFilePageId, bufferAddresses, bufferLengths, length );
+    }
+
+    private boolean transferSingle( boolean write, long bufferAddress, long fileOffset, int bufferLength )
+    {
+        int fd = pinFileDescriptor();
+        boolean complete = false;
+        try
+        {
+            complete = fd != INVALID_FILE_DESCRIPTOR && transferSingle( fd, write, bufferAddress, fileOffset, bufferLength );
+        }
+        finally
+        {
+            complete &= unpinFileDescriptor( fd );
+        }
+        return complete;
+    }
+
+    private boolean transferSingle( int fd, boolean write, long bufferAddress, long fileOffset, int bufferLength )
+    {
+        IOUringPageSwapperFactory.Ring ring = factory.acquireRing();
+        if ( ring == null )
+        {
+            return false;
+        }
+        try
+        {
+            ring.singleAddress[0] = bufferAddress;
+            ring.singleLength[0] = bufferLength;
+            int operation = queue( ring.uring, write, fd, fileOffset, ring.singleAddress, ring.singleLength, 0, 1 );
+            ring.uring.submitAndAwait( ring.results );
+            boolean complete = ring.results[operation] == bufferLength;
+            factory.releaseRing( ring );
+            return complete;
+        }
+        catch ( IOException e )
+        {
+            factory.discardRing( ring );
+            return false;
+        }
+    }
+
+    private boolean transferVectored( boolean write, long fileOffset, long[] bufferAddresses, int[] bufferLengths, int length )
+    {
+        int fd = pinFileDescriptor();
+        boolean complete = false;
+        try
+        {
+            complete = fd != INVALID_FILE_DESCRIPTOR && transferVectored( fd, write, fileOffset, bufferAddresses, bufferLengths, length );
+        }
+        finally
+        {
+            complete &= unpinFileDescriptor( fd );
+        }
+        return complete;
+    }
+
+    private boolean transferVectored( int fd, boolean write, long fileOffset, long[] bufferAddresses, int[] bufferLengths, int length )
+    {
+        IOUringPageSwapperFactory.Ring ring = factory.acquireRing();
+        if ( ring == null )
+        {
+            return false;
+        }
+        IOUring uring = ring.uring;
+        int capacity = uring.capacity();
+        // Spread the buffers over as many operations as a batch can hold, but don't make the operations so small that their overhead dominates.
+        int buffersPerOperation = Math.min( uring.maxVectors(), Math.max( MIN_BUFFERS_PER_OPERATION, (length + capacity - 1) / capacity ) );
+        boolean complete = true;
+        try
+        {
+            int buffer = 0;
+            long offset = fileOffset;
+            while ( buffer < length )
+            {
+                while ( buffer < length && uring.queued() < capacity )
+                {
+                    int count = Math.min( buffersPerOperation, length - buffer );
+                    long bytes = 0;
+                    for ( int i = buffer; i < buffer + count; i++ )
+                    {
+                        bytes += bufferLengths[i];
+                    }
+                    int operation = queue( uring, write, fd, offset, bufferAddresses, bufferLengths, buffer, count );
+                    ring.expectedBytes[operation] = bytes;
+                    offset += bytes;
+                    buffer += count;
+                }
+                int operations = uring.queued();
+                uring.submitAndAwait( ring.results );
+                for ( int i = 0; i < operations; i++ )
+                {
+                    complete &= ring.results[i] == ring.expectedBytes[i];
+                }
+            }
+            factory.releaseRing( ring );
+            return complete;
+        }
+        catch ( IOException e )
+        {
+            factory.discardRing( ring );
+            return false;
+        }
+    }
+
+    private static int queue( IOUring uring, boolean write, int fd, long fileOffset, long[] addresses, int[] lengths, int from, int count )
+    {
+        return write ? uring.queueWrite( fd, fileOffset, addresses, lengths, from, count )
+                     : uring.queueRead( fd, fileOffset, addresses, lengths, from, count );
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.neo4j.internal.nativeimpl.IOUring;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.util.FeatureToggles;
+
+/**
+ * A factory for {@link IOUringPageSwapper} instances, which do their file I/O through Linux io_uring.
+ * <p>
+ * The factory owns a pool of rings that are shared by all of its swappers. A thread borrows a ring for the duration of a single read or write, so the number
+ * of rings is bounded by the number of threads concurrently doing page cache I/O. All rings are closed when the factory is closed.
+ *
+ * @see IOUringPageSwapper
+ */
+public class IOUringPageSwapperFactory implements PageSwapperFactory
+{
+    private static final int RING_ENTRIES = FeatureToggles.getInteger( IOUringPageSwapperFactory.class, "RING_ENTRIES", 64 );
+    private static final int MAX_VECTORS_PER_OPERATION = FeatureToggles.getInteger( IOUringPageSwapperFactory.class, "MAX_VECTORS_PER_OPERATION", 64 );
+
+    private final FileSystemAbstraction fs;
+    private final ConcurrentLinkedQueue<Ring> idleRings = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    public IOUringPageSwapperFactory( FileSystemAbstraction fs )
+    {
+        this.fs = fs;
+    }
+
+    /**
+     * @return {@code true} if io_uring is usable on this system, otherwise swappers from this factory will always fall back to file channel I/O.
+     */
+    public static boolean isAvailable()
+    {
+        return IOUring.isAvailable();
+    }
+
+    @Override
+    public PageSwapper createPageSwapper(
+            Path file,
+            int filePageSize,
+            PageEvictionCallback onEviction,
+            boolean createIfNotExist,
+            boolean useDirectIO ) throws IOException
+    {
+        if ( !createIfNotExist && !fs.fileExists( file ) )
+        {
+            throw new NoSuchFileException( file.toString(), null, "Cannot map non-existing file" );
+        }
+        CompressedPageSwapperFactory.checkNotCompressed( fs, file );
+        return new IOUringPageSwapper( file, fs, filePageSize, onEviction, useDirectIO, this );
+    }
+
+    /**
+     * Borrow a ring from the pool, or set up a new one if the pool is empty.
+     *
+     * @return a ring for the exclusive use of the calling thread, or {@code null} if no ring could be set up.
+     */
+    Ring acquireRing()
+    {
+        Ring ring = idleRings.poll();
+        if ( ring == null && !closed && IOUring.isAvailable() )
+        {
+            try
+            {
+                ring = new Ring( IOUring.open( RING_ENTRIES, MAX_VECTORS_PER_OPERATION ) );
+            }
+            catch ( IOException e )
+            {
+                // Most likely we've run into the locked memory limit. The caller will fall back to file channel I/O.
+                return null;
+            }
+        }
+        return ring;
+    }
+
+    /**
+     * Return a ring to the pool, after a batch of operations has completed.
+     */
+    void releaseRing( Ring ring )
+    {
+        idleRings.offer( ring );
+        if ( closed )
+        {
+            closeIdleRings();
+        }
+    }
+
+    /**
+     * Close a ring that must not be reused, because a batch of operations on it failed in an unknown state.
+     */
+    void discardRing( Ring ring )
+    {
+        ring.uring.close();
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+        closeIdleRings();
+    }
+
+    private void closeIdleRings()
+    {
+        Ring ring;
+        while ( (ring = idleRings.poll()) != null )
+        {
+            ring.uring.close();
+        }
+    }
+
+    /**
+     * A ring, together with the per-batch bookkeeping arrays used by the swapper.
+     */
+    static final class Ring
+    {
+        final IOUring uring;
+        final int[] results;
+        final long[] expectedBytes;
+        final long[] singleAddress = new long[1];
+        final int[] singleLength = new int[1];
+
+        Ring( IOUring uring )
+        {
+            this.uring = uring;
+            this.results = new int[uring.capacity()];
+            this.expectedBytes = new long[uring.capacity()];
+        }
+    }
+}
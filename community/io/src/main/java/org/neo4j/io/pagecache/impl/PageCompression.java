@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.util.Native;
+
+import java.io.IOException;
+
+/**
+ * The compression that the {@link CompressedPageSwapper} applies to pages, before it writes them to their files.
+ * <p>
+ * Pages are always decompressed with the same codec, regardless of the level they were compressed with, so the level can be changed for existing files.
+ */
+public enum PageCompression
+{
+    /**
+     * Pages are not compressed, and files are mapped with the regular page swappers.
+     */
+    NONE( 0 ),
+    /**
+     * Zstandard with one of its fast, negative, levels. This compresses and decompresses at speeds comparable to LZ4, at a lower compression ratio than
+     * {@link #ZSTD}.
+     */
+    ZSTD_FAST( -1 ),
+    /**
+     * Zstandard with its default level, for a better compression ratio at a higher cost for writing pages.
+     */
+    ZSTD( 3 );
+
+    private final int level;
+
+    PageCompression( int level )
+    {
+        this.level = level;
+    }
+
+    /**
+     * @return {@code true} if the native compression library can be loaded on this platform.
+     */
+    public static boolean isAvailable()
+    {
+        try
+        {
+            Native.load();
+            return Native.isLoaded();
+        }
+        catch ( Throwable t )
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Compress the given page into the given buffer.
+     *
+     * @return the number of compressed bytes, or -1 if the page does not compress to fewer bytes than the capacity of the target buffer.
+     */
+    long compress( long sourceAddress, int sourceLength, long targetAddress, int targetCapacity )
+    {
+        long compressed = Zstd.compressUnsafe( targetAddress, targetCapacity, sourceAddress, sourceLength, level );
+        return Zstd.isError( compressed ) ? -1 : compressed;
+    }
+
+    /**
+     * Decompress the given compressed page into the given page buffer, which must be exactly as large as the page was before it was compressed.
+     */
+    void decompress( long sourceAddress, int sourceLength, long targetAddress, int targetLength ) throws IOException
+    {
+        long decompressed = Zstd.decompressUnsafe( targetAddress, targetLength, sourceAddress, sourceLength );
+        if ( Zstd.isError( decompressed ) )
+        {
+            throw new IOException( "Failed to decompress page: " + Zstd.getErrorName( decompressed ) );
+        }
+        if ( decompressed != targetLength )
+        {
+            throw new IOException( "Decompressed page is " + decompressed + " bytes, but expected " + targetLength + " bytes." );
+        }
+    }
+}
@@ -31,6 +31,8 @@ import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.neo4j.internal.nativeimpl.NativeAccess;
 import org.neo4j.internal.nativeimpl.NativeAccessProvider;
@@ -46,6 +48,7 @@ import org.neo4j.util.FeatureToggles;
 
 import static org.apache.commons.lang3.SystemUtils.IS_OS_LINUX;
 import static org.neo4j.io.fs.DefaultFileSystemAbstraction.WRITE_OPTIONS;
+import static org.neo4j.io.fs.FileSystemAbstraction.INVALID_FILE_DESCRIPTOR;
 
 /**
  * A simple PageSwapper implementation that directs all page swapping to a
@@ -97,6 +100,9 @@ public class SingleFilePageSwapper implements PageSwapper
 
     // Guarded by synchronized(this). See tryReopen() and close().
     private boolean closed;
+    // Held shared while I/O is done directly on the file descriptor of the channel, and exclusively while the channel is reopened or closed.
+    // See pinFileDescriptor().
+    private final ReadWriteLock channelLock = new ReentrantReadWriteLock();
 
     @SuppressWarnings( "unused" ) // Accessed through unsafe
     private volatile long fileSize;
@@ -160,7 +166,7 @@ public class SingleFilePageSwapper implements PageSwapper
         }
     }
 
-    private void increaseFileSizeTo( long newFileSize )
+    void increaseFileSizeTo( long newFileSize )
     {
         long currentFileSize;
         do
@@ -171,7 +177,40 @@ public class SingleFilePageSwapper implements PageSwapper
                 this, FILE_SIZE_OFFSET, currentFileSize, newFileSize ) );
     }
 
-    private long getCurrentFileSize()
+    /**
+     * Pin the channel of this swapper, so that it is neither reopened nor closed by {@link #tryReopen(ClosedChannelException)} or {@link #close()}
+     * until {@link #unpinFileDescriptor(int)} is called, and get its file descriptor. The pin is taken even if the returned descriptor is invalid.
+     *
+     * @return the file descriptor of the channel, or {@link FileSystemAbstraction#INVALID_FILE_DESCRIPTOR} if the channel is closed or has none.
+     */
+    int pinFileDescriptor()
+    {
+        channelLock.readLock().lock();
+        return channel.isOpen() ? channel.getFileDescriptor() : INVALID_FILE_DESCRIPTOR;
+    }
+
+    /**
+     * Release the pin taken by {@link #pinFileDescriptor()}.
+     * <p>
+     * The channel can still be closed by an interrupt while pinned, after which its descriptor may be reused for another file. The caller must therefore
+     * redo its I/O through the channel, unless this method confirms that the descriptor still belongs to the open channel.
+     *
+     * @param fd the file descriptor returned by {@link #pinFileDescriptor()}.
+     * @return {@code true} if the channel is still open with the given file descriptor.
+     */
+    boolean unpinFileDescriptor( int fd )
+    {
+        try
+        {
+            return fd != INVALID_FILE_DESCRIPTOR && channel.isOpen() && channel.getFileDescriptor() == fd;
+        }
+        finally
+        {
+            channelLock.readLock().unlock();
+        }
+    }
+
+    long getCurrentFileSize()
     {
         return UnsafeUtil.getLongVolatile( this, FILE_SIZE_OFFSET );
     }
@@ -204,7 +243,7 @@ public class SingleFilePageSwapper implements PageSwapper
         }
     }
 
-    private int swapIn( long bufferAddress, long fileOffset, int bufferSize ) throws IOException
+    int swapIn( long bufferAddress, long fileOffset, int bufferSize ) throws IOException
     {
         int readTotal = 0;
         try
@@ -240,7 +279,7 @@ public class SingleFilePageSwapper implements PageSwapper
         return "Read failed after " + readTotal + " of " + size + " bytes from fileOffset " + fileOffset + ".";
     }
 
-    private int swapOut( long bufferAddress, long fileOffset, int bufferLength ) throws IOException
+    int swapOut( long bufferAddress, long fileOffset, int bufferLength ) throws IOException
     {
         try
         {
@@ -311,11 +350,7 @@ public class SingleFilePageSwapper implements PageSwapper
             {
                 try
                 {
-                    if ( hasPositionLock )
-                    {
-                        return readPositionedVectoredToFileChannel( startFilePageId, bufferAddresses, bufferLengths, length );
-                    }
-                    return readPositionedVectoredFallback( startFilePageId, bufferAddresses, bufferLengths, length );
+                    return readVectored( startFilePageId, bufferAddresses, bufferLengths, length );
                 }
                 catch ( ClosedChannelException e )
                 {
@@ -327,6 +362,15 @@ public class SingleFilePageSwapper implements PageSwapper
         return -1;
     }
 
+    long readVectored( long startFilePageId, long[] bufferAddresses, int[] bufferLengths, int length ) throws IOException
+    {
+        if ( hasPositionLock )
+        {
+            return readPositionedVectoredToFileChannel( startFilePageId, bufferAddresses, bufferLengths, length );
+        }
+        return readPositionedVectoredFallback( startFilePageId, bufferAddresses, bufferLengths, length );
+    }
+
     private long readPositionedVectoredToFileChannel( long startFilePageId, long[] bufferAddresses, int[] bufferLengths, int length ) throws IOException
     {
         long fileOffset = pageIdToPosition( startFilePageId );
@@ -361,7 +405,7 @@ public class SingleFilePageSwapper implements PageSwapper
         return bytesRead;
     }
 
-    private long countBuffersLengths( int[] bufferLengths, int length )
+    static long countBuffersLengths( int[] bufferLengths, int length )
     {
         long bytesToRead = 0;
         for ( int i = 0; i < length; i++ )
@@ -410,7 +454,41 @@ public class SingleFilePageSwapper implements PageSwapper
     @Override
     public long write( long filePageId, long bufferAddress, int bufferLength ) throws IOException
     {
-        long fileOffset = pageIdToPosition( filePageId );
+        return writeAt( pageIdToPosition( filePageId ), bufferAddress, bufferLength );
+    }
+
+    /**
+     * Read the given number of bytes from the given position in the file into the buffer, and zero-fill the rest of the buffer if the file ends
+     * before that. The channel is reopened and the read retried, if the channel is closed by an interrupt.
+     * @return the number of bytes read from the file.
+     */
+    int readAt( long fileOffset, long bufferAddress, int bufferLength ) throws IOException
+    {
+        try ( Retry retry = new Retry() )
+        {
+            do
+            {
+                try
+                {
+                    return swapIn( bufferAddress, fileOffset, bufferLength );
+                }
+                catch ( ClosedChannelException e )
+                {
+                    retry.caught( e );
+                }
+            }
+            while ( retry.shouldRetry() );
+        }
+        return -1;
+    }
+
+    /**
+     * Write the given number of bytes from the buffer to the given position in the file. The channel is reopened and the write retried, if the channel
+     * is closed by an interrupt.
+     * @return the number of bytes written to the file.
+     */
+    int writeAt( long fileOffset, long bufferAddress, int bufferLength ) throws IOException
+    {
         increaseFileSizeTo( fileOffset + bufferLength );
 
         try ( Retry retry = new Retry() )
@@ -446,11 +524,7 @@ public class SingleFilePageSwapper implements PageSwapper
             {
                 try
                 {
-                    if ( hasPositionLock )
-                    {
-                        return writePositionedVectoredToFileChannel( startFilePageId, bufferAddresses, bufferLengths, length );
-                    }
-                    return writePositionVectoredFallback( startFilePageId, bufferAddresses, bufferLengths, length );
+                    return writeVectored( startFilePageId, bufferAddresses, bufferLengths, length );
                 }
                 catch ( ClosedChannelException e )
                 {
@@ -462,6 +536,15 @@ public class SingleFilePageSwapper implements PageSwapper
         return -1;
     }
 
+    long writeVectored( long startFilePageId, long[] bufferAddresses, int[] bufferLengths, int length ) throws IOException
+    {
+        if ( hasPositionLock )
+        {
+            return writePositionedVectoredToFileChannel( startFilePageId, bufferAddresses, bufferLengths, length );
+        }
+        return writePositionVectoredFallback( startFilePageId, bufferAddresses, bufferLengths, length );
+    }
+
     private long writePositionedVectoredToFileChannel( long startFilePageId, long[] bufferAddresses, int[] bufferLengths, int length )
             throws IOException
     {
@@ -557,7 +640,7 @@ public class SingleFilePageSwapper implements PageSwapper
         return path;
     }
 
-    private long pageIdToPosition( long pageId )
+    long pageIdToPosition( long pageId )
     {
         return filePageSize * pageId;
     }
@@ -612,6 +695,7 @@ public class SingleFilePageSwapper implements PageSwapper
             throw closedException;
         }
 
+        channelLock.writeLock().lock();
         try
         {
             channel = createStoreChannel();
@@ -623,18 +707,24 @@ public class SingleFilePageSwapper implements PageSwapper
             closedException.addSuppressed( e );
             throw closedException;
         }
+        finally
+        {
+            channelLock.writeLock().unlock();
+        }
     }
 
     @Override
     public synchronized void close() throws IOException
     {
         closed = true;
+        channelLock.writeLock().lock();
         try
         {
             channel.close();
         }
         finally
         {
+            channelLock.writeLock().unlock();
             // Eagerly relinquish our reference to the onEviction callback, because even though
             // we've closed the PagedFile at this point, there are likely still pages in the cache that are bound to
             // this swapper, and will stay bound, until the eviction threads eventually gets around to kicking them out.
@@ -54,6 +54,7 @@ public class SingleFilePageSwapperFactory implements PageSwapperFactory
         {
             throw new NoSuchFileException( file.toString(), null, "Cannot map non-existing file" );
         }
+        CompressedPageSwapperFactory.checkNotCompressed( fs, file );
         return new SingleFilePageSwapper( file, fs, filePageSize, onEviction, useDirectIO );
     }
 
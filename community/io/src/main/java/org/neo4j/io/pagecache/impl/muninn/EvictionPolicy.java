@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+
+/**
+ * The eviction policies that the {@link MuninnPageCache} can use, when its eviction clock sweeps through the cache
+ * pages, to decide which pages to evict.
+ */
+public enum EvictionPolicy
+{
+    /**
+     * A plain clock sweep over the page usage counters. Every pin of a page increments its usage counter, and every
+     * pass of the clock arm decrements it. Pages are evicted when their usage counter reaches zero.
+     * <p>
+     * This policy has the lowest overhead, but a single large scan can push the entire working set out of the cache.
+     */
+    CLOCK
+    {
+        @Override
+        EvictionStrategy createStrategy( int pageCount, PageCacheTracer pageCacheTracer )
+        {
+            return ClockEvictionStrategy.INSTANCE;
+        }
+    },
+    /**
+     * A 2Q-style policy layered on top of the clock sweep. Pages that are faulted in for the first time are put on
+     * probation, and are evicted the first time the clock arm passes them, regardless of how many times they were
+     * pinned in the meantime. When a probationary page is evicted, it is remembered as a ghost entry. If that page is
+     * faulted back in while its ghost entry is still around, then it is considered hot, and it is admitted to the
+     * protected part of the cache, where it is governed by the usage counters just like with {@link #CLOCK}.
+     * <p>
+     * This keeps repeatedly used pages resident, even when large one-off scans are streaming through the cache.
+     */
+    SCAN_RESISTANT
+    {
+        @Override
+        EvictionStrategy createStrategy( int pageCount, PageCacheTracer pageCacheTracer )
+        {
+            return new ScanResistantEvictionStrategy( pageCount, pageCacheTracer );
+        }
+    };
+
+    abstract EvictionStrategy createStrategy( int pageCount, PageCacheTracer pageCacheTracer );
+}
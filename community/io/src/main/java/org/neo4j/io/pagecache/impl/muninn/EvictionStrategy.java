@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The implementation of an {@link EvictionPolicy}. The strategy is consulted by the eviction clock, and is told about
+ * every page that is faulted in or evicted, so it can maintain whatever book-keeping it needs.
+ * <p>
+ * All methods are called on hot paths, and must not block.
+ */
+interface EvictionStrategy
+{
+    /**
+     * Called by the eviction clock for every loaded page that its arm passes over.
+     *
+     * @param pages the page list that the page belongs to.
+     * @param pageRef the page being considered for eviction.
+     * @return {@code true} if the page should be evicted, if it can be locked.
+     */
+    boolean isEvictionCandidate( PageList pages, long pageRef );
+
+    /**
+     * Called when a page has been faulted in and bound to the given file page, while the page is still exclusively
+     * locked by the faulting thread.
+     */
+    void pageFaulted( PageList pages, long pageRef, int swapperId, long filePageId );
+
+    /**
+     * Called when a page that was bound to the given file page is being evicted.
+     */
+    void pageEvicted( int swapperId, long filePageId );
+}
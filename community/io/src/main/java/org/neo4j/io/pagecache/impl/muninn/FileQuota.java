@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The state of a {@link PageCacheQuota} in a page cache: its limits in pages, and the number of cache pages currently holding pages of the files
+ * it matches.
+ */
+final class FileQuota
+{
+    private final PageCacheQuota quota;
+    private final long minPages;
+    private final long maxPages;
+    private final AtomicLong residentPages = new AtomicLong();
+
+    FileQuota( PageCacheQuota quota, long cachePages )
+    {
+        this.quota = quota;
+        this.minPages = (long) Math.ceil( quota.minRatio() * cachePages );
+        this.maxPages = (long) Math.floor( quota.maxRatio() * cachePages );
+    }
+
+    void pageFaulted()
+    {
+        residentPages.incrementAndGet();
+    }
+
+    void pageEvicted()
+    {
+        residentPages.decrementAndGet();
+    }
+
+    /**
+     * @return {@code true} if the files of this quota hold no more pages than they have reserved, so their pages should not be evicted.
+     */
+    boolean isWithinReservation()
+    {
+        return residentPages.get() <= minPages;
+    }
+
+    /**
+     * @return {@code true} if the files of this quota hold more pages than their quota, so their pages should be evicted first.
+     */
+    boolean isOverQuota()
+    {
+        return residentPages.get() > maxPages;
+    }
+
+    long residentPages()
+    {
+        return residentPages.get();
+    }
+
+    PageCacheQuota quota()
+    {
+        return quota;
+    }
+}
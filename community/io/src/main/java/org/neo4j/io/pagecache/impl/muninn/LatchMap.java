@@ -19,6 +19,8 @@
  */
 package org.neo4j.io.pagecache.impl.muninn;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.util.FeatureToggles;
 import org.neo4j.util.concurrent.BinaryLatch;
@@ -28,57 +30,103 @@ import org.neo4j.util.concurrent.BinaryLatch;
  * threads try to fault in the same page at the same time. If there is high demand for a particular page, then the
  * LatchMap will ensure that only one thread actually does the faulting, and that any other interested threads will
  * wait for the faulting thread to complete the fault before they proceed.
+ * <p>
+ * The latches are kept in a hash table of buckets, where each bucket is an immutable chain of the latches whose identifiers hash to that bucket. The
+ * buckets are updated with compare-and-swap, by replacing the whole chain. Unrelated identifiers that hash to the same bucket therefore never wait
+ * for each other; they just share the chain. Since the chains are copied on every update, they must be kept short, so the table doubles in size
+ * whenever a chain grows too long, up to a maximum size.
+ * <p>
+ * The table is grown by transferring one bucket at a time to a new table that is twice the size. The latches in a bucket are first inserted into
+ * the new table, and then the bucket is atomically replaced with the {@link #MOVED} marker. If the bucket changed in the meantime, the inserted
+ * latches are removed from the new table, and the transfer of that bucket is retried. Threads that find the {@link #MOVED} marker follow the
+ * {@link Table#next} reference to the new table. Since all identifiers in a new bucket come from the same old bucket, an identifier is only ever
+ * looked up in the new table after all of its latches have been transferred there. This way, at most one latch can be installed for any given
+ * identifier, at any point in time.
  */
 final class LatchMap
 {
     static final class Latch extends BinaryLatch
     {
-        private LatchMap latchMap;
-        private int index;
+        private final LatchMap latchMap;
+        private final long identifier;
+
+        private Latch( LatchMap latchMap, long identifier )
+        {
+            this.latchMap = latchMap;
+            this.identifier = identifier;
+        }
 
         @Override
         public void release()
         {
-            latchMap.setLatch( index, null );
+            latchMap.remove( this );
             super.release();
         }
     }
 
-    private static final int faultLockStriping = FeatureToggles.getInteger( LatchMap.class, "faultLockStriping", 128 );
-    private static final long faultLockMask = faultLockStriping - 1;
-    private static final int latchesArrayBase = UnsafeUtil.arrayBaseOffset( Latch[].class );
-    private static final int latchesArrayScale = UnsafeUtil.arrayIndexScale( Latch[].class );
+    private static final class Node
+    {
+        private final Latch latch;
+        private final Node next;
+        private final int length;
 
-    private final Latch[] latches;
+        private Node( Latch latch, Node next )
+        {
+            this.latch = latch;
+            this.next = next;
+            this.length = next == null ? 1 : next.length + 1;
+        }
+    }
 
-    LatchMap()
+    private static final class Table
     {
-        latches = new Latch[faultLockStriping];
+        private final Node[] buckets;
+        private final long mask;
+        private volatile Table next;
+
+        private Table( int size )
+        {
+            buckets = new Node[size];
+            mask = size - 1;
+        }
     }
 
-    private long offset( int index )
+    private static final int faultLockStriping = FeatureToggles.getInteger( LatchMap.class, "faultLockStriping", 128 );
+    private static final int maxFaultLockStriping = FeatureToggles.getInteger( LatchMap.class, "maxFaultLockStriping", 8192 );
+    private static final int maxChainLength = FeatureToggles.getInteger( LatchMap.class, "maxChainLength", 2 );
+    private static final int bucketsArrayBase = UnsafeUtil.arrayBaseOffset( Node[].class );
+    private static final int bucketsArrayScale = UnsafeUtil.arrayIndexScale( Node[].class );
+
+    /**
+     * Marks a bucket that has been transferred to the next table.
+     */
+    private static final Node MOVED = new Node( null, null );
+
+    private final AtomicBoolean resizing = new AtomicBoolean();
+    private volatile Table table;
+
+    LatchMap()
     {
-        return UnsafeUtil.arrayOffset( index, latchesArrayBase, latchesArrayScale );
+        table = new Table( faultLockStriping );
     }
 
-    private void setLatch( int index, BinaryLatch newValue )
+    private static long offset( long index )
     {
-        UnsafeUtil.putObjectVolatile( latches, offset( index ), newValue );
+        return UnsafeUtil.arrayOffset( (int) index, bucketsArrayBase, bucketsArrayScale );
     }
 
-    private boolean compareAndSetLatch( int index, Latch expected, Latch update )
+    private static Node getBucket( Table table, long index )
     {
-        return UnsafeUtil.compareAndSwapObject( latches, offset( index ), expected, update );
+        return (Node) UnsafeUtil.getObjectVolatile( table.buckets, offset( index ) );
     }
 
-    private Latch getLatch( int index )
+    private static boolean compareAndSetBucket( Table table, long index, Node expected, Node update )
     {
-        return (Latch) UnsafeUtil.getObjectVolatile( latches, offset( index ) );
+        return UnsafeUtil.compareAndSwapObject( table.buckets, offset( index ), expected, update );
     }
 
     /**
-     * If a latch is currently installed for the given (or any colliding) identifier, then it will be waited upon and
-     * {@code null} will be returned.
+     * If a latch is currently installed for the given identifier, then it will be waited upon and {@code null} will be returned.
      *
      * Otherwise, if there is currently no latch installed for the given identifier, then one will be created and
      * installed, and that latch will be returned. Once the page fault has been completed, the returned latch must be
@@ -87,29 +135,176 @@ final class LatchMap
      */
     Latch takeOrAwaitLatch( long identifier )
     {
-        int index = index( identifier );
-        Latch latch = getLatch( index );
-        while ( latch == null )
+        Latch latch = new Latch( this, identifier );
+        Latch existing = install( latch );
+        if ( existing == null )
+        {
+            return latch;
+        }
+        existing.await();
+        return null;
+    }
+
+    /**
+     * Like {@link #takeOrAwaitLatch(long)}, except {@code null} is returned right away, without waiting, if a latch is already installed for the given
+     * identifier.
+     */
+    Latch tryTakeLatch( long identifier )
+    {
+        Latch latch = new Latch( this, identifier );
+        return install( latch ) == null ? latch : null;
+    }
+
+    /**
+     * @return the number of buckets in the current table.
+     */
+    int stripes()
+    {
+        return table.buckets.length;
+    }
+
+    /**
+     * Install the given latch, unless a latch is already installed for the same identifier.
+     *
+     * @return {@code null} if the given latch was installed, otherwise the latch that is already installed for the identifier.
+     */
+    private Latch install( Latch latch )
+    {
+        long hash = mix( latch.identifier );
+        Table current = table;
+        for ( ;; )
         {
-            latch = new Latch();
-            if ( compareAndSetLatch( index, null, latch ) )
+            long index = hash & current.mask;
+            Node head = getBucket( current, index );
+            if ( head == MOVED )
+            {
+                current = current.next;
+                continue;
+            }
+            for ( Node node = head; node != null; node = node.next )
             {
-                latch.latchMap = this;
-                latch.index = index;
-                return latch;
+                if ( node.latch.identifier == latch.identifier )
+                {
+                    return node.latch;
+                }
+            }
+            Node update = new Node( latch, head );
+            if ( compareAndSetBucket( current, index, head, update ) )
+            {
+                if ( update.length > maxChainLength )
+                {
+                    tryResize( current );
+                }
+                return null;
             }
-            latch = getLatch( index );
         }
-        latch.await();
-        return null;
     }
 
-    private int index( long identifier )
+    private void remove( Latch latch )
     {
-        return (int) (mix( identifier ) & faultLockMask);
+        long hash = mix( latch.identifier );
+        Table current = table;
+        for ( ;; )
+        {
+            long index = hash & current.mask;
+            Node head = getBucket( current, index );
+            if ( head == MOVED )
+            {
+                current = current.next;
+                continue;
+            }
+            if ( compareAndSetBucket( current, index, head, without( head, latch ) ) )
+            {
+                return;
+            }
+        }
+    }
+
+    private static Node without( Node head, Latch latch )
+    {
+        if ( head == null )
+        {
+            return null;
+        }
+        if ( head.latch == latch )
+        {
+            return head.next;
+        }
+        Node tail = without( head.next, latch );
+        return tail == head.next ? head : new Node( head.latch, tail );
+    }
+
+    private void tryResize( Table current )
+    {
+        int newSize = current.buckets.length << 1;
+        if ( newSize > maxFaultLockStriping || table != current || !resizing.compareAndSet( false, true ) )
+        {
+            return;
+        }
+        try
+        {
+            if ( table != current )
+            {
+                return; // Another thread already completed the resize.
+            }
+            Table next = new Table( newSize );
+            current.next = next;
+            for ( long index = 0; index < current.buckets.length; index++ )
+            {
+                transfer( current, index, next );
+            }
+            table = next;
+        }
+        finally
+        {
+            resizing.set( false );
+        }
+    }
+
+    private static void transfer( Table current, long index, Table next )
+    {
+        for ( ;; )
+        {
+            Node head = getBucket( current, index );
+            for ( Node node = head; node != null; node = node.next )
+            {
+                insert( next, node.latch );
+            }
+            if ( compareAndSetBucket( current, index, head, MOVED ) )
+            {
+                return;
+            }
+            // The bucket changed while we were copying it, so we undo the copy and try again.
+            for ( Node node = head; node != null; node = node.next )
+            {
+                removeFrom( next, node.latch );
+            }
+        }
+    }
+
+    private static void insert( Table table, Latch latch )
+    {
+        long index = mix( latch.identifier ) & table.mask;
+        Node head;
+        do
+        {
+            head = getBucket( table, index );
+        }
+        while ( !compareAndSetBucket( table, index, head, new Node( latch, head ) ) );
+    }
+
+    private static void removeFrom( Table table, Latch latch )
+    {
+        long index = mix( latch.identifier ) & table.mask;
+        Node head;
+        do
+        {
+            head = getBucket( table, index );
+        }
+        while ( !compareAndSetBucket( table, index, head, without( head, latch ) ) );
     }
 
-    private long mix( long identifier )
+    private static long mix( long identifier )
     {
         identifier ^= identifier << 21;
         identifier ^= identifier >>> 35;
@@ -26,6 +26,7 @@ import java.io.UncheckedIOException;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -36,6 +37,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.LockSupport;
 
+import org.neo4j.internal.nativeimpl.NumaTopology;
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.io.mem.MemoryAllocator;
 import org.neo4j.io.pagecache.IOLimiter;
@@ -61,6 +63,7 @@ import org.neo4j.time.Clocks;
 import org.neo4j.time.SystemNanoClock;
 
 import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
 import static org.neo4j.common.Subject.SYSTEM;
 import static org.neo4j.internal.helpers.Numbers.isPowerOfTwo;
 import static org.neo4j.scheduler.Group.FILE_IO_HELPER;
@@ -142,10 +145,6 @@ public class MuninnPageCache implements PageCache
     private static final IOException oomException = new IOException(
             "OutOfMemoryError encountered in the page cache background eviction thread" );
 
-    // The field offset to unsafely access the freelist field.
-    private static final long freelistOffset =
-            UnsafeUtil.getFieldOffset( MuninnPageCache.class, "freelist" );
-
     // This is used as a poison-pill signal in the freelist, to inform any
     // page faulting thread that it is now no longer possible to queue up and
     // wait for more pages to be evicted, because the page cache has been shut
@@ -173,19 +172,28 @@ public class MuninnPageCache implements PageCache
     private final VersionContextSupplier versionContextSupplier;
     private final IOBufferFactory bufferFactory;
     final PageList pages;
+    // Decides which of the loaded pages the eviction clock should evict, and is told about all faults and evictions.
+    final EvictionStrategy evictionStrategy;
     // All PageCursors are initialised with their pointers pointing to the victim page. This way, we don't have to throw
     // exceptions on bounds checking failures; we can instead return the victim page pointer, and permit the page
     // accesses to take place without fear of segfaulting newly allocated cursors.
     final long victimPage;
 
-    // The freelist is a thread-safe linked-list of FreePage objects, or an AtomicInteger, or null.
-    // Initially, the field is an AtomicInteger that counts from zero to the max page count, at which point all of the
-    // pages have been put in use. Once this happens, the field is set to null to allow the background eviction thread
-    // to start its work. From that point on, the field will operate as a concurrent stack of FreePage objects. The
-    // eviction thread pushes newly freed FreePage objects onto the stack, and page faulting threads pops FreePage
-    // objects from the stack. The FreePage objects are single-use, to avoid running into the ABA-problem.
-    @SuppressWarnings( "unused" ) // This field is accessed via Unsafe.
-    private volatile Object freelist;
+    // The NUMA nodes that the pages are partitioned over.
+    private final NumaTopology numaTopology;
+    // The pages are split into one partition per NUMA node, each with its own freelist. Each freelist is a thread-safe
+    // linked-list of FreePage objects, or an AtomicInteger, or null. Initially, the freelist is an AtomicInteger that
+    // counts from the first to the last page id of the partition, at which point all of its pages have been put in use.
+    // Once this happens, the freelist is set to null to allow the background eviction thread to start its work. From
+    // that point on, the freelist will operate as a concurrent stack of FreePage objects. The eviction thread pushes
+    // newly freed FreePage objects onto the stack of the partition that the page belongs to, and page faulting threads
+    // pops FreePage objects from the stack of their own partition first. The FreePage objects are single-use, to avoid
+    // running into the ABA-problem. There is only a single partition on machines that are not NUMA machines.
+    private final PagePartition[] partitions;
+    // The number of pages in all partitions but the last.
+    private final int pagesPerPartition;
+    // Hits and faults are only counted per partition when there is more than one partition.
+    private final boolean partitioned;
 
     // Linked list of mappings - guarded by synchronized(this)
     private volatile FileMapping mappedFiles;
@@ -201,6 +209,20 @@ public class MuninnPageCache implements PageCache
     private volatile boolean evictorParked;
     private volatile IOException evictorException;
 
+    // The thread that writes back pages that have been dirty for longer than the maximum dirty age, when background writeback has been started.
+    private volatile Thread writebackThread;
+    // The millisecond tick of the clock at which each page was last dirtied, indexed by page id. Only tracked once background writeback has been
+    // started. The ticks wrap around, which is fine since no page stays dirty for anywhere near 2^31 milliseconds between checkpoints.
+    private volatile int[] pageDirtiedTicks;
+    private volatile IOLimiter writebackLimiter;
+    private long maxDirtyAgeMillis;
+    // Pages dirtied at or before this tick are due for writeback. Only written by the writeback thread, before each writeback pass.
+    private volatile int writebackHorizonTick;
+
+    // The quotas of the classes of files, in the order they are matched against newly mapped files. Files mapped before the quotas were set,
+    // have no quota.
+    private volatile FileQuota[] fileQuotas = new FileQuota[0];
+
     // Flag for when page cache is closed - writes guarded by synchronized(this), reads can be unsynchronized
     private volatile boolean closed;
 
@@ -256,6 +278,43 @@ public class MuninnPageCache implements PageCache
         this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, bufferFactory );
     }
 
+    /**
+     * Create page cache.
+     * @param swapperFactory page cache swapper factory
+     * @param memoryAllocator the source of native memory the page cache should use
+     * @param pageCacheTracer global page cache tracer
+     * @param versionContextSupplier supplier of thread local (transaction local) version context that will provide access to thread local version context
+     * @param memoryTracker underlying buffers allocation memory tracker
+     * @param bufferFactory temporal flush buffer factories
+     * @param evictionPolicy the policy used to pick which pages to evict
+     */
+    public MuninnPageCache( PageSwapperFactory swapperFactory, MemoryAllocator memoryAllocator, PageCacheTracer pageCacheTracer,
+            VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
+            IOBufferFactory bufferFactory, EvictionPolicy evictionPolicy )
+    {
+        this( swapperFactory, memoryAllocator, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, bufferFactory,
+                evictionPolicy, NumaTopology.singleNode() );
+    }
+
+    /**
+     * Create page cache.
+     * @param swapperFactory page cache swapper factory
+     * @param memoryAllocator the source of native memory the page cache should use
+     * @param pageCacheTracer global page cache tracer
+     * @param versionContextSupplier supplier of thread local (transaction local) version context that will provide access to thread local version context
+     * @param memoryTracker underlying buffers allocation memory tracker
+     * @param bufferFactory temporal flush buffer factories
+     * @param evictionPolicy the policy used to pick which pages to evict
+     * @param numaTopology the NUMA nodes to partition the pages over
+     */
+    public MuninnPageCache( PageSwapperFactory swapperFactory, MemoryAllocator memoryAllocator, PageCacheTracer pageCacheTracer,
+            VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
+            IOBufferFactory bufferFactory, EvictionPolicy evictionPolicy, NumaTopology numaTopology )
+    {
+        this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, bufferFactory,
+                evictionPolicy, numaTopology );
+    }
+
     /**
      * Constructor variant that allows setting a non-standard cache page size.
      * Only ever use this for testing.
@@ -265,13 +324,22 @@ public class MuninnPageCache implements PageCache
     public MuninnPageCache( PageSwapperFactory swapperFactory, MemoryAllocator memoryAllocator, int cachePageSize, PageCacheTracer pageCacheTracer,
             VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
             IOBufferFactory bufferFactory )
+    {
+        this( swapperFactory, memoryAllocator, cachePageSize, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, bufferFactory,
+                EvictionPolicy.CLOCK, NumaTopology.singleNode() );
+    }
+
+    private MuninnPageCache( PageSwapperFactory swapperFactory, MemoryAllocator memoryAllocator, int cachePageSize, PageCacheTracer pageCacheTracer,
+            VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
+            IOBufferFactory bufferFactory, EvictionPolicy evictionPolicy, NumaTopology numaTopology )
     {
         verifyHacks();
         verifyCachePageSizeIsPowerOfTwo( cachePageSize );
         int maxPages = calculatePageCount( memoryAllocator, cachePageSize );
 
-        // Expose the total number of pages
+        // Expose the total number of pages, and the eviction policy that hits and faults are counted for
         pageCacheTracer.maxPages( maxPages );
+        pageCacheTracer.evictionPolicy( evictionPolicy.name() );
 
         this.pageCacheId = pageCacheIdCounter.incrementAndGet();
         this.swapperFactory = swapperFactory;
@@ -283,10 +351,20 @@ public class MuninnPageCache implements PageCache
         this.bufferFactory = bufferFactory;
         this.victimPage = VictimPageReference.getVictimPage( cachePageSize, memoryTracker );
         this.pages = new PageList( maxPages, cachePageSize, memoryAllocator, new SwapperSet(), victimPage, UnsafeUtil.pageSize() );
+        this.evictionStrategy = evictionPolicy.createStrategy( maxPages, pageCacheTracer );
         this.scheduler = jobScheduler;
         this.clock = clock;
+        this.numaTopology = numaTopology;
 
-        setFreelistHead( new AtomicInteger() );
+        int partitionCount = Math.min( numaTopology.nodeCount(), maxPages );
+        this.pagesPerPartition = (maxPages + partitionCount - 1) / partitionCount;
+        this.partitions = new PagePartition[partitionCount];
+        for ( int node = 0; node < partitionCount; node++ )
+        {
+            int firstPageId = Math.min( node * pagesPerPartition, maxPages );
+            partitions[node] = new PagePartition( node, firstPageId, Math.min( firstPageId + pagesPerPartition, maxPages ) );
+        }
+        this.partitioned = partitionCount > 1;
     }
 
     private static void verifyHacks()
@@ -337,6 +415,8 @@ public class MuninnPageCache implements PageCache
         boolean deleteOnClose = false;
         boolean anyPageSize = false;
         boolean useDirectIO = false;
+        boolean readAhead = false;
+        boolean compressed = false;
         for ( OpenOption option : openOptions )
         {
             if ( option.equals( StandardOpenOption.CREATE ) )
@@ -359,6 +439,14 @@ public class MuninnPageCache implements PageCache
             {
                 useDirectIO = true;
             }
+            else if ( option.equals( PageCacheOpenOptions.READ_AHEAD ) )
+            {
+                readAhead = true;
+            }
+            else if ( option.equals( PageCacheOpenOptions.COMPRESSED ) )
+            {
+                compressed = true;
+            }
             else if ( !ignoredOpenOptions.contains( option ) )
             {
                 throw new UnsupportedOperationException( "Unsupported OpenOption: " + option );
@@ -409,7 +497,7 @@ public class MuninnPageCache implements PageCache
                 pageCacheTracer, versionContextSupplier,
                 createIfNotExists,
                 truncateExisting, useDirectIO,
-                databaseName );
+                databaseName, readAhead, compressed );
         pagedFile.incrementRefCount();
         pagedFile.setDeleteOnClose( deleteOnClose );
         current = new FileMapping( path, pagedFile );
@@ -488,6 +576,10 @@ public class MuninnPageCache implements PageCache
         {
             var monitoringParams = systemJob( "Eviction of pages from the page cache" );
             scheduler.schedule( Group.PAGE_CACHE_EVICTION, monitoringParams, new EvictionTask( this ) );
+            if ( pageDirtiedTicks != null )
+            {
+                scheduleWriteback();
+            }
         }
         catch ( Exception e )
         {
@@ -504,6 +596,92 @@ public class MuninnPageCache implements PageCache
         }
     }
 
+    /**
+     * Set the quotas that reserve and limit the share of the cache that classes of files may use. Each mapped file is given the first quota that
+     * matches it. The quotas must be set before any file is mapped.
+     *
+     * @param quotas the quotas to enforce.
+     * @throws IllegalArgumentException if the reservations of the quotas add up to the entire cache.
+     * @throws IllegalStateException if a file has already been mapped.
+     */
+    public synchronized void setFileQuotas( List<PageCacheQuota> quotas )
+    {
+        assertNotClosed();
+        if ( mappedFiles != null )
+        {
+            throw new IllegalStateException( "Page cache quotas must be set before any file is mapped." );
+        }
+        double reserved = quotas.stream().mapToDouble( PageCacheQuota::minRatio ).sum();
+        if ( reserved >= 1 )
+        {
+            throw new IllegalArgumentException( "The page cache quotas " + quotas + " reserve " + (reserved * 100) + "% of the page cache, " +
+                    "but there must be some pages left that can always be evicted." );
+        }
+        long cachePages = pages.getPageCount();
+        fileQuotas = quotas.stream().map( quota -> new FileQuota( quota, cachePages ) ).toArray( FileQuota[]::new );
+    }
+
+    FileQuota fileQuotaFor( Path path )
+    {
+        for ( FileQuota fileQuota : fileQuotas )
+        {
+            if ( fileQuota.quota().matches( path ) )
+            {
+                return fileQuota;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Start writing back dirty pages in the background, once they have been dirty for longer than the given age. Runs of adjacent dirty pages are
+     * coalesced into vectored writes, and the writes are paced by the given limiter, just like checkpoint flushes. This spreads the writes out over
+     * time, instead of leaving them all to the next checkpoint.
+     *
+     * @param maxDirtyAge how long a page may stay dirty, before it is written back.
+     * @param limiter the limiter that paces the writeback.
+     */
+    public synchronized void startBackgroundWriteback( Duration maxDirtyAge, IOLimiter limiter )
+    {
+        requireNonNull( limiter, "IOLimiter cannot be null" );
+        if ( maxDirtyAge.isNegative() || maxDirtyAge.isZero() )
+        {
+            throw new IllegalArgumentException( "The maximum dirty age must be positive, but was " + maxDirtyAge + "." );
+        }
+        assertNotClosed();
+        if ( pageDirtiedTicks != null )
+        {
+            throw new IllegalStateException( "Background writeback has already been started." );
+        }
+        maxDirtyAgeMillis = Math.max( 1, maxDirtyAge.toMillis() );
+        writebackLimiter = limiter;
+        pageDirtiedTicks = new int[pages.getPageCount()];
+        if ( threadsInitialised )
+        {
+            scheduleWriteback();
+        }
+    }
+
+    /**
+     * Stop writing back dirty pages in the background. Pages are then only flushed by eviction and checkpoints again, until background writeback is
+     * started anew.
+     */
+    public synchronized void stopBackgroundWriteback()
+    {
+        pageDirtiedTicks = null;
+        Thread thread = writebackThread;
+        if ( thread != null )
+        {
+            // Unpark rather than interrupt, since an interrupt would close the channel of a file the thread is writing back to.
+            LockSupport.unpark( thread );
+        }
+    }
+
+    private void scheduleWriteback()
+    {
+        scheduler.schedule( Group.PAGE_CACHE_WRITEBACK, systemJob( "Background writeback of dirty pages" ), new WritebackTask( this, pageDirtiedTicks ) );
+    }
+
     synchronized void unmap( MuninnPagedFile file )
     {
         if ( file.decrementRefCount() )
@@ -682,6 +860,8 @@ public class MuninnPageCache implements PageCache
 
         interrupt( evictionThread );
         evictionThread = null;
+        interrupt( writebackThread );
+        writebackThread = null;
 
         // Close the page swapper factory last. If this fails then we will still consider ourselves closed.
         swapperFactory.close();
@@ -725,6 +905,15 @@ public class MuninnPageCache implements PageCache
         return pages.getPageCount();
     }
 
+    /**
+     * @return the number of bytes of page cache memory that is currently backed by huge pages. Pages are allocated lazily, so this grows as the
+     * cache fills up.
+     */
+    public long hugePageBackedMemory()
+    {
+        return pages.hugePageBackedMemory();
+    }
+
     @Override
     public VersionContextSupplier versionContextSupplier()
     {
@@ -744,52 +933,72 @@ public class MuninnPageCache implements PageCache
 
     long grabFreeAndExclusivelyLockedPage( PageFaultEvent faultEvent ) throws IOException
     {
-        // Review the comment on the freelist field before making changes to
+        // We first try to take a free page from the partition of the NUMA node that we are running on, so the data
+        // we fault in ends up in memory that is local to us. If that partition has no free pages, we take one from
+        // any other partition that has, before we resort to evicting a page ourselves.
+        PagePartition local = partitioned ? partitions[numaTopology.currentNode() % partitions.length] : partitions[0];
+        for (;;)
+        {
+            assertHealthy();
+            long pageRef = grabFreePage( local );
+            if ( pageRef == 0 && partitioned )
+            {
+                pageRef = grabRemoteFreePage( local );
+            }
+            if ( pageRef == 0 )
+            {
+                unparkEvictor();
+                pageRef = cooperativelyEvict( faultEvent, local );
+            }
+            if ( pageRef != 0 )
+            {
+                if ( partitioned )
+                {
+                    initLocalBuffer( pageRef );
+                }
+                return pageRef;
+            }
+        }
+    }
+
+    private long grabFreePage( PagePartition partition )
+    {
+        // Review the comment on the partitions field before making changes to
         // this part of the code.
         // Whatever the case, we're going to the head-pointer of the freelist,
         // and in doing so, we can discover a number of things.
-        // We can discover a MuninnPage object, in which case we can try to
-        // CAS the freelist pointer to the value of the MuninnPage.nextFree
-        // pointer, and if this succeeds then we've grabbed that page.
-        // We can discover a FreePage object, in which case we'll do a similar
-        // dance by attempting to CAS the freelist to the FreePage objects next
-        // pointer, and again, if we succeed then we've grabbed the MuninnPage
-        // given by the FreePage object.
+        // We can discover an AtomicInteger, in which case we can try to CAS
+        // it to the next page id, and if this succeeds then we've grabbed the
+        // page with the old id.
+        // We can discover a FreePage object, in which case we'll attempt to
+        // CAS the freelist to the FreePage objects next pointer, and if we
+        // succeed then we've grabbed the page given by the FreePage object.
         // We can discover a null-pointer, in which case the freelist has just
         // been emptied for whatever it contained before. New FreePage objects
         // are eventually going to be added to the freelist, but we are not
-        // going to wait around for that to happen. If the freelist is empty,
-        // then we do our own eviction to get a free page.
+        // going to wait around for that to happen, and return 0 instead.
         // If we find a FreePage object on the freelist, then it is important
         // to check and see if it is the shutdownSignal instance. If that's the
         // case, then the page cache has been shut down, and we should throw an
         // exception from our page fault routine.
-        Object current;
         for (;;)
         {
-            assertHealthy();
-            current = getFreelistHead();
+            Object current = partition.getFreelistHead();
             if ( current == null )
             {
-                unparkEvictor();
-                long pageRef = cooperativelyEvict( faultEvent );
-                if ( pageRef != 0 )
-                {
-                    return pageRef;
-                }
+                return 0;
             }
             else if ( current instanceof AtomicInteger )
             {
-                int pageCount = pages.getPageCount();
                 AtomicInteger counter = (AtomicInteger) current;
                 int pageId = counter.get();
-                if ( pageId < pageCount && counter.compareAndSet( pageId, pageId + 1 ) )
+                if ( pageId < partition.pageIdLimit && counter.compareAndSet( pageId, pageId + 1 ) )
                 {
                     return pages.deref( pageId );
                 }
-                if ( pageId >= pageCount )
+                if ( pageId >= partition.pageIdLimit )
                 {
-                    compareAndSetFreelistHead( current, null );
+                    partition.compareAndSetFreelistHead( current, null );
                 }
             }
             else if ( current instanceof FreePage )
@@ -800,7 +1009,7 @@ public class MuninnPageCache implements PageCache
                     throw new IllegalStateException( "The PageCache has been shut down." );
                 }
 
-                if ( compareAndSetFreelistHead( freePage, freePage.next ) )
+                if ( partition.compareAndSetFreelistHead( freePage, freePage.next ) )
                 {
                     return freePage.pageRef;
                 }
@@ -808,22 +1017,149 @@ public class MuninnPageCache implements PageCache
         }
     }
 
-    private long cooperativelyEvict( PageFaultEvent faultEvent ) throws IOException
+    private long grabRemoteFreePage( PagePartition local )
+    {
+        for ( int i = 1; i < partitions.length; i++ )
+        {
+            long pageRef = grabFreePage( partitions[(local.node + i) % partitions.length] );
+            if ( pageRef != 0 )
+            {
+                local.remoteFaults.increment();
+                return pageRef;
+            }
+        }
+        return 0;
+    }
+
+    private void initLocalBuffer( long pageRef )
+    {
+        PagePartition partition = partitionOf( pages.toId( pageRef ) );
+        partition.faults.increment();
+        if ( pages.getAddress( pageRef ) == 0L )
+        {
+            // The buffer memory has not been touched yet, so we can still decide which node it will be placed on.
+            pages.initBuffer( pageRef );
+            numaTopology.preferNode( pages.getAddress( pageRef ), cachePageSize, partition.node );
+        }
+    }
+
+    private boolean hasFreePages()
+    {
+        for ( PagePartition partition : partitions )
+        {
+            if ( partition.getFreelistHead() != null )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private PagePartition partitionOf( int pageId )
+    {
+        return partitions[pageId / pagesPerPartition];
+    }
+
+    /**
+     * Count a page cache hit on the page with the given id, if statistics are collected per NUMA node.
+     */
+    void pageHit( int pageId )
+    {
+        if ( partitioned )
+        {
+            partitionOf( pageId ).hits.increment();
+        }
+    }
+
+    /**
+     * Get the page cache activity on each of the NUMA nodes that the page cache is partitioned over.
+     * Hits and faults are only counted when the page cache is partitioned over more than one node.
+     * @return one snapshot per NUMA node, ordered by node.
+     */
+    public List<NumaNodeStatistics> numaNodeStatistics()
+    {
+        List<NumaNodeStatistics> statistics = new ArrayList<>( partitions.length );
+        for ( PagePartition partition : partitions )
+        {
+            statistics.add( new NumaNodeStatistics( partition.node, partition.pageCount(), partition.hits.sum(), partition.faults.sum(),
+                    partition.remoteFaults.sum() ) );
+        }
+        return statistics;
+    }
+
+    /**
+     * Get the page cache activity on each of the currently mapped files.
+     * @return one snapshot per mapped file.
+     */
+    public synchronized List<PagedFileStatistics> pagedFileStatistics()
+    {
+        List<PagedFileStatistics> statistics = new ArrayList<>();
+        for ( FileMapping mapping = mappedFiles; mapping != null; mapping = mapping.next )
+        {
+            statistics.add( mapping.pagedFile.statistics() );
+        }
+        return statistics;
+    }
+
+    /**
+     * Decide if the eviction clock should try to evict the given loaded page. Pages of files that are over their quota are always evicted. When
+     * enforcing the quotas, pages of files that are within their reservation are kept, and so are all other pages while some files are over their
+     * quota, so those files are evicted first. The remaining pages are left to the eviction strategy.
+     */
+    private boolean isEvictionCandidate( long pageRef, boolean enforceQuotas )
+    {
+        FileQuota[] quotas = fileQuotas;
+        if ( quotas.length != 0 )
+        {
+            FileQuota quota = fileQuotaOf( pageRef );
+            if ( quota != null && quota.isOverQuota() )
+            {
+                return true;
+            }
+            if ( enforceQuotas && ((quota != null && quota.isWithinReservation()) || anyOverQuota( quotas )) )
+            {
+                return false;
+            }
+        }
+        return evictionStrategy.isEvictionCandidate( pages, pageRef );
+    }
+
+    private static boolean anyOverQuota( FileQuota[] quotas )
+    {
+        for ( FileQuota quota : quotas )
+        {
+            if ( quota.isOverQuota() )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private FileQuota fileQuotaOf( long pageRef )
+    {
+        // The page may be evicted concurrently, and then have no swapper.
+        int swapperId = pages.getSwapperId( pageRef );
+        SwapperSet.SwapperMapping mapping = swapperId == 0 ? null : pages.getSwappers().getAllocation( swapperId );
+        return mapping == null || mapping.pagedFile == null ? null : mapping.pagedFile.quota;
+    }
+
+    private long cooperativelyEvict( PageFaultEvent faultEvent, PagePartition local ) throws IOException
     {
         int iterations = 0;
         int pageCount = pages.getPageCount();
-        int clockArm = ThreadLocalRandom.current().nextInt( pageCount );
+        int clockArm = local.firstPageId + ThreadLocalRandom.current().nextInt( Math.max( local.pageCount(), 1 ) );
         boolean evicted = false;
         long pageRef;
         do
         {
             assertHealthy();
-            if ( getFreelistHead() != null )
+            if ( hasFreePages() )
             {
                 return 0;
             }
 
-            if ( clockArm == pageCount )
+            if ( clockArm >= pageCount )
             {
                 if ( iterations == cooperativeEvictionLiveLockThreshold )
                 {
@@ -834,7 +1170,8 @@ public class MuninnPageCache implements PageCache
             }
 
             pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            // Only give up on enforcing the quotas, if a full sweep did not find anything else to evict.
+            if ( pages.isLoaded( pageRef ) && isEvictionCandidate( pageRef, iterations <= 1 ) )
             {
                 evicted = pages.tryEvict( pageRef, faultEvent );
             }
@@ -876,26 +1213,10 @@ public class MuninnPageCache implements PageCache
         evictorParked = false;
     }
 
-    private Object getFreelistHead()
-    {
-        return UnsafeUtil.getObjectVolatile( this, freelistOffset );
-    }
-
-    private boolean compareAndSetFreelistHead( Object expected, Object update )
-    {
-        return UnsafeUtil.compareAndSwapObject(
-                this, freelistOffset, expected, update );
-    }
-
-    private void setFreelistHead( Object newFreelistHead )
-    {
-        UnsafeUtil.putObjectVolatile( this, freelistOffset, newFreelistHead );
-    }
-
     /**
-     * Scan through all the pages, one by one, and decrement their usage stamps.
-     * If a usage reaches zero, we try-write-locking it, and if we get that lock,
-     * we evict the page. If we don't, we move on to the next page.
+     * Scan through all the pages, one by one, and ask the eviction strategy if they should be evicted.
+     * With the default clock policy, this decrements their usage stamps, and if a usage reaches zero,
+     * we try-write-locking it, and if we get that lock, we evict the page. If we don't, we move on to the next page.
      * Once we have enough free pages, we park our thread. Page-faulting will
      * unpark our thread as needed.
      */
@@ -914,8 +1235,78 @@ public class MuninnPageCache implements PageCache
         }
 
         // The last thing we do, is signalling the shutdown of the cache via
-        // the freelist. This signal is looked out for in grabFreePage.
-        setFreelistHead( shutdownSignal );
+        // the freelists. This signal is looked out for in grabFreePage.
+        for ( PagePartition partition : partitions )
+        {
+            partition.setFreelistHead( shutdownSignal );
+        }
+    }
+
+    /**
+     * Called by write cursors, when they are about to dirty a page that was clean.
+     */
+    void pageDirtied( long pageRef )
+    {
+        int[] ticks = pageDirtiedTicks;
+        if ( ticks != null )
+        {
+            ticks[pages.toId( pageRef )] = currentTick();
+        }
+    }
+
+    /**
+     * @return {@code true} if the given dirty page has been dirty for longer than the maximum dirty age, as of the start of the current writeback pass.
+     */
+    boolean isDueForWriteback( long pageRef )
+    {
+        int[] ticks = pageDirtiedTicks;
+        return ticks == null || writebackHorizonTick - ticks[pages.toId( pageRef )] >= 0;
+    }
+
+    private int currentTick()
+    {
+        return (int) TimeUnit.NANOSECONDS.toMillis( clock.nanos() );
+    }
+
+    /**
+     * Periodically write back the pages that have been dirty for longer than the maximum dirty age. The pages are checked a few times per maximum
+     * dirty age, so no page stays dirty for much longer than that, unless the writes are held back by the limiter.
+     */
+    void continuouslyWriteBackPages( int[] ticks )
+    {
+        writebackThread = Thread.currentThread();
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos( Math.max( 1, Math.min( maxDirtyAgeMillis / 4, 1000 ) ) );
+        // The writeback runs until the page cache is closed, or until it is stopped, which also replaces the ticks if it is started again.
+        while ( !closed && pageDirtiedTicks == ticks )
+        {
+            LockSupport.parkNanos( this, intervalNanos );
+            if ( !closed && pageDirtiedTicks == ticks )
+            {
+                writeBackAgedPages();
+            }
+        }
+    }
+
+    void writeBackAgedPages()
+    {
+        writebackHorizonTick = (int) (currentTick() - maxDirtyAgeMillis);
+        try ( var buffer = bufferFactory.createBuffer() )
+        {
+            for ( FileMapping mapping = mappedFiles; mapping != null && !closed; mapping = mapping.next )
+            {
+                MuninnPagedFile pagedFile = mapping.pagedFile;
+                try ( MajorFlushEvent fileFlush = pageCacheTracer.beginFileFlush( pagedFile.swapper ) )
+                {
+                    pagedFile.writeBackAgedPages( fileFlush.flushEventOpportunity(), writebackLimiter, buffer );
+                }
+                catch ( IOException e )
+                {
+                    // The pages that could not be written back are still dirty. They will be flushed by eviction or by the next checkpoint, which
+                    // will then fail with the exception, so we only count it here.
+                    pageCacheTracer.writebackExceptions( 1 );
+                }
+            }
+        }
     }
 
     private int parkUntilEvictionRequired( int keepFree )
@@ -941,7 +1332,29 @@ public class MuninnPageCache implements PageCache
 
     private int tryGetNumberOfAvailablePages( int keepFree )
     {
-        Object freelistHead = getFreelistHead();
+        if ( !partitioned )
+        {
+            return tryGetNumberOfAvailablePages( partitions[0], keepFree );
+        }
+        // Every partition should keep its share of free pages, so the page faulting threads on every node can find
+        // a local page. The evicted pages are returned to the partitions they belong to, so we might evict more
+        // than we need from some partitions, but the clock sweeps evenly over all of them.
+        int keepFreePerPartition = Math.max( keepFree / partitions.length, 1 );
+        int pagesToEvict = 0;
+        for ( PagePartition partition : partitions )
+        {
+            int partitionPagesToEvict = tryGetNumberOfAvailablePages( partition, Math.min( keepFreePerPartition, partition.pageCount() ) );
+            if ( partitionPagesToEvict != UNKNOWN_AVAILABLE_PAGES )
+            {
+                pagesToEvict += partitionPagesToEvict;
+            }
+        }
+        return pagesToEvict == 0 ? UNKNOWN_AVAILABLE_PAGES : pagesToEvict;
+    }
+
+    private int tryGetNumberOfAvailablePages( PagePartition partition, int keepFree )
+    {
+        Object freelistHead = partition.getFreelistHead();
 
         if ( freelistHead == null )
         {
@@ -958,7 +1371,7 @@ public class MuninnPageCache implements PageCache
         else if ( freelistHead.getClass() == AtomicInteger.class )
         {
             AtomicInteger counter = (AtomicInteger) freelistHead;
-            long count = pages.getPageCount() - counter.get();
+            long count = partition.pageIdLimit - counter.get();
             if ( count < keepFree )
             {
                 return count < 0 ? keepFree : (int) (keepFree - count);
@@ -969,6 +1382,8 @@ public class MuninnPageCache implements PageCache
 
     int evictPages( int pageCountToEvict, int clockArm, EvictionRunEvent evictionRunEvent )
     {
+        boolean enforceQuotas = true;
+        int pagesSinceLastCandidate = 0;
         while ( pageCountToEvict > 0 && !closed )
         {
             if ( clockArm == pages.getPageCount() )
@@ -983,8 +1398,9 @@ public class MuninnPageCache implements PageCache
             }
 
             long pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) && isEvictionCandidate( pageRef, enforceQuotas ) )
             {
+                pagesSinceLastCandidate = 0;
                 try
                 {
                     pageCountToEvict--;
@@ -1008,6 +1424,11 @@ public class MuninnPageCache implements PageCache
                             "Eviction thread encountered a problem", th );
                 }
             }
+            else if ( enforceQuotas && ++pagesSinceLastCandidate >= pages.getPageCount() )
+            {
+                // A full sweep found nothing to evict, because the quotas protect all the pages. Evict without them for the rest of this run.
+                enforceQuotas = false;
+            }
 
             clockArm++;
         }
@@ -1017,18 +1438,19 @@ public class MuninnPageCache implements PageCache
 
     void addFreePageToFreelist( long pageRef )
     {
+        PagePartition partition = partitioned ? partitionOf( pages.toId( pageRef ) ) : partitions[0];
         Object current;
         FreePage freePage = new FreePage( pageRef );
         do
         {
-            current = getFreelistHead();
-            if ( current instanceof AtomicInteger && ((AtomicInteger) current).get() > pages.getPageCount() )
+            current = partition.getFreelistHead();
+            if ( current instanceof AtomicInteger && ((AtomicInteger) current).get() > partition.pageIdLimit )
             {
                 current = null;
             }
             freePage.setNext( current );
         }
-        while ( !compareAndSetFreelistHead( current, freePage ) );
+        while ( !partition.compareAndSetFreelistHead( current, freePage ) );
     }
 
     void clearEvictorException()
@@ -1049,7 +1471,7 @@ public class MuninnPageCache implements PageCache
 
     void vacuum( SwapperSet swappers )
     {
-        if ( getFreelistHead() instanceof AtomicInteger && swappers.countAvailableIds() > 200 )
+        if ( hasUntouchedPages() && swappers.countAvailableIds() > 200 )
         {
             return; // We probably still have plenty of free pages left. Don't bother vacuuming just yet.
         }
@@ -1078,10 +1500,23 @@ public class MuninnPageCache implements PageCache
         } );
     }
 
-    void startPreFetching( MuninnPageCursor cursor, CursorFactory cursorFactory )
+    private boolean hasUntouchedPages()
+    {
+        // Page faults fall back to the free pages of the other partitions, so pages that were never put in use anywhere are still available.
+        for ( PagePartition partition : partitions )
+        {
+            if ( partition.getFreelistHead() instanceof AtomicInteger )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void startPreFetching( MuninnPageCursor cursor )
     {
-        PreFetcher preFetcher = new PreFetcher( cursor, cursorFactory, pageCacheTracer, clock );
         var pagedFile = cursor.pagedFile;
+        PreFetcher preFetcher = new PreFetcher( cursor, pagedFile, pageCacheTracer, clock );
         var fileName = pagedFile.swapper.path().getFileName();
         var monitoringParams = systemJob( pagedFile.databaseName, "Pre-fetching of file '" + fileName + "'" );
         cursor.preFetcher = scheduler.schedule( Group.PAGE_CACHE_PRE_FETCHER, monitoringParams, preFetcher );
@@ -79,6 +79,7 @@ public abstract class MuninnPageCursor extends PageCursor
     protected long nextPageId;
     protected MuninnPageCursor linkedCursor;
     protected JobHandle<?> preFetcher;
+    protected final ReadAhead readAhead = new ReadAhead();
     private long pointer;
     private int pageSize;
     private int filePageSize;
@@ -137,6 +138,7 @@ public abstract class MuninnPageCursor extends PageCursor
     {
         nextPageId = pageId;
         storeCurrentPageId( UNBOUND_PAGE_ID );
+        readAhead.reset();
     }
 
     public final void reset( long pageRef )
@@ -325,6 +327,7 @@ public abstract class MuninnPageCursor extends PageCursor
                 {
                     pinCursorToPage( pageRef, filePageId, swapper );
                     pinEvent.hit();
+                    pagedFile.pageCache.pageHit( mappedPageId );
                     return;
                 }
                 if ( locked )
@@ -418,6 +421,7 @@ public abstract class MuninnPageCursor extends PageCursor
             assertPagedFileStillMappedAndGetIdOfLastPage();
             pagedFile.initBuffer( pageRef );
             pagedFile.fault( pageRef, swapper, pagedFile.swapperId, filePageId, faultEvent );
+            pagedFile.pageFaulted( pageRef, filePageId );
         }
         catch ( Throwable throwable )
         {
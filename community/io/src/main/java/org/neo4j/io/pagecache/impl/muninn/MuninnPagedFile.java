@@ -24,6 +24,8 @@ import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.file.Path;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.io.pagecache.IOLimiter;
@@ -40,6 +42,7 @@ import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
+import org.neo4j.io.pagecache.tracing.PinEvent;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 
@@ -51,6 +54,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
 {
     static final int UNMAPPED_TTE = -1;
     private static final boolean mergePagesOnFlush = flag( MuninnPagedFile.class, "mergePagesOnFlush", true );
+    private static final int prefetchMaxPagesPerRead = getInteger( MuninnPagedFile.class, "prefetchMaxPagesPerRead", 64 );
     private static final int maxChunkGrowth = getInteger( MuninnPagedFile.class, "maxChunkGrowth", 16 ); // One chunk is 32 MiB, by default.
     private static final int translationTableChunkSizePower = getInteger( MuninnPagedFile.class, "translationTableChunkSizePower", 12 );
     private static final int translationTableChunkSize = 1 << translationTableChunkSizePower;
@@ -79,6 +83,13 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     final int swapperId;
     private final CursorFactory cursorFactory;
     final String databaseName;
+    final boolean readAhead;
+
+    // The quota of the class of files that this file belongs to, or null if no quota applies to it.
+    final FileQuota quota;
+    private final AtomicLong residentPages = new AtomicLong();
+    private final LongAdder faults = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
 
     private volatile boolean deleteOnClose;
 
@@ -120,11 +131,13 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
      * @param truncateExisting should truncate file if it exists
      * @param databaseName an optional name of the database this file belongs to. This option associates the mapped file with a database.
      * This information is currently used only for monitoring purposes.
+     * @param readAhead should read cursors detect sequential and strided access, and read ahead of it.
+     * @param compressed should the pages of the file be stored compressed, if the swapper factory supports it.
      * @throws IOException If the {@link PageSwapper} could not be created.
      */
     MuninnPagedFile( Path path, MuninnPageCache pageCache, int filePageSize, PageSwapperFactory swapperFactory, PageCacheTracer pageCacheTracer,
-            VersionContextSupplier versionContextSupplier, boolean createIfNotExists, boolean truncateExisting, boolean useDirectIo, String databaseName )
-            throws IOException
+            VersionContextSupplier versionContextSupplier, boolean createIfNotExists, boolean truncateExisting, boolean useDirectIo, String databaseName,
+            boolean readAhead, boolean compressed ) throws IOException
     {
         super( pageCache.pages );
         this.pageCache = pageCache;
@@ -134,6 +147,8 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         this.pageFaultLatches = new LatchMap();
         this.bufferFactory = pageCache.getBufferFactory();
         this.databaseName = databaseName;
+        this.readAhead = readAhead;
+        this.quota = pageCache.fileQuotaFor( path );
 
         // The translation table is an array of arrays of integers that are either UNMAPPED_TTE, or the id of a page in
         // the page list. The table only grows the outer array, and all the inner "chunks" all stay the same size. This
@@ -152,7 +167,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         // filled with UNMAPPED_TTE values, and then finally assigns the new outer array to the translationTable field
         // and releases the resize lock.
         PageEvictionCallback onEviction = this::evictPage;
-        swapper = swapperFactory.createPageSwapper( path, filePageSize, onEviction, createIfNotExists, useDirectIo );
+        swapper = swapperFactory.createPageSwapper( path, filePageSize, onEviction, createIfNotExists, useDirectIo, compressed );
         if ( truncateExisting )
         {
             swapper.truncate();
@@ -168,7 +183,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         translationTable = tt;
 
         initialiseLastPageId( lastPageId );
-        this.swapperId = getSwappers().allocate( swapper );
+        this.swapperId = getSwappers().allocate( swapper, this );
     }
 
     @Override
@@ -198,7 +213,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         cursor.rewind();
         if ( ( pf_flags & PF_READ_AHEAD ) == PF_READ_AHEAD && ( pf_flags & PF_NO_FAULT ) != PF_NO_FAULT )
         {
-            pageCache.startPreFetching( cursor, cursorFactory );
+            pageCache.startPreFetching( cursor );
         }
         return cursor;
     }
@@ -367,10 +382,26 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
 
     void flushAndForceInternal( FlushEventOpportunity flushes, boolean forClosing, IOLimiter limiter, NativeIOBuffer ioBuffer )
             throws IOException
+    {
+        flushInternal( flushes, forClosing, false, limiter, ioBuffer );
+    }
+
+    /**
+     * Write back the dirty pages of this file that {@link MuninnPageCache#isDueForWriteback(long) are due for writeback}. Runs of adjacent dirty pages
+     * are written with vectored writes, like in a regular flush, but the file is not forced. That is left to the next checkpoint, which will then
+     * only have to flush the pages that were dirtied recently.
+     */
+    void writeBackAgedPages( FlushEventOpportunity flushes, IOLimiter limiter, NativeIOBuffer ioBuffer ) throws IOException
+    {
+        flushInternal( flushes, false, true, limiter, ioBuffer );
+    }
+
+    private void flushInternal( FlushEventOpportunity flushes, boolean forClosing, boolean writeback, IOLimiter limiter, NativeIOBuffer ioBuffer )
+            throws IOException
     {
         try
         {
-            doFlushAndForceInternal( flushes, forClosing, limiter, ioBuffer );
+            doFlushInternal( flushes, forClosing, writeback, limiter, ioBuffer );
         }
         catch ( ClosedChannelException e )
         {
@@ -388,7 +419,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         }
     }
 
-    private void doFlushAndForceInternal( FlushEventOpportunity flushes, boolean forClosing, IOLimiter limiter, NativeIOBuffer ioBuffer )
+    private void doFlushInternal( FlushEventOpportunity flushes, boolean forClosing, boolean writeback, IOLimiter limiter, NativeIOBuffer ioBuffer )
             throws IOException
     {
         // TODO it'd be awesome if, on Linux, we'd call sync_file_range(2) instead of fsync
@@ -448,6 +479,10 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                             notModifiedPages++;
                             break; // not modified, continue with the chunk
                         }
+                        if ( writeback && !fillingDirtyBuffer && !pageCache.isDueForWriteback( pageRef ) && validateReadLock( pageRef, stamp ) )
+                        {
+                            break; // dirtied too recently to be written back, continue with the chunk
+                        }
 
                         long flushStamp = 0;
                         if ( !(forClosing ? tryExclusiveLock( pageRef ) : ((flushStamp = tryFlushLock( pageRef )) != 0)) )
@@ -549,7 +584,10 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
             chunkEvent.chunkFlushed( notModifiedPages, flushPerChunk, buffersPerChunk, mergesPerChunk );
         }
 
-        swapper.force();
+        if ( !writeback )
+        {
+            swapper.force();
+        }
     }
 
     private void vectoredFlush(
@@ -783,6 +821,133 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         return pageCache.grabFreeAndExclusivelyLockedPage( faultEvent );
     }
 
+    /**
+     * Speculatively fault in the pages in the given range of file pages, that are not already in memory.
+     * <p>
+     * Pages are faulted in as a run of consecutive file pages with a single vectored read, which the swapper can split into several requests that are in
+     * flight at the same time. The run ends at the end of the range or the file, or at a page that is already in memory, or that another thread is
+     * currently faulting in. Such pages are skipped, because this method never waits for other page faults.
+     *
+     * @param startFilePageId the first file page id in the range.
+     * @param endFilePageId the file page id just after the range.
+     * @param tracer the cursor tracer to report the page faults to.
+     * @return the file page id that prefetching stopped at. This is where the next call should continue from, or the given start if the range
+     * is entirely beyond the end of the file.
+     */
+    long prefetch( long startFilePageId, long endFilePageId, PageCursorTracer tracer ) throws IOException
+    {
+        long end = Math.min( endFilePageId, getLastPageId() + 1 );
+        if ( end <= startFilePageId )
+        {
+            return startFilePageId;
+        }
+        int[][] tt = translationTable;
+        LatchMap.Latch[] latches = new LatchMap.Latch[(int) Math.min( prefetchMaxPagesPerRead, end - startFilePageId )];
+        int count = 0;
+        long runStart = startFilePageId;
+        long filePageId = startFilePageId;
+        while ( filePageId < end && count < latches.length )
+        {
+            int chunkId = computeChunkId( filePageId );
+            if ( chunkId >= tt.length )
+            {
+                break; // The file has grown past the translation table. We leave it to the page cursors to expand it.
+            }
+            int[] chunk = tt[chunkId];
+            long chunkOffset = computeChunkOffset( filePageId );
+            LatchMap.Latch latch = null;
+            if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) == UNMAPPED_TTE )
+            {
+                latch = pageFaultLatches.tryTakeLatch( filePageId );
+                if ( latch != null && UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE )
+                {
+                    latch.release();
+                    latch = null;
+                }
+            }
+            filePageId++;
+            if ( latch != null )
+            {
+                latches[count++] = latch;
+            }
+            else if ( count == 0 )
+            {
+                runStart = filePageId;
+            }
+            else
+            {
+                break;
+            }
+        }
+        if ( count > 0 )
+        {
+            faultRun( runStart, latches, count, tracer );
+        }
+        return filePageId;
+    }
+
+    private void faultRun( long startFilePageId, LatchMap.Latch[] latches, int count, PageCursorTracer tracer ) throws IOException
+    {
+        long[] pageRefs = new long[count];
+        PinEvent[] pinEvents = new PinEvent[count];
+        PageFaultEvent[] faultEvents = new PageFaultEvent[count];
+        int grabbed = 0;
+        try
+        {
+            while ( grabbed < count )
+            {
+                pinEvents[grabbed] = tracer.beginPin( false, startFilePageId + grabbed, swapper );
+                faultEvents[grabbed] = pinEvents[grabbed].beginPageFault();
+                long pageRef = grabFreeAndExclusivelyLockedPage( faultEvents[grabbed] );
+                pageRefs[grabbed++] = pageRef;
+                initBuffer( pageRef );
+            }
+            // Check that we're not racing with unmapping, before the swapper gets a chance to reopen the file channel.
+            getLastPageId();
+            fault( pageRefs, count, swapper, swapperId, startFilePageId, filePageSize, faultEvents );
+        }
+        catch ( Throwable throwable )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                if ( i < grabbed )
+                {
+                    unlockExclusive( pageRefs[i] );
+                }
+                latches[i].release();
+                if ( faultEvents[i] != null )
+                {
+                    faultEvents[i].done( throwable );
+                    pinEvents[i].done();
+                }
+            }
+            throw throwable;
+        }
+        int[][] tt = translationTable;
+        for ( int i = 0; i < count; i++ )
+        {
+            long filePageId = startFilePageId + i;
+            long pageRef = pageRefs[i];
+            pageFaulted( pageRef, filePageId );
+            // Publish the page before unlocking it, just like a regular page fault, so eviction always finds it in the translation table.
+            UnsafeUtil.putIntVolatile( tt[computeChunkId( filePageId )], computeChunkOffset( filePageId ), toId( pageRef ) );
+            unlockExclusive( pageRef );
+            latches[i].release();
+            faultEvents[i].done();
+            pinEvents[i].done();
+        }
+    }
+
+    /**
+     * @return {@code true} if the given file page is currently in memory. The answer may be stale by the time it is returned.
+     */
+    boolean isMapped( long filePageId )
+    {
+        int chunkId = computeChunkId( filePageId );
+        int[][] tt = translationTable;
+        return chunkId < tt.length && UnsafeUtil.getIntVolatile( tt[chunkId], computeChunkOffset( filePageId ) ) != UNMAPPED_TTE;
+    }
+
     /**
      * Remove the mapping of the given filePageId from the translation table, and return the evicted page object.
      * @param filePageId The id of the file page to evict.
@@ -797,6 +962,33 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         long pageRef = deref( mappedPageId );
         setHighestEvictedTransactionId( getAndResetLastModifiedTransactionId( pageRef ) );
         UnsafeUtil.putIntVolatile( chunk, chunkOffset, UNMAPPED_TTE );
+        pageCache.evictionStrategy.pageEvicted( swapperId, filePageId );
+        residentPages.decrementAndGet();
+        evictions.increment();
+        if ( quota != null )
+        {
+            quota.pageEvicted();
+        }
+    }
+
+    /**
+     * Tell the eviction strategy that the given page has been faulted in for the given file page.
+     * Must be called while the page is still exclusively locked by the faulting thread.
+     */
+    void pageFaulted( long pageRef, long filePageId )
+    {
+        pageCache.evictionStrategy.pageFaulted( this, pageRef, swapperId, filePageId );
+        residentPages.incrementAndGet();
+        faults.increment();
+        if ( quota != null )
+        {
+            quota.pageFaulted();
+        }
+    }
+
+    PagedFileStatistics statistics()
+    {
+        return new PagedFileStatistics( path(), quota == null ? null : quota.quota(), residentPages.get(), faults.sum(), evictions.sum() );
     }
 
     private void setHighestEvictedTransactionId( long modifiedTransactionId )
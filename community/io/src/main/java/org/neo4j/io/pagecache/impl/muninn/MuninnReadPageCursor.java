@@ -59,6 +59,10 @@ final class MuninnReadPageCursor extends MuninnPageCursor
         storeCurrentPageId( nextPageId );
         nextPageId++;
         long filePageId = loadPlainCurrentPageId();
+        if ( pagedFile.readAhead && !noFault && preFetcher == null )
+        {
+            readAhead.beforePin( pagedFile, filePageId, tracer );
+        }
         pinEvent = tracer.beginPin( false, filePageId, swapper );
         pin( filePageId );
         verifyContext();
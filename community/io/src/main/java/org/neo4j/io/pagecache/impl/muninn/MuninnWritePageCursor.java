@@ -105,7 +105,17 @@ final class MuninnWritePageCursor extends MuninnPageCursor
     @Override
     protected boolean tryLockPage( long pageRef )
     {
-        return pagedFile.tryWriteLock( pageRef );
+        // The write lock raises the modified bit, so we have to look at it before taking the lock, to tell if this is where the dirty age starts.
+        boolean wasModified = pagedFile.isModified( pageRef );
+        if ( pagedFile.tryWriteLock( pageRef ) )
+        {
+            if ( !wasModified )
+            {
+                pagedFile.pageCache.pageDirtied( pageRef );
+            }
+            return true;
+        }
+        return false;
     }
 
     @Override
@@ -134,6 +144,8 @@ final class MuninnWritePageCursor extends MuninnPageCursor
     protected void convertPageFaultLock( long pageRef )
     {
         pagedFile.unlockExclusiveAndTakeWriteLock( pageRef );
+        // A freshly faulted page is clean, so taking the write lock is what dirties it.
+        pagedFile.pageCache.pageDirtied( pageRef );
     }
 
     @Override
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * A snapshot of the page cache activity on the pages that are placed on one NUMA node.
+ *
+ * @see MuninnPageCache#numaNodeStatistics()
+ */
+public final class NumaNodeStatistics
+{
+    private final int node;
+    private final int pages;
+    private final long hits;
+    private final long faults;
+    private final long remoteFaults;
+
+    NumaNodeStatistics( int node, int pages, long hits, long faults, long remoteFaults )
+    {
+        this.node = node;
+        this.pages = pages;
+        this.hits = hits;
+        this.faults = faults;
+        this.remoteFaults = remoteFaults;
+    }
+
+    /**
+     * @return the dense index of the NUMA node.
+     */
+    public int node()
+    {
+        return node;
+    }
+
+    /**
+     * @return the number of cache pages that belong to the node.
+     */
+    public int pages()
+    {
+        return pages;
+    }
+
+    /**
+     * @return the number of page pins that found their page in one of the cache pages of the node.
+     */
+    public long hits()
+    {
+        return hits;
+    }
+
+    /**
+     * @return the number of page faults that loaded data into one of the cache pages of the node.
+     */
+    public long faults()
+    {
+        return faults;
+    }
+
+    /**
+     * @return the number of page faults by threads running on this node, that had to take a free page from another node.
+     */
+    public long remoteFaults()
+    {
+        return remoteFaults;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "NumaNodeStatistics[node:" + node + ", pages:" + pages + ", hits:" + hits + ", faults:" + faults + ", remoteFaults:" + remoteFaults + "]";
+    }
+}
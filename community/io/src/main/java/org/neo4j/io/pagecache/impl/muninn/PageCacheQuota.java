@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+
+/**
+ * A rule that reserves a minimum share of the page cache, and limits the maximum share of the page cache, for a class of files. The files are
+ * matched by a glob on their file name, e.g. {@code neostore.nodestore.db} for the node store, or {@code index-*} for the GBPTree indexes.
+ * <p>
+ * The shares are fractions of the cache pages, and are shared by all the files the rule matches. They are enforced by the eviction clock: pages of
+ * a class that holds no more than its reservation are passed over, and pages of a class that holds more than its quota are evicted before any
+ * other pages. A class may still grow past its quota while the cache has free pages, since nothing has to be evicted then.
+ *
+ * @see MuninnPageCache#setFileQuotas(java.util.List)
+ */
+public final class PageCacheQuota
+{
+    private final String glob;
+    private final PathMatcher matcher;
+    private final double minRatio;
+    private final double maxRatio;
+
+    /**
+     * @param glob the glob that the file names of the files in the class must match.
+     * @param minRatio the fraction of the cache pages that is reserved for the files in the class.
+     * @param maxRatio the fraction of the cache pages that the files in the class may use, before their pages are evicted first.
+     */
+    public PageCacheQuota( String glob, double minRatio, double maxRatio )
+    {
+        if ( minRatio < 0 || maxRatio > 1 || minRatio > maxRatio )
+        {
+            throw new IllegalArgumentException( "The page cache quota for '" + glob + "' must have 0 <= minimum <= maximum <= 1, but the minimum was " +
+                    minRatio + " and the maximum was " + maxRatio + "." );
+        }
+        this.glob = glob;
+        this.matcher = FileSystems.getDefault().getPathMatcher( "glob:" + glob );
+        this.minRatio = minRatio;
+        this.maxRatio = maxRatio;
+    }
+
+    /**
+     * Parse a quota of the form {@code <glob>=<minimum>%..<maximum>%}, where either the minimum or the maximum may be left out, e.g.
+     * {@code neostore.relationshipstore.db=20%..} or {@code index-*=..40%}.
+     *
+     * @param quota the quota to parse.
+     * @return the parsed quota.
+     * @throws IllegalArgumentException if the quota is malformed.
+     */
+    public static PageCacheQuota parse( String quota )
+    {
+        int equals = quota.lastIndexOf( '=' );
+        int range = quota.indexOf( "..", equals + 1 );
+        if ( equals <= 0 || range == -1 )
+        {
+            throw new IllegalArgumentException( "Page cache quotas must be on the form '<glob>=<minimum>%..<maximum>%', but was '" + quota + "'." );
+        }
+        String min = quota.substring( equals + 1, range ).trim();
+        String max = quota.substring( range + 2 ).trim();
+        if ( min.isEmpty() && max.isEmpty() )
+        {
+            throw new IllegalArgumentException( "Page cache quota '" + quota + "' must have a minimum, a maximum, or both." );
+        }
+        return new PageCacheQuota( quota.substring( 0, equals ).trim(), parsePercentage( min, 0, quota ), parsePercentage( max, 1, quota ) );
+    }
+
+    private static double parsePercentage( String percentage, double defaultRatio, String quota )
+    {
+        if ( percentage.isEmpty() )
+        {
+            return defaultRatio;
+        }
+        if ( !percentage.endsWith( "%" ) )
+        {
+            throw new IllegalArgumentException( "Page cache quota '" + quota + "' must give its limits as percentages, but got '" + percentage + "'." );
+        }
+        try
+        {
+            return Double.parseDouble( percentage.substring( 0, percentage.length() - 1 ) ) / 100;
+        }
+        catch ( NumberFormatException e )
+        {
+            throw new IllegalArgumentException( "Page cache quota '" + quota + "' has an invalid percentage '" + percentage + "'.", e );
+        }
+    }
+
+    /**
+     * @return {@code true} if the given file belongs to the class of files of this quota.
+     */
+    public boolean matches( Path path )
+    {
+        Path fileName = path.getFileName();
+        return fileName != null && matcher.matches( fileName );
+    }
+
+    public String glob()
+    {
+        return glob;
+    }
+
+    public double minRatio()
+    {
+        return minRatio;
+    }
+
+    public double maxRatio()
+    {
+        return maxRatio;
+    }
+
+    @Override
+    public String toString()
+    {
+        return glob + "=" + (minRatio * 100) + "%.." + (maxRatio * 100) + "%";
+    }
+}
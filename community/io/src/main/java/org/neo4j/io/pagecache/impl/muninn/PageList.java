@@ -171,6 +171,14 @@ class PageList
         return pageCount;
     }
 
+    /**
+     * @return The number of bytes of page list and page memory that is currently backed by huge pages.
+     */
+    long hugePageBackedMemory()
+    {
+        return memoryAllocator.hugePageBackedMemory();
+    }
+
     SwapperSet getSwappers()
     {
         return swappers;
@@ -301,7 +309,7 @@ class PageList
         }
     }
 
-    private byte getUsageCounter( long pageRef )
+    byte getUsageCounter( long pageRef )
     {
         return (byte) (UnsafeUtil.getLongVolatile( offPageBinding( pageRef ) ) & MASK_USAGE_COUNT);
     }
@@ -437,6 +445,45 @@ class PageList
         setSwapperId( pageRef, swapperId ); // Page now considered isBoundTo( swapper, filePageId )
     }
 
+    /**
+     * Fault in a run of consecutive file pages, starting at the given file page id, into the given exclusively locked and unbound pages, with a
+     * single vectored read from the swapper. The swapper is free to split the read into several requests that are in flight at the same time.
+     */
+    void fault( long[] pageRefs, int count, PageSwapper swapper, int swapperId, long startFilePageId, int filePageSize, PageFaultEvent[] events )
+            throws IOException
+    {
+        if ( swapper == null )
+        {
+            throw swapperCannotBeNull();
+        }
+        long[] bufferAddresses = new long[count];
+        int[] bufferLengths = new int[count];
+        for ( int i = 0; i < count; i++ )
+        {
+            long pageRef = pageRefs[i];
+            long filePageId = startFilePageId + i;
+            int currentSwapper = getSwapperId( pageRef );
+            long currentFilePageId = getFilePageId( pageRef );
+            if ( !isExclusivelyLocked( pageRef ) || currentSwapper != 0 || currentFilePageId != PageCursor.UNBOUND_PAGE_ID )
+            {
+                throw cannotFaultException( pageRef, swapper, swapperId, filePageId, currentSwapper, currentFilePageId );
+            }
+            // Same as for single page faults, the file page id is assigned before the swapping in, and the swapper id after it has succeeded.
+            setFilePageId( pageRef, filePageId );
+            bufferAddresses[i] = getAddress( pageRef );
+            bufferLengths[i] = filePageSize;
+        }
+        long bytesRead = swapper.read( startFilePageId, bufferAddresses, bufferLengths, count );
+        for ( int i = 0; i < count; i++ )
+        {
+            long pageRef = pageRefs[i];
+            PageFaultEvent event = events[i];
+            event.addBytesRead( Math.max( 0, Math.min( filePageSize, bytesRead - (long) i * filePageSize ) ) );
+            event.setCachePageId( toId( pageRef ) );
+            setSwapperId( pageRef, swapperId );
+        }
+    }
+
     private static IllegalArgumentException swapperCannotBeNull()
     {
         return new IllegalArgumentException( "swapper cannot be null" );
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+
+/**
+ * A contiguous range of the pages in the MuninnPageCache, with its own freelist.
+ * <p>
+ * On NUMA machines the page cache is split into one partition per NUMA node, and the memory of the pages in a partition is preferably placed on
+ * that node. Page faulting threads grab free pages from the partition of the node they run on, and the eviction thread returns evicted pages to the
+ * partition they belong to. On other machines there is only a single partition that covers all the pages.
+ */
+final class PagePartition
+{
+    // The field offset to unsafely access the freelist field.
+    private static final long freelistOffset = UnsafeUtil.getFieldOffset( PagePartition.class, "freelist" );
+
+    final int node;
+    final int firstPageId;
+    final int pageIdLimit;
+    final LongAdder hits = new LongAdder();
+    final LongAdder faults = new LongAdder();
+    final LongAdder remoteFaults = new LongAdder();
+
+    // The freelist of this partition. Review the comment on the MuninnPageCache.partitions field before making changes to it.
+    // Initially, the field is an AtomicInteger that counts from the first page id of the partition to its page id limit, at which point all of
+    // the pages have been put in use, and the field is set to null. From that point on, the field is a concurrent stack of FreePage objects.
+    @SuppressWarnings( "unused" ) // This field is accessed via Unsafe.
+    private volatile Object freelist;
+
+    PagePartition( int node, int firstPageId, int pageIdLimit )
+    {
+        this.node = node;
+        this.firstPageId = firstPageId;
+        this.pageIdLimit = pageIdLimit;
+        setFreelistHead( new AtomicInteger( firstPageId ) );
+    }
+
+    int pageCount()
+    {
+        return pageIdLimit - firstPageId;
+    }
+
+    boolean contains( int pageId )
+    {
+        return firstPageId <= pageId && pageId < pageIdLimit;
+    }
+
+    Object getFreelistHead()
+    {
+        return UnsafeUtil.getObjectVolatile( this, freelistOffset );
+    }
+
+    boolean compareAndSetFreelistHead( Object expected, Object update )
+    {
+        return UnsafeUtil.compareAndSwapObject( this, freelistOffset, expected, update );
+    }
+
+    void setFreelistHead( Object newFreelistHead )
+    {
+        UnsafeUtil.putObjectVolatile( this, freelistOffset, newFreelistHead );
+    }
+}
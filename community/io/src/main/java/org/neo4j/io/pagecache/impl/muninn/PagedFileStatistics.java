@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * A snapshot of the page cache activity on one mapped file.
+ *
+ * @see MuninnPageCache#pagedFileStatistics()
+ */
+public final class PagedFileStatistics
+{
+    private final Path path;
+    private final PageCacheQuota quota;
+    private final long residentPages;
+    private final long faults;
+    private final long evictions;
+
+    PagedFileStatistics( Path path, PageCacheQuota quota, long residentPages, long faults, long evictions )
+    {
+        this.path = path;
+        this.quota = quota;
+        this.residentPages = residentPages;
+        this.faults = faults;
+        this.evictions = evictions;
+    }
+
+    /**
+     * @return the path of the mapped file.
+     */
+    public Path path()
+    {
+        return path;
+    }
+
+    /**
+     * @return the quota that applies to the file, if any.
+     */
+    public Optional<PageCacheQuota> quota()
+    {
+        return Optional.ofNullable( quota );
+    }
+
+    /**
+     * @return the number of cache pages that currently hold pages of the file.
+     */
+    public long residentPages()
+    {
+        return residentPages;
+    }
+
+    /**
+     * @return the number of page faults that loaded pages of the file into the cache.
+     */
+    public long faults()
+    {
+        return faults;
+    }
+
+    /**
+     * @return the number of pages of the file that have been evicted from the cache.
+     */
+    public long evictions()
+    {
+        return evictions;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PagedFileStatistics[path:" + path + ", quota:" + quota + ", residentPages:" + residentPages + ", faults:" + faults +
+                ", evictions:" + evictions + "]";
+    }
+}
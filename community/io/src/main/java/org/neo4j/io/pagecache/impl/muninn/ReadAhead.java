@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.io.IOException;
+
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * Adaptive read-ahead state for a single page cursor, of a file that has been mapped with
+ * {@link org.neo4j.io.pagecache.PageCacheOpenOptions#READ_AHEAD}.
+ * <p>
+ * The cursor reports every file page it is about to pin. When a number of pins in a row have moved by the same small
+ * stride, either forwards or backwards, the access is considered a stream and the next window of file pages in the
+ * direction of the stream is faulted in with vectored reads, through {@link MuninnPagedFile#prefetch(long, long, PageCursorTracer)}.
+ * The window is fetched again once the cursor has consumed half of it, and it doubles in size every time, up to a
+ * limit. If a page that was read ahead gets evicted before the cursor gets to it, then we are reading too far ahead
+ * for the cache to keep up, and the window is halved. A pin that breaks the stride ends the stream.
+ * <p>
+ * Strides greater than one are served by reading the whole range of file pages the stride spans, since reading a few
+ * pages too many in one go is cheaper than reading the pages of the stride one by one.
+ * <p>
+ * Pins of file pages that were read ahead are reported to the {@link PageCursorTracer} as prefetch hits, if the page
+ * is still in memory, and as prefetch misses if it has been evicted in the mean time.
+ */
+final class ReadAhead
+{
+    // The largest stride, in file pages, that is still considered to be a stream.
+    private static final int maxStride = getInteger( ReadAhead.class, "maxStride", 4 );
+    // The number of pins in a row with the same stride that it takes to start a stream.
+    private static final int streamThreshold = getInteger( ReadAhead.class, "streamThreshold", 3 );
+    // The initial and smallest read-ahead window, in file pages.
+    private static final int minWindow = getInteger( ReadAhead.class, "minWindow", 8 );
+    // The largest read-ahead window, in file pages.
+    private static final int maxWindow = getInteger( ReadAhead.class, "maxWindow", 256 );
+    // A single cursor may at most read ahead this fraction of the pages in the page cache.
+    private static final int maxWindowCacheFraction = getInteger( ReadAhead.class, "maxWindowCacheFraction", 16 );
+
+    private long lastFilePageId;
+    private long stride;
+    private int streak;
+    private int window;
+    // The range of file pages that have been read ahead for the current stream; from inclusive, to exclusive.
+    private long readAheadFrom;
+    private long readAheadTo;
+
+    ReadAhead()
+    {
+        reset();
+    }
+
+    void reset()
+    {
+        lastFilePageId = -1;
+        stride = 0;
+        streak = 0;
+        window = minWindow;
+        readAheadFrom = 0;
+        readAheadTo = 0;
+    }
+
+    /**
+     * Observe that the cursor is about to pin the given file page, and read ahead if that continues a stream.
+     *
+     * @param pagedFile the file the cursor is bound to.
+     * @param filePageId the file page id that is about to be pinned.
+     * @param tracer the tracer of the cursor.
+     */
+    void beforePin( MuninnPagedFile pagedFile, long filePageId, PageCursorTracer tracer )
+    {
+        long delta = filePageId - lastFilePageId;
+        lastFilePageId = filePageId;
+        if ( delta == 0 )
+        {
+            return;
+        }
+        if ( delta != stride || stride == 0 )
+        {
+            // The stride changed, so this is not, or no longer, a stream.
+            stride = Math.abs( delta ) <= maxStride ? delta : 0;
+            streak = stride == 0 ? 0 : 1;
+            window = minWindow;
+            readAheadFrom = 0;
+            readAheadTo = 0;
+            return;
+        }
+        streak++;
+        if ( filePageId >= readAheadFrom && filePageId < readAheadTo )
+        {
+            if ( pagedFile.isMapped( filePageId ) )
+            {
+                tracer.prefetchHit();
+            }
+            else
+            {
+                tracer.prefetchMiss();
+                window = Math.max( minWindow, window >>> 1 );
+            }
+        }
+        if ( streak < streamThreshold )
+        {
+            return;
+        }
+
+        int limit = windowLimit( pagedFile );
+        if ( limit < minWindow )
+        {
+            return; // The cache is too small to read ahead into.
+        }
+        boolean first = readAheadTo <= readAheadFrom;
+        if ( stride > 0 )
+        {
+            if ( first || readAheadTo - filePageId <= window >>> 1 )
+            {
+                long from = first ? filePageId : Math.max( readAheadTo, filePageId );
+                readAhead( pagedFile, from, from + window, tracer );
+                window = Math.min( window << 1, limit );
+            }
+        }
+        else if ( first || filePageId - readAheadFrom < window >>> 1 )
+        {
+            long to = first ? filePageId + 1 : Math.min( readAheadFrom, filePageId + 1 );
+            readAhead( pagedFile, Math.max( 0, to - window ), to, tracer );
+            window = Math.min( window << 1, limit );
+        }
+    }
+
+    private static int windowLimit( MuninnPagedFile pagedFile )
+    {
+        return (int) Math.min( maxWindow, pagedFile.pageCache.maxCachedPages() / maxWindowCacheFraction );
+    }
+
+    private void readAhead( MuninnPagedFile pagedFile, long from, long to, PageCursorTracer tracer )
+    {
+        if ( readAheadTo <= readAheadFrom )
+        {
+            readAheadFrom = from;
+            readAheadTo = to;
+        }
+        else
+        {
+            readAheadFrom = Math.min( readAheadFrom, from );
+            readAheadTo = Math.max( readAheadTo, to );
+        }
+        try
+        {
+            long filePageId = from;
+            while ( filePageId < to )
+            {
+                long next = pagedFile.prefetch( filePageId, to, tracer );
+                if ( next == filePageId )
+                {
+                    return; // Reached the end of the file.
+                }
+                filePageId = next;
+            }
+        }
+        catch ( IOException e )
+        {
+            // Reading ahead is only speculative. If there is a real problem with the file, then the pin will fail as well,
+            // and report it. We start over with a new stream.
+            reset();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * The {@link EvictionPolicy#SCAN_RESISTANT} strategy.
+ * <p>
+ * Every cache page has a probation bit. The bit is raised when a page is faulted in for a file page that the strategy
+ * has no memory of, and such pages are evicted the first time the clock arm finds them, unless they have been pinned
+ * again since the fault. A page that has been pinned a second time leaves probation when the clock arm finds it, and is
+ * from then on evicted by its usage counter like any other page. This means that a scan, which faults in a lot of
+ * pages and then never touches them again, can only ever displace other probationary pages, and pages at the far side
+ * of the clock from the scan.
+ * <p>
+ * The file pages of evicted pages are remembered in a fixed size, direct mapped ghost table. If a file page is faulted
+ * in again while its ghost entry is still present, then the page has been re-referenced within roughly one sweep of the
+ * clock, and it is admitted straight into the protected set with an elevated usage counter. Such re-faults are
+ * reported to the {@link PageCacheTracer}.
+ * <p>
+ * Both the probation bits and the ghost table are updated in a benignly racy manner. A lost update only affects the
+ * quality of the eviction decisions, never the correctness of the cache.
+ */
+final class ScanResistantEvictionStrategy implements EvictionStrategy
+{
+    // Upper bound on the number of ghost entries. One entry is 8 bytes, so this is 32 MiB by default.
+    private static final int maxGhostEntries = getInteger( ScanResistantEvictionStrategy.class, "maxGhostEntries", 1 << 22 );
+    // How many usage counter increments a page gets when it is admitted to the protected set through a ghost hit.
+    private static final int admissionUsageBoost = getInteger( ScanResistantEvictionStrategy.class, "admissionUsageBoost", 2 );
+
+    private static final int longArrayBase = UnsafeUtil.arrayBaseOffset( long[].class );
+    private static final int longArrayScale = UnsafeUtil.arrayIndexScale( long[].class );
+    private static final long EMPTY_GHOST = 0;
+    private static final int SWAPPER_ID_BITS = 21;
+
+    private final PageCacheTracer pageCacheTracer;
+    private final long[] probation;
+    private final long[] ghosts;
+    private final int ghostMask;
+
+    ScanResistantEvictionStrategy( int pageCount, PageCacheTracer pageCacheTracer )
+    {
+        this.pageCacheTracer = pageCacheTracer;
+        this.probation = new long[(pageCount >>> 6) + 1];
+        int ghostCapacity = Math.max( 64, Math.min( Integer.highestOneBit( pageCount ), Integer.highestOneBit( maxGhostEntries ) ) );
+        this.ghosts = new long[ghostCapacity];
+        this.ghostMask = ghostCapacity - 1;
+    }
+
+    @Override
+    public boolean isEvictionCandidate( PageList pages, long pageRef )
+    {
+        int pageId = pages.toId( pageRef );
+        if ( isOnProbation( pageId ) )
+        {
+            // The pin that follows the fault accounts for one usage, so any more means the page has been pinned again.
+            if ( pages.getUsageCounter( pageRef ) <= 1 )
+            {
+                return true;
+            }
+            setProbation( pageId, false );
+        }
+        return pages.decrementUsage( pageRef );
+    }
+
+    @Override
+    public void pageFaulted( PageList pages, long pageRef, int swapperId, long filePageId )
+    {
+        int pageId = pages.toId( pageRef );
+        if ( removeGhost( ghostKey( swapperId, filePageId ) ) )
+        {
+            setProbation( pageId, false );
+            for ( int i = 0; i < admissionUsageBoost; i++ )
+            {
+                pages.incrementUsage( pageRef );
+            }
+            pageCacheTracer.refaults( 1 );
+        }
+        else
+        {
+            setProbation( pageId, true );
+        }
+    }
+
+    @Override
+    public void pageEvicted( int swapperId, long filePageId )
+    {
+        if ( swapperId != 0 )
+        {
+            long key = ghostKey( swapperId, filePageId );
+            UnsafeUtil.putLongVolatile( ghosts, offset( ghostIndex( key ) ), key );
+        }
+    }
+
+    boolean isOnProbation( int pageId )
+    {
+        long word = UnsafeUtil.getLongVolatile( probation, offset( pageId >>> 6 ) );
+        return (word & (1L << pageId)) != 0;
+    }
+
+    private void setProbation( int pageId, boolean onProbation )
+    {
+        long offset = offset( pageId >>> 6 );
+        long bit = 1L << pageId;
+        long word;
+        long update;
+        do
+        {
+            word = UnsafeUtil.getLongVolatile( probation, offset );
+            update = onProbation ? word | bit : word & ~bit;
+        }
+        while ( word != update && !UnsafeUtil.compareAndSwapLong( probation, offset, word, update ) );
+    }
+
+    private boolean removeGhost( long key )
+    {
+        long offset = offset( ghostIndex( key ) );
+        return UnsafeUtil.getLongVolatile( ghosts, offset ) == key && UnsafeUtil.compareAndSwapLong( ghosts, offset, key, EMPTY_GHOST );
+    }
+
+    private static long ghostKey( int swapperId, long filePageId )
+    {
+        // Swapper ids are never zero for bound pages, so the key is never EMPTY_GHOST.
+        return (filePageId << SWAPPER_ID_BITS) | swapperId;
+    }
+
+    private int ghostIndex( long key )
+    {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) (key & ghostMask);
+    }
+
+    private static long offset( int index )
+    {
+        return UnsafeUtil.arrayOffset( index, longArrayBase, longArrayScale );
+    }
+}
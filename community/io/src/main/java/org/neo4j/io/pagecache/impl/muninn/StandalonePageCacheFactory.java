@@ -23,6 +23,7 @@ import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.mem.MemoryAllocator;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.impl.CompressedPageSwapperFactory;
 import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
@@ -49,26 +50,34 @@ public final class StandalonePageCacheFactory
 
     public static PageCache createPageCache( FileSystemAbstraction fileSystem, JobScheduler jobScheduler, PageCacheTracer cacheTracer )
     {
-        SingleFilePageSwapperFactory factory = new SingleFilePageSwapperFactory( fileSystem );
+        PageSwapperFactory factory = swapperFactory( fileSystem, cacheTracer );
         int pageSize = PageCache.PAGE_SIZE;
         return createPageCache( factory, jobScheduler, cacheTracer, pageSize );
     }
 
     public static PageCache createPageCache( FileSystemAbstraction fileSystem, JobScheduler jobScheduler )
     {
-        SingleFilePageSwapperFactory factory = new SingleFilePageSwapperFactory( fileSystem );
         PageCacheTracer cacheTracer = PageCacheTracer.NULL;
+        PageSwapperFactory factory = swapperFactory( fileSystem, cacheTracer );
         int pageSize = PageCache.PAGE_SIZE;
         return createPageCache( factory, jobScheduler, cacheTracer, pageSize );
     }
 
     public static PageCache createPageCache( FileSystemAbstraction fileSystem, JobScheduler jobScheduler, int pageSize )
     {
-        SingleFilePageSwapperFactory factory = new SingleFilePageSwapperFactory( fileSystem );
         PageCacheTracer cacheTracer = PageCacheTracer.NULL;
+        PageSwapperFactory factory = swapperFactory( fileSystem, cacheTracer );
         return createPageCache( factory, jobScheduler, cacheTracer, pageSize );
     }
 
+    /**
+     * The tools that use this page cache must be able to open stores with compressed files, although they never create any.
+     */
+    private static PageSwapperFactory swapperFactory( FileSystemAbstraction fileSystem, PageCacheTracer cacheTracer )
+    {
+        return CompressedPageSwapperFactory.readingCompressedFiles( fileSystem, new SingleFilePageSwapperFactory( fileSystem ), cacheTracer );
+    }
+
     private static PageCache createPageCache( PageSwapperFactory factory, JobScheduler jobScheduler, PageCacheTracer cacheTracer, int pageSize )
     {
         VersionContextSupplier versionContextSupplier = EmptyVersionContextSupplier.EMPTY;
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * This Runnable writes back pages that have been dirty for too long. Only one is expected for each page cache, and only once background writeback
+ * has been started.
+ *
+ * The page cache being closed, or the writeback being stopped, will be interpreted as a shutdown signal.
+ *
+ * @see MuninnPageCache#continuouslyWriteBackPages(int[])
+ */
+final class WritebackTask extends BackgroundTask
+{
+    private final int[] pageDirtiedTicks;
+
+    WritebackTask( MuninnPageCache pageCache, int[] pageDirtiedTicks )
+    {
+        super( pageCache );
+        this.pageDirtiedTicks = pageDirtiedTicks;
+    }
+
+    @Override
+    protected void run( MuninnPageCache pageCache )
+    {
+        pageCache.continuouslyWriteBackPages( pageDirtiedTicks );
+    }
+}
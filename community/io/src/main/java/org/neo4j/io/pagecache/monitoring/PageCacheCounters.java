@@ -85,14 +85,81 @@ public interface PageCacheCounters
      */
     long evictionExceptions();
 
+    /**
+     * @return The number of background writebacks of aged dirty pages that have thrown exceptions thus far.
+     */
+    long writebackExceptions();
+
     /**
      * @return The cache hit ratio observed thus far.
      */
     double hitRatio();
 
+    /**
+     * @param evictionPolicy the name of an eviction policy.
+     * @return The number of hits observed thus far while the page cache was using the given eviction policy.
+     */
+    long evictionPolicyHits( String evictionPolicy );
+
+    /**
+     * @param evictionPolicy the name of an eviction policy.
+     * @return The number of faults observed thus far while the page cache was using the given eviction policy.
+     */
+    long evictionPolicyFaults( String evictionPolicy );
+
+    /**
+     * @param evictionPolicy the name of an eviction policy.
+     * @return The cache hit ratio observed thus far while the page cache was using the given eviction policy.
+     */
+    double evictionPolicyHitRatio( String evictionPolicy );
+
     /**
      * @return The current usage ration of number of used pages to the total number of pages or {@code 0} if it cannot
      * be determined.
      */
     double usageRatio();
+
+    /**
+     * @return The number of page faults observed thus far, for pages that the eviction policy remembered as having
+     * been recently evicted. A high number of re-faults, relative to the number of faults, means that the eviction
+     * policy is evicting pages that are still in use.
+     */
+    long refaults();
+
+    /**
+     * @return The number of pins observed thus far, of pages that had been read ahead by the cursor and were still in memory.
+     */
+    long prefetchHits();
+
+    /**
+     * @return The number of pins observed thus far, of pages that had been read ahead by the cursor but were evicted before the
+     * cursor got to them.
+     */
+    long prefetchMisses();
+
+    /**
+     * @return The number of bytes of page data that have been compressed thus far, by the compressing page swappers.
+     */
+    long bytesCompressed();
+
+    /**
+     * @return The number of bytes that the compressing page swappers have written to their files thus far, for the compressed page data.
+     */
+    long compressedBytesWritten();
+
+    /**
+     * @return The ratio of the number of bytes of compressed page data, to the number of bytes written to the files for them.
+     * A ratio of 4 means that the pages take up a quarter of their size on disk. Returns 0 if no pages have been compressed.
+     */
+    double compressionRatio();
+
+    /**
+     * @return The number of pages read from compressed files and decompressed thus far.
+     */
+    long pagesDecompressed();
+
+    /**
+     * @return The total time spent decompressing pages thus far, in nanoseconds.
+     */
+    long decompressionNanos();
 }
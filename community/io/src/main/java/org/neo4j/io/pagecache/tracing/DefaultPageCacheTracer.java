@@ -21,6 +21,8 @@ package org.neo4j.io.pagecache.tracing;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 
@@ -46,7 +48,17 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     protected final LongAdder filesMapped = new LongAdder();
     protected final LongAdder filesUnmapped = new LongAdder();
     protected final LongAdder evictionExceptions = new LongAdder();
+    protected final LongAdder writebackExceptions = new LongAdder();
+    protected final LongAdder refaults = new LongAdder();
+    protected final LongAdder prefetchHits = new LongAdder();
+    protected final LongAdder prefetchMisses = new LongAdder();
+    protected final LongAdder bytesCompressed = new LongAdder();
+    protected final LongAdder compressedBytesWritten = new LongAdder();
+    protected final LongAdder pagesDecompressed = new LongAdder();
+    protected final LongAdder decompressionNanos = new LongAdder();
     protected final AtomicLong maxPages = new AtomicLong();
+    private final ConcurrentMap<String,EvictionPolicyCounters> evictionPolicies = new ConcurrentHashMap<>();
+    private volatile EvictionPolicyCounters evictionPolicy;
 
     private final FlushEvent flushEvent = new FlushEvent()
     {
@@ -273,12 +285,87 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return evictionExceptions.sum();
     }
 
+    @Override
+    public long writebackExceptions()
+    {
+        return writebackExceptions.sum();
+    }
+
+    @Override
+    public long refaults()
+    {
+        return refaults.sum();
+    }
+
+    @Override
+    public long prefetchHits()
+    {
+        return prefetchHits.sum();
+    }
+
+    @Override
+    public long prefetchMisses()
+    {
+        return prefetchMisses.sum();
+    }
+
+    @Override
+    public long bytesCompressed()
+    {
+        return bytesCompressed.sum();
+    }
+
+    @Override
+    public long compressedBytesWritten()
+    {
+        return compressedBytesWritten.sum();
+    }
+
+    @Override
+    public double compressionRatio()
+    {
+        long written = compressedBytesWritten();
+        return written == 0 ? 0 : (double) bytesCompressed() / written;
+    }
+
+    @Override
+    public long pagesDecompressed()
+    {
+        return pagesDecompressed.sum();
+    }
+
+    @Override
+    public long decompressionNanos()
+    {
+        return decompressionNanos.sum();
+    }
+
     @Override
     public double hitRatio()
     {
         return MathUtil.portion( hits(), faults() );
     }
 
+    @Override
+    public long evictionPolicyHits( String evictionPolicy )
+    {
+        EvictionPolicyCounters counters = evictionPolicies.get( evictionPolicy );
+        return counters == null ? 0 : counters.hits.sum();
+    }
+
+    @Override
+    public long evictionPolicyFaults( String evictionPolicy )
+    {
+        EvictionPolicyCounters counters = evictionPolicies.get( evictionPolicy );
+        return counters == null ? 0 : counters.faults.sum();
+    }
+
+    @Override
+    public double evictionPolicyHitRatio( String evictionPolicy )
+    {
+        return MathUtil.portion( evictionPolicyHits( evictionPolicy ), evictionPolicyFaults( evictionPolicy ) );
+    }
+
     @Override
     public double usageRatio()
     {
@@ -306,12 +393,22 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     public void hits( long hits )
     {
         this.hits.add( hits );
+        EvictionPolicyCounters policy = evictionPolicy;
+        if ( policy != null )
+        {
+            policy.hits.add( hits );
+        }
     }
 
     @Override
     public void faults( long faults )
     {
         this.faults.add( faults );
+        EvictionPolicyCounters policy = evictionPolicy;
+        if ( policy != null )
+        {
+            policy.faults.add( faults );
+        }
     }
 
     @Override
@@ -332,6 +429,12 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         this.evictionExceptions.add( evictionExceptions );
     }
 
+    @Override
+    public void writebackExceptions( long writebackExceptions )
+    {
+        this.writebackExceptions.add( writebackExceptions );
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -355,4 +458,58 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     {
         this.maxPages.set( maxPages );
     }
+
+    @Override
+    public void evictionPolicy( String evictionPolicy )
+    {
+        this.evictionPolicy = evictionPolicies.computeIfAbsent( evictionPolicy, policy -> new EvictionPolicyCounters() );
+    }
+
+    @Override
+    public void refaults( long refaults )
+    {
+        this.refaults.add( refaults );
+    }
+
+    @Override
+    public void prefetchHits( long prefetchHits )
+    {
+        this.prefetchHits.add( prefetchHits );
+    }
+
+    @Override
+    public void prefetchMisses( long prefetchMisses )
+    {
+        this.prefetchMisses.add( prefetchMisses );
+    }
+
+    @Override
+    public void bytesCompressed( long bytesCompressed )
+    {
+        this.bytesCompressed.add( bytesCompressed );
+    }
+
+    @Override
+    public void compressedBytesWritten( long compressedBytesWritten )
+    {
+        this.compressedBytesWritten.add( compressedBytesWritten );
+    }
+
+    @Override
+    public void pagesDecompressed( long pagesDecompressed )
+    {
+        this.pagesDecompressed.add( pagesDecompressed );
+    }
+
+    @Override
+    public void decompressionNanos( long decompressionNanos )
+    {
+        this.decompressionNanos.add( decompressionNanos );
+    }
+
+    private static final class EvictionPolicyCounters
+    {
+        final LongAdder hits = new LongAdder();
+        final LongAdder faults = new LongAdder();
+    }
 }
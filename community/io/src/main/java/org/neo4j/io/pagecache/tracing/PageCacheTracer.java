@@ -143,12 +143,36 @@ public interface PageCacheTracer extends PageCacheCounters
             return 0;
         }
 
+        @Override
+        public long writebackExceptions()
+        {
+            return 0;
+        }
+
         @Override
         public double hitRatio()
         {
             return 0d;
         }
 
+        @Override
+        public long evictionPolicyHits( String evictionPolicy )
+        {
+            return 0;
+        }
+
+        @Override
+        public long evictionPolicyFaults( String evictionPolicy )
+        {
+            return 0;
+        }
+
+        @Override
+        public double evictionPolicyHitRatio( String evictionPolicy )
+        {
+            return 0d;
+        }
+
         @Override
         public double usageRatio()
         {
@@ -190,6 +214,11 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void writebackExceptions( long writebackExceptions )
+        {
+        }
+
         @Override
         public void bytesWritten( long bytesWritten )
         {
@@ -210,6 +239,94 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void evictionPolicy( String evictionPolicy )
+        {
+        }
+
+        @Override
+        public long refaults()
+        {
+            return 0;
+        }
+
+        @Override
+        public void refaults( long refaults )
+        {
+        }
+
+        @Override
+        public long prefetchHits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long prefetchMisses()
+        {
+            return 0;
+        }
+
+        @Override
+        public void prefetchHits( long prefetchHits )
+        {
+        }
+
+        @Override
+        public void prefetchMisses( long prefetchMisses )
+        {
+        }
+
+        @Override
+        public long bytesCompressed()
+        {
+            return 0;
+        }
+
+        @Override
+        public long compressedBytesWritten()
+        {
+            return 0;
+        }
+
+        @Override
+        public long pagesDecompressed()
+        {
+            return 0;
+        }
+
+        @Override
+        public long decompressionNanos()
+        {
+            return 0;
+        }
+
+        @Override
+        public double compressionRatio()
+        {
+            return 0;
+        }
+
+        @Override
+        public void bytesCompressed( long bytesCompressed )
+        {
+        }
+
+        @Override
+        public void compressedBytesWritten( long compressedBytesWritten )
+        {
+        }
+
+        @Override
+        public void pagesDecompressed( long pagesDecompressed )
+        {
+        }
+
+        @Override
+        public void decompressionNanos( long decompressionNanos )
+        {
+        }
+
         @Override
         public String toString()
         {
@@ -295,6 +412,12 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     void evictionExceptions( long evictionExceptions );
 
+    /**
+     * Report number of exceptions thrown by the background writeback of aged dirty pages
+     * @param writebackExceptions number of writeback exceptions
+     */
+    void writebackExceptions( long writebackExceptions );
+
     /**
      * Report number of bytes written
      * @param bytesWritten number of written bytes
@@ -318,4 +441,52 @@ public interface PageCacheTracer extends PageCacheCounters
      * @param maxPages the total number of available pages.
      */
     void maxPages( long maxPages );
+
+    /**
+     * Sets the eviction policy of the page cache. Hits and faults reported from then on are also counted for this policy.
+     * @param evictionPolicy the name of the eviction policy.
+     */
+    void evictionPolicy( String evictionPolicy );
+
+    /**
+     * Report number of faults of pages that the eviction policy remembered as recently evicted
+     * @param refaults number of re-faults
+     */
+    void refaults( long refaults );
+
+    /**
+     * Report number of pins of pages that had been read ahead
+     * @param prefetchHits number of prefetch hits
+     */
+    void prefetchHits( long prefetchHits );
+
+    /**
+     * Report number of pins of pages that had been read ahead, but were evicted before they were pinned
+     * @param prefetchMisses number of prefetch misses
+     */
+    void prefetchMisses( long prefetchMisses );
+
+    /**
+     * Report number of bytes of page data that has been compressed
+     * @param bytesCompressed number of compressed bytes of page data
+     */
+    void bytesCompressed( long bytesCompressed );
+
+    /**
+     * Report number of bytes written to files for compressed page data
+     * @param compressedBytesWritten number of written compressed bytes
+     */
+    void compressedBytesWritten( long compressedBytesWritten );
+
+    /**
+     * Report number of pages that have been decompressed
+     * @param pagesDecompressed number of decompressed pages
+     */
+    void pagesDecompressed( long pagesDecompressed );
+
+    /**
+     * Report time spent decompressing pages
+     * @param decompressionNanos decompression time in nanoseconds
+     */
+    void decompressionNanos( long decompressionNanos );
 }
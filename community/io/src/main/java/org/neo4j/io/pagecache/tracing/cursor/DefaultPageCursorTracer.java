@@ -42,6 +42,8 @@ public class DefaultPageCursorTracer implements PageCursorTracer
     private long evictionExceptions;
     private long flushes;
     private long merges;
+    private long prefetchHits;
+    private long prefetchMisses;
 
     private final DefaultPinEvent pinTracingEvent = new DefaultPinEvent();
     private final PageCacheTracer pageCacheTracer;
@@ -102,6 +104,14 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         {
             pageCacheTracer.merges( merges );
         }
+        if ( prefetchHits > 0 )
+        {
+            pageCacheTracer.prefetchHits( prefetchHits );
+        }
+        if ( prefetchMisses > 0 )
+        {
+            pageCacheTracer.prefetchMisses( prefetchMisses );
+        }
         reset();
     }
 
@@ -117,6 +127,8 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         evictionExceptions = 0;
         flushes = 0;
         merges = 0;
+        prefetchHits = 0;
+        prefetchMisses = 0;
     }
 
     @Override
@@ -185,6 +197,18 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         return MathUtil.portion( hits(), faults() );
     }
 
+    @Override
+    public long prefetchHits()
+    {
+        return prefetchHits;
+    }
+
+    @Override
+    public long prefetchMisses()
+    {
+        return prefetchMisses;
+    }
+
     @Override
     public PinEvent beginPin( boolean writeLock, long filePageId, PageSwapper swapper )
     {
@@ -193,6 +217,18 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         return pinTracingEvent;
     }
 
+    @Override
+    public void prefetchHit()
+    {
+        prefetchHits++;
+    }
+
+    @Override
+    public void prefetchMiss()
+    {
+        prefetchMisses++;
+    }
+
     private final EvictionEvent evictionEvent = new EvictionEvent()
     {
         @Override
@@ -83,4 +83,14 @@ public interface PageCursorCounters
      * @return The hit ratio observed thus far.
      */
     double hitRatio();
+
+    /**
+     * @return The number of pins of pages that had been read ahead, and were still in memory, observed thus far.
+     */
+    long prefetchHits();
+
+    /**
+     * @return The number of pins of pages that had been read ahead, but were evicted before they were pinned, observed thus far.
+     */
+    long prefetchMisses();
 }
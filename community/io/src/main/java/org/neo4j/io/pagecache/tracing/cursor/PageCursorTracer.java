@@ -105,12 +105,34 @@ public interface PageCursorTracer extends PageCursorCounters, Closeable
             return 0d;
         }
 
+        @Override
+        public long prefetchHits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long prefetchMisses()
+        {
+            return 0;
+        }
+
         @Override
         public PinEvent beginPin( boolean writeLock, long filePageId, PageSwapper swapper )
         {
             return PinEvent.NULL;
         }
 
+        @Override
+        public void prefetchHit()
+        {
+        }
+
+        @Override
+        public void prefetchMiss()
+        {
+        }
+
         @Override
         public void reportEvents()
         {
@@ -126,6 +148,16 @@ public interface PageCursorTracer extends PageCursorCounters, Closeable
 
     PinEvent beginPin( boolean writeLock, long filePageId, PageSwapper swapper );
 
+    /**
+     * A page that was read ahead is about to be pinned, and it is still in memory.
+     */
+    void prefetchHit();
+
+    /**
+     * A page that was read ahead is about to be pinned, but it has been evicted in the mean time.
+     */
+    void prefetchMiss();
+
     /**
      * Report to global page cache tracer events observed by current page cursor tracer.
      * As soon as any event will be reported, page cursor tracer reset corresponding counters and completely forgets
@@ -22,6 +22,7 @@ package org.neo4j.io.mem;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import org.neo4j.internal.nativeimpl.HugePages;
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.pagecache.PageCache;
@@ -30,6 +31,7 @@ import org.neo4j.memory.LocalMemoryTracker;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.neo4j.io.ByteUnit.MebiByte;
 
 class MemoryAllocatorTest
@@ -218,6 +220,72 @@ class MemoryAllocatorTest
         UnsafeUtil.getLong( address + ONE_PAGE - Long.BYTES ); // End of allocation.
     }
 
+    @Test
+    void hugePageBackedMemoryMustBeAlignedAndAccessible()
+    {
+        assumeTrue( HugePages.isAvailable() );
+        LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+        allocator = MemoryAllocator.createAllocator( MebiByte.toBytes( 8 ), memoryTracker, HugePageMode.TRANSPARENT );
+
+        long page = allocator.allocateAligned( PageCache.PAGE_SIZE, UnsafeUtil.pageSize() );
+        long largeBlock = allocator.allocateAligned( MebiByte.toBytes( 3 ), 1 );
+
+        assertThat( page % UnsafeUtil.pageSize() ).isEqualTo( 0L );
+        // This must not throw any bad access exceptions.
+        UnsafeUtil.putLong( page, 1 );
+        UnsafeUtil.putLong( page + ONE_PAGE - Long.BYTES, 2 );
+        UnsafeUtil.putLong( largeBlock, 3 );
+        UnsafeUtil.putLong( largeBlock + MebiByte.toBytes( 3 ) - Long.BYTES, 4 );
+        assertThat( ((GrabAllocator) allocator).hugePageMode() ).isEqualTo( HugePageMode.TRANSPARENT );
+        assertThat( allocator.hugePageBackedMemory() ).isGreaterThanOrEqualTo( 0L );
+        assertThat( memoryTracker.usedNativeMemory() ).isGreaterThanOrEqualTo( ONE_PAGE + MebiByte.toBytes( 3 ) );
+
+        closeAllocator();
+        assertEquals( 0, memoryTracker.usedNativeMemory() );
+    }
+
+    @Test
+    void hugePageGrabsMustCountTheirRoundedUpSizeAgainstTheMemoryLimit()
+    {
+        assumeTrue( HugePages.isAvailable() );
+        allocator = MemoryAllocator.createAllocator( MebiByte.toBytes( 100 ), new LocalMemoryTracker(), HugePageMode.TRANSPARENT );
+
+        // Larger than a grab, so it gets a grab of its own, which is rounded up to whole huge pages.
+        allocator.allocateAligned( MebiByte.toBytes( 33 ) + 1, 1 );
+
+        assertThat( ((GrabAllocator) allocator).hugePageMode() ).isEqualTo( HugePageMode.TRANSPARENT );
+        assertThat( allocator.usedMemory() + allocator.availableMemory() ).isEqualTo( MebiByte.toBytes( 100 ) );
+    }
+
+    @Test
+    void hugePageMemoryMustFallBackWhenHugePagePoolIsEmpty()
+    {
+        assumeTrue( HugePages.isAvailable() );
+        long reserved = HugePages.mapHugeTlb( HugePages.HUGE_PAGE_SIZE );
+        if ( reserved != 0 )
+        {
+            HugePages.unmap( reserved, HugePages.HUGE_PAGE_SIZE );
+        }
+        assumeTrue( reserved == 0, "This machine has reserved huge pages" );
+
+        MemoryAllocator mman = MemoryAllocator.createAllocator( MebiByte.toBytes( 2 ), new LocalMemoryTracker(), HugePageMode.HUGETLB );
+        allocator = mman;
+        long address = mman.allocateAligned( PageCache.PAGE_SIZE, 8 );
+
+        assertThat( address ).isNotEqualTo( 0L );
+        UnsafeUtil.putLong( address, 1 );
+        assertThat( ((GrabAllocator) mman).hugePageMode() ).isEqualTo( HugePageMode.TRANSPARENT );
+    }
+
+    @Test
+    void hugePageModeMustBeDisabledByDefault()
+    {
+        MemoryAllocator mman = createAllocator( ONE_PAGE );
+        mman.allocateAligned( PageCache.PAGE_SIZE, 8 );
+        assertThat( ((GrabAllocator) mman).hugePageMode() ).isEqualTo( HugePageMode.DISABLED );
+        assertThat( mman.hugePageBackedMemory() ).isEqualTo( 0L );
+    }
+
     private void closeAllocator()
     {
         if ( allocator != null )
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.kernel.api;
+
+/**
+ * Initializer for spreading a scan over multiple cursors for use from different threads in parallel, where the data to scan
+ * has been split up into a number of partitions up front. Unlike a {@link Scan}, which hands out batches of roughly a requested size,
+ * each call to {@link #reservePartition(Cursor)} hands out one whole partition.
+ *
+ * @param <Cursor> the type of cursor this object initializes.
+ */
+public interface PartitionedScan<Cursor extends org.neo4j.internal.kernel.api.Cursor>
+{
+    /**
+     * @return the number of partitions the data was split into. This can be lower than the desired number of partitions
+     * given when creating this scan, e.g. if there's little data to scan.
+     */
+    int getNumberOfPartitions();
+
+    /**
+     * Will attempt to reserve a partition to scan.
+     * <p>
+     * A <code>PartitionedScan</code> instance can be shared among threads and guarantees that each call to
+     * <code>reservePartition</code> will reserve an exclusive partition for the scan. The basic usage pattern is that
+     * a single <code>PartitionedScan</code> instance is shared among several threads but where each thread maintains separate cursors.
+     * Each thread can call <code>reservePartition</code> multiple times and then proceed to iterate the cursor as usual.
+     * <p>
+     * Example:
+     * <pre>
+     * {@code
+     *   try ( NodeValueIndexCursor cursor = cursors.allocateNodeValueIndexCursor( cursorTracer ) )
+     *   {
+     *     while ( scan.reservePartition( cursor ) )
+     *     {
+     *       while ( cursor.next() )
+     *       {
+     *         //do things with the node
+     *       }
+     *     }
+     *   }
+     * }
+     * </pre>
+     *
+     * @param cursor The cursor to be used for reading.
+     * @return <code>true</code> if a partition was reserved and there may be data to read, otherwise <code>false</code>
+     * meaning that all partitions have been reserved.
+     */
+    boolean reservePartition( Cursor cursor );
+}
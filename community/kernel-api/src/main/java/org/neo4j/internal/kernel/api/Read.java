@@ -104,6 +104,19 @@ public interface Read
      */
     void nodeIndexScan( IndexReadSession index, NodeValueIndexCursor cursor, IndexQueryConstraints constraints ) throws KernelException;
 
+    /**
+     * Scan all values in an index, split up into partitions which can be scanned in parallel by different threads.
+     * Only supported in transactions without changes, since transaction state can't be split up into the index partitions.
+     *
+     * @param index {@link IndexReadSession} index read session to query.
+     * @param desiredNumberOfPartitions the desired number of partitions. Fewer partitions may be created, but never more.
+     * @param constraints The requested constraints on the query result, such as whether the index should fetch property values
+     * together with node ids. Results are not ordered across partitions and so ordering can not be requested.
+     * @return a {@link PartitionedScan} from which partitions can be reserved.
+     */
+    PartitionedScan<NodeValueIndexCursor> nodeIndexScan( IndexReadSession index, int desiredNumberOfPartitions, IndexQueryConstraints constraints )
+            throws KernelException;
+
     /**
      * Scan all nodes with a label.
      *
@@ -137,6 +137,26 @@ public abstract class IndexProvider extends LifecycleAdapter implements IndexCon
             public void recoveryCleanupFailed( Path indexFile, IndexDescriptor index, Throwable throwable )
             {   // no-op
             }
+
+            @Override
+            public void bloomFilterStatistics( IndexDescriptor index, long lookups, long falsePositives, double falsePositiveRate )
+            {   // no-op
+            }
+
+            @Override
+            public void seekCacheStatistics( IndexDescriptor index, long hits, long misses, long evictions, int size )
+            {   // no-op
+            }
+
+            @Override
+            public void compactionFailed( IndexDescriptor index, Throwable throwable )
+            {   // no-op
+            }
+
+            @Override
+            public void bloomFilterRebuildFailed( IndexDescriptor index, Throwable throwable )
+            {   // no-op
+            }
         }
 
         void failedToOpenIndex( IndexDescriptor index, String action, Exception cause );
@@ -151,6 +171,44 @@ public abstract class IndexProvider extends LifecycleAdapter implements IndexCon
         void recoveryCleanupClosed( Path indexFile, IndexDescriptor index );
 
         void recoveryCleanupFailed( Path indexFile, IndexDescriptor index, Throwable throwable );
+
+        /**
+         * Reports statistics of the bloom filter of an online unique index, each time the index is flushed.
+         *
+         * @param index the index.
+         * @param lookups number of exact lookups checked against the bloom filter since the index was opened.
+         * @param falsePositives number of those lookups which the bloom filter couldn't rule out, but which found nothing in the index.
+         * @param falsePositiveRate share of the lookups of values not in the index which the bloom filter couldn't rule out.
+         */
+        void bloomFilterStatistics( IndexDescriptor index, long lookups, long falsePositives, double falsePositiveRate );
+
+        /**
+         * Reports statistics of the seek cache of an online unique index, each time the index is flushed.
+         *
+         * @param index the index.
+         * @param hits number of exact lookups answered from the cache since the index was opened.
+         * @param misses number of exact lookups which had to seek the index since the index was opened.
+         * @param evictions number of cached results evicted to make room for others since the index was opened.
+         * @param size number of results currently in the cache.
+         */
+        void seekCacheStatistics( IndexDescriptor index, long hits, long misses, long evictions, int size );
+
+        /**
+         * Reports that a background compaction of a native index failed. The index stays usable and is compacted again later.
+         *
+         * @param index the index.
+         * @param throwable cause of the failure.
+         */
+        void compactionFailed( IndexDescriptor index, Throwable throwable );
+
+        /**
+         * Reports that a background rebuild of the bloom filter of an online unique index failed. The index stays usable,
+         * without ruling out lookups of missing values if the filter was never built, and the filter is rebuilt again on the next flush.
+         *
+         * @param index the index.
+         * @param throwable cause of the failure.
+         */
+        void bloomFilterRebuildFailed( IndexDescriptor index, Throwable throwable );
     }
 
     public static final IndexProvider EMPTY =
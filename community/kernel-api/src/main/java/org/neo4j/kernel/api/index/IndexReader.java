@@ -63,6 +63,21 @@ public interface IndexReader extends Resource
      */
     boolean hasFullValuePrecision( IndexQuery... predicates );
 
+    /**
+     * Splits the results of the given {@link IndexQuery} predicates up into partitions, which can be read in parallel by different threads.
+     * Results within each partition are in index order, but there's no order between results of different partitions.
+     *
+     * @param desiredNumberOfPartitions number of partitions desired by the caller. Fewer partitions may be created, but never more.
+     * @param context the query context, used for tracing page cursors among other things.
+     * @param query the query to serve.
+     * @return a {@link PartitionedValueSeek} to reserve partitions from.
+     * @throws UnsupportedOperationException if this index doesn't support partitioned seeks.
+     */
+    default PartitionedValueSeek valueSeek( int desiredNumberOfPartitions, QueryContext context, IndexQuery... query )
+    {
+        throw new UnsupportedOperationException( "Partitioned seek is not supported by " + getClass().getSimpleName() );
+    }
+
     IndexReader EMPTY = new IndexReader()
     {
         // Used for checking index correctness
@@ -89,6 +89,32 @@ public class LoggingMonitor implements IndexProvider.Monitor
                 indexDescription( indexFile, index ), ExceptionUtils.getStackTrace( throwable ) ) );
     }
 
+    @Override
+    public void bloomFilterStatistics( IndexDescriptor index, long lookups, long falsePositives, double falsePositiveRate )
+    {
+        log.debug( "Schema index bloom filter statistics: index=%s, lookups=%d, false positives=%d, false positive rate=%.4f",
+                index.getName(), lookups, falsePositives, falsePositiveRate );
+    }
+
+    @Override
+    public void seekCacheStatistics( IndexDescriptor index, long hits, long misses, long evictions, int size )
+    {
+        log.debug( "Schema index seek cache statistics: index=%s, hits=%d, misses=%d, evictions=%d, size=%d",
+                index.getName(), hits, misses, evictions, size );
+    }
+
+    @Override
+    public void compactionFailed( IndexDescriptor index, Throwable throwable )
+    {
+        log.warn( "Schema index compaction failed: index=" + index.getName(), throwable );
+    }
+
+    @Override
+    public void bloomFilterRebuildFailed( IndexDescriptor index, Throwable throwable )
+    {
+        log.warn( "Schema index bloom filter rebuild failed: index=" + index.getName(), throwable );
+    }
+
     private static String indexDescription( Path indexFile, IndexDescriptor indexDescriptor )
     {
         return "descriptor=" + indexDescriptor + ", indexFile=" + indexFile.toAbsolutePath();
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.index;
+
+/**
+ * A seek of an index which has been split up into partitions up front, where each partition can be read by a different thread.
+ * Created by {@link IndexReader#valueSeek(int, org.neo4j.internal.kernel.api.QueryContext, org.neo4j.internal.kernel.api.IndexQuery...)}.
+ */
+public interface PartitionedValueSeek
+{
+    /**
+     * @return the number of partitions the seek was split into.
+     */
+    int getNumberOfPartitions();
+
+    /**
+     * Reserves the next partition, which no other caller will get. Safe to call concurrently.
+     *
+     * @param client the client which will control the progression through the results of the reserved partition.
+     * @return {@link IndexProgressor} for the reserved partition, feeding results to {@code client},
+     * or {@link IndexProgressor#EMPTY} if all partitions have already been reserved.
+     */
+    IndexProgressor reservePartition( IndexProgressor.EntityValueClient client );
+}
@@ -53,6 +53,7 @@ import java.util.stream.Stream;
 
 import org.neo4j.internal.diagnostics.DiagnosticsLogger;
 import org.neo4j.internal.diagnostics.DiagnosticsProvider;
+import org.neo4j.internal.nativeimpl.HugePages;
 import org.neo4j.internal.nativeimpl.NativeAccess;
 import org.neo4j.internal.nativeimpl.NativeAccessProvider;
 import org.neo4j.io.fs.FileUtils;
@@ -74,6 +75,7 @@ public enum SystemDiagnostics implements DiagnosticsProvider
             logBytes( logger, "Committed virtual memory: ", OsBeanUtil.getCommittedVirtualMemory() );
             logBytes( logger, "Total swap space: ", OsBeanUtil.getTotalSwapSpace() );
             logBytes( logger, "Free swap space: ", OsBeanUtil.getFreeSwapSpace() );
+            logger.log( "Transparent huge pages: " + HugePages.transparentHugePageMode() );
         }
     },
     JAVA_MEMORY( "JVM memory information" )
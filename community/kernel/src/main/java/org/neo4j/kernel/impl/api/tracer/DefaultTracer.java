@@ -23,6 +23,7 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.stats.LatencyHistogram;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
@@ -43,6 +44,10 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FO
 public class DefaultTracer implements DatabaseTracer
 {
     private final AtomicLong appendedBytes = new AtomicLong();
+    private final LatencyHistogram logAppendLatency = new LatencyHistogram();
+    private final LatencyHistogram logForceWaitLatency = new LatencyHistogram();
+    private final LatencyHistogram logForceLatency = new LatencyHistogram();
+    private final LatencyHistogram storeApplyLatency = new LatencyHistogram();
 
     private final CountingLogRotateEvent countingLogRotateEvent = new CountingLogRotateEvent();
     private final LogFileCreateEvent logFileCreateEvent = () -> appendedBytes.addAndGet( CURRENT_FORMAT_LOG_HEADER_SIZE );
@@ -50,6 +55,11 @@ public class DefaultTracer implements DatabaseTracer
     private final LogAppendEvent logAppendEvent = new DefaultLogAppendEvent();
     private final CommitEvent commitEvent = new DefaultCommitEvent();
     private final TransactionEvent transactionEvent = new DefaultTransactionEvent();
+    // The commit stages of a thread never overlap with the same stage of that thread, so each thread can reuse one event per stage
+    private final ThreadLocal<TimedEvent> logAppendEvents = ThreadLocal.withInitial( () -> new TimedEvent( logAppendLatency ) );
+    private final ThreadLocal<TimedEvent> logForceWaitEvents = ThreadLocal.withInitial( () -> new TimedEvent( logForceWaitLatency ) );
+    private final ThreadLocal<TimedEvent> logForceEvents = ThreadLocal.withInitial( () -> new TimedEvent( logForceLatency ) );
+    private final ThreadLocal<TimedEvent> storeApplyEvents = ThreadLocal.withInitial( () -> new TimedEvent( storeApplyLatency ) );
 
     public DefaultTracer()
     {
@@ -86,6 +96,30 @@ public class DefaultTracer implements DatabaseTracer
         return countingLogRotateEvent.lastLogRotationTimeMillis();
     }
 
+    @Override
+    public LatencyHistogram logAppendLatency()
+    {
+        return logAppendLatency;
+    }
+
+    @Override
+    public LatencyHistogram logForceWaitLatency()
+    {
+        return logForceWaitLatency;
+    }
+
+    @Override
+    public LatencyHistogram logForceLatency()
+    {
+        return logForceLatency;
+    }
+
+    @Override
+    public LatencyHistogram storeApplyLatency()
+    {
+        return storeApplyLatency;
+    }
+
     @Override
     public long numberOfCheckPoints()
     {
@@ -176,7 +210,7 @@ public class DefaultTracer implements DatabaseTracer
         @Override
         public StoreApplyEvent beginStoreApply()
         {
-            return StoreApplyEvent.NULL;
+            return storeApplyEvents.get().start();
         }
     }
 
@@ -208,19 +242,42 @@ public class DefaultTracer implements DatabaseTracer
         @Override
         public SerializeTransactionEvent beginSerializeTransaction()
         {
-            return SerializeTransactionEvent.NULL;
+            return logAppendEvents.get().start();
         }
 
         @Override
         public LogForceWaitEvent beginLogForceWait()
         {
-            return LogForceWaitEvent.NULL;
+            return logForceWaitEvents.get().start();
         }
 
         @Override
         public LogForceEvent beginLogForce()
         {
-            return LogForceEvent.NULL;
+            return logForceEvents.get().start();
+        }
+    }
+
+    private static class TimedEvent implements SerializeTransactionEvent, LogForceWaitEvent, LogForceEvent, StoreApplyEvent
+    {
+        private final LatencyHistogram histogram;
+        private long startNanos;
+
+        TimedEvent( LatencyHistogram histogram )
+        {
+            this.histogram = histogram;
+        }
+
+        TimedEvent start()
+        {
+            startNanos = System.nanoTime();
+            return this;
+        }
+
+        @Override
+        public void close()
+        {
+            histogram.record( System.nanoTime() - startNanos );
         }
     }
 }
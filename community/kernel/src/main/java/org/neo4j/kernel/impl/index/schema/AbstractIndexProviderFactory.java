@@ -36,6 +36,7 @@ import org.neo4j.kernel.recovery.RecoveryExtension;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.internal.LogService;
 import org.neo4j.monitoring.Monitors;
+import org.neo4j.scheduler.JobScheduler;
 
 @RecoveryExtension
 public abstract class AbstractIndexProviderFactory extends ExtensionFactory<AbstractIndexProviderFactory.Dependencies>
@@ -59,7 +60,8 @@ public abstract class AbstractIndexProviderFactory extends ExtensionFactory<Abst
         Config config = dependencies.getConfig();
         OperationalMode operationalMode = context.dbmsInfo().operationalMode;
         RecoveryCleanupWorkCollector recoveryCleanupWorkCollector = dependencies.recoveryCleanupWorkCollector();
-        return internalCreate( pageCache, databaseDir, fs, monitor, config, operationalMode, recoveryCleanupWorkCollector );
+        JobScheduler jobScheduler = dependencies.jobScheduler();
+        return internalCreate( pageCache, databaseDir, fs, monitor, config, operationalMode, recoveryCleanupWorkCollector, jobScheduler );
     }
 
     protected abstract Class<?> loggingClass();
@@ -68,7 +70,7 @@ public abstract class AbstractIndexProviderFactory extends ExtensionFactory<Abst
 
     protected abstract IndexProvider internalCreate( PageCache pageCache, Path storeDir, FileSystemAbstraction fs,
             IndexProvider.Monitor monitor, Config config, OperationalMode operationalMode,
-            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector );
+            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, JobScheduler jobScheduler );
 
     public interface Dependencies
     {
@@ -83,5 +85,7 @@ public abstract class AbstractIndexProviderFactory extends ExtensionFactory<Abst
         Config getConfig();
 
         RecoveryCleanupWorkCollector recoveryCleanupWorkCollector();
+
+        JobScheduler jobScheduler();
     }
 }
@@ -29,10 +29,12 @@ import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.index.internal.gbptree.BulkLoader;
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.Seeker;
 import org.neo4j.index.internal.gbptree.Writer;
@@ -43,6 +45,7 @@ import org.neo4j.io.ByteUnit;
 import org.neo4j.io.IOUtils;
 import org.neo4j.io.memory.ByteBufferFactory;
 import org.neo4j.io.memory.ByteBufferFactory.Allocator;
+import org.neo4j.io.memory.ScopedBuffer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
 import org.neo4j.kernel.api.index.IndexPopulator;
@@ -63,7 +66,6 @@ import org.neo4j.values.storable.Value;
 
 import static org.neo4j.index.internal.gbptree.GBPTree.NO_HEADER_WRITER;
 import static org.neo4j.internal.helpers.collection.Iterables.first;
-import static org.neo4j.io.ByteUnit.kibiBytes;
 import static org.neo4j.io.IOUtils.closeAllUnchecked;
 import static org.neo4j.kernel.impl.index.schema.BlockStorage.Monitor.NO_MONITOR;
 import static org.neo4j.kernel.impl.index.schema.NativeIndexUpdater.initializeKeyFromUpdate;
@@ -91,9 +93,10 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
     private final boolean archiveFailedIndex;
     private final MemoryTracker memoryTracker;
     /**
-     * When merging all blocks together the algorithm does multiple passes over the block storage, until the number of blocks reaches 1.
+     * When merging all blocks together the algorithm does multiple passes over the block storage, until the number of blocks is at most {@link #mergeFactor}.
      * Every pass does one or more merges and every merge merges up to {@link #mergeFactor} number of blocks into one block,
-     * i.e. the number of blocks shrinks by a factor {@link #mergeFactor} every pass, until one block is left.
+     * i.e. the number of blocks shrinks by a factor {@link #mergeFactor} every pass. The merges of a pass are performed in parallel.
+     * The blocks left in all block storages are then merged together straight into the tree.
      */
     private final int mergeFactor;
     private final BlockStorage.Monitor blockStorageMonitor;
@@ -252,9 +255,10 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
         try
         {
             phaseTracker.enterPhase( PhaseTracker.Phase.MERGE );
+            Executor mergeExecutor = mergeExecutor( populationWorkScheduler );
             if ( !allScanUpdates.isEmpty() )
             {
-                mergeScanUpdates( populationWorkScheduler );
+                mergeScanUpdates( populationWorkScheduler, mergeExecutor );
             }
 
             externalUpdates.doneAdding();
@@ -274,7 +278,8 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
                   var indexKeyStorage = new IndexKeyStorage<>( fileSystem, duplicatesFile, allocator, readBufferSize, layout, memoryTracker ) )
             {
                 RecordingConflictDetector<KEY,VALUE> recordingConflictDetector = new RecordingConflictDetector<>( !descriptor.isUnique(), indexKeyStorage );
-                writeScanUpdatesToTree( recordingConflictDetector, allocator, readBufferSize, cursorTracer );
+                sizeBloomFilter( allScanUpdates.stream().mapToLong( part -> part.count ).sum() + externalUpdates.count() );
+                writeScanUpdatesToTree( recordingConflictDetector, allocator, readBufferSize, mergeExecutor, cursorTracer );
 
                 // Apply the external updates
                 phaseTracker.enterPhase( PhaseTracker.Phase.APPLY_EXTERNAL );
@@ -320,7 +325,21 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
         }
     }
 
-    private void mergeScanUpdates(  PopulationWorkScheduler populationWorkScheduler ) throws InterruptedException, ExecutionException, IOException
+    /**
+     * Executor for the single merges of the block storages and for prefetching of block data, see {@link BlockStorage#merge(int, int, Executor,
+     * BlockStorage.Cancellation)}. The threads submitting to it run submitted tasks themselves if no population worker has picked them up yet.
+     */
+    private static Executor mergeExecutor( PopulationWorkScheduler populationWorkScheduler )
+    {
+        return task -> populationWorkScheduler.schedule( indexName -> "Block merging for '" + indexName + "'", () ->
+        {
+            task.run();
+            return null;
+        } );
+    }
+
+    private void mergeScanUpdates( PopulationWorkScheduler populationWorkScheduler, Executor mergeExecutor )
+            throws InterruptedException, ExecutionException, IOException
     {
         List<JobHandle<?>> mergeFutures = new ArrayList<>();
         for ( ThreadLocalBlockStorage part : allScanUpdates )
@@ -332,7 +351,8 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
                     indexName -> "Block merging for '" + indexName + "'",
                     () ->
                     {
-                        scanUpdates.merge( mergeFactor, cancellation );
+                        // Leave up to mergeFactor blocks in each storage, those are merged while writing the scan updates to the tree
+                        scanUpdates.merge( mergeFactor, mergeFactor, mergeExecutor, cancellation );
                         return null;
                     } )
             );
@@ -410,41 +430,58 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
         }
     }
 
+    /**
+     * Merges the blocks left in all block storages after {@link #mergeScanUpdates(PopulationWorkScheduler, Executor)} straight into the tree.
+     */
     private void writeScanUpdatesToTree( RecordingConflictDetector<KEY,VALUE> recordingConflictDetector, Allocator allocator, int bufferSize,
-            PageCursorTracer cursorTracer ) throws IOException, IndexEntryConflictException
+            Executor prefetchExecutor, PageCursorTracer cursorTracer ) throws IOException, IndexEntryConflictException
     {
         try ( MergingBlockEntryReader<KEY,VALUE> allEntries = new MergingBlockEntryReader<>( layout );
-              var singleBlockScopedBuffer = allocator.allocate( (int) kibiBytes( 8 ), memoryTracker );
               var readBuffers = new CompositeBuffer() )
         {
+            ScopedBuffer readScopedBuffer = null;
             for ( ThreadLocalBlockStorage part : allScanUpdates )
             {
-                var readScopedBuffer = allocator.allocate( bufferSize, memoryTracker );
-                readBuffers.addBuffer( readScopedBuffer );
-                try ( BlockReader<KEY,VALUE> reader = part.blockStorage.reader() )
+                try ( BlockReader<KEY,VALUE> reader = part.blockStorage.reader( prefetchExecutor ) )
                 {
-                    BlockEntryReader<KEY,VALUE> singleMergedBlock = reader.nextBlock( readScopedBuffer );
-                    if ( singleMergedBlock != null )
+                    while ( true )
                     {
-                        allEntries.addSource( singleMergedBlock );
-                        // Pass in some sort of ByteBuffer here. The point is that there should be no more data to read,
-                        // if there is then it's due to a bug in the code and must be fixed.
-                        if ( reader.nextBlock( singleBlockScopedBuffer ) != null )
+                        if ( readScopedBuffer == null )
+                        {
+                            readScopedBuffer = allocator.allocate( bufferSize, memoryTracker );
+                            readBuffers.addBuffer( readScopedBuffer );
+                        }
+                        BlockEntryReader<KEY,VALUE> block = reader.nextBlock( readScopedBuffer );
+                        if ( block == null )
                         {
-                            throw new IllegalStateException( "Final BlockStorage had multiple blocks" );
+                            break;
                         }
+                        allEntries.addSource( block );
+                        readScopedBuffer = null;
                     }
                 }
             }
 
-            int asMuchAsPossibleToTheLeft = 1;
-            try ( Writer<KEY,VALUE> writer = tree.writer( asMuchAsPossibleToTheLeft, cursorTracer ) )
+            // The merged scan updates come in sorted order and the tree is still empty, so build it bottom up with full tree nodes
+            double asMuchAsPossibleInEachNode = 1;
+            try ( BulkLoader<KEY,VALUE> bulkLoader = tree.bulkLoader( asMuchAsPossibleInEachNode, cursorTracer ) )
             {
+                KEY previousKey = layout.newKey();
+                boolean hasPreviousKey = false;
                 while ( allEntries.next() && !cancellation.cancelled() )
                 {
-                    writeToTree( writer, recordingConflictDetector, allEntries.key(), allEntries.value() );
+                    KEY key = allEntries.key();
+                    if ( bulkLoadToTree( bulkLoader, recordingConflictDetector, hasPreviousKey ? previousKey : null, key, allEntries.value() ) )
+                    {
+                        layout.copyKey( key, previousKey );
+                        hasPreviousKey = true;
+                    }
                     numberOfAppliedScanUpdates.incrementAndGet();
                 }
+                if ( !cancellation.cancelled() )
+                {
+                    bulkLoader.finish();
+                }
             }
         }
     }
@@ -454,7 +491,7 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
     {
         if ( scanCompleted )
         {
-            // Will need the reader from newReader, which a sub-class of this class implements
+            // Updates go straight to the tree, where deferred conflict checks of unique indexes look for duplicates
             return new DelegatingIndexUpdater( super.newPopulatingUpdater( cursorTracer ) )
             {
                 @Override
@@ -615,11 +652,43 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
     private void writeToTree( Writer<KEY,VALUE> writer, RecordingConflictDetector<KEY,VALUE> recordingConflictDetector, KEY key, VALUE value )
             throws IndexEntryConflictException
     {
+        addToBloomFilter( key );
         recordingConflictDetector.controlConflictDetection( key );
         writer.merge( key, value, recordingConflictDetector );
         handleMergeConflict( writer, recordingConflictDetector, key, value );
     }
 
+    /**
+     * Add key and value, coming in sorted order, to the bulk loaded tree and record duplicates if any. Since entries are sorted,
+     * an entry can only conflict with the previously added entry, i.e. the entry which merging it into the tree would have found.
+     * Conflicting entries are all added, like in {@link #handleMergeConflict}, and their uniqueness verified later on.
+     *
+     * @return {@code true} if the entry was added, or {@code false} if it was the same as the previously added entry.
+     */
+    private boolean bulkLoadToTree( BulkLoader<KEY,VALUE> bulkLoader, RecordingConflictDetector<KEY,VALUE> recordingConflictDetector, KEY previousKey,
+            KEY key, VALUE value ) throws IndexEntryConflictException
+    {
+        if ( previousKey != null && layout.compareValue( previousKey, key ) == 0 )
+        {
+            if ( previousKey.getEntityId() == key.getEntityId() )
+            {
+                // Merging this entry into the tree wouldn't have changed anything
+                return false;
+            }
+            if ( descriptor.isUnique() )
+            {
+                recordingConflictDetector.merge( previousKey, key, value, value );
+                KEY copy = layout.newKey();
+                layout.copyKey( key, copy );
+                recordingConflictDetector.reportConflict( copy );
+            }
+        }
+        addToBloomFilter( key );
+        recordingConflictDetector.relaxUniqueness( key );
+        bulkLoader.add( key, value );
+        return true;
+    }
+
     /**
      * Will check if recording conflict detector saw a conflict. If it did, that conflict has been recorded and we will verify uniqueness for this
      * value later on. But for now we try and insert conflicting value again but with a relaxed uniqueness constraint. Insert is done with a throwing
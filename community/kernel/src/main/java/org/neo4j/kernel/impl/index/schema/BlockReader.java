@@ -21,7 +21,9 @@ package org.neo4j.kernel.impl.index.schema;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
+import java.util.concurrent.Executor;
 
 import org.neo4j.index.internal.gbptree.Layout;
 import org.neo4j.io.fs.FileSystemAbstraction;
@@ -30,24 +32,46 @@ import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.io.memory.ScopedBuffer;
 import org.neo4j.io.pagecache.PageCursor;
 
+import static org.neo4j.io.ByteUnit.kibiBytes;
+
 /**
  * Hands out {@link BlockEntryReader} for each Block in file in sequential order. The resulting readers have their own {@link StoreChannel} that they read
  * from and they need to be closed separately, this class does not take responsibility for created readers. This also mean it's safe to close this
  * {@link BlockReader} even if there are still child readers alive.
+ *
+ * If given a prefetch {@link Executor} the block buffers are split in two halves, one which the block reader reads from and one which
+ * the next part of the block is prefetched into, see {@link PrefetchingStoreChannel}.
  */
 public class BlockReader<KEY,VALUE> implements Closeable
 {
+    /**
+     * Buffers smaller than this are not split for prefetching, since the halves would be too small to be worth it.
+     */
+    static final int MIN_PREFETCH_BUFFER_SIZE = (int) kibiBytes( 16 );
+
     private final StoreChannel channel;
     private final FileSystemAbstraction fs;
     private final Path path;
     private final Layout<KEY,VALUE> layout;
+    private final Executor prefetchExecutor;
 
     BlockReader( FileSystemAbstraction fs, Path path, Layout<KEY,VALUE> layout ) throws IOException
+    {
+        this( fs, path, layout, 0, null );
+    }
+
+    /**
+     * @param position position in the file of the first block to read.
+     * @param prefetchExecutor executor to prefetch block data with, or {@code null} for no prefetching.
+     */
+    BlockReader( FileSystemAbstraction fs, Path path, Layout<KEY,VALUE> layout, long position, Executor prefetchExecutor ) throws IOException
     {
         this.fs = fs;
         this.path = path;
         this.layout = layout;
+        this.prefetchExecutor = prefetchExecutor;
         this.channel = fs.read( path );
+        this.channel.position( position );
     }
 
     BlockEntryReader<KEY,VALUE> nextBlock( ScopedBuffer blockBuffer ) throws IOException
@@ -59,7 +83,16 @@ public class BlockReader<KEY,VALUE> implements Closeable
         }
         StoreChannel blockChannel = fs.read( path );
         blockChannel.position( position );
-        PageCursor pageCursor = new ReadableChannelPageCursor( new ReadAheadChannel<>( blockChannel, blockBuffer.getBuffer() ) );
+        ByteBuffer buffer = blockBuffer.getBuffer();
+        ByteBuffer readAheadBuffer = buffer;
+        if ( prefetchExecutor != null && buffer.capacity() >= MIN_PREFETCH_BUFFER_SIZE )
+        {
+            int half = buffer.capacity() / 2;
+            readAheadBuffer = buffer.duplicate().clear().limit( half ).slice().order( buffer.order() );
+            ByteBuffer prefetchBuffer = buffer.duplicate().clear().position( half ).slice().order( buffer.order() );
+            blockChannel = new PrefetchingStoreChannel( blockChannel, prefetchBuffer, prefetchExecutor );
+        }
+        PageCursor pageCursor = new ReadableChannelPageCursor( new ReadAheadChannel<>( blockChannel, readAheadBuffer ) );
         BlockEntryReader<KEY,VALUE> blockEntryReader = new BlockEntryReader<>( pageCursor, layout );
         long blockSize = blockEntryReader.blockSize();
         channel.position( position + blockSize );
@@ -26,10 +26,16 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 import java.util.function.IntConsumer;
 
 import org.neo4j.index.internal.gbptree.Layout;
+import org.neo4j.internal.helpers.Exceptions;
 import org.neo4j.io.IOUtils;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.StoreChannel;
@@ -51,7 +57,8 @@ import static org.neo4j.kernel.impl.index.schema.BlockStorage.Cancellation.NOT_C
  * 2. MERGE: By calling {@link #merge(int, Cancellation)} (after {@link #doneAdding()} has been called) the multiple Blocks are merge joined into a new file
  * resulting in larger blocks of sorted entries. Those larger blocks are then merge joined back to the original file. Merging continues in this ping pong
  * fashion until there is only a single large block in the resulting file. The entries are now ready to be read in sorted order,
- * call {@link #reader()}.
+ * call {@link #reader()}. The merges within each iteration can be performed in parallel and merging can stop short of a single block,
+ * leaving the last merge to the reader, see {@link #merge(int, int, Executor, Cancellation)}.
  */
 class BlockStorage<KEY, VALUE> implements Closeable
 {
@@ -161,34 +168,39 @@ class BlockStorage<KEY, VALUE> implements Closeable
      */
     public void merge( int mergeFactor, Cancellation cancellation ) throws IOException
     {
-        monitor.mergeStarted( entryCount, calculateNumberOfEntriesWrittenDuringMerges( entryCount, numberOfBlocksInCurrentFile, mergeFactor ) );
+        merge( mergeFactor, 1, Runnable::run, cancellation );
+    }
+
+    /**
+     * Like {@link #merge(int, Cancellation)}, but stops merging when there are at most {@code maxNumberOfBlocks} blocks left, so that the
+     * reader of this storage can merge the remaining blocks as part of consuming them instead of this storage writing one more intermediate file.
+     *
+     * The single merges of a merge iteration are independent of each other, each one reading its own blocks and writing its merged block
+     * to the same position in the target file as its first block had in the source file. They are therefore handed to the given executor to be
+     * performed in parallel, with the calling thread performing the ones no executor thread has picked up, see {@link ClaimableTask}.
+     * The same executor is used to prefetch block data when merging, see {@link PrefetchingStoreChannel}.
+     *
+     * @param mergeFactor See {@link #performSingleMerge(int, BlockReader, StoreChannel, Cancellation, ScopedBuffer[], ByteBuffer)}.
+     * @param maxNumberOfBlocks number of blocks to merge down to.
+     * @param executor executor to perform single merges and prefetching with.
+     * @param cancellation Injected so that this merge can be cancelled, if an external request to do that comes in.
+     * @throws IOException If something goes wrong when reading from file.
+     */
+    void merge( int mergeFactor, int maxNumberOfBlocks, Executor executor, Cancellation cancellation ) throws IOException
+    {
+        monitor.mergeStarted( entryCount,
+                calculateNumberOfEntriesWrittenDuringMerges( entryCount, numberOfBlocksInCurrentFile, mergeFactor, maxNumberOfBlocks ) );
         Path sourceFile = blockFile;
         Path tempFile = blockFile.resolveSibling( blockFile.getFileName() + ".b" );
         Path targetFile = tempFile;
-        int bufferSize = bufferFactory.bufferSize();
 
-        try ( var mergeBufferAllocator = bufferFactory.newLocalAllocator();
-              var writeBuffer = mergeBufferAllocator.allocate( bufferSize, memoryTracker );
-              var readBuffers = new CompositeScopedBuffer( mergeFactor, bufferSize, mergeBufferAllocator, memoryTracker ) )
+        try ( var mergeBuffers = new MergeBuffers( mergeFactor ) )
         {
-            while ( numberOfBlocksInCurrentFile > 1 )
+            while ( numberOfBlocksInCurrentFile > maxNumberOfBlocks && !cancellation.cancelled() )
             {
                 // Perform one complete merge iteration, merging all blocks from source into target.
                 // After this step, target will contain fewer blocks than source, but may need another merge iteration.
-                try ( BlockReader<KEY,VALUE> reader = reader( sourceFile );
-                      StoreChannel targetChannel = fs.write( targetFile ) )
-                {
-                    long blocksMergedSoFar = 0;
-                    long blocksInMergedFile = 0;
-                    while ( !cancellation.cancelled() && blocksMergedSoFar < numberOfBlocksInCurrentFile )
-                    {
-                        blocksMergedSoFar += performSingleMerge( mergeFactor, reader, targetChannel, cancellation, readBuffers.getScopedBuffers(),
-                                writeBuffer.getBuffer() );
-                        blocksInMergedFile++;
-                    }
-                    numberOfBlocksInCurrentFile = blocksInMergedFile;
-                    monitor.mergeIterationFinished( blocksMergedSoFar, blocksInMergedFile );
-                }
+                performMergeIteration( mergeFactor, sourceFile, targetFile, executor, cancellation, mergeBuffers );
 
                 // Flip and restore the channels
                 Path tmpSourceFile = sourceFile;
@@ -210,6 +222,53 @@ class BlockStorage<KEY, VALUE> implements Closeable
         }
     }
 
+    private void performMergeIteration( int mergeFactor, Path sourceFile, Path targetFile, Executor executor, Cancellation cancellation,
+            MergeBuffers mergeBuffers ) throws IOException
+    {
+        List<SingleMerge> merges = new ArrayList<>();
+        // Opening the target here makes sure it exists before the single merges open their own channels to it
+        try ( StoreChannel ignored = fs.write( targetFile );
+              StoreChannel sourceChannel = fs.read( sourceFile ) )
+        {
+            ByteBuffer header = ByteBuffer.allocate( BLOCK_HEADER_SIZE );
+            long position = 0;
+            for ( long block = 0; block < numberOfBlocksInCurrentFile; block += mergeFactor )
+            {
+                int numberOfBlocks = (int) Math.min( mergeFactor, numberOfBlocksInCurrentFile - block );
+                SingleMerge merge = new SingleMerge( sourceFile, targetFile, position, numberOfBlocks, executor, cancellation, mergeBuffers );
+                merges.add( merge );
+                merge.submit( executor );
+                for ( int i = 0; i < numberOfBlocks; i++ )
+                {
+                    header.clear();
+                    sourceChannel.position( position );
+                    sourceChannel.readAll( header );
+                    position += header.getLong( 0 );
+                }
+            }
+
+            IOException failure = null;
+            for ( SingleMerge merge : merges )
+            {
+                // Await all merges, also after a failure, so that none of them is still running when this merge iteration completes
+                try
+                {
+                    merge.await();
+                }
+                catch ( IOException e )
+                {
+                    failure = Exceptions.chain( failure, e );
+                }
+            }
+            if ( failure != null )
+            {
+                throw failure;
+            }
+        }
+        monitor.mergeIterationFinished( numberOfBlocksInCurrentFile, merges.size() );
+        numberOfBlocksInCurrentFile = merges.size();
+    }
+
     /**
      * Calculates number of entries that will be written, given an entry count, number of blocks and a merge factor.
      * During merge entries are merged and written, potentially multiple times depending on number of blocks and merge factor.
@@ -221,9 +280,17 @@ class BlockStorage<KEY, VALUE> implements Closeable
      * merged with the given merge factor.
      */
     static long calculateNumberOfEntriesWrittenDuringMerges( long entryCount, long numberOfBlocks, int mergeFactor )
+    {
+        return calculateNumberOfEntriesWrittenDuringMerges( entryCount, numberOfBlocks, mergeFactor, 1 );
+    }
+
+    /**
+     * Like {@link #calculateNumberOfEntriesWrittenDuringMerges(long, long, int)}, but for merging down to {@code maxNumberOfBlocks} blocks.
+     */
+    static long calculateNumberOfEntriesWrittenDuringMerges( long entryCount, long numberOfBlocks, int mergeFactor, int maxNumberOfBlocks )
     {
         int singleMerges = 0;
-        for ( long blocks = numberOfBlocks; blocks > 1; blocks = (long) ceil( (double) blocks / mergeFactor ) )
+        for ( long blocks = numberOfBlocks; blocks > maxNumberOfBlocks; blocks = (long) ceil( (double) blocks / mergeFactor ) )
         {
             singleMerges++;
         }
@@ -366,12 +433,103 @@ class BlockStorage<KEY, VALUE> implements Closeable
 
     BlockReader<KEY,VALUE> reader() throws IOException
     {
-        return reader( blockFile );
+        return new BlockReader<>( fs, blockFile, layout );
     }
 
-    private BlockReader<KEY,VALUE> reader( Path file ) throws IOException
+    /**
+     * @param prefetchExecutor executor to prefetch block data with, or {@code null} for no prefetching.
+     */
+    BlockReader<KEY,VALUE> reader( Executor prefetchExecutor ) throws IOException
     {
-        return new BlockReader<>( fs, file, layout );
+        return new BlockReader<>( fs, blockFile, layout, 0, prefetchExecutor );
+    }
+
+    /**
+     * Merges a number of consecutive blocks in the source file into one block at the same position in the target file.
+     */
+    private class SingleMerge extends ClaimableTask
+    {
+        private final Path sourceFile;
+        private final Path targetFile;
+        private final long position;
+        private final int numberOfBlocks;
+        private final Executor executor;
+        private final Cancellation cancellation;
+        private final MergeBuffers mergeBuffers;
+
+        SingleMerge( Path sourceFile, Path targetFile, long position, int numberOfBlocks, Executor executor, Cancellation cancellation,
+                MergeBuffers mergeBuffers )
+        {
+            this.sourceFile = sourceFile;
+            this.targetFile = targetFile;
+            this.position = position;
+            this.numberOfBlocks = numberOfBlocks;
+            this.executor = executor;
+            this.cancellation = cancellation;
+            this.mergeBuffers = mergeBuffers;
+        }
+
+        @Override
+        void perform() throws IOException
+        {
+            if ( cancellation.cancelled() )
+            {
+                return;
+            }
+            CompositeScopedBuffer buffers = mergeBuffers.acquire();
+            try ( BlockReader<KEY,VALUE> reader = new BlockReader<>( fs, sourceFile, layout, position, executor );
+                  StoreChannel targetChannel = fs.write( targetFile ) )
+            {
+                targetChannel.position( position );
+                performSingleMerge( numberOfBlocks, reader, targetChannel, cancellation, buffers.getScopedBuffers(), buffers.writeBuffer.getBuffer() );
+            }
+            finally
+            {
+                mergeBuffers.release( buffers );
+            }
+        }
+    }
+
+    /**
+     * Buffers for single merges, which are allocated as more single merges run concurrently and reused by later single merges.
+     */
+    private class MergeBuffers implements AutoCloseable
+    {
+        private final int mergeFactor;
+        private final Allocator allocator = bufferFactory.newLocalAllocator();
+        private final Queue<CompositeScopedBuffer> available = new ConcurrentLinkedQueue<>();
+        private final Queue<CompositeScopedBuffer> all = new ConcurrentLinkedQueue<>();
+
+        MergeBuffers( int mergeFactor )
+        {
+            this.mergeFactor = mergeFactor;
+        }
+
+        CompositeScopedBuffer acquire()
+        {
+            CompositeScopedBuffer buffers = available.poll();
+            if ( buffers == null )
+            {
+                synchronized ( allocator )
+                {
+                    buffers = new CompositeScopedBuffer( mergeFactor, bufferFactory.bufferSize(), allocator, memoryTracker );
+                }
+                all.add( buffers );
+            }
+            return buffers;
+        }
+
+        void release( CompositeScopedBuffer buffers )
+        {
+            available.add( buffers );
+        }
+
+        @Override
+        public void close()
+        {
+            IOUtils.closeAllSilently( all );
+            allocator.close();
+        }
     }
 
     public interface Monitor
@@ -487,9 +645,13 @@ class BlockStorage<KEY, VALUE> implements Closeable
         boolean cancelled();
     }
 
+    /**
+     * The read buffers of a single merge, one for each block it merges, and the buffer it writes the merged block with.
+     */
     private static class CompositeScopedBuffer implements AutoCloseable
     {
         private final ScopedBuffer[] scopedBuffers;
+        private final ScopedBuffer writeBuffer;
 
         CompositeScopedBuffer( int numberOfBuffers, int bufferSize, Allocator allocator, MemoryTracker memoryTracker )
         {
@@ -498,6 +660,7 @@ class BlockStorage<KEY, VALUE> implements Closeable
             {
                 scopedBuffers[i] = allocator.allocate( bufferSize, memoryTracker );
             }
+            writeBuffer = allocator.allocate( bufferSize, memoryTracker );
         }
 
         public ScopedBuffer[] getScopedBuffers()
@@ -509,6 +672,7 @@ class BlockStorage<KEY, VALUE> implements Closeable
         public void close()
         {
             IOUtils.closeAllSilently( scopedBuffers );
+            IOUtils.closeAllSilently( writeBuffer );
         }
     }
 }
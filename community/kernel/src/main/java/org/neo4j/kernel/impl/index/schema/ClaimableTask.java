@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.internal.helpers.Exceptions;
+
+/**
+ * A task which is handed to an {@link Executor}, but which is run by the thread awaiting it if no executor thread has claimed it yet.
+ * This makes it safe for a thread of a bounded executor to submit tasks to that same executor and then await them, which would otherwise
+ * risk deadlock, while idle executor threads still get to pick up the tasks and run them in parallel.
+ */
+abstract class ClaimableTask implements Runnable
+{
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private final CountDownLatch done = new CountDownLatch( 1 );
+    private volatile Throwable failure;
+
+    void submit( Executor executor )
+    {
+        try
+        {
+            executor.execute( this );
+        }
+        catch ( RejectedExecutionException e )
+        {
+            // Fine, it will be run by the thread awaiting it instead
+        }
+    }
+
+    @Override
+    public final void run()
+    {
+        if ( claimed.compareAndSet( false, true ) )
+        {
+            try
+            {
+                perform();
+            }
+            catch ( Throwable t )
+            {
+                failure = t;
+            }
+            finally
+            {
+                done.countDown();
+            }
+        }
+    }
+
+    /**
+     * Runs this task in the calling thread if no other thread has claimed it, otherwise waits for it to complete.
+     *
+     * @throws IOException if the task failed, or if interrupted while waiting for it.
+     */
+    void await() throws IOException
+    {
+        run();
+        awaitDone();
+        Throwable t = failure;
+        if ( t != null )
+        {
+            Exceptions.throwIfInstanceOf( t, IOException.class );
+            Exceptions.throwIfUnchecked( t );
+            throw new IOException( t );
+        }
+    }
+
+    /**
+     * Makes sure that this task will not be run if no other thread has claimed it, otherwise waits for it to complete.
+     *
+     * @throws IOException if interrupted while waiting for the task.
+     */
+    void cancel() throws IOException
+    {
+        if ( claimed.compareAndSet( false, true ) )
+        {
+            done.countDown();
+        }
+        awaitDone();
+    }
+
+    private void awaitDone() throws InterruptedIOException
+    {
+        try
+        {
+            done.await();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while waiting for task to complete" );
+        }
+    }
+
+    abstract void perform() throws IOException;
+}
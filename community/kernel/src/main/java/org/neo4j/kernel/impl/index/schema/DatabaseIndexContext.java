@@ -22,6 +22,7 @@ package org.neo4j.kernel.impl.index.schema;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.kernel.api.index.IndexProvider;
+import org.neo4j.scheduler.JobScheduler;
 
 public class DatabaseIndexContext
 {
@@ -29,13 +30,25 @@ public class DatabaseIndexContext
     final FileSystemAbstraction fileSystem;
     final IndexProvider.Monitor monitor;
     final boolean readOnly;
+    final int uniqueIndexBloomFilterBitsPerKey;
+    final int uniqueIndexSeekCacheMaxEntries;
+    final boolean concurrentUpdaters;
+    final boolean compaction;
+    final JobScheduler jobScheduler;
 
-    private DatabaseIndexContext( PageCache pageCache, FileSystemAbstraction fileSystem, IndexProvider.Monitor monitor, boolean readOnly )
+    private DatabaseIndexContext( PageCache pageCache, FileSystemAbstraction fileSystem, IndexProvider.Monitor monitor, boolean readOnly,
+            int uniqueIndexBloomFilterBitsPerKey, int uniqueIndexSeekCacheMaxEntries, boolean concurrentUpdaters, boolean compaction,
+            JobScheduler jobScheduler )
     {
         this.pageCache = pageCache;
         this.fileSystem = fileSystem;
         this.monitor = monitor;
         this.readOnly = readOnly;
+        this.uniqueIndexBloomFilterBitsPerKey = uniqueIndexBloomFilterBitsPerKey;
+        this.uniqueIndexSeekCacheMaxEntries = uniqueIndexSeekCacheMaxEntries;
+        this.concurrentUpdaters = concurrentUpdaters;
+        this.compaction = compaction;
+        this.jobScheduler = jobScheduler;
     }
 
     /**
@@ -54,6 +67,11 @@ public class DatabaseIndexContext
         private final FileSystemAbstraction fileSystem;
         private IndexProvider.Monitor monitor;
         private boolean readOnly;
+        private int uniqueIndexBloomFilterBitsPerKey;
+        private int uniqueIndexSeekCacheMaxEntries;
+        private boolean concurrentUpdaters;
+        private boolean compaction;
+        private JobScheduler jobScheduler;
 
         private Builder( PageCache pageCache, FileSystemAbstraction fileSystem )
         {
@@ -87,9 +105,70 @@ public class DatabaseIndexContext
             return this;
         }
 
+        /**
+         * Default is 0, i.e. no bloom filters.
+         *
+         * @param bitsPerKey size of the bloom filters of online unique indexes, in bits per entry, or 0 for no bloom filters.
+         * @return {@link Builder this builder}
+         */
+        public Builder withUniqueIndexBloomFilterBitsPerKey( int bitsPerKey )
+        {
+            this.uniqueIndexBloomFilterBitsPerKey = bitsPerKey;
+            return this;
+        }
+
+        /**
+         * Default is 0, i.e. no seek caches. Can be overridden per index by {@link org.neo4j.internal.schema.IndexDescriptor#SEEK_CACHE_MAX_ENTRIES}.
+         *
+         * @param maxEntries maximum number of cached exact lookup results of each online unique index, or 0 for no seek caches.
+         * @return {@link Builder this builder}
+         */
+        public Builder withUniqueIndexSeekCacheMaxEntries( int maxEntries )
+        {
+            this.uniqueIndexSeekCacheMaxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Default is false, i.e. one updater at a time per index.
+         *
+         * @param concurrentUpdaters true if native indexes may hand out multiple updaters at the same time, each with its own concurrent tree writer.
+         * @return {@link Builder this builder}
+         */
+        public Builder withConcurrentUpdaters( boolean concurrentUpdaters )
+        {
+            this.concurrentUpdaters = concurrentUpdaters;
+            return this;
+        }
+
+        /**
+         * Default is false. Compaction also needs a {@link #withJobScheduler(JobScheduler) job scheduler} to run on.
+         *
+         * @param compaction true if native indexes should be compacted in the background after checkpoints, when many of their pages are free.
+         * @return {@link Builder this builder}
+         */
+        public Builder withCompaction( boolean compaction )
+        {
+            this.compaction = compaction;
+            return this;
+        }
+
+        /**
+         * Default is {@code null}, i.e. no background maintenance of indexes, like compaction.
+         *
+         * @param jobScheduler {@link JobScheduler} to run background maintenance of indexes on.
+         * @return {@link Builder this builder}
+         */
+        public Builder withJobScheduler( JobScheduler jobScheduler )
+        {
+            this.jobScheduler = jobScheduler;
+            return this;
+        }
+
         public DatabaseIndexContext build()
         {
-            return new DatabaseIndexContext( pageCache, fileSystem, monitor, readOnly );
+            return new DatabaseIndexContext( pageCache, fileSystem, monitor, readOnly, uniqueIndexBloomFilterBitsPerKey, uniqueIndexSeekCacheMaxEntries,
+                    concurrentUpdaters, compaction, jobScheduler );
         }
     }
 }
@@ -25,16 +25,28 @@ import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveS
 
 class GenericLayout extends IndexLayout<GenericKey,NativeIndexValue>
 {
+    // Trees created with this version compress key prefixes. Versions before it can't read such trees, and refuse to open them.
+    private static final int MINOR_VERSION = 6;
+    // Trees created with this version don't compress key prefixes. They are still opened, and keep their format.
+    private static final int UNCOMPRESSED_MINOR_VERSION = 5;
+
     private final int numberOfSlots;
     private final IndexSpecificSpaceFillingCurveSettings spatialSettings;
 
     GenericLayout( int numberOfSlots, IndexSpecificSpaceFillingCurveSettings spatialSettings )
     {
-        super( false, Layout.namedIdentifier( "NSIL", numberOfSlots ), 0, 5 );
+        super( false, Layout.namedIdentifier( "NSIL", numberOfSlots ), 0, MINOR_VERSION );
         this.numberOfSlots = numberOfSlots;
         this.spatialSettings = spatialSettings;
     }
 
+    @Override
+    public boolean compatibleWith( long layoutIdentifier, int majorVersion, int minorVersion )
+    {
+        return super.compatibleWith( layoutIdentifier, majorVersion, minorVersion ) ||
+               super.compatibleWith( layoutIdentifier, majorVersion, MINOR_VERSION ) && minorVersion == UNCOMPRESSED_MINOR_VERSION;
+    }
+
     @Override
     public GenericKey newKey()
     {
@@ -70,6 +82,24 @@ class GenericLayout extends IndexLayout<GenericKey,NativeIndexValue>
         into.get( cursor, keySize );
     }
 
+    /**
+     * Neighbouring keys typically have values in common, e.g. type and leading characters of strings.
+     */
+    @Override
+    public boolean compressKeyPrefixes()
+    {
+        return true;
+    }
+
+    /**
+     * Keys are written with the entity id first, which differs between all neighbouring keys, so compress what comes after it.
+     */
+    @Override
+    public int keyPrefixCompressionOffset()
+    {
+        return NativeIndexKey.ENTITY_ID_SIZE;
+    }
+
     @Override
     public void minimalSplitter( GenericKey left, GenericKey right, GenericKey into )
     {
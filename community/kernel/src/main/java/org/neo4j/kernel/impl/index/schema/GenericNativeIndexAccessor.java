@@ -53,7 +53,16 @@ class GenericNativeIndexAccessor extends NativeIndexAccessor<GenericKey,NativeIn
             IndexLayout<GenericKey,NativeIndexValue> layout, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, IndexDescriptor descriptor,
             IndexSpecificSpaceFillingCurveSettings spaceFillingCurveSettings, SpaceFillingCurveConfiguration configuration, TokenNameLookup tokenNameLookup )
     {
-        super( databaseIndexContext, indexFiles, layout, descriptor, NO_HEADER_WRITER );
+        this( databaseIndexContext, indexFiles, layout, recoveryCleanupWorkCollector, descriptor, spaceFillingCurveSettings, configuration, tokenNameLookup,
+                null );
+    }
+
+    GenericNativeIndexAccessor( DatabaseIndexContext databaseIndexContext, IndexFiles indexFiles,
+            IndexLayout<GenericKey,NativeIndexValue> layout, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, IndexDescriptor descriptor,
+            IndexSpecificSpaceFillingCurveSettings spaceFillingCurveSettings, SpaceFillingCurveConfiguration configuration, TokenNameLookup tokenNameLookup,
+            NativeIndexBloomFilter populatedBloomFilter )
+    {
+        super( databaseIndexContext, indexFiles, layout, descriptor, NO_HEADER_WRITER, populatedBloomFilter );
         this.spaceFillingCurveSettings = spaceFillingCurveSettings;
         this.configuration = configuration;
         this.tokenNameLookup = tokenNameLookup;
@@ -63,6 +72,7 @@ class GenericNativeIndexAccessor extends NativeIndexAccessor<GenericKey,NativeIn
     @Override
     protected void afterTreeInstantiation( GBPTree<GenericKey,NativeIndexValue> tree )
     {
+        super.afterTreeInstantiation( tree );
         validator = new GenericIndexKeyValidator( tree.keyValueSizeCap(), descriptor, layout, tokenNameLookup );
     }
 
@@ -70,7 +80,7 @@ class GenericNativeIndexAccessor extends NativeIndexAccessor<GenericKey,NativeIn
     public IndexReader newReader()
     {
         assertOpen();
-        return new GenericNativeIndexReader( tree, layout, descriptor, spaceFillingCurveSettings, configuration );
+        return new GenericNativeIndexReader( tree, layout, descriptor, spaceFillingCurveSettings, configuration, bloomFilter, seekCache );
     }
 
     @Override
@@ -82,8 +92,10 @@ class GenericNativeIndexAccessor extends NativeIndexAccessor<GenericKey,NativeIn
     @Override
     public void force( IOLimiter ioLimiter, PageCursorTracer cursorTracer )
     {
+        boolean rebuildBloomFilter = beforeCheckpoint();
         // This accessor needs to use the header writer here because coordinate reference systems may have changed since last checkpoint.
         tree.checkpoint( ioLimiter, headerWriter, cursorTracer );
+        afterCheckpoint( ioLimiter, rebuildBloomFilter, cursorTracer );
     }
 
     @Override
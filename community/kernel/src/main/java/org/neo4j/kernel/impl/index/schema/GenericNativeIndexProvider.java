@@ -165,15 +165,17 @@ public class GenericNativeIndexProvider extends NativeIndexProvider<GenericKey,N
     protected IndexPopulator newIndexPopulator( IndexFiles indexFiles, GenericLayout layout, IndexDescriptor descriptor, ByteBufferFactory bufferFactory,
             MemoryTracker memoryTracker, TokenNameLookup tokenNameLookup )
     {
-        return new GenericBlockBasedIndexPopulator( databaseIndexContext, indexFiles, layout, descriptor, layout.getSpaceFillingCurveSettings(),
-                configuration, archiveFailedIndex, bufferFactory, memoryTracker, tokenNameLookup );
+        GenericBlockBasedIndexPopulator populator = new GenericBlockBasedIndexPopulator( databaseIndexContext, indexFiles, layout, descriptor,
+                layout.getSpaceFillingCurveSettings(), configuration, archiveFailedIndex, bufferFactory, memoryTracker, tokenNameLookup );
+        handOverBloomFilter( descriptor, populator );
+        return populator;
     }
 
     @Override
     protected IndexAccessor newIndexAccessor( IndexFiles indexFiles, GenericLayout layout, IndexDescriptor descriptor, TokenNameLookup tokenNameLookup )
     {
         return new GenericNativeIndexAccessor( databaseIndexContext, indexFiles, layout, recoveryCleanupWorkCollector, descriptor,
-                layout.getSpaceFillingCurveSettings(), configuration, tokenNameLookup );
+                layout.getSpaceFillingCurveSettings(), configuration, tokenNameLookup, takeOverBloomFilter( descriptor ) );
     }
 
     @Override
@@ -23,6 +23,7 @@ import java.nio.file.Path;
 
 import org.neo4j.annotations.service.ServiceProvider;
 import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
 import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
 import org.neo4j.internal.schema.IndexProviderDescriptor;
@@ -31,6 +32,7 @@ import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.kernel.api.index.IndexDirectoryStructure;
 import org.neo4j.kernel.api.index.IndexProvider;
 import org.neo4j.kernel.impl.factory.OperationalMode;
+import org.neo4j.scheduler.JobScheduler;
 
 import static org.neo4j.kernel.api.index.IndexDirectoryStructure.directoriesByProvider;
 
@@ -56,17 +58,22 @@ public class GenericNativeIndexProviderFactory extends AbstractIndexProviderFact
 
     @Override
     protected GenericNativeIndexProvider internalCreate( PageCache pageCache, Path storeDir, FileSystemAbstraction fs, IndexProvider.Monitor monitor,
-            Config config, OperationalMode operationalMode, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector )
+            Config config, OperationalMode operationalMode, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, JobScheduler jobScheduler )
     {
-        return create( pageCache, storeDir, fs, monitor, config, operationalMode, recoveryCleanupWorkCollector );
+        return create( pageCache, storeDir, fs, monitor, config, operationalMode, recoveryCleanupWorkCollector, jobScheduler );
     }
 
     public static GenericNativeIndexProvider create( PageCache pageCache, Path storeDir, FileSystemAbstraction fs, IndexProvider.Monitor monitor, Config config,
-            OperationalMode mode, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector )
+            OperationalMode mode, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, JobScheduler jobScheduler )
     {
         IndexDirectoryStructure.Factory directoryStructure = directoriesByProvider( storeDir );
         boolean readOnly = config.get( GraphDatabaseSettings.read_only ) && (OperationalMode.SINGLE == mode);
-        DatabaseIndexContext databaseIndexContext = DatabaseIndexContext.builder( pageCache, fs ).withMonitor( monitor ).withReadOnly( readOnly ).build();
+        DatabaseIndexContext databaseIndexContext = DatabaseIndexContext.builder( pageCache, fs ).withMonitor( monitor ).withReadOnly( readOnly )
+                .withUniqueIndexBloomFilterBitsPerKey( config.get( GraphDatabaseInternalSettings.index_unique_bloom_filter_bits_per_key ) )
+                .withUniqueIndexSeekCacheMaxEntries( config.get( GraphDatabaseInternalSettings.index_unique_seek_cache_max_entries ) )
+                .withConcurrentUpdaters( config.get( GraphDatabaseInternalSettings.index_concurrent_updaters ) )
+                .withCompaction( config.get( GraphDatabaseInternalSettings.index_compaction ) )
+                .withJobScheduler( jobScheduler ).build();
         return new GenericNativeIndexProvider( databaseIndexContext, directoryStructure, recoveryCleanupWorkCollector, config );
     }
 }
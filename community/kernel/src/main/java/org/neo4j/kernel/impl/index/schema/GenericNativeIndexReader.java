@@ -31,8 +31,10 @@ import org.neo4j.internal.kernel.api.IndexQuery.StringPrefixPredicate;
 import org.neo4j.internal.kernel.api.IndexQueryConstraints;
 import org.neo4j.internal.kernel.api.QueryContext;
 import org.neo4j.internal.schema.IndexDescriptor;
+import org.neo4j.internal.schema.IndexOrder;
 import org.neo4j.kernel.api.index.BridgingIndexProgressor;
 import org.neo4j.kernel.api.index.IndexProgressor;
+import org.neo4j.kernel.api.index.PartitionedValueSeek;
 import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettings;
 import org.neo4j.values.storable.CoordinateReferenceSystem;
 import org.neo4j.values.storable.Value;
@@ -50,9 +52,9 @@ class GenericNativeIndexReader extends NativeIndexReader<GenericKey,NativeIndexV
 
     GenericNativeIndexReader( GBPTree<GenericKey,NativeIndexValue> tree, IndexLayout<GenericKey,NativeIndexValue> layout,
             IndexDescriptor descriptor, IndexSpecificSpaceFillingCurveSettings spaceFillingCurveSettings,
-            SpaceFillingCurveConfiguration configuration )
+            SpaceFillingCurveConfiguration configuration, NativeIndexBloomFilter bloomFilter, NativeIndexSeekCache seekCache )
     {
-        super( tree, layout, descriptor );
+        super( tree, layout, descriptor, bloomFilter, seekCache );
         this.spaceFillingCurveSettings = spaceFillingCurveSettings;
         this.configuration = configuration;
     }
@@ -90,13 +92,19 @@ class GenericNativeIndexReader extends NativeIndexReader<GenericKey,NativeIndexV
             {
                 // If there's a GeometryRangeQuery among the predicates then this query changes from a straight-forward: build from/to and seek...
                 // into a query that is split into multiple sub-queries. Predicates both before and after will have to be accompanied each sub-query.
-                BridgingIndexProgressor multiProgressor = new BridgingIndexProgressor( client, descriptor.schema().getPropertyIds() );
-                client.initialize( descriptor, multiProgressor, query, constraints, false );
                 double[] from = geometryRangePredicate.from() == null ? null : geometryRangePredicate.from().coordinate();
                 double[] to = geometryRangePredicate.to() == null ? null : geometryRangePredicate.to().coordinate();
                 CoordinateReferenceSystem crs = geometryRangePredicate.crs();
                 SpaceFillingCurve curve = spaceFillingCurveSettings.forCrs( crs );
                 List<SpaceFillingCurve.LongRange> ranges = curve.getTilesIntersectingEnvelope( from, to, configuration );
+                if ( !ranges.isEmpty() && canSeekGeometrySubQueriesInBatch( query, constraints ) )
+                {
+                    seekGeometrySubQueriesInBatch( context, client, constraints, query, crs, ranges );
+                    return;
+                }
+
+                BridgingIndexProgressor multiProgressor = new BridgingIndexProgressor( client, descriptor.schema().getPropertyIds() );
+                client.initialize( descriptor, multiProgressor, query, constraints, false );
                 for ( SpaceFillingCurve.LongRange range : ranges )
                 {
                     // Here's a sub-query that we'll have to do for this geometry range. Build this query from all predicates
@@ -120,6 +128,62 @@ class GenericNativeIndexReader extends NativeIndexReader<GenericKey,NativeIndexV
         }
     }
 
+    @Override
+    public PartitionedValueSeek valueSeek( int desiredNumberOfPartitions, QueryContext context, IndexQuery... query )
+    {
+        if ( getGeometryRangePredicateIfAny( query ) != null )
+        {
+            // Geometry range queries are split up into multiple sub-queries, each of which would need partitioning
+            throw new UnsupportedOperationException( "Partitioned seek is not supported for geometry range queries" );
+        }
+        return super.valueSeek( desiredNumberOfPartitions, context, query );
+    }
+
+    /**
+     * The sub-queries of a geometry range query are ascending and non-overlapping in the index, and can therefore be seeked in one batch,
+     * if all predicates before the geometry range are exact and the results are not requested in descending order.
+     * The space filling curve ranges are ascending and merged when adjacent, so the sub-query keys are then ordered by those ranges.
+     */
+    private static boolean canSeekGeometrySubQueriesInBatch( IndexQuery[] query, IndexQueryConstraints constraints )
+    {
+        if ( constraints.order() == IndexOrder.DESCENDING )
+        {
+            return false;
+        }
+        for ( IndexQuery predicate : query )
+        {
+            if ( predicate instanceof IndexQuery.GeometryRangePredicate )
+            {
+                return true;
+            }
+            if ( predicate.type() != IndexQuery.IndexQueryType.exact )
+            {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Seeks all sub-queries of a geometry range query using one {@link GBPTree#batchedSeek(Object[], Object[], PageCursorTracer) batched seek}
+     * instead of one seek, each traversing the tree from the root, per sub-query.
+     */
+    private void seekGeometrySubQueriesInBatch( QueryContext context, IndexProgressor.EntityValueClient client, IndexQueryConstraints constraints,
+            IndexQuery[] query, CoordinateReferenceSystem crs, List<SpaceFillingCurve.LongRange> ranges )
+    {
+        GenericKey[] treeKeysFrom = new GenericKey[ranges.size()];
+        GenericKey[] treeKeysTo = new GenericKey[ranges.size()];
+        boolean needFiltering = false;
+        for ( int i = 0; i < ranges.size(); i++ )
+        {
+            treeKeysFrom[i] = layout.newKey();
+            treeKeysTo[i] = layout.newKey();
+            initializeFromToKeys( treeKeysFrom[i], treeKeysTo[i] );
+            needFiltering |= initializeRangeForGeometrySubQuery( treeKeysFrom[i], treeKeysTo[i], query, crs, ranges.get( i ) );
+        }
+        startBatchedSeekForInitializedRanges( client, treeKeysFrom, treeKeysTo, query, constraints, needFiltering, context.cursorTracer() );
+    }
+
     /**
      * Initializes {@code treeKeyFrom} and {@code treeKeyTo} from the {@link IndexQuery query}.
      * Geometry range queries makes an otherwise straight-forward key construction complex in that a geometry range internally is performed
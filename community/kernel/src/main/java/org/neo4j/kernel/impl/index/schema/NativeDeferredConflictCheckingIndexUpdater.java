@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Seeker;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
+import org.neo4j.kernel.api.index.IndexUpdater;
+import org.neo4j.storageengine.api.IndexEntryUpdate;
+import org.neo4j.values.storable.ValueTuple;
+
+import static org.neo4j.storageengine.api.UpdateMode.REMOVED;
+
+/**
+ * Like {@link DeferredConflictCheckingIndexUpdater}, but checks the touched value tuples for conflicts directly in the {@link GBPTree}.
+ * All value tuples are looked up using one {@link GBPTree#batchedSeek(Object[], Object[], PageCursorTracer) batched seek} in key order,
+ * instead of one query per value tuple, each traversing the tree from the root.
+ *
+ * @param <KEY> type of {@link NativeIndexKey}.
+ * @param <VALUE> type of {@link NativeIndexValue}.
+ */
+class NativeDeferredConflictCheckingIndexUpdater<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue> implements IndexUpdater
+{
+    private final IndexUpdater actual;
+    private final GBPTree<KEY,VALUE> tree;
+    private final IndexLayout<KEY,VALUE> layout;
+    private final PageCursorTracer cursorTracer;
+    private final Set<ValueTuple> touchedTuples = new HashSet<>();
+
+    NativeDeferredConflictCheckingIndexUpdater( IndexUpdater actual, GBPTree<KEY,VALUE> tree, IndexLayout<KEY,VALUE> layout,
+            PageCursorTracer cursorTracer )
+    {
+        this.actual = actual;
+        this.tree = tree;
+        this.layout = layout;
+        this.cursorTracer = cursorTracer;
+    }
+
+    @Override
+    public void process( IndexEntryUpdate<?> update ) throws IndexEntryConflictException
+    {
+        actual.process( update );
+        if ( update.updateMode() != REMOVED )
+        {
+            touchedTuples.add( ValueTuple.of( update.values() ) );
+        }
+    }
+
+    @Override
+    public void close() throws IndexEntryConflictException
+    {
+        actual.close();
+        if ( touchedTuples.isEmpty() )
+        {
+            return;
+        }
+
+        List<KEY> treeKeysFrom = new ArrayList<>( touchedTuples.size() );
+        for ( ValueTuple tuple : touchedTuples )
+        {
+            KEY treeKeyFrom = layout.newKey();
+            NativeIndexUpdater.initializeKeyFromUpdate( treeKeyFrom, Long.MIN_VALUE, tuple.getValues() );
+            treeKeysFrom.add( treeKeyFrom );
+        }
+        // The batched seek needs ascending and non-overlapping ranges
+        treeKeysFrom.sort( layout );
+        removeDuplicateValues( treeKeysFrom );
+
+        KEY[] from = newKeyArray( treeKeysFrom.size() );
+        KEY[] to = newKeyArray( treeKeysFrom.size() );
+        for ( int i = 0; i < from.length; i++ )
+        {
+            from[i] = treeKeysFrom.get( i );
+            to[i] = layout.copyKey( from[i], layout.newKey() );
+            to[i].initialize( Long.MAX_VALUE );
+        }
+
+        try ( Seeker<KEY,VALUE> seeker = tree.batchedSeek( from, to, cursorTracer ) )
+        {
+            // Hits come in key order, so entities with the same value are next to each other
+            KEY previous = layout.newKey();
+            boolean hasPrevious = false;
+            while ( seeker.next() )
+            {
+                KEY key = seeker.key();
+                if ( hasPrevious && layout.compareValue( previous, key ) == 0 )
+                {
+                    throw new IndexEntryConflictException( previous.getEntityId(), key.getEntityId(), ValueTuple.of( key.asValues() ) );
+                }
+                layout.copyKey( key, previous );
+                hasPrevious = true;
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private void removeDuplicateValues( List<KEY> sortedKeys )
+    {
+        int size = 0;
+        for ( KEY key : sortedKeys )
+        {
+            if ( size == 0 || layout.compareValue( sortedKeys.get( size - 1 ), key ) != 0 )
+            {
+                sortedKeys.set( size++, key );
+            }
+        }
+        sortedKeys.subList( size, sortedKeys.size() ).clear();
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private KEY[] newKeyArray( int length )
+    {
+        return (KEY[]) Array.newInstance( layout.newKey().getClass(), length );
+    }
+}
@@ -47,7 +47,7 @@ abstract class NativeIndex<KEY extends NativeIndexKey<KEY>, VALUE extends Native
     final IndexLayout<KEY,VALUE> layout;
     final FileSystemAbstraction fileSystem;
     final IndexDescriptor descriptor;
-    private final IndexProvider.Monitor monitor;
+    final IndexProvider.Monitor monitor;
     private final GBPTree.Monitor treeMonitor;
     private final boolean readOnly;
 
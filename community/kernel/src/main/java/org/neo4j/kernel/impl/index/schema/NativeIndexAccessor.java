@@ -22,6 +22,9 @@ package org.neo4j.kernel.impl.index.schema;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 import org.neo4j.graphdb.ResourceIterator;
@@ -35,6 +38,9 @@ import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.api.index.IndexAccessor;
 import org.neo4j.kernel.api.index.IndexReader;
 import org.neo4j.kernel.impl.api.index.IndexUpdateMode;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 
 import static org.neo4j.internal.helpers.collection.Iterators.asResourceIterator;
@@ -44,32 +50,87 @@ import static org.neo4j.kernel.impl.index.schema.NativeIndexPopulator.BYTE_ONLIN
 public abstract class NativeIndexAccessor<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue> extends NativeIndex<KEY,VALUE>
         implements IndexAccessor
 {
+    /**
+     * The one updater handed out at a time, backed by the {@link GBPTree#writer(PageCursorTracer) single writer} of the tree,
+     * or {@code null} if every updater gets its own {@link GBPTree#concurrentWriter(PageCursorTracer) concurrent writer}.
+     */
     private final NativeIndexUpdater<KEY,VALUE> singleUpdater;
     final NativeIndexHeaderWriter headerWriter;
+    private final int bloomFilterBitsPerKey;
+    /**
+     * Bloom filter over the values in this index, only kept for unique indexes if configured, otherwise {@code null}.
+     * It's either handed over from the populator which built this index, or built in a background job after opening it.
+     */
+    NativeIndexBloomFilter bloomFilter;
+    /**
+     * Cache of exact lookup results, only kept for unique indexes if configured, otherwise {@code null}.
+     */
+    final NativeIndexSeekCache seekCache;
+    /**
+     * Scheduler of background compactions of the tree, if enabled, and rebuilds of the bloom filter, or {@code null} if this index isn't
+     * compacted and its bloom filter is rebuilt in the foreground.
+     */
+    private final JobScheduler jobScheduler;
+    private final boolean compactionEnabled;
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private volatile JobHandle<?> compaction = JobHandle.EMPTY;
+    private volatile JobHandle<?> bloomFilterRebuild = JobHandle.EMPTY;
+    private volatile boolean closing;
 
     NativeIndexAccessor( DatabaseIndexContext databaseIndexContext, IndexFiles indexFiles, IndexLayout<KEY,VALUE> layout,
-            IndexDescriptor descriptor, Consumer<PageCursor> additionalHeaderWriter )
+            IndexDescriptor descriptor, Consumer<PageCursor> additionalHeaderWriter, NativeIndexBloomFilter populatedBloomFilter )
     {
         super( databaseIndexContext, layout, indexFiles, descriptor, GBPTree.NO_MONITOR );
-        singleUpdater = new NativeIndexUpdater<>( layout.newKey(), layout.newValue() );
+        singleUpdater = databaseIndexContext.concurrentUpdaters ? null : new NativeIndexUpdater<>( layout.newKey(), layout.newValue() );
         headerWriter = new NativeIndexHeaderWriter( BYTE_ONLINE, additionalHeaderWriter );
+        bloomFilterBitsPerKey = descriptor.isUnique() ? databaseIndexContext.uniqueIndexBloomFilterBitsPerKey : 0;
+        bloomFilter = bloomFilterBitsPerKey > 0 ? populatedBloomFilter : null;
+        int seekCacheMaxEntries = NativeIndexSeekCache.maxEntries( descriptor, databaseIndexContext.uniqueIndexSeekCacheMaxEntries );
+        seekCache = seekCacheMaxEntries > 0 ? new NativeIndexSeekCache( seekCacheMaxEntries ) : null;
+        jobScheduler = databaseIndexContext.jobScheduler;
+        compactionEnabled = databaseIndexContext.compaction && jobScheduler != null;
+    }
+
+    /**
+     * Without a bloom filter handed over from population, one is built from what's in the tree in a background job. Until that completes
+     * the filter can't rule out any values.
+     */
+    @Override
+    protected void afterTreeInstantiation( GBPTree<KEY,VALUE> tree )
+    {
+        if ( bloomFilterBitsPerKey > 0 && bloomFilter == null )
+        {
+            bloomFilter = NativeIndexBloomFilter.unbuilt( bloomFilterBitsPerKey );
+            // No writer has been created yet, so all values written from here on also go into the filter being built
+            bloomFilter.startRebuild( estimateNumberOfEntries( tree ) );
+            scheduleBloomFilterRebuild( tree, PageCursorTracer.NULL );
+        }
     }
 
     @Override
     public void drop()
     {
+        stopBackgroundJobs();
         tree.setDeleteOnClose( true );
         closeTree();
         indexFiles.clear();
     }
 
+    /**
+     * Unless {@link DatabaseIndexContext#concurrentUpdaters concurrent updaters} are enabled there can only be one updater at a time,
+     * backed by the single writer of the tree. Otherwise each updater is backed by its own
+     * {@link GBPTree#concurrentWriter(PageCursorTracer) concurrent writer}, so updaters can be used by multiple threads at the same time.
+     */
     @Override
     public NativeIndexUpdater<KEY, VALUE> newUpdater( IndexUpdateMode mode, PageCursorTracer cursorTracer )
     {
         assertOpen();
+        NativeIndexUpdater<KEY,VALUE> updater = singleUpdater != null ? singleUpdater : new NativeIndexUpdater<>( layout.newKey(), layout.newValue() );
+        updater.withSeekCache( seekCache );
+        updater.withBloomFilter( bloomFilter );
         try
         {
-            return singleUpdater.initialize( tree.writer( cursorTracer ) );
+            return updater.initialize( singleUpdater != null ? tree.writer( cursorTracer ) : tree.concurrentWriter( cursorTracer ) );
         }
         catch ( IOException e )
         {
@@ -80,7 +141,44 @@ public abstract class NativeIndexAccessor<KEY extends NativeIndexKey<KEY>, VALUE
     @Override
     public void force( IOLimiter ioLimiter, PageCursorTracer cursorTracer )
     {
+        boolean rebuildBloomFilter = beforeCheckpoint();
         tree.checkpoint( ioLimiter, cursorTracer );
+        afterCheckpoint( ioLimiter, rebuildBloomFilter, cursorTracer );
+    }
+
+    /**
+     * Starts a rebuild of the bloom filter, if it has had more values added than it was sized for, or if a previous build didn't complete.
+     * The checkpoint which follows waits for all ongoing writes to the tree to complete, which the rebuild relies on.
+     * The rebuild itself is a full scan of the tree, so it's done by a background job scheduled after the checkpoint.
+     *
+     * @return whether or not the bloom filter is being rebuilt.
+     */
+    boolean beforeCheckpoint()
+    {
+        if ( bloomFilter != null && bloomFilter.needsRebuild() )
+        {
+            bloomFilter.startRebuild();
+            return true;
+        }
+        return false;
+    }
+
+    void afterCheckpoint( IOLimiter ioLimiter, boolean rebuildBloomFilter, PageCursorTracer cursorTracer )
+    {
+        // Compact after the checkpoint, so that what this compaction frees up can be reclaimed by the next one
+        maybeScheduleCompaction( ioLimiter );
+        if ( rebuildBloomFilter )
+        {
+            scheduleBloomFilterRebuild( tree, cursorTracer );
+        }
+        if ( bloomFilter != null )
+        {
+            monitor.bloomFilterStatistics( descriptor, bloomFilter.lookups(), bloomFilter.falsePositives(), bloomFilter.falsePositiveRate() );
+        }
+        if ( seekCache != null )
+        {
+            monitor.seekCacheStatistics( descriptor, seekCache.hits(), seekCache.misses(), seekCache.evictions(), seekCache.size() );
+        }
     }
 
     @Override
@@ -89,9 +187,104 @@ public abstract class NativeIndexAccessor<KEY extends NativeIndexKey<KEY>, VALUE
         // not required in this implementation
     }
 
+    /**
+     * Compacts the tree in a background job if it {@link GBPTree#needsCompaction() needs compaction}, which is cheap to check.
+     * At most one compaction of this index runs at a time.
+     */
+    private void maybeScheduleCompaction( IOLimiter ioLimiter )
+    {
+        GBPTree<KEY,VALUE> compactedTree = tree;
+        if ( compactionEnabled && !closing && !compacting.get() && compactedTree.needsCompaction() && compacting.compareAndSet( false, true ) )
+        {
+            compaction = jobScheduler.schedule( Group.INDEX_MAINTENANCE, () -> compact( compactedTree, ioLimiter ) );
+        }
+    }
+
+    private void compact( GBPTree<KEY,VALUE> compactedTree, IOLimiter ioLimiter )
+    {
+        try
+        {
+            compactedTree.compact( ioLimiter, () -> closing, PageCursorTracer.NULL );
+        }
+        catch ( RuntimeException e )
+        {
+            monitor.compactionFailed( descriptor, e );
+        }
+        finally
+        {
+            compacting.set( false );
+        }
+    }
+
+    /**
+     * Scans the tree into the bloom filter being rebuilt in a background job, or right away if there's no scheduler.
+     */
+    private void scheduleBloomFilterRebuild( GBPTree<KEY,VALUE> rebuiltTree, PageCursorTracer cursorTracer )
+    {
+        if ( jobScheduler == null )
+        {
+            bloomFilter.completeRebuild( rebuiltTree, layout, () -> closing, cursorTracer );
+            return;
+        }
+        bloomFilterRebuild = jobScheduler.schedule( Group.INDEX_MAINTENANCE, () -> rebuildBloomFilter( rebuiltTree ) );
+    }
+
+    private void rebuildBloomFilter( GBPTree<KEY,VALUE> rebuiltTree )
+    {
+        try
+        {
+            bloomFilter.completeRebuild( rebuiltTree, layout, () -> closing, PageCursorTracer.NULL );
+        }
+        catch ( RuntimeException e )
+        {
+            monitor.bloomFilterRebuildFailed( descriptor, e );
+        }
+    }
+
+    private long estimateNumberOfEntries( GBPTree<KEY,VALUE> tree )
+    {
+        try
+        {
+            return tree.estimateNumberOfEntriesInTree( PageCursorTracer.NULL );
+        }
+        catch ( IOException | TreeInconsistencyException e )
+        {
+            // Only used for sizing the bloom filter, which is rebuilt bigger if it turns out to be too small
+            return 0;
+        }
+    }
+
+    /**
+     * Makes ongoing background jobs stop after their current batch and waits for them, so that the tree can be closed.
+     */
+    private void stopBackgroundJobs()
+    {
+        closing = true;
+        awaitStopped( compaction );
+        awaitStopped( bloomFilterRebuild );
+    }
+
+    private static void awaitStopped( JobHandle<?> job )
+    {
+        job.cancel();
+        try
+        {
+            job.waitTermination();
+        }
+        catch ( CancellationException | ExecutionException e )
+        {
+            // Either it never started, or its failure has already been reported to the monitor
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     @Override
     public void close()
     {
+        stopBackgroundJobs();
         closeTree();
     }
 
@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Seeker;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.values.storable.Value;
+
+/**
+ * Bloom filter over the values of all entries in a unique native index, used to answer exact lookups of values that are not
+ * in the index without seeking the tree. It can have false positives, but no false negatives, as long as values are
+ * {@link #add(Value[]) added} before they are written to the tree.
+ * <p>
+ * Removed values can't be removed from the filter, so it's rebuilt from the tree when more values have been added to it than
+ * it was sized for. During a {@link #startRebuild() rebuild} added values go into both the current filter and the one being built,
+ * which replaces the current one when it's {@link #completeRebuild(GBPTree, IndexLayout, BooleanSupplier, PageCursorTracer) complete}.
+ * <p>
+ * A filter can also start out {@link #unbuilt(int) unbuilt}, e.g. for an index which is opened without a filter built by its populator,
+ * in which case it can't rule out any values until its first rebuild completes.
+ */
+class NativeIndexBloomFilter
+{
+    private static final int MIN_CAPACITY = 1 << 10;
+    private static final long STOP_CHECK_MASK = (1 << 12) - 1;
+
+    private final int bitsPerKey;
+    private volatile Bits bits;
+    private volatile Bits rebuilding;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder negativeLookups = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    NativeIndexBloomFilter( int bitsPerKey )
+    {
+        this( bitsPerKey, MIN_CAPACITY );
+    }
+
+    /**
+     * Creates an empty filter sized for the given number of keys, e.g. for an index which is being populated.
+     */
+    NativeIndexBloomFilter( int bitsPerKey, long capacity )
+    {
+        this.bitsPerKey = bitsPerKey;
+        this.bits = new Bits( Math.max( MIN_CAPACITY, capacity ), bitsPerKey );
+    }
+
+    private NativeIndexBloomFilter( int bitsPerKey, Bits bits )
+    {
+        this.bitsPerKey = bitsPerKey;
+        this.bits = bits;
+    }
+
+    /**
+     * Creates a filter which {@link #mightContain(Value[]) might contain} any value until it's been built with
+     * {@link #startRebuild(long)} and {@link #completeRebuild(GBPTree, IndexLayout, BooleanSupplier, PageCursorTracer)}.
+     */
+    static NativeIndexBloomFilter unbuilt( int bitsPerKey )
+    {
+        return new NativeIndexBloomFilter( bitsPerKey, (Bits) null );
+    }
+
+    /**
+     * Adds the values of an entry. Must be called before the entry is written to the tree.
+     */
+    void add( Value[] values )
+    {
+        long hash = hash( values );
+        Bits current = bits;
+        if ( current != null )
+        {
+            current.add( hash );
+        }
+        Bits next = rebuilding;
+        if ( next != null )
+        {
+            next.add( hash );
+        }
+    }
+
+    /**
+     * @return {@code false} if the values are definitely not in the index, otherwise {@code true}.
+     */
+    boolean mightContain( Value[] values )
+    {
+        Bits current = bits;
+        if ( current == null )
+        {
+            return true;
+        }
+        lookups.increment();
+        boolean mightContain = current.mightContain( hash( values ) );
+        if ( !mightContain )
+        {
+            negativeLookups.increment();
+        }
+        return mightContain;
+    }
+
+    /**
+     * Reports that a lookup which this filter answered with {@link #mightContain(Value[])} {@code true} didn't find anything in the tree.
+     */
+    void falsePositive()
+    {
+        if ( bits != null )
+        {
+            falsePositives.increment();
+        }
+    }
+
+    /**
+     * @return whether or not more values have been added than this filter was sized for, i.e. its false positive rate is getting worse
+     * than {@code bitsPerKey} was chosen for, or it's not built at all and no rebuild is ongoing.
+     */
+    boolean needsRebuild()
+    {
+        Bits current = bits;
+        return rebuilding == null && (current == null || current.addedKeys.get() > current.capacity);
+    }
+
+    /**
+     * Starts a rebuild sized for twice the number of values added so far.
+     *
+     * @see #startRebuild(long)
+     */
+    void startRebuild()
+    {
+        Bits current = bits;
+        startRebuild( current == null ? 0 : current.addedKeys.get() );
+    }
+
+    /**
+     * Starts a rebuild, after which {@link #add(Value[]) added} values also go into the new filter. Writers which may have added values
+     * before this call must have completed their writes to the tree before
+     * {@link #completeRebuild(GBPTree, IndexLayout, BooleanSupplier, PageCursorTracer)} is called, e.g. by a checkpoint of the tree in between.
+     *
+     * @param expectedKeys number of keys expected to be in the tree, the new filter is sized for twice as many.
+     */
+    void startRebuild( long expectedKeys )
+    {
+        rebuilding = new Bits( Math.max( MIN_CAPACITY, expectedKeys * 2 ), bitsPerKey );
+    }
+
+    /**
+     * Adds all values in the tree to the filter being rebuilt and makes it the current filter. This is a full scan of the tree,
+     * so it's meant to be called from a background job rather than from a checkpoint.
+     *
+     * @param stop checked while scanning, abandons the rebuild if it returns {@code true}, after which the current filter is kept
+     * and {@link #needsRebuild()} is asked again.
+     * @return whether or not the rebuild completed.
+     */
+    <KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue> boolean completeRebuild( GBPTree<KEY,VALUE> tree, IndexLayout<KEY,VALUE> layout,
+            BooleanSupplier stop, PageCursorTracer cursorTracer )
+    {
+        Bits next = rebuilding;
+        KEY from = layout.newKey();
+        KEY to = layout.newKey();
+        from.initialize( Long.MIN_VALUE );
+        from.initValuesAsLowest();
+        to.initialize( Long.MAX_VALUE );
+        to.initValuesAsHighest();
+        long keys = 0;
+        try ( Seeker<KEY,VALUE> seeker = tree.seek( from, to, cursorTracer ) )
+        {
+            while ( seeker.next() )
+            {
+                next.add( hash( seeker.key().asValues() ) );
+                keys++;
+                if ( (keys & STOP_CHECK_MASK) == 0 && stop.getAsBoolean() )
+                {
+                    return false;
+                }
+            }
+            // Count what's actually in the tree, not also what was added concurrently, so that removed values are not counted
+            next.addedKeys.set( keys );
+            bits = next;
+            return true;
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+        finally
+        {
+            rebuilding = null;
+        }
+    }
+
+    long lookups()
+    {
+        return lookups.sum();
+    }
+
+    long falsePositives()
+    {
+        return falsePositives.sum();
+    }
+
+    /**
+     * @return share of lookups of values not in the index which this filter couldn't rule out.
+     */
+    double falsePositiveRate()
+    {
+        long falsePositiveCount = falsePositives.sum();
+        long lookupsOfMissingValues = falsePositiveCount + negativeLookups.sum();
+        return lookupsOfMissingValues == 0 ? 0 : (double) falsePositiveCount / lookupsOfMissingValues;
+    }
+
+    /**
+     * Hashes the values consistently with how the index compares them, i.e. values which are equal in the index, like {@code 1} and {@code 1.0},
+     * have the same hash.
+     */
+    static long hash( Value[] values )
+    {
+        long hash = 1;
+        for ( Value value : values )
+        {
+            hash = 31 * hash + value.hashCode();
+        }
+        return mix( hash );
+    }
+
+    /**
+     * Finalizer of MurmurHash3, spreading the bits of the 32-bit value hashes over all 64 bits.
+     */
+    private static long mix( long hash )
+    {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static class Bits
+    {
+        private final AtomicLongArray words;
+        private final long bitMask;
+        private final int numberOfHashFunctions;
+        private final long capacity;
+        private final AtomicLong addedKeys = new AtomicLong();
+
+        Bits( long capacity, int bitsPerKey )
+        {
+            long numberOfBits = Long.highestOneBit( Math.max( Long.SIZE, capacity * bitsPerKey ) - 1 ) << 1;
+            this.words = new AtomicLongArray( Math.toIntExact( numberOfBits / Long.SIZE ) );
+            this.bitMask = numberOfBits - 1;
+            this.capacity = numberOfBits / bitsPerKey;
+            // The optimal number of hash functions for this number of bits per key
+            this.numberOfHashFunctions = Math.max( 1, (int) Math.round( bitsPerKey * Math.log( 2 ) ) );
+        }
+
+        void add( long hash )
+        {
+            addedKeys.incrementAndGet();
+            long hash2 = (hash >>> 32) | 1;
+            for ( int i = 0; i < numberOfHashFunctions; i++ )
+            {
+                long bit = (hash + i * hash2) & bitMask;
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do
+                {
+                    current = words.get( word );
+                }
+                while ( (current & mask) == 0 && !words.compareAndSet( word, current, current | mask ) );
+            }
+        }
+
+        boolean mightContain( long hash )
+        {
+            long hash2 = (hash >>> 32) | 1;
+            for ( int i = 0; i < numberOfHashFunctions; i++ )
+            {
+                long bit = (hash + i * hash2) & bitMask;
+                if ( (words.get( (int) (bit >>> 6) ) & (1L << bit)) == 0 )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
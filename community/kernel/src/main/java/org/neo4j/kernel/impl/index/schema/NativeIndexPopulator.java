@@ -39,6 +39,7 @@ import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.api.index.UniqueIndexSampler;
 import org.neo4j.storageengine.api.IndexEntryUpdate;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
+import org.neo4j.storageengine.api.UpdateMode;
 import org.neo4j.util.Preconditions;
 import org.neo4j.values.storable.Value;
 
@@ -61,7 +62,14 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
     private final VALUE treeValue;
     private final UniqueIndexSampler uniqueSampler;
     private final Consumer<PageCursor> additionalHeaderWriter;
+    private final int bloomFilterBitsPerKey;
 
+    /**
+     * Bloom filter over the values written to the tree, only built for unique indexes if configured, otherwise {@code null}.
+     * It's handed over to the online accessor when population completes successfully, so that it doesn't have to scan the tree to build one.
+     */
+    private NativeIndexBloomFilter bloomFilter;
+    private Consumer<NativeIndexBloomFilter> bloomFilterHandover = filter -> {};
     private ConflictDetectingValueMerger<KEY,VALUE,Value[]> mainConflictDetector;
     private ConflictDetectingValueMerger<KEY,VALUE,Value[]> updatesConflictDetector;
 
@@ -77,6 +85,15 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
         this.treeValue = layout.newValue();
         this.additionalHeaderWriter = additionalHeaderWriter;
         this.uniqueSampler = descriptor.isUnique() ? new UniqueIndexSampler() : null;
+        this.bloomFilterBitsPerKey = descriptor.isUnique() ? databaseIndexContext.uniqueIndexBloomFilterBitsPerKey : 0;
+    }
+
+    /**
+     * @param bloomFilterHandover receives the bloom filter built during population, if any, when population completes successfully.
+     */
+    void withBloomFilterHandover( Consumer<NativeIndexBloomFilter> bloomFilterHandover )
+    {
+        this.bloomFilterHandover = bloomFilterHandover;
     }
 
     abstract NativeIndexReader<KEY,VALUE> newReader();
@@ -90,6 +107,7 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
         indexFiles.clear();
         NativeIndexHeaderWriter headerWriter = new NativeIndexHeaderWriter( BYTE_POPULATING, additionalHeaderWriter );
         instantiateTree( RecoveryCleanupWorkCollector.immediate(), headerWriter );
+        bloomFilter = bloomFilterBitsPerKey > 0 ? new NativeIndexBloomFilter( bloomFilterBitsPerKey ) : null;
 
         // true:  tree uniqueness is (value,entityId)
         // false: tree uniqueness is (value) <-- i.e. more strict
@@ -143,7 +161,7 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
         {
             // The index population detects conflicts on the fly, however for updates coming in we're in a position
             // where we cannot detect conflicts while applying, but instead afterwards.
-            updater = new DeferredConflictCheckingIndexUpdater( updater, this::newReader, descriptor, cursorTracer );
+            updater = new NativeDeferredConflictCheckingIndexUpdater<>( updater, tree, layout, cursorTracer );
         }
         return updater;
     }
@@ -164,6 +182,10 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
                 // Successful and completed population
                 assertPopulatorOpen();
                 flushTreeAndMarkAs( BYTE_ONLINE, cursorTracer );
+                if ( bloomFilter != null )
+                {
+                    bloomFilterHandover.accept( bloomFilter );
+                }
             }
             else if ( failureBytes != null )
             {
@@ -212,6 +234,28 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
                 new NativeIndexHeaderWriter( state, additionalHeaderWriter ), cursorTracer );
     }
 
+    /**
+     * Replaces the bloom filter with an empty one sized for the given number of keys. Must be called before anything is written to the tree.
+     */
+    void sizeBloomFilter( long expectedKeys )
+    {
+        if ( bloomFilter != null )
+        {
+            bloomFilter = new NativeIndexBloomFilter( bloomFilterBitsPerKey, expectedKeys * 2 );
+        }
+    }
+
+    /**
+     * Adds the values of the key to the bloom filter, if any. Must be called before the key is written to the tree.
+     */
+    void addToBloomFilter( KEY key )
+    {
+        if ( bloomFilter != null )
+        {
+            bloomFilter.add( key.asValues() );
+        }
+    }
+
     IndexSample buildNonUniqueIndexSample( PageCursorTracer cursorTracer )
     {
         return new FullScanNonUniqueIndexSampler<>( tree, layout ).sample( cursorTracer );
@@ -230,6 +274,10 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
         {
             for ( IndexEntryUpdate<?> indexEntryUpdate : indexEntryUpdates )
             {
+                if ( bloomFilter != null && indexEntryUpdate.updateMode() != UpdateMode.REMOVED )
+                {
+                    bloomFilter.add( indexEntryUpdate.values() );
+                }
                 NativeIndexUpdater.processUpdate( treeKey, treeValue, indexEntryUpdate, writer, conflictDetector );
             }
         }
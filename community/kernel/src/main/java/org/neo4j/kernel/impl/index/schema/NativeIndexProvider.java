@@ -23,6 +23,8 @@ import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.neo4j.common.TokenNameLookup;
 import org.neo4j.index.internal.gbptree.GBPTree;
@@ -60,6 +62,11 @@ abstract class NativeIndexProvider<KEY extends NativeIndexKey<KEY>,VALUE extends
 {
     protected final DatabaseIndexContext databaseIndexContext;
     protected final RecoveryCleanupWorkCollector recoveryCleanupWorkCollector;
+    /**
+     * Bloom filters built by populators of unique indexes, by index id, until the online accessors of those indexes take them over
+     * when population completes.
+     */
+    private final Map<Long,NativeIndexBloomFilter> populatedBloomFilters = new ConcurrentHashMap<>();
 
     protected NativeIndexProvider( DatabaseIndexContext databaseIndexContext, IndexProviderDescriptor descriptor,
             Factory directoryStructureFactory, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector )
@@ -112,6 +119,24 @@ abstract class NativeIndexProvider<KEY extends NativeIndexKey<KEY>,VALUE extends
     protected abstract IndexAccessor newIndexAccessor( IndexFiles indexFiles, LAYOUT layout, IndexDescriptor descriptor, TokenNameLookup tokenNameLookup )
             throws IOException;
 
+    /**
+     * Hands the bloom filter built by a populator over to the online accessor of the same index, which is opened when population completes.
+     */
+    void handOverBloomFilter( IndexDescriptor descriptor, NativeIndexPopulator<KEY,VALUE> populator )
+    {
+        long indexId = descriptor.getId();
+        populatedBloomFilters.remove( indexId );
+        populator.withBloomFilterHandover( bloomFilter -> populatedBloomFilters.put( indexId, bloomFilter ) );
+    }
+
+    /**
+     * @return the bloom filter built by the populator of the given index, if it has just completed, otherwise {@code null}.
+     */
+    NativeIndexBloomFilter takeOverBloomFilter( IndexDescriptor descriptor )
+    {
+        return populatedBloomFilters.remove( descriptor.getId() );
+    }
+
     @Override
     public String getPopulationFailure( IndexDescriptor descriptor, PageCursorTracer cursorTracer )
     {
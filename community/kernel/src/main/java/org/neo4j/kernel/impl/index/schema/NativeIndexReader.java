@@ -19,8 +19,12 @@
  */
 package org.neo4j.kernel.impl.index.schema;
 
+import org.apache.commons.lang3.tuple.Pair;
+
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.Seeker;
@@ -35,22 +39,30 @@ import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.api.index.IndexProgressor;
 import org.neo4j.kernel.api.index.IndexReader;
 import org.neo4j.kernel.api.index.IndexSampler;
+import org.neo4j.kernel.api.index.PartitionedValueSeek;
 import org.neo4j.values.storable.Value;
 
+import static java.util.Collections.emptyList;
 import static org.apache.commons.lang3.exception.ExceptionUtils.getRootCause;
 import static org.neo4j.kernel.impl.index.schema.NativeIndexKey.Inclusion.NEUTRAL;
+import static org.neo4j.util.Preconditions.requirePositive;
 
 abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue> implements IndexReader
 {
     protected final IndexDescriptor descriptor;
     final IndexLayout<KEY,VALUE> layout;
     final GBPTree<KEY,VALUE> tree;
+    private final NativeIndexBloomFilter bloomFilter;
+    private final NativeIndexSeekCache seekCache;
 
-    NativeIndexReader( GBPTree<KEY,VALUE> tree, IndexLayout<KEY,VALUE> layout, IndexDescriptor descriptor )
+    NativeIndexReader( GBPTree<KEY,VALUE> tree, IndexLayout<KEY,VALUE> layout, IndexDescriptor descriptor, NativeIndexBloomFilter bloomFilter,
+            NativeIndexSeekCache seekCache )
     {
         this.tree = tree;
         this.layout = layout;
         this.descriptor = descriptor;
+        this.bloomFilter = bloomFilter;
+        this.seekCache = seekCache;
     }
 
     @Override
@@ -91,6 +103,11 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
     @Override
     public long countIndexedNodes( long nodeId, PageCursorTracer cursorTracer, int[] propertyKeyIds, Value... propertyValues )
     {
+        boolean bloomFiltered = bloomFilter != null && propertyValues.length == descriptor.schema().getPropertyIds().length;
+        if ( bloomFiltered && !bloomFilter.mightContain( propertyValues ) )
+        {
+            return 0;
+        }
         KEY treeKeyFrom = layout.newKey();
         KEY treeKeyTo = layout.newKey();
         treeKeyFrom.initialize( nodeId );
@@ -110,6 +127,10 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
                     count++;
                 }
             }
+            if ( bloomFiltered && count == 0 )
+            {
+                bloomFilter.falsePositive();
+            }
             return count;
         }
         catch ( IOException e )
@@ -124,6 +145,30 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
     {
         validateQuery( constraints, predicates );
 
+        Value[] exactValues = bloomFilter != null || seekCache != null ? exactValues( predicates ) : null;
+        if ( exactValues != null && bloomFilter != null )
+        {
+            if ( !bloomFilter.mightContain( exactValues ) )
+            {
+                // The filter has no false negatives, so there's no need to seek the tree for this value
+                cursor.initialize( descriptor, IndexProgressor.EMPTY, predicates, constraints, false );
+                return;
+            }
+            cursor = new FalsePositiveReportingClient( cursor );
+        }
+        if ( exactValues != null && seekCache != null )
+        {
+            NativeIndexSeekCache.Entry cached = seekCache.get( exactValues );
+            if ( cached != null )
+            {
+                IndexProgressor progressor = cached.entityId == NativeIndexSeekCache.NO_ENTITY ? IndexProgressor.EMPTY
+                                                                                                : new CachedHitProgressor( cursor, cached );
+                cursor.initialize( descriptor, progressor, predicates, constraints, false );
+                return;
+            }
+            cursor = new SeekCachingClient( cursor, exactValues, seekCache.stamp() );
+        }
+
         KEY treeKeyFrom = layout.newKey();
         KEY treeKeyTo = layout.newKey();
         initializeFromToKeys( treeKeyFrom, treeKeyTo );
@@ -132,6 +177,41 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
         startSeekForInitializedRange( cursor, treeKeyFrom, treeKeyTo, predicates, constraints, needFilter, context.cursorTracer() );
     }
 
+    /**
+     * @return the values of the predicates if this is an exact lookup on all properties of the index, otherwise {@code null}.
+     */
+    private Value[] exactValues( IndexQuery[] predicates )
+    {
+        if ( predicates.length != descriptor.schema().getPropertyIds().length )
+        {
+            return null;
+        }
+        Value[] values = new Value[predicates.length];
+        for ( int i = 0; i < predicates.length; i++ )
+        {
+            if ( !(predicates[i] instanceof IndexQuery.ExactPredicate) )
+            {
+                return null;
+            }
+            values[i] = ((IndexQuery.ExactPredicate) predicates[i]).value();
+        }
+        return values;
+    }
+
+    @Override
+    public PartitionedValueSeek valueSeek( int desiredNumberOfPartitions, QueryContext context, IndexQuery... query )
+    {
+        requirePositive( desiredNumberOfPartitions );
+        validateQuery( IndexQueryConstraints.unconstrained(), query );
+
+        KEY treeKeyFrom = layout.newKey();
+        KEY treeKeyTo = layout.newKey();
+        initializeFromToKeys( treeKeyFrom, treeKeyTo );
+
+        boolean needFilter = initializeRangeForQuery( treeKeyFrom, treeKeyTo, query );
+        return new NativePartitionedValueSeek( treeKeyFrom, treeKeyTo, desiredNumberOfPartitions, needFilter, query, context.cursorTracer() );
+    }
+
     void initializeFromToKeys( KEY treeKeyFrom, KEY treeKeyTo )
     {
         treeKeyFrom.initialize( Long.MIN_VALUE );
@@ -168,6 +248,25 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
         }
     }
 
+    /**
+     * Like {@link #startSeekForInitializedRange(IndexProgressor.EntityValueClient, NativeIndexKey, NativeIndexKey, IndexQuery[], IndexQueryConstraints,
+     * boolean, PageCursorTracer)}, but for multiple ascending and non-overlapping ranges which are seeked in one pass over the tree.
+     */
+    void startBatchedSeekForInitializedRanges( IndexProgressor.EntityValueClient client, KEY[] treeKeysFrom, KEY[] treeKeysTo, IndexQuery[] query,
+            IndexQueryConstraints constraints, boolean needFilter, PageCursorTracer cursorTracer )
+    {
+        try
+        {
+            Seeker<KEY,VALUE> seeker = tree.batchedSeek( treeKeysFrom, treeKeysTo, cursorTracer );
+            IndexProgressor hitProgressor = getIndexProgressor( seeker, client, needFilter, query );
+            client.initialize( descriptor, hitProgressor, query, constraints, false );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
     Seeker<KEY,VALUE> makeIndexSeeker( KEY treeKeyFrom, KEY treeKeyTo, IndexOrder indexOrder, PageCursorTracer cursorTracer ) throws IOException
     {
         if ( indexOrder == IndexOrder.DESCENDING )
@@ -189,4 +288,217 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
     {
         return layout.compare( treeKeyFrom, treeKeyTo ) > 0;
     }
+
+    /**
+     * Splits the range of a query up into partitions of roughly equal size, see {@link GBPTree#partitionRange(Object, Object, int, PageCursorTracer)}.
+     * Seekers are instantiated for partitions as they get reserved, so that partitions never reserved don't hold on to any resources.
+     */
+    private class NativePartitionedValueSeek implements PartitionedValueSeek
+    {
+        private final List<Pair<KEY,KEY>> partitions;
+        private final AtomicInteger nextPartition = new AtomicInteger();
+        private final boolean needFilter;
+        private final IndexQuery[] query;
+        private final PageCursorTracer cursorTracer;
+
+        NativePartitionedValueSeek( KEY treeKeyFrom, KEY treeKeyTo, int desiredNumberOfPartitions, boolean needFilter, IndexQuery[] query,
+                PageCursorTracer cursorTracer )
+        {
+            this.needFilter = needFilter;
+            this.query = query;
+            this.cursorTracer = cursorTracer;
+            try
+            {
+                this.partitions = isEmptyRange( treeKeyFrom, treeKeyTo )
+                                  ? emptyList()
+                                  : tree.partitionRange( treeKeyFrom, treeKeyTo, desiredNumberOfPartitions, cursorTracer );
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        }
+
+        @Override
+        public int getNumberOfPartitions()
+        {
+            return partitions.size();
+        }
+
+        @Override
+        public IndexProgressor reservePartition( IndexProgressor.EntityValueClient client )
+        {
+            int partition = nextPartition.getAndIncrement();
+            if ( partition >= partitions.size() )
+            {
+                return IndexProgressor.EMPTY;
+            }
+            try
+            {
+                Pair<KEY,KEY> range = partitions.get( partition );
+                Seeker<KEY,VALUE> seeker = tree.seek( range.getLeft(), range.getRight(), cursorTracer );
+                return getIndexProgressor( seeker, client, needFilter, query );
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        }
+    }
+
+    /**
+     * Sits between the client and the progressor of an exact lookup which passed the bloom filter, and reports a false positive
+     * to the filter if the seek was exhausted without finding any entry.
+     */
+    private class FalsePositiveReportingClient implements IndexProgressor.EntityValueClient, IndexProgressor
+    {
+        private final IndexProgressor.EntityValueClient client;
+        private IndexProgressor progressor;
+        private boolean found;
+        private boolean exhausted;
+
+        FalsePositiveReportingClient( IndexProgressor.EntityValueClient client )
+        {
+            this.client = client;
+        }
+
+        @Override
+        public void initialize( IndexDescriptor descriptor, IndexProgressor progressor, IndexQuery[] query, IndexQueryConstraints constraints,
+                boolean indexIncludesTransactionState )
+        {
+            this.progressor = progressor;
+            client.initialize( descriptor, this, query, constraints, indexIncludesTransactionState );
+        }
+
+        @Override
+        public boolean acceptEntity( long reference, float score, Value... values )
+        {
+            found = true;
+            return client.acceptEntity( reference, score, values );
+        }
+
+        @Override
+        public boolean needsValues()
+        {
+            return client.needsValues();
+        }
+
+        @Override
+        public boolean next()
+        {
+            boolean next = progressor.next();
+            if ( !next && !found && !exhausted )
+            {
+                bloomFilter.falsePositive();
+            }
+            exhausted |= !next;
+            return next;
+        }
+
+        @Override
+        public void close()
+        {
+            progressor.close();
+        }
+    }
+
+    /**
+     * Hands out the single cached result of an exact lookup.
+     */
+    private static class CachedHitProgressor implements IndexProgressor
+    {
+        private final IndexProgressor.EntityValueClient client;
+        private final NativeIndexSeekCache.Entry entry;
+        private boolean done;
+
+        CachedHitProgressor( IndexProgressor.EntityValueClient client, NativeIndexSeekCache.Entry entry )
+        {
+            this.client = client;
+            this.entry = entry;
+        }
+
+        @Override
+        public boolean next()
+        {
+            if ( done )
+            {
+                return false;
+            }
+            done = true;
+            return client.acceptEntity( entry.entityId, Float.NaN, client.needsValues() ? entry.values.clone() : null );
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    /**
+     * Sits between the client and the progressor of an exact lookup which missed the seek cache, and offers what the lookup finds to the cache.
+     * It always asks for the values of the entry, since those are cached along with it.
+     */
+    private class SeekCachingClient implements IndexProgressor.EntityValueClient, IndexProgressor
+    {
+        private final IndexProgressor.EntityValueClient client;
+        private final Value[] exactValues;
+        private final long stamp;
+        private IndexProgressor progressor;
+        private boolean found;
+        private boolean exhausted;
+
+        SeekCachingClient( IndexProgressor.EntityValueClient client, Value[] exactValues, long stamp )
+        {
+            this.client = client;
+            this.exactValues = exactValues;
+            this.stamp = stamp;
+        }
+
+        @Override
+        public void initialize( IndexDescriptor descriptor, IndexProgressor progressor, IndexQuery[] query, IndexQueryConstraints constraints,
+                boolean indexIncludesTransactionState )
+        {
+            this.progressor = progressor;
+            client.initialize( descriptor, this, query, constraints, indexIncludesTransactionState );
+        }
+
+        @Override
+        public boolean acceptEntity( long reference, float score, Value... values )
+        {
+            if ( !found )
+            {
+                // A unique index has at most one entry for the values, so this is the whole result
+                found = true;
+                if ( values != null )
+                {
+                    seekCache.offer( exactValues, reference, values.clone(), stamp );
+                }
+            }
+            return client.acceptEntity( reference, score, client.needsValues() ? values : null );
+        }
+
+        @Override
+        public boolean needsValues()
+        {
+            return true;
+        }
+
+        @Override
+        public boolean next()
+        {
+            boolean next = progressor.next();
+            if ( !next && !found && !exhausted )
+            {
+                seekCache.offer( exactValues, NativeIndexSeekCache.NO_ENTITY, null, stamp );
+            }
+            exhausted |= !next;
+            return next;
+        }
+
+        @Override
+        public void close()
+        {
+            progressor.close();
+        }
+    }
 }
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.internal.schema.IndexDescriptor;
+import org.neo4j.values.storable.IntegralValue;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.ValueTuple;
+
+import static java.lang.Math.toIntExact;
+
+/**
+ * Caches the results of exact lookups in a unique index, i.e. the one entity, if any, which has a given value tuple, along with its values
+ * as stored in the index. When the cache is full, results which haven't been looked up recently are evicted, using the clock algorithm:
+ * cached results are kept in a queue in the order they were cached, and each time the cache is over its size the head of the queue is evicted,
+ * unless it's been looked up since it last passed the head, in which case it goes back to the tail. This approximates evicting the least
+ * recently used results, without lookups contending on anything but the flag of the result they find.
+ *
+ * Readers which miss the cache take a {@link #stamp()} before seeking the tree, and {@link #offer(Value[], long, Value[], long) offer} what they found
+ * along with that stamp afterwards. An update which {@link #invalidate(Value[]) invalidates} anything in between makes the cache ignore the offer,
+ * since the reader may have seen the tree from before that update. For this to hold, updates must invalidate after they have been written to the tree.
+ */
+class NativeIndexSeekCache
+{
+    static final long NO_ENTITY = -1;
+
+    private final int maxEntries;
+    private final ConcurrentHashMap<ValueTuple,Entry> cache = new ConcurrentHashMap<>();
+    /**
+     * The clock, holding the cached results in the order they were cached, or last passed the head. Results which have been invalidated or
+     * replaced are left for eviction to skip, which it also does to keep the clock from growing when the cache isn't full.
+     */
+    private final Queue<Entry> clock = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger clockSize = new AtomicInteger();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final AtomicLong stamp = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    NativeIndexSeekCache( int maxEntries )
+    {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @param descriptor the index to get the seek cache size of.
+     * @param defaultMaxEntries the database wide size of seek caches of unique indexes.
+     * @return the number of lookup results the seek cache of the given index should keep, or 0 if it shouldn't have one.
+     */
+    static int maxEntries( IndexDescriptor descriptor, int defaultMaxEntries )
+    {
+        if ( !descriptor.isUnique() )
+        {
+            return 0;
+        }
+        Value configured = descriptor.getIndexConfig().get( IndexDescriptor.SEEK_CACHE_MAX_ENTRIES );
+        if ( configured == null )
+        {
+            return defaultMaxEntries;
+        }
+        if ( !(configured instanceof IntegralValue) || ((IntegralValue) configured).longValue() < 0 )
+        {
+            throw new IllegalArgumentException( "The seek cache size of an index must be a non-negative integer, but was " + configured + "." );
+        }
+        return toIntExact( ((IntegralValue) configured).longValue() );
+    }
+
+    /**
+     * @param values the values of an exact lookup.
+     * @return the cached result of the lookup, or {@code null} if there is none.
+     */
+    Entry get( Value[] values )
+    {
+        Entry entry = cache.get( ValueTuple.of( values ) );
+        if ( entry != null )
+        {
+            if ( !entry.referenced )
+            {
+                entry.referenced = true;
+            }
+            hits.increment();
+        }
+        else
+        {
+            misses.increment();
+        }
+        return entry;
+    }
+
+    long stamp()
+    {
+        return stamp.get();
+    }
+
+    /**
+     * Caches the result of an exact lookup, unless something has been invalidated since the given stamp was taken.
+     *
+     * @param values the values of the exact lookup.
+     * @param entityId the entity found, or {@link #NO_ENTITY} if there was none.
+     * @param storedValues the values of the entity as stored in the index, or {@code null} if there was none.
+     * @param stamp the {@link #stamp()} taken before the lookup.
+     */
+    void offer( Value[] values, long entityId, Value[] storedValues, long stamp )
+    {
+        if ( stamp != this.stamp.get() )
+        {
+            return;
+        }
+        ValueTuple key = ValueTuple.of( values );
+        Entry entry = new Entry( key, entityId, storedValues );
+        cache.put( key, entry );
+        if ( stamp != this.stamp.get() )
+        {
+            // An invalidation which came in after the check above may have removed what was there before this put, not this result
+            cache.remove( key, entry );
+            return;
+        }
+        clock.offer( entry );
+        clockSize.incrementAndGet();
+        evictIfFull();
+    }
+
+    /**
+     * Forgets the lookup result of the given values, to be called after an update touching them has been written to the tree.
+     */
+    void invalidate( Value[] values )
+    {
+        stamp.incrementAndGet();
+        cache.remove( ValueTuple.of( values ) );
+    }
+
+    long hits()
+    {
+        return hits.sum();
+    }
+
+    long misses()
+    {
+        return misses.sum();
+    }
+
+    long evictions()
+    {
+        return evictions.sum();
+    }
+
+    int size()
+    {
+        return cache.size();
+    }
+
+    /**
+     * Advances the clock until the cache is within its size and the clock doesn't hold more than twice that. Only one thread does this at a time,
+     * others which fill up the cache meanwhile leave it to that thread, so the cache can temporarily hold a few more results than its size.
+     */
+    private void evictIfFull()
+    {
+        while ( (cache.size() > maxEntries || clockSize.get() > maxEntries * 2L) && evicting.compareAndSet( false, true ) )
+        {
+            try
+            {
+                Entry entry;
+                while ( (cache.size() > maxEntries || clockSize.get() > maxEntries * 2L) && (entry = clock.poll()) != null )
+                {
+                    clockSize.decrementAndGet();
+                    if ( cache.get( entry.key ) != entry )
+                    {
+                        // Invalidated or replaced
+                        continue;
+                    }
+                    if ( cache.size() <= maxEntries || entry.referenced )
+                    {
+                        if ( cache.size() > maxEntries )
+                        {
+                            entry.referenced = false;
+                        }
+                        clock.offer( entry );
+                        clockSize.incrementAndGet();
+                    }
+                    else if ( cache.remove( entry.key, entry ) )
+                    {
+                        evictions.increment();
+                    }
+                }
+            }
+            finally
+            {
+                evicting.set( false );
+            }
+        }
+    }
+
+    static final class Entry
+    {
+        private final ValueTuple key;
+        final long entityId;
+        final Value[] values;
+        /**
+         * Whether or not this result has been looked up since it was cached, or since it last passed the head of the clock.
+         */
+        private volatile boolean referenced;
+
+        private Entry( ValueTuple key, long entityId, Value[] values )
+        {
+            this.key = key;
+            this.entityId = entityId;
+            this.values = values;
+        }
+    }
+}
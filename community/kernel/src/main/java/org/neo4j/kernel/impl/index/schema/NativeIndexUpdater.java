@@ -24,6 +24,7 @@ import org.neo4j.io.IOUtils;
 import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
 import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.storageengine.api.IndexEntryUpdate;
+import org.neo4j.storageengine.api.UpdateMode;
 import org.neo4j.values.storable.Value;
 
 import static org.neo4j.kernel.impl.index.schema.NativeIndexKey.Inclusion.NEUTRAL;
@@ -35,6 +36,8 @@ class NativeIndexUpdater<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIn
     private final VALUE treeValue;
     private final ConflictDetectingValueMerger<KEY,VALUE,Value[]> conflictDetectingValueMerger = new ThrowingConflictDetector<>( true );
     private Writer<KEY,VALUE> writer;
+    private NativeIndexBloomFilter bloomFilter;
+    private NativeIndexSeekCache seekCache;
 
     private boolean closed = true;
 
@@ -44,6 +47,22 @@ class NativeIndexUpdater<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIn
         this.treeValue = treeValue;
     }
 
+    /**
+     * Adds the values of all added and changed entries to the given bloom filter, before they are written to the tree.
+     */
+    void withBloomFilter( NativeIndexBloomFilter bloomFilter )
+    {
+        this.bloomFilter = bloomFilter;
+    }
+
+    /**
+     * Invalidates the cached lookup results of the values of all entries this updater touches, after they have been written to the tree.
+     */
+    void withSeekCache( NativeIndexSeekCache seekCache )
+    {
+        this.seekCache = seekCache;
+    }
+
     NativeIndexUpdater<KEY,VALUE> initialize( Writer<KEY,VALUE> writer )
     {
         if ( !closed )
@@ -60,7 +79,25 @@ class NativeIndexUpdater<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIn
     public void process( IndexEntryUpdate<?> update ) throws IndexEntryConflictException
     {
         assertOpen();
-        processUpdate( treeKey, treeValue, update, writer, conflictDetectingValueMerger );
+        if ( bloomFilter != null && update.updateMode() != UpdateMode.REMOVED )
+        {
+            bloomFilter.add( update.values() );
+        }
+        try
+        {
+            processUpdate( treeKey, treeValue, update, writer, conflictDetectingValueMerger );
+        }
+        finally
+        {
+            if ( seekCache != null )
+            {
+                seekCache.invalidate( update.values() );
+                if ( update.updateMode() == UpdateMode.CHANGED )
+                {
+                    seekCache.invalidate( update.beforeValues() );
+                }
+            }
+        }
     }
 
     @Override
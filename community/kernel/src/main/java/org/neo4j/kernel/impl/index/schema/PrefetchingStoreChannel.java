@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+
+import org.neo4j.io.fs.DelegatingStoreChannel;
+import org.neo4j.io.fs.StoreChannel;
+
+/**
+ * Double buffered sequential reading of a {@link StoreChannel}. While the reader consumes what has been read into its own buffer, the next
+ * part of the file is read into the prefetch buffer by the {@link Executor}. Reads are served from the prefetch buffer, after which the
+ * next prefetch is started. A prefetch which no executor thread has picked up by the time its data is needed is run by the reader itself.
+ */
+class PrefetchingStoreChannel extends DelegatingStoreChannel<StoreChannel>
+{
+    private final ByteBuffer prefetchBuffer;
+    private final Executor executor;
+    private Prefetch prefetch;
+
+    PrefetchingStoreChannel( StoreChannel delegate, ByteBuffer prefetchBuffer, Executor executor )
+    {
+        super( delegate );
+        this.prefetchBuffer = prefetchBuffer;
+        this.executor = executor;
+    }
+
+    @Override
+    public int read( ByteBuffer dst ) throws IOException
+    {
+        if ( prefetch == null )
+        {
+            startPrefetch();
+        }
+        prefetch.await();
+        if ( !prefetchBuffer.hasRemaining() )
+        {
+            // The prefetch hit the end of the channel
+            return -1;
+        }
+        int read = Math.min( dst.remaining(), prefetchBuffer.remaining() );
+        ByteBuffer source = prefetchBuffer.duplicate();
+        source.limit( source.position() + read );
+        dst.put( source );
+        prefetchBuffer.position( prefetchBuffer.position() + read );
+        if ( !prefetchBuffer.hasRemaining() )
+        {
+            startPrefetch();
+        }
+        return read;
+    }
+
+    @Override
+    public long position() throws IOException
+    {
+        if ( prefetch == null )
+        {
+            return super.position();
+        }
+        prefetch.await();
+        return super.position() - prefetchBuffer.remaining();
+    }
+
+    @Override
+    public StoreChannel position( long newPosition ) throws IOException
+    {
+        if ( prefetch != null )
+        {
+            prefetch.cancel();
+            prefetch = null;
+        }
+        return super.position( newPosition );
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if ( prefetch != null )
+        {
+            // Don't close the channel under the feet of an ongoing prefetch
+            prefetch.cancel();
+        }
+        super.close();
+    }
+
+    private void startPrefetch()
+    {
+        prefetchBuffer.clear();
+        prefetch = new Prefetch();
+        prefetch.submit( executor );
+    }
+
+    private class Prefetch extends ClaimableTask
+    {
+        @Override
+        void perform() throws IOException
+        {
+            int read;
+            do
+            {
+                read = delegate.read( prefetchBuffer );
+            }
+            while ( read != -1 && prefetchBuffer.hasRemaining() );
+            prefetchBuffer.flip();
+        }
+    }
+}
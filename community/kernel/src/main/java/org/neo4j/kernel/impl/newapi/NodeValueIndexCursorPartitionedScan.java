@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import org.neo4j.internal.kernel.api.IndexQuery;
+import org.neo4j.internal.kernel.api.IndexQueryConstraints;
+import org.neo4j.internal.kernel.api.NodeValueIndexCursor;
+import org.neo4j.internal.kernel.api.PartitionedScan;
+import org.neo4j.internal.schema.IndexDescriptor;
+import org.neo4j.kernel.api.index.IndexProgressor;
+import org.neo4j.kernel.api.index.PartitionedValueSeek;
+
+class NodeValueIndexCursorPartitionedScan implements PartitionedScan<NodeValueIndexCursor>
+{
+    private final Read read;
+    private final IndexDescriptor descriptor;
+    private final PartitionedValueSeek valueSeek;
+    private final IndexQuery[] query;
+    private final IndexQueryConstraints constraints;
+
+    NodeValueIndexCursorPartitionedScan( Read read, IndexDescriptor descriptor, PartitionedValueSeek valueSeek, IndexQuery[] query,
+            IndexQueryConstraints constraints )
+    {
+        this.read = read;
+        this.descriptor = descriptor;
+        this.valueSeek = valueSeek;
+        this.query = query;
+        this.constraints = constraints;
+    }
+
+    @Override
+    public int getNumberOfPartitions()
+    {
+        return valueSeek.getNumberOfPartitions();
+    }
+
+    @Override
+    public boolean reservePartition( NodeValueIndexCursor cursor )
+    {
+        DefaultNodeValueIndexCursor indexCursor = (DefaultNodeValueIndexCursor) cursor;
+        indexCursor.setRead( read );
+        IndexProgressor indexProgressor = valueSeek.reservePartition( indexCursor );
+        if ( indexProgressor == IndexProgressor.EMPTY )
+        {
+            return false;
+        }
+        indexCursor.initialize( descriptor, indexProgressor, query, constraints, false );
+        return true;
+    }
+}
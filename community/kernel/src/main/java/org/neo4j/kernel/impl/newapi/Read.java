@@ -33,6 +33,7 @@ import org.neo4j.internal.kernel.api.InternalIndexState;
 import org.neo4j.internal.kernel.api.NodeCursor;
 import org.neo4j.internal.kernel.api.NodeLabelIndexCursor;
 import org.neo4j.internal.kernel.api.NodeValueIndexCursor;
+import org.neo4j.internal.kernel.api.PartitionedScan;
 import org.neo4j.internal.kernel.api.PropertyCursor;
 import org.neo4j.internal.kernel.api.QueryContext;
 import org.neo4j.internal.kernel.api.RelationshipIndexCursor;
@@ -51,6 +52,7 @@ import org.neo4j.kernel.api.AssertOpen;
 import org.neo4j.kernel.api.exceptions.schema.IndexBrokenKernelException;
 import org.neo4j.kernel.api.index.IndexProgressor;
 import org.neo4j.kernel.api.index.IndexReader;
+import org.neo4j.kernel.api.index.PartitionedValueSeek;
 import org.neo4j.kernel.api.txstate.TransactionState;
 import org.neo4j.kernel.api.txstate.TxStateHolder;
 import org.neo4j.kernel.impl.api.KernelTransactionImplementation;
@@ -67,6 +69,7 @@ import org.neo4j.values.storable.Values;
 
 import static java.lang.String.format;
 import static org.neo4j.internal.kernel.api.IndexQueryConstraints.unconstrained;
+import static org.neo4j.util.Preconditions.requirePositive;
 import static org.neo4j.values.storable.ValueGroup.GEOMETRY;
 import static org.neo4j.values.storable.ValueGroup.NUMBER;
 
@@ -243,6 +246,34 @@ abstract class Read implements TxStateHolder,
         indexSession.reader.query( this, cursorImpl, constraints, IndexQuery.exists( firstProperty ) );
     }
 
+    @Override
+    public final PartitionedScan<NodeValueIndexCursor> nodeIndexScan( IndexReadSession index, int desiredNumberOfPartitions,
+            IndexQueryConstraints constraints ) throws KernelException
+    {
+        ktx.assertOpen();
+        requirePositive( desiredNumberOfPartitions );
+        DefaultIndexReadSession indexSession = (DefaultIndexReadSession) index;
+
+        if ( indexSession.reference.schema().entityType() != EntityType.NODE )
+        {
+            throw new IndexNotApplicableKernelException( "Node index scan can only be performed on node indexes: " + index );
+        }
+        if ( constraints.isOrdered() )
+        {
+            throw new IllegalArgumentException( "Partitioned index scan can not be ordered, but was asked for " + constraints.order() );
+        }
+        if ( hasTxStateWithChanges() )
+        {
+            throw new IllegalStateException( "Transaction contains changes, partitioned index scan is only supported in transactions without changes" );
+        }
+
+        // for a scan, we simply query for existence of the first property, which covers all entries in an index
+        int firstProperty = indexSession.reference.schema().getPropertyIds()[0];
+        IndexQuery[] query = {IndexQuery.exists( firstProperty )};
+        PartitionedValueSeek valueSeek = indexSession.reader.valueSeek( desiredNumberOfPartitions, this, query );
+        return new NodeValueIndexCursorPartitionedScan( this, indexSession.reference, valueSeek, query, constraints );
+    }
+
     @Override
     public final void nodeLabelScan( int label, NodeLabelIndexCursor cursor, IndexOrder order )
     {
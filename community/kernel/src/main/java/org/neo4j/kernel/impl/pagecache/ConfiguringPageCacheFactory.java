@@ -19,18 +19,33 @@
  */
 package org.neo4j.kernel.impl.pagecache;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
 import org.neo4j.configuration.Config;
 import org.neo4j.configuration.pagecache.ConfigurableIOBufferFactory;
+import org.neo4j.internal.nativeimpl.HugePages;
+import org.neo4j.internal.nativeimpl.NumaTopology;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.mem.HugePageMode;
 import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.os.OsBeanUtil;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.impl.CompressedPageSwapperFactory;
+import org.neo4j.io.pagecache.impl.IOUringPageSwapperFactory;
+import org.neo4j.io.pagecache.impl.PageCompression;
 import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
 import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.impl.muninn.PageCacheQuota;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
+import org.neo4j.kernel.lifecycle.Lifecycle;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.logging.Log;
 import org.neo4j.memory.MachineMemory;
 import org.neo4j.memory.MemoryPools;
@@ -38,6 +53,13 @@ import org.neo4j.memory.MemoryTracker;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.time.SystemNanoClock;
 
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_compression;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_eviction_policy;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_huge_pages;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_io_uring;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_numa;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_quotas;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_writeback_max_dirty_age;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory;
 import static org.neo4j.configuration.SettingValueParsers.BYTES;
 import static org.neo4j.io.mem.MemoryAllocator.createAllocator;
@@ -83,7 +105,7 @@ public class ConfiguringPageCacheFactory
     {
         if ( pageCache == null )
         {
-            this.swapperFactory = createAndConfigureSwapperFactory( fs );
+            this.swapperFactory = createAndConfigureSwapperFactory( fs, config, pageCacheTracer );
             this.pageCache = createPageCache();
         }
         return pageCache;
@@ -96,12 +118,60 @@ public class ConfiguringPageCacheFactory
         var memoryTracker = memoryPool.getPoolMemoryTracker();
         MemoryAllocator memoryAllocator = buildMemoryAllocator( pageCacheMaxMemory, memoryTracker );
         var bufferFactory = new ConfigurableIOBufferFactory( config, memoryTracker );
-        return new MuninnPageCache( swapperFactory, memoryAllocator, pageCacheTracer, versionContextSupplier, scheduler, clock, memoryTracker, bufferFactory );
+        MuninnPageCache pageCache = new MuninnPageCache( swapperFactory, memoryAllocator, pageCacheTracer, versionContextSupplier, scheduler, clock,
+                memoryTracker, bufferFactory, config.get( pagecache_eviction_policy ), numaTopology() );
+        List<PageCacheQuota> quotas = fileQuotas();
+        if ( !quotas.isEmpty() )
+        {
+            pageCache.setFileQuotas( quotas );
+        }
+        return pageCache;
+    }
+
+    /**
+     * Create the lifecycle of the background writeback of aged dirty pages, which must be managed by the same life as the page cache.
+     * The limiter is only asked for when the writeback is started, since the IO limiter of the edition is created after the page cache.
+     *
+     * @param ioLimiter supplies the limiter that paces the writeback.
+     * @return the lifecycle that starts and stops the writeback, which does nothing if background writeback is disabled.
+     */
+    public Lifecycle backgroundWriteback( Supplier<IOLimiter> ioLimiter )
+    {
+        Duration maxDirtyAge = config.get( pagecache_writeback_max_dirty_age );
+        if ( maxDirtyAge.isZero() || !(pageCache instanceof MuninnPageCache) )
+        {
+            return new LifecycleAdapter();
+        }
+        MuninnPageCache muninnPageCache = (MuninnPageCache) pageCache;
+        return new LifecycleAdapter()
+        {
+            @Override
+            public void start()
+            {
+                muninnPageCache.startBackgroundWriteback( maxDirtyAge, ioLimiter.get() );
+            }
+
+            @Override
+            public void stop()
+            {
+                muninnPageCache.stopBackgroundWriteback();
+            }
+        };
+    }
+
+    private List<PageCacheQuota> fileQuotas()
+    {
+        return config.get( pagecache_quotas ).stream().map( PageCacheQuota::parse ).collect( Collectors.toList() );
+    }
+
+    private NumaTopology numaTopology()
+    {
+        return config.get( pagecache_numa ) ? NumaTopology.detect() : NumaTopology.singleNode();
     }
 
     private MemoryAllocator buildMemoryAllocator( long pageCacheMaxMemory, MemoryTracker memoryTracker )
     {
-        return createAllocator( pageCacheMaxMemory, memoryTracker );
+        return createAllocator( pageCacheMaxMemory, memoryTracker, config.get( pagecache_huge_pages ) );
     }
 
     private long getPageCacheMaxMemory( Config config )
@@ -174,13 +244,79 @@ public class ConfiguringPageCacheFactory
         long maxVmUsageMb = ByteUnit.Byte.toMebiBytes( Runtime.getRuntime().maxMemory() );
         String msg = "Physical mem: " + totalPhysicalMemMb + " MiB," +
                      " Heap size: " + maxVmUsageMb + " MiB," +
-                     " Page cache: " + pageCacheMemory + ".";
+                     " Page cache: " + pageCacheMemory + "," +
+                     " Page cache eviction policy: " + config.get( pagecache_eviction_policy ) + "," +
+                     " Page cache io_uring: " + ioUringStatus() + "," +
+                     " Page cache NUMA nodes: " + numaTopology().nodeCount() + "," +
+                     " Page cache compression: " + compressionStatus() + "," +
+                     " Page cache writeback: " + writebackStatus() + "," +
+                     " Page cache huge pages: " + hugePageStatus() + "," +
+                     " Page cache quotas: " + (fileQuotas().isEmpty() ? "none" : fileQuotas()) + ".";
 
         log.info( msg );
     }
 
-    private static PageSwapperFactory createAndConfigureSwapperFactory( FileSystemAbstraction fs )
+    private String ioUringStatus()
     {
-        return new SingleFilePageSwapperFactory( fs );
+        if ( !config.get( pagecache_io_uring ) )
+        {
+            return "disabled";
+        }
+        return IOUringPageSwapperFactory.isAvailable() ? "enabled" : "not available, using file channel I/O";
+    }
+
+    private String hugePageStatus()
+    {
+        HugePageMode hugePageMode = config.get( pagecache_huge_pages );
+        if ( hugePageMode == HugePageMode.DISABLED )
+        {
+            return "disabled";
+        }
+        if ( !HugePages.isAvailable() )
+        {
+            return "not available, using regular memory";
+        }
+        String status = hugePageMode + " (transparent huge pages: " + HugePages.transparentHugePageMode() + ")";
+        if ( pageCache instanceof MuninnPageCache )
+        {
+            status += ", " + ByteUnit.bytesToString( ((MuninnPageCache) pageCache).hugePageBackedMemory() ) + " currently backed by huge pages";
+        }
+        return status;
+    }
+
+    private String writebackStatus()
+    {
+        Duration maxDirtyAge = config.get( pagecache_writeback_max_dirty_age );
+        return maxDirtyAge.isZero() ? "disabled" : "pages dirty for longer than " + maxDirtyAge.toMillis() + " ms";
+    }
+
+    private String compressionStatus()
+    {
+        PageCompression compression = config.get( pagecache_compression );
+        if ( compression == PageCompression.NONE || PageCompression.isAvailable() )
+        {
+            return compression.name();
+        }
+        return compression.name() + " not available, using uncompressed files";
+    }
+
+    private static PageSwapperFactory createAndConfigureSwapperFactory( FileSystemAbstraction fs, Config config, PageCacheTracer pageCacheTracer )
+    {
+        PageSwapperFactory swapperFactory;
+        if ( config.get( pagecache_io_uring ) && IOUringPageSwapperFactory.isAvailable() )
+        {
+            swapperFactory = new IOUringPageSwapperFactory( fs );
+        }
+        else
+        {
+            swapperFactory = new SingleFilePageSwapperFactory( fs );
+        }
+        // Existing compressed files must be read as such also when compression is not enabled, so they are only left to the plain swapper factories,
+        // which refuse to map them, when compression is not available at all.
+        if ( PageCompression.isAvailable() )
+        {
+            swapperFactory = new CompressedPageSwapperFactory( fs, swapperFactory, config.get( pagecache_compression ), pageCacheTracer );
+        }
+        return swapperFactory;
     }
 }
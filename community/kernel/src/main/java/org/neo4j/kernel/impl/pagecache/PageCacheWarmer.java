@@ -0,0 +1,451 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.FileIsNotMappedException;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.time.Stopwatch;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_enabled;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch_allowlist;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_profiling_interval;
+import static org.neo4j.configuration.GraphDatabaseSettings.read_only;
+import static org.neo4j.internal.helpers.Format.duration;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.kernel.api.index.IndexDirectoryStructure.baseSchemaIndexFolder;
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * Keeps profiles of the pages of a database that are in the page cache, and uses them to warm up the page cache when the database starts.
+ * <p>
+ * While the database is running, the file pages that are in memory are periodically recorded in a compact {@link PageProfile} for every
+ * mapped file of the database. Profiling does not fault in any pages. The profiles are written to a temporary file first, and then atomically
+ * moved in place, so a crash never leaves a partial profile behind.
+ * <p>
+ * When the database starts, the profiled pages are loaded back into the page cache by background jobs in the
+ * {@link Group#PAGE_CACHE_WARMER} group, which warm several files in parallel. Index files, including the token scan stores, are warmed up
+ * first, then the relationship stores, and then everything else. Within a file, pages are loaded in the order of their file offset, so the
+ * reads are as sequential as the profile allows. Warmup never loads more pages than fit in the page cache, and it backs off whenever it
+ * observes page faults from other parts of the database, so it does not compete with queries for I/O.
+ * <p>
+ * If {@link org.neo4j.configuration.GraphDatabaseSettings#pagecache_warmup_prefetch} is enabled, the files that match the allowlist are
+ * loaded in their entirety instead, and the profiles are ignored.
+ * <p>
+ * A database only gets a warmer if {@link org.neo4j.configuration.GraphDatabaseInternalSettings#pagecache_warmup_from_profiles} is enabled.
+ */
+public class PageCacheWarmer extends LifecycleAdapter
+{
+    static final String PROFILE_DIRECTORY = "profiles";
+    static final String SUFFIX_CACHEPROF = ".cacheprof";
+    private static final String SUFFIX_TEMPORARY = ".tmp";
+    private static final String PROFILER_TAG = "pageCacheProfiler";
+    private static final String WARMER_TAG = "pageCacheWarmer";
+
+    // The number of pages a warmup job loads in between looking for page faults from the rest of the database.
+    private static final int pagesBetweenThrottleChecks = getInteger( PageCacheWarmer.class, "pagesBetweenThrottleChecks", 64 );
+    // The shortest and longest pause a warmup job takes when it backs off from other page faults, in milliseconds.
+    private static final int minPauseMillis = getInteger( PageCacheWarmer.class, "minPauseMillis", 1 );
+    private static final int maxPauseMillis = getInteger( PageCacheWarmer.class, "maxPauseMillis", 100 );
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final JobScheduler scheduler;
+    private final DatabaseLayout databaseLayout;
+    private final Path profileDirectory;
+    private final Config config;
+    private final PageCacheTracer pageCacheTracer;
+    private final Log log;
+    private final List<JobHandle<?>> warmupJobs = new CopyOnWriteArrayList<>();
+    private final Object profileLock = new Object();
+    private volatile JobHandle<?> profileJob;
+    private volatile boolean stopped;
+
+    public PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, DatabaseLayout databaseLayout, Config config,
+            PageCacheTracer pageCacheTracer, Log log )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.scheduler = scheduler;
+        this.databaseLayout = databaseLayout;
+        this.profileDirectory = databaseLayout.databaseDirectory().resolve( PROFILE_DIRECTORY );
+        this.config = config;
+        this.pageCacheTracer = pageCacheTracer;
+        this.log = log;
+    }
+
+    @Override
+    public void start()
+    {
+        if ( !config.get( pagecache_warmup_enabled ) )
+        {
+            return;
+        }
+        stopped = false;
+        startWarmup();
+        if ( !config.get( read_only ) && !config.get( pagecache_warmup_prefetch ) )
+        {
+            long intervalMillis = config.get( pagecache_warmup_profiling_interval ).toMillis();
+            profileJob = scheduler.scheduleRecurring( Group.PAGE_CACHE_WARMER, this::scheduledProfile, intervalMillis, intervalMillis, MILLISECONDS );
+        }
+    }
+
+    @Override
+    public void stop() throws Exception
+    {
+        stopped = true;
+        JobHandle<?> job = profileJob;
+        if ( job != null )
+        {
+            job.cancel();
+            profileJob = null;
+        }
+        for ( JobHandle<?> warmupJob : warmupJobs )
+        {
+            awaitTermination( warmupJob );
+        }
+        warmupJobs.clear();
+        synchronized ( profileLock )
+        {
+            // Wait for any ongoing profile to finish, since it might be using files that are about to be unmapped.
+        }
+    }
+
+    /**
+     * Load the profiled pages of all mapped files of the database into the page cache, and wait for it to finish.
+     *
+     * @return the number of pages that were loaded, including pages that were already in memory.
+     */
+    long reheat() throws Exception
+    {
+        AtomicLong pagesLoaded = new AtomicLong();
+        List<JobHandle<?>> jobs = startWarmup( pagesLoaded );
+        for ( JobHandle<?> job : jobs )
+        {
+            job.waitTermination();
+        }
+        return pagesLoaded.get();
+    }
+
+    /**
+     * Write a profile of the pages in memory, for every mapped file of the database, and remove the profiles of files that are no longer mapped.
+     *
+     * @return the number of pages that were found to be in memory.
+     */
+    long profile() throws IOException
+    {
+        synchronized ( profileLock )
+        {
+            fs.mkdirs( profileDirectory );
+            Set<Path> profiles = new HashSet<>();
+            long pagesInMemory = 0;
+            for ( PagedFile pagedFile : databaseFiles() )
+            {
+                if ( stopped )
+                {
+                    return pagesInMemory;
+                }
+                Path profileFile = profileFile( pagedFile.path() );
+                try
+                {
+                    pagesInMemory += profile( pagedFile, profileFile );
+                    profiles.add( profileFile );
+                }
+                catch ( FileIsNotMappedException e )
+                {
+                    // The file was unmapped while we were profiling it. We skip it, since we are not interested in files that are not in use.
+                    fs.deleteFile( temporaryFile( profileFile ) );
+                }
+            }
+            for ( Path existing : fs.listFiles( profileDirectory ) )
+            {
+                if ( !profiles.contains( existing ) )
+                {
+                    fs.deleteFile( existing );
+                }
+            }
+            return pagesInMemory;
+        }
+    }
+
+    private void scheduledProfile()
+    {
+        try
+        {
+            profile();
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Failed to write page cache profile for database " + databaseLayout.getDatabaseName(), e );
+        }
+    }
+
+    private long profile( PagedFile pagedFile, Path profileFile ) throws IOException
+    {
+        Path temporaryFile = temporaryFile( profileFile );
+        long pagesInMemory;
+        try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( PROFILER_TAG );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT, cursorTracer );
+              PageProfile.Writer writer = new PageProfile.Writer( new BufferedOutputStream( fs.openAsOutputStream( temporaryFile, false ) ) ) )
+        {
+            long filePageId = 0;
+            while ( !stopped && cursor.next() )
+            {
+                if ( cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
+                {
+                    writer.add( filePageId );
+                }
+                filePageId++;
+            }
+            pagesInMemory = writer.pages();
+        }
+        fs.renameFile( temporaryFile, profileFile, ATOMIC_MOVE, REPLACE_EXISTING );
+        return pagesInMemory;
+    }
+
+    private void startWarmup()
+    {
+        warmupJobs.addAll( startWarmup( new AtomicLong() ) );
+    }
+
+    private List<JobHandle<?>> startWarmup( AtomicLong pagesLoaded )
+    {
+        boolean preload = config.get( pagecache_warmup_prefetch );
+        Pattern allowlist = Pattern.compile( config.get( pagecache_warmup_prefetch_allowlist ) );
+        List<PagedFile> files = new ArrayList<>();
+        for ( PagedFile pagedFile : databaseFiles() )
+        {
+            if ( preload ? allowlist.matcher( pagedFile.path().getFileName().toString() ).matches() : fs.fileExists( profileFile( pagedFile.path() ) ) )
+            {
+                files.add( pagedFile );
+            }
+        }
+        if ( files.isEmpty() )
+        {
+            return List.of();
+        }
+        files.sort( Comparator.comparingInt( ( PagedFile pagedFile ) -> warmupPriority( pagedFile.path() ) ).thenComparing( PagedFile::path ) );
+
+        Stopwatch stopwatch = Stopwatch.start();
+        AtomicLong budget = new AtomicLong( pageCache.maxCachedPages() );
+        AtomicInteger remainingFiles = new AtomicInteger( files.size() );
+        WarmupThrottle throttle = new WarmupThrottle();
+        List<JobHandle<?>> jobs = new ArrayList<>( files.size() );
+        for ( PagedFile pagedFile : files )
+        {
+            jobs.add( scheduler.schedule( Group.PAGE_CACHE_WARMER, () ->
+            {
+                try
+                {
+                    pagesLoaded.addAndGet( preload ? preload( pagedFile, budget, throttle ) : warmup( pagedFile, budget, throttle ) );
+                }
+                catch ( FileIsNotMappedException e )
+                {
+                    // The file was unmapped in the mean time, so there is no point in warming it up.
+                }
+                catch ( IOException e )
+                {
+                    log.warn( "Failed to warm up the page cache for " + pagedFile.path(), e );
+                }
+                finally
+                {
+                    if ( remainingFiles.decrementAndGet() == 0 && !stopped )
+                    {
+                        log.info( "Page cache warmup completed. %d pages loaded from %d files in %s.", pagesLoaded.get(), files.size(),
+                                duration( stopwatch.elapsed( MILLISECONDS ) ) );
+                    }
+                }
+            } ) );
+        }
+        return jobs;
+    }
+
+    private long warmup( PagedFile pagedFile, AtomicLong budget, WarmupThrottle throttle ) throws IOException
+    {
+        try ( PageProfile.Reader reader = new PageProfile.Reader( new BufferedInputStream( fs.openAsInputStream( profileFile( pagedFile.path() ) ) ) ) )
+        {
+            return load( pagedFile, reader::next, budget, throttle );
+        }
+    }
+
+    private long preload( PagedFile pagedFile, AtomicLong budget, WarmupThrottle throttle ) throws IOException
+    {
+        long lastPageId = pagedFile.getLastPageId();
+        AtomicLong nextPageId = new AtomicLong();
+        return load( pagedFile, () -> nextPageId.get() <= lastPageId ? nextPageId.getAndIncrement() : -1, budget, throttle );
+    }
+
+    private long load( PagedFile pagedFile, PageIds pageIds, AtomicLong budget, WarmupThrottle throttle ) throws IOException
+    {
+        long pagesLoaded = 0;
+        try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( WARMER_TAG );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, cursorTracer ) )
+        {
+            long filePageId;
+            while ( !stopped && (filePageId = pageIds.next()) != -1 && budget.decrementAndGet() >= 0 )
+            {
+                if ( !cursor.next( filePageId ) )
+                {
+                    break; // The file is shorter than it was when the profile was taken.
+                }
+                pagesLoaded++;
+                if ( pagesLoaded % pagesBetweenThrottleChecks == 0 )
+                {
+                    throttle.backOffFromOtherPageFaults( cursorTracer );
+                }
+            }
+        }
+        return pagesLoaded;
+    }
+
+    private List<PagedFile> databaseFiles()
+    {
+        List<PagedFile> files = new ArrayList<>();
+        try
+        {
+            for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+            {
+                if ( pagedFile.path().startsWith( databaseLayout.databaseDirectory() ) )
+                {
+                    files.add( pagedFile );
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Failed to list the files mapped by the page cache", e );
+        }
+        return files;
+    }
+
+    private int warmupPriority( Path file )
+    {
+        if ( file.startsWith( baseSchemaIndexFolder( databaseLayout.databaseDirectory() ) ) || file.equals( databaseLayout.labelScanStore() ) ||
+                file.equals( databaseLayout.relationshipTypeScanStore() ) )
+        {
+            return 0;
+        }
+        if ( file.equals( databaseLayout.relationshipStore() ) || file.equals( databaseLayout.relationshipGroupStore() ) )
+        {
+            return 1;
+        }
+        return 2;
+    }
+
+    Path profileFile( Path mappedFile )
+    {
+        Path relativePath = databaseLayout.databaseDirectory().relativize( mappedFile );
+        String name = relativePath.toString().replace( relativePath.getFileSystem().getSeparator(), "+" );
+        return profileDirectory.resolve( name + SUFFIX_CACHEPROF );
+    }
+
+    private static Path temporaryFile( Path profileFile )
+    {
+        return profileFile.resolveSibling( profileFile.getFileName() + SUFFIX_TEMPORARY );
+    }
+
+    private static void awaitTermination( JobHandle<?> job ) throws InterruptedException
+    {
+        try
+        {
+            job.waitTermination();
+        }
+        catch ( CancellationException | ExecutionException e )
+        {
+            // The job is done, and any failure has already been logged.
+        }
+    }
+
+    @FunctionalInterface
+    private interface PageIds
+    {
+        /**
+         * @return the next file page id to load, or {@code -1} if there are no more pages.
+         */
+        long next() throws IOException;
+    }
+
+    /**
+     * Observes the page faults of the whole page cache, and makes the warmup jobs pause whenever some of those faults are not their own.
+     */
+    private final class WarmupThrottle
+    {
+        private final LongAdder warmupFaults = new LongAdder();
+        private long lastTotalFaults = pageCacheTracer.faults();
+        private long lastWarmupFaults;
+        private long pauseMillis;
+
+        void backOffFromOtherPageFaults( PageCursorTracer cursorTracer )
+        {
+            warmupFaults.add( cursorTracer.faults() );
+            cursorTracer.reportEvents();
+            long pause = nextPauseMillis();
+            if ( pause > 0 )
+            {
+                LockSupport.parkNanos( MILLISECONDS.toNanos( pause ) );
+            }
+        }
+
+        private synchronized long nextPauseMillis()
+        {
+            long totalFaults = pageCacheTracer.faults();
+            long ownFaults = warmupFaults.sum();
+            long otherFaults = (totalFaults - lastTotalFaults) - (ownFaults - lastWarmupFaults);
+            lastTotalFaults = totalFaults;
+            lastWarmupFaults = ownFaults;
+            pauseMillis = otherFaults > 0 ? Math.min( Math.max( pauseMillis * 2, minPauseMillis ), maxPauseMillis ) : 0;
+            return pauseMillis;
+        }
+    }
+}
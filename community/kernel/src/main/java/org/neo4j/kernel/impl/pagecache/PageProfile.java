@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The on-disk format of a page cache profile: the set of file pages of a mapped file that were in memory when the profile was taken.
+ * <p>
+ * The pages are stored as a run-length list of ascending, non-overlapping runs of consecutive file page ids. Every run is encoded as the
+ * gap from the end of the previous run, followed by the length of the run, both as variable length unsigned longs. A run length of zero ends
+ * the list. The list is preceded by a magic number and a format version.
+ */
+final class PageProfile
+{
+    private static final int MAGIC = 0x50434650; // "PCFP"
+    private static final byte VERSION = 1;
+
+    private PageProfile()
+    {
+    }
+
+    static final class Writer implements AutoCloseable
+    {
+        private final DataOutputStream out;
+        private long runStart = -1;
+        private long runEnd;
+        private long previousRunEnd;
+        private long pages;
+
+        Writer( OutputStream out ) throws IOException
+        {
+            this.out = new DataOutputStream( out );
+            this.out.writeInt( MAGIC );
+            this.out.writeByte( VERSION );
+        }
+
+        /**
+         * Add the given file page to the profile. File pages must be added in ascending order.
+         */
+        void add( long filePageId ) throws IOException
+        {
+            if ( runStart != -1 && filePageId == runEnd )
+            {
+                runEnd++;
+            }
+            else
+            {
+                flushRun();
+                runStart = filePageId;
+                runEnd = filePageId + 1;
+            }
+            pages++;
+        }
+
+        long pages()
+        {
+            return pages;
+        }
+
+        private void flushRun() throws IOException
+        {
+            if ( runStart != -1 )
+            {
+                writeVarLong( out, runStart - previousRunEnd );
+                writeVarLong( out, runEnd - runStart );
+                previousRunEnd = runEnd;
+            }
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            flushRun();
+            runStart = -1;
+            writeVarLong( out, 0 );
+            writeVarLong( out, 0 );
+            out.close();
+        }
+    }
+
+    static final class Reader implements AutoCloseable
+    {
+        private final DataInputStream in;
+        private long runEnd;
+        private long next;
+
+        /**
+         * @throws IOException if the stream could not be read, or does not contain a profile.
+         */
+        Reader( InputStream in ) throws IOException
+        {
+            this.in = new DataInputStream( in );
+            int magic = this.in.readInt();
+            byte version = this.in.readByte();
+            if ( magic != MAGIC || version != VERSION )
+            {
+                throw new IOException( "Not a page cache profile, or unsupported profile version " + version );
+            }
+        }
+
+        /**
+         * @return the next file page id in the profile, or {@code -1} if there are no more pages.
+         */
+        long next() throws IOException
+        {
+            if ( next == runEnd )
+            {
+                long gap = readVarLong( in );
+                long length = readVarLong( in );
+                if ( length == 0 )
+                {
+                    return -1;
+                }
+                next = runEnd + gap;
+                runEnd = next + length;
+            }
+            return next++;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            in.close();
+        }
+    }
+
+    private static void writeVarLong( DataOutputStream out, long value ) throws IOException
+    {
+        while ( (value & ~0x7FL) != 0 )
+        {
+            out.writeByte( (int) ((value & 0x7F) | 0x80) );
+            value >>>= 7;
+        }
+        out.writeByte( (int) value );
+    }
+
+    private static long readVarLong( DataInputStream in ) throws IOException
+    {
+        long value = 0;
+        for ( int shift = 0; shift < Long.SIZE; shift += 7 )
+        {
+            byte b = in.readByte();
+            value |= (b & 0x7FL) << shift;
+            if ( (b & 0x80) == 0 )
+            {
+                return value;
+            }
+        }
+        throw new IOException( "Malformed variable length value in page cache profile" );
+    }
+}
@@ -20,6 +20,10 @@
 package org.neo4j.kernel.impl.transaction.log;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
 
 import org.neo4j.kernel.impl.api.TransactionToApply;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
@@ -29,6 +33,9 @@ import org.neo4j.kernel.impl.transaction.log.rotation.LogRotation;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
 import org.neo4j.kernel.impl.transaction.tracing.SerializeTransactionEvent;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.memory.EmptyMemoryTracker;
+import org.neo4j.memory.MemoryLimitExceededException;
+import org.neo4j.memory.MemoryTracker;
 import org.neo4j.monitoring.Health;
 import org.neo4j.storageengine.api.TransactionIdStore;
 import org.neo4j.util.VisibleForTesting;
@@ -41,23 +48,38 @@ import static org.neo4j.kernel.impl.api.TransactionToApply.TRANSACTION_ID_NOT_SP
  */
 public class BatchingTransactionAppender extends LifecycleAdapter implements TransactionAppender
 {
+    /**
+     * Max number of {@link TransactionCommandsBuffer buffers} kept around for reuse between commits. Committing threads beyond
+     * that serialize into new buffers.
+     */
+    static final int MAX_RETAINED_BUFFERS = 8;
+
     private final TransactionMetadataCache transactionMetadataCache;
     private final LogFile logFile;
     private final LogRotation logRotation;
     private final TransactionIdStore transactionIdStore;
     private final Health databaseHealth;
+    private final MemoryTracker memoryTracker;
+    private final Queue<TransactionCommandsBuffer> retainedBuffers = new ArrayBlockingQueue<>( MAX_RETAINED_BUFFERS );
 
     private TransactionLogWriter transactionLogWriter;
     private int previousChecksum;
 
     public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation, TransactionMetadataCache transactionMetadataCache,
             TransactionIdStore transactionIdStore, Health databaseHealth )
+    {
+        this( logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth, EmptyMemoryTracker.INSTANCE );
+    }
+
+    public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation, TransactionMetadataCache transactionMetadataCache,
+            TransactionIdStore transactionIdStore, Health databaseHealth, MemoryTracker memoryTracker )
     {
         this.logFile = logFiles.getLogFile();
         this.logRotation = logRotation;
         this.transactionIdStore = transactionIdStore;
         this.databaseHealth = databaseHealth;
         this.transactionMetadataCache = transactionMetadataCache;
+        this.memoryTracker = memoryTracker;
         this.previousChecksum = transactionIdStore.getLastCommittedTransaction().checksum();
     }
 
@@ -70,6 +92,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         this.transactionIdStore = transactionIdStore;
         this.databaseHealth = databaseHealth;
         this.transactionMetadataCache = transactionMetadataCache;
+        this.memoryTracker = EmptyMemoryTracker.INSTANCE;
         this.previousChecksum = previousChecksum;
     }
 
@@ -79,39 +102,61 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         this.transactionLogWriter = logFile.getTransactionLogWriter();
     }
 
+    @Override
+    public void shutdown()
+    {
+        TransactionCommandsBuffer buffer;
+        while ( (buffer = retainedBuffers.poll()) != null )
+        {
+            memoryTracker.releaseHeap( buffer.capacity() );
+        }
+    }
+
     @Override
     public long append( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException
     {
         // Assigned base tx id just to make compiler happy
         long lastTransactionId = TransactionIdStore.BASE_TX_ID;
-        // Synchronized with logFile to get absolute control over concurrent rotations happening
-        synchronized ( logFile )
+        // Serialize the commands of all transactions in this batch up front, so that concurrent committers only
+        // contend on the logFile monitor for assigning ids and copying already serialized commands into the log
+        List<TransactionCommandsBuffer> commands = serializeCommands( batch );
+        try
         {
-            // Assert that kernel is healthy before making any changes
-            databaseHealth.assertHealthy( IOException.class );
-            try ( SerializeTransactionEvent serialiseEvent = logAppendEvent.beginSerializeTransaction() )
+            // Synchronized with logFile to get absolute control over concurrent rotations happening
+            synchronized ( logFile )
             {
-                // Append all transactions in this batch to the log under the same logFile monitor
-                TransactionToApply tx = batch;
-                while ( tx != null )
+                // Assert that kernel is healthy before making any changes
+                databaseHealth.assertHealthy( IOException.class );
+                try ( SerializeTransactionEvent serialiseEvent = logAppendEvent.beginSerializeTransaction() )
                 {
-                    long transactionId = transactionIdStore.nextCommittingTransactionId();
-
-                    // If we're in a scenario where we're merely replicating transactions, i.e. transaction
-                    // id have already been generated by another entity we simply check that our id
-                    // that we generated match that id. If it doesn't we've run into a problem we can't ´
-                    // really recover from and would point to a bug somewhere.
-                    matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
-
-                    TransactionCommitment commitment = appendToLog( tx.transactionRepresentation(), transactionId, logAppendEvent, previousChecksum );
-                    previousChecksum = commitment.getTransactionChecksum();
-                    tx.commitment( commitment, transactionId );
-                    tx.logPosition( commitment.logPosition() );
-                    tx = tx.next();
-                    lastTransactionId = transactionId;
+                    // Append all transactions in this batch to the log under the same logFile monitor
+                    TransactionToApply tx = batch;
+                    int index = 0;
+                    while ( tx != null )
+                    {
+                        long transactionId = transactionIdStore.nextCommittingTransactionId();
+
+                        // If we're in a scenario where we're merely replicating transactions, i.e. transaction
+                        // id have already been generated by another entity we simply check that our id
+                        // that we generated match that id. If it doesn't we've run into a problem we can't ´
+                        // really recover from and would point to a bug somewhere.
+                        matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
+
+                        TransactionCommitment commitment =
+                                appendToLog( tx.transactionRepresentation(), transactionId, logAppendEvent, previousChecksum, commands.get( index++ ) );
+                        previousChecksum = commitment.getTransactionChecksum();
+                        tx.commitment( commitment, transactionId );
+                        tx.logPosition( commitment.logPosition() );
+                        tx = tx.next();
+                        lastTransactionId = transactionId;
+                    }
                 }
             }
         }
+        finally
+        {
+            releaseCommands( commands );
+        }
 
         // At this point we've appended all transactions in this batch, but we can't mark any of them
         // as committed since they haven't been forced to disk yet. So here we force, or potentially
@@ -148,6 +193,72 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         }
     }
 
+    /**
+     * Serializes the commands of all transactions in the batch, outside of the logFile monitor, into buffers taken from the
+     * retained ones if there are any.
+     */
+    private List<TransactionCommandsBuffer> serializeCommands( TransactionToApply batch ) throws IOException
+    {
+        List<TransactionCommandsBuffer> commands = new ArrayList<>( 1 );
+        try
+        {
+            TransactionToApply tx = batch;
+            while ( tx != null )
+            {
+                TransactionCommandsBuffer buffer = acquireBuffer();
+                commands.add( buffer );
+                transactionLogWriter.serializeCommands( tx.transactionRepresentation(), buffer );
+                tx = tx.next();
+            }
+        }
+        catch ( Throwable t )
+        {
+            releaseCommands( commands );
+            throw t;
+        }
+        return commands;
+    }
+
+    private TransactionCommandsBuffer acquireBuffer()
+    {
+        TransactionCommandsBuffer buffer = retainedBuffers.poll();
+        if ( buffer == null )
+        {
+            return new TransactionCommandsBuffer();
+        }
+        memoryTracker.releaseHeap( buffer.capacity() );
+        return buffer;
+    }
+
+    /**
+     * Hands the buffers back for reuse, as long as they haven't grown too large and there's room for them among the retained buffers.
+     * Retained buffers are accounted for in the {@link MemoryTracker}.
+     */
+    private void releaseCommands( List<TransactionCommandsBuffer> commands )
+    {
+        for ( TransactionCommandsBuffer buffer : commands )
+        {
+            if ( buffer.isRetainable() )
+            {
+                buffer.clear();
+                int capacity = buffer.capacity();
+                try
+                {
+                    memoryTracker.allocateHeap( capacity );
+                }
+                catch ( MemoryLimitExceededException e )
+                {
+                    // Not retaining it is fine, a new buffer will be allocated when needed
+                    continue;
+                }
+                if ( !retainedBuffers.offer( buffer ) )
+                {
+                    memoryTracker.releaseHeap( capacity );
+                }
+            }
+        }
+    }
+
     private static void publishAsCommitted( TransactionToApply batch )
     {
         while ( batch != null )
@@ -161,8 +272,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
      * @return A TransactionCommitment instance with metadata about the committed transaction, such as whether or not
      * this transaction contains any explicit index changes.
      */
-    private TransactionCommitment appendToLog( TransactionRepresentation transaction, long transactionId, LogAppendEvent logAppendEvent, int previousChecksum )
-            throws IOException
+    private TransactionCommitment appendToLog( TransactionRepresentation transaction, long transactionId, LogAppendEvent logAppendEvent, int previousChecksum,
+            TransactionCommandsBuffer commands ) throws IOException
     {
         // The outcome of this try block is either of:
         // a) transaction successfully appended, at which point we return a Commitment to be used after force
@@ -173,7 +284,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         try
         {
             var logPositionBeforeCommit = transactionLogWriter.getCurrentPosition();
-            int checksum = transactionLogWriter.append( transaction, transactionId, previousChecksum );
+            int checksum = transactionLogWriter.append( transaction, transactionId, previousChecksum, commands );
             var logPositionAfterCommit = transactionLogWriter.getCurrentPosition();
             logAppendEvent.appendToLogFile( logPositionBeforeCommit, logPositionAfterCommit );
 
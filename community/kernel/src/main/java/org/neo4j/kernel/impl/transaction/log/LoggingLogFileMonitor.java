@@ -47,6 +47,13 @@ public class LoggingLogFileMonitor implements RecoveryMonitor, RecoveryStartInfo
         log.info( "Recovery required from position " + startPosition );
     }
 
+    @Override
+    public void recoveryProgress( long recoveredTransactions, long transactionsToRecover, long transactionsPerSecond )
+    {
+        log.info( format( "Recovery in progress. %d of %d transactions recovered, %d transactions/s", recoveredTransactions, transactionsToRecover,
+                transactionsPerSecond ) );
+    }
+
     @Override
     public void recoveryCompleted( int numberOfRecoveredTransactions, long recoveryTimeInMilliseconds )
     {
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.fs.WritableChannel;
+import org.neo4j.io.fs.WritableChecksumChannel;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.CommandsCompression;
+
+/**
+ * Heap buffer that the command entries of a transaction are serialized into ahead of appending the transaction to the log,
+ * so that serialization can happen without holding the log file monitor. The buffered bytes are identical to what the
+ * {@link org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter} would have written straight into the log channel and
+ * are included in the checksum of the transaction when copied over by {@link #writeTo(WritableChannel)}.
+ * <p>
+ * This channel can not compute checksums of its own, checksums are calculated over the whole transaction in the log channel.
+ */
+public class TransactionCommandsBuffer implements WritableChecksumChannel
+{
+    static final int INITIAL_CAPACITY = (int) ByteUnit.kibiBytes( 4 );
+    /**
+     * Buffers that have grown beyond this capacity are not kept around for reuse, to not have a few large transactions
+     * pin memory after they have been committed.
+     */
+    static final int MAX_RETAINED_CAPACITY = (int) ByteUnit.kibiBytes( 64 );
+
+    private ByteBuffer buffer = ByteBuffer.allocate( INITIAL_CAPACITY );
+    private TransactionRepresentation transaction;
+    private byte parserSetVersion;
+
+    /**
+     * Clears the buffer so that it can be used to serialize the commands of another transaction.
+     */
+    public void clear()
+    {
+        buffer.clear();
+        transaction = null;
+    }
+
+    /**
+     * Marks the contents of this buffer as the complete serialized commands of the given transaction.
+     *
+     * @param transaction the transaction whose commands were serialized into this buffer.
+     * @param parserSetVersion the log format version the commands were serialized with.
+     */
+    public void serialized( TransactionRepresentation transaction, byte parserSetVersion )
+    {
+        this.transaction = transaction;
+        this.parserSetVersion = parserSetVersion;
+    }
+
+    /**
+     * @return {@code true} if this buffer holds the commands of the given transaction, serialized with the given log format version.
+     */
+    public boolean holds( TransactionRepresentation transaction, byte parserSetVersion )
+    {
+        return this.transaction == transaction && this.parserSetVersion == parserSetVersion;
+    }
+
+    public int size()
+    {
+        return buffer.position();
+    }
+
+    public int capacity()
+    {
+        return buffer.capacity();
+    }
+
+    public boolean isRetainable()
+    {
+        return buffer.capacity() <= MAX_RETAINED_CAPACITY;
+    }
+
+    /**
+     * @return the serialized commands compressed, as written in {@link org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes#COMPRESSED_COMMANDS}
+     * entries.
+     */
+    public byte[] compress() throws IOException
+    {
+        return CommandsCompression.compress( buffer.array(), buffer.position() );
+    }
+
+    /**
+     * Copies the serialized commands into the given channel.
+     */
+    public void writeTo( WritableChannel channel ) throws IOException
+    {
+        channel.put( buffer.array(), buffer.position() );
+    }
+
+    @Override
+    public WritableChecksumChannel put( byte value )
+    {
+        ensureCapacity( Byte.BYTES ).put( value );
+        return this;
+    }
+
+    @Override
+    public WritableChecksumChannel putShort( short value )
+    {
+        ensureCapacity( Short.BYTES ).putShort( value );
+        return this;
+    }
+
+    @Override
+    public WritableChecksumChannel putInt( int value )
+    {
+        ensureCapacity( Integer.BYTES ).putInt( value );
+        return this;
+    }
+
+    @Override
+    public WritableChecksumChannel putLong( long value )
+    {
+        ensureCapacity( Long.BYTES ).putLong( value );
+        return this;
+    }
+
+    @Override
+    public WritableChecksumChannel putFloat( float value )
+    {
+        ensureCapacity( Float.BYTES ).putFloat( value );
+        return this;
+    }
+
+    @Override
+    public WritableChecksumChannel putDouble( double value )
+    {
+        ensureCapacity( Double.BYTES ).putDouble( value );
+        return this;
+    }
+
+    @Override
+    public WritableChecksumChannel put( byte[] value, int length )
+    {
+        ensureCapacity( length ).put( value, 0, length );
+        return this;
+    }
+
+    @Override
+    public void beginChecksum()
+    {
+        throw new UnsupportedOperationException( "Commands are checksummed as part of their transaction when written to the log" );
+    }
+
+    @Override
+    public int putChecksum()
+    {
+        throw new UnsupportedOperationException( "Commands are checksummed as part of their transaction when written to the log" );
+    }
+
+    private ByteBuffer ensureCapacity( int bytes )
+    {
+        if ( buffer.remaining() < bytes )
+        {
+            int capacity = Math.max( buffer.capacity() << 1, buffer.position() + bytes );
+            ByteBuffer grown = ByteBuffer.allocate( capacity );
+            buffer.flip();
+            grown.put( buffer );
+            buffer = grown;
+        }
+        return buffer;
+    }
+}
@@ -53,6 +53,42 @@ public class TransactionLogWriter
         return writer.writeCommitEntry( transactionId, transaction.getTimeCommitted() );
     }
 
+    /**
+     * Append a transaction to the transaction log file, copying its commands from a buffer they have already been serialized into
+     * by {@link #serializeCommands(TransactionRepresentation, TransactionCommandsBuffer)}. The commands are serialized again if
+     * the buffer doesn't hold the commands of this transaction in the log format currently in use.
+     * @return checksum of the transaction
+     */
+    public int append( TransactionRepresentation transaction, long transactionId, int previousChecksum, TransactionCommandsBuffer commands )
+            throws IOException
+    {
+        LogEntryWriter<FlushablePositionAwareChecksumChannel> writer = logEntryWriterFactory.createEntryWriter( channel );
+        writer.writeStartEntry( transaction.getTimeStarted(), transaction.getLatestCommittedTxWhenStarted(), previousChecksum, transaction.additionalHeader() );
+
+        if ( commands.holds( transaction, writer.getParserSetVersion() ) )
+        {
+            commands.writeTo( channel );
+        }
+        else
+        {
+            writer.serialize( transaction );
+        }
+
+        return writer.writeCommitEntry( transactionId, transaction.getTimeCommitted() );
+    }
+
+    /**
+     * Serialize the commands of a transaction into the given buffer, in the log format currently in use. This doesn't touch the
+     * log channel and so requires no synchronization with appends.
+     */
+    public void serializeCommands( TransactionRepresentation transaction, TransactionCommandsBuffer commands ) throws IOException
+    {
+        commands.clear();
+        LogEntryWriter<TransactionCommandsBuffer> writer = logEntryWriterFactory.createEntryWriter( commands );
+        writer.serialize( transaction );
+        commands.serialized( transaction, writer.getParserSetVersion() );
+    }
+
     @VisibleForTesting
     public void legacyCheckPoint( LogPosition logPosition ) throws IOException
     {
@@ -29,6 +29,8 @@ import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.database.DatabaseTracers;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.pruning.LogPruning;
+import org.neo4j.kernel.impl.transaction.stats.CommitLatencyCounters;
+import org.neo4j.kernel.impl.transaction.stats.LatencyHistogram;
 import org.neo4j.kernel.impl.transaction.tracing.LogCheckPointEvent;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.logging.Log;
@@ -203,6 +205,7 @@ public class CheckPointerImpl extends LifecycleAdapter implements CheckPointer
             long durationMillis = startTime.elapsed( MILLISECONDS );
             msgLog.info( checkpointReason + " checkpoint completed in " + duration( durationMillis ) );
             event.checkpointCompleted( durationMillis );
+            logCommitLatencies( databaseTracer );
 
             /*
              * Prune up to the version pointed from the latest check point,
@@ -222,6 +225,25 @@ public class CheckPointerImpl extends LifecycleAdapter implements CheckPointer
         }
     }
 
+    /**
+     * Logs the latencies of the commit stages recorded since startup along with each check point, if the tracer records them.
+     */
+    private void logCommitLatencies( CommitLatencyCounters latencies )
+    {
+        if ( latencies.logAppendLatency().count() == 0 )
+        {
+            return;
+        }
+        msgLog.info( "Commit latencies since startup, p50/p99 in microseconds: log append %s, log force wait %s, log force %s, store apply %s",
+                percentiles( latencies.logAppendLatency() ), percentiles( latencies.logForceWaitLatency() ),
+                percentiles( latencies.logForceLatency() ), percentiles( latencies.storeApplyLatency() ) );
+    }
+
+    private static String percentiles( LatencyHistogram histogram )
+    {
+        return histogram.percentileMicros( 50 ) + "/" + histogram.percentileMicros( 99 );
+    }
+
     @Override
     public long lastCheckPointedTransactionId()
     {
@@ -21,6 +21,7 @@ package org.neo4j.kernel.impl.transaction.log.entry;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
 
 import org.neo4j.internal.helpers.collection.Visitor;
 import org.neo4j.io.fs.WritableChannel;
@@ -28,9 +29,11 @@ import org.neo4j.io.fs.WritableChecksumChannel;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionCommandsBuffer;
 import org.neo4j.storageengine.api.StorageCommand;
 
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.COMMAND;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.COMPRESSED_COMMANDS;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.LEGACY_CHECK_POINT;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.TX_COMMIT;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.TX_START;
@@ -40,11 +43,13 @@ public class LogEntryWriter<T extends WritableChecksumChannel>
     private final Visitor<StorageCommand,IOException> serializer;
     protected final T channel;
     private final byte parserSetVersion;
+    private final LogEntryParserSet compressedCommandsParserSet;
 
     public LogEntryWriter( T channel, LogEntryParserSet parserSet )
     {
         this.channel = channel;
         this.parserSetVersion = parserSet.versionByte();
+        this.compressedCommandsParserSet = parserSet.compressedCommandsParserSet();
         this.serializer = new StorageCommandSerializer( channel, this );
     }
 
@@ -86,7 +91,14 @@ public class LogEntryWriter<T extends WritableChecksumChannel>
 
     public void serialize( TransactionRepresentation tx ) throws IOException
     {
-        tx.accept( serializer );
+        if ( compressedCommandsParserSet == null )
+        {
+            tx.accept( serializer );
+            return;
+        }
+        LogEntryWriter<TransactionCommandsBuffer> commandsWriter = new LogEntryWriter<>( new TransactionCommandsBuffer(), compressedCommandsParserSet );
+        commandsWriter.serialize( tx );
+        writeCompressedCommands( commandsWriter.getChannel() );
     }
 
     public void serialize( CommittedTransactionRepresentation tx ) throws IOException
@@ -98,15 +110,43 @@ public class LogEntryWriter<T extends WritableChecksumChannel>
 
     public void serialize( Collection<StorageCommand> commands ) throws IOException
     {
-        for ( StorageCommand command : commands )
+        if ( compressedCommandsParserSet == null )
         {
-            serializer.visit( command );
+            for ( StorageCommand command : commands )
+            {
+                serializer.visit( command );
+            }
+            return;
         }
+        LogEntryWriter<TransactionCommandsBuffer> commandsWriter = new LogEntryWriter<>( new TransactionCommandsBuffer(), compressedCommandsParserSet );
+        commandsWriter.serialize( commands );
+        writeCompressedCommands( commandsWriter.getChannel() );
     }
 
     public void serialize( StorageCommand command ) throws IOException
     {
-        serializer.visit( command );
+        if ( compressedCommandsParserSet == null )
+        {
+            serializer.visit( command );
+            return;
+        }
+        serialize( List.of( command ) );
+    }
+
+    /**
+     * Writes the command entries serialized into the given buffer as one {@link LogEntryTypeCodes#COMPRESSED_COMMANDS} entry.
+     */
+    private void writeCompressedCommands( TransactionCommandsBuffer commands ) throws IOException
+    {
+        if ( commands.size() == 0 )
+        {
+            return;
+        }
+        byte[] compressed = commands.compress();
+        writeLogEntryHeader( COMPRESSED_COMMANDS, channel );
+        channel.putInt( commands.size() )
+                .putInt( compressed.length )
+                .put( compressed, compressed.length );
     }
 
     public void writeLegacyCheckPointEntry( LogPosition logPosition ) throws IOException
@@ -123,6 +163,11 @@ public class LogEntryWriter<T extends WritableChecksumChannel>
         return channel;
     }
 
+    public byte getParserSetVersion()
+    {
+        return parserSetVersion;
+    }
+
     private static class StorageCommandSerializer implements Visitor<StorageCommand,IOException>
     {
         private final WritableChannel channel;
@@ -40,6 +40,8 @@ import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.kernel.database.DatabaseTracers;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.entry.CommandsCompression;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetVersion;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.entry.TransactionLogVersionSelector;
 import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
@@ -59,6 +61,7 @@ import org.neo4j.storageengine.api.TransactionIdStore;
 
 import static java.util.Objects.requireNonNull;
 import static java.util.Objects.requireNonNullElseGet;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.compress_transaction_log_commands;
 import static org.neo4j.configuration.GraphDatabaseInternalSettings.fail_on_corrupted_log_files;
 import static org.neo4j.configuration.GraphDatabaseSettings.logical_log_rotation_threshold;
 import static org.neo4j.configuration.GraphDatabaseSettings.preallocate_logical_logs;
@@ -328,6 +331,10 @@ public class LogFilesBuilder
                 }
             }
         }
+        if ( config.get( compress_transaction_log_commands ) )
+        {
+            transactionLogVersionProvider = compressingCommands( transactionLogVersionProvider );
+        }
 
         return new TransactionLogFilesContext( rotationThreshold, tryPreallocateTransactionLogs, logEntryReader, lastCommittedIdSupplier,
                 committingTransactionIdSupplier, lastClosedTransactionPositionSupplier, logVersionRepositorySupplier,
@@ -335,6 +342,24 @@ public class LogFilesBuilder
                 health, transactionLogVersionProvider, clock, config );
     }
 
+    /**
+     * Writes the 4.2 transaction log format with compressed commands. Older formats are kept as they are, since they are only used
+     * while the dbms still runs on an older version, which can not read compressed commands.
+     */
+    private static TransactionLogVersionProvider compressingCommands( TransactionLogVersionProvider versionProvider )
+    {
+        if ( !CommandsCompression.isAvailable() )
+        {
+            throw new IllegalStateException( "Setting " + compress_transaction_log_commands.name() + " is enabled, " +
+                    "but the native compression library is not available on this platform." );
+        }
+        return () ->
+        {
+            LogEntryParserSetVersion version = versionProvider.getVersion();
+            return version == LogEntryParserSetVersion.LogEntryV4_2 ? LogEntryParserSetVersion.CompressedLogEntryV4_2 : version;
+        };
+    }
+
     private Clock getClock()
     {
         if ( clock != null )
@@ -25,6 +25,7 @@ import java.nio.channels.ClosedChannelException;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
@@ -65,6 +66,8 @@ import org.neo4j.storageengine.api.LogVersionRepository;
 
 import static java.lang.Math.min;
 import static java.lang.Runtime.getRuntime;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.group_commit_max_batch_size;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.group_commit_max_delay;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
 
 /**
@@ -73,7 +76,12 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLo
 public class TransactionLogFile extends LifecycleAdapter implements LogFile
 {
     private static final String TRANSACTION_LOG_FILE_ROTATION_TAG = "transactionLogFileRotation";
+    private static final long GROUP_COMMIT_POLL_NANOS = TimeUnit.MICROSECONDS.toNanos( 50 );
     private final AtomicReference<ThreadLink> threadLinkHead = new AtomicReference<>( ThreadLink.END );
+    // Number of committers that have added their links since the last force started, used for sizing group commits
+    private final AtomicInteger waitingForForce = new AtomicInteger();
+    private final long groupCommitMaxDelayNanos;
+    private final int groupCommitMaxBatchSize;
     private final Lock forceLock = new ReentrantLock();
     private final AtomicLong rotateAtSize;
     private final TransactionLogFilesHelper fileHelper;
@@ -106,6 +114,8 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
         this.readerLogVersionBridge = new ReaderLogVersionBridge( this );
         this.pageCacheTracer = context.getDatabaseTracers().getPageCacheTracer();
         this.memoryTracker = context.getMemoryTracker();
+        this.groupCommitMaxDelayNanos = context.getConfig().get( group_commit_max_delay ).toNanos();
+        this.groupCommitMaxBatchSize = context.getConfig().get( group_commit_max_batch_size );
     }
 
     @Override
@@ -351,6 +361,7 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
         // This is okay, however, because unparkAll() spins when it sees a null next pointer.
         ThreadLink threadLink = new ThreadLink( Thread.currentThread() );
         threadLink.next = threadLinkHead.getAndSet( threadLink );
+        waitingForForce.incrementAndGet();
         boolean attemptedForce = false;
 
         try ( LogForceWaitEvent logForceWaitEvent = logForceEvents.beginLogForceWait() )
@@ -359,11 +370,16 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
             {
                 if ( forceLock.tryLock() )
                 {
-                    attemptedForce = true;
                     try
                     {
-                        forceLog( logForceEvents );
-                        // In the event of any failure a database panic will be raised and thrown here
+                        // Our transactions may already have been covered by a force that completed after we added our link
+                        if ( !threadLink.done )
+                        {
+                            attemptedForce = true;
+                            awaitGroupCommit();
+                            forceLog( logForceEvents );
+                            // In the event of any failure a database panic will be raised and thrown here
+                        }
                     }
                     finally
                     {
@@ -566,8 +582,28 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
         return (int) ByteUnit.kibiBytes( min( (getRuntime().availableProcessors() / 4) + 1, 8 ) * 512 );
     }
 
+    /**
+     * Give concurrent committers a chance to append their transactions and join the force we're about to do, so that a single
+     * force covers more of them. Waits until enough committers are waiting for a force or the configured delay has passed,
+     * whichever comes first. Appends are not blocked by this, only other committers' forces.
+     */
+    private void awaitGroupCommit()
+    {
+        if ( groupCommitMaxDelayNanos <= 0 )
+        {
+            return;
+        }
+        long deadline = System.nanoTime() + groupCommitMaxDelayNanos;
+        long remaining;
+        while ( waitingForForce.get() < groupCommitMaxBatchSize && (remaining = deadline - System.nanoTime()) > 0 )
+        {
+            LockSupport.parkNanos( this, min( remaining, GROUP_COMMIT_POLL_NANOS ) );
+        }
+    }
+
     private void forceLog( LogForceEvents logForceEvents ) throws IOException
     {
+        waitingForForce.set( 0 );
         ThreadLink links = threadLinkHead.getAndSet( ThreadLink.END );
         try ( LogForceEvent logForceEvent = logForceEvents.beginLogForce() )
         {
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.stats;
+
+/**
+ * Latencies of the stages of committing a transaction.
+ */
+public interface CommitLatencyCounters
+{
+    /**
+     * @return latencies of appending a batch of transactions to the log, while holding the log file monitor.
+     */
+    LatencyHistogram logAppendLatency();
+
+    /**
+     * @return latencies of committers waiting for their transactions to be forced to the log, whether forced by themselves or by others.
+     */
+    LatencyHistogram logForceWaitLatency();
+
+    /**
+     * @return latencies of forcing the log, each covering the transactions of all committers waiting at the time.
+     */
+    LatencyHistogram logForceLatency();
+
+    /**
+     * @return latencies of applying committed transactions to the stores.
+     */
+    LatencyHistogram storeApplyLatency();
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.stats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies, with buckets of exponentially growing size. Bucket {@code 0} holds latencies below one microsecond
+ * and bucket {@code i} latencies of at least {@code 2^(i-1)} and less than {@code 2^i} microseconds. The last bucket also holds
+ * everything longer than that.
+ */
+public class LatencyHistogram
+{
+    public static final int BUCKETS = 32;
+    /**
+     * Histogram that ignores recorded latencies, so it always reports none.
+     */
+    public static final LatencyHistogram EMPTY = new LatencyHistogram()
+    {
+        @Override
+        public void record( long nanos )
+        {
+        }
+    };
+
+    private final AtomicLongArray counts = new AtomicLongArray( BUCKETS );
+
+    public void record( long nanos )
+    {
+        counts.incrementAndGet( bucket( TimeUnit.NANOSECONDS.toMicros( nanos ) ) );
+    }
+
+    /**
+     * @return number of latencies recorded in the given bucket.
+     */
+    public long count( int bucket )
+    {
+        return counts.get( bucket );
+    }
+
+    /**
+     * @return total number of latencies recorded.
+     */
+    public long count()
+    {
+        long total = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            total += counts.get( i );
+        }
+        return total;
+    }
+
+    /**
+     * @return exclusive upper bound of latencies in the given bucket, in microseconds.
+     */
+    public static long upperBoundMicros( int bucket )
+    {
+        return 1L << bucket;
+    }
+
+    /**
+     * @param percentile the percentile to get, between {@code 0} and {@code 100}.
+     * @return upper bound, in microseconds, of the bucket holding the given percentile of recorded latencies,
+     * or {@code 0} if nothing was recorded.
+     */
+    public long percentileMicros( double percentile )
+    {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            snapshot[i] = counts.get( i );
+            total += snapshot[i];
+        }
+        if ( total == 0 )
+        {
+            return 0;
+        }
+        long threshold = (long) Math.ceil( total * percentile / 100 );
+        long seen = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            seen += snapshot[i];
+            if ( seen >= threshold && seen > 0 )
+            {
+                return upperBoundMicros( i );
+            }
+        }
+        return upperBoundMicros( BUCKETS - 1 );
+    }
+
+    static int bucket( long micros )
+    {
+        int bucket = Long.SIZE - Long.numberOfLeadingZeros( micros );
+        return Math.min( bucket, BUCKETS - 1 );
+    }
+}
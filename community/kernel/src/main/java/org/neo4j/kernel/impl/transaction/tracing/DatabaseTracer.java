@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.transaction.tracing;
 
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.transaction.stats.LatencyHistogram;
 
 public interface DatabaseTracer extends TransactionTracer, CheckPointTracer
 {
@@ -84,6 +85,30 @@ public interface DatabaseTracer extends TransactionTracer, CheckPointTracer
         {
             return 0;
         }
+
+        @Override
+        public LatencyHistogram logAppendLatency()
+        {
+            return LatencyHistogram.EMPTY;
+        }
+
+        @Override
+        public LatencyHistogram logForceWaitLatency()
+        {
+            return LatencyHistogram.EMPTY;
+        }
+
+        @Override
+        public LatencyHistogram logForceLatency()
+        {
+            return LatencyHistogram.EMPTY;
+        }
+
+        @Override
+        public LatencyHistogram storeApplyLatency()
+        {
+            return LatencyHistogram.EMPTY;
+        }
     };
 
     LogFileCreateEvent createLogFile();
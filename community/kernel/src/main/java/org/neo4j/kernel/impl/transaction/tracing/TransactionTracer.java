@@ -20,6 +20,8 @@
 package org.neo4j.kernel.impl.transaction.tracing;
 
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.transaction.stats.CommitLatencyCounters;
+import org.neo4j.kernel.impl.transaction.stats.LatencyHistogram;
 import org.neo4j.kernel.impl.transaction.stats.TransactionLogCounters;
 
 /**
@@ -28,7 +30,7 @@ import org.neo4j.kernel.impl.transaction.stats.TransactionLogCounters;
  * during commit. Implementers should take great care to make their implementations as fast as possible. Note that
  * tracers are not allowed to throw exceptions.
  */
-public interface TransactionTracer extends TransactionLogCounters
+public interface TransactionTracer extends TransactionLogCounters, CommitLatencyCounters
 {
     /**
      * A TransactionTracer implementation that does nothing, other than return the NULL variants of the companion
@@ -66,6 +68,30 @@ public interface TransactionTracer extends TransactionLogCounters
         {
             return 0;
         }
+
+        @Override
+        public LatencyHistogram logAppendLatency()
+        {
+            return LatencyHistogram.EMPTY;
+        }
+
+        @Override
+        public LatencyHistogram logForceWaitLatency()
+        {
+            return LatencyHistogram.EMPTY;
+        }
+
+        @Override
+        public LatencyHistogram logForceLatency()
+        {
+            return LatencyHistogram.EMPTY;
+        }
+
+        @Override
+        public LatencyHistogram storeApplyLatency()
+        {
+            return LatencyHistogram.EMPTY;
+        }
     };
 
     /**
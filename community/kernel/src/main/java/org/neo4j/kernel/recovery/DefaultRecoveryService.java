@@ -31,6 +31,7 @@ import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.logging.Log;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.LogVersionRepository;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
@@ -47,11 +48,26 @@ public class DefaultRecoveryService implements RecoveryService
     private final LogicalTransactionStore logicalTransactionStore;
     private final LogVersionRepository logVersionRepository;
     private final Log log;
+    private final JobScheduler scheduler;
+    private final int readAheadTransactions;
 
     DefaultRecoveryService( StorageEngine storageEngine, TransactionIdStore transactionIdStore,
             LogicalTransactionStore logicalTransactionStore, LogVersionRepository logVersionRepository, LogFiles logFiles,
             RecoveryStartInformationProvider.Monitor monitor, Log log )
     {
+        this( storageEngine, transactionIdStore, logicalTransactionStore, logVersionRepository, logFiles, monitor, log, null, 0 );
+    }
+
+    /**
+     * @param scheduler scheduler running the reading of transactions ahead of applying them, if {@code readAheadTransactions} is positive.
+     * @param readAheadTransactions number of transactions to read ahead of the applier, or 0 to read them on the applying thread.
+     */
+    DefaultRecoveryService( StorageEngine storageEngine, TransactionIdStore transactionIdStore,
+            LogicalTransactionStore logicalTransactionStore, LogVersionRepository logVersionRepository, LogFiles logFiles,
+            RecoveryStartInformationProvider.Monitor monitor, Log log, JobScheduler scheduler, int readAheadTransactions )
+    {
+        this.scheduler = scheduler;
+        this.readAheadTransactions = readAheadTransactions;
         this.storageEngine = storageEngine;
         this.transactionIdStore = transactionIdStore;
         this.logicalTransactionStore = logicalTransactionStore;
@@ -75,7 +91,8 @@ public class DefaultRecoveryService implements RecoveryService
     @Override
     public TransactionCursor getTransactions( LogPosition position ) throws IOException
     {
-        return logicalTransactionStore.getTransactions( position );
+        TransactionCursor transactions = logicalTransactionStore.getTransactions( position );
+        return readAheadTransactions > 0 ? new ReadAheadTransactionCursor( transactions, readAheadTransactions, scheduler ) : transactions;
     }
 
     @Override
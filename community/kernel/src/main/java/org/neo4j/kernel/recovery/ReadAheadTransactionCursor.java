@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.neo4j.internal.helpers.Exceptions.throwIfUnchecked;
+
+/**
+ * {@link TransactionCursor} which reads and deserializes transactions from a source cursor on a separate thread,
+ * keeping up to a given number of transactions ahead of the consumer. This lets recovery apply one transaction
+ * while the following ones are read from the transaction log.
+ * <p>
+ * A failure to read from the source cursor is handed to the consumer after all transactions read before it,
+ * i.e. at the same point where reading the source cursor directly would have failed.
+ */
+class ReadAheadTransactionCursor implements TransactionCursor
+{
+    private static final long OFFER_TIMEOUT_MILLIS = 10;
+
+    private final TransactionCursor source;
+    private final BlockingQueue<ReadTransaction> readAhead;
+    private final JobHandle<?> reader;
+    private volatile boolean closed;
+    private CommittedTransactionRepresentation current;
+    private LogPosition position;
+    private boolean exhausted;
+
+    ReadAheadTransactionCursor( TransactionCursor source, int readAheadTransactions, JobScheduler scheduler )
+    {
+        this.source = source;
+        this.readAhead = new ArrayBlockingQueue<>( readAheadTransactions );
+        this.position = source.position();
+        this.reader = scheduler.schedule( Group.RECOVERY_READ_AHEAD, this::readAhead );
+    }
+
+    private void readAhead()
+    {
+        try
+        {
+            while ( !closed && source.next() )
+            {
+                if ( !offer( new ReadTransaction( source.get(), source.position(), null ) ) )
+                {
+                    return;
+                }
+            }
+            offer( new ReadTransaction( null, source.position(), null ) );
+        }
+        catch ( Throwable t )
+        {
+            offer( new ReadTransaction( null, null, t ) );
+        }
+    }
+
+    /**
+     * Waits for room in the read ahead queue, giving up when this cursor is closed.
+     */
+    private boolean offer( ReadTransaction transaction )
+    {
+        try
+        {
+            while ( !closed )
+            {
+                if ( readAhead.offer( transaction, OFFER_TIMEOUT_MILLIS, MILLISECONDS ) )
+                {
+                    return true;
+                }
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    @Override
+    public boolean next() throws IOException
+    {
+        if ( exhausted )
+        {
+            return false;
+        }
+        ReadTransaction transaction;
+        try
+        {
+            transaction = readAhead.take();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while waiting for transactions to recover" );
+        }
+        if ( transaction.failure != null )
+        {
+            exhausted = true;
+            current = null;
+            throwIfUnchecked( transaction.failure );
+            if ( transaction.failure instanceof IOException )
+            {
+                throw (IOException) transaction.failure;
+            }
+            throw new IOException( transaction.failure );
+        }
+        position = transaction.position;
+        current = transaction.transaction;
+        exhausted = current == null;
+        return !exhausted;
+    }
+
+    @Override
+    public CommittedTransactionRepresentation get()
+    {
+        return current;
+    }
+
+    @Override
+    public LogPosition position()
+    {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        readAhead.clear();
+        try
+        {
+            reader.waitTermination();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while waiting for transaction read ahead to stop" );
+        }
+        catch ( ExecutionException e )
+        {
+            throw new IOException( e.getCause() );
+        }
+        finally
+        {
+            source.close();
+        }
+    }
+
+    private static class ReadTransaction
+    {
+        private final CommittedTransactionRepresentation transaction;
+        private final LogPosition position;
+        private final Throwable failure;
+
+        ReadTransaction( CommittedTransactionRepresentation transaction, LogPosition position, Throwable failure )
+        {
+            this.transaction = transaction;
+            this.position = position;
+            this.failure = failure;
+        }
+    }
+}
@@ -34,6 +34,18 @@ public interface RecoveryMonitor
         //noop
     }
 
+    /**
+     * Called periodically while recovering transactions.
+     *
+     * @param recoveredTransactions number of transactions recovered so far.
+     * @param transactionsToRecover total number of transactions to recover.
+     * @param transactionsPerSecond number of transactions recovered per second since the previous call.
+     */
+    default void recoveryProgress( long recoveredTransactions, long transactionsToRecover, long transactionsPerSecond )
+    {
+        //noop
+    }
+
     default void recoveryCompleted( int numberOfRecoveredTransactions, long recoveryTimeInMilliseconds )
     {
         //noop
@@ -20,6 +20,7 @@
 package org.neo4j.kernel.recovery;
 
 import java.nio.channels.ClosedByInterruptException;
+import java.time.Duration;
 
 import org.neo4j.common.ProgressReporter;
 import org.neo4j.dbms.database.DatabaseStartAbortedException;
@@ -48,6 +49,7 @@ public class TransactionLogsRecovery extends LifecycleAdapter
     private static final String REVERSE_RECOVERY_TAG = "restoreDatabase";
     private static final String RECOVERY_TAG = "recoverDatabase";
     private static final String RECOVERY_COMPLETED_TAG = "databaseRecoveryCompleted";
+    private static final Duration PROGRESS_REPORT_INTERVAL = Duration.ofSeconds( 10 );
 
     private final RecoveryService recoveryService;
     private final RecoveryMonitor monitor;
@@ -58,6 +60,9 @@ public class TransactionLogsRecovery extends LifecycleAdapter
     private final RecoveryStartupChecker recoveryStartupChecker;
     private final PageCacheTracer pageCacheTracer;
     private int numberOfRecoveredTransactions;
+    private long numberOfTransactionsToRecover;
+    private Stopwatch progressReportStopwatch;
+    private int transactionsRecoveredAtLastProgressReport;
 
     public TransactionLogsRecovery( RecoveryService recoveryService, CorruptedLogsTruncator logsTruncator, Lifecycle schemaLife,
             RecoveryMonitor monitor, ProgressReporter progressReporter, boolean failOnCorruptedLogFiles, RecoveryStartupChecker recoveryStartupChecker,
@@ -128,6 +133,7 @@ public class TransactionLogsRecovery extends LifecycleAdapter
                         var cursorTracer = pageCacheTracer.createPageCursorTracer( RECOVERY_TAG );
                         RecoveryApplier recoveryVisitor = recoveryService.getRecoveryApplier( RECOVERY, cursorTracer ) )
                 {
+                    progressReportStopwatch = Stopwatch.start();
                     while ( transactionsToRecover.next() )
                     {
                         recoveryStartupChecker.checkIfCanceled();
@@ -139,6 +145,14 @@ public class TransactionLogsRecovery extends LifecycleAdapter
                         lastTransactionPosition = transactionsToRecover.position();
                         recoveryToPosition = lastTransactionPosition;
                         reportProgress();
+                        if ( progressReportStopwatch.hasTimedOut( PROGRESS_REPORT_INTERVAL ) )
+                        {
+                            reportRecoveryProgress();
+                        }
+                    }
+                    if ( numberOfRecoveredTransactions > transactionsRecoveredAtLastProgressReport )
+                    {
+                        reportRecoveryProgress();
                     }
                     recoveryToPosition = transactionsToRecover.position();
                 }
@@ -180,11 +194,23 @@ public class TransactionLogsRecovery extends LifecycleAdapter
     private void initProgressReporter( RecoveryStartInformation recoveryStartInformation,
             CommittedTransactionRepresentation lastReversedTransaction )
     {
-        long numberOfTransactionToRecover =
+        numberOfTransactionsToRecover =
                 getNumberOfTransactionToRecover( recoveryStartInformation, lastReversedTransaction );
         // since we will process each transaction twice (doing reverse and direct detour) we need to
         // multiply number of transactions that we want to recover by 2 to be able to report correct progress
-        progressReporter.start( numberOfTransactionToRecover * 2 );
+        progressReporter.start( numberOfTransactionsToRecover * 2 );
+    }
+
+    /**
+     * Reports number of recovered transactions to the {@link RecoveryMonitor}, with the throughput since the previous report.
+     */
+    private void reportRecoveryProgress()
+    {
+        long elapsedMillis = Math.max( progressReportStopwatch.elapsed( MILLISECONDS ), 1 );
+        long recoveredSinceLastReport = numberOfRecoveredTransactions - transactionsRecoveredAtLastProgressReport;
+        monitor.recoveryProgress( numberOfRecoveredTransactions, numberOfTransactionsToRecover, recoveredSinceLastReport * 1000 / elapsedMillis );
+        transactionsRecoveredAtLastProgressReport = numberOfRecoveredTransactions;
+        progressReportStopwatch = Stopwatch.start();
     }
 
     private void reportProgress()
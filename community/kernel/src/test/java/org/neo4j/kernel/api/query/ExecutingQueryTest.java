@@ -528,5 +528,17 @@ class ExecutingQueryTest
         {
             return MathUtil.portion( hits(), faults() );
         }
+
+        @Override
+        public long prefetchHits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long prefetchMisses()
+        {
+            return 0;
+        }
     }
 }
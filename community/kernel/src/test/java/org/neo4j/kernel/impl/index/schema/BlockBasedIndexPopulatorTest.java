@@ -231,7 +231,8 @@ class BlockBasedIndexPopulatorTest
     void shouldReportAccurateProgressThroughoutThePhases() throws Exception
     {
         // given
-        TrappingMonitor monitor = new TrappingMonitor( numberOfBlocks -> numberOfBlocks == 1 );
+        // the block storage merges down to mergeFactor (2) blocks, the rest is merged straight into the tree
+        TrappingMonitor monitor = new TrappingMonitor( numberOfBlocks -> numberOfBlocks <= 2 );
         BlockBasedIndexPopulator<GenericKey,NativeIndexValue> populator = instantiatePopulator( monitor );
         try
         {
@@ -32,6 +32,9 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -229,6 +232,61 @@ class BlockStorageTest
         }
     }
 
+    @Test
+    void shouldMergeInParallelDownToMaxNumberOfBlocks() throws IOException
+    {
+        // given
+        TrackingMonitor monitor = new TrackingMonitor();
+        int blockSize = 1_000;
+        ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        try ( BlockStorage<MutableLong,MutableLong> storage = new BlockStorage<>( layout, heapBufferFactory( blockSize ), fileSystem, file, monitor,
+                INSTANCE ) )
+        {
+            int numberOfBlocks = random.nextInt( 100 ) + 2;
+            List<List<BlockEntry<MutableLong,MutableLong>>> expectedBlocks = addACoupleOfBlocksOfEntries( monitor, storage, numberOfBlocks );
+            storage.doneAdding();
+            int mergeFactor = randomMergeFactor();
+            int maxNumberOfBlocks = random.nextInt( 1, mergeFactor + 1 );
+
+            // when
+            storage.merge( mergeFactor, maxNumberOfBlocks, executor, NOT_CANCELLABLE );
+
+            // then
+            assertMergedContents( storage, asOneBigBlock( expectedBlocks ), maxNumberOfBlocks, blockSize, executor );
+            assertEquals( monitor.totalEntriesToMerge, monitor.entriesMerged );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldPrefetchBlockDataWhenMergingWithLargeBuffers() throws IOException
+    {
+        // given
+        TrackingMonitor monitor = new TrackingMonitor();
+        int blockSize = BlockReader.MIN_PREFETCH_BUFFER_SIZE * 2;
+        ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        try ( BlockStorage<MutableLong,MutableLong> storage = new BlockStorage<>( layout, heapBufferFactory( blockSize ), fileSystem, file, monitor,
+                INSTANCE ) )
+        {
+            int numberOfBlocks = random.nextInt( 10 ) + 2;
+            List<List<BlockEntry<MutableLong,MutableLong>>> expectedBlocks = addACoupleOfBlocksOfEntries( monitor, storage, numberOfBlocks );
+            storage.doneAdding();
+
+            // when
+            storage.merge( 2, 2, executor, NOT_CANCELLABLE );
+
+            // then
+            assertMergedContents( storage, asOneBigBlock( expectedBlocks ), 2, blockSize, executor );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
     @Test
     void shouldOnlyLeaveSingleFileAfterMerge() throws IOException
     {
@@ -440,6 +498,34 @@ class BlockStorageTest
         }
     }
 
+    private void assertMergedContents( BlockStorage<MutableLong,MutableLong> storage, Iterable<List<BlockEntry<MutableLong,MutableLong>>> expected,
+            int maxNumberOfBlocks, int bufferSize, Executor prefetchExecutor ) throws IOException
+    {
+        try ( BlockReader<MutableLong,MutableLong> reader = storage.reader( prefetchExecutor );
+              MergingBlockEntryReader<MutableLong,MutableLong> merger = new MergingBlockEntryReader<>( layout ) )
+        {
+            int numberOfBlocks = 0;
+            BlockEntryReader<MutableLong,MutableLong> block;
+            while ( (block = reader.nextBlock( new HeapScopedBuffer( bufferSize, INSTANCE ) )) != null )
+            {
+                merger.addSource( block );
+                numberOfBlocks++;
+            }
+            assertThat( numberOfBlocks ).isLessThanOrEqualTo( maxNumberOfBlocks );
+
+            for ( List<BlockEntry<MutableLong,MutableLong>> expectedBlock : expected )
+            {
+                for ( BlockEntry<MutableLong,MutableLong> expectedEntry : expectedBlock )
+                {
+                    assertTrue( merger.next() );
+                    assertEquals( 0, layout.compare( expectedEntry.key(), merger.key() ) );
+                    assertEquals( expectedEntry.value(), merger.value() );
+                }
+            }
+            assertFalse( merger.next() );
+        }
+    }
+
     private static class TrackingMonitor implements BlockStorage.Monitor
     {
         // For entryAdded
@@ -499,7 +585,7 @@ class BlockStorageTest
         }
 
         @Override
-        public void entriesMerged( int entries )
+        public synchronized void entriesMerged( int entries )
         {
             entriesMerged += entries;
         }
@@ -224,6 +224,73 @@ class GenericBlockBasedIndexPopulatorTest
         }
     }
 
+    @Test
+    void shouldThrowOnDuplicatedValuesFromExternalUpdatesAfterScanCompleted() throws IndexEntryConflictException
+    {
+        // given
+        BlockBasedIndexPopulator<GenericKey,NativeIndexValue> populator = instantiatePopulator( UNIQUE_INDEX_DESCRIPTOR );
+        try
+        {
+            populator.add( singleton( IndexEntryUpdate.add( 1, INDEX_DESCRIPTOR, Values.of( "duplicate" ) ) ), NULL );
+            populator.scanCompleted( nullInstance, populationWorkScheduler, NULL );
+
+            // when
+            IndexEntryConflictException conflict = assertThrows( IndexEntryConflictException.class, () ->
+            {
+                try ( IndexUpdater updater = populator.newPopulatingUpdater( NULL ) )
+                {
+                    for ( int i = 0; i < 100; i++ )
+                    {
+                        updater.process( IndexEntryUpdate.add( 10 + i, INDEX_DESCRIPTOR, Values.of( "unique" + i ) ) );
+                    }
+                    updater.process( IndexEntryUpdate.add( 2, INDEX_DESCRIPTOR, Values.of( "duplicate" ) ) );
+                }
+            } );
+
+            // then
+            assertEquals( 1, conflict.getExistingNodeId() );
+            assertEquals( 2, conflict.getAddedNodeId() );
+        }
+        finally
+        {
+            populator.close( true, NULL );
+        }
+    }
+
+    @Test
+    void shouldNotThrowOnUniqueValuesFromExternalUpdatesAfterScanCompleted() throws IndexEntryConflictException
+    {
+        // given
+        BlockBasedIndexPopulator<GenericKey,NativeIndexValue> populator = instantiatePopulator( UNIQUE_INDEX_DESCRIPTOR );
+        try
+        {
+            for ( int i = 0; i < 100; i += 2 )
+            {
+                populator.add( singleton( IndexEntryUpdate.add( i, INDEX_DESCRIPTOR, Values.of( i ) ) ), NULL );
+            }
+            populator.scanCompleted( nullInstance, populationWorkScheduler, NULL );
+
+            // when
+            try ( IndexUpdater updater = populator.newPopulatingUpdater( NULL ) )
+            {
+                for ( int i = 1; i < 100; i += 2 )
+                {
+                    updater.process( IndexEntryUpdate.add( i, INDEX_DESCRIPTOR, Values.of( i ) ) );
+                }
+            }
+
+            // then
+            for ( int i = 0; i < 100; i++ )
+            {
+                assertHasEntry( populator, Values.of( i ), i );
+            }
+        }
+        finally
+        {
+            populator.close( true, NULL );
+        }
+    }
+
     @Test
     void shouldNotThrowOnDuplicationsLaterFixedByExternalUpdates() throws IndexEntryConflictException
     {
@@ -21,18 +21,40 @@ package org.neo4j.kernel.impl.index.schema;
 
 import org.junit.jupiter.api.Test;
 
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.neo4j.configuration.Config;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.GBPTreeBuilder;
+import org.neo4j.index.internal.gbptree.MetadataMismatchException;
+import org.neo4j.index.internal.gbptree.Seeker;
+import org.neo4j.index.internal.gbptree.Writer;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettings;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.PageCacheExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.values.storable.ValueGroup;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.values.storable.Values.stringValue;
 
+@PageCacheExtension
 class GenericLayoutTest
 {
     private static final IndexSpecificSpaceFillingCurveSettings spatialSettings = IndexSpecificSpaceFillingCurveSettings.fromConfig( Config.defaults() );
 
+    @Inject
+    private PageCache pageCache;
+    @Inject
+    private TestDirectory testDirectory;
+
     @Test
     void shouldHaveUniqueIdentifierForDifferentNumberOfSlots()
     {
@@ -47,4 +69,96 @@ class GenericLayoutTest
                                     "firstSlotCount=%s, secondSlotCount=%s.", previous, i ) );
         }
     }
+
+    @Test
+    void shouldNotOpenTreeWithCompressedKeysUsingLayoutOfEarlierVersion() throws Exception
+    {
+        Path file = testDirectory.file( "index" );
+        new GBPTreeBuilder<>( pageCache, file, new GenericLayout( 1, spatialSettings ) ).build().close();
+
+        assertThatThrownBy( () -> new GBPTreeBuilder<>( pageCache, file, new UncompressedGenericLayout() ).build() )
+                .isInstanceOf( MetadataMismatchException.class );
+    }
+
+    @Test
+    void shouldOpenTreeCreatedWithLayoutOfEarlierVersion() throws Exception
+    {
+        Path file = testDirectory.file( "index" );
+        UncompressedGenericLayout earlierLayout = new UncompressedGenericLayout();
+        try ( GBPTree<GenericKey,NativeIndexValue> tree = new GBPTreeBuilder<>( pageCache, file, earlierLayout ).build() )
+        {
+            try ( Writer<GenericKey,NativeIndexValue> writer = tree.writer( NULL ) )
+            {
+                for ( int i = 0; i < 100; i++ )
+                {
+                    writer.put( key( earlierLayout, i ), NativeIndexValue.INSTANCE );
+                }
+            }
+            tree.checkpoint( IOLimiter.UNLIMITED, NULL );
+        }
+
+        GenericLayout layout = new GenericLayout( 1, spatialSettings );
+        try ( GBPTree<GenericKey,NativeIndexValue> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build() )
+        {
+            GenericKey from = layout.newKey();
+            from.initialize( Long.MIN_VALUE );
+            from.initValueAsLowest( 0, ValueGroup.UNKNOWN );
+            GenericKey to = layout.newKey();
+            to.initialize( Long.MAX_VALUE );
+            to.initValueAsHighest( 0, ValueGroup.UNKNOWN );
+            int count = 0;
+            try ( Seeker<GenericKey,NativeIndexValue> seeker = tree.seek( from, to, NULL ) )
+            {
+                while ( seeker.next() )
+                {
+                    assertThat( seeker.key().getEntityId() ).isEqualTo( count );
+                    count++;
+                }
+            }
+            assertThat( count ).isEqualTo( 100 );
+        }
+    }
+
+    private static GenericKey key( GenericLayout layout, int id )
+    {
+        GenericKey key = layout.newKey();
+        key.initialize( id );
+        key.initFromValue( 0, stringValue( String.format( "value-%03d", id ) ), NativeIndexKey.Inclusion.NEUTRAL );
+        return key;
+    }
+
+    /**
+     * The generic layout as it was before it compressed key prefixes.
+     */
+    private static class UncompressedGenericLayout extends GenericLayout
+    {
+        UncompressedGenericLayout()
+        {
+            super( 1, spatialSettings );
+        }
+
+        @Override
+        public int minorVersion()
+        {
+            return 5;
+        }
+
+        @Override
+        public boolean compressKeyPrefixes()
+        {
+            return false;
+        }
+
+        @Override
+        public int keyPrefixCompressionOffset()
+        {
+            return 0;
+        }
+
+        @Override
+        public boolean compatibleWith( long layoutIdentifier, int majorVersion, int minorVersion )
+        {
+            return layoutIdentifier == identifier() && majorVersion == majorVersion() && minorVersion == minorVersion();
+        }
+    }
 }
@@ -22,23 +22,38 @@ package org.neo4j.kernel.impl.index.schema;
 import org.junit.jupiter.api.Test;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
+import org.neo4j.annotations.documented.ReporterFactories;
 import org.neo4j.gis.spatial.index.curves.SpaceFillingCurveConfiguration;
 import org.neo4j.internal.schema.IndexDescriptor;
 import org.neo4j.internal.schema.SchemaDescriptor;
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.kernel.api.index.IndexDirectoryStructure;
+import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettings;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.pagecache.PageCacheExtension;
 import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.JobSchedulerAdapter;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.Mockito.mock;
 import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
 import static org.neo4j.internal.schema.IndexPrototype.forSchema;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
 import static org.neo4j.kernel.api.schema.SchemaTestUtil.SIMPLE_NAME_LOOKUP;
+import static org.neo4j.kernel.impl.api.index.IndexUpdateMode.ONLINE;
+import static org.neo4j.storageengine.api.IndexEntryUpdate.add;
+import static org.neo4j.storageengine.api.IndexEntryUpdate.remove;
+import static org.neo4j.values.storable.Values.intValue;
 
 @PageCacheExtension
 class GenericNativeIndexAccessorTest
@@ -71,4 +86,65 @@ class GenericNativeIndexAccessorTest
         // then
         assertFalse( fs.fileExists( indexFiles.getBase() ) );
     }
+
+    @Test
+    void shouldCompactInBackgroundAfterCheckpointWhenManyEntriesHaveBeenRemoved() throws Exception
+    {
+        // given
+        Path root = testDirectory.directory( "root" );
+        IndexDirectoryStructure directoryStructure = IndexDirectoryStructure.directoriesByProvider( root ).forProvider( GenericNativeIndexProvider.DESCRIPTOR );
+        IndexDescriptor descriptor = forSchema( SchemaDescriptor.forLabel( 1, 1 ) ).withName( "index" ).materialise( 8 );
+        IndexSpecificSpaceFillingCurveSettings spatialSettings = mock( IndexSpecificSpaceFillingCurveSettings.class );
+        IndexFiles indexFiles = new IndexFiles( fs, directoryStructure, descriptor.getId() );
+        List<Runnable> jobs = new ArrayList<>();
+        JobScheduler jobScheduler = new JobSchedulerAdapter()
+        {
+            @Override
+            public JobHandle<?> schedule( Group group, Runnable job )
+            {
+                assertThat( group ).isEqualTo( Group.INDEX_MAINTENANCE );
+                jobs.add( job );
+                return JobHandle.EMPTY;
+            }
+        };
+        DatabaseIndexContext databaseIndexContext = DatabaseIndexContext.builder( pageCache, fs ).withCompaction( true ).withJobScheduler( jobScheduler ).build();
+        int count = 50_000;
+
+        try ( GenericNativeIndexAccessor accessor = new GenericNativeIndexAccessor( databaseIndexContext, indexFiles,
+                new GenericLayout( 1, spatialSettings ), immediate(), descriptor, spatialSettings, mock( SpaceFillingCurveConfiguration.class ),
+                SIMPLE_NAME_LOOKUP ) )
+        {
+            try ( IndexUpdater updater = accessor.newUpdater( ONLINE, NULL ) )
+            {
+                for ( int i = 0; i < count; i++ )
+                {
+                    updater.process( add( i, descriptor, intValue( i ) ) );
+                }
+            }
+            accessor.force( IOLimiter.UNLIMITED, NULL );
+            assertThat( jobs ).isEmpty();
+
+            // when
+            try ( IndexUpdater updater = accessor.newUpdater( ONLINE, NULL ) )
+            {
+                for ( int i = 0; i < count; i++ )
+                {
+                    if ( i % 20 != 0 )
+                    {
+                        updater.process( remove( i, descriptor, intValue( i ) ) );
+                    }
+                }
+            }
+            accessor.force( IOLimiter.UNLIMITED, NULL );
+
+            // then
+            assertThat( jobs ).hasSize( 1 );
+            // and not again while that compaction is pending
+            accessor.force( IOLimiter.UNLIMITED, NULL );
+            assertThat( jobs ).hasSize( 1 );
+            jobs.get( 0 ).run();
+            assertThat( accessor.consistencyCheck( ReporterFactories.throwingReporterFactory(), NULL ) ).isTrue();
+        }
+    }
+
 }
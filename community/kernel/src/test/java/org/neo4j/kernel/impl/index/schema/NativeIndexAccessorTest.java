@@ -42,10 +42,11 @@ class NativeIndexAccessorTest extends NativeIndexAccessorTests<GenericKey,Native
     private final IndexCapability indexCapability = GenericNativeIndexProvider.CAPABILITY;
 
     @Override
-    NativeIndexAccessor<GenericKey,NativeIndexValue> makeAccessor( PageCache pageCache )
+    NativeIndexAccessor<GenericKey,NativeIndexValue> makeAccessor( PageCache pageCache, boolean concurrentUpdaters )
     {
         RecoveryCleanupWorkCollector cleanup = RecoveryCleanupWorkCollector.immediate();
-        DatabaseIndexContext context = DatabaseIndexContext.builder( pageCache, fs ).withMonitor( monitor ).withReadOnly( false ).build();
+        DatabaseIndexContext context = DatabaseIndexContext.builder( pageCache, fs ).withMonitor( monitor ).withReadOnly( false )
+                .withConcurrentUpdaters( concurrentUpdaters ).build();
         return new GenericNativeIndexAccessor( context, indexFiles, layout, cleanup, indexDescriptor, spaceFillingCurveSettings, configuration,
                 tokenNameLookup );
     }
@@ -59,6 +59,7 @@ import org.neo4j.kernel.api.index.IndexSampler;
 import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.storageengine.api.IndexEntryUpdate;
 import org.neo4j.storageengine.api.schema.SimpleNodeValueClient;
+import org.neo4j.test.Race;
 import org.neo4j.test.rule.PageCacheConfig;
 import org.neo4j.values.storable.CoordinateReferenceSystem;
 import org.neo4j.values.storable.PointValue;
@@ -89,6 +90,7 @@ import static org.neo4j.kernel.impl.api.index.IndexUpdateMode.ONLINE;
 import static org.neo4j.kernel.impl.index.schema.ValueCreatorUtil.countUniqueValues;
 import static org.neo4j.storageengine.api.IndexEntryUpdate.change;
 import static org.neo4j.storageengine.api.IndexEntryUpdate.remove;
+import static org.neo4j.test.Race.throwing;
 import static org.neo4j.values.storable.Values.of;
 
 abstract class NativeIndexAccessorTests<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue>
@@ -102,7 +104,12 @@ abstract class NativeIndexAccessorTests<KEY extends NativeIndexKey<KEY>, VALUE e
         accessor = makeAccessor( pageCache );
     }
 
-    abstract NativeIndexAccessor<KEY,VALUE> makeAccessor( PageCache pageCache ) throws IOException;
+    NativeIndexAccessor<KEY,VALUE> makeAccessor( PageCache pageCache ) throws IOException
+    {
+        return makeAccessor( pageCache, false );
+    }
+
+    abstract NativeIndexAccessor<KEY,VALUE> makeAccessor( PageCache pageCache, boolean concurrentUpdaters ) throws IOException;
 
     abstract IndexCapability indexCapability();
 
@@ -577,6 +584,34 @@ abstract class NativeIndexAccessorTests<KEY extends NativeIndexKey<KEY>, VALUE e
         }
     }
 
+    @Test
+    void shouldHandleMultipleConcurrentUpdaters() throws Throwable
+    {
+        // given
+        accessor.close();
+        accessor = makeAccessor( pageCache, true );
+        IndexEntryUpdate<IndexDescriptor>[] updates = someUpdatesSingleType();
+        int numberOfUpdaters = 4;
+
+        // when
+        Race race = new Race();
+        race.addContestants( numberOfUpdaters, updaterIndex -> throwing( () ->
+        {
+            try ( IndexUpdater updater = accessor.newUpdater( ONLINE, NULL ) )
+            {
+                for ( int i = updaterIndex; i < updates.length; i += numberOfUpdaters )
+                {
+                    updater.process( updates[i] );
+                }
+            }
+        } ), 1 );
+        race.go();
+
+        // then
+        forceAndCloseAccessor();
+        verifyUpdates( updates );
+    }
+
     @Test
     void dropShouldDeleteAndCloseIndex()
     {
@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.gis.spatial.index.curves.SpaceFillingCurveConfiguration;
+import org.neo4j.internal.kernel.api.IndexQuery;
+import org.neo4j.internal.schema.IndexDescriptor;
+import org.neo4j.internal.schema.SchemaDescriptor;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.api.index.IndexAccessor;
+import org.neo4j.kernel.api.index.IndexDirectoryStructure;
+import org.neo4j.kernel.api.index.IndexPopulator;
+import org.neo4j.kernel.api.index.IndexProvider;
+import org.neo4j.kernel.api.index.IndexReader;
+import org.neo4j.kernel.api.index.IndexUpdater;
+import org.neo4j.kernel.impl.api.index.IndexSamplingConfig;
+import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettings;
+import org.neo4j.kernel.impl.scheduler.JobSchedulerFactory;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobMonitoringParams;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.schema.SimpleNodeValueClient;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.PageCacheExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.JobSchedulerAdapter;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.internal.kernel.api.IndexQueryConstraints.unconstrained;
+import static org.neo4j.internal.kernel.api.QueryContext.NULL_CONTEXT;
+import static org.neo4j.internal.schema.IndexPrototype.uniqueForSchema;
+import static org.neo4j.io.memory.ByteBufferFactory.heapBufferFactory;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.kernel.api.schema.SchemaTestUtil.SIMPLE_NAME_LOOKUP;
+import static org.neo4j.kernel.impl.api.index.IndexUpdateMode.ONLINE;
+import static org.neo4j.kernel.impl.api.index.PhaseTracker.nullInstance;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+import static org.neo4j.storageengine.api.IndexEntryUpdate.add;
+
+@PageCacheExtension
+class NativeIndexBloomFilterTest
+{
+    private static final IndexDescriptor UNIQUE_INDEX = uniqueForSchema( SchemaDescriptor.forLabel( 1, 1 ) ).withName( "constraint" ).materialise( 1 );
+
+    @Inject
+    private PageCache pageCache;
+    @Inject
+    private TestDirectory testDirectory;
+    @Inject
+    private FileSystemAbstraction fs;
+
+    @Test
+    void shouldHaveNoFalseNegatives()
+    {
+        NativeIndexBloomFilter filter = new NativeIndexBloomFilter( 10 );
+        for ( int i = 0; i < 10_000; i++ )
+        {
+            filter.add( values( "value" + i ) );
+        }
+
+        for ( int i = 0; i < 10_000; i++ )
+        {
+            assertThat( filter.mightContain( values( "value" + i ) ) ).isTrue();
+        }
+    }
+
+    @Test
+    void shouldHashNumbersEqualInIndexTheSame()
+    {
+        NativeIndexBloomFilter filter = new NativeIndexBloomFilter( 10 );
+        filter.add( values( 1 ) );
+        filter.add( values( (byte) 2 ) );
+
+        assertThat( filter.mightContain( values( 1.0d ) ) ).isTrue();
+        assertThat( filter.mightContain( values( 1L ) ) ).isTrue();
+        assertThat( filter.mightContain( values( 2.0f ) ) ).isTrue();
+    }
+
+    @Test
+    void shouldRuleOutMostMissingValues()
+    {
+        NativeIndexBloomFilter filter = new NativeIndexBloomFilter( 10 );
+        int keys = 1_000;
+        for ( int i = 0; i < keys; i++ )
+        {
+            filter.add( values( i ) );
+        }
+
+        for ( int i = keys; i < keys * 11; i++ )
+        {
+            if ( filter.mightContain( values( i ) ) )
+            {
+                filter.falsePositive();
+            }
+        }
+
+        // 10 bits per key gives a theoretical false positive rate of about 1%
+        assertThat( filter.lookups() ).isEqualTo( keys * 10 );
+        assertThat( filter.falsePositiveRate() ).isLessThan( 0.05 );
+        assertThat( filter.falsePositiveRate() ).isEqualTo( (double) filter.falsePositives() / filter.lookups() );
+    }
+
+    @Test
+    void shouldNeedRebuildWhenAddedMoreThanSizedFor()
+    {
+        NativeIndexBloomFilter filter = new NativeIndexBloomFilter( 10 );
+        int i = 0;
+        while ( !filter.needsRebuild() )
+        {
+            filter.add( values( i++ ) );
+        }
+        assertThat( i ).isGreaterThan( 1 );
+
+        filter.startRebuild();
+        assertThat( filter.needsRebuild() ).isFalse();
+    }
+
+    @Test
+    void shouldNotRuleOutAnyValuesUntilBuilt()
+    {
+        NativeIndexBloomFilter filter = NativeIndexBloomFilter.unbuilt( 10 );
+        assertThat( filter.needsRebuild() ).isTrue();
+        filter.startRebuild( 100 );
+        filter.add( values( "a" ) );
+
+        for ( int i = 0; i < 100; i++ )
+        {
+            assertThat( filter.mightContain( values( "missing" + i ) ) ).isTrue();
+            filter.falsePositive();
+        }
+        assertThat( filter.needsRebuild() ).isFalse();
+        assertThat( filter.lookups() ).isZero();
+        assertThat( filter.falsePositives() ).isZero();
+    }
+
+    @Test
+    void shouldBuildInBackgroundWhenOpenedWithoutFilterFromPopulation() throws Exception
+    {
+        List<Runnable> jobs = new ArrayList<>();
+        JobScheduler jobScheduler = new JobSchedulerAdapter()
+        {
+            @Override
+            public JobHandle<?> schedule( Group group, Runnable job )
+            {
+                assertThat( group ).isEqualTo( Group.INDEX_MAINTENANCE );
+                jobs.add( job );
+                return JobHandle.EMPTY;
+            }
+        };
+        Path root = testDirectory.directory( "root" );
+        IndexDirectoryStructure directoryStructure = IndexDirectoryStructure.directoriesByProvider( root ).forProvider( GenericNativeIndexProvider.DESCRIPTOR );
+        IndexFiles indexFiles = new IndexFiles( fs, directoryStructure, UNIQUE_INDEX.getId() );
+        DatabaseIndexContext context = DatabaseIndexContext.builder( pageCache, fs ).withUniqueIndexBloomFilterBitsPerKey( 10 ).build();
+        DatabaseIndexContext backgroundContext = DatabaseIndexContext.builder( pageCache, fs ).withUniqueIndexBloomFilterBitsPerKey( 10 )
+                .withJobScheduler( jobScheduler ).build();
+        IndexSpecificSpaceFillingCurveSettings spatialSettings = mock( IndexSpecificSpaceFillingCurveSettings.class );
+        GenericLayout layout = new GenericLayout( 1, spatialSettings );
+        SpaceFillingCurveConfiguration configuration = mock( SpaceFillingCurveConfiguration.class );
+        try ( GenericNativeIndexAccessor accessor = new GenericNativeIndexAccessor( context, indexFiles, layout, immediate(), UNIQUE_INDEX,
+                spatialSettings, configuration, SIMPLE_NAME_LOOKUP ) )
+        {
+            try ( IndexUpdater updater = accessor.newUpdater( ONLINE, NULL ) )
+            {
+                updater.process( add( 1, UNIQUE_INDEX, Values.stringValue( "a" ) ) );
+            }
+            accessor.force( IOLimiter.UNLIMITED, NULL );
+        }
+
+        try ( GenericNativeIndexAccessor accessor = new GenericNativeIndexAccessor( backgroundContext, indexFiles, layout, immediate(), UNIQUE_INDEX,
+                spatialSettings, configuration, SIMPLE_NAME_LOOKUP ) )
+        {
+            // Opening doesn't scan the tree, but schedules a job which does
+            assertThat( jobs ).hasSize( 1 );
+            try ( IndexUpdater updater = accessor.newUpdater( ONLINE, NULL ) )
+            {
+                updater.process( add( 2, UNIQUE_INDEX, Values.stringValue( "b" ) ) );
+            }
+            try ( IndexReader reader = accessor.newReader() )
+            {
+                assertThat( exactLookup( reader, "a" ) ).isEqualTo( 1 );
+                assertThat( exactLookup( reader, "missing" ) ).isEqualTo( -1 );
+            }
+            assertThat( accessor.bloomFilter.lookups() ).isZero();
+
+            jobs.get( 0 ).run();
+
+            try ( IndexReader reader = accessor.newReader() )
+            {
+                assertThat( exactLookup( reader, "a" ) ).isEqualTo( 1 );
+                assertThat( exactLookup( reader, "b" ) ).isEqualTo( 2 );
+                for ( int i = 0; i < 100; i++ )
+                {
+                    assertThat( exactLookup( reader, "missing" + i ) ).isEqualTo( -1 );
+                }
+            }
+            assertThat( accessor.bloomFilter.lookups() ).isEqualTo( 102 );
+            assertThat( accessor.bloomFilter.falsePositives() ).isLessThan( 100 );
+            assertThat( accessor.bloomFilter.needsRebuild() ).isFalse();
+        }
+    }
+
+    @Test
+    void shouldHandOverFilterBuiltDuringPopulationToOnlineAccessor() throws Exception
+    {
+        List<Runnable> jobs = new ArrayList<>();
+        JobScheduler maintenanceScheduler = new JobSchedulerAdapter()
+        {
+            @Override
+            public JobHandle<?> schedule( Group group, Runnable job )
+            {
+                jobs.add( job );
+                return JobHandle.EMPTY;
+            }
+        };
+        DatabaseIndexContext context = DatabaseIndexContext.builder( pageCache, fs ).withUniqueIndexBloomFilterBitsPerKey( 10 )
+                .withJobScheduler( maintenanceScheduler ).build();
+        IndexDirectoryStructure.Factory directoryStructure = IndexDirectoryStructure.directoriesByProvider( testDirectory.directory( "root" ) );
+        GenericNativeIndexProvider provider = new GenericNativeIndexProvider( context, directoryStructure, immediate(), Config.defaults() );
+        IndexSamplingConfig samplingConfig = new IndexSamplingConfig( Config.defaults() );
+        IndexDescriptor index = provider.completeConfiguration( UNIQUE_INDEX );
+        JobScheduler populationScheduler = JobSchedulerFactory.createInitialisedScheduler();
+        try
+        {
+            IndexPopulator.PopulationWorkScheduler populationWorkScheduler = new IndexPopulator.PopulationWorkScheduler()
+            {
+                @Override
+                public <T> JobHandle<T> schedule( IndexPopulator.JobDescriptionSupplier descriptionSupplier, Callable<T> job )
+                {
+                    return populationScheduler.schedule( Group.INDEX_POPULATION_WORK, new JobMonitoringParams( null, null, null ), job );
+                }
+            };
+            IndexPopulator populator = provider.getPopulator( index, samplingConfig, heapBufferFactory( 1024 ), INSTANCE, SIMPLE_NAME_LOOKUP );
+            populator.create();
+            populator.add( asList( add( 1, index, Values.stringValue( "a" ) ), add( 2, index, Values.stringValue( "b" ) ) ), NULL );
+            populator.scanCompleted( nullInstance, populationWorkScheduler, NULL );
+            try ( IndexUpdater updater = populator.newPopulatingUpdater( null, NULL ) )
+            {
+                updater.process( add( 3, index, Values.stringValue( "c" ) ) );
+            }
+            populator.close( true, NULL );
+        }
+        finally
+        {
+            populationScheduler.shutdown();
+        }
+
+        try ( GenericNativeIndexAccessor accessor = (GenericNativeIndexAccessor) provider.getOnlineAccessor( index, samplingConfig,
+                SIMPLE_NAME_LOOKUP ) )
+        {
+            // The filter from population is used as is, without scanning the tree
+            assertThat( jobs ).isEmpty();
+            try ( IndexReader reader = accessor.newReader() )
+            {
+                assertThat( exactLookup( reader, "a" ) ).isEqualTo( 1 );
+                assertThat( exactLookup( reader, "b" ) ).isEqualTo( 2 );
+                assertThat( exactLookup( reader, "c" ) ).isEqualTo( 3 );
+                for ( int i = 0; i < 100; i++ )
+                {
+                    assertThat( exactLookup( reader, "missing" + i ) ).isEqualTo( -1 );
+                }
+            }
+            assertThat( accessor.bloomFilter.lookups() ).isEqualTo( 103 );
+            assertThat( accessor.bloomFilter.falsePositives() ).isLessThan( 100 );
+        }
+
+        // Opening it again builds a new filter
+        try ( IndexAccessor accessor = provider.getOnlineAccessor( index, samplingConfig, SIMPLE_NAME_LOOKUP ) )
+        {
+            assertThat( jobs ).hasSize( 1 );
+        }
+    }
+
+    @Test
+    void shouldBuildFromAndMaintainAlongWithUniqueIndex() throws Exception
+    {
+        AtomicLong reportedLookups = new AtomicLong();
+        AtomicLong reportedFalsePositives = new AtomicLong();
+        IndexProvider.Monitor monitor = new IndexProvider.Monitor.Adaptor()
+        {
+            @Override
+            public void bloomFilterStatistics( IndexDescriptor index, long lookups, long falsePositives, double falsePositiveRate )
+            {
+                reportedLookups.set( lookups );
+                reportedFalsePositives.set( falsePositives );
+            }
+        };
+        Path root = testDirectory.directory( "root" );
+        IndexDirectoryStructure directoryStructure = IndexDirectoryStructure.directoriesByProvider( root ).forProvider( GenericNativeIndexProvider.DESCRIPTOR );
+        IndexFiles indexFiles = new IndexFiles( fs, directoryStructure, UNIQUE_INDEX.getId() );
+        DatabaseIndexContext context = DatabaseIndexContext.builder( pageCache, fs ).withMonitor( monitor ).withUniqueIndexBloomFilterBitsPerKey( 10 ).build();
+        IndexSpecificSpaceFillingCurveSettings spatialSettings = mock( IndexSpecificSpaceFillingCurveSettings.class );
+        GenericLayout layout = new GenericLayout( 1, spatialSettings );
+        SpaceFillingCurveConfiguration configuration = mock( SpaceFillingCurveConfiguration.class );
+
+        try ( GenericNativeIndexAccessor accessor = new GenericNativeIndexAccessor( context, indexFiles, layout, immediate(), UNIQUE_INDEX,
+                spatialSettings, configuration, SIMPLE_NAME_LOOKUP ) )
+        {
+            try ( IndexUpdater updater = accessor.newUpdater( ONLINE, NULL ) )
+            {
+                updater.process( add( 1, UNIQUE_INDEX, Values.stringValue( "a" ) ) );
+                updater.process( add( 2, UNIQUE_INDEX, Values.stringValue( "b" ) ) );
+            }
+            accessor.force( IOLimiter.UNLIMITED, NULL );
+        }
+
+        // Reopening builds the filter from what's in the tree
+        try ( GenericNativeIndexAccessor accessor = new GenericNativeIndexAccessor( context, indexFiles, layout, immediate(), UNIQUE_INDEX,
+                spatialSettings, configuration, SIMPLE_NAME_LOOKUP ) )
+        {
+            try ( IndexUpdater updater = accessor.newUpdater( ONLINE, NULL ) )
+            {
+                updater.process( add( 3, UNIQUE_INDEX, Values.stringValue( "c" ) ) );
+            }
+
+            try ( IndexReader reader = accessor.newReader() )
+            {
+                assertThat( exactLookup( reader, "a" ) ).isEqualTo( 1 );
+                assertThat( exactLookup( reader, "c" ) ).isEqualTo( 3 );
+                for ( int i = 0; i < 100; i++ )
+                {
+                    assertThat( exactLookup( reader, "missing" + i ) ).isEqualTo( -1 );
+                }
+                assertThat( reader.countIndexedNodes( 2, NULL, new int[]{1}, Values.stringValue( "b" ) ) ).isEqualTo( 1 );
+            }
+            accessor.force( IOLimiter.UNLIMITED, NULL );
+
+            assertThat( reportedLookups.get() ).isEqualTo( 103 );
+            assertThat( reportedFalsePositives.get() ).isEqualTo( accessor.bloomFilter.falsePositives() ).isLessThan( 100 );
+        }
+    }
+
+    private static long exactLookup( IndexReader reader, String value ) throws Exception
+    {
+        SimpleNodeValueClient client = new SimpleNodeValueClient();
+        reader.query( NULL_CONTEXT, client, unconstrained(), IndexQuery.exact( 1, value ) );
+        if ( !client.next() )
+        {
+            return -1;
+        }
+        long reference = client.reference;
+        assertThat( client.next() ).isFalse();
+        return reference;
+    }
+
+    private static Value[] values( Object value )
+    {
+        return new Value[]{Values.of( value )};
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.gis.spatial.index.curves.SpaceFillingCurveConfiguration;
+import org.neo4j.internal.kernel.api.IndexQuery;
+import org.neo4j.internal.schema.IndexConfig;
+import org.neo4j.internal.schema.IndexDescriptor;
+import org.neo4j.internal.schema.SchemaDescriptor;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.api.index.IndexDirectoryStructure;
+import org.neo4j.kernel.api.index.IndexProvider;
+import org.neo4j.kernel.api.index.IndexReader;
+import org.neo4j.kernel.api.index.IndexUpdater;
+import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettings;
+import org.neo4j.storageengine.api.schema.SimpleNodeValueClient;
+import org.neo4j.test.Race;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.PageCacheExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.internal.kernel.api.IndexQueryConstraints.unconstrained;
+import static org.neo4j.internal.kernel.api.QueryContext.NULL_CONTEXT;
+import static org.neo4j.internal.schema.IndexPrototype.forSchema;
+import static org.neo4j.internal.schema.IndexPrototype.uniqueForSchema;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.kernel.api.schema.SchemaTestUtil.SIMPLE_NAME_LOOKUP;
+import static org.neo4j.kernel.impl.api.index.IndexUpdateMode.ONLINE;
+import static org.neo4j.kernel.impl.index.schema.NativeIndexSeekCache.NO_ENTITY;
+import static org.neo4j.storageengine.api.IndexEntryUpdate.add;
+import static org.neo4j.storageengine.api.IndexEntryUpdate.change;
+import static org.neo4j.storageengine.api.IndexEntryUpdate.remove;
+import static org.neo4j.values.storable.Values.stringValue;
+
+@PageCacheExtension
+class NativeIndexSeekCacheTest
+{
+    private static final IndexDescriptor UNIQUE_INDEX = uniqueForSchema( SchemaDescriptor.forLabel( 1, 1 ) ).withName( "constraint" ).materialise( 1 );
+
+    @Inject
+    private PageCache pageCache;
+    @Inject
+    private TestDirectory testDirectory;
+    @Inject
+    private FileSystemAbstraction fs;
+
+    @Test
+    void shouldEvictLeastRecentlyUsedResults()
+    {
+        NativeIndexSeekCache cache = new NativeIndexSeekCache( 2 );
+        cache.offer( values( 1 ), 1, values( 1 ), cache.stamp() );
+        cache.offer( values( 2 ), 2, values( 2 ), cache.stamp() );
+        assertThat( cache.get( values( 1 ) ).entityId ).isEqualTo( 1 );
+
+        cache.offer( values( 3 ), 3, values( 3 ), cache.stamp() );
+
+        assertThat( cache.get( values( 2 ) ) ).isNull();
+        assertThat( cache.get( values( 1 ) ).entityId ).isEqualTo( 1 );
+        assertThat( cache.get( values( 3 ) ).entityId ).isEqualTo( 3 );
+        assertThat( cache.size() ).isEqualTo( 2 );
+        assertThat( cache.evictions() ).isEqualTo( 1 );
+        assertThat( cache.hits() ).isEqualTo( 3 );
+        assertThat( cache.misses() ).isEqualTo( 1 );
+    }
+
+    @Test
+    void shouldKeepRecentlyUsedResultsAndStayWithinSizeWhenUsedConcurrently() throws Throwable
+    {
+        int maxEntries = 100;
+        NativeIndexSeekCache cache = new NativeIndexSeekCache( maxEntries );
+        cache.offer( values( -1 ), -1, values( -1 ), cache.stamp() );
+        Race race = new Race();
+        race.addContestants( 4, contestant -> () ->
+        {
+            for ( int i = 0; i < 10_000; i++ )
+            {
+                int value = contestant * 10_000 + i;
+                assertThat( cache.get( values( -1 ) ).entityId ).isEqualTo( -1 );
+                if ( cache.get( values( value ) ) == null )
+                {
+                    cache.offer( values( value ), value, values( value ), cache.stamp() );
+                }
+                if ( i % 10 == 0 )
+                {
+                    cache.invalidate( values( value - 5 ) );
+                }
+            }
+        }, 1 );
+        race.go();
+
+        assertThat( cache.size() ).isLessThanOrEqualTo( maxEntries );
+        assertThat( cache.get( values( -1 ) ).entityId ).isEqualTo( -1 );
+        assertThat( cache.evictions() ).isGreaterThan( 0 );
+    }
+
+    @Test
+    void shouldIgnoreResultsOfLookupsOverlappingInvalidation()
+    {
+        NativeIndexSeekCache cache = new NativeIndexSeekCache( 10 );
+        long stamp = cache.stamp();
+
+        // An update of unrelated values may still have moved things the lookup saw, so any invalidation counts
+        cache.invalidate( values( 2 ) );
+        cache.offer( values( 1 ), NO_ENTITY, null, stamp );
+
+        assertThat( cache.get( values( 1 ) ) ).isNull();
+        cache.offer( values( 1 ), NO_ENTITY, null, cache.stamp() );
+        assertThat( cache.get( values( 1 ) ).entityId ).isEqualTo( NO_ENTITY );
+    }
+
+    @Test
+    void shouldMatchNumbersEqualInIndex()
+    {
+        NativeIndexSeekCache cache = new NativeIndexSeekCache( 10 );
+        cache.offer( values( 1 ), 1, values( 1 ), cache.stamp() );
+
+        assertThat( cache.get( values( 1.0d ) ).entityId ).isEqualTo( 1 );
+        cache.invalidate( values( (byte) 1 ) );
+        assertThat( cache.get( values( 1L ) ) ).isNull();
+    }
+
+    @Test
+    void shouldOnlyCacheForUniqueIndexesWithConfiguredSize()
+    {
+        IndexDescriptor nonUnique = forSchema( SchemaDescriptor.forLabel( 1, 1 ) ).withName( "index" ).materialise( 2 );
+        assertThat( NativeIndexSeekCache.maxEntries( nonUnique, 100 ) ).isEqualTo( 0 );
+        assertThat( NativeIndexSeekCache.maxEntries( UNIQUE_INDEX, 100 ) ).isEqualTo( 100 );
+        assertThat( NativeIndexSeekCache.maxEntries( withSeekCacheConfig( Values.intValue( 5 ) ), 100 ) ).isEqualTo( 5 );
+        assertThat( NativeIndexSeekCache.maxEntries( withSeekCacheConfig( Values.intValue( 0 ) ), 100 ) ).isEqualTo( 0 );
+        assertThrows( IllegalArgumentException.class, () -> NativeIndexSeekCache.maxEntries( withSeekCacheConfig( Values.stringValue( "5" ) ), 100 ) );
+        assertThrows( IllegalArgumentException.class, () -> NativeIndexSeekCache.maxEntries( withSeekCacheConfig( Values.intValue( -1 ) ), 100 ) );
+    }
+
+    @Test
+    void shouldAnswerRepeatedLookupsFromCacheUntilInvalidatedByUpdates() throws Exception
+    {
+        AtomicLong reportedHits = new AtomicLong();
+        AtomicLong reportedMisses = new AtomicLong();
+        IndexProvider.Monitor monitor = new IndexProvider.Monitor.Adaptor()
+        {
+            @Override
+            public void seekCacheStatistics( IndexDescriptor index, long hits, long misses, long evictions, int size )
+            {
+                reportedHits.set( hits );
+                reportedMisses.set( misses );
+            }
+        };
+        Path root = testDirectory.directory( "root" );
+        IndexDirectoryStructure directoryStructure = IndexDirectoryStructure.directoriesByProvider( root ).forProvider( GenericNativeIndexProvider.DESCRIPTOR );
+        IndexFiles indexFiles = new IndexFiles( fs, directoryStructure, UNIQUE_INDEX.getId() );
+        DatabaseIndexContext context = DatabaseIndexContext.builder( pageCache, fs ).withMonitor( monitor ).withUniqueIndexSeekCacheMaxEntries( 100 ).build();
+        IndexSpecificSpaceFillingCurveSettings spatialSettings = mock( IndexSpecificSpaceFillingCurveSettings.class );
+
+        try ( GenericNativeIndexAccessor accessor = new GenericNativeIndexAccessor( context, indexFiles, new GenericLayout( 1, spatialSettings ), immediate(),
+                UNIQUE_INDEX, spatialSettings, mock( SpaceFillingCurveConfiguration.class ), SIMPLE_NAME_LOOKUP ) )
+        {
+            try ( IndexUpdater updater = accessor.newUpdater( ONLINE, NULL ) )
+            {
+                updater.process( add( 1, UNIQUE_INDEX, stringValue( "a" ) ) );
+            }
+
+            try ( IndexReader reader = accessor.newReader() )
+            {
+                // a miss and then a hit, for a value that is in the index and one that is not
+                assertThat( exactLookup( reader, "a" ) ).isEqualTo( 1 );
+                assertThat( exactLookup( reader, "a" ) ).isEqualTo( 1 );
+                assertThat( exactLookup( reader, "b" ) ).isEqualTo( -1 );
+                assertThat( exactLookup( reader, "b" ) ).isEqualTo( -1 );
+                assertThat( accessor.seekCache.hits() ).isEqualTo( 2 );
+
+                try ( IndexUpdater updater = accessor.newUpdater( ONLINE, NULL ) )
+                {
+                    updater.process( change( 1, UNIQUE_INDEX, stringValue( "a" ), stringValue( "b" ) ) );
+                }
+                assertThat( exactLookup( reader, "a" ) ).isEqualTo( -1 );
+                assertThat( exactLookup( reader, "b" ) ).isEqualTo( 1 );
+
+                try ( IndexUpdater updater = accessor.newUpdater( ONLINE, NULL ) )
+                {
+                    updater.process( remove( 1, UNIQUE_INDEX, stringValue( "b" ) ) );
+                }
+                assertThat( exactLookup( reader, "b" ) ).isEqualTo( -1 );
+                assertThat( exactLookup( reader, "b" ) ).isEqualTo( -1 );
+            }
+            accessor.force( IOLimiter.UNLIMITED, NULL );
+
+            assertThat( reportedHits.get() ).isEqualTo( 3 );
+            assertThat( reportedMisses.get() ).isEqualTo( 5 );
+        }
+    }
+
+    private static IndexDescriptor withSeekCacheConfig( Value maxEntries )
+    {
+        return UNIQUE_INDEX.withIndexConfig( IndexConfig.with( IndexDescriptor.SEEK_CACHE_MAX_ENTRIES, maxEntries ) );
+    }
+
+    private static long exactLookup( IndexReader reader, String value ) throws Exception
+    {
+        SimpleNodeValueClient client = new SimpleNodeValueClient();
+        reader.query( NULL_CONTEXT, client, unconstrained(), IndexQuery.exact( 1, value ) );
+        if ( !client.next() )
+        {
+            return -1;
+        }
+        long reference = client.reference;
+        assertThat( client.values ).containsExactly( stringValue( value ) );
+        assertThat( client.next() ).isFalse();
+        return reference;
+    }
+
+    private static Value[] values( Object value )
+    {
+        return new Value[]{Values.of( value )};
+    }
+}
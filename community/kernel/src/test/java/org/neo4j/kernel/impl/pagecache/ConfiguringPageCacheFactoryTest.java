@@ -24,12 +24,17 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import java.time.Duration;
+
 import org.neo4j.configuration.Config;
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.mem.HugePageMode;
+import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.kernel.lifecycle.Lifecycle;
 import org.neo4j.logging.NullLog;
 import org.neo4j.memory.MemoryPools;
 import org.neo4j.scheduler.JobScheduler;
@@ -39,6 +44,9 @@ import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
 import org.neo4j.time.Clocks;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_huge_pages;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_writeback_max_dirty_age;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory;
 
 @ExtendWith( EphemeralFileSystemExtension.class )
@@ -81,4 +89,58 @@ class ConfiguringPageCacheFactoryTest
             assertThat( cache.maxCachedPages() ).isEqualTo( pageCount );
         }
     }
+
+    @Test
+    void shouldFitAsManyPagesAsItCanWithHugePages()
+    {
+        // Given
+        long pageCount = 60;
+        long memory = MuninnPageCache.memoryRequiredForPages( pageCount );
+        Config config = Config.newBuilder()
+                .set( pagecache_memory, Long.toString( memory ) )
+                .set( pagecache_huge_pages, HugePageMode.TRANSPARENT )
+                .build();
+
+        // When
+        ConfiguringPageCacheFactory factory = new ConfiguringPageCacheFactory(
+            fs, config, PageCacheTracer.NULL, NullLog.getInstance(), EmptyVersionContextSupplier.EMPTY, jobScheduler, Clocks.nanoClock(), new MemoryPools() );
+
+        // Then
+        try ( PageCache cache = factory.getOrCreatePageCache() )
+        {
+            assertThat( cache.maxCachedPages() ).isEqualTo( pageCount );
+            assertThat( ((MuninnPageCache) cache).hugePageBackedMemory() ).isGreaterThanOrEqualTo( 0L );
+        }
+    }
+
+    @Test
+    void shouldStartAndStopBackgroundWritebackWithItsLifecycle() throws Exception
+    {
+        // Given
+        Config config = Config.newBuilder()
+                .set( pagecache_memory, Long.toString( MuninnPageCache.memoryRequiredForPages( 60 ) ) )
+                .set( pagecache_writeback_max_dirty_age, Duration.ofSeconds( 1 ) )
+                .build();
+        ConfiguringPageCacheFactory factory = new ConfiguringPageCacheFactory(
+            fs, config, PageCacheTracer.NULL, NullLog.getInstance(), EmptyVersionContextSupplier.EMPTY, jobScheduler, Clocks.nanoClock(), new MemoryPools() );
+
+        try ( MuninnPageCache cache = (MuninnPageCache) factory.getOrCreatePageCache() )
+        {
+            Lifecycle writeback = factory.backgroundWriteback( () -> IOLimiter.UNLIMITED );
+
+            // When
+            writeback.start();
+
+            // Then
+            assertThatThrownBy( () -> cache.startBackgroundWriteback( Duration.ofSeconds( 1 ), IOLimiter.UNLIMITED ) )
+                    .isInstanceOf( IllegalStateException.class );
+
+            // When
+            writeback.stop();
+
+            // Then the writeback can be started again
+            writeback.start();
+            writeback.stop();
+        }
+    }
 }
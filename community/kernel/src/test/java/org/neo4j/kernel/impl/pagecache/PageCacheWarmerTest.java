@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.logging.NullLog;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.EphemeralPageCacheExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.collections.api.factory.Sets.immutable;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch_allowlist;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+@EphemeralPageCacheExtension
+class PageCacheWarmerTest
+{
+    private static final int PAGES = 100;
+
+    @Inject
+    private TestDirectory testDirectory;
+    @Inject
+    private FileSystemAbstraction fs;
+    @Inject
+    private PageCache pageCache;
+
+    private JobScheduler jobScheduler;
+    private DatabaseLayout databaseLayout;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        jobScheduler = new ThreadPoolJobScheduler();
+        databaseLayout = DatabaseLayout.ofFlat( testDirectory.homePath() );
+        file = databaseLayout.nodeStore();
+        try ( PagedFile pagedFile = pageCache.map( file, PageCache.PAGE_SIZE, immutable.of( CREATE ) );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+        {
+            for ( int i = 0; i < PAGES; i++ )
+            {
+                assertThat( cursor.next() ).isTrue();
+                cursor.putLong( i );
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        jobScheduler.close();
+    }
+
+    @Test
+    void mustProfileOnlyPagesInMemory() throws IOException
+    {
+        PageCacheWarmer warmer = warmer( Config.defaults() );
+        try ( PagedFile pagedFile = pageCache.map( file, PageCache.PAGE_SIZE ) )
+        {
+            touch( pagedFile, 10, 20 );
+            touch( pagedFile, 50, 55 );
+
+            assertThat( warmer.profile() ).isEqualTo( 15 );
+            assertThat( fs.fileExists( warmer.profileFile( file ) ) ).isTrue();
+        }
+    }
+
+    @Test
+    void mustLoadProfiledPagesOnReheat() throws Exception
+    {
+        PageCacheWarmer warmer = warmer( Config.defaults() );
+        try ( PagedFile pagedFile = pageCache.map( file, PageCache.PAGE_SIZE ) )
+        {
+            touch( pagedFile, 10, 20 );
+            touch( pagedFile, 90, 100 );
+            warmer.profile();
+        }
+
+        try ( PagedFile pagedFile = pageCache.map( file, PageCache.PAGE_SIZE ) )
+        {
+            assertThat( residentPages( pagedFile ) ).isZero();
+
+            assertThat( warmer.reheat() ).isEqualTo( 20 );
+
+            assertThat( residentPages( pagedFile ) ).isEqualTo( 20 );
+            assertResident( pagedFile, 10, 20 );
+            assertResident( pagedFile, 90, 100 );
+        }
+    }
+
+    @Test
+    void mustNotLoadPagesOfFilesWithoutProfile() throws Exception
+    {
+        PageCacheWarmer warmer = warmer( Config.defaults() );
+        try ( PagedFile pagedFile = pageCache.map( file, PageCache.PAGE_SIZE ) )
+        {
+            assertThat( warmer.reheat() ).isZero();
+            assertThat( residentPages( pagedFile ) ).isZero();
+        }
+    }
+
+    @Test
+    void mustRemoveProfilesOfFilesThatAreNoLongerMapped() throws IOException
+    {
+        PageCacheWarmer warmer = warmer( Config.defaults() );
+        Path otherFile = databaseLayout.relationshipStore();
+        try ( PagedFile pagedFile = pageCache.map( file, PageCache.PAGE_SIZE );
+              PagedFile otherPagedFile = pageCache.map( otherFile, PageCache.PAGE_SIZE, immutable.of( CREATE ) ) )
+        {
+            warmer.profile();
+            assertThat( fs.fileExists( warmer.profileFile( otherFile ) ) ).isTrue();
+        }
+        try ( PagedFile pagedFile = pageCache.map( file, PageCache.PAGE_SIZE ) )
+        {
+            warmer.profile();
+            assertThat( fs.fileExists( warmer.profileFile( file ) ) ).isTrue();
+            assertThat( fs.fileExists( warmer.profileFile( otherFile ) ) ).isFalse();
+        }
+    }
+
+    @Test
+    void mustPreloadWholeFilesWhenConfigured() throws Exception
+    {
+        Config config = Config.newBuilder()
+                .set( pagecache_warmup_prefetch, true )
+                .set( pagecache_warmup_prefetch_allowlist, ".*nodestore.*" )
+                .build();
+        PageCacheWarmer warmer = warmer( config );
+        try ( PagedFile pagedFile = pageCache.map( file, PageCache.PAGE_SIZE ) )
+        {
+            assertThat( warmer.reheat() ).isEqualTo( PAGES );
+            assertThat( residentPages( pagedFile ) ).isEqualTo( PAGES );
+        }
+    }
+
+    @Test
+    void mustNotPreloadFilesOutsideAllowlist() throws Exception
+    {
+        Config config = Config.newBuilder()
+                .set( pagecache_warmup_prefetch, true )
+                .set( pagecache_warmup_prefetch_allowlist, ".*relationshipstore.*" )
+                .build();
+        PageCacheWarmer warmer = warmer( config );
+        try ( PagedFile pagedFile = pageCache.map( file, PageCache.PAGE_SIZE ) )
+        {
+            assertThat( warmer.reheat() ).isZero();
+        }
+    }
+
+    private PageCacheWarmer warmer( Config config )
+    {
+        return new PageCacheWarmer( fs, pageCache, jobScheduler, databaseLayout, config, PageCacheTracer.NULL, NullLog.getInstance() );
+    }
+
+    private static void touch( PagedFile pagedFile, long fromPageId, long toPageId ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( fromPageId, PF_SHARED_READ_LOCK, NULL ) )
+        {
+            for ( long pageId = fromPageId; pageId < toPageId; pageId++ )
+            {
+                assertThat( cursor.next( pageId ) ).isTrue();
+            }
+        }
+    }
+
+    private static long residentPages( PagedFile pagedFile ) throws IOException
+    {
+        long resident = 0;
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT, NULL ) )
+        {
+            while ( cursor.next() )
+            {
+                if ( cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
+                {
+                    resident++;
+                }
+            }
+        }
+        return resident;
+    }
+
+    private static void assertResident( PagedFile pagedFile, long fromPageId, long toPageId ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( fromPageId, PF_SHARED_READ_LOCK | PF_NO_FAULT, NULL ) )
+        {
+            for ( long pageId = fromPageId; pageId < toPageId; pageId++ )
+            {
+                assertThat( cursor.next( pageId ) ).isTrue();
+                assertThat( cursor.getCurrentPageId() ).isEqualTo( pageId );
+            }
+        }
+    }
+}
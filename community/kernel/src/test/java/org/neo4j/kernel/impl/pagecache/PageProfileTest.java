@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageProfileTest
+{
+    @Test
+    void mustReadBackEmptyProfile() throws IOException
+    {
+        assertThat( roundTrip( List.of() ) ).isEmpty();
+    }
+
+    @Test
+    void mustReadBackRunsOfPages() throws IOException
+    {
+        List<Long> pages = List.of( 0L, 1L, 2L, 3L, 10L, 11L, 500L, 1_000_000_000_000L, 1_000_000_000_001L );
+        assertThat( roundTrip( pages ) ).isEqualTo( pages );
+    }
+
+    @Test
+    void mustReadBackRandomPages() throws IOException
+    {
+        SplittableRandom rng = new SplittableRandom( 7 );
+        List<Long> pages = new ArrayList<>();
+        long pageId = 0;
+        for ( int i = 0; i < 10_000; i++ )
+        {
+            pageId += rng.nextInt( 4 ) == 0 ? 1 + rng.nextInt( 1000 ) : 1;
+            pages.add( pageId );
+        }
+        assertThat( roundTrip( pages ) ).isEqualTo( pages );
+    }
+
+    @Test
+    void runsMustBeStoredCompactly() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try ( PageProfile.Writer writer = new PageProfile.Writer( bytes ) )
+        {
+            for ( long pageId = 0; pageId < 1_000_000; pageId++ )
+            {
+                writer.add( pageId );
+            }
+            assertThat( writer.pages() ).isEqualTo( 1_000_000 );
+        }
+        assertThat( bytes.size() ).isLessThan( 16 );
+    }
+
+    @Test
+    void mustRejectStreamThatIsNotAProfile()
+    {
+        byte[] bytes = {1, 2, 3, 4, 5, 6, 7, 8};
+        assertThrows( IOException.class, () -> new PageProfile.Reader( new ByteArrayInputStream( bytes ) ) );
+    }
+
+    private static List<Long> roundTrip( List<Long> pages ) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try ( PageProfile.Writer writer = new PageProfile.Writer( bytes ) )
+        {
+            for ( long pageId : pages )
+            {
+                writer.add( pageId );
+            }
+        }
+        List<Long> result = new ArrayList<>();
+        try ( PageProfile.Reader reader = new PageProfile.Reader( new ByteArrayInputStream( bytes.toByteArray() ) ) )
+        {
+            long pageId;
+            while ( (pageId = reader.next()) != -1 )
+            {
+                result.add( pageId );
+            }
+        }
+        return result;
+    }
+}
@@ -44,6 +44,7 @@ import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.impl.transaction.log.files.TransactionLogFiles;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
 import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.memory.LocalMemoryTracker;
 import org.neo4j.monitoring.DatabaseHealth;
 import org.neo4j.monitoring.Health;
 import org.neo4j.storageengine.api.StorageCommand;
@@ -150,6 +151,35 @@ class BatchingTransactionAppenderTest
         assertNull( tx.next() );
     }
 
+    @Test
+    void shouldTrackRetainedCommandsBuffersUntilShutdown() throws Exception
+    {
+        // GIVEN
+        InMemoryClosableChannel largeChannel = new InMemoryClosableChannel( 10_000 );
+        when( logFile.getTransactionLogWriter() ).thenReturn( new TransactionLogWriter( largeChannel, new DbmsLogEntryWriterFactory( LATEST::version ) ) );
+        when( transactionIdStore.getLastCommittedTransaction() ).thenReturn( new TransactionId( 1, BASE_TX_CHECKSUM, BASE_TX_COMMIT_TIMESTAMP ) );
+        when( transactionIdStore.nextCommittingTransactionId() ).thenReturn( 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L );
+        LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+        LifeSupport appenderLife = new LifeSupport();
+        TransactionAppender appender = appenderLife.add(
+                new BatchingTransactionAppender( logFiles, NO_ROTATION, positionCache, transactionIdStore, databaseHealth, memoryTracker ) );
+        appenderLife.start();
+        TransactionRepresentation[] transactions = new TransactionRepresentation[BatchingTransactionAppender.MAX_RETAINED_BUFFERS + 2];
+        for ( int i = 0; i < transactions.length; i++ )
+        {
+            transactions[i] = transaction( singleTestCommand(), new byte[0], 0, 1, 0 );
+        }
+
+        // WHEN
+        appender.append( batchOf( transactions ), logAppendEvent );
+
+        // THEN
+        assertEquals( (long) BatchingTransactionAppender.MAX_RETAINED_BUFFERS * TransactionCommandsBuffer.INITIAL_CAPACITY,
+                memoryTracker.estimatedHeapMemory() );
+        appenderLife.shutdown();
+        assertEquals( 0, memoryTracker.estimatedHeapMemory() );
+    }
+
     @Test
     void shouldAppendCommittedTransactions() throws Exception
     {
@@ -285,6 +315,7 @@ class BatchingTransactionAppenderTest
     void shouldKernelPanicIfTransactionIdsMismatch()
     {
         // Given
+        when( logFile.getTransactionLogWriter() ).thenReturn( new TransactionLogWriter( channel, new DbmsLogEntryWriterFactory( LATEST::version ) ) );
         BatchingTransactionAppender appender = life.add( createTransactionAppender() );
         when( transactionIdStore.nextCommittingTransactionId() ).thenReturn( 42L );
         TransactionToApply batch = new TransactionToApply( mock( TransactionRepresentation.class ), 43L, NULL );
@@ -26,6 +26,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -34,6 +35,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Stream;
 
+import org.neo4j.configuration.Config;
 import org.neo4j.internal.nativeimpl.NativeAccess;
 import org.neo4j.internal.nativeimpl.NativeCallResult;
 import org.neo4j.io.ByteUnit;
@@ -61,6 +63,7 @@ import org.neo4j.test.extension.LifeExtension;
 import org.neo4j.test.extension.Neo4jLayoutExtension;
 import org.neo4j.util.concurrent.Futures;
 
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.locks.LockSupport.parkNanos;
 import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -74,6 +77,8 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.group_commit_max_batch_size;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.group_commit_max_delay;
 import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
 import static org.neo4j.kernel.impl.transaction.log.TestLogEntryReader.logEntryReader;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
@@ -450,6 +455,50 @@ class TransactionLogFileTest
         assertThat( capturingChannel.getFlushCounter().get() - flushesBefore ).isEqualTo( 2 );
     }
 
+    @Test
+    void shouldHaveForcingCommitterWaitForOthersToJoinGroupCommit() throws Throwable
+    {
+        int committers = 3;
+        Config config = Config.newBuilder()
+                .set( group_commit_max_delay, Duration.ofMinutes( 10 ) )
+                .set( group_commit_max_batch_size, committers )
+                .build();
+        LogFiles logFiles = LogFilesBuilder.builder( databaseLayout, wrappingFileSystem )
+                .withConfig( config )
+                .withTransactionIdStore( transactionIdStore )
+                .withLogVersionRepository( logVersionRepository )
+                .withLogEntryReader( logEntryReader() )
+                .withStoreId( StoreId.UNKNOWN )
+                .build();
+        life.start();
+        life.add( logFiles );
+
+        LogFile logFile = logFiles.getLogFile();
+        var capturingChannel = wrappingFileSystem.getCapturingChannel();
+        var flushesBefore = capturingChannel.getFlushCounter().get();
+
+        var executorService = Executors.newFixedThreadPool( committers );
+        try
+        {
+            // The first committer to force waits for the others rather than the configured delay, and forces for all of them
+            List<Future<Boolean>> futures = Stream.iterate( 0, i -> i + 1 )
+                    .limit( committers )
+                    .map( v -> executorService.submit( () -> logFile.forceAfterAppend( LogAppendEvent.NULL ) ) )
+                    .collect( toList() );
+            long forced = 0;
+            for ( Future<Boolean> future : futures )
+            {
+                forced += future.get( 1, MINUTES ) ? 1 : 0;
+            }
+            assertEquals( 1, forced );
+        }
+        finally
+        {
+            executorService.shutdownNow();
+        }
+        assertEquals( 1, capturingChannel.getFlushCounter().get() - flushesBefore );
+    }
+
     private static byte[] readBytes( ReadableChannel reader, int length ) throws IOException
     {
         byte[] result = new byte[length];
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.neo4j.kernel.database.DbmsLogEntryWriterFactory;
+import org.neo4j.kernel.impl.api.TestCommand;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.internal.kernel.api.security.AuthSubject.ANONYMOUS;
+import static org.neo4j.kernel.impl.transaction.log.entry.TransactionLogVersionSelector.LATEST;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
+
+class TransactionLogWriterTest
+{
+    @Test
+    void shouldWriteSameTransactionFromPreSerializedCommands() throws IOException
+    {
+        // commands larger than the initial buffer capacity, to also have the buffer grow
+        TransactionRepresentation transaction = transaction( new TestCommand(), new TestCommand( TransactionCommandsBuffer.INITIAL_CAPACITY * 3 ) );
+        InMemoryClosableChannel expectedChannel = new InMemoryClosableChannel( TransactionCommandsBuffer.INITIAL_CAPACITY * 8 );
+        InMemoryClosableChannel channel = new InMemoryClosableChannel( TransactionCommandsBuffer.INITIAL_CAPACITY * 8 );
+        int expectedChecksum = writer( expectedChannel ).append( transaction, 17, BASE_TX_CHECKSUM );
+
+        TransactionLogWriter writer = writer( channel );
+        TransactionCommandsBuffer commands = new TransactionCommandsBuffer();
+        writer.serializeCommands( transaction, commands );
+        int checksum = writer.append( transaction, 17, BASE_TX_CHECKSUM, commands );
+
+        assertThat( checksum ).isEqualTo( expectedChecksum );
+        assertThat( contents( channel ) ).isEqualTo( contents( expectedChannel ) );
+        assertThat( commands.isRetainable() ).isTrue();
+    }
+
+    @Test
+    void shouldSerializeCommandsUnderAppendIfBufferHoldsOtherTransaction() throws IOException
+    {
+        TransactionRepresentation transaction = transaction( new TestCommand( 10 ), new TestCommand( 20 ) );
+        InMemoryClosableChannel expectedChannel = new InMemoryClosableChannel();
+        InMemoryClosableChannel channel = new InMemoryClosableChannel();
+        int expectedChecksum = writer( expectedChannel ).append( transaction, 17, BASE_TX_CHECKSUM );
+
+        TransactionLogWriter writer = writer( channel );
+        TransactionCommandsBuffer commands = new TransactionCommandsBuffer();
+        writer.serializeCommands( transaction( new TestCommand( 30 ) ), commands );
+        int checksum = writer.append( transaction, 17, BASE_TX_CHECKSUM, commands );
+
+        assertThat( checksum ).isEqualTo( expectedChecksum );
+        assertThat( contents( channel ) ).isEqualTo( contents( expectedChannel ) );
+    }
+
+    private static TransactionLogWriter writer( InMemoryClosableChannel channel )
+    {
+        return new TransactionLogWriter( channel, new DbmsLogEntryWriterFactory( LATEST::version ) );
+    }
+
+    private static byte[] contents( InMemoryClosableChannel channel ) throws IOException
+    {
+        byte[] bytes = new byte[channel.writerPosition()];
+        channel.get( bytes, bytes.length );
+        return bytes;
+    }
+
+    private static TransactionRepresentation transaction( TestCommand... commands )
+    {
+        PhysicalTransactionRepresentation tx = new PhysicalTransactionRepresentation( List.of( commands ) );
+        tx.setHeader( new byte[]{1, 2, 3}, 12345, 4545, 12355, -1, ANONYMOUS );
+        return tx;
+    }
+}
@@ -40,11 +40,18 @@ import org.neo4j.function.ThrowingConsumer;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.database.DatabaseTracers;
+import org.neo4j.kernel.impl.api.tracer.DefaultTracer;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointerImpl.ForceOperation;
 import org.neo4j.kernel.impl.transaction.log.pruning.LogPruning;
+import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogCheckPointEvent;
+import org.neo4j.kernel.impl.transaction.tracing.SerializeTransactionEvent;
+import org.neo4j.logging.AssertableLogProvider;
+import org.neo4j.logging.LogAssertions;
+import org.neo4j.logging.LogProvider;
 import org.neo4j.logging.NullLogProvider;
 import org.neo4j.monitoring.DatabaseHealth;
 import org.neo4j.monitoring.Health;
@@ -139,6 +146,7 @@ class CheckPointerImplTest
         verify( threshold ).isCheckPointingNeeded( transactionId, logPosition.getLogVersion(), INFO );
         verify( logPruning ).pruneLogs( logPosition.getLogVersion() );
         verify( tracer ).beginCheckPoint();
+        verify( tracer ).logAppendLatency();
         verifyNoMoreInteractions( forceOperation, health, appender, threshold, tracer );
     }
 
@@ -526,6 +534,45 @@ class CheckPointerImplTest
         assertThat( observedRushCount.get() ).isEqualTo( 1L );
     }
 
+    @Test
+    void shouldLogCommitLatenciesWithCheckPoint() throws Throwable
+    {
+        // Given
+        AssertableLogProvider logProvider = new AssertableLogProvider();
+        DefaultTracer defaultTracer = new DefaultTracer();
+        try ( CommitEvent commitEvent = defaultTracer.beginTransaction( NULL ).beginCommitEvent();
+              LogAppendEvent logAppendEvent = commitEvent.beginLogAppend();
+              SerializeTransactionEvent serializeEvent = logAppendEvent.beginSerializeTransaction() )
+        {
+            // one append recorded
+        }
+        CheckPointerImpl checkPointing = checkPointer( new StoreCopyCheckPointMutex(), defaultTracer, logProvider );
+        mockTxIdStore();
+        checkPointing.start();
+
+        // When
+        checkPointing.forceCheckPoint( INFO );
+
+        // Then
+        LogAssertions.assertThat( logProvider ).containsMessages( "Commit latencies since startup" );
+    }
+
+    @Test
+    void shouldNotLogCommitLatenciesWithCheckPointIfNoneRecorded() throws Throwable
+    {
+        // Given
+        AssertableLogProvider logProvider = new AssertableLogProvider();
+        CheckPointerImpl checkPointing = checkPointer( new StoreCopyCheckPointMutex(), DatabaseTracer.NULL, logProvider );
+        mockTxIdStore();
+        checkPointing.start();
+
+        // When
+        checkPointing.forceCheckPoint( INFO );
+
+        // Then
+        LogAssertions.assertThat( logProvider ).doesNotContainMessage( "Commit latencies" );
+    }
+
     @Test
     void mustRequestFastestPossibleFlushWhenForceCheckPointIsCalledDuringBackgroundCheckPoint()
     {
@@ -542,13 +589,18 @@ class CheckPointerImplTest
     }
 
     private CheckPointerImpl checkPointer( StoreCopyCheckPointMutex mutex )
+    {
+        return checkPointer( mutex, tracer, NullLogProvider.getInstance() );
+    }
+
+    private CheckPointerImpl checkPointer( StoreCopyCheckPointMutex mutex, DatabaseTracer databaseTracer, LogProvider logProvider )
     {
         var databaseTracers = mock( DatabaseTracers.class );
-        when( databaseTracers.getDatabaseTracer() ).thenReturn( tracer );
+        when( databaseTracers.getDatabaseTracer() ).thenReturn( databaseTracer );
         when( databaseTracers.getPageCacheTracer() ).thenReturn( PageCacheTracer.NULL );
         when( metadataProvider.getStoreId() ).thenReturn( storeId );
         return new CheckPointerImpl( metadataProvider, threshold, forceOperation, logPruning, appender, health,
-                NullLogProvider.getInstance(), databaseTracers, limiter, mutex, clock );
+                logProvider, databaseTracers, limiter, mutex, clock );
     }
 
     private CheckPointerImpl checkPointer()
@@ -23,6 +23,7 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.neo4j.kernel.impl.api.TestCommand;
 import org.neo4j.kernel.impl.api.TestCommandReaderFactory;
@@ -34,6 +35,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.kernel.impl.transaction.log.entry.CompressedLogEntryParserSetV4_2.V4_2_COMPRESSED;
 import static org.neo4j.kernel.impl.transaction.log.entry.TransactionLogVersionSelector.LATEST;
 import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
 
@@ -143,6 +145,58 @@ class VersionAwareLogEntryReaderTest
         assertNull( logEntry );
     }
 
+    @Test
+    void shouldReadCompressedCommandsOfATransaction() throws IOException
+    {
+        // given
+        TestCommand command1 = new TestCommand( new byte[] {100, 101, 102} );
+        TestCommand command2 = new TestCommand( new byte[] {103, 104} );
+        final InMemoryClosableChannel channel = new InMemoryClosableChannel( true );
+        LogEntryWriter<InMemoryClosableChannel> writer = new LogEntryWriter<>( channel, V4_2_COMPRESSED );
+        writer.writeStartEntry( 1, 2, BASE_TX_CHECKSUM, new byte[]{4} );
+        writer.serialize( List.of( command1, command2 ) );
+        int checksum = writer.writeCommitEntry( 42, 21 );
+
+        // when
+        LogEntry start = logEntryReader.readLogEntry( channel );
+        LogEntry readCommand1 = logEntryReader.readLogEntry( channel );
+        LogEntry readCommand2 = logEntryReader.readLogEntry( channel );
+        LogEntry commit = logEntryReader.readLogEntry( channel );
+
+        // then
+        assertEquals( new LogEntryStart( V4_2_COMPRESSED.versionByte(), 1, 2, BASE_TX_CHECKSUM, new byte[]{4}, new LogPosition( 0, 0 ) ), start );
+        assertEquals( new LogEntryCommand( LATEST.versionByte(), command1 ), readCommand1 );
+        assertEquals( LATEST.versionByte(), readCommand1.getVersion() );
+        assertEquals( new LogEntryCommand( LATEST.versionByte(), command2 ), readCommand2 );
+        assertEquals( new LogEntryCommit( V4_2_COMPRESSED.versionByte(), 42, 21, checksum ), commit );
+        assertNull( logEntryReader.readLogEntry( channel ) );
+    }
+
+    @Test
+    void shouldIncludeCompressedCommandsInTransactionChecksum() throws IOException
+    {
+        // given
+        byte[] bytes = new byte[1000];
+        final InMemoryClosableChannel channel = new InMemoryClosableChannel( bytes, false, true );
+        LogEntryWriter<InMemoryClosableChannel> writer = new LogEntryWriter<>( channel, V4_2_COMPRESSED );
+        writer.writeStartEntry( 1, 2, BASE_TX_CHECKSUM, new byte[0] );
+        writer.serialize( List.of( new TestCommand( 100 ) ) );
+        int commitOffset = channel.writerPosition();
+        writer.writeCommitEntry( 42, 21 );
+
+        // when the last byte of the compressed commands is corrupted
+        bytes[commitOffset - 1] = (byte) ~bytes[commitOffset - 1];
+
+        // then
+        assertThrows( IOException.class, () ->
+        {
+            while ( logEntryReader.readLogEntry( channel ) != null )
+            {
+                // read until failure
+            }
+        } );
+    }
+
     @Disabled // TODO it's not clear what the benefit verifying the chain will give us, so it's disable for now
     @Test
     void shouldValidateChecksumChain() throws IOException
@@ -66,6 +66,7 @@ import static org.junit.jupiter.api.Assertions.fail;
 import static org.neo4j.internal.kernel.api.security.AuthSubject.ANONYMOUS;
 import static org.neo4j.kernel.impl.transaction.log.GivenTransactionCursor.exhaust;
 import static org.neo4j.kernel.impl.transaction.log.TestLogEntryReader.logEntryReader;
+import static org.neo4j.kernel.impl.transaction.log.entry.CompressedLogEntryParserSetV4_2.V4_2_COMPRESSED;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.TX_START;
 import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
 
@@ -144,6 +145,23 @@ class ReversedSingleFileTransactionCursorTest
         assertTransactionRange( readTransactions, txId, TransactionIdStore.BASE_TX_ID );
     }
 
+    @Test
+    void shouldHandleTransactionsWithCompressedCommands() throws Exception
+    {
+        // given
+        writeTransactions( 10, 1, 100 );
+        writeTransactions( new CompressedLogEntryWriterFactory(), 10, 1, 100 );
+        writeTransactions( 10, 1, 100 );
+
+        // when
+        CommittedTransactionRepresentation[] readTransactions = readAllFromReversedCursor();
+
+        // then
+        assertTransactionRange( readTransactions, txId, TransactionIdStore.BASE_TX_ID );
+        assertThat( readTransactions[15].getStartEntry().getVersion() ).isEqualTo( V4_2_COMPRESSED.versionByte() );
+        assertThat( readTransactions[15].getTransactionRepresentation().accept( command -> !(command instanceof TestCommand) ) ).isFalse();
+    }
+
     @Test
     void shouldHandleEmptyLog() throws Exception
     {
@@ -242,9 +260,15 @@ class ReversedSingleFileTransactionCursorTest
     }
 
     private void writeTransactions( int transactionCount, int minTransactionSize, int maxTransactionSize ) throws IOException
+    {
+        writeTransactions( LogEntryWriterFactory.LATEST, transactionCount, minTransactionSize, maxTransactionSize );
+    }
+
+    private void writeTransactions( LogEntryWriterFactory entryWriterFactory, int transactionCount, int minTransactionSize, int maxTransactionSize )
+            throws IOException
     {
         FlushablePositionAwareChecksumChannel channel = (FlushablePositionAwareChecksumChannel) logFile.getTransactionLogWriter().getChannel();
-        TransactionLogWriter writer = logFile.getTransactionLogWriter();
+        TransactionLogWriter writer = new TransactionLogWriter( channel, entryWriterFactory );
         int previousChecksum = BASE_TX_CHECKSUM;
         for ( int i = 0; i < transactionCount; i++ )
         {
@@ -274,6 +298,15 @@ class ReversedSingleFileTransactionCursorTest
         return tx;
     }
 
+    private static class CompressedLogEntryWriterFactory implements LogEntryWriterFactory
+    {
+        @Override
+        public <T extends WritableChecksumChannel> LogEntryWriter<T> createEntryWriter( T channel )
+        {
+            return new LogEntryWriter<>( channel, V4_2_COMPRESSED );
+        }
+    }
+
     private static class CorruptedLogEntryWriterFactory implements LogEntryWriterFactory
     {
         @Override
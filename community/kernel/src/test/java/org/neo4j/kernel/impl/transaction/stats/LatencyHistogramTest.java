@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest
+{
+    @Test
+    void shouldRecordLatenciesIntoExponentialBuckets()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record( 500 );
+        histogram.record( MICROSECONDS.toNanos( 1 ) );
+        histogram.record( MICROSECONDS.toNanos( 3 ) );
+        histogram.record( MICROSECONDS.toNanos( 4 ) );
+        histogram.record( MILLISECONDS.toNanos( Long.MAX_VALUE / 2 ) );
+
+        assertThat( histogram.count() ).isEqualTo( 5 );
+        assertThat( histogram.count( 0 ) ).isEqualTo( 1 );
+        assertThat( histogram.count( 1 ) ).isEqualTo( 1 );
+        assertThat( histogram.count( 2 ) ).isEqualTo( 1 );
+        assertThat( histogram.count( 3 ) ).isEqualTo( 1 );
+        assertThat( histogram.count( LatencyHistogram.BUCKETS - 1 ) ).isEqualTo( 1 );
+    }
+
+    @Test
+    void emptyHistogramShouldIgnoreRecordedLatencies()
+    {
+        LatencyHistogram.EMPTY.record( MICROSECONDS.toNanos( 100 ) );
+
+        assertThat( LatencyHistogram.EMPTY.count() ).isEqualTo( 0 );
+        assertThat( LatencyHistogram.EMPTY.count( 7 ) ).isEqualTo( 0 );
+        assertThat( LatencyHistogram.EMPTY.percentileMicros( 99 ) ).isEqualTo( 0 );
+    }
+
+    @Test
+    void shouldReportPercentilesAsBucketUpperBounds()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat( histogram.percentileMicros( 99 ) ).isEqualTo( 0 );
+
+        for ( int i = 0; i < 90; i++ )
+        {
+            histogram.record( MICROSECONDS.toNanos( 100 ) );
+        }
+        for ( int i = 0; i < 10; i++ )
+        {
+            histogram.record( MILLISECONDS.toNanos( 10 ) );
+        }
+
+        assertThat( histogram.percentileMicros( 50 ) ).isEqualTo( 128 );
+        assertThat( histogram.percentileMicros( 90 ) ).isEqualTo( 128 );
+        assertThat( histogram.percentileMicros( 99 ) ).isEqualTo( 16384 );
+        assertThat( histogram.percentileMicros( 100 ) ).isEqualTo( 16384 );
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ReadAheadTransactionCursorTest
+{
+    private final JobScheduler scheduler = new ThreadPoolJobScheduler();
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        scheduler.close();
+    }
+
+    @Test
+    void shouldReadTransactionsInOrderWithTheirPositions() throws IOException
+    {
+        List<CommittedTransactionRepresentation> transactions = transactions( 100 );
+        ListTransactionCursor source = new ListTransactionCursor( transactions, null );
+
+        try ( ReadAheadTransactionCursor cursor = new ReadAheadTransactionCursor( source, 4, scheduler ) )
+        {
+            assertThat( cursor.position() ).isEqualTo( positionAfter( -1 ) );
+            for ( int i = 0; i < transactions.size(); i++ )
+            {
+                assertTrue( cursor.next() );
+                assertSame( transactions.get( i ), cursor.get() );
+                assertThat( cursor.position() ).isEqualTo( positionAfter( i ) );
+            }
+            assertFalse( cursor.next() );
+            assertFalse( cursor.next() );
+            assertThat( cursor.position() ).isEqualTo( positionAfter( transactions.size() - 1 ) );
+        }
+        assertTrue( source.closed );
+    }
+
+    @Test
+    void shouldFailAfterTransactionsReadBeforeTheFailure() throws IOException
+    {
+        List<CommittedTransactionRepresentation> transactions = transactions( 10 );
+        IOException failure = new IOException( "Corrupted log" );
+        ListTransactionCursor source = new ListTransactionCursor( transactions, failure );
+
+        try ( ReadAheadTransactionCursor cursor = new ReadAheadTransactionCursor( source, 2, scheduler ) )
+        {
+            for ( CommittedTransactionRepresentation transaction : transactions )
+            {
+                assertTrue( cursor.next() );
+                assertSame( transaction, cursor.get() );
+            }
+            assertSame( failure, assertThrows( IOException.class, cursor::next ) );
+            assertThat( cursor.position() ).isEqualTo( positionAfter( transactions.size() - 1 ) );
+            assertFalse( cursor.next() );
+        }
+    }
+
+    @Test
+    void shouldStopReadingAheadWhenClosedEarly() throws IOException
+    {
+        ListTransactionCursor source = new ListTransactionCursor( transactions( 1_000 ), null );
+
+        try ( ReadAheadTransactionCursor cursor = new ReadAheadTransactionCursor( source, 1, scheduler ) )
+        {
+            assertTrue( cursor.next() );
+        }
+
+        assertTrue( source.closed );
+        assertThat( source.index ).isLessThan( 1_000 );
+    }
+
+    private static List<CommittedTransactionRepresentation> transactions( int count )
+    {
+        List<CommittedTransactionRepresentation> transactions = new ArrayList<>();
+        for ( int i = 0; i < count; i++ )
+        {
+            transactions.add( mock( CommittedTransactionRepresentation.class ) );
+        }
+        return transactions;
+    }
+
+    private static LogPosition positionAfter( int index )
+    {
+        return new LogPosition( 0, 100 + (index + 1) * 10L );
+    }
+
+    private static class ListTransactionCursor implements TransactionCursor
+    {
+        private final List<CommittedTransactionRepresentation> transactions;
+        private final IOException failureAtEnd;
+        private volatile int index = -1;
+        private volatile boolean closed;
+
+        ListTransactionCursor( List<CommittedTransactionRepresentation> transactions, IOException failureAtEnd )
+        {
+            this.transactions = transactions;
+            this.failureAtEnd = failureAtEnd;
+        }
+
+        @Override
+        public LogPosition position()
+        {
+            return positionAfter( Math.min( index, transactions.size() - 1 ) );
+        }
+
+        @Override
+        public boolean next() throws IOException
+        {
+            if ( index + 1 >= transactions.size() )
+            {
+                if ( failureAtEnd != null )
+                {
+                    throw failureAtEnd;
+                }
+                return false;
+            }
+            index++;
+            return true;
+        }
+
+        @Override
+        public CommittedTransactionRepresentation get()
+        {
+            return transactions.get( index );
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+}
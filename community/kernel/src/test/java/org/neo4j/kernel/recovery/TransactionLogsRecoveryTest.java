@@ -21,6 +21,7 @@ package org.neo4j.kernel.recovery;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.mutable.MutableInt;
+import org.apache.commons.lang3.mutable.MutableLong;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -201,6 +202,7 @@ class TransactionLogsRecoveryTest
         LifeSupport life = new LifeSupport();
         var recoveryRequired = new AtomicBoolean();
         var recoveredTransactions = new MutableInt();
+        var progressReportedTransactions = new MutableLong();
         RecoveryMonitor monitor = new RecoveryMonitor()
         {
             @Override
@@ -209,6 +211,12 @@ class TransactionLogsRecoveryTest
                 recoveryRequired.set( true );
             }
 
+            @Override
+            public void recoveryProgress( long recoveredTransactions, long transactionsToRecover, long transactionsPerSecond )
+            {
+                progressReportedTransactions.setValue( recoveredTransactions );
+            }
+
             @Override
             public void recoveryCompleted( int numberOfRecoveredTransactions, long recoveryTimeInMilliseconds )
             {
@@ -274,6 +282,7 @@ class TransactionLogsRecoveryTest
 
             assertTrue( recoveryRequired.get() );
             assertEquals( 2, recoveredTransactions.getValue() );
+            assertEquals( 2, progressReportedTransactions.getValue() );
         }
         finally
         {
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.nativeimpl;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Native;
+import com.sun.jna.Platform;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maps anonymous memory that is backed by 2 MiB huge pages, either explicitly from the huge page pool with {@code MAP_HUGETLB}, or by asking for
+ * transparent huge pages with {@code madvise(MADV_HUGEPAGE)}.
+ * <p>
+ * All mappings are aligned to, and sized in multiples of, {@link #HUGE_PAGE_SIZE}. The methods report failure by returning zero, rather than by
+ * throwing, so callers can fall back to regular memory when huge pages are not available.
+ */
+public final class HugePages
+{
+    public static final long HUGE_PAGE_SIZE = 2 * 1024 * 1024;
+
+    private static final Path THP_ENABLED = Paths.get( "/sys/kernel/mm/transparent_hugepage/enabled" );
+    private static final Path SMAPS = Paths.get( "/proc/self/smaps" );
+    private static final Pattern SELECTED_MODE = Pattern.compile( "\\[(\\w+)]" );
+    private static final Pattern MAPPING_HEADER = Pattern.compile( "^([0-9a-f]+)-([0-9a-f]+) .*" );
+    private static final String ANON_HUGE_PAGES = "AnonHugePages:";
+
+    private static final int PROT_READ = 0x1;
+    private static final int PROT_WRITE = 0x2;
+    private static final int MAP_PRIVATE = 0x02;
+    private static final int MAP_ANONYMOUS = 0x20;
+    private static final int MAP_HUGETLB = 0x40000;
+    private static final int MADV_HUGEPAGE = 14;
+    private static final long MAP_FAILED = -1;
+
+    private static final boolean NATIVE_ACCESS_AVAILABLE;
+
+    static
+    {
+        boolean available = false;
+        try
+        {
+            if ( Platform.isLinux() && Platform.is64Bit() )
+            {
+                Native.register( Platform.C_LIBRARY_NAME );
+                available = true;
+            }
+        }
+        catch ( Throwable t )
+        {
+            // Without native access we cannot map huge pages, and callers fall back to regular memory.
+        }
+        NATIVE_ACCESS_AVAILABLE = available;
+    }
+
+    private HugePages()
+    {
+    }
+
+    private static native long mmap( long address, long length, int protection, int flags, int fd, long offset ) throws LastErrorException;
+
+    private static native int munmap( long address, long length ) throws LastErrorException;
+
+    private static native int madvise( long address, long length, int advice ) throws LastErrorException;
+
+    /**
+     * @return {@code true} if this platform can map memory with the methods in this class.
+     */
+    public static boolean isAvailable()
+    {
+        return NATIVE_ACCESS_AVAILABLE;
+    }
+
+    /**
+     * @return the transparent huge page mode of the kernel, i.e. {@code always}, {@code madvise} or {@code never}, or {@code unavailable} if the
+     * kernel does not support transparent huge pages.
+     */
+    public static String transparentHugePageMode()
+    {
+        try
+        {
+            Matcher matcher = SELECTED_MODE.matcher( Files.readString( THP_ENABLED ) );
+            return matcher.find() ? matcher.group( 1 ) : "unavailable";
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            return "unavailable";
+        }
+    }
+
+    /**
+     * @param bytes a size in bytes.
+     * @return the given size rounded up to a multiple of the huge page size.
+     */
+    public static long roundUpToHugePageSize( long bytes )
+    {
+        return (bytes + HUGE_PAGE_SIZE - 1) & -HUGE_PAGE_SIZE;
+    }
+
+    /**
+     * Map memory from the huge page pool of the kernel. This only succeeds if enough huge pages have been reserved up front, e.g. through
+     * {@code vm.nr_hugepages}, and the memory is then entirely backed by huge pages.
+     *
+     * @param bytes the size of the mapping, which must be a multiple of {@link #HUGE_PAGE_SIZE}.
+     * @return the address of the mapping, or zero if the memory could not be mapped.
+     */
+    public static long mapHugeTlb( long bytes )
+    {
+        checkSize( bytes );
+        return NATIVE_ACCESS_AVAILABLE ? map( bytes, MAP_HUGETLB ) : 0;
+    }
+
+    /**
+     * Map regular memory aligned to a huge page boundary, and advise the kernel to back it with transparent huge pages. The kernel is free to
+     * ignore the advice, for instance if transparent huge pages are disabled, or if memory is too fragmented to find free huge pages, so the
+     * memory may end up partially or not at all backed by huge pages.
+     *
+     * @param bytes the size of the mapping, which must be a multiple of {@link #HUGE_PAGE_SIZE}.
+     * @return the address of the mapping, or zero if the memory could not be mapped.
+     */
+    public static long mapTransparent( long bytes )
+    {
+        checkSize( bytes );
+        if ( !NATIVE_ACCESS_AVAILABLE )
+        {
+            return 0;
+        }
+        // Over-allocate by a huge page, so we can trim the mapping down to an aligned range.
+        long mapped = map( bytes + HUGE_PAGE_SIZE, 0 );
+        if ( mapped == 0 )
+        {
+            return 0;
+        }
+        long address = roundUpToHugePageSize( mapped );
+        long end = address + bytes;
+        long mappedEnd = mapped + bytes + HUGE_PAGE_SIZE;
+        if ( (address > mapped && !unmap( mapped, address - mapped )) || (mappedEnd > end && !unmap( end, mappedEnd - end )) )
+        {
+            unmap( mapped, bytes + HUGE_PAGE_SIZE );
+            return 0;
+        }
+        try
+        {
+            madvise( address, bytes, MADV_HUGEPAGE );
+        }
+        catch ( LastErrorException e )
+        {
+            // The memory is still usable. It will just be backed by regular pages.
+        }
+        return address;
+    }
+
+    /**
+     * Unmap memory that was mapped with {@link #mapHugeTlb(long)} or {@link #mapTransparent(long)}.
+     *
+     * @param address the address of the mapping.
+     * @param bytes the size of the mapping.
+     * @return {@code true} if the memory was unmapped.
+     */
+    public static boolean unmap( long address, long bytes )
+    {
+        try
+        {
+            return NATIVE_ACCESS_AVAILABLE && munmap( address, bytes ) == 0;
+        }
+        catch ( LastErrorException e )
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Find how much of the given memory ranges is currently backed by transparent huge pages, according to {@code /proc/self/smaps}. The kernel
+     * reports this per mapping, and may merge adjacent mappings, so for each mapping we count at most the number of bytes it has in common with the
+     * given ranges.
+     *
+     * @param addresses the start addresses of the ranges.
+     * @param lengths the lengths of the ranges in bytes.
+     * @return the number of bytes in the given ranges, that are backed by transparent huge pages.
+     */
+    public static long transparentHugePageBytes( long[] addresses, long[] lengths )
+    {
+        if ( addresses.length == 0 )
+        {
+            return 0;
+        }
+        try ( BufferedReader reader = Files.newBufferedReader( SMAPS ) )
+        {
+            return transparentHugePageBytes( reader, addresses, lengths );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            return 0;
+        }
+    }
+
+    static long transparentHugePageBytes( BufferedReader smaps, long[] addresses, long[] lengths ) throws IOException
+    {
+        long total = 0;
+        long overlap = 0;
+        String line;
+        while ( (line = smaps.readLine()) != null )
+        {
+            Matcher header = MAPPING_HEADER.matcher( line );
+            if ( header.matches() )
+            {
+                overlap = overlap( Long.parseUnsignedLong( header.group( 1 ), 16 ), Long.parseUnsignedLong( header.group( 2 ), 16 ), addresses, lengths );
+            }
+            else if ( overlap > 0 && line.startsWith( ANON_HUGE_PAGES ) )
+            {
+                String kibiBytes = line.substring( ANON_HUGE_PAGES.length() ).trim().split( "\\s+" )[0];
+                total += Math.min( overlap, Long.parseLong( kibiBytes ) * 1024 );
+            }
+        }
+        return total;
+    }
+
+    private static long overlap( long start, long end, long[] addresses, long[] lengths )
+    {
+        long overlap = 0;
+        for ( int i = 0; i < addresses.length; i++ )
+        {
+            long from = Math.max( start, addresses[i] );
+            long to = Math.min( end, addresses[i] + lengths[i] );
+            if ( from < to )
+            {
+                overlap += to - from;
+            }
+        }
+        return overlap;
+    }
+
+    private static long map( long bytes, int extraFlags )
+    {
+        try
+        {
+            long address = mmap( 0, bytes, PROT_READ | PROT_WRITE, MAP_PRIVATE | MAP_ANONYMOUS | extraFlags, -1, 0 );
+            return address == MAP_FAILED ? 0 : address;
+        }
+        catch ( LastErrorException e )
+        {
+            return 0;
+        }
+    }
+
+    private static void checkSize( long bytes )
+    {
+        if ( bytes <= 0 || bytes % HUGE_PAGE_SIZE != 0 )
+        {
+            throw new IllegalArgumentException(
+                    "The size of a huge page mapping must be a positive multiple of " + HUGE_PAGE_SIZE + ", but was " + bytes + "." );
+        }
+    }
+}
@@ -0,0 +1,436 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.nativeimpl;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Native;
+import com.sun.jna.Platform;
+import com.sun.jna.Pointer;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A minimal Linux io_uring submission and completion queue pair, driven through raw system calls.
+ * <p>
+ * Reads and writes are queued in batches of at most {@link #capacity()} operations, and are then submitted together with a single system call by
+ * {@link #submitAndAwait(int[])}, which also waits for all of them to complete. The kernel is free to execute the queued operations concurrently,
+ * which lets a single thread keep many requests in flight against the storage device.
+ * <p>
+ * Instances are not thread-safe, and must only be used by one thread at a time.
+ */
+public final class IOUring implements AutoCloseable
+{
+    private static final long SYS_IO_URING_SETUP = 425;
+    private static final long SYS_IO_URING_ENTER = 426;
+
+    private static final long IORING_OFF_SQ_RING = 0L;
+    private static final long IORING_OFF_CQ_RING = 0x8000000L;
+    private static final long IORING_OFF_SQES = 0x10000000L;
+    private static final int IORING_FEAT_SINGLE_MMAP = 1;
+    private static final int IORING_ENTER_GETEVENTS = 1;
+    private static final byte IORING_OP_READV = 1;
+    private static final byte IORING_OP_WRITEV = 2;
+
+    private static final int PROT_READ_WRITE = 0x1 | 0x2;
+    private static final int MAP_SHARED_POPULATE = 0x01 | 0x8000;
+
+    private static final int EINTR = 4;
+    private static final int EAGAIN = 11;
+    private static final int EBUSY = 16;
+
+    // Layout of struct io_uring_params, and the struct io_sqring_offsets and io_cqring_offsets embedded in it.
+    private static final int PARAMS_SIZE = 120;
+    private static final int PARAMS_SQ_ENTRIES = 0;
+    private static final int PARAMS_CQ_ENTRIES = 4;
+    private static final int PARAMS_FEATURES = 20;
+    private static final int SQ_OFF_HEAD = 40;
+    private static final int SQ_OFF_TAIL = 44;
+    private static final int SQ_OFF_RING_MASK = 48;
+    private static final int SQ_OFF_ARRAY = 64;
+    private static final int CQ_OFF_HEAD = 80;
+    private static final int CQ_OFF_TAIL = 84;
+    private static final int CQ_OFF_RING_MASK = 88;
+    private static final int CQ_OFF_CQES = 100;
+
+    // Layout of struct io_uring_sqe, struct io_uring_cqe, and struct iovec.
+    private static final int SQE_SIZE = 64;
+    private static final int SQE_OPCODE = 0;
+    private static final int SQE_FD = 4;
+    private static final int SQE_OFF = 8;
+    private static final int SQE_ADDR = 16;
+    private static final int SQE_LEN = 24;
+    private static final int SQE_USER_DATA = 32;
+    private static final int CQE_SIZE = 16;
+    private static final int CQE_USER_DATA = 0;
+    private static final int CQE_RES = 8;
+    private static final int IOVEC_SIZE = 16;
+
+    private static final boolean IO_URING_AVAILABLE;
+
+    static
+    {
+        boolean available = false;
+        try
+        {
+            if ( Platform.isLinux() && Platform.is64Bit() )
+            {
+                Native.register( Platform.C_LIBRARY_NAME );
+                available = probe();
+            }
+        }
+        catch ( Throwable t )
+        {
+            // io_uring is not available, either because of the platform, the kernel version, or because it is disabled by the system.
+        }
+        IO_URING_AVAILABLE = available;
+    }
+
+    /**
+     * Invoke a system call by number. Unused trailing arguments are ignored by the kernel, which lets a single fixed signature serve every call here
+     * without going through the boxing of a variadic mapping.
+     */
+    private static native long syscall( long number, long arg1, long arg2, long arg3, long arg4, long arg5, long arg6 ) throws LastErrorException;
+
+    private static native long mmap( long address, long length, int prot, int flags, int fd, long offset ) throws LastErrorException;
+
+    private static native int munmap( long address, long length ) throws LastErrorException;
+
+    private static native int close( int fd ) throws LastErrorException;
+
+    private final int ringFd;
+    private final long sqRingAddress;
+    private final long sqRingSize;
+    private final long cqRingAddress;
+    private final long cqRingSize;
+    private final long sqesAddress;
+    private final long sqesSize;
+    private final Pointer sqRing;
+    private final Pointer cqRing;
+    private final Pointer sqes;
+    private final int sqHeadOffset;
+    private final int sqTailOffset;
+    private final int sqMask;
+    private final int sqArrayOffset;
+    private final int cqHeadOffset;
+    private final int cqTailOffset;
+    private final int cqMask;
+    private final int cqesOffset;
+    private final int capacity;
+    private final int maxVectors;
+    private final long iovecsAddress;
+    private final Pointer iovecs;
+    private int sqTail;
+    private int queued;
+    private boolean closed;
+
+    private IOUring( int ringFd, Pointer params, int maxVectors ) throws LastErrorException
+    {
+        this.ringFd = ringFd;
+        this.maxVectors = maxVectors;
+        int sqEntries = params.getInt( PARAMS_SQ_ENTRIES );
+        int cqEntries = params.getInt( PARAMS_CQ_ENTRIES );
+        boolean singleMmap = (params.getInt( PARAMS_FEATURES ) & IORING_FEAT_SINGLE_MMAP) != 0;
+        sqHeadOffset = params.getInt( SQ_OFF_HEAD );
+        sqTailOffset = params.getInt( SQ_OFF_TAIL );
+        sqArrayOffset = params.getInt( SQ_OFF_ARRAY );
+        cqHeadOffset = params.getInt( CQ_OFF_HEAD );
+        cqTailOffset = params.getInt( CQ_OFF_TAIL );
+        cqesOffset = params.getInt( CQ_OFF_CQES );
+
+        long sqSize = sqArrayOffset + (long) sqEntries * Integer.BYTES;
+        long cqSize = cqesOffset + (long) cqEntries * CQE_SIZE;
+        if ( singleMmap )
+        {
+            sqSize = Math.max( sqSize, cqSize );
+            sqRingAddress = mmap( 0, sqSize, PROT_READ_WRITE, MAP_SHARED_POPULATE, ringFd, IORING_OFF_SQ_RING );
+            cqRingAddress = sqRingAddress;
+            cqRingSize = 0;
+        }
+        else
+        {
+            sqRingAddress = mmap( 0, sqSize, PROT_READ_WRITE, MAP_SHARED_POPULATE, ringFd, IORING_OFF_SQ_RING );
+            cqRingAddress = mmap( 0, cqSize, PROT_READ_WRITE, MAP_SHARED_POPULATE, ringFd, IORING_OFF_CQ_RING );
+            cqRingSize = cqSize;
+        }
+        sqRingSize = sqSize;
+        sqesSize = (long) sqEntries * SQE_SIZE;
+        sqesAddress = mmap( 0, sqesSize, PROT_READ_WRITE, MAP_SHARED_POPULATE, ringFd, IORING_OFF_SQES );
+
+        sqRing = new Pointer( sqRingAddress );
+        cqRing = new Pointer( cqRingAddress );
+        sqes = new Pointer( sqesAddress );
+        sqMask = sqRing.getInt( params.getInt( SQ_OFF_RING_MASK ) );
+        cqMask = cqRing.getInt( params.getInt( CQ_OFF_RING_MASK ) );
+        sqTail = sqRing.getInt( sqTailOffset );
+        capacity = sqEntries;
+        iovecsAddress = Native.malloc( (long) capacity * maxVectors * IOVEC_SIZE );
+        iovecs = new Pointer( iovecsAddress );
+    }
+
+    /**
+     * @return {@code true} if io_uring can be used on this platform, and by this process.
+     */
+    public static boolean isAvailable()
+    {
+        return IO_URING_AVAILABLE;
+    }
+
+    /**
+     * Set up a new io_uring instance.
+     *
+     * @param entries the requested number of operations per batch. The kernel rounds this up to a power of two.
+     * @param maxVectors the maximum number of buffers that a single read or write operation can scatter to, or gather from.
+     * @return the new ring, which must be closed when no longer needed.
+     * @throws IOException if io_uring is not available, or if the ring could not be set up.
+     */
+    public static IOUring open( int entries, int maxVectors ) throws IOException
+    {
+        if ( !IO_URING_AVAILABLE )
+        {
+            throw new IOException( "io_uring is not available on this system." );
+        }
+        return setup( entries, maxVectors );
+    }
+
+    private static IOUring setup( int entries, int maxVectors ) throws IOException
+    {
+        if ( entries <= 0 || maxVectors <= 0 )
+        {
+            throw new IllegalArgumentException( "Ring entries and vectors per operation must be positive, but were " + entries + " and " + maxVectors + "." );
+        }
+        int ringFd = -1;
+        long paramsAddress = Native.malloc( PARAMS_SIZE );
+        try
+        {
+            Pointer params = new Pointer( paramsAddress );
+            params.setMemory( 0, PARAMS_SIZE, (byte) 0 );
+            ringFd = (int) syscall( SYS_IO_URING_SETUP, entries, paramsAddress, 0L, 0L, 0L, 0L );
+            return new IOUring( ringFd, params, maxVectors );
+        }
+        catch ( LastErrorException e )
+        {
+            if ( ringFd >= 0 )
+            {
+                close( ringFd );
+            }
+            throw new IOException( "Failed to set up io_uring with " + entries + " entries. Error code: " + e.getErrorCode() + ".", e );
+        }
+        finally
+        {
+            Native.free( paramsAddress );
+        }
+    }
+
+    private static boolean probe()
+    {
+        try
+        {
+            // Mapping a ring is the only reliable test, since io_uring can be disabled by sysctl or seccomp filters even on kernels that support it.
+            IOUring ring = setup( 2, 1 );
+            ring.close();
+            return true;
+        }
+        catch ( Throwable t )
+        {
+            return false;
+        }
+    }
+
+    /**
+     * @return the maximum number of operations that can be queued in a single batch.
+     */
+    public int capacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * @return the maximum number of buffers a single read or write operation can use.
+     */
+    public int maxVectors()
+    {
+        return maxVectors;
+    }
+
+    /**
+     * @return the number of operations queued in the current batch.
+     */
+    public int queued()
+    {
+        return queued;
+    }
+
+    /**
+     * Queue a positioned read that scatters file data into the given buffers.
+     *
+     * @param fd the file descriptor to read from.
+     * @param fileOffset the file position of the first byte to read.
+     * @param addresses the addresses of the buffers to fill.
+     * @param lengths the lengths of the buffers to fill.
+     * @param from the index of the first buffer to use.
+     * @param count the number of buffers to use.
+     * @return the index of this operation within the current batch, which is also where its result is placed by {@link #submitAndAwait(int[])}.
+     */
+    public int queueRead( int fd, long fileOffset, long[] addresses, int[] lengths, int from, int count )
+    {
+        return queue( IORING_OP_READV, fd, fileOffset, addresses, lengths, from, count );
+    }
+
+    /**
+     * Queue a positioned write that gathers file data from the given buffers.
+     *
+     * @param fd the file descriptor to write to.
+     * @param fileOffset the file position of the first byte to write.
+     * @param addresses the addresses of the buffers to write.
+     * @param lengths the lengths of the buffers to write.
+     * @param from the index of the first buffer to use.
+     * @param count the number of buffers to use.
+     * @return the index of this operation within the current batch, which is also where its result is placed by {@link #submitAndAwait(int[])}.
+     */
+    public int queueWrite( int fd, long fileOffset, long[] addresses, int[] lengths, int from, int count )
+    {
+        return queue( IORING_OP_WRITEV, fd, fileOffset, addresses, lengths, from, count );
+    }
+
+    private int queue( byte opcode, int fd, long fileOffset, long[] addresses, int[] lengths, int from, int count )
+    {
+        if ( closed )
+        {
+            throw new IllegalStateException( "This ring has been closed." );
+        }
+        if ( queued == capacity )
+        {
+            throw new IllegalStateException( "The current batch is full, with " + capacity + " queued operations." );
+        }
+        if ( count <= 0 || count > maxVectors )
+        {
+            throw new IllegalArgumentException( "An operation must use between 1 and " + maxVectors + " buffers, but " + count + " were given." );
+        }
+        int operation = queued;
+        long iovecOffset = (long) operation * maxVectors * IOVEC_SIZE;
+        for ( int i = 0; i < count; i++ )
+        {
+            iovecs.setLong( iovecOffset + (long) i * IOVEC_SIZE, addresses[from + i] );
+            iovecs.setLong( iovecOffset + (long) i * IOVEC_SIZE + Long.BYTES, lengths[from + i] );
+        }
+
+        int index = sqTail & sqMask;
+        long sqe = (long) index * SQE_SIZE;
+        sqes.setMemory( sqe, SQE_SIZE, (byte) 0 );
+        sqes.setByte( sqe + SQE_OPCODE, opcode );
+        sqes.setInt( sqe + SQE_FD, fd );
+        sqes.setLong( sqe + SQE_OFF, fileOffset );
+        sqes.setLong( sqe + SQE_ADDR, iovecsAddress + iovecOffset );
+        sqes.setInt( sqe + SQE_LEN, count );
+        sqes.setLong( sqe + SQE_USER_DATA, operation );
+        sqRing.setInt( sqArrayOffset + (long) index * Integer.BYTES, index );
+        sqTail++;
+        queued++;
+        return operation;
+    }
+
+    /**
+     * Submit all queued operations, and wait for all of them to complete.
+     * <p>
+     * The outcome of every operation is placed in the results array, at the index returned when the operation was queued. A non-negative result is the number
+     * of bytes transferred, which can be less than requested, while a negative result is the negated error code the operation failed with.
+     * <p>
+     * If this method throws, the ring is left in an unknown state and must be closed.
+     *
+     * @param results the array to place the results of the operations in. It must have room for at least {@link #queued()} elements.
+     * @throws IOException if the operations could not be submitted, or their completions could not be awaited.
+     */
+    public void submitAndAwait( int[] results ) throws IOException
+    {
+        int operations = queued;
+        if ( operations == 0 )
+        {
+            return;
+        }
+        VarHandle.releaseFence();
+        sqRing.setInt( sqTailOffset, sqTail );
+
+        int toSubmit = operations;
+        int completed = 0;
+        while ( completed < operations )
+        {
+            int submitted = enter( toSubmit, operations - completed );
+            toSubmit -= submitted;
+            completed += reapCompletions( results );
+        }
+        queued = 0;
+    }
+
+    private int enter( int toSubmit, int minComplete ) throws IOException
+    {
+        try
+        {
+            return (int) syscall( SYS_IO_URING_ENTER, ringFd, toSubmit, minComplete, IORING_ENTER_GETEVENTS, 0L, 0L );
+        }
+        catch ( LastErrorException e )
+        {
+            int errorCode = e.getErrorCode();
+            if ( errorCode == EINTR || errorCode == EAGAIN || errorCode == EBUSY )
+            {
+                // Nothing was submitted, or we were interrupted while waiting. Either way, the caller will reap what it can and try again.
+                return 0;
+            }
+            throw new IOException( "io_uring_enter failed with error code " + errorCode + ".", e );
+        }
+    }
+
+    private int reapCompletions( int[] results )
+    {
+        int tail = cqRing.getInt( cqTailOffset );
+        VarHandle.acquireFence();
+        int head = cqRing.getInt( cqHeadOffset );
+        int reaped = 0;
+        while ( head != tail )
+        {
+            long cqe = cqesOffset + (long) (head & cqMask) * CQE_SIZE;
+            int operation = (int) cqRing.getLong( cqe + CQE_USER_DATA );
+            results[operation] = cqRing.getInt( cqe + CQE_RES );
+            head++;
+            reaped++;
+        }
+        VarHandle.releaseFence();
+        cqRing.setInt( cqHeadOffset, head );
+        return reaped;
+    }
+
+    @Override
+    public void close()
+    {
+        if ( closed )
+        {
+            return;
+        }
+        closed = true;
+        munmap( sqesAddress, sqesSize );
+        if ( cqRingSize != 0 )
+        {
+            munmap( cqRingAddress, cqRingSize );
+        }
+        munmap( sqRingAddress, sqRingSize );
+        close( ringFd );
+        Native.free( iovecsAddress );
+    }
+}
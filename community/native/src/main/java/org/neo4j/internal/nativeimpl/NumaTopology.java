@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.nativeimpl;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Native;
+import com.sun.jna.Platform;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Describes the NUMA nodes of the machine, and which of them the calling thread is currently running on.
+ * <p>
+ * Nodes are identified by a dense index from zero to {@link #nodeCount()}, in the order of their operating system node ids. On machines that are not
+ * NUMA machines, or on platforms where the topology cannot be discovered, the topology has a single node that every CPU belongs to.
+ */
+public class NumaTopology
+{
+    private static final Path SYSFS_NODES = Paths.get( "/sys/devices/system/node" );
+    private static final String NODE_PREFIX = "node";
+
+    private static final int MPOL_PREFERRED = 1;
+    private static final long SYS_MBIND_X86_64 = 237;
+    private static final long SYS_MBIND_AARCH64 = 235;
+
+    private static final NumaTopology SINGLE_NODE = new NumaTopology( new int[]{0}, new int[0] );
+
+    private static final boolean NATIVE_ACCESS_AVAILABLE;
+    private static final long SYS_MBIND;
+
+    static
+    {
+        boolean available = false;
+        long mbind = -1;
+        try
+        {
+            if ( Platform.isLinux() && Platform.is64Bit() )
+            {
+                Native.register( Platform.C_LIBRARY_NAME );
+                available = true;
+                mbind = Platform.isARM() ? SYS_MBIND_AARCH64 : Platform.isIntel() ? SYS_MBIND_X86_64 : -1;
+            }
+        }
+        catch ( Throwable t )
+        {
+            // Without native access we cannot tell which CPU we run on, and fall back to a single node.
+        }
+        NATIVE_ACCESS_AVAILABLE = available;
+        SYS_MBIND = mbind;
+    }
+
+    /**
+     * Called on every page fault of a NUMA aware page cache, and therefore directly mapped rather than going through a library proxy.
+     */
+    private static native int sched_getcpu() throws LastErrorException;
+
+    private static native long syscall( long number, long address, long length, long mode, long[] nodeMask, long maxNode, long flags )
+            throws LastErrorException;
+
+    private final int[] nodeIds;
+    private final int[] cpuNodes;
+
+    /**
+     * @param nodeIds the operating system ids of the nodes, in ascending order.
+     * @param cpuNodes the dense node index of each CPU, indexed by CPU id.
+     */
+    protected NumaTopology( int[] nodeIds, int[] cpuNodes )
+    {
+        if ( nodeIds.length == 0 )
+        {
+            throw new IllegalArgumentException( "A NUMA topology must have at least one node." );
+        }
+        this.nodeIds = nodeIds;
+        this.cpuNodes = cpuNodes;
+    }
+
+    /**
+     * @return a topology with a single node, that is used when the machine is not a NUMA machine, or NUMA awareness is disabled.
+     */
+    public static NumaTopology singleNode()
+    {
+        return SINGLE_NODE;
+    }
+
+    /**
+     * Discover the NUMA topology of this machine.
+     * @return the discovered topology, or a {@link #singleNode() single node topology} if it could not be discovered.
+     */
+    public static NumaTopology detect()
+    {
+        if ( !NATIVE_ACCESS_AVAILABLE || !Files.isDirectory( SYSFS_NODES ) )
+        {
+            return SINGLE_NODE;
+        }
+        try
+        {
+            return fromSysfs( SYSFS_NODES );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            return SINGLE_NODE;
+        }
+    }
+
+    static NumaTopology fromSysfs( Path nodesDirectory ) throws IOException
+    {
+        Map<Integer,int[]> nodeCpus = new TreeMap<>();
+        try ( Stream<Path> entries = Files.list( nodesDirectory ) )
+        {
+            for ( Path entry : (Iterable<Path>) entries::iterator )
+            {
+                String name = entry.getFileName().toString();
+                Path cpuList = entry.resolve( "cpulist" );
+                if ( name.startsWith( NODE_PREFIX ) && name.length() > NODE_PREFIX.length() && Files.exists( cpuList ) )
+                {
+                    int nodeId = Integer.parseInt( name.substring( NODE_PREFIX.length() ) );
+                    nodeCpus.put( nodeId, parseCpuList( Files.readString( cpuList ) ) );
+                }
+            }
+        }
+        if ( nodeCpus.size() <= 1 )
+        {
+            return SINGLE_NODE;
+        }
+
+        int[] nodeIds = new int[nodeCpus.size()];
+        int maxCpu = nodeCpus.values().stream().flatMapToInt( Arrays::stream ).max().orElse( -1 );
+        int[] cpuNodes = new int[maxCpu + 1];
+        int node = 0;
+        for ( Map.Entry<Integer,int[]> entry : nodeCpus.entrySet() )
+        {
+            nodeIds[node] = entry.getKey();
+            for ( int cpu : entry.getValue() )
+            {
+                cpuNodes[cpu] = node;
+            }
+            node++;
+        }
+        return new NumaTopology( nodeIds, cpuNodes );
+    }
+
+    /**
+     * Parse a CPU list in the kernel list format, e.g. {@code 0-3,8,10-11}.
+     */
+    static int[] parseCpuList( String cpuList )
+    {
+        String trimmed = cpuList.trim();
+        if ( trimmed.isEmpty() )
+        {
+            return new int[0];
+        }
+        return Arrays.stream( trimmed.split( "," ) ).flatMapToInt( range ->
+        {
+            int dash = range.indexOf( '-' );
+            if ( dash == -1 )
+            {
+                return IntStream.of( Integer.parseInt( range ) );
+            }
+            int from = Integer.parseInt( range.substring( 0, dash ) );
+            int to = Integer.parseInt( range.substring( dash + 1 ) );
+            return IntStream.rangeClosed( from, to );
+        } ).toArray();
+    }
+
+    /**
+     * @return the number of NUMA nodes, which is always at least one.
+     */
+    public int nodeCount()
+    {
+        return nodeIds.length;
+    }
+
+    /**
+     * @return the dense index of the node that the calling thread is currently running on. The thread may be migrated to another node at any time,
+     * so this is only a hint.
+     */
+    public int currentNode()
+    {
+        if ( nodeIds.length == 1 || !NATIVE_ACCESS_AVAILABLE )
+        {
+            return 0;
+        }
+        try
+        {
+            int cpu = sched_getcpu();
+            return cpu >= 0 && cpu < cpuNodes.length ? cpuNodes[cpu] : 0;
+        }
+        catch ( LastErrorException e )
+        {
+            return 0;
+        }
+    }
+
+    /**
+     * Ask the operating system to place the not yet touched memory in the given range on the given node, if possible.
+     * The memory must start at an operating system page boundary. This is only a preference, and the memory may still end up on another node
+     * if the preferred node is out of memory.
+     *
+     * @param address the start of the memory range.
+     * @param length the length of the memory range in bytes.
+     * @param node the dense index of the preferred node.
+     * @return {@code true} if the preference was applied, otherwise {@code false}.
+     */
+    public boolean preferNode( long address, long length, int node )
+    {
+        if ( nodeIds.length == 1 || !NATIVE_ACCESS_AVAILABLE || SYS_MBIND == -1 )
+        {
+            return false;
+        }
+        int nodeId = nodeIds[node];
+        long[] nodeMask = new long[nodeId / Long.SIZE + 1];
+        nodeMask[nodeId / Long.SIZE] = 1L << (nodeId % Long.SIZE);
+        try
+        {
+            return syscall( SYS_MBIND, address, length, (long) MPOL_PREFERRED, nodeMask, (long) nodeMask.length * Long.SIZE + 1, 0L ) == 0;
+        }
+        catch ( LastErrorException e )
+        {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "NumaTopology[nodes:" + Arrays.toString( nodeIds ) + "]";
+    }
+}
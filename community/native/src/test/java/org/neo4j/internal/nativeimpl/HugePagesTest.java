@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.nativeimpl;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.neo4j.internal.nativeimpl.HugePages.HUGE_PAGE_SIZE;
+
+class HugePagesTest
+{
+    @Test
+    void roundUpToHugePageSize()
+    {
+        assertEquals( HUGE_PAGE_SIZE, HugePages.roundUpToHugePageSize( 1 ) );
+        assertEquals( HUGE_PAGE_SIZE, HugePages.roundUpToHugePageSize( HUGE_PAGE_SIZE ) );
+        assertEquals( 2 * HUGE_PAGE_SIZE, HugePages.roundUpToHugePageSize( HUGE_PAGE_SIZE + 1 ) );
+    }
+
+    @Test
+    void mappingsMustBeSizedInHugePages()
+    {
+        assertThrows( IllegalArgumentException.class, () -> HugePages.mapTransparent( 4096 ) );
+        assertThrows( IllegalArgumentException.class, () -> HugePages.mapHugeTlb( 0 ) );
+    }
+
+    @Test
+    void transparentMappingMustBeAlignedToHugePages()
+    {
+        assumeTrue( HugePages.isAvailable() );
+        long bytes = 4 * HUGE_PAGE_SIZE;
+        long address = HugePages.mapTransparent( bytes );
+        assertNotEquals( 0, address );
+        try
+        {
+            assertEquals( 0, address % HUGE_PAGE_SIZE );
+        }
+        finally
+        {
+            assertTrue( HugePages.unmap( address, bytes ) );
+        }
+    }
+
+    @Test
+    void countTransparentHugePagesOfOverlappingMappings() throws IOException
+    {
+        String smaps = "00400000-00600000 r-xp 00000000 08:01 123 /usr/bin/java\n" +
+                "Size:               2048 kB\n" +
+                "AnonHugePages:     2048 kB\n" +
+                "7f0000000000-7f0000800000 rw-p 00000000 00:00 0\n" +
+                "Size:               8192 kB\n" +
+                "AnonHugePages:     6144 kB\n" +
+                "7f0000800000-7f0000a00000 rw-p 00000000 00:00 0\n" +
+                "Size:               2048 kB\n" +
+                "AnonHugePages:     2048 kB\n";
+        long[] addresses = {0x7f0000000000L, 0x7f0000600000L};
+        long[] lengths = {HUGE_PAGE_SIZE, HUGE_PAGE_SIZE};
+
+        // The second mapping has 6 MiB of huge pages, but only 4 MiB of it are ours. The other mappings are not ours at all.
+        assertEquals( 2 * HUGE_PAGE_SIZE, HugePages.transparentHugePageBytes( new BufferedReader( new StringReader( smaps ) ), addresses, lengths ) );
+    }
+}
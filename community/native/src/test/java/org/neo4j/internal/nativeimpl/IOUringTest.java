@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.nativeimpl;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.apache.commons.lang3.reflect.FieldUtils.getDeclaredField;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@EnabledOnOs( OS.LINUX )
+class IOUringTest
+{
+    private static final int BUFFER_SIZE = 4096;
+    private static final int BUFFERS = 8;
+
+    @TempDir
+    Path directory;
+
+    private FileChannel channel;
+    private int fd;
+    private IOUring ring;
+    private final long[] addresses = new long[BUFFERS];
+    private final int[] lengths = new int[BUFFERS];
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        assumeTrue( IOUring.isAvailable() );
+        channel = FileChannel.open( directory.resolve( "file" ), READ, WRITE, CREATE );
+        fd = getDescriptor( channel );
+        ring = IOUring.open( 4, 4 );
+        for ( int i = 0; i < BUFFERS; i++ )
+        {
+            addresses[i] = Native.malloc( BUFFER_SIZE );
+            lengths[i] = BUFFER_SIZE;
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException
+    {
+        if ( ring != null )
+        {
+            ring.close();
+        }
+        if ( channel != null )
+        {
+            channel.close();
+        }
+        for ( long address : addresses )
+        {
+            if ( address != 0 )
+            {
+                Native.free( address );
+            }
+        }
+    }
+
+    @Test
+    void capacityIsAtLeastRequestedEntries()
+    {
+        assertTrue( ring.capacity() >= 4 );
+        assertEquals( 4, ring.maxVectors() );
+    }
+
+    @Test
+    void writeBatchOfVectoredOperations() throws IOException
+    {
+        for ( int i = 0; i < BUFFERS; i++ )
+        {
+            fill( i, (byte) i );
+        }
+        int[] results = new int[ring.capacity()];
+        int first = ring.queueWrite( fd, 0, addresses, lengths, 0, 4 );
+        int second = ring.queueWrite( fd, 4L * BUFFER_SIZE, addresses, lengths, 4, 4 );
+        assertEquals( 2, ring.queued() );
+        ring.submitAndAwait( results );
+
+        assertEquals( 0, ring.queued() );
+        assertEquals( 4 * BUFFER_SIZE, results[first] );
+        assertEquals( 4 * BUFFER_SIZE, results[second] );
+        ByteBuffer content = ByteBuffer.allocate( BUFFERS * BUFFER_SIZE );
+        channel.read( content, 0 );
+        for ( int i = 0; i < BUFFERS; i++ )
+        {
+            assertEquals( (byte) i, content.get( i * BUFFER_SIZE ) );
+            assertEquals( (byte) i, content.get( (i + 1) * BUFFER_SIZE - 1 ) );
+        }
+    }
+
+    @Test
+    void readBatchOfVectoredOperations() throws IOException
+    {
+        ByteBuffer content = ByteBuffer.allocate( BUFFERS * BUFFER_SIZE );
+        for ( int i = 0; i < BUFFERS * BUFFER_SIZE; i++ )
+        {
+            content.put( (byte) (i / BUFFER_SIZE + 1) );
+        }
+        channel.write( content.flip(), 0 );
+
+        int[] results = new int[ring.capacity()];
+        int first = ring.queueRead( fd, 4L * BUFFER_SIZE, addresses, lengths, 0, 4 );
+        int second = ring.queueRead( fd, 0, addresses, lengths, 4, 4 );
+        ring.submitAndAwait( results );
+
+        assertEquals( 4 * BUFFER_SIZE, results[first] );
+        assertEquals( 4 * BUFFER_SIZE, results[second] );
+        byte[] expected = {5, 6, 7, 8, 1, 2, 3, 4};
+        byte[] actual = new byte[BUFFERS];
+        for ( int i = 0; i < BUFFERS; i++ )
+        {
+            actual[i] = new Pointer( addresses[i] ).getByte( BUFFER_SIZE - 1 );
+        }
+        assertArrayEquals( expected, actual );
+    }
+
+    @Test
+    void readPastEndOfFileIsShort() throws IOException
+    {
+        channel.write( ByteBuffer.allocate( BUFFER_SIZE + 100 ), 0 );
+
+        int[] results = new int[ring.capacity()];
+        int partial = ring.queueRead( fd, 0, addresses, lengths, 0, 2 );
+        int beyond = ring.queueRead( fd, 10L * BUFFER_SIZE, addresses, lengths, 2, 1 );
+        ring.submitAndAwait( results );
+
+        assertEquals( BUFFER_SIZE + 100, results[partial] );
+        assertEquals( 0, results[beyond] );
+    }
+
+    @Test
+    void failedOperationReportsNegatedErrorCode() throws IOException
+    {
+        int[] results = new int[ring.capacity()];
+        int operation = ring.queueRead( Integer.MAX_VALUE, 0, addresses, lengths, 0, 1 );
+        ring.submitAndAwait( results );
+
+        assertTrue( results[operation] < 0 );
+    }
+
+    @Test
+    void mustNotQueueMoreOperationsThanCapacity()
+    {
+        for ( int i = 0; i < ring.capacity(); i++ )
+        {
+            ring.queueRead( fd, 0, addresses, lengths, 0, 1 );
+        }
+        assertThrows( IllegalStateException.class, () -> ring.queueRead( fd, 0, addresses, lengths, 0, 1 ) );
+    }
+
+    @Test
+    void mustNotQueueOperationWithTooManyBuffers()
+    {
+        assertThrows( IllegalArgumentException.class, () -> ring.queueRead( fd, 0, addresses, lengths, 0, 5 ) );
+        assertThrows( IllegalArgumentException.class, () -> ring.queueWrite( fd, 0, addresses, lengths, 0, 0 ) );
+    }
+
+    private void fill( int buffer, byte value )
+    {
+        new Pointer( addresses[buffer] ).setMemory( 0, BUFFER_SIZE, value );
+    }
+
+    private static int getDescriptor( FileChannel channel ) throws ClassNotFoundException, IllegalAccessException
+    {
+        Class<?> fileChannelImpl = Class.forName( "sun.nio.ch.FileChannelImpl" );
+        FileDescriptor fd = (FileDescriptor) getDeclaredField( fileChannelImpl, "fd", true ).get( channel );
+        return getDeclaredField( FileDescriptor.class, "fd", true ).getInt( fd );
+    }
+}
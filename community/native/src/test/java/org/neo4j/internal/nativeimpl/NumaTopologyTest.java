@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.nativeimpl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NumaTopologyTest
+{
+    @TempDir
+    Path nodes;
+
+    @Test
+    void parseCpuLists()
+    {
+        assertArrayEquals( new int[]{0}, NumaTopology.parseCpuList( "0\n" ) );
+        assertArrayEquals( new int[]{0, 1, 2, 3}, NumaTopology.parseCpuList( "0-3" ) );
+        assertArrayEquals( new int[]{0, 1, 8, 10, 11}, NumaTopology.parseCpuList( "0-1,8,10-11\n" ) );
+        assertArrayEquals( new int[0], NumaTopology.parseCpuList( "\n" ) );
+    }
+
+    @Test
+    void readTopologyWithSeveralNodes() throws IOException
+    {
+        writeNode( "node0", "0-1,4-5" );
+        writeNode( "node2", "2-3,6-7" );
+        Files.createDirectory( nodes.resolve( "power" ) );
+
+        NumaTopology topology = NumaTopology.fromSysfs( nodes );
+
+        assertEquals( 2, topology.nodeCount() );
+        assertEquals( "NumaTopology[nodes:[0, 2]]", topology.toString() );
+    }
+
+    @Test
+    void readTopologyWithSingleNodeAsSingleNode() throws IOException
+    {
+        writeNode( "node0", "0-7" );
+
+        assertSame( NumaTopology.singleNode(), NumaTopology.fromSysfs( nodes ) );
+    }
+
+    @Test
+    void singleNodeTopologyMustAlwaysBeOnFirstNode()
+    {
+        NumaTopology topology = NumaTopology.singleNode();
+
+        assertEquals( 1, topology.nodeCount() );
+        assertEquals( 0, topology.currentNode() );
+        assertFalse( topology.preferNode( 0, 4096, 0 ) );
+    }
+
+    @Test
+    void detectedTopologyMustReportNodeOfCurrentThread()
+    {
+        NumaTopology topology = NumaTopology.detect();
+
+        int node = topology.currentNode();
+        assertTrue( node >= 0 && node < topology.nodeCount() );
+    }
+
+    private void writeNode( String name, String cpuList ) throws IOException
+    {
+        Path node = Files.createDirectory( nodes.resolve( name ) );
+        Files.writeString( node.resolve( "cpulist" ), cpuList + "\n" );
+    }
+}
@@ -126,6 +126,7 @@ public class DatabaseManagementServiceFactory
         GlobalModule globalModule = createGlobalModule( config, dependencies );
         AbstractEditionModule edition = editionFactory.apply( globalModule );
         Dependencies globalDependencies = globalModule.getGlobalDependencies();
+        globalDependencies.satisfyDependency( edition.getIoLimiter() ); // for the page cache background writeback
         LifeSupport globalLife = globalModule.getGlobalLife();
 
         LogService logService = globalModule.getLogService();
@@ -40,6 +40,7 @@ import org.neo4j.io.fs.FileSystemLifecycleAdapter;
 import org.neo4j.io.fs.watcher.FileWatcher;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.layout.Neo4jLayout;
+import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.tracing.cursor.context.GuardVersionContextSupplier;
 import org.neo4j.kernel.availability.CompositeDatabaseAvailabilityGuard;
@@ -360,7 +361,9 @@ public class GlobalModule
         jobScheduler.setParallelism( Group.INDEX_SAMPLING, globalConfig.get( GraphDatabaseInternalSettings.index_sampling_parallelism ) );
         jobScheduler.setParallelism( Group.INDEX_POPULATION, globalConfig.get( GraphDatabaseInternalSettings.index_population_parallelism ) );
         jobScheduler.setParallelism( Group.INDEX_POPULATION_WORK, globalConfig.get( GraphDatabaseInternalSettings.index_population_workers ) );
+        jobScheduler.setParallelism( Group.PAGE_CACHE_WARMER, globalConfig.get( GraphDatabaseInternalSettings.pagecache_warmup_parallelism ) );
         jobScheduler.setParallelism( Group.PAGE_CACHE_PRE_FETCHER, globalConfig.get( GraphDatabaseSettings.pagecache_scan_prefetch ) );
+        jobScheduler.setParallelism( Group.STORAGE_PARALLEL_APPLY, globalConfig.get( GraphDatabaseInternalSettings.parallel_apply_threads ) );
         return jobScheduler;
     }
 
@@ -371,6 +374,7 @@ public class GlobalModule
         ConfiguringPageCacheFactory pageCacheFactory = new ConfiguringPageCacheFactory( fileSystem, config, tracers.getPageCacheTracer(), pageCacheLog,
                 GuardVersionContextSupplier.INSTANCE, jobScheduler, clock, memoryPools );
         PageCache pageCache = pageCacheFactory.getOrCreatePageCache();
+        globalLife.add( pageCacheFactory.backgroundWriteback( this::resolveIoLimiter ) );
 
         if ( config.get( GraphDatabaseInternalSettings.dump_configuration ) )
         {
@@ -379,6 +383,12 @@ public class GlobalModule
         return pageCache;
     }
 
+    private IOLimiter resolveIoLimiter()
+    {
+        // The edition registers its limiter once it has been created, which is after the page cache, but before the global life is started.
+        return globalDependencies.containsDependency( IOLimiter.class ) ? globalDependencies.resolveDependency( IOLimiter.class ) : IOLimiter.UNLIMITED;
+    }
+
     private static CollectionsFactorySupplier createCollectionsFactorySupplier( Config config, LifeSupport life )
     {
         final TransactionStateMemoryAllocation allocation = config.get( tx_state_memory_allocation );
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.counts;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.index.internal.gbptree.BulkLoader;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.util.concurrent.OutOfOrderSequence;
+
+import static org.apache.commons.lang3.ArrayUtils.EMPTY_LONG_ARRAY;
+
+/**
+ * Used when building the counts store from scratch. Counts are kept in memory, overwriting each other like in {@link TreeWriter},
+ * and on close they are sorted and loaded bottom up into the empty tree using a {@link BulkLoader}.
+ */
+class BulkLoadWriter implements CountUpdater.CountWriter
+{
+    private static final double FILL_FACTOR = 1;
+
+    private final GBPTree<CountsKey,CountsValue> tree;
+    private final CountsLayout layout;
+    private final OutOfOrderSequence idSequence;
+    private final long txId;
+    private final PageCursorTracer cursorTracer;
+    private final Map<CountsKey,Long> counts = new HashMap<>();
+
+    BulkLoadWriter( GBPTree<CountsKey,CountsValue> tree, CountsLayout layout, OutOfOrderSequence idSequence, long txId, PageCursorTracer cursorTracer )
+    {
+        this.tree = tree;
+        this.layout = layout;
+        this.idSequence = idSequence;
+        this.txId = txId;
+        this.cursorTracer = cursorTracer;
+    }
+
+    @Override
+    public void write( CountsKey key, long delta )
+    {
+        if ( delta > 0 )
+        {
+            counts.put( key, delta );
+        }
+        else if ( delta == 0 )
+        {
+            counts.remove( key );
+        }
+        else
+        {
+            throw new IllegalStateException( "Count for " + key + " got negative: " + delta );
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        List<Map.Entry<CountsKey,Long>> sortedCounts = new ArrayList<>( counts.entrySet() );
+        sortedCounts.sort( ( e1, e2 ) -> layout.compare( e1.getKey(), e2.getKey() ) );
+        try ( BulkLoader<CountsKey,CountsValue> bulkLoader = tree.bulkLoader( FILL_FACTOR, cursorTracer ) )
+        {
+            CountsValue value = new CountsValue();
+            for ( Map.Entry<CountsKey,Long> entry : sortedCounts )
+            {
+                bulkLoader.add( entry.getKey(), value.initialize( entry.getValue() ) );
+            }
+            bulkLoader.finish();
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+        idSequence.set( txId, EMPTY_LONG_ARRAY );
+    }
+}
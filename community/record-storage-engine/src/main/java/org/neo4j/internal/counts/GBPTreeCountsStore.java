@@ -30,6 +30,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -56,8 +58,12 @@ import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.memory.MemoryTracker;
+import org.neo4j.scheduler.CallableExecutor;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.util.Preconditions;
 import org.neo4j.util.concurrent.ArrayQueueOutOfOrderSequence;
+import org.neo4j.util.concurrent.Futures;
 import org.neo4j.util.concurrent.OutOfOrderSequence;
 
 import static org.eclipse.collections.api.factory.Sets.immutable;
@@ -84,6 +90,12 @@ public class GBPTreeCountsStore implements CountsStore
     public static final Monitor NO_MONITOR = txId -> {};
     private static final long NEEDS_REBUILDING_HIGH_ID = 0;
     private static final String OPEN_COUNT_STORE_TAG = "openCountStore";
+    private static final String WRITE_COUNTS_CHANGES_TAG = "writeCountsChanges";
+    /**
+     * Checkpoints with at least this many changes write them to the tree in partitions of at least this size, in parallel,
+     * if there's a {@link JobScheduler} to run the partitions on.
+     */
+    private static final int PARALLEL_WRITE_PARTITION_SIZE = 10_000;
 
     private final GBPTree<CountsKey,CountsValue> tree;
     private final OutOfOrderSequence idSequence;
@@ -92,15 +104,30 @@ public class GBPTreeCountsStore implements CountsStore
     private final CountsBuilder initialCountsBuilder;
     private final boolean readOnly;
     private final Monitor monitor;
+    private final PageCacheTracer pageCacheTracer;
+    private final JobScheduler jobScheduler;
     private volatile ConcurrentHashMap<CountsKey,AtomicLong> changes = new ConcurrentHashMap<>();
     private final TxIdInformation txIdInformation;
     private volatile boolean started;
 
     public GBPTreeCountsStore( PageCache pageCache, Path file, FileSystemAbstraction fileSystem, RecoveryCleanupWorkCollector recoveryCollector,
             CountsBuilder initialCountsBuilder, boolean readOnly, PageCacheTracer pageCacheTracer, Monitor monitor ) throws IOException
+    {
+        this( pageCache, file, fileSystem, recoveryCollector, initialCountsBuilder, readOnly, pageCacheTracer, monitor, null );
+    }
+
+    /**
+     * @param jobScheduler {@link JobScheduler} to write the changes of large checkpoints on in parallel, or {@code null} to always write
+     * them in the checkpointing thread.
+     */
+    public GBPTreeCountsStore( PageCache pageCache, Path file, FileSystemAbstraction fileSystem, RecoveryCleanupWorkCollector recoveryCollector,
+            CountsBuilder initialCountsBuilder, boolean readOnly, PageCacheTracer pageCacheTracer, Monitor monitor, JobScheduler jobScheduler )
+            throws IOException
     {
         this.readOnly = readOnly;
         this.monitor = monitor;
+        this.pageCacheTracer = pageCacheTracer;
+        this.jobScheduler = jobScheduler;
 
         // First just read the header so that we can avoid creating it if this store is read-only
         CountsHeader header = new CountsHeader( NEEDS_REBUILDING_HIGH_ID );
@@ -167,7 +194,7 @@ public class GBPTreeCountsStore implements CountsStore
             }
             Lock lock = lock( this.lock.writeLock() );
             long txId = initialCountsBuilder.lastCommittedTxId();
-            try ( CountsAccessor.Updater updater = new CountUpdater( new TreeWriter( tree.writer( cursorTracer ), idSequence, txId ), lock ) )
+            try ( CountsAccessor.Updater updater = new CountUpdater( new BulkLoadWriter( tree, layout, idSequence, txId, cursorTracer ), lock ) )
             {
                 initialCountsBuilder.initialize( updater, cursorTracer, memoryTracker );
             }
@@ -258,14 +285,58 @@ public class GBPTreeCountsStore implements CountsStore
         // Sort the entries in the natural tree order to get more performance in the writer
         List<Map.Entry<CountsKey,AtomicLong>> changeList = new ArrayList<>( changes.entrySet() );
         changeList.sort( ( e1, e2 ) -> layout.compare( e1.getKey(), e2.getKey() ) );
-        try ( Writer<CountsKey,CountsValue> writer = tree.writer( cursorTracer ) )
+        int partitions = jobScheduler == null ? 1 : Math.min( Runtime.getRuntime().availableProcessors(), changeList.size() / PARALLEL_WRITE_PARTITION_SIZE );
+        if ( partitions <= 1 )
         {
-            CountsValue value = new CountsValue();
-            for ( Map.Entry<CountsKey,AtomicLong> entry : changeList )
+            try ( Writer<CountsKey,CountsValue> writer = tree.writer( cursorTracer ) )
             {
-                long count = entry.getValue().get();
-                merge( writer, entry.getKey(), value.initialize( count ) );
+                writeCountsChanges( writer, changeList );
             }
+            return;
+        }
+
+        // Appliers are blocked while the changes are written, so write contiguous ranges of keys with one concurrent writer each,
+        // which mostly change different leaves of the tree
+        CallableExecutor executor = jobScheduler.executor( Group.COUNTS_STORE_CHECKPOINT );
+        int partitionSize = (changeList.size() + partitions - 1) / partitions;
+        List<Future<Void>> futures = new ArrayList<>( partitions );
+        for ( int partition = 0; partition < partitions; partition++ )
+        {
+            List<Map.Entry<CountsKey,AtomicLong>> partitionChanges =
+                    changeList.subList( partition * partitionSize, Math.min( changeList.size(), (partition + 1) * partitionSize ) );
+            futures.add( executor.submit( () -> writeCountsChangesPartition( partitionChanges ) ) );
+        }
+        try
+        {
+            Futures.getAll( futures );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof IOException )
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new UnderlyingStorageException( e.getCause() );
+        }
+    }
+
+    private Void writeCountsChangesPartition( List<Map.Entry<CountsKey,AtomicLong>> partitionChanges ) throws IOException
+    {
+        try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( WRITE_COUNTS_CHANGES_TAG );
+              Writer<CountsKey,CountsValue> writer = tree.concurrentWriter( cursorTracer ) )
+        {
+            writeCountsChanges( writer, partitionChanges );
+        }
+        return null;
+    }
+
+    private static void writeCountsChanges( Writer<CountsKey,CountsValue> writer, List<Map.Entry<CountsKey,AtomicLong>> changeList )
+    {
+        CountsValue value = new CountsValue();
+        for ( Map.Entry<CountsKey,AtomicLong> entry : changeList )
+        {
+            long count = entry.getValue().get();
+            merge( writer, entry.getKey(), value.initialize( count ) );
         }
     }
 
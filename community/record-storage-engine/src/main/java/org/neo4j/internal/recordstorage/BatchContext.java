@@ -50,6 +50,7 @@ public class BatchContext implements AutoCloseable
     private final PageCursorTracer cursorTracer;
     private final MemoryTracker memoryTracker;
     private final IdUpdateListener idUpdateListener;
+    private final PartitionedRecordUpdates recordUpdates;
 
     private final IndexActivator indexActivator;
     private final LockGroup lockGroup;
@@ -63,6 +64,17 @@ public class BatchContext implements AutoCloseable
             WorkSync<IndexUpdateListener,IndexUpdatesWork> indexUpdatesSync, NodeStore nodeStore, PropertyStore propertyStore,
             RecordStorageEngine recordStorageEngine, SchemaCache schemaCache, PageCursorTracer cursorTracer, MemoryTracker memoryTracker,
             IdUpdateListener idUpdateListener )
+    {
+        this( indexUpdateListener, labelScanStoreSync, relationshipTypeScanStoreSync, indexUpdatesSync, nodeStore, propertyStore, recordStorageEngine,
+                schemaCache, cursorTracer, memoryTracker, idUpdateListener, null );
+    }
+
+    BatchContext( IndexUpdateListener indexUpdateListener,
+            WorkSync<EntityTokenUpdateListener,TokenUpdateWork> labelScanStoreSync,
+            WorkSync<EntityTokenUpdateListener,TokenUpdateWork> relationshipTypeScanStoreSync,
+            WorkSync<IndexUpdateListener,IndexUpdatesWork> indexUpdatesSync, NodeStore nodeStore, PropertyStore propertyStore,
+            RecordStorageEngine recordStorageEngine, SchemaCache schemaCache, PageCursorTracer cursorTracer, MemoryTracker memoryTracker,
+            IdUpdateListener idUpdateListener, PartitionedRecordUpdates recordUpdates )
     {
         this.indexActivator = new IndexActivator( indexUpdateListener );
         this.labelScanStoreSync = labelScanStoreSync;
@@ -75,6 +87,7 @@ public class BatchContext implements AutoCloseable
         this.cursorTracer = cursorTracer;
         this.memoryTracker = memoryTracker;
         this.idUpdateListener = idUpdateListener;
+        this.recordUpdates = recordUpdates;
         this.lockGroup = new LockGroup();
     }
 
@@ -164,6 +177,27 @@ public class BatchContext implements AutoCloseable
         return idUpdateListener;
     }
 
+    /**
+     * @return record updates to be written in parallel, or {@code null} if records should be written directly by the applying thread.
+     */
+    PartitionedRecordUpdates getRecordUpdates()
+    {
+        return recordUpdates;
+    }
+
+    /**
+     * Writes the records updated by the transaction being applied, if they have been collected for writing in parallel.
+     * Must be called after all commands of the transaction have been visited and before the appliers are closed, since they may read
+     * the records back when closing, e.g. to produce index updates.
+     */
+    public void applyPendingRecordUpdates() throws Exception
+    {
+        if ( recordUpdates != null )
+        {
+            recordUpdates.apply( idUpdateListener, cursorTracer );
+        }
+    }
+
     public List<EntityTokenUpdate> labelUpdates()
     {
         if ( labelUpdates == null )
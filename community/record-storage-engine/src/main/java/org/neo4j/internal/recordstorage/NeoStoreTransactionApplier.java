@@ -49,6 +49,7 @@ public class NeoStoreTransactionApplier extends TransactionApplier.Adapter
     private final CacheAccessBackDoor cacheAccess;
     private final LockService lockService;
     private final IdUpdateListener idUpdateListener;
+    private final PartitionedRecordUpdates recordUpdates;
     private final PageCursorTracer cursorTracer;
 
     public NeoStoreTransactionApplier( CommandVersion version, NeoStores neoStores, CacheAccessBackDoor cacheAccess, LockService lockService,
@@ -61,6 +62,7 @@ public class NeoStoreTransactionApplier extends TransactionApplier.Adapter
         this.neoStores = neoStores;
         this.cacheAccess = cacheAccess;
         this.idUpdateListener = batchContext.getIdUpdateListener();
+        this.recordUpdates = batchContext.getRecordUpdates();
         this.cursorTracer = cursorTracer;
     }
 
@@ -71,7 +73,7 @@ public class NeoStoreTransactionApplier extends TransactionApplier.Adapter
         lockGroup.add( lockService.acquireNodeLock( command.getKey(), EXCLUSIVE ) );
 
         // update store
-        updateStore( neoStores.getNodeStore(), command );
+        updateEntityStore( neoStores.getNodeStore(), command );
         return false;
     }
 
@@ -80,7 +82,7 @@ public class NeoStoreTransactionApplier extends TransactionApplier.Adapter
     {
         lockGroup.add( lockService.acquireRelationshipLock( command.getKey(), EXCLUSIVE ) );
 
-        updateStore( neoStores.getRelationshipStore(), command );
+        updateEntityStore( neoStores.getRelationshipStore(), command );
         return false;
     }
 
@@ -97,14 +99,14 @@ public class NeoStoreTransactionApplier extends TransactionApplier.Adapter
             lockGroup.add( lockService.acquireRelationshipLock( command.getRelId(), EXCLUSIVE ) );
         }
 
-        updateStore( neoStores.getPropertyStore(), command );
+        updateEntityStore( neoStores.getPropertyStore(), command );
         return false;
     }
 
     @Override
     public boolean visitRelationshipGroupCommand( Command.RelationshipGroupCommand command )
     {
-        updateStore( neoStores.getRelationshipGroupStore(), command );
+        updateEntityStore( neoStores.getRelationshipGroupStore(), command );
         return false;
     }
 
@@ -175,6 +177,22 @@ public class NeoStoreTransactionApplier extends TransactionApplier.Adapter
         }
     }
 
+    /**
+     * Updates records of the graph itself, which may be handed to {@link PartitionedRecordUpdates} for being written in parallel.
+     * Token and schema records are always written directly, since caches are updated from them as part of applying the command.
+     */
+    private <RECORD extends AbstractBaseRecord> void updateEntityStore( CommonAbstractStore<RECORD,?> store, BaseCommand<RECORD> command )
+    {
+        if ( recordUpdates != null )
+        {
+            recordUpdates.add( store, selectRecordByCommandVersion( command ) );
+        }
+        else
+        {
+            updateStore( store, command );
+        }
+    }
+
     private <RECORD extends AbstractBaseRecord> void updateStore( CommonAbstractStore<RECORD,?> store, BaseCommand<RECORD> command )
     {
         store.updateRecord( selectRecordByCommandVersion( command ), idUpdateListener, cursorTracer );
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import org.neo4j.internal.id.IdGenerator;
+import org.neo4j.internal.id.IdType;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.store.CommonAbstractStore;
+import org.neo4j.kernel.impl.store.IdUpdateListener;
+import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
+import org.neo4j.scheduler.CallableExecutor;
+import org.neo4j.util.concurrent.Futures;
+
+/**
+ * Record updates of a transaction, partitioned by the store page the records are on, for being written to the stores by multiple threads.
+ * All updates to a page end up in the same partition and each partition is written by a single thread, in the order the updates were added,
+ * so that ordering of updates to the same record is kept. There are no ordering guarantees between updates in different partitions,
+ * which is fine for updates made by a single transaction, since they are all to different records.
+ * <p>
+ * Id updates coming out of writing the records are collected per partition and handed to the {@link IdUpdateListener} of the batch
+ * by the applying thread, since it isn't thread safe.
+ */
+class PartitionedRecordUpdates
+{
+    private static final String PARALLEL_APPLY_TAG = "parallelRecordApply";
+
+    private final CallableExecutor executor;
+    private final PageCacheTracer pageCacheTracer;
+    private final int minUpdatesForParallelApply;
+    private final List<List<RecordUpdate<?>>> partitions;
+    private int size;
+
+    PartitionedRecordUpdates( CallableExecutor executor, int numberOfPartitions, int minUpdatesForParallelApply, PageCacheTracer pageCacheTracer )
+    {
+        this.executor = executor;
+        this.pageCacheTracer = pageCacheTracer;
+        this.minUpdatesForParallelApply = minUpdatesForParallelApply;
+        this.partitions = new ArrayList<>( numberOfPartitions );
+        for ( int i = 0; i < numberOfPartitions; i++ )
+        {
+            partitions.add( new ArrayList<>() );
+        }
+    }
+
+    <RECORD extends AbstractBaseRecord> void add( CommonAbstractStore<RECORD,?> store, RECORD record )
+    {
+        partitions.get( partition( store, record.getId() ) ).add( new RecordUpdate<>( store, record ) );
+        size++;
+    }
+
+    /**
+     * Writes all added updates to their stores and clears this instance, so that it can be used for the next transaction.
+     * Returns when all updates have been written.
+     */
+    void apply( IdUpdateListener idUpdateListener, PageCursorTracer cursorTracer ) throws Exception
+    {
+        if ( size == 0 )
+        {
+            return;
+        }
+        try
+        {
+            if ( size < minUpdatesForParallelApply )
+            {
+                for ( List<RecordUpdate<?>> partition : partitions )
+                {
+                    for ( RecordUpdate<?> update : partition )
+                    {
+                        update.apply( idUpdateListener, cursorTracer );
+                    }
+                }
+                return;
+            }
+
+            List<Future<CollectingIdUpdateListener>> futures = new ArrayList<>( partitions.size() );
+            for ( List<RecordUpdate<?>> partition : partitions )
+            {
+                if ( !partition.isEmpty() )
+                {
+                    futures.add( executor.submit( () -> applyPartition( partition ) ) );
+                }
+            }
+            for ( CollectingIdUpdateListener idUpdates : Futures.getAllResults( futures ) )
+            {
+                idUpdates.replay( idUpdateListener, cursorTracer );
+            }
+        }
+        finally
+        {
+            clear();
+        }
+    }
+
+    private CollectingIdUpdateListener applyPartition( List<RecordUpdate<?>> partition )
+    {
+        CollectingIdUpdateListener idUpdates = new CollectingIdUpdateListener();
+        try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( PARALLEL_APPLY_TAG ) )
+        {
+            for ( RecordUpdate<?> update : partition )
+            {
+                update.apply( idUpdates, cursorTracer );
+            }
+        }
+        return idUpdates;
+    }
+
+    private void clear()
+    {
+        for ( List<RecordUpdate<?>> partition : partitions )
+        {
+            partition.clear();
+        }
+        size = 0;
+    }
+
+    private int partition( CommonAbstractStore<?,?> store, long id )
+    {
+        long pageId = id / store.getRecordsPerPage();
+        long hash = (pageId + System.identityHashCode( store )) * 0x9E3779B97F4A7C15L;
+        return (int) ((hash >>> 32) % partitions.size());
+    }
+
+    private static class RecordUpdate<RECORD extends AbstractBaseRecord>
+    {
+        private final CommonAbstractStore<RECORD,?> store;
+        private final RECORD record;
+
+        RecordUpdate( CommonAbstractStore<RECORD,?> store, RECORD record )
+        {
+            this.store = store;
+            this.record = record;
+        }
+
+        void apply( IdUpdateListener idUpdateListener, PageCursorTracer cursorTracer )
+        {
+            store.updateRecord( record, idUpdateListener, cursorTracer );
+        }
+    }
+
+    private static class CollectingIdUpdateListener implements IdUpdateListener
+    {
+        private final List<IdUpdate> updates = new ArrayList<>();
+
+        @Override
+        public void markIdAsUsed( IdType idType, IdGenerator idGenerator, long id, PageCursorTracer cursorTracer )
+        {
+            updates.add( new IdUpdate( idType, idGenerator, id, true ) );
+        }
+
+        @Override
+        public void markIdAsUnused( IdType idType, IdGenerator idGenerator, long id, PageCursorTracer cursorTracer )
+        {
+            updates.add( new IdUpdate( idType, idGenerator, id, false ) );
+        }
+
+        void replay( IdUpdateListener idUpdateListener, PageCursorTracer cursorTracer )
+        {
+            for ( IdUpdate update : updates )
+            {
+                if ( update.used )
+                {
+                    idUpdateListener.markIdAsUsed( update.idType, update.idGenerator, update.id, cursorTracer );
+                }
+                else
+                {
+                    idUpdateListener.markIdAsUnused( update.idType, update.idGenerator, update.id, cursorTracer );
+                }
+            }
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    private static class IdUpdate
+    {
+        private final IdType idType;
+        private final IdGenerator idGenerator;
+        private final long id;
+        private final boolean used;
+
+        IdUpdate( IdType idType, IdGenerator idGenerator, long id, boolean used )
+        {
+            this.idType = idType;
+            this.idGenerator = idGenerator;
+            this.id = id;
+            this.used = used;
+        }
+    }
+}
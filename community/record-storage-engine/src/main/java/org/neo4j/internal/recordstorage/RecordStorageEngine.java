@@ -74,6 +74,9 @@ import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.memory.MemoryTracker;
 import org.neo4j.monitoring.Health;
+import org.neo4j.scheduler.CallableExecutor;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.CommandCreationContext;
 import org.neo4j.storageengine.api.CommandsToApply;
 import org.neo4j.storageengine.api.ConstraintRuleAccessor;
@@ -117,6 +120,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     private final ConstraintRuleAccessor constraintSemantics;
     private final LockService lockService;
     private final boolean consistencyCheckApply;
+    private final JobScheduler jobScheduler;
     private WorkSync<EntityTokenUpdateListener,TokenUpdateWork> labelScanStoreSync;
     private WorkSync<EntityTokenUpdateListener,TokenUpdateWork> relationshipTypeScanStoreSync;
     private WorkSync<IndexUpdateListener,IndexUpdatesWork> indexUpdatesSync;
@@ -125,11 +129,15 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     private final MemoryTracker otherMemoryTracker;
     private final GBPTreeCountsStore countsStore;
     private final int denseNodeThreshold;
+    private final int parallelApplyThreads;
+    private final int recoveryApplyThreads;
+    private final int parallelApplyMinUpdates;
     private final Map<IdType,WorkSync<IdGenerator,IdGeneratorUpdateWork>> idGeneratorWorkSyncs = new EnumMap<>( IdType.class );
     private final Map<TransactionApplicationMode,TransactionApplierFactoryChain> applierChains = new EnumMap<>( TransactionApplicationMode.class );
 
     // installed later
     private IndexUpdateListener indexUpdateListener;
+    private CallableExecutor parallelApplyExecutor;
     private EntityTokenUpdateListener nodeLabelUpdateListener;
     private EntityTokenUpdateListener relationshipTypeUpdateListener;
 
@@ -138,6 +146,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             PageCache pageCache,
             FileSystemAbstraction fs,
             LogProvider logProvider,
+            JobScheduler jobScheduler,
             TokenHolders tokenHolders,
             SchemaState schemaState,
             ConstraintRuleAccessor constraintSemantics,
@@ -152,6 +161,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             MemoryTracker otherMemoryTracker )
     {
         this.databaseLayout = databaseLayout;
+        this.jobScheduler = jobScheduler;
         this.tokenHolders = tokenHolders;
         this.schemaState = schemaState;
         this.lockService = lockService;
@@ -181,6 +191,9 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             countsStore = openCountsStore( pageCache, fs, databaseLayout, config, logProvider, recoveryCleanupWorkCollector, cacheTracer );
 
             consistencyCheckApply = config.get( GraphDatabaseInternalSettings.consistency_check_on_apply );
+            parallelApplyThreads = config.get( GraphDatabaseInternalSettings.parallel_apply_threads );
+            recoveryApplyThreads = config.get( GraphDatabaseInternalSettings.recovery_parallel_apply_threads );
+            parallelApplyMinUpdates = config.get( GraphDatabaseInternalSettings.parallel_apply_min_updates );
         }
         catch ( Throwable failure )
         {
@@ -250,7 +263,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
                 {
                     return neoStores.getMetaDataStore().getLastCommittedTransactionId();
                 }
-            }, readOnly, pageCacheTracer, GBPTreeCountsStore.NO_MONITOR );
+            }, readOnly, pageCacheTracer, GBPTreeCountsStore.NO_MONITOR, jobScheduler );
         }
         catch ( IOException e )
         {
@@ -350,13 +363,15 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         CommandsToApply initialBatch = batch;
         try ( BatchContext context = new BatchContext( indexUpdateListener, labelScanStoreSync, relationshipTypeScanStoreSync, indexUpdatesSync,
                 neoStores.getNodeStore(), neoStores.getPropertyStore(), this, schemaCache, initialBatch.cursorTracer(), otherMemoryTracker,
-                batchApplier.getIdUpdateListenerSupplier().get() ) )
+                batchApplier.getIdUpdateListenerSupplier().get(), partitionedRecordUpdates( mode ) ) )
         {
             while ( batch != null )
             {
                 try ( TransactionApplier txApplier = batchApplier.startTx( batch, context ) )
                 {
                     batch.accept( txApplier );
+                    // Records are written per transaction, keeping the order between transactions in the batch
+                    context.applyPendingRecordUpdates();
                 }
                 batch = batch.next();
             }
@@ -370,6 +385,13 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         }
     }
 
+    private PartitionedRecordUpdates partitionedRecordUpdates( TransactionApplicationMode mode )
+    {
+        CallableExecutor executor = parallelApplyExecutor;
+        int partitions = mode == RECOVERY ? recoveryApplyThreads : parallelApplyThreads;
+        return executor == null || partitions == 0 ? null : new PartitionedRecordUpdates( executor, partitions, parallelApplyMinUpdates, cacheTracer );
+    }
+
     /**
      * Provides a {@link TransactionApplierFactoryChain} that is to be used for all transactions
      * in a batch. Each transaction is handled by a {@link TransactionApplierFacade} which wraps the
@@ -389,6 +411,12 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     public void init()
     {
         buildApplierChains();
+        // Started on init rather than start, for recovery to write records in parallel too.
+        // The job scheduler limits the group to the configured number of parallel apply threads, if any, see GlobalModule.
+        if ( parallelApplyThreads > 0 || recoveryApplyThreads > 0 )
+        {
+            parallelApplyExecutor = jobScheduler.executor( Group.STORAGE_PARALLEL_APPLY );
+        }
     }
 
     @Override
@@ -417,10 +445,16 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         executeAll( idController::stop );
     }
 
+    private void stopParallelApply()
+    {
+        // The threads themselves are managed by the job scheduler
+        parallelApplyExecutor = null;
+    }
+
     @Override
     public void shutdown() throws Exception
     {
-        executeAll( countsStore::close, neoStores::close );
+        executeAll( this::stopParallelApply, countsStore::close, neoStores::close );
     }
 
     @Override
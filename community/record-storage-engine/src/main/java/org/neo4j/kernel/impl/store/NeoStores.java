@@ -51,6 +51,7 @@ import org.neo4j.logging.LogProvider;
 import org.neo4j.storageengine.api.format.CapabilityType;
 
 import static org.apache.commons.lang3.ArrayUtils.contains;
+import static org.neo4j.io.pagecache.PageCacheOpenOptions.COMPRESSED;
 import static org.neo4j.kernel.impl.store.MetaDataStore.Position.STORE_VERSION;
 import static org.neo4j.kernel.impl.store.MetaDataStore.versionLongToString;
 
@@ -456,18 +457,20 @@ public class NeoStores implements AutoCloseable
         return initialize( new PropertyStore( layout.propertyStore(), layout.idPropertyStore(), config, idGeneratorFactory, pageCache,
                 logProvider, (DynamicStringStore) getOrOpenStore( StoreType.PROPERTY_STRING, cursorTracer ),
                 (PropertyKeyTokenStore) getOrOpenStore( StoreType.PROPERTY_KEY_TOKEN, cursorTracer ),
-                (DynamicArrayStore) getOrOpenStore( StoreType.PROPERTY_ARRAY, cursorTracer ), recordFormats, openOptions ), cursorTracer );
+                (DynamicArrayStore) getOrOpenStore( StoreType.PROPERTY_ARRAY, cursorTracer ), recordFormats, propertyStoreOpenOptions() ),
+                cursorTracer );
     }
 
     CommonAbstractStore createPropertyStringStore( PageCursorTracer cursorTracer )
     {
-        return createDynamicStringStore( layout.propertyStringStore(), layout.idPropertyStringStore(), cursorTracer );
+        return createDynamicStringStore( layout.propertyStringStore(), layout.idPropertyStringStore(), IdType.STRING_BLOCK,
+                config.get( GraphDatabaseInternalSettings.string_block_size ), propertyStoreOpenOptions(), cursorTracer );
     }
 
     CommonAbstractStore createPropertyArrayStore( PageCursorTracer cursorTracer )
     {
         return createDynamicArrayStore( layout.propertyArrayStore(), layout.idPropertyArrayStore(), IdType.ARRAY_BLOCK,
-                GraphDatabaseInternalSettings.array_block_size, cursorTracer );
+                config.get( GraphDatabaseInternalSettings.array_block_size ), propertyStoreOpenOptions(), cursorTracer );
     }
 
     CommonAbstractStore createRelationshipStore( PageCursorTracer cursorTracer )
@@ -528,16 +531,17 @@ public class NeoStores implements AutoCloseable
                         recordFormats.metaData(), recordFormats.storeVersion(), pageCacheTracer, openOptions ), cursorTracer );
     }
 
-    private CommonAbstractStore createDynamicStringStore( Path storeFile, Path idFile, PageCursorTracer cursorTracer )
+    private CommonAbstractStore createDynamicStringStore( Path storeFile, Path idFile, IdType idType, int blockSize, PageCursorTracer cursorTracer )
     {
-        return createDynamicStringStore( storeFile, idFile, IdType.STRING_BLOCK, config.get( GraphDatabaseInternalSettings.string_block_size ), cursorTracer );
+        return createDynamicStringStore( storeFile, idFile, idType, blockSize, openOptions, cursorTracer );
     }
 
-    private CommonAbstractStore createDynamicStringStore( Path storeFile, Path idFile, IdType idType, int blockSize, PageCursorTracer cursorTracer )
+    private CommonAbstractStore createDynamicStringStore( Path storeFile, Path idFile, IdType idType, int blockSize, ImmutableSet<OpenOption> storeOpenOptions,
+            PageCursorTracer cursorTracer )
     {
         return initialize( new DynamicStringStore( storeFile, idFile, config, idType, idGeneratorFactory,
                 pageCache, logProvider, blockSize, recordFormats.dynamic(), recordFormats.storeVersion(),
-                openOptions ), cursorTracer );
+                storeOpenOptions ), cursorTracer );
     }
 
     private CommonAbstractStore createDynamicArrayStore( Path storeFile, Path idFile, IdType idType, Setting<Integer> blockSizeProperty,
@@ -547,13 +551,29 @@ public class NeoStores implements AutoCloseable
     }
 
     CommonAbstractStore createDynamicArrayStore( Path storeFile, Path idFile, IdType idType, int blockSize, PageCursorTracer cursorTracer )
+    {
+        return createDynamicArrayStore( storeFile, idFile, idType, blockSize, openOptions, cursorTracer );
+    }
+
+    private CommonAbstractStore createDynamicArrayStore( Path storeFile, Path idFile, IdType idType, int blockSize, ImmutableSet<OpenOption> storeOpenOptions,
+            PageCursorTracer cursorTracer )
     {
         if ( blockSize <= 0 )
         {
             throw new IllegalArgumentException( "Block size of dynamic array store should be positive integer." );
         }
         return initialize( new DynamicArrayStore( storeFile, idFile, config, idType, idGeneratorFactory, pageCache,
-                logProvider, blockSize, recordFormats, openOptions ), cursorTracer );
+                logProvider, blockSize, recordFormats, storeOpenOptions ), cursorTracer );
+    }
+
+    /**
+     * The property stores are usually much larger than the working set and compress well, so they are the ones that are mapped with compression.
+     * Whether they are created compressed is up to the page swapper factory of the page cache, which also decides from the files themselves whether
+     * existing files are compressed, so the option is passed regardless of the configured compression.
+     */
+    private ImmutableSet<OpenOption> propertyStoreOpenOptions()
+    {
+        return openOptions.newWith( COMPRESSED );
     }
 
     @SuppressWarnings( "unchecked" )
@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.nio.file.OpenOption;
 
 import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
 import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.exceptions.UnderlyingStorageException;
 import org.neo4j.internal.id.IdGeneratorFactory;
@@ -38,6 +39,7 @@ import org.neo4j.logging.LogProvider;
 
 import static org.eclipse.collections.api.factory.Sets.immutable;
 import static org.neo4j.io.pagecache.PageCacheOpenOptions.DIRECT;
+import static org.neo4j.io.pagecache.PageCacheOpenOptions.READ_AHEAD;
 import static org.neo4j.kernel.impl.store.format.RecordFormatPropertyConfigurator.configureRecordFormat;
 import static org.neo4j.kernel.impl.store.format.RecordFormatSelector.selectForStoreOrConfig;
 
@@ -138,6 +140,11 @@ public class StoreFactory
 
     private static ImmutableSet<OpenOption> buildOpenOptions( Config config, RecordFormats recordFormats, ImmutableSet<OpenOption> openOptions )
     {
+        if ( config.get( GraphDatabaseInternalSettings.pagecache_read_ahead ) && !openOptions.contains( READ_AHEAD ) )
+        {
+            openOptions = openOptions.newWith( READ_AHEAD );
+        }
+
         // we need to modify options only for aligned format and avoid passing direct io option in all other cases
         if ( recordFormats.getFormatFamily() != AlignedFormatFamily.INSTANCE )
         {
@@ -59,6 +59,7 @@ import org.neo4j.test.extension.RandomExtension;
 import org.neo4j.test.extension.pagecache.PageCacheExtension;
 import org.neo4j.test.rule.RandomRule;
 import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
 import org.neo4j.util.concurrent.ArrayQueueOutOfOrderSequence;
 import org.neo4j.util.concurrent.OutOfOrderSequence;
 
@@ -230,6 +231,38 @@ class GBPTreeCountsStoreTest
         assertEquals( 5, countsStore.relationshipCount( LABEL_ID_1, RELATIONSHIP_TYPE_ID_2, LABEL_ID_2, NULL ) );
     }
 
+    @Test
+    void shouldWriteChangesOfLargeCheckpointsInParallelOnJobScheduler() throws Exception
+    {
+        // given
+        closeCountsStore();
+        int numberOfLabels = 50_000;
+        try ( ThreadPoolJobScheduler jobScheduler = new ThreadPoolJobScheduler() )
+        {
+            countsStore = new GBPTreeCountsStore( pageCache, countsStoreFile(), fs, immediate(), CountsBuilder.EMPTY, false, PageCacheTracer.NULL,
+                    NO_MONITOR, jobScheduler );
+            countsStore.start( NULL, INSTANCE );
+            try ( CountsAccessor.Updater updater = countsStore.apply( BASE_TX_ID + 1, NULL ) )
+            {
+                for ( int labelId = 0; labelId < numberOfLabels; labelId++ )
+                {
+                    updater.incrementNodeCount( labelId, labelId + 1 );
+                }
+            }
+
+            // when
+            countsStore.checkpoint( UNLIMITED, NULL );
+            closeCountsStore();
+        }
+
+        // then
+        openCountsStore();
+        for ( int labelId = 0; labelId < numberOfLabels; labelId++ )
+        {
+            assertEquals( labelId + 1, countsStore.nodeCount( labelId, NULL ) );
+        }
+    }
+
     @Test
     void shouldCheckpointAndRecoverConsistentlyUnderStressfulLoad() throws Throwable
     {
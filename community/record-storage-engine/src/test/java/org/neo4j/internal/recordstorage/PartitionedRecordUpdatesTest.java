@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.neo4j.internal.id.IdGenerator;
+import org.neo4j.internal.id.IdType;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.store.IdUpdateListener;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.scheduler.CallableExecutorService;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+class PartitionedRecordUpdatesTest
+{
+    private static final int RECORDS_PER_PAGE = 10;
+
+    private final NodeStore nodeStore = mock( NodeStore.class );
+    private final IdGenerator idGenerator = mock( IdGenerator.class );
+    private final List<Long> appliedIds = new CopyOnWriteArrayList<>();
+    private final Map<Long,Thread> applyingThreadByPage = new ConcurrentHashMap<>();
+    private final Map<Long,Boolean> pageAppliedByOneThread = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp()
+    {
+        executor = Executors.newFixedThreadPool( 4 );
+        when( nodeStore.getRecordsPerPage() ).thenReturn( RECORDS_PER_PAGE );
+        doAnswer( invocation ->
+        {
+            NodeRecord record = invocation.getArgument( 0 );
+            IdUpdateListener listener = invocation.getArgument( 1 );
+            long pageId = record.getId() / RECORDS_PER_PAGE;
+            Thread previous = applyingThreadByPage.putIfAbsent( pageId, Thread.currentThread() );
+            pageAppliedByOneThread.merge( pageId, previous == null || previous == Thread.currentThread(), Boolean::logicalAnd );
+            appliedIds.add( record.getId() );
+            listener.markIdAsUsed( IdType.NODE, idGenerator, record.getId(), invocation.getArgument( 2 ) );
+            return null;
+        } ).when( nodeStore ).updateRecord( any(), any(), any() );
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        executor.shutdown();
+    }
+
+    @Test
+    void shouldApplyUpdatesOfSamePageInOrderByOneThread() throws Exception
+    {
+        PartitionedRecordUpdates updates = new PartitionedRecordUpdates( new CallableExecutorService( executor ), 4, 1, PageCacheTracer.NULL );
+        int records = 1_000;
+        for ( int i = 0; i < records; i++ )
+        {
+            updates.add( nodeStore, new NodeRecord( i ) );
+        }
+        Thread applyingThread = Thread.currentThread();
+        List<Thread> listenerThreads = new CopyOnWriteArrayList<>();
+        IdUpdateListener listener = mock( IdUpdateListener.class );
+        doAnswer( invocation -> listenerThreads.add( Thread.currentThread() ) )
+                .when( listener ).markIdAsUsed( any(), any(), anyLong(), any() );
+
+        updates.apply( listener, NULL );
+
+        assertThat( appliedIds ).hasSize( records ).doesNotHaveDuplicates();
+        assertThat( pageAppliedByOneThread.values() ).containsOnly( true );
+        for ( long page = 0; page < records / RECORDS_PER_PAGE; page++ )
+        {
+            long pageId = page;
+            assertThat( appliedIds.stream().filter( id -> id / RECORDS_PER_PAGE == pageId ).collect( toList() ) ).isSorted();
+        }
+        // id updates are handed to the batch listener by the applying thread, since listeners aren't thread safe
+        verify( listener, times( records ) ).markIdAsUsed( eq( IdType.NODE ), eq( idGenerator ), anyLong(), eq( NULL ) );
+        assertThat( listenerThreads ).containsOnly( applyingThread );
+    }
+
+    @Test
+    void shouldApplySmallTransactionsOnApplyingThread() throws Exception
+    {
+        PartitionedRecordUpdates updates = new PartitionedRecordUpdates( new CallableExecutorService( executor ), 4, 100, PageCacheTracer.NULL );
+        for ( int i = 0; i < 99; i++ )
+        {
+            updates.add( nodeStore, new NodeRecord( i ) );
+        }
+        IdUpdateListener listener = mock( IdUpdateListener.class );
+
+        updates.apply( listener, NULL );
+
+        assertThat( appliedIds ).hasSize( 99 );
+        assertThat( applyingThreadByPage.values() ).containsOnly( Thread.currentThread() );
+        verify( listener, times( 99 ) ).markIdAsUsed( eq( IdType.NODE ), eq( idGenerator ), anyLong(), any( PageCursorTracer.class ) );
+    }
+
+    @Test
+    void shouldClearUpdatesWhenApplied() throws Exception
+    {
+        PartitionedRecordUpdates updates = new PartitionedRecordUpdates( new CallableExecutorService( executor ), 4, 1, PageCacheTracer.NULL );
+        updates.add( nodeStore, new NodeRecord( 1 ) );
+        updates.apply( IdUpdateListener.IGNORE, NULL );
+
+        updates.add( nodeStore, new NodeRecord( 2 ) );
+        updates.apply( IdUpdateListener.IGNORE, NULL );
+
+        assertThat( appliedIds ).containsExactly( 1L, 2L );
+    }
+}
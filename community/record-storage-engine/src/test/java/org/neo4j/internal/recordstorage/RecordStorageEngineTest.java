@@ -19,6 +19,7 @@
  */
 package org.neo4j.internal.recordstorage;
 
+import org.eclipse.collections.api.set.ImmutableSet;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -27,24 +28,34 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 
 import java.io.IOException;
+import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
 import org.neo4j.exceptions.KernelException;
 import org.neo4j.exceptions.UnderlyingStorageException;
 import org.neo4j.internal.helpers.collection.Visitor;
 import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.DelegatingPageCache;
+import org.neo4j.io.pagecache.DelegatingPagedFile;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.kernel.api.exceptions.Status;
 import org.neo4j.kernel.impl.store.IdUpdateListener;
+import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.lock.Lock;
 import org.neo4j.lock.LockService;
@@ -65,6 +76,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
@@ -72,6 +84,7 @@ import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
 import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
 import static org.neo4j.lock.LockType.EXCLUSIVE;
 
@@ -223,6 +236,72 @@ class RecordStorageEngineTest
         inOrder.verifyNoMoreInteractions();
     }
 
+    @Test
+    void shouldWriteRecordsOfLargeRecoveredTransactionsInParallel() throws Exception
+    {
+        // given
+        Set<Thread> nodeStoreWriters = ConcurrentHashMap.newKeySet();
+        PageCache recordingPageCache = new DelegatingPageCache( pageCache )
+        {
+            @Override
+            public PagedFile map( Path path, VersionContextSupplier versionContextSupplier, int pageSize, ImmutableSet<OpenOption> openOptions,
+                    String databaseName ) throws IOException
+            {
+                PagedFile pagedFile = super.map( path, versionContextSupplier, pageSize, openOptions, databaseName );
+                if ( !path.equals( databaseLayout.nodeStore() ) )
+                {
+                    return pagedFile;
+                }
+                return new DelegatingPagedFile( pagedFile )
+                {
+                    @Override
+                    public PageCursor io( long pageId, int pf_flags, PageCursorTracer tracer ) throws IOException
+                    {
+                        if ( (pf_flags & PF_SHARED_WRITE_LOCK) != 0 )
+                        {
+                            nodeStoreWriters.add( Thread.currentThread() );
+                        }
+                        return super.io( pageId, pf_flags, tracer );
+                    }
+                };
+            }
+        };
+        Config config = Config.newBuilder()
+                .set( GraphDatabaseInternalSettings.recovery_parallel_apply_threads, 4 )
+                .set( GraphDatabaseInternalSettings.parallel_apply_min_updates, 100 )
+                .build();
+        RecordStorageEngine engine = storageEngineRule.getWith( fs, recordingPageCache, databaseLayout )
+                .databaseHealth( databaseHealth )
+                .config( config )
+                .build();
+        int nodeCount = 1_000;
+        CommandsToApply commandsToApply = mock( CommandsToApply.class );
+        when( commandsToApply.cursorTracer() ).thenReturn( NULL );
+        when( commandsToApply.accept( any() ) ).thenAnswer( invocationOnMock ->
+        {
+            Visitor<StorageCommand,IOException> visitor = invocationOnMock.getArgument( 0 );
+            for ( long nodeId = 0; nodeId < nodeCount; nodeId++ )
+            {
+                NodeRecord after = new NodeRecord( nodeId );
+                after.setInUse( true );
+                visitor.visit( new Command.NodeCommand( new NodeRecord( nodeId ), after ) );
+            }
+            return null;
+        } );
+        nodeStoreWriters.clear();
+
+        // when
+        engine.apply( commandsToApply, TransactionApplicationMode.RECOVERY );
+
+        // then
+        assertThat( nodeStoreWriters ).isNotEmpty().doesNotContain( Thread.currentThread() );
+        NodeStore nodeStore = engine.testAccessNeoStores().getNodeStore();
+        for ( long nodeId = 0; nodeId < nodeCount; nodeId++ )
+        {
+            assertTrue( nodeStore.isInUse( nodeId, NULL ) );
+        }
+    }
+
     private RecordStorageEngine buildRecordStorageEngine()
     {
         return recordStorageEngineBuilder().build();
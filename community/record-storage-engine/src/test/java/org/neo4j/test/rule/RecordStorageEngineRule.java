@@ -49,10 +49,12 @@ import org.neo4j.memory.EmptyMemoryTracker;
 import org.neo4j.monitoring.DatabaseHealth;
 import org.neo4j.monitoring.Health;
 import org.neo4j.monitoring.PanicEventGenerator;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.ConstraintRuleAccessor;
 import org.neo4j.storageengine.api.EntityTokenUpdateListener;
 import org.neo4j.storageengine.api.IndexUpdateListener;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
 import org.neo4j.token.TokenHolders;
 import org.neo4j.token.api.TokenHolder;
 
@@ -70,6 +72,7 @@ import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.imme
 public class RecordStorageEngineRule extends ExternalResource
 {
     private final LifeSupport life = new LifeSupport();
+    private final JobScheduler jobScheduler = life.add( new ThreadPoolJobScheduler() );
 
     @Override
     public void before() throws Throwable
@@ -92,7 +95,7 @@ public class RecordStorageEngineRule extends ExternalResource
         IdGeneratorFactory idGeneratorFactory = new DefaultIdGeneratorFactory( fs, immediate() );
         NullLogProvider nullLogProvider = NullLogProvider.getInstance();
         RecordStorageEngine engine =
-                new ExtendedRecordStorageEngine( databaseLayout, config, pageCache, fs, nullLogProvider, tokenHolders, mock( SchemaState.class ),
+                new ExtendedRecordStorageEngine( databaseLayout, config, pageCache, fs, nullLogProvider, jobScheduler, tokenHolders, mock( SchemaState.class ),
                         constraintSemantics, indexConfigCompleter, lockService, databaseHealth, idGeneratorFactory,
                         new DefaultIdController(), transactionApplierTransformer );
         engine.addIndexUpdateListener( indexUpdateListener );
@@ -213,6 +216,12 @@ public class RecordStorageEngineRule extends ExternalResource
             return this;
         }
 
+        public Builder config( Config config )
+        {
+            this.config = config;
+            return this;
+        }
+
         public Builder indexConfigCompleter( IndexConfigCompleter indexConfigCompleter )
         {
             this.indexConfigCompleter = indexConfigCompleter;
@@ -232,15 +241,15 @@ public class RecordStorageEngineRule extends ExternalResource
                 transactionApplierTransformer;
 
         ExtendedRecordStorageEngine( DatabaseLayout databaseLayout, Config config, PageCache pageCache, FileSystemAbstraction fs,
-                LogProvider logProvider, TokenHolders tokenHolders, SchemaState schemaState,
+                LogProvider logProvider, JobScheduler jobScheduler, TokenHolders tokenHolders, SchemaState schemaState,
                 ConstraintRuleAccessor constraintSemantics,
                 IndexConfigCompleter indexConfigCompleter,
                 LockService lockService, Health databaseHealth,
                 IdGeneratorFactory idGeneratorFactory, IdController idController,
                 Function<TransactionApplierFactoryChain,TransactionApplierFactoryChain> transactionApplierTransformer )
         {
-            super( databaseLayout, config, pageCache, fs, logProvider, tokenHolders, schemaState, constraintSemantics, indexConfigCompleter, lockService,
-                    databaseHealth, idGeneratorFactory, idController, RecoveryCleanupWorkCollector.immediate(), PageCacheTracer.NULL, true,
+            super( databaseLayout, config, pageCache, fs, logProvider, jobScheduler, tokenHolders, schemaState, constraintSemantics, indexConfigCompleter,
+                    lockService, databaseHealth, idGeneratorFactory, idController, RecoveryCleanupWorkCollector.immediate(), PageCacheTracer.NULL, true,
                     EmptyMemoryTracker.INSTANCE );
             this.transactionApplierTransformer = transactionApplierTransformer;
         }
@@ -37,6 +37,12 @@ public final class IndexDescriptor implements IndexRef<IndexDescriptor>, SchemaR
      */
     public static final IndexDescriptor NO_INDEX = new IndexDescriptor();
 
+    /**
+     * The index config key of the maximum number of exact lookup results a native unique index caches, as an int.
+     * Overrides the database wide default for the index it's set on, where zero disables the cache.
+     */
+    public static final String SEEK_CACHE_MAX_ENTRIES = "seek_cache.max_entries";
+
     private final long id;
     private final String name;
     private final SchemaDescriptor schema;
@@ -463,6 +463,26 @@ public final class UnsafeUtil
         memoryTracker.releaseNative( bytes );
     }
 
+    /**
+     * Account for a block of memory that was allocated outside of {@link #allocateMemory}, for instance by mapping it directly from the operating
+     * system, so it is tracked and can be accessed like the memory from {@link #allocateMemory}.
+     */
+    public static void registerExternalMemory( long pointer, long bytes, MemoryTracker memoryTracker )
+    {
+        addAllocatedPointer( pointer, bytes );
+        memoryTracker.allocateNative( bytes );
+    }
+
+    /**
+     * Stop accounting for a block of memory that was registered with {@link #registerExternalMemory}. The caller is responsible for releasing
+     * the memory itself.
+     */
+    public static void unregisterExternalMemory( long pointer, long bytes, MemoryTracker memoryTracker )
+    {
+        checkFree( pointer );
+        memoryTracker.releaseNative( bytes );
+    }
+
     private static void addAllocatedPointer( long pointer, long sizeInBytes )
     {
         if ( CHECK_NATIVE_ACCESS )
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.util.Native;
+
+import java.io.IOException;
+
+/**
+ * Compression of the command entries in {@link LogEntryTypeCodes#COMPRESSED_COMMANDS} entries, using Zstandard at a fast level
+ * since transactions are compressed as part of committing them.
+ */
+public final class CommandsCompression
+{
+    private static final int LEVEL = 1;
+
+    private CommandsCompression()
+    {
+        throw new AssertionError( "No instances" );
+    }
+
+    /**
+     * @return {@code true} if the native compression library can be loaded on this platform.
+     */
+    public static boolean isAvailable()
+    {
+        try
+        {
+            Native.load();
+            return Native.isLoaded();
+        }
+        catch ( Throwable t )
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Compress the first {@code length} bytes of the given command entries.
+     *
+     * @return the compressed bytes.
+     */
+    public static byte[] compress( byte[] commands, int length ) throws IOException
+    {
+        byte[] target = new byte[(int) Zstd.compressBound( length )];
+        long compressed = Zstd.compressByteArray( target, 0, target.length, commands, 0, length, LEVEL );
+        if ( Zstd.isError( compressed ) )
+        {
+            throw new IOException( "Failed to compress commands: " + Zstd.getErrorName( compressed ) );
+        }
+        byte[] result = new byte[(int) compressed];
+        System.arraycopy( target, 0, result, 0, result.length );
+        return result;
+    }
+
+    /**
+     * Decompress the given compressed command entries into the given array, which must be exactly as large as the command entries
+     * were before they were compressed.
+     */
+    static void decompress( byte[] compressed, byte[] target ) throws IOException
+    {
+        long decompressed = Zstd.decompressByteArray( target, 0, target.length, compressed, 0, compressed.length );
+        if ( Zstd.isError( decompressed ) )
+        {
+            throw new IOException( "Failed to decompress commands: " + Zstd.getErrorName( decompressed ) );
+        }
+        if ( decompressed != target.length )
+        {
+            throw new IOException( "Decompressed commands are " + decompressed + " bytes, but expected " + target.length + " bytes." );
+        }
+    }
+}
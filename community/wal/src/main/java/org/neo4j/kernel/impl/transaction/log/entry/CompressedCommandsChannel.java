@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import java.nio.ByteBuffer;
+
+import org.neo4j.io.fs.ReadableChecksumChannel;
+
+/**
+ * Channel over the decompressed command entries of a {@link LogEntryCompressedCommands} entry. These have already been covered by
+ * the checksum of their transaction in compressed form, so this channel doesn't compute checksums of its own.
+ */
+class CompressedCommandsChannel implements ReadableChecksumChannel
+{
+    private final ByteBuffer commands;
+
+    CompressedCommandsChannel( byte[] commands )
+    {
+        this.commands = ByteBuffer.wrap( commands );
+    }
+
+    boolean hasRemaining()
+    {
+        return commands.hasRemaining();
+    }
+
+    @Override
+    public byte get()
+    {
+        return commands.get();
+    }
+
+    @Override
+    public short getShort()
+    {
+        return commands.getShort();
+    }
+
+    @Override
+    public int getInt()
+    {
+        return commands.getInt();
+    }
+
+    @Override
+    public long getLong()
+    {
+        return commands.getLong();
+    }
+
+    @Override
+    public float getFloat()
+    {
+        return commands.getFloat();
+    }
+
+    @Override
+    public double getDouble()
+    {
+        return commands.getDouble();
+    }
+
+    @Override
+    public void get( byte[] bytes, int length )
+    {
+        commands.get( bytes, 0, length );
+    }
+
+    @Override
+    public void beginChecksum()
+    {
+        throw new UnsupportedOperationException( "Compressed commands are checksummed as part of their transaction" );
+    }
+
+    @Override
+    public int endChecksumAndValidate()
+    {
+        throw new UnsupportedOperationException( "Compressed commands are checksummed as part of their transaction" );
+    }
+
+    @Override
+    public void close()
+    {   // nothing to close
+    }
+}
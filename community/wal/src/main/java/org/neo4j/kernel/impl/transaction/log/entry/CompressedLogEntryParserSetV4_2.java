@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import java.io.IOException;
+
+import org.neo4j.io.fs.ReadableChecksumChannel;
+import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
+import org.neo4j.storageengine.api.CommandReaderFactory;
+
+/**
+ * The {@link LogEntryParserSetV4_2} format, where the command entries of a transaction are written as one compressed
+ * {@link LogEntryTypeCodes#COMPRESSED_COMMANDS} entry between its start and commit entries:
+ * <pre>
+ *     [VERSION][COMPRESSED_COMMANDS][UNCOMPRESSED_LENGTH][COMPRESSED_LENGTH][COMPRESSED_DATA]
+ * </pre>
+ * The uncompressed data holds the command entries exactly as a {@link LogEntryParserSetV4_2} writer would have written them, version and
+ * type included, so that the commands keep being read by the command readers of that version. The compressed data is part of the checksum
+ * of the transaction like any other entry data.
+ */
+public class CompressedLogEntryParserSetV4_2 extends LogEntryParserSetV4_2
+{
+    public static final LogEntryParserSet V4_2_COMPRESSED = new CompressedLogEntryParserSetV4_2();
+
+    private CompressedLogEntryParserSetV4_2()
+    {
+        super( LogEntryParserSetVersion.CompressedLogEntryV4_2 );
+        register( new LogEntryParser( LogEntryTypeCodes.COMPRESSED_COMMANDS )
+        {
+            @Override
+            public LogEntry parse( byte version, ReadableChecksumChannel channel, LogPositionMarker marker, CommandReaderFactory commandReaderFactory )
+                    throws IOException
+            {
+                int uncompressedLength = channel.getInt();
+                int compressedLength = channel.getInt();
+                if ( uncompressedLength < 0 || compressedLength < 0 )
+                {
+                    throw new IOException( "Invalid compressed commands lengths, uncompressed:" + uncompressedLength + " compressed:" + compressedLength );
+                }
+                byte[] compressed = new byte[compressedLength];
+                channel.get( compressed, compressedLength );
+                byte[] commands = new byte[uncompressedLength];
+                CommandsCompression.decompress( compressed, commands );
+                return new LogEntryCompressedCommands( version, commands );
+            }
+        } );
+    }
+
+    @Override
+    public LogEntryParserSet compressedCommandsParserSet()
+    {
+        return LogEntryParserSetV4_2.V4_2;
+    }
+}
@@ -73,4 +73,13 @@ public abstract class LogEntryParserSet
     {
         return version;
     }
+
+    /**
+     * @return the parser set of the command entries that this set compresses into {@link LogEntryTypeCodes#COMPRESSED_COMMANDS} entries,
+     * or {@code null} if this set writes command entries as they are.
+     */
+    public LogEntryParserSet compressedCommandsParserSet()
+    {
+        return null;
+    }
 }
@@ -33,7 +33,12 @@ public class LogEntryParserSetV4_2 extends LogEntryParserSet
 
     private LogEntryParserSetV4_2()
     {
-        super( LogEntryParserSetVersion.LogEntryV4_2 );
+        this( LogEntryParserSetVersion.LogEntryV4_2 );
+    }
+
+    LogEntryParserSetV4_2( LogEntryParserSetVersion version )
+    {
+        super( version );
         register( new LogEntryParser( LogEntryTypeCodes.TX_START )
         {
             @Override
@@ -25,7 +25,9 @@ public enum LogEntryParserSetVersion
     LogEntryV4_0( (byte) 1 ), // 4.0 to 4.1. Added checksums to the log files.
     LogEntryV4_2( (byte) 2 ), // 4.2+. Removed checkpoint entries.
 
-    CheckpointEntryV4_2( (byte) 3 ); // 4.2+. Checkpoint entries in separate file.
+    CheckpointEntryV4_2( (byte) 3 ), // 4.2+. Checkpoint entries in separate file.
+
+    CompressedLogEntryV4_2( (byte) 4 ); // 4.2+. Optional. Command entries of a transaction compressed into one entry.
 
     private final byte version;
 
@@ -23,6 +23,7 @@ import org.neo4j.storageengine.api.CommandReader;
 import org.neo4j.storageengine.api.CommandReaderFactory;
 import org.neo4j.storageengine.api.StorageCommand;
 
+import static org.neo4j.kernel.impl.transaction.log.entry.CompressedLogEntryParserSetV4_2.V4_2_COMPRESSED;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetV2_3.V2_3;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetV4_0.V4_0;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetV4_2.V4_2;
@@ -68,5 +69,6 @@ public class TransactionLogVersionSelector extends LogVersionSelector
         register( V2_3 );
         register( V4_0 );
         register( V4_2 );
+        register( V4_2_COMPRESSED );
     }
 }
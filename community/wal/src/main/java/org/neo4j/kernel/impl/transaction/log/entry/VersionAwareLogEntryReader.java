@@ -45,6 +45,9 @@ public class VersionAwareLogEntryReader implements LogEntryReader
     private final boolean verifyChecksumChain;
     private LogEntryParserSet parserSet = TransactionLogVersionSelector.LATEST;
     private int lastTxChecksum = BASE_TX_CHECKSUM;
+    private CompressedCommandsChannel compressedCommands;
+    private ReadableClosablePositionAwareChecksumChannel compressedCommandsSource;
+    private LogPosition compressedCommandsEnd;
 
     public VersionAwareLogEntryReader( CommandReaderFactory commandReaderFactory )
     {
@@ -72,6 +75,15 @@ public class VersionAwareLogEntryReader implements LogEntryReader
             while ( true )
             {
                 channel.getCurrentPosition( positionMarker );
+                if ( compressedCommands != null )
+                {
+                    // Hand out the commands of a compressed entry before reading further, unless the channel has moved on since
+                    if ( compressedCommands.hasRemaining() && isPositionedAfterCompressedCommands( channel ) )
+                    {
+                        return readCompressedCommand();
+                    }
+                    clearCompressedCommands();
+                }
 
                 byte versionCode = channel.get();
                 if ( versionCode == 0 )
@@ -117,12 +129,16 @@ public class VersionAwareLogEntryReader implements LogEntryReader
                 }
                 catch ( Exception e )
                 {   // Tag all other exceptions with log position and other useful information
-                    LogPosition position = positionMarker.newPosition();
-                    withMessage( e, e.getMessage() + ". At position " + position + " and entry version " + versionCode );
-                    throwIfInstanceOf( e, UnsupportedLogVersionException.class );
-                    throw new IOException( e );
+                    throw parseFailure( e, versionCode );
                 }
 
+                if ( entry instanceof LogEntryCompressedCommands )
+                {
+                    compressedCommands = new CompressedCommandsChannel( ((LogEntryCompressedCommands) entry).getCommands() );
+                    compressedCommandsSource = channel;
+                    compressedCommandsEnd = channel.getCurrentPosition( positionMarker ).newPosition();
+                    continue;
+                }
                 verifyChecksumChain( entry );
                 return entry;
             }
@@ -133,6 +149,51 @@ public class VersionAwareLogEntryReader implements LogEntryReader
         }
     }
 
+    /**
+     * Reads the next command entry of the compressed commands entry last read. These are written as regular command entries, with
+     * the version of the parser set that the commands were written with.
+     */
+    private LogEntry readCompressedCommand() throws IOException
+    {
+        byte versionCode = 0;
+        try
+        {
+            versionCode = compressedCommands.get();
+            byte typeCode = compressedCommands.get();
+            if ( typeCode != LogEntryTypeCodes.COMMAND )
+            {
+                throw new IllegalStateException( "Unexpected entry type " + typeCode + " among compressed commands" );
+            }
+            return selector.select( versionCode ).select( typeCode ).parse( versionCode, compressedCommands, positionMarker, commandReaderFactory );
+        }
+        catch ( Exception e )
+        {
+            clearCompressedCommands();
+            throw parseFailure( e, versionCode );
+        }
+    }
+
+    private boolean isPositionedAfterCompressedCommands( ReadableClosablePositionAwareChecksumChannel channel )
+    {
+        return channel == compressedCommandsSource && positionMarker.getLogVersion() == compressedCommandsEnd.getLogVersion() &&
+                positionMarker.getByteOffset() == compressedCommandsEnd.getByteOffset();
+    }
+
+    private void clearCompressedCommands()
+    {
+        compressedCommands = null;
+        compressedCommandsSource = null;
+        compressedCommandsEnd = null;
+    }
+
+    private IOException parseFailure( Exception e, byte versionCode )
+    {
+        LogPosition position = positionMarker.newPosition();
+        withMessage( e, e.getMessage() + ". At position " + position + " and entry version " + versionCode );
+        throwIfInstanceOf( e, UnsupportedLogVersionException.class );
+        return new IOException( e );
+    }
+
     private void verifyChecksumChain( LogEntry e )
     {
         if ( VERIFY_CHECKSUM_CHAIN && verifyChecksumChain )